@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.api;
+
+import java.util.Map;
+import java.util.Set;
+
+import li.strolch.model.Resource;
+import li.strolch.model.timedstate.Availability;
+import li.strolch.model.timedstate.StrolchTimedState;
+
+/**
+ * <p>
+ * An index on the availability of all {@link Resource Resources} of a given type, as defined by the numeric {@link
+ * StrolchTimedState} with a given ID, e.g. the load of a machine. The index holds an {@link Availability} snapshot of
+ * the timed state of each {@link Resource}, which is replaced by the {@link ResourceMap} on add and update, i.e. when a
+ * transaction which planned {@link li.strolch.model.activity.Action Actions} on the {@link Resource} is committed.
+ * </p>
+ *
+ * <p>
+ * Lookups don't lock and don't copy the time evolution of the timed states, and thus only reflect committed changes.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public interface AvailabilityIndex {
+
+	/**
+	 * @return the type of {@link Resource Resources} indexed
+	 */
+	String getType();
+
+	/**
+	 * @return the ID of the indexed timed state
+	 */
+	String getStateId();
+
+	/**
+	 * @return the number of {@link Resource Resources} indexed
+	 */
+	int size();
+
+	/**
+	 * Returns the {@link Availability} of the {@link Resource} with the given ID
+	 *
+	 * @param resourceId
+	 * 		the ID of the {@link Resource}
+	 *
+	 * @return the {@link Availability}, or null if the {@link Resource} does not exist, or has no such timed state
+	 */
+	Availability getAvailability(String resourceId);
+
+	/**
+	 * Returns the IDs of the {@link Resource Resources} whose value is at most the given capacity during the whole time
+	 * range from (inclusive) to (exclusive)
+	 *
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @param capacity
+	 * 		the maximum value allowed in the time range
+	 *
+	 * @return the IDs of the available {@link Resource Resources}, never null
+	 *
+	 * @see Availability#isAvailable(long, long, double)
+	 */
+	Set<String> getAvailableIds(long from, long to, double capacity);
+
+	/**
+	 * Returns for each {@link Resource} the start of its first time range at or after the given time with at least the
+	 * given duration, during which its value is at most the given capacity
+	 *
+	 * @param after
+	 * 		the earliest time at which the time range may start
+	 * @param duration
+	 * 		the minimum duration of the time range
+	 * @param capacity
+	 * 		the maximum value allowed in the time range
+	 *
+	 * @return the start of the first such time range by {@link Resource} ID, only containing the {@link Resource
+	 * Resources} having such a time range, never null
+	 *
+	 * @see Availability#findFirstSlot(long, long, double)
+	 */
+	Map<String, Long> findFirstSlots(long after, long duration, double capacity);
+}
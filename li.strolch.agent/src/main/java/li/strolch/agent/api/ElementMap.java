@@ -15,6 +15,7 @@
  */
 package li.strolch.agent.api;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -95,6 +96,27 @@ public interface ElementMap<T extends StrolchRootElement> {
 	 */
 	long querySize(StrolchTransaction tx, String type);
 
+	/**
+	 * <p>
+	 * Returns a counter which is incremented each time an element of the given type is added, updated or removed in
+	 * this map. The counter is incremented after the change is visible in this map, so a reader which first reads the
+	 * counter and then the elements, never sees elements older than the counter.
+	 * </p>
+	 *
+	 * <p>
+	 * <b>Note:</b> The counter is kept in memory only, and thus starts at 0 when the agent is started. It can be used
+	 * to detect changes during the runtime of the agent, e.g. for HTTP caching
+	 * </p>
+	 *
+	 * @param tx
+	 * 		the open {@link StrolchTransaction}
+	 * @param type
+	 * 		the type of element for which the modification counter is to be returned
+	 *
+	 * @return the modification counter of the elements of the given type
+	 */
+	long getModificationCounter(StrolchTransaction tx, String type);
+
 	/**
 	 * Returns a copy of the element with the type "Template" and the id = type
 	 *
@@ -157,6 +179,28 @@ public interface ElementMap<T extends StrolchRootElement> {
 	 */
 	T getBy(StrolchTransaction tx, String type, String id, boolean assertExists) throws StrolchException;
 
+	/**
+	 * Retrieves the element with the given type and id, or null if it does not exist. In contrast to {@link
+	 * #getBy(StrolchTransaction, String, String, boolean)} the element is not cloned, i.e. the returned element is the
+	 * shared, read only instance held by this map. To modify the element, call {@link
+	 * StrolchRootElement#getClone(boolean)}
+	 *
+	 * @param tx
+	 * 		the open transaction
+	 * @param type
+	 * 		the type of the element to retrieve
+	 * @param id
+	 * 		the id of the element to retrieve
+	 * @param assertExists
+	 * 		if true, and element does not exist, then a {@link StrolchException} is thrown
+	 *
+	 * @return the read only element with the type and id, or null if it does not exist
+	 *
+	 * @throws StrolchException
+	 * 		if the element does not exist
+	 */
+	T getReadOnlyBy(StrolchTransaction tx, String type, String id, boolean assertExists) throws StrolchException;
+
 	/**
 	 * Retrieves the specific version of the element with the given type and id, or null if it does not exist
 	 *
@@ -215,6 +259,25 @@ public interface ElementMap<T extends StrolchRootElement> {
 	 */
 	T getBy(StrolchTransaction tx, StringParameter refP, boolean assertExists) throws StrolchException;
 
+	/**
+	 * Returns the element which is referenced by the given {@link StringParameter}. In contrast to {@link
+	 * #getBy(StrolchTransaction, StringParameter, boolean)} the element is not cloned, i.e. the returned element is the
+	 * shared, read only instance held by this map
+	 *
+	 * @param tx
+	 * 		the {@link StrolchTransaction} instance
+	 * @param refP
+	 * 		the {@link StringParameter} which references an element
+	 * @param assertExists
+	 * 		if true, and element does not exist, then a {@link StrolchException} is thrown
+	 *
+	 * @return the read only element found, or null if it does not exist
+	 *
+	 * @throws StrolchException
+	 * 		if the {@link StringParameter} is not a properly configured as a reference parameter
+	 */
+	T getReadOnlyBy(StrolchTransaction tx, StringParameter refP, boolean assertExists) throws StrolchException;
+
 	/**
 	 * Returns all elements which are referenced by the given {@link StringListParameter}. A reference {@link Parameter}
 	 * must have its interpretation set to the element type being referenced e.g. s
@@ -298,6 +361,53 @@ public interface ElementMap<T extends StrolchRootElement> {
 	 */
 	Stream<T> stream(StrolchTransaction tx, String... types);
 
+	/**
+	 * Returns a {@link Stream} of the read only elements of the given type with the given IDs. IDs for which no
+	 * element exists are ignored. This is used to stream the candidates returned by a {@link ParameterIndex}
+	 *
+	 * @param tx
+	 * 		the {@link StrolchTransaction} instance
+	 * @param type
+	 * 		the type of the elements
+	 * @param ids
+	 * 		the IDs of the elements
+	 *
+	 * @return a stream for the elements
+	 */
+	Stream<T> streamBy(StrolchTransaction tx, String type, Collection<String> ids);
+
+	/**
+	 * Adds a {@link ParameterIndex} on the parameter with the given bag and parameter ID for the elements of the given
+	 * type. Existing elements are indexed immediately, and the index is then maintained on add, update and remove. If
+	 * such an index already exists, then this method does nothing
+	 *
+	 * @param type
+	 * 		the type of the elements to index
+	 * @param bagId
+	 * 		the ID of the bag of the parameter to index
+	 * @param paramId
+	 * 		the ID of the parameter to index
+	 * @param sorted
+	 * 		true if the index should be sorted, thus supporting range lookups
+	 */
+	void addIndex(String type, String bagId, String paramId, boolean sorted);
+
+	/**
+	 * Returns the {@link ParameterIndex} for the given type, bag and parameter ID, or null if no such index exists
+	 *
+	 * @param tx
+	 * 		the {@link StrolchTransaction} instance
+	 * @param type
+	 * 		the type of the indexed elements
+	 * @param bagId
+	 * 		the ID of the bag of the indexed parameter
+	 * @param paramId
+	 * 		the ID of the indexed parameter
+	 *
+	 * @return the index, or null if no such index exists
+	 */
+	ParameterIndex getIndex(StrolchTransaction tx, String type, String bagId, String paramId);
+
 	/**
 	 * Returns all the types known in the underlying persistence layer
 	 *
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.api;
+
+import java.util.Set;
+
+/**
+ * <p>
+ * A secondary index on the value of a parameter of all elements of a given type, maintained by the {@link ElementMap}
+ * on add, update and remove. The index maps the parameter's value to the IDs of the elements having this value.
+ * </p>
+ *
+ * <p>
+ * A hash index only supports lookups by value, while a sorted index additionally supports range lookups. Only single
+ * valued parameters can be indexed, once a list parameter is indexed, the index is not usable anymore.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public interface ParameterIndex {
+
+	/**
+	 * @return the type of elements indexed
+	 */
+	String getType();
+
+	/**
+	 * @return the ID of the bag of the indexed parameter
+	 */
+	String getBagId();
+
+	/**
+	 * @return the ID of the indexed parameter
+	 */
+	String getParamId();
+
+	/**
+	 * @return true if this index is sorted, and thus supports range lookups
+	 */
+	boolean isSorted();
+
+	/**
+	 * Returns true if this index can be used for lookups, i.e. no list parameters have been indexed
+	 *
+	 * @return true if this index can be used for lookups
+	 */
+	boolean isUsable();
+
+	/**
+	 * Returns the class of the indexed values, or null if no value is indexed yet
+	 *
+	 * @return the class of the indexed values, or null if no value is indexed yet
+	 */
+	Class<?> getValueClass();
+
+	/**
+	 * Returns the IDs of the elements where the parameter has the given value
+	 *
+	 * @param value
+	 * 		the value to look up
+	 *
+	 * @return the IDs of the elements with the given value, never null
+	 */
+	Set<String> getIdsFor(Object value);
+
+	/**
+	 * Returns the IDs of the elements where the parameter's value is in the given range
+	 *
+	 * @param from
+	 * 		the lower bound, or null if unbounded
+	 * @param fromInclusive
+	 * 		true if the lower bound is inclusive
+	 * @param to
+	 * 		the upper bound, or null if unbounded
+	 * @param toInclusive
+	 * 		true if the upper bound is inclusive
+	 *
+	 * @return the IDs of the elements with a value in the given range, never null
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		if this index is not sorted
+	 */
+	Set<String> getIdsIn(Object from, boolean fromInclusive, Object to, boolean toInclusive);
+}
@@ -27,4 +27,30 @@ import li.strolch.persistence.api.StrolchTransaction;
 public interface ResourceMap extends ElementMap<Resource> {
 
 	public <U> List<U> doQuery(StrolchTransaction tx, ResourceQuery<U> query);
+
+	/**
+	 * Adds an {@link AvailabilityIndex} on the numeric timed state with the given ID of the {@link Resource Resources}
+	 * of the given type. Existing resources are indexed immediately, and the index is then maintained on add, update
+	 * and remove. If such an index already exists, then this method does nothing
+	 *
+	 * @param type
+	 * 		the type of the resources to index
+	 * @param stateId
+	 * 		the ID of the timed state to index
+	 */
+	void addAvailabilityIndex(String type, String stateId);
+
+	/**
+	 * Returns the {@link AvailabilityIndex} for the given type and timed state ID, or null if no such index exists
+	 *
+	 * @param tx
+	 * 		the {@link StrolchTransaction} instance
+	 * @param type
+	 * 		the type of the indexed resources
+	 * @param stateId
+	 * 		the ID of the indexed timed state
+	 *
+	 * @return the index, or null if no such index exists
+	 */
+	AvailabilityIndex getAvailabilityIndex(StrolchTransaction tx, String type, String stateId);
 }
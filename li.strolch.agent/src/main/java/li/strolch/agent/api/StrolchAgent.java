@@ -33,6 +33,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import li.strolch.agent.impl.ComponentContainerImpl;
 import li.strolch.exception.StrolchException;
+import li.strolch.metrics.MetricsRegistry;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.privilege.base.PrivilegeException;
 import li.strolch.privilege.model.Certificate;
@@ -63,12 +64,14 @@ public class StrolchAgent {
 	private StrolchVersion appVersion;
 
 	private ExecutorPool executorPool;
+	private final MetricsRegistry metrics;
 
 	private JsonObject systemState;
 	private long systemStateUpdateTime;
 
 	public StrolchAgent(StrolchVersion appVersion) {
 		this.appVersion = appVersion;
+		this.metrics = new MetricsRegistry();
 	}
 
 	/**
@@ -149,6 +152,15 @@ public class StrolchAgent {
 		return this.strolchConfiguration.getRuntimeConfiguration().getApplicationName();
 	}
 
+	/**
+	 * Return the {@link MetricsRegistry} of this agent
+	 *
+	 * @return the {@link MetricsRegistry} of this agent
+	 */
+	public MetricsRegistry getMetrics() {
+		return this.metrics;
+	}
+
 	/**
 	 * Return the {@link ExecutorService} instantiated for this agent
 	 *
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import li.strolch.exception.StrolchException;
+import li.strolch.model.audit.AccessType;
+import li.strolch.model.audit.Audit;
+import li.strolch.persistence.api.AuditDao;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.utils.helper.StringHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Writes the audits of a {@link CachedRealm} asynchronously, so that committing a transaction does not wait for its
+ * audits to be inserted into the database.
+ * </p>
+ *
+ * <p>
+ * Audits are added to a bounded queue, which is drained by a single thread, writing up to the configured batch size of
+ * audits in one transaction. Audits may only be queued once their transaction was committed, thus before committing,
+ * the caller checks with {@link #canEnqueue(int)} if the queue has room, and otherwise writes the audits synchronously
+ * in its transaction, thus applying back pressure when the database can not keep up. After the commit, the audits are
+ * queued with {@link #enqueue(List)}.
+ * </p>
+ *
+ * <p>
+ * In mode {@link AuditTrailWriteMode#ASYNC_JOURNALED} the audits are first appended to a journal file, which is
+ * truncated once all queued audits have been written, or rewritten with the still queued audits when it grows too
+ * large. When starting, any audits still in the journal are written to the database, skipping those which were
+ * already written before the agent stopped.
+ * </p>
+ *
+ * <p>
+ * Note that audits written asynchronously are only found by queries of the {@link li.strolch.agent.api.AuditTrail}
+ * once they have been written.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class AsyncAuditTrailWriter {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncAuditTrailWriter.class);
+
+	private static final byte[] MAGIC = { 'S', 'A', 'J', '1' };
+	private static final long RETRY_DELAY_MS = 1000L;
+	private static final long STOP_TIMEOUT_MS = 30000L;
+	private static final long JOURNAL_COMPACTION_SIZE = 16L * 1024L * 1024L;
+
+	public static final int DEFAULT_QUEUE_SIZE = 10000;
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	private final InternalStrolchRealm realm;
+	private final AuditTrailWriteMode mode;
+	private final int queueSize;
+	private final int batchSize;
+	private final File journalFile;
+	private final BlockingQueue<QueuedAudit> queue;
+
+	private final AtomicLong nrOfWrittenAudits;
+	private final AtomicLong nrOfBatches;
+	private final AtomicLong nrOfSyncWrites;
+	private final AtomicLong nrOfFailures;
+	private volatile long lastBatchLagNanos;
+
+	private volatile boolean running;
+	private Thread thread;
+	private FileChannel journal;
+
+	/**
+	 * @param realm
+	 * 		the realm for which to write the audits
+	 * @param mode
+	 * 		the asynchronous write mode
+	 * @param queueSize
+	 * 		the maximum number of audits waiting to be written
+	 * @param batchSize
+	 * 		the maximum number of audits written in one transaction
+	 * @param journalFile
+	 * 		the journal file, required for mode {@link AuditTrailWriteMode#ASYNC_JOURNALED}
+	 */
+	public AsyncAuditTrailWriter(InternalStrolchRealm realm, AuditTrailWriteMode mode, int queueSize, int batchSize,
+			File journalFile) {
+		if (!mode.isAsync())
+			throw new IllegalArgumentException("Mode " + mode + " is not asynchronous!");
+		if (mode == AuditTrailWriteMode.ASYNC_JOURNALED && journalFile == null)
+			throw new IllegalArgumentException("A journal file is required for mode " + mode);
+
+		this.realm = realm;
+		this.mode = mode;
+		this.queueSize = queueSize;
+		this.batchSize = batchSize;
+		this.journalFile = journalFile;
+		// the queue size is checked in canEnqueue(), as committed audits must always be accepted
+		this.queue = new LinkedBlockingQueue<>();
+
+		this.nrOfWrittenAudits = new AtomicLong();
+		this.nrOfBatches = new AtomicLong();
+		this.nrOfSyncWrites = new AtomicLong();
+		this.nrOfFailures = new AtomicLong();
+	}
+
+	public AuditTrailWriteMode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * @return the number of audits waiting to be written
+	 */
+	public int getQueueDepth() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return the time in milliseconds the oldest audit in the queue has been waiting to be written, or 0 if the queue
+	 * is empty
+	 */
+	public long getLagMillis() {
+		QueuedAudit head = this.queue.peek();
+		if (head == null)
+			return 0L;
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueued);
+	}
+
+	/**
+	 * @return the time in milliseconds the oldest audit of the last written batch was waiting to be written
+	 */
+	public long getLastBatchLagMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.lastBatchLagNanos);
+	}
+
+	public long getNrOfWrittenAudits() {
+		return this.nrOfWrittenAudits.get();
+	}
+
+	public long getNrOfBatches() {
+		return this.nrOfBatches.get();
+	}
+
+	/**
+	 * @return the number of times the audits had to be written synchronously, as the queue was full
+	 */
+	public long getNrOfSyncWrites() {
+		return this.nrOfSyncWrites.get();
+	}
+
+	public long getNrOfFailures() {
+		return this.nrOfFailures.get();
+	}
+
+	/**
+	 * Writes any audits left in the journal, and then starts the thread writing the queued audits
+	 */
+	public synchronized void start() {
+		if (this.mode == AuditTrailWriteMode.ASYNC_JOURNALED) {
+			replayJournal();
+			openJournal();
+		}
+
+		this.running = true;
+		this.thread = new Thread(this::run, "AuditTrailWriter-" + this.realm.getRealm());
+		this.thread.setDaemon(true);
+		this.thread.start();
+
+		logger.info(MessageFormat.format("Writing audits of realm {0} in mode {1}", this.realm.getRealm(),
+				this.mode)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Stops accepting audits, and waits for the queued audits to be written
+	 */
+	public void stop() {
+		Thread thread;
+		synchronized (this) {
+			if (!this.running)
+				return;
+			this.running = false;
+			thread = this.thread;
+		}
+
+		try {
+			thread.join(STOP_TIMEOUT_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (this) {
+			int remaining = this.queue.size();
+			if (remaining > 0) {
+				if (this.journal == null)
+					logger.error(MessageFormat.format("Lost {0} audits of realm {1} which could not be written!",
+							remaining, this.realm.getRealm())); //$NON-NLS-1$
+				else
+					logger.warn(MessageFormat.format(
+							"{0} audits of realm {1} could not be written and remain in the journal {2}", remaining,
+							this.realm.getRealm(), this.journalFile.getAbsolutePath())); //$NON-NLS-1$
+			}
+			closeJournal();
+		}
+	}
+
+	/**
+	 * Returns true if the queue has room for the given number of audits, so that they can be queued once their
+	 * transaction is committed. Otherwise the caller must write the audits in its transaction
+	 *
+	 * @param nrOfAudits
+	 * 		the number of audits to queue
+	 *
+	 * @return true if the audits can be queued, false if the queue is full, or the writer is not running
+	 */
+	public synchronized boolean canEnqueue(int nrOfAudits) {
+		if (!this.running || this.queue.size() + nrOfAudits > this.queueSize) {
+			this.nrOfSyncWrites.incrementAndGet();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Adds the given audits of a committed transaction to the queue, appending them to the journal first, if enabled.
+	 * </p>
+	 *
+	 * <p>
+	 * As the transaction is already committed, the audits are always accepted: the queue may grow beyond its size by
+	 * the audits of transactions which committed concurrently after calling {@link #canEnqueue(int)}, and should the
+	 * writer have been stopped in the meantime, then the audits are written in a new transaction.
+	 * </p>
+	 *
+	 * @param audits
+	 * 		the audits to write
+	 */
+	public synchronized void enqueue(List<Audit> audits) {
+		if (!this.running) {
+			try {
+				write(audits, false);
+				this.nrOfWrittenAudits.addAndGet(audits.size());
+			} catch (Exception e) {
+				this.nrOfFailures.incrementAndGet();
+				logger.error(MessageFormat.format("Lost {0} audits of realm {1} which could not be written!",
+						audits.size(), this.realm.getRealm()), e); //$NON-NLS-1$
+			}
+			return;
+		}
+
+		if (this.journal != null) {
+			try {
+				appendToJournal(audits);
+			} catch (IOException e) {
+				logger.error("Failed to append audits to journal " + this.journalFile.getAbsolutePath()
+						+ ", they are only queued", e);
+			}
+		}
+
+		long now = System.nanoTime();
+		for (Audit audit : audits) {
+			this.queue.add(new QueuedAudit(audit, now));
+		}
+	}
+
+	private void run() {
+		List<QueuedAudit> batch = new ArrayList<>(this.batchSize);
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				QueuedAudit first = this.queue.poll(100L, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+
+				batch.add(first);
+				this.queue.drainTo(batch, this.batchSize - 1);
+
+				if (!writeWithRetry(batch))
+					break;
+
+				batch.clear();
+				truncateJournal();
+
+			} catch (InterruptedException e) {
+				logger.warn("Interrupted while writing audits of realm " + this.realm.getRealm());
+				break;
+			}
+		}
+	}
+
+	private boolean writeWithRetry(List<QueuedAudit> batch) throws InterruptedException {
+		List<Audit> audits = batch.stream().map(q -> q.audit).collect(toList());
+		while (true) {
+			try {
+				long start = System.nanoTime();
+				write(audits, false);
+				this.lastBatchLagNanos = start - batch.get(0).enqueued;
+				this.nrOfWrittenAudits.addAndGet(audits.size());
+				this.nrOfBatches.incrementAndGet();
+
+				if (logger.isDebugEnabled())
+					logger.debug("Wrote " + audits.size() + " audits of realm " + this.realm.getRealm() + " in "
+							+ StringHelper.formatNanoDuration(System.nanoTime() - start));
+
+				return true;
+
+			} catch (Exception e) {
+				this.nrOfFailures.incrementAndGet();
+				if (!this.running) {
+					logger.error(MessageFormat.format("Failed to write {0} audits of realm {1} while stopping",
+							audits.size(), this.realm.getRealm()), e); //$NON-NLS-1$
+					// put the audits back, so that they are counted as remaining
+					batch.forEach(this.queue::offer);
+					return false;
+				}
+
+				logger.error(MessageFormat.format("Failed to write {0} audits of realm {1}, retrying in {2}ms",
+						audits.size(), this.realm.getRealm(), RETRY_DELAY_MS), e); //$NON-NLS-1$
+				Thread.sleep(RETRY_DELAY_MS);
+			}
+		}
+	}
+
+	private void write(List<Audit> audits, boolean skipExisting) throws Exception {
+		this.realm.container.getPrivilegeHandler().runAsAgent(ctx -> {
+			try (StrolchTransaction tx = this.realm.openTx(ctx.getCertificate(), AsyncAuditTrailWriter.class,
+					false)) {
+				tx.setSuppressAudits(true);
+				AuditDao auditDao = tx.getPersistenceHandler().getAuditDao(tx);
+
+				List<Audit> toWrite = audits;
+				if (skipExisting)
+					toWrite = audits.stream().filter(a -> !auditDao.hasElement(a.getElementType(), a.getId()))
+							.collect(toList());
+
+				if (!toWrite.isEmpty())
+					auditDao.saveAll(toWrite);
+				tx.commitOnClose();
+			}
+		});
+	}
+
+	private void replayJournal() {
+		if (!this.journalFile.exists())
+			return;
+
+		List<Audit> audits;
+		try {
+			audits = readJournal();
+		} catch (IOException e) {
+			throw new StrolchException("Failed to read audit journal " + this.journalFile.getAbsolutePath(), e);
+		}
+
+		if (audits.isEmpty())
+			return;
+
+		logger.info(MessageFormat.format("Writing {0} audits of realm {1} from journal {2}", audits.size(),
+				this.realm.getRealm(), this.journalFile.getAbsolutePath())); //$NON-NLS-1$
+
+		try {
+			for (int i = 0; i < audits.size(); i += this.batchSize) {
+				write(audits.subList(i, Math.min(audits.size(), i + this.batchSize)), true);
+			}
+		} catch (Exception e) {
+			throw new StrolchException(
+					"Failed to write audits from journal " + this.journalFile.getAbsolutePath(), e);
+		}
+
+		this.nrOfWrittenAudits.addAndGet(audits.size());
+		if (!this.journalFile.delete())
+			throw new StrolchException("Failed to delete audit journal " + this.journalFile.getAbsolutePath());
+	}
+
+	private List<Audit> readJournal() throws IOException {
+		byte[] bytes = Files.readAllBytes(this.journalFile.toPath());
+		if (bytes.length < MAGIC.length || !Arrays.equals(MAGIC, Arrays.copyOf(bytes, MAGIC.length)))
+			throw new IOException("File is not an audit journal: " + this.journalFile.getAbsolutePath());
+
+		List<Audit> audits = new ArrayList<>();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length, bytes.length - MAGIC.length);
+		while (buffer.hasRemaining()) {
+			if (buffer.remaining() < Integer.BYTES) {
+				logger.warn("Ignoring truncated record at end of audit journal " + this.journalFile.getAbsolutePath());
+				break;
+			}
+
+			int length = buffer.getInt();
+			if (length <= 0 || length > buffer.remaining()) {
+				logger.warn("Ignoring truncated record at end of audit journal " + this.journalFile.getAbsolutePath());
+				break;
+			}
+
+			byte[] record = new byte[length];
+			buffer.get(record);
+			try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+				audits.add(readAudit(in));
+			}
+		}
+
+		return audits;
+	}
+
+	private void openJournal() {
+		try {
+			this.journal = FileChannel.open(this.journalFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE);
+			this.journal.truncate(0L);
+			this.journal.write(ByteBuffer.wrap(MAGIC));
+			this.journal.force(true);
+		} catch (IOException e) {
+			throw new StrolchException("Failed to open audit journal " + this.journalFile.getAbsolutePath(), e);
+		}
+	}
+
+	private void closeJournal() {
+		if (this.journal == null)
+			return;
+
+		try {
+			boolean empty = this.queue.isEmpty();
+			this.journal.close();
+			if (empty && !this.journalFile.delete())
+				logger.error("Failed to delete audit journal " + this.journalFile.getAbsolutePath());
+		} catch (IOException e) {
+			logger.error("Failed to close audit journal " + this.journalFile.getAbsolutePath(), e);
+		}
+		this.journal = null;
+	}
+
+	private void appendToJournal(List<Audit> audits) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(audits.size() * 256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+		for (Audit audit : audits) {
+			recordBytes.reset();
+			writeAudit(new DataOutputStream(recordBytes), audit);
+			out.writeInt(recordBytes.size());
+			recordBytes.writeTo(out);
+		}
+		out.flush();
+
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		while (buffer.hasRemaining()) {
+			this.journal.write(buffer);
+		}
+		this.journal.force(false);
+	}
+
+	private synchronized void truncateJournal() {
+		if (this.journal == null)
+			return;
+
+		try {
+			// the queue only grows empty now and then under load, thus rewrite with the still queued audits
+			if (this.queue.isEmpty() || this.journal.size() > JOURNAL_COMPACTION_SIZE) {
+				this.journal.truncate(MAGIC.length);
+				this.journal.position(MAGIC.length);
+				if (!this.queue.isEmpty())
+					appendToJournal(this.queue.stream().map(q -> q.audit).collect(toList()));
+			}
+		} catch (IOException e) {
+			logger.error("Failed to truncate audit journal " + this.journalFile.getAbsolutePath(), e);
+		}
+	}
+
+	private static void writeAudit(DataOutputStream out, Audit audit) throws IOException {
+		out.writeLong(audit.getId());
+		writeString(out, audit.getUsername());
+		writeString(out, audit.getFirstname());
+		writeString(out, audit.getLastname());
+		out.writeLong(audit.getDate().getTime());
+		writeString(out, audit.getElementType());
+		writeString(out, audit.getElementSubType());
+		writeString(out, audit.getElementAccessed());
+		out.writeLong(audit.getNewVersion() == null ? -1L : audit.getNewVersion().getTime());
+		writeString(out, audit.getAction());
+		writeString(out, audit.getAccessType().name());
+		out.flush();
+	}
+
+	private static Audit readAudit(DataInputStream in) throws IOException {
+		Audit audit = new Audit();
+		audit.setId(in.readLong());
+		audit.setUsername(readString(in));
+		audit.setFirstname(readString(in));
+		audit.setLastname(readString(in));
+		audit.setDate(new Date(in.readLong()));
+		audit.setElementType(readString(in));
+		audit.setElementSubType(readString(in));
+		audit.setElementAccessed(readString(in));
+		long newVersion = in.readLong();
+		audit.setNewVersion(newVersion == -1L ? null : new Date(newVersion));
+		audit.setAction(readString(in));
+		audit.setAccessType(AccessType.valueOf(readString(in)));
+		return audit;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == -1)
+			return null;
+
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	private static class QueuedAudit {
+		private final Audit audit;
+		private final long enqueued;
+
+		private QueuedAudit(Audit audit, long enqueued) {
+			this.audit = audit;
+			this.enqueued = enqueued;
+		}
+	}
+}
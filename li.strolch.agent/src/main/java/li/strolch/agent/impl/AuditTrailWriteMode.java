@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import java.text.MessageFormat;
+
+/**
+ * Defines how the audits of a {@link CachedRealm} are written to the database
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public enum AuditTrailWriteMode {
+
+	/**
+	 * Audits are written in the transaction which created them, i.e. on the commit path
+	 */
+	SYNC,
+
+	/**
+	 * Audits are queued and written in batches by the {@link AsyncAuditTrailWriter}. Queued audits are lost if the
+	 * agent crashes
+	 */
+	ASYNC,
+
+	/**
+	 * Audits are appended to a local journal file, then queued and written in batches by the {@link
+	 * AsyncAuditTrailWriter}. Audits which were not written before a crash are written when the realm is started again
+	 */
+	ASYNC_JOURNALED;
+
+	public boolean isAsync() {
+		return this != SYNC;
+	}
+
+	public static AuditTrailWriteMode parseMode(String modeS) {
+		for (AuditTrailWriteMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(modeS))
+				return mode;
+		}
+
+		throw new IllegalArgumentException(
+				MessageFormat.format("There is no audit trail write mode ''{0}''", modeS)); //$NON-NLS-1$
+	}
+}
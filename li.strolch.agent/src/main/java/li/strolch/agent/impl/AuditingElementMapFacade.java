@@ -23,6 +23,7 @@ import java.util.stream.Stream;
 
 import li.strolch.agent.api.AuditTrail;
 import li.strolch.agent.api.ElementMap;
+import li.strolch.agent.api.ParameterIndex;
 import li.strolch.exception.StrolchException;
 import li.strolch.model.StrolchRootElement;
 import li.strolch.model.parameter.StringListParameter;
@@ -144,6 +145,11 @@ public abstract class AuditingElementMapFacade<T extends StrolchRootElement> imp
 		return this.elementMap.querySize(tx, type);
 	}
 
+	@Override
+	public long getModificationCounter(StrolchTransaction tx, String type) {
+		return this.elementMap.getModificationCounter(tx, type);
+	}
+
 	@Override
 	public T getTemplate(StrolchTransaction tx, String type) {
 		T template = this.elementMap.getTemplate(tx, type);
@@ -190,6 +196,18 @@ public abstract class AuditingElementMapFacade<T extends StrolchRootElement> imp
 		return element;
 	}
 
+	@Override
+	public T getReadOnlyBy(StrolchTransaction tx, String type, String id, boolean assertExists)
+			throws StrolchException {
+		T element = this.elementMap.getReadOnlyBy(tx, type, id, assertExists);
+		if (this.observeAccessReads && element != null) {
+			if (this.read == null)
+				this.read = new HashSet<>();
+			this.read.add(element);
+		}
+		return element;
+	}
+
 	@Override
 	public T getBy(StrolchTransaction tx, String type, String id, int version) {
 		T element = this.elementMap.getBy(tx, type, id, version);
@@ -224,6 +242,18 @@ public abstract class AuditingElementMapFacade<T extends StrolchRootElement> imp
 		return element;
 	}
 
+	@Override
+	public T getReadOnlyBy(StrolchTransaction tx, StringParameter refP, boolean assertExists)
+			throws StrolchException {
+		T element = this.elementMap.getReadOnlyBy(tx, refP, assertExists);
+		if (this.observeAccessReads && element != null) {
+			if (this.read == null)
+				this.read = new HashSet<>();
+			this.read.add(element);
+		}
+		return element;
+	}
+
 	@Override
 	public List<T> getBy(StrolchTransaction tx, StringListParameter refP, boolean assertExists)
 			throws StrolchException {
@@ -285,6 +315,27 @@ public abstract class AuditingElementMapFacade<T extends StrolchRootElement> imp
 		return stream;
 	}
 
+	@Override
+	public Stream<T> streamBy(StrolchTransaction tx, String type, Collection<String> ids) {
+		Stream<T> stream = this.elementMap.streamBy(tx, type, ids);
+		if (this.observeAccessReads) {
+			if (this.read == null)
+				this.read = new HashSet<>();
+			stream = stream.peek(e -> this.read.add(e));
+		}
+		return stream;
+	}
+
+	@Override
+	public void addIndex(String type, String bagId, String paramId, boolean sorted) {
+		this.elementMap.addIndex(type, bagId, paramId, sorted);
+	}
+
+	@Override
+	public ParameterIndex getIndex(StrolchTransaction tx, String type, String bagId, String paramId) {
+		return this.elementMap.getIndex(tx, type, bagId, paramId);
+	}
+
 	@Override
 	public Set<String> getTypes(StrolchTransaction tx) {
 		return this.elementMap.getTypes(tx);
@@ -19,6 +19,7 @@ import java.util.HashSet;
 import java.util.List;
 
 import li.strolch.agent.api.AuditTrail;
+import li.strolch.agent.api.AvailabilityIndex;
 import li.strolch.agent.api.ElementMap;
 import li.strolch.agent.api.ResourceMap;
 import li.strolch.model.Resource;
@@ -63,4 +64,14 @@ public class AuditingResourceMap extends AuditingElementMapFacade<Resource> impl
 
 		return getElementMap().doQuery(tx, query);
 	}
+
+	@Override
+	public void addAvailabilityIndex(String type, String stateId) {
+		getElementMap().addAvailabilityIndex(type, stateId);
+	}
+
+	@Override
+	public AvailabilityIndex getAvailabilityIndex(StrolchTransaction tx, String type, String stateId) {
+		return getElementMap().getAvailabilityIndex(tx, type, stateId);
+	}
 }
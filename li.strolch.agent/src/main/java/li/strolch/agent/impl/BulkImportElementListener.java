@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.function.Function;
+
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.exception.StrolchException;
+import li.strolch.model.Order;
+import li.strolch.model.Resource;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.model.Tags;
+import li.strolch.model.Version;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.audit.AccessType;
+import li.strolch.model.audit.Audit;
+import li.strolch.persistence.api.BulkInserter;
+import li.strolch.persistence.api.PersistenceHandler;
+import li.strolch.persistence.api.StrolchDao;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * An {@link InMemoryElementListener} which writes new elements directly to the persistence layer using a {@link
+ * BulkInserter}, thus bypassing the object filter and the commands of the transaction. Existing elements are still
+ * updated through the transaction. The new elements are only inserted into the {@link CachedElementMap
+ * CachedElementMaps} of the realm once the transaction was successfully committed, see {@link
+ * StrolchTransaction#afterCommit(Runnable)}, so that other transactions never see uncommitted elements.
+ * </p>
+ *
+ * <p>
+ * The new elements are locked for the duration of the transaction, and an element which was added concurrently, or
+ * which is contained multiple times in the import, fails the import before it is written. Should inserting an element
+ * into the cache nevertheless fail after the commit, then all elements of its type are reloaded from the persistence
+ * layer, so that the cache does not diverge from the committed state.
+ * </p>
+ *
+ * <p>
+ * Only one {@link BulkInserter} is open at any time, thus when the class of the parsed elements changes, the current
+ * insert is finished and a new one is started. Call {@link #finish()} after parsing, and {@link #undo()} should the
+ * transaction fail, so that the new elements are discarded.
+ * </p>
+ *
+ * <p>
+ * Use {@link #isSupported(StrolchRealm, StrolchTransaction)} to check if the realm supports bulk imports, i.e. it is
+ * a {@link DataStoreMode#CACHED} realm without versioning, and the persistence layer supports bulk inserts
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class BulkImportElementListener extends InMemoryElementListener implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(BulkImportElementListener.class);
+
+	private final StrolchTransaction tx;
+	private final StrolchRealm realm;
+	private final Certificate certificate;
+	private final BulkTarget<Resource> resources;
+	private final BulkTarget<Order> orders;
+	private final BulkTarget<Activity> activities;
+
+	private BulkTarget<?> current;
+
+	@SuppressWarnings("unchecked")
+	public BulkImportElementListener(StrolchTransaction tx, StrolchRealm realm) {
+		super(tx);
+
+		if (!isSupported(realm, tx))
+			throw new IllegalStateException("Realm " + realm.getRealm() + " does not support bulk imports!");
+
+		this.tx = tx;
+		this.realm = realm;
+		this.certificate = tx.getCertificate();
+
+		// only cached realms are supported, thus the realm is a CachedRealm with cached element maps
+		InternalStrolchRealm internalRealm = (InternalStrolchRealm) realm;
+		PersistenceHandler persistenceHandler = tx.getPersistenceHandler();
+		this.resources = new BulkTarget<>((CachedElementMap<Resource>) internalRealm.getResourceMap(),
+				persistenceHandler::getResourceDao);
+		this.orders = new BulkTarget<>((CachedElementMap<Order>) internalRealm.getOrderMap(),
+				persistenceHandler::getOrderDao);
+		this.activities = new BulkTarget<>((CachedElementMap<Activity>) internalRealm.getActivityMap(),
+				persistenceHandler::getActivityDao);
+
+		tx.afterCommit(this::publish);
+	}
+
+	/**
+	 * Returns true if the given realm supports bulk imports
+	 *
+	 * @param realm
+	 * 		the realm to check
+	 * @param tx
+	 * 		the TX for the realm
+	 *
+	 * @return true if the given realm supports bulk imports
+	 */
+	public static boolean isSupported(StrolchRealm realm, StrolchTransaction tx) {
+		if (realm.getMode() != DataStoreMode.CACHED || realm.isVersioningEnabled())
+			return false;
+
+		PersistenceHandler persistenceHandler = tx.getPersistenceHandler();
+		return persistenceHandler.getResourceDao(tx).supportsBulkInsert() //
+				&& persistenceHandler.getOrderDao(tx).supportsBulkInsert() //
+				&& persistenceHandler.getActivityDao(tx).supportsBulkInsert();
+	}
+
+	public long getNrOfResources() {
+		return this.resources.nrOfElements;
+	}
+
+	public long getNrOfOrders() {
+		return this.orders.nrOfElements;
+	}
+
+	public long getNrOfActivities() {
+		return this.activities.nrOfElements;
+	}
+
+	@Override
+	protected void addResource(Resource resource) {
+		this.resources.add(resource);
+	}
+
+	@Override
+	protected void addOrder(Order order) {
+		this.orders.add(order);
+	}
+
+	@Override
+	protected void addActivity(Activity activity) {
+		this.activities.add(activity);
+	}
+
+	/**
+	 * Finishes the current {@link BulkInserter}, writing all remaining elements
+	 */
+	public void finish() {
+		if (this.current != null) {
+			this.current.finish();
+			this.current = null;
+		}
+	}
+
+	/**
+	 * Adds a single {@link Audit} for the bulk imported elements, if the audit trail is enabled. The elements are not
+	 * added through the transaction, thus this audit replaces the audits of each element
+	 *
+	 * @param source
+	 * 		the source of the elements, e.g. the name of the imported model file
+	 */
+	public void audit(String source) {
+		String msg = MessageFormat.format("Bulk imported {0} Resources, {1} Orders and {2} Activities", //$NON-NLS-1$
+				getNrOfResources(), getNrOfOrders(), getNrOfActivities());
+		logger.info(msg + " from " + source);
+
+		if (this.tx.getAuditTrail().isEnabled()) {
+			Audit audit = this.tx.auditFrom(AccessType.CREATE, Tags.STROLCH_MODEL, source, msg);
+			this.tx.getAuditTrail().add(this.tx, audit);
+		}
+	}
+
+	/**
+	 * Discards all elements which were added by this listener, so that they are not inserted into the cache. Their rows
+	 * are removed by the rollback of the transaction
+	 */
+	public void undo() {
+		close();
+		this.resources.clear();
+		this.orders.clear();
+		this.activities.clear();
+	}
+
+	private void publish() {
+		this.resources.publish();
+		this.orders.publish();
+		this.activities.publish();
+	}
+
+	@Override
+	public void close() {
+		if (this.current != null) {
+			this.current.close();
+			this.current = null;
+		}
+	}
+
+	private class BulkTarget<T extends StrolchRootElement> {
+
+		private final CachedElementMap<T> elementMap;
+		private final Function<StrolchTransaction, StrolchDao<T>> daoFunction;
+		private final List<T> added;
+		private final Set<String> ids;
+
+		private BulkInserter<T> inserter;
+		private long nrOfElements;
+
+		private BulkTarget(CachedElementMap<T> elementMap, Function<StrolchTransaction, StrolchDao<T>> daoFunction) {
+			this.elementMap = elementMap;
+			this.daoFunction = daoFunction;
+			this.added = new ArrayList<>();
+			this.ids = new HashSet<>();
+		}
+
+		private void add(T element) {
+
+			// ids are unique for all types of a class
+			if (!this.ids.add(element.getId()))
+				throw new StrolchException(MessageFormat
+						.format("Element {0} is contained multiple times in the bulk import!", element.getLocator()));
+
+			// lock, and only then assert the element was not added concurrently
+			tx.lock(element);
+			if (this.elementMap.hasElement(tx, element.getType(), element.getId()))
+				throw new StrolchException(
+						MessageFormat.format("Element {0} was added concurrently to the bulk import!",
+								element.getLocator()));
+
+			if (current != this) {
+				BulkImportElementListener.this.finish();
+				this.inserter = this.daoFunction.apply(tx).openBulkInserter();
+				current = this;
+			}
+
+			Version.setInitialVersionFor(element, certificate.getUsername());
+			this.inserter.insert(element);
+			this.added.add(element);
+		}
+
+		private void finish() {
+			try {
+				this.nrOfElements += this.inserter.finish();
+			} finally {
+				close();
+			}
+		}
+
+		private void close() {
+			if (this.inserter != null) {
+				this.inserter.close();
+				this.inserter = null;
+			}
+		}
+
+		private void publish() {
+			Set<String> failedTypes = new TreeSet<>();
+			for (T element : this.added) {
+				try {
+					this.elementMap.insert(element);
+				} catch (Exception e) {
+					logger.error("Failed to insert bulk imported element " + element.getLocator() + " into the cache: "
+							+ e.getMessage(), e);
+					failedTypes.add(element.getType());
+				}
+			}
+			this.added.clear();
+			this.ids.clear();
+
+			if (!failedTypes.isEmpty())
+				reload(failedTypes);
+		}
+
+		private void reload(Set<String> types) {
+			try (StrolchTransaction reloadTx = realm.openTx(certificate, BulkImportElementListener.class, true)) {
+				StrolchDao<T> dao = this.daoFunction.apply(reloadTx);
+				for (String type : types) {
+					List<T> elements = dao.queryAll(type);
+					this.elementMap.replaceAllBy(type, elements);
+					logger.warn(MessageFormat.format("Reloaded {0} elements of type {1} after a failed bulk import",
+							elements.size(), type));
+				}
+			}
+		}
+
+		private void clear() {
+			this.added.clear();
+			this.ids.clear();
+			this.nrOfElements = 0;
+		}
+	}
+}
@@ -21,6 +21,7 @@ import java.util.List;
 
 import li.strolch.agent.api.ActivityMap;
 import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.Tags;
 import li.strolch.model.activity.Activity;
 import li.strolch.model.parameter.Parameter;
 import li.strolch.model.query.ActivityQuery;
@@ -35,6 +36,15 @@ public class CachedActivityMap extends CachedElementMap<Activity> implements Act
 		super(realm);
 	}
 
+	public CachedActivityMap(StrolchRealm realm, boolean concurrent) {
+		super(realm, concurrent);
+	}
+
+	@Override
+	protected String getObjectType() {
+		return Tags.ACTIVITY;
+	}
+
 	@Override
 	protected void assertIsRefParam(Parameter<?> refP) {
 		ElementMapHelpers.assertIsRefParam(INTERPRETATION_ACTIVITY_REF, refP);
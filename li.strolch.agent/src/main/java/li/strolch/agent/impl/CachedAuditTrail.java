@@ -15,7 +15,10 @@
  */
 package li.strolch.agent.impl;
 
+import static java.util.Collections.singletonList;
+
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 
 import li.strolch.model.audit.Audit;
@@ -27,18 +30,49 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * <p>
+ * {@link li.strolch.agent.api.AuditTrail} which keeps the audits in memory and writes them to the database. New audits
+ * are written in the calling transaction, unless an {@link AsyncAuditTrailWriter} is set, in which case they are
+ * written asynchronously, and are thus only found by {@link #doQuery(StrolchTransaction, AuditQuery)} once written.
+ * Asynchronously written audits are only added once the transaction was committed, so that a transaction which is
+ * rolled back leaves no audits.
+ * </p>
+ *
  * @author Robert von Burg <eitch@eitchnet.ch>
  */
 public class CachedAuditTrail extends TransientAuditTrail {
 
 	private static final Logger logger = LoggerFactory.getLogger(CachedAuditTrail.class);
 
+	private final AsyncAuditTrailWriter writer;
+
+	public CachedAuditTrail() {
+		this(null);
+	}
+
+	/**
+	 * @param writer
+	 * 		the writer with which to write new audits asynchronously, or null to write them in the calling transaction
+	 */
+	public CachedAuditTrail(AsyncAuditTrailWriter writer) {
+		this.writer = writer;
+	}
+
+	public AsyncAuditTrailWriter getWriter() {
+		return this.writer;
+	}
+
 	private AuditDao getDbDao(StrolchTransaction tx) {
 		return tx.getPersistenceHandler().getAuditDao(tx);
 	}
 
 	@Override
 	public synchronized void add(StrolchTransaction tx, Audit audit) {
+		if (this.writer != null && this.writer.canEnqueue(1)) {
+			enqueueAfterCommit(tx, singletonList(audit));
+			return;
+		}
+
 		// first perform cached change
 		super.add(tx, audit);
 		// last is to perform DB changes
@@ -47,12 +81,32 @@ public class CachedAuditTrail extends TransientAuditTrail {
 
 	@Override
 	public synchronized void addAll(StrolchTransaction tx, List<Audit> audits) {
+		if (this.writer != null && this.writer.canEnqueue(audits.size())) {
+			enqueueAfterCommit(tx, new ArrayList<>(audits));
+			return;
+		}
+
 		// first perform cached change
 		super.addAll(tx, audits);
 		// last is to perform DB changes
 		getDbDao(tx).saveAll(audits);
 	}
 
+	private void enqueueAfterCommit(StrolchTransaction tx, List<Audit> audits) {
+		Runnable enqueue = () -> {
+			synchronized (this) {
+				super.addAll(tx, audits);
+			}
+			this.writer.enqueue(audits);
+		};
+
+		// a read-only TX is not committed, but its audits don't depend on any changes
+		if (tx.isClosing())
+			enqueue.run();
+		else
+			tx.afterCommit(enqueue);
+	}
+
 	@Override
 	public synchronized void update(StrolchTransaction tx, Audit audit) {
 		// first perform cached change
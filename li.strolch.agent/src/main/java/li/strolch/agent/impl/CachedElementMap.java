@@ -20,6 +20,8 @@ import java.util.List;
 
 import li.strolch.agent.api.StrolchRealm;
 import li.strolch.exception.StrolchException;
+import li.strolch.metrics.Counter;
+import li.strolch.metrics.MetricFamily;
 import li.strolch.model.StrolchRootElement;
 import li.strolch.model.Version;
 import li.strolch.model.parameter.Parameter;
@@ -32,36 +34,45 @@ import li.strolch.persistence.api.StrolchTransaction;
  */
 public abstract class CachedElementMap<T extends StrolchRootElement> extends TransientElementMap<T> {
 
+	private static final String OP_SAVE = "save";
+	private static final String OP_UPDATE = "update";
+	private static final String OP_REMOVE = "remove";
+
 	private StrolchRealm realm;
+	private MetricFamily<Counter> daoOperations;
 
 	public CachedElementMap(StrolchRealm realm) {
-		super();
+		this(realm, false);
+	}
+
+	public CachedElementMap(StrolchRealm realm, boolean concurrent) {
+		super(concurrent);
 		this.realm = realm;
 	}
 
 	protected abstract StrolchDao<T> getDbDao(StrolchTransaction tx);
 
-	@Override
-	public synchronized void add(StrolchTransaction tx, T element) {
-		if (this.realm.isVersioningEnabled()) {
-			int latestVersion = getLatestVersionFor(tx, element.getType(), element.getId()) + 1;
-			Version.updateVersionFor(element, latestVersion, tx.getCertificate().getUsername(), false);
-		} else {
-			Version.setInitialVersionFor(element, tx.getCertificate().getUsername());
+	/**
+	 * Returns the object type of the elements of this map, as defined in {@link li.strolch.model.Tags}
+	 *
+	 * @return the object type of the elements of this map
+	 */
+	protected abstract String getObjectType();
+
+	private void countDaoOperations(StrolchTransaction tx, String operation, long nrOfElements) {
+		MetricFamily<Counter> daoOperations = this.daoOperations;
+		if (daoOperations == null) {
+			daoOperations = tx.getContainer().getAgent().getMetrics()
+					.counter("strolch_dao_operations_total", "Elements written to the DAOs by operation", "realm",
+							"type", "operation");
+			this.daoOperations = daoOperations;
 		}
-
-		// first perform cached change
-		super.internalAdd(tx, element);
-
-		// last is to perform DB changes
-		getDbDao(tx).save(element);
+		daoOperations.labels(this.realm.getRealm(), getObjectType(), operation).add(nrOfElements);
 	}
 
 	@Override
-	public synchronized void addAll(StrolchTransaction tx, List<T> elements) {
-
-		// first perform cached change
-		for (T element : elements) {
+	public void add(StrolchTransaction tx, T element) {
+		writeLocked(() -> {
 			if (this.realm.isVersioningEnabled()) {
 				int latestVersion = getLatestVersionFor(tx, element.getType(), element.getId()) + 1;
 				Version.updateVersionFor(element, latestVersion, tx.getCertificate().getUsername(), false);
@@ -69,11 +80,35 @@ public abstract class CachedElementMap<T extends StrolchRootElement> extends Tra
 				Version.setInitialVersionFor(element, tx.getCertificate().getUsername());
 			}
 
-			internalAdd(tx, element);
-		}
+			// first perform cached change
+			super.internalAdd(tx, element);
+
+			// last is to perform DB changes
+			getDbDao(tx).save(element);
+			countDaoOperations(tx, OP_SAVE, 1);
+		});
+	}
+
+	@Override
+	public void addAll(StrolchTransaction tx, List<T> elements) {
+		writeLocked(() -> {
+
+			// first perform cached change
+			for (T element : elements) {
+				if (this.realm.isVersioningEnabled()) {
+					int latestVersion = getLatestVersionFor(tx, element.getType(), element.getId()) + 1;
+					Version.updateVersionFor(element, latestVersion, tx.getCertificate().getUsername(), false);
+				} else {
+					Version.setInitialVersionFor(element, tx.getCertificate().getUsername());
+				}
 
-		// last is to perform DB changes
-		getDbDao(tx).saveAll(elements);
+				internalAdd(tx, element);
+			}
+
+			// last is to perform DB changes
+			getDbDao(tx).saveAll(elements);
+			countDaoOperations(tx, OP_SAVE, elements.size());
+		});
 	}
 
 	private void updateVersion(StrolchTransaction tx, T element, boolean deleted) {
@@ -95,93 +130,111 @@ public abstract class CachedElementMap<T extends StrolchRootElement> extends Tra
 	}
 
 	@Override
-	public synchronized void update(StrolchTransaction tx, T element) {
-		updateVersion(tx, element, false);
+	public void update(StrolchTransaction tx, T element) {
+		writeLocked(() -> {
+			updateVersion(tx, element, false);
 
-		// first perform cached change
-		super.internalUpdate(tx, element);
+			// first perform cached change
+			super.internalUpdate(tx, element);
 
-		// last is to perform DB changes
-		getDbDao(tx).update(element);
+			// last is to perform DB changes
+			getDbDao(tx).update(element);
+			countDaoOperations(tx, OP_UPDATE, 1);
+		});
 	}
 
 	@Override
-	public synchronized void updateAll(StrolchTransaction tx, List<T> elements) {
+	public void updateAll(StrolchTransaction tx, List<T> elements) {
+		writeLocked(() -> {
 
-		// first perform cached change
-		for (T t : elements) {
-			updateVersion(tx, t, false);
-			internalUpdate(tx, t);
-		}
+			// first perform cached change
+			for (T t : elements) {
+				updateVersion(tx, t, false);
+				internalUpdate(tx, t);
+			}
 
-		// last is to perform DB changes
-		getDbDao(tx).updateAll(elements);
+			// last is to perform DB changes
+			getDbDao(tx).updateAll(elements);
+			countDaoOperations(tx, OP_UPDATE, elements.size());
+		});
 	}
 
 	@Override
-	public synchronized void remove(StrolchTransaction tx, T element) {
-		updateVersion(tx, element, true);
+	public void remove(StrolchTransaction tx, T element) {
+		writeLocked(() -> {
+			updateVersion(tx, element, true);
 
-		// first perform cached change
-		super.remove(tx, element);
+			// first perform cached change
+			super.remove(tx, element);
 
-		// last is to perform DB changes
-		if (this.realm.isVersioningEnabled()) {
-			getDbDao(tx).update(element);
-		} else {
-			getDbDao(tx).remove(element);
-		}
+			// last is to perform DB changes
+			if (this.realm.isVersioningEnabled()) {
+				getDbDao(tx).update(element);
+			} else {
+				getDbDao(tx).remove(element);
+			}
+			countDaoOperations(tx, OP_REMOVE, 1);
+		});
 	}
 
 	@Override
-	public synchronized void removeAll(StrolchTransaction tx, List<T> elements) {
-		for (T t : elements) {
-			updateVersion(tx, t, true);
-		}
+	public void removeAll(StrolchTransaction tx, List<T> elements) {
+		writeLocked(() -> {
+			for (T t : elements) {
+				updateVersion(tx, t, true);
+			}
 
-		// first perform cached change
-		super.removeAll(tx, elements);
+			// first perform cached change
+			super.removeAll(tx, elements);
 
-		// last is to perform DB changes
-		if (this.realm.isVersioningEnabled()) {
-			getDbDao(tx).updateAll(elements);
-		} else {
-			getDbDao(tx).removeAll(elements);
-		}
+			// last is to perform DB changes
+			if (this.realm.isVersioningEnabled()) {
+				getDbDao(tx).updateAll(elements);
+			} else {
+				getDbDao(tx).removeAll(elements);
+			}
+			countDaoOperations(tx, OP_REMOVE, elements.size());
+		});
 	}
 
 	@Override
-	public synchronized long removeAll(StrolchTransaction tx) {
+	public long removeAll(StrolchTransaction tx) {
+		return writeLockedAndGet(() -> {
 
-		// first perform cached change
-		long removed = super.removeAll(tx);
+			// first perform cached change
+			long removed = super.removeAll(tx);
 
-		// last is to perform DB changes
-		long daoRemoved = getDbDao(tx).removeAll();
+			// last is to perform DB changes
+			long daoRemoved = getDbDao(tx).removeAll();
+			countDaoOperations(tx, OP_REMOVE, daoRemoved);
 
-		if (removed != daoRemoved) {
-			String msg = "Removed {0} elements from cached map, but dao removed {1} elements!"; //$NON-NLS-1$
-			logger.error(MessageFormat.format(msg, removed, daoRemoved));
-		}
+			if (removed != daoRemoved) {
+				String msg = "Removed {0} elements from cached map, but dao removed {1} elements!"; //$NON-NLS-1$
+				logger.error(MessageFormat.format(msg, removed, daoRemoved));
+			}
 
-		return removed;
+			return removed;
+		});
 	}
 
 	@Override
-	public synchronized long removeAllBy(StrolchTransaction tx, String type) {
+	public long removeAllBy(StrolchTransaction tx, String type) {
+		return writeLockedAndGet(() -> {
 
-		// first perform cached change
-		long removed = super.removeAllBy(tx, type);
+			// first perform cached change
+			long removed = super.removeAllBy(tx, type);
 
-		// last is to perform DB changes
-		long daoRemoved = getDbDao(tx).removeAllBy(type);
+			// last is to perform DB changes
+			long daoRemoved = getDbDao(tx).removeAllBy(type);
+			countDaoOperations(tx, OP_REMOVE, daoRemoved);
 
-		if (removed != daoRemoved) {
-			String msg = "Removed {0} elements from cached map for type {1}, but dao removed {3} elements!"; //$NON-NLS-1$
-			logger.error(MessageFormat.format(msg, removed, type, daoRemoved));
-		}
+			if (removed != daoRemoved) {
+				String msg = "Removed {0} elements from cached map for type {1}, but dao removed {3} elements!"; //$NON-NLS-1$
+				logger.error(MessageFormat.format(msg, removed, type, daoRemoved));
+			}
 
-		return removed;
+			return removed;
+		});
 	}
 
 	@Override
@@ -23,6 +23,7 @@ import java.util.List;
 import li.strolch.agent.api.OrderMap;
 import li.strolch.agent.api.StrolchRealm;
 import li.strolch.model.Order;
+import li.strolch.model.Tags;
 import li.strolch.model.parameter.Parameter;
 import li.strolch.model.query.OrderQuery;
 import li.strolch.persistence.api.OrderDao;
@@ -36,6 +37,10 @@ public class CachedOrderMap extends CachedElementMap<Order> implements OrderMap
 		super(realm);
 	}
 
+	public CachedOrderMap(StrolchRealm realm, boolean concurrent) {
+		super(realm, concurrent);
+	}
+
 	@Override
 	public Order getTemplate(StrolchTransaction tx, String type, boolean assertExists) {
 		Order template = super.getTemplate(tx, type, assertExists);
@@ -43,6 +48,11 @@ public class CachedOrderMap extends CachedElementMap<Order> implements OrderMap
 		return template;
 	}
 
+	@Override
+	protected String getObjectType() {
+		return Tags.ORDER;
+	}
+
 	@Override
 	protected void assertIsRefParam(Parameter<?> refP) {
 		ElementMapHelpers.assertIsRefParam(INTERPRETATION_ORDER_REF, refP);
@@ -15,14 +15,14 @@
  */
 package li.strolch.agent.impl;
 
+import static li.strolch.agent.impl.DefaultRealmHandler.*;
+import static li.strolch.runtime.StrolchConstants.makeRealmKey;
+
+import java.io.File;
 import java.text.MessageFormat;
-import java.util.List;
-import java.util.Set;
 
 import li.strolch.agent.api.*;
-import li.strolch.model.Order;
-import li.strolch.model.Resource;
-import li.strolch.model.activity.Activity;
+import li.strolch.metrics.MetricsRegistry;
 import li.strolch.persistence.api.*;
 import li.strolch.privilege.model.Certificate;
 import li.strolch.privilege.model.PrivilegeContext;
@@ -40,6 +40,9 @@ public class CachedRealm extends InternalStrolchRealm {
 	private CachedOrderMap orderMap;
 	private CachedActivityMap activityMap;
 	private AuditTrail auditTrail;
+	private AsyncAuditTrailWriter auditTrailWriter;
+	private int bootParallelism;
+	private int bootFetchSize;
 
 	public CachedRealm(String realm) {
 		super(realm);
@@ -87,82 +90,79 @@ public class CachedRealm extends InternalStrolchRealm {
 		super.initialize(container, configuration);
 
 		this.persistenceHandler = container.getComponent(PersistenceHandler.class);
-		this.resourceMap = new CachedResourceMap(this);
-		this.orderMap = new CachedOrderMap(this);
-		this.activityMap = new CachedActivityMap(this);
 
-		if (isAuditTrailEnabled())
-			this.auditTrail = new CachedAuditTrail();
-		else
+		String bootParallelismKey = makeRealmKey(getRealm(), PROP_BOOT_PARALLELISM);
+		this.bootParallelism = configuration.getInt(bootParallelismKey, 1);
+		String bootFetchSizeKey = makeRealmKey(getRealm(), PROP_BOOT_FETCH_SIZE);
+		this.bootFetchSize = configuration.getInt(bootFetchSizeKey, 1000);
+
+		this.resourceMap = new CachedResourceMap(this, isConcurrentElementMaps());
+		this.orderMap = new CachedOrderMap(this, isConcurrentElementMaps());
+		this.activityMap = new CachedActivityMap(this, isConcurrentElementMaps());
+
+		if (isAuditTrailEnabled()) {
+			String writeModeKey = makeRealmKey(getRealm(), PROP_AUDIT_TRAIL_WRITE_MODE);
+			AuditTrailWriteMode writeMode = AuditTrailWriteMode
+					.parseMode(configuration.getString(writeModeKey, AuditTrailWriteMode.SYNC.name()));
+			if (writeMode.isAsync()) {
+				String queueSizeKey = makeRealmKey(getRealm(), PROP_AUDIT_TRAIL_QUEUE_SIZE);
+				int queueSize = configuration.getInt(queueSizeKey, AsyncAuditTrailWriter.DEFAULT_QUEUE_SIZE);
+				String batchSizeKey = makeRealmKey(getRealm(), PROP_AUDIT_TRAIL_BATCH_SIZE);
+				int batchSize = configuration.getInt(batchSizeKey, AsyncAuditTrailWriter.DEFAULT_BATCH_SIZE);
+				File journalFile = null;
+				if (writeMode == AuditTrailWriteMode.ASYNC_JOURNALED)
+					journalFile = new File(configuration.getRuntimeConfiguration().getDataPath(),
+							"audits_" + getRealm() + ".journal");
+				this.auditTrailWriter = new AsyncAuditTrailWriter(this, writeMode, queueSize, batchSize,
+						journalFile);
+				registerAuditTrailWriterMetrics(container.getAgent().getMetrics(), this.auditTrailWriter);
+			}
+
+			this.auditTrail = new CachedAuditTrail(this.auditTrailWriter);
+		} else
 			this.auditTrail = new NoStrategyAuditTrail(getRealm());
 	}
 
+	private void registerAuditTrailWriterMetrics(MetricsRegistry metrics, AsyncAuditTrailWriter writer) {
+		metrics.gauge("strolch_audit_trail_queue_depth", "Audits waiting to be written", "realm").labels(getRealm())
+				.setSupplier(writer::getQueueDepth);
+		metrics.gauge("strolch_audit_trail_lag_milliseconds", "Age of the oldest audit waiting to be written",
+				"realm").labels(getRealm()).setSupplier(writer::getLagMillis);
+		metrics.gauge("strolch_audit_trail_written", "Audits written asynchronously", "realm").labels(getRealm())
+				.setSupplier(writer::getNrOfWrittenAudits);
+		metrics.gauge("strolch_audit_trail_failures", "Failed asynchronous audit writes", "realm").labels(getRealm())
+				.setSupplier(writer::getNrOfFailures);
+	}
+
 	@Override
 	public void start(PrivilegeContext privilegeContext) {
 		super.start(privilegeContext);
 
 		long start = System.nanoTime();
-		int nrOfOrders = 0;
-		int nrOfResources = 0;
-		int nrOfActivities = 0;
 
 		logger.info(MessageFormat.format("Loading Model from Database for realm {0}...", getRealm())); //$NON-NLS-1$
 
-		try (StrolchTransaction tx = openTx(privilegeContext.getCertificate(), "strolch_boot", false)) {
-			ResourceDao resourceDao = tx.getPersistenceHandler().getResourceDao(tx);
-			logger.info("Reading " + resourceDao.querySize() + " Resources from DB...");
-			Set<String> resourceTypes = resourceDao.queryTypes();
-			for (String type : resourceTypes) {
-				logger.info("Reading " + resourceDao.querySize(type) + " Resources of type " + type + " from DB...");
-				List<Resource> resources = resourceDao.queryAll(type);
-				for (Resource resource : resources) {
-					this.resourceMap.insert(resource);
-					nrOfResources++;
-				}
-			}
-
-			tx.commitOnClose();
-		}
-
-		try (StrolchTransaction tx = openTx(privilegeContext.getCertificate(), "strolch_boot", false)) {
-			OrderDao orderDao = tx.getPersistenceHandler().getOrderDao(tx);
-			logger.info("Reading " + orderDao.querySize() + " Orders from DB...");
-			Set<String> orderTypes = orderDao.queryTypes();
-			for (String type : orderTypes) {
-				logger.info("Reading " + orderDao.querySize(type) + " Orders of type " + type + " from DB...");
-				List<Order> orders = orderDao.queryAll(type);
-				for (Order order : orders) {
-					this.orderMap.insert(order);
-					nrOfOrders++;
-				}
-			}
-
-			tx.commitOnClose();
-		}
-
-		try (StrolchTransaction tx = openTx(privilegeContext.getCertificate(), "strolch_boot", false)) {
-			ActivityDao activityDao = tx.getPersistenceHandler().getActivityDao(tx);
-			logger.info("Reading " + activityDao.querySize() + " Activities from DB...");
-			Set<String> activityTypes = activityDao.queryTypes();
-			for (String type : activityTypes) {
-				logger.info("Reading " + activityDao.querySize(type) + " Activities of type " + type + " from DB...");
-				List<Activity> activities = activityDao.queryAll(type);
-				for (Activity activity : activities) {
-					this.activityMap.insert(activity);
-					nrOfActivities++;
-				}
-			}
-
-			tx.commitOnClose();
-		}
+		CachedRealmLoader loader = new CachedRealmLoader(this, privilegeContext.getCertificate(), this.bootParallelism,
+				this.bootFetchSize);
+		loader.load(this.resourceMap, this.orderMap, this.activityMap);
 
 		long duration = System.nanoTime() - start;
 		String durationS = StringHelper.formatNanoDuration(duration);
 		logger.info(MessageFormat
 				.format("Loading Model from Database for realm {0} took {1}.", getRealm(), durationS)); //$NON-NLS-1$
-		logger.info(MessageFormat.format("Loaded {0} Orders", nrOfOrders)); //$NON-NLS-1$
-		logger.info(MessageFormat.format("Loaded {0} Resources", nrOfResources)); //$NON-NLS-1$
-		logger.info(MessageFormat.format("Loaded {0} Activities", nrOfActivities)); //$NON-NLS-1$
+		logger.info(MessageFormat.format("Loaded {0} Orders", loader.getNrOfOrders())); //$NON-NLS-1$
+		logger.info(MessageFormat.format("Loaded {0} Resources", loader.getNrOfResources())); //$NON-NLS-1$
+		logger.info(MessageFormat.format("Loaded {0} Activities", loader.getNrOfActivities())); //$NON-NLS-1$
+
+		if (this.auditTrailWriter != null)
+			this.auditTrailWriter.start();
+	}
+
+	@Override
+	public void stop() {
+		if (this.auditTrailWriter != null)
+			this.auditTrailWriter.stop();
+		super.stop();
 	}
 
 	@Override
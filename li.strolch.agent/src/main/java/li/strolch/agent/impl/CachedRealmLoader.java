@@ -0,0 +1,234 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import li.strolch.model.StrolchRootElement;
+import li.strolch.persistence.api.StrolchDao;
+import li.strolch.persistence.api.StrolchPersistenceException;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.utils.NamedThreadPoolFactory;
+import li.strolch.utils.helper.StringHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Loads the model of a {@link CachedRealm} from the database into its {@link CachedElementMap CachedElementMaps}.
+ * The elements are streamed from the DAOs using {@link StrolchDao#streamAll(String, int, java.util.function.Consumer)},
+ * thus never materializing all elements of a type in a list.
+ * </p>
+ *
+ * <p>
+ * With a parallelism of 1, all types are loaded sequentially on the calling thread. Otherwise the types are fetched
+ * concurrently, each in its own TX and thus on its own connection, and the elements are parsed and inserted on a
+ * worker pool. The work queue of the worker pool is bounded, so that the fetching threads parse elements themselves
+ * when the workers can't keep up, thus the number of fetched but not yet parsed elements is bounded as well.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+class CachedRealmLoader {
+
+	private static final Logger logger = LoggerFactory.getLogger(CachedRealmLoader.class);
+
+	private static final long PROGRESS_INTERVAL = 100000L;
+
+	private final CachedRealm realm;
+	private final Certificate certificate;
+	private final int parallelism;
+	private final int fetchSize;
+
+	private final AtomicLong nrOfResources;
+	private final AtomicLong nrOfOrders;
+	private final AtomicLong nrOfActivities;
+	private final AtomicLong nrOfElements;
+	private final AtomicReference<Throwable> failure;
+
+	private ThreadPoolExecutor parsePool;
+	private long start;
+
+	CachedRealmLoader(CachedRealm realm, Certificate certificate, int parallelism, int fetchSize) {
+		this.realm = realm;
+		this.certificate = certificate;
+		this.parallelism = Math.max(1, parallelism);
+		this.fetchSize = fetchSize;
+
+		this.nrOfResources = new AtomicLong();
+		this.nrOfOrders = new AtomicLong();
+		this.nrOfActivities = new AtomicLong();
+		this.nrOfElements = new AtomicLong();
+		this.failure = new AtomicReference<>();
+	}
+
+	public long getNrOfResources() {
+		return this.nrOfResources.get();
+	}
+
+	public long getNrOfOrders() {
+		return this.nrOfOrders.get();
+	}
+
+	public long getNrOfActivities() {
+		return this.nrOfActivities.get();
+	}
+
+	/**
+	 * Loads all Resources, Orders and Activities into the given maps. If loading fails, then the maps are cleared, so
+	 * that a partially loaded model is never used, and the exception is thrown with the original failure as its cause
+	 *
+	 * @param resourceMap
+	 * 		the map to insert the Resources into
+	 * @param orderMap
+	 * 		the map to insert the Orders into
+	 * @param activityMap
+	 * 		the map to insert the Activities into
+	 */
+	void load(CachedResourceMap resourceMap, CachedOrderMap orderMap, CachedActivityMap activityMap) {
+		try {
+			doLoad(resourceMap, orderMap, activityMap);
+		} catch (RuntimeException e) {
+			resourceMap.clearCache();
+			orderMap.clearCache();
+			activityMap.clearCache();
+			throw e;
+		}
+	}
+
+	private void doLoad(CachedResourceMap resourceMap, CachedOrderMap orderMap, CachedActivityMap activityMap) {
+		this.start = System.nanoTime();
+
+		List<Runnable> fetchTasks = new ArrayList<>();
+		addFetchTasks(fetchTasks, "Resources", tx -> tx.getPersistenceHandler().getResourceDao(tx), resourceMap,
+				this.nrOfResources);
+		addFetchTasks(fetchTasks, "Orders", tx -> tx.getPersistenceHandler().getOrderDao(tx), orderMap,
+				this.nrOfOrders);
+		addFetchTasks(fetchTasks, "Activities", tx -> tx.getPersistenceHandler().getActivityDao(tx), activityMap,
+				this.nrOfActivities);
+
+		if (this.parallelism == 1) {
+			fetchTasks.forEach(Runnable::run);
+			return;
+		}
+
+		logger.info(MessageFormat.format("Loading {0} types with a parallelism of {1} and a fetch size of {2}",
+				fetchTasks.size(), this.parallelism, this.fetchSize));
+
+		this.parsePool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(this.parallelism * this.fetchSize),
+				new NamedThreadPoolFactory("StrolchBootParser-" + this.realm.getRealm()),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		int nrOfFetchers = Math.max(1, Math.min(this.parallelism, fetchTasks.size()));
+		ExecutorService fetchPool = Executors.newFixedThreadPool(nrOfFetchers,
+				new NamedThreadPoolFactory("StrolchBootFetcher-" + this.realm.getRealm()));
+
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (Runnable fetchTask : fetchTasks) {
+				futures.add(fetchPool.submit(fetchTask));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					this.failure.compareAndSet(null, e.getCause());
+				}
+			}
+
+			this.parsePool.shutdown();
+			if (!this.parsePool.awaitTermination(1, TimeUnit.HOURS))
+				throw new StrolchPersistenceException("Parsing of model did not complete in time!");
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StrolchPersistenceException("Interrupted while loading model!", e);
+		} finally {
+			fetchPool.shutdownNow();
+			this.parsePool.shutdownNow();
+		}
+
+		Throwable failure = this.failure.get();
+		if (failure != null) {
+			String msg = "Failed to load model for realm {0} due to: {1}"; //$NON-NLS-1$
+			throw new StrolchPersistenceException(MessageFormat.format(msg, this.realm.getRealm(), failure.getMessage()),
+					failure);
+		}
+	}
+
+	private <T extends StrolchRootElement> void addFetchTasks(List<Runnable> fetchTasks, String name,
+			Function<StrolchTransaction, StrolchDao<T>> daoSupplier, CachedElementMap<T> elementMap,
+			AtomicLong counter) {
+
+		try (StrolchTransaction tx = this.realm.openTx(this.certificate, "strolch_boot", true)) {
+			StrolchDao<T> dao = daoSupplier.apply(tx);
+			logger.info("Reading " + dao.querySize() + " " + name + " from DB...");
+			for (String type : dao.queryTypes()) {
+				fetchTasks.add(() -> fetch(name, type, daoSupplier, elementMap, counter));
+			}
+		}
+	}
+
+	private <T extends StrolchRootElement> void fetch(String name, String type,
+			Function<StrolchTransaction, StrolchDao<T>> daoSupplier, CachedElementMap<T> elementMap,
+			AtomicLong counter) {
+
+		try (StrolchTransaction tx = this.realm.openTx(this.certificate, "strolch_boot", true)) {
+			StrolchDao<T> dao = daoSupplier.apply(tx);
+			logger.info("Reading " + dao.querySize(type) + " " + name + " of type " + type + " from DB...");
+
+			dao.streamAll(type, this.fetchSize, supplier -> {
+				if (this.failure.get() != null)
+					throw new StrolchPersistenceException("Aborting loading of " + name + " of type " + type
+							+ " due to previous failure!");
+
+				if (this.parsePool == null) {
+					insert(supplier, elementMap, counter);
+				} else {
+					this.parsePool.execute(() -> {
+						try {
+							insert(supplier, elementMap, counter);
+						} catch (Throwable e) {
+							this.failure.compareAndSet(null, e);
+						}
+					});
+				}
+			});
+		}
+	}
+
+	private <T extends StrolchRootElement> void insert(Supplier<T> supplier, CachedElementMap<T> elementMap,
+			AtomicLong counter) {
+		elementMap.insert(supplier.get());
+		counter.incrementAndGet();
+
+		long nrOfElements = this.nrOfElements.incrementAndGet();
+		if (nrOfElements % PROGRESS_INTERVAL == 0) {
+			long took = System.nanoTime() - this.start;
+			long elementsPerSec = (long) (nrOfElements / (took / 1000000000.0D));
+			logger.info(MessageFormat.format("Loaded {0} elements for realm {1} after {2} ({3} elements/s)",
+					nrOfElements, this.realm.getRealm(), StringHelper.formatNanoDuration(took), elementsPerSec));
+		}
+	}
+}
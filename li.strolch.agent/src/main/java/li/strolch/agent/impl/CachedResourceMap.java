@@ -19,9 +19,11 @@ import static li.strolch.model.StrolchModelConstants.INTERPRETATION_RESOURCE_REF
 
 import java.util.List;
 
+import li.strolch.agent.api.AvailabilityIndex;
 import li.strolch.agent.api.ResourceMap;
 import li.strolch.agent.api.StrolchRealm;
 import li.strolch.model.Resource;
+import li.strolch.model.Tags;
 import li.strolch.model.parameter.Parameter;
 import li.strolch.model.query.ResourceQuery;
 import li.strolch.persistence.api.ResourceDao;
@@ -35,6 +37,15 @@ public class CachedResourceMap extends CachedElementMap<Resource> implements Res
 		super(realm);
 	}
 
+	public CachedResourceMap(StrolchRealm realm, boolean concurrent) {
+		super(realm, concurrent);
+	}
+
+	@Override
+	protected String getObjectType() {
+		return Tags.RESOURCE;
+	}
+
 	@Override
 	protected void assertIsRefParam(Parameter<?> refP) {
 		ElementMapHelpers.assertIsRefParam(INTERPRETATION_RESOURCE_REF, refP);
@@ -51,4 +62,17 @@ public class CachedResourceMap extends CachedElementMap<Resource> implements Res
 		InMemoryQuery<Resource, U> query = visitor.visit(resourceQuery);
 		return query.doQuery(tx, this);
 	}
+
+	@Override
+	public void addAvailabilityIndex(String type, String stateId) {
+		addElementIndex(type, DefaultAvailabilityIndex.class,
+				(DefaultAvailabilityIndex index) -> index.getStateId().equals(stateId),
+				() -> new DefaultAvailabilityIndex(type, stateId));
+	}
+
+	@Override
+	public AvailabilityIndex getAvailabilityIndex(StrolchTransaction tx, String type, String stateId) {
+		return findElementIndex(type, DefaultAvailabilityIndex.class,
+				(DefaultAvailabilityIndex index) -> index.getStateId().equals(stateId));
+	}
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import li.strolch.agent.api.AvailabilityIndex;
+import li.strolch.model.Resource;
+import li.strolch.model.timedstate.Availability;
+import li.strolch.model.timedstate.StrolchTimedState;
+import li.strolch.model.timevalue.IValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default {@link AvailabilityIndex} implementation, maintained by the {@link TransientElementMap}. The immutable {@link
+ * Availability} snapshots are held in a {@link ConcurrentHashMap}, so that an update replaces the snapshot of a {@link
+ * Resource} atomically and lookups need no lock
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class DefaultAvailabilityIndex implements AvailabilityIndex, ElementIndex<Resource> {
+
+	private static final Logger logger = LoggerFactory.getLogger(DefaultAvailabilityIndex.class);
+
+	private final String type;
+	private final String stateId;
+	private final Map<String, Availability> index;
+
+	public DefaultAvailabilityIndex(String type, String stateId) {
+		this.type = type;
+		this.stateId = stateId;
+		this.index = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public String getType() {
+		return this.type;
+	}
+
+	@Override
+	public String getStateId() {
+		return this.stateId;
+	}
+
+	@Override
+	public int size() {
+		return this.index.size();
+	}
+
+	@Override
+	public Availability getAvailability(String resourceId) {
+		return this.index.get(resourceId);
+	}
+
+	@Override
+	public Set<String> getAvailableIds(long from, long to, double capacity) {
+		Set<String> ids = new HashSet<>();
+		this.index.forEach((id, availability) -> {
+			if (availability.isAvailable(from, to, capacity))
+				ids.add(id);
+		});
+		return ids;
+	}
+
+	@Override
+	public Map<String, Long> findFirstSlots(long after, long duration, double capacity) {
+		Map<String, Long> slots = new HashMap<>();
+		this.index.forEach((id, availability) -> {
+			OptionalLong slot = availability.findFirstSlot(after, duration, capacity);
+			if (slot.isPresent())
+				slots.put(id, slot.getAsLong());
+		});
+		return slots;
+	}
+
+	@Override
+	public void add(Resource resource) {
+		StrolchTimedState<? extends IValue<?>> timedState = resource.getTimedState(this.stateId);
+		if (timedState == null) {
+			this.index.remove(resource.getId());
+		} else if (Availability.isSupported(timedState)) {
+			this.index.put(resource.getId(), Availability.of(timedState));
+		} else {
+			String msg = "Index {0} can not index timed state of type {1} of resource {2}!"; //$NON-NLS-1$
+			logger.warn(MessageFormat.format(msg, this, timedState.getType(), resource.getLocator()));
+			this.index.remove(resource.getId());
+		}
+	}
+
+	@Override
+	public void update(Resource previous, Resource resource) {
+		// the snapshot is replaced, so that readers always find the resource
+		add(resource);
+	}
+
+	@Override
+	public void remove(Resource resource) {
+		this.index.remove(resource.getId());
+	}
+
+	@Override
+	public void clear() {
+		this.index.clear();
+	}
+
+	@Override
+	public String toString() {
+		return this.type + ":" + this.stateId;
+	}
+}
@@ -25,6 +25,9 @@ import java.util.concurrent.locks.ReentrantLock;
 import li.strolch.agent.api.LockHandler;
 import li.strolch.agent.api.StrolchAgent;
 import li.strolch.agent.api.StrolchLockException;
+import li.strolch.metrics.Counter;
+import li.strolch.metrics.Histogram;
+import li.strolch.metrics.MetricsRegistry;
 import li.strolch.model.Locator;
 import li.strolch.utils.collections.TypedTuple;
 import li.strolch.utils.dbc.DBC;
@@ -43,6 +46,10 @@ public class DefaultLockHandler implements LockHandler {
 	private long tryLockTime;
 	private Map<Locator, TypedTuple<ReentrantLock, Long>> lockMap;
 
+	private final Counter acquisitions;
+	private final Histogram contendedWaits;
+	private final Counter timeouts;
+
 	public DefaultLockHandler(StrolchAgent agent, String realm, TimeUnit tryLockTimeUnit, long tryLockTime) {
 
 		DBC.PRE.assertNotNull("agent must be set!", agent); //$NON-NLS-1$
@@ -55,6 +62,15 @@ public class DefaultLockHandler implements LockHandler {
 		this.tryLockTime = tryLockTime;
 		this.lockMap = new ConcurrentHashMap<>();
 
+		MetricsRegistry metrics = agent.getMetrics();
+		this.acquisitions = metrics.counter("strolch_lock_acquisitions_total", "Acquired element locks", "realm")
+				.labels(realm);
+		this.contendedWaits = metrics
+				.timer("strolch_lock_wait_seconds", "Wait time for element locks held by another thread", "realm")
+				.labels(realm);
+		this.timeouts = metrics.counter("strolch_lock_timeouts_total", "Element locks not acquired in time", "realm")
+				.labels(realm);
+
 		agent.getScheduledExecutor().scheduleAtFixedRate(this::cleanupOldLocks, 1, 1, TimeUnit.HOURS);
 	}
 
@@ -124,7 +140,10 @@ public class DefaultLockHandler implements LockHandler {
 			throws StrolchLockException {
 		try {
 
-			if (!tuple.getFirst().tryLock() && !tuple.getFirst().tryLock(tryLockTime, timeUnit)) {
+			ReentrantLock lock = tuple.getFirst();
+			if (!lock.tryLock() && !tryLockContended(lock, timeUnit, tryLockTime)) {
+				this.timeouts.inc();
+
 				String msg = "Thread {0} failed to acquire lock after {1}s for {2}"; //$NON-NLS-1$
 				msg = MessageFormat
 						.format(msg, Thread.currentThread().getName(), timeUnit.toSeconds(tryLockTime), locator);
@@ -148,6 +167,7 @@ public class DefaultLockHandler implements LockHandler {
 			}
 
 			tuple.setSecond(System.currentTimeMillis());
+			this.acquisitions.inc();
 
 			// logger.debug("locked " + locator); //$NON-NLS-1$
 
@@ -156,6 +176,16 @@ public class DefaultLockHandler implements LockHandler {
 		}
 	}
 
+	private boolean tryLockContended(ReentrantLock lock, TimeUnit timeUnit, long tryLockTime)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		try {
+			return lock.tryLock(tryLockTime, timeUnit);
+		} finally {
+			this.contendedWaits.recordSince(start);
+		}
+	}
+
 	/**
 	 * @see java.util.concurrent.locks.ReentrantLock#unlock()
 	 */
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import java.text.MessageFormat;
+import java.util.*;
+
+import li.strolch.agent.api.ParameterIndex;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.model.parameter.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default {@link ParameterIndex} implementation, maintained by the {@link TransientElementMap}. A sorted index is
+ * backed by a {@link TreeMap}, otherwise by a {@link HashMap}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class DefaultParameterIndex<T extends StrolchRootElement> implements ParameterIndex, ElementIndex<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(DefaultParameterIndex.class);
+
+	private final String type;
+	private final String bagId;
+	private final String paramId;
+	private final boolean sorted;
+
+	private final Map<Object, Set<String>> index;
+	private Class<?> valueClass;
+	private boolean usable;
+
+	public DefaultParameterIndex(String type, String bagId, String paramId, boolean sorted) {
+		this.type = type;
+		this.bagId = bagId;
+		this.paramId = paramId;
+		this.sorted = sorted;
+		this.index = sorted ? new TreeMap<>() : new HashMap<>();
+		this.usable = true;
+	}
+
+	@Override
+	public String getType() {
+		return this.type;
+	}
+
+	@Override
+	public String getBagId() {
+		return this.bagId;
+	}
+
+	@Override
+	public String getParamId() {
+		return this.paramId;
+	}
+
+	@Override
+	public boolean isSorted() {
+		return this.sorted;
+	}
+
+	@Override
+	public synchronized boolean isUsable() {
+		return this.usable;
+	}
+
+	@Override
+	public synchronized Class<?> getValueClass() {
+		return this.valueClass;
+	}
+
+	private Object getValue(T element) {
+		Parameter<?> parameter = element.getParameter(this.bagId, this.paramId);
+		return parameter == null ? null : parameter.getValue();
+	}
+
+	private void markUnusable(Object value) {
+		String msg = "Index {0} can not index value of type {1}, index is not usable anymore!"; //$NON-NLS-1$
+		logger.warn(MessageFormat.format(msg, this, value.getClass().getName()));
+		this.usable = false;
+		this.index.clear();
+	}
+
+	@Override
+	public synchronized void add(T element) {
+		if (!this.usable)
+			return;
+
+		Object value = getValue(element);
+		if (value == null)
+			return;
+
+		if (value instanceof Collection //
+				|| (this.sorted && !(value instanceof Comparable)) //
+				|| (this.valueClass != null && this.valueClass != value.getClass())) {
+			markUnusable(value);
+			return;
+		}
+
+		this.valueClass = value.getClass();
+		this.index.computeIfAbsent(value, v -> new HashSet<>()).add(element.getId());
+	}
+
+	@Override
+	public synchronized void remove(T element) {
+		if (!this.usable)
+			return;
+
+		Object value = getValue(element);
+		if (value == null || value.getClass() != this.valueClass)
+			return;
+
+		Set<String> ids = this.index.get(value);
+		if (ids == null)
+			return;
+
+		ids.remove(element.getId());
+		if (ids.isEmpty())
+			this.index.remove(value);
+	}
+
+	@Override
+	public synchronized void clear() {
+		this.index.clear();
+		this.valueClass = null;
+		this.usable = true;
+	}
+
+	@Override
+	public synchronized Set<String> getIdsFor(Object value) {
+		if (value == null || value.getClass() != this.valueClass)
+			return new HashSet<>(0);
+
+		Set<String> ids = this.index.get(value);
+		return ids == null ? new HashSet<>(0) : new HashSet<>(ids);
+	}
+
+	@Override
+	public synchronized Set<String> getIdsIn(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+		if (!this.sorted)
+			throw new UnsupportedOperationException("Index " + this + " is not sorted!");
+
+		if (this.valueClass == null //
+				|| (from != null && from.getClass() != this.valueClass) //
+				|| (to != null && to.getClass() != this.valueClass))
+			return new HashSet<>(0);
+
+		NavigableMap<Object, Set<String>> range = (NavigableMap<Object, Set<String>>) this.index;
+		if (from != null && to != null) {
+			@SuppressWarnings("unchecked")
+			Comparable<Object> fromC = (Comparable<Object>) from;
+			if (fromC.compareTo(to) > 0)
+				return new HashSet<>(0);
+			range = range.subMap(from, fromInclusive, to, toInclusive);
+		} else if (from != null) {
+			range = range.tailMap(from, fromInclusive);
+		} else if (to != null) {
+			range = range.headMap(to, toInclusive);
+		}
+
+		Set<String> ids = new HashSet<>();
+		for (Set<String> values : range.values()) {
+			ids.addAll(values);
+		}
+		return ids;
+	}
+
+	@Override
+	public String toString() {
+		return this.type + ":" + this.bagId + ":" + this.paramId + (this.sorted ? ":sorted" : "");
+	}
+}
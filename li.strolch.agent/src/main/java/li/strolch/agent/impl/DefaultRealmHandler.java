@@ -38,9 +38,19 @@ public class DefaultRealmHandler extends StrolchComponent implements RealmHandle
 
 	public static final String PROP_ENABLE_AUDIT_TRAIL = "enableAuditTrail"; //$NON-NLS-1$
 	public static final String PROP_ENABLE_AUDIT_TRAIL_FOR_READ = "enableAuditTrailForRead"; //$NON-NLS-1$
+	public static final String PROP_AUDIT_TRAIL_WRITE_MODE = "auditTrailWriteMode"; //$NON-NLS-1$
+	public static final String PROP_AUDIT_TRAIL_QUEUE_SIZE = "auditTrailQueueSize"; //$NON-NLS-1$
+	public static final String PROP_AUDIT_TRAIL_BATCH_SIZE = "auditTrailBatchSize"; //$NON-NLS-1$
 	public static final String PROP_ENABLE_OBSERVER_UPDATES = "enableObserverUpdates"; //$NON-NLS-1$
 	public static final String PROP_ENABLED_DELAYED_OBSERVER_UPDATES = "enableDelayedObserverUpdates"; //$NON-NLS-1$
 	public static final String PROP_ENABLE_VERSIONING = "enableVersioning"; //$NON-NLS-1$
+	public static final String PROP_ENABLE_CONCURRENT_ELEMENT_MAPS = "enableConcurrentElementMaps"; //$NON-NLS-1$
+	public static final String PROP_BOOT_PARALLELISM = "bootParallelism"; //$NON-NLS-1$
+	public static final String PROP_BOOT_FETCH_SIZE = "bootFetchSize"; //$NON-NLS-1$
+	public static final String PROP_RESOURCE_INDEXES = "resourceIndexes"; //$NON-NLS-1$
+	public static final String PROP_ORDER_INDEXES = "orderIndexes"; //$NON-NLS-1$
+	public static final String PROP_ACTIVITY_INDEXES = "activityIndexes"; //$NON-NLS-1$
+	public static final String PROP_RESOURCE_AVAILABILITY_INDEXES = "resourceAvailabilityIndexes"; //$NON-NLS-1$
 	public static final String PREFIX_DATA_STORE_MODE = "dataStoreMode"; //$NON-NLS-1$
 	public static final String PREFIX_DATA_STORE_FILE = "dataStoreFile"; //$NON-NLS-1$
 	public static final String PROP_REALMS = "realms"; //$NON-NLS-1$
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import li.strolch.model.StrolchRootElement;
+
+/**
+ * An index on the elements of a given type, which the {@link TransientElementMap} maintains on add, update and remove
+ * while the type's lock is held
+ *
+ * @param <T>
+ * 		the type of element being indexed
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public interface ElementIndex<T extends StrolchRootElement> {
+
+	/**
+	 * @return the type of elements indexed
+	 */
+	String getType();
+
+	/**
+	 * Adds the given element to this index
+	 *
+	 * @param element
+	 * 		the element to index
+	 */
+	void add(T element);
+
+	/**
+	 * Removes the given element from this index
+	 *
+	 * @param element
+	 * 		the element to remove
+	 */
+	void remove(T element);
+
+	/**
+	 * Replaces the given previous element with its new version in this index
+	 *
+	 * @param previous
+	 * 		the previous version of the element
+	 * @param element
+	 * 		the new version of the element
+	 */
+	default void update(T previous, T element) {
+		remove(previous);
+		add(element);
+	}
+
+	/**
+	 * Clears this index, i.e. when all elements of the type were removed
+	 */
+	void clear();
+}
@@ -78,9 +78,9 @@ public class EmptyRealm extends InternalStrolchRealm {
 	@Override
 	public void initialize(ComponentContainer container, ComponentConfiguration configuration) {
 		super.initialize(container, configuration);
-		this.resourceMap = new TransientResourceMap();
-		this.orderMap = new TransientOrderMap();
-		this.activityMap = new TransientActivityMap();
+		this.resourceMap = new TransientResourceMap(isConcurrentElementMaps());
+		this.orderMap = new TransientOrderMap(isConcurrentElementMaps());
+		this.activityMap = new TransientActivityMap(isConcurrentElementMaps());
 
 		if (isAuditTrailEnabled())
 			this.auditTrail = new TransientAuditTrail();
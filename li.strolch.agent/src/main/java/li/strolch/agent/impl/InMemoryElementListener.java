@@ -155,7 +155,7 @@ public class InMemoryElementListener implements StrolchElementListener {
 						.format("Resource {0} already exists and updating is disallowed!", resource.getLocator()));
 			}
 		} else if (this.addResources) {
-			this.tx.add(resource);
+			addResource(resource);
 		}
 		// else ignore
 	}
@@ -176,7 +176,7 @@ public class InMemoryElementListener implements StrolchElementListener {
 						.format("Order {0} already exists and updating is disallowed!", order.getLocator()));
 			}
 		} else if (this.addOrders) {
-			this.tx.add(order);
+			addOrder(order);
 		}
 		// else ignore
 	}
@@ -197,8 +197,38 @@ public class InMemoryElementListener implements StrolchElementListener {
 						.format("Activity {0} already exists and updating is disallowed!", activity.getLocator()));
 			}
 		} else if (this.addActivities) {
-			this.tx.add(activity);
+			addActivity(activity);
 		}
 		// else ignore
 	}
+
+	/**
+	 * Adds the given new {@link Resource} to the transaction. Subclasses may override to add it differently
+	 *
+	 * @param resource
+	 * 		the resource to add
+	 */
+	protected void addResource(Resource resource) {
+		this.tx.add(resource);
+	}
+
+	/**
+	 * Adds the given new {@link Order} to the transaction. Subclasses may override to add it differently
+	 *
+	 * @param order
+	 * 		the order to add
+	 */
+	protected void addOrder(Order order) {
+		this.tx.add(order);
+	}
+
+	/**
+	 * Adds the given new {@link Activity} to the transaction. Subclasses may override to add it differently
+	 *
+	 * @param activity
+	 * 		the activity to add
+	 */
+	protected void addActivity(Activity activity) {
+		this.tx.add(activity);
+	}
 }
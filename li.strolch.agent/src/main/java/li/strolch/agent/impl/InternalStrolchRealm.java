@@ -25,6 +25,7 @@ import li.strolch.agent.api.*;
 import li.strolch.model.Locator;
 import li.strolch.privilege.model.PrivilegeContext;
 import li.strolch.runtime.configuration.ComponentConfiguration;
+import li.strolch.runtime.configuration.StrolchConfigurationException;
 import li.strolch.utils.dbc.DBC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,8 +43,14 @@ public abstract class InternalStrolchRealm implements StrolchRealm {
 	private boolean auditTrailEnabled;
 	private boolean auditTrailEnabledForRead;
 	private boolean versioningEnabled;
+	private boolean concurrentElementMaps;
+	private String[] resourceIndexes;
+	private String[] orderIndexes;
+	private String[] activityIndexes;
+	private String[] availabilityIndexes;
 	private boolean updateObservers;
 	private ObserverHandler observerHandler;
+	private RealmMetrics metrics;
 	protected ComponentContainer container;
 
 	public InternalStrolchRealm(String realm) {
@@ -77,6 +84,8 @@ public abstract class InternalStrolchRealm implements StrolchRealm {
 
 		logger.info("Initializing Realm " + getRealm() + "...");
 
+		this.metrics = new RealmMetrics(container.getAgent().getMetrics(), this.realm);
+
 		// audits
 		String enableAuditKey = makeRealmKey(getRealm(), PROP_ENABLE_AUDIT_TRAIL);
 		this.auditTrailEnabled = configuration.getBoolean(enableAuditKey, Boolean.FALSE);
@@ -109,6 +118,18 @@ public abstract class InternalStrolchRealm implements StrolchRealm {
 		String enableVersioningKey = makeRealmKey(getRealm(), PROP_ENABLE_VERSIONING);
 		this.versioningEnabled = configuration.getBoolean(enableVersioningKey, Boolean.FALSE);
 
+		// concurrent element maps
+		String enableConcurrentElementMapsKey = makeRealmKey(getRealm(), PROP_ENABLE_CONCURRENT_ELEMENT_MAPS);
+		this.concurrentElementMaps = configuration.getBoolean(enableConcurrentElementMapsKey, Boolean.FALSE);
+
+		// parameter indexes
+		this.resourceIndexes = getIndexes(configuration, PROP_RESOURCE_INDEXES);
+		this.orderIndexes = getIndexes(configuration, PROP_ORDER_INDEXES);
+		this.activityIndexes = getIndexes(configuration, PROP_ACTIVITY_INDEXES);
+
+		// availability indexes
+		this.availabilityIndexes = getIndexes(configuration, PROP_RESOURCE_AVAILABILITY_INDEXES);
+
 		if (this.auditTrailEnabled)
 			logger.info("Enabling AuditTrail for realm " + getRealm()); //$NON-NLS-1$
 		else
@@ -125,11 +146,62 @@ public abstract class InternalStrolchRealm implements StrolchRealm {
 			logger.info("Enabling Versioning for realm " + getRealm()); //$NON-NLS-1$
 		else
 			logger.info("Versioning not enabled for realm " + getRealm()); //$NON-NLS-1$
+		if (this.concurrentElementMaps)
+			logger.info("Enabling concurrent ElementMaps for realm " + getRealm()); //$NON-NLS-1$
 
 		logger.info(
 				MessageFormat.format("Using a locking try timeout of {0}s", timeUnit.toSeconds(time))); //$NON-NLS-1$
 	}
 
+	private String[] getIndexes(ComponentConfiguration configuration, String property) {
+		String key = makeRealmKey(getRealm(), property);
+		if (!configuration.hasProperty(key))
+			return new String[0];
+		return configuration.getStringArray(key, null);
+	}
+
+	/**
+	 * Adds the configured {@link ParameterIndex ParameterIndexes} to the given {@link ElementMap}. An index is defined
+	 * as <code>Type:bagId:paramId</code>, or <code>Type:bagId:paramId:sorted</code> for a sorted index
+	 *
+	 * @param elementMap
+	 * 		the map to which to add the indexes
+	 * @param indexes
+	 * 		the index definitions
+	 */
+	private void addIndexes(ElementMap<?> elementMap, String[] indexes) {
+		for (String index : indexes) {
+			String[] parts = index.split(":");
+			if (parts.length < 3 || parts.length > 4 || (parts.length == 4 && !parts[3].equals("sorted"))) {
+				String msg = "Invalid index definition {0} for realm {1}, expected Type:bagId:paramId[:sorted]"; //$NON-NLS-1$
+				throw new StrolchConfigurationException(MessageFormat.format(msg, index, getRealm()));
+			}
+
+			elementMap.addIndex(parts[0], parts[1], parts[2], parts.length == 4);
+		}
+	}
+
+	/**
+	 * Adds the configured {@link AvailabilityIndex AvailabilityIndexes} to the given {@link ResourceMap}. An index is
+	 * defined as <code>Type:stateId</code>
+	 *
+	 * @param resourceMap
+	 * 		the map to which to add the indexes
+	 * @param indexes
+	 * 		the index definitions
+	 */
+	private void addAvailabilityIndexes(ResourceMap resourceMap, String[] indexes) {
+		for (String index : indexes) {
+			String[] parts = index.split(":");
+			if (parts.length != 2) {
+				String msg = "Invalid availability index definition {0} for realm {1}, expected Type:stateId"; //$NON-NLS-1$
+				throw new StrolchConfigurationException(MessageFormat.format(msg, index, getRealm()));
+			}
+
+			resourceMap.addAvailabilityIndex(parts[0], parts[1]);
+		}
+	}
+
 	@Override
 	public boolean isAuditTrailEnabled() {
 		return this.auditTrailEnabled;
@@ -150,6 +222,25 @@ public abstract class InternalStrolchRealm implements StrolchRealm {
 		return this.versioningEnabled;
 	}
 
+	/**
+	 * Returns true if the {@link ElementMap ElementMaps} of this realm are to be created in concurrent mode, i.e.
+	 * lock-free reads and per type locked writes
+	 *
+	 * @return true if the {@link ElementMap ElementMaps} are concurrent
+	 */
+	public boolean isConcurrentElementMaps() {
+		return this.concurrentElementMaps;
+	}
+
+	/**
+	 * Returns the {@link RealmMetrics} with which the transactions of this realm record their outcome
+	 *
+	 * @return the {@link RealmMetrics} of this realm
+	 */
+	public RealmMetrics getMetrics() {
+		return this.metrics;
+	}
+
 	@Override
 	public ObserverHandler getObserverHandler() throws IllegalArgumentException {
 		if (!this.updateObservers)
@@ -159,6 +250,12 @@ public abstract class InternalStrolchRealm implements StrolchRealm {
 
 	public void start(PrivilegeContext privilegeContext) {
 
+		// add indexes before the model is loaded, so that they are populated while loading
+		addIndexes(getResourceMap(), this.resourceIndexes);
+		addIndexes(getOrderMap(), this.orderIndexes);
+		addIndexes(getActivityMap(), this.activityIndexes);
+		addAvailabilityIndexes(getResourceMap(), this.availabilityIndexes);
+
 		if (this.observerHandler != null) {
 			this.observerHandler.start();
 		}
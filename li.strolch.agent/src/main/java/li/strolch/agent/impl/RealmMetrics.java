@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent.impl;
+
+import li.strolch.metrics.Counter;
+import li.strolch.metrics.Histogram;
+import li.strolch.metrics.MetricFamily;
+import li.strolch.metrics.MetricsRegistry;
+import li.strolch.persistence.api.StrolchTransaction;
+
+/**
+ * The transaction metrics of a single realm, of which the metrics are resolved once, so that recording the outcome of
+ * a {@link StrolchTransaction} only needs a lookup by the action of the transaction
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class RealmMetrics {
+
+	private final String realm;
+
+	private final MetricFamily<Histogram> txDurations;
+	private final Counter readOnly;
+	private final Counter committed;
+	private final Counter rolledBack;
+	private final Counter failed;
+
+	private final Histogram commandsPhase;
+	private final Histogram writeChangesPhase;
+	private final Histogram auditTrailPhase;
+	private final Histogram observersPhase;
+	private final Histogram commitPhase;
+
+	public RealmMetrics(MetricsRegistry metrics, String realm) {
+		this.realm = realm;
+
+		this.txDurations = metrics.timer("strolch_tx_duration_seconds", "Duration of transactions by action", "realm",
+				"action");
+
+		MetricFamily<Counter> txTotal = metrics.counter("strolch_tx_total", "Closed transactions by outcome", "realm",
+				"outcome");
+		this.readOnly = txTotal.labels(realm, "read_only");
+		this.committed = txTotal.labels(realm, "commit");
+		this.rolledBack = txTotal.labels(realm, "rollback");
+		this.failed = txTotal.labels(realm, "failure");
+
+		MetricFamily<Histogram> phases = metrics.timer("strolch_tx_commit_phase_seconds",
+				"Duration of the phases of committing transactions", "realm", "phase");
+		this.commandsPhase = phases.labels(realm, "commands");
+		this.writeChangesPhase = phases.labels(realm, "write_changes");
+		this.auditTrailPhase = phases.labels(realm, "audit_trail");
+		this.observersPhase = phases.labels(realm, "observers");
+		this.commitPhase = phases.labels(realm, "commit");
+	}
+
+	public void txReadOnly(String action, long txDuration) {
+		this.txDurations.labels(this.realm, action).record(txDuration);
+		this.readOnly.inc();
+	}
+
+	/**
+	 * Records a committed transaction. Phases which are not enabled for the realm are passed as a negative duration,
+	 * and are not recorded
+	 */
+	public void txCommitted(String action, long txDuration, long commandsDuration, long writeChangesDuration,
+			long auditTrailDuration, long observersDuration, long commitDuration) {
+		this.txDurations.labels(this.realm, action).record(txDuration);
+		this.committed.inc();
+
+		this.commandsPhase.record(commandsDuration);
+		this.writeChangesPhase.record(writeChangesDuration);
+		if (auditTrailDuration >= 0L)
+			this.auditTrailPhase.record(auditTrailDuration);
+		if (observersDuration >= 0L)
+			this.observersPhase.record(observersDuration);
+		this.commitPhase.record(commitDuration);
+	}
+
+	public void txRolledBack(String action, long txDuration) {
+		this.txDurations.labels(this.realm, action).record(txDuration);
+		this.rolledBack.inc();
+	}
+
+	public void txFailed(String action, long txDuration) {
+		this.txDurations.labels(this.realm, action).record(txDuration);
+		this.failed.inc();
+	}
+}
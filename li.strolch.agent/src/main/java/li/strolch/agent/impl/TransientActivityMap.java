@@ -14,6 +14,14 @@ import li.strolch.runtime.query.inmemory.InMemoryQuery;
 
 public class TransientActivityMap extends TransientElementMap<Activity> implements ActivityMap {
 
+	public TransientActivityMap() {
+		super();
+	}
+
+	public TransientActivityMap(boolean concurrent) {
+		super(concurrent);
+	}
+
 	@Override
 	protected void assertIsRefParam(Parameter<?> refP) {
 		ElementMapHelpers.assertIsRefParam(INTERPRETATION_ACTIVITY_REF, refP);
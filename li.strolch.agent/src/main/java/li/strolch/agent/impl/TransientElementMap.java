@@ -19,10 +19,16 @@ import static java.util.function.Function.identity;
 
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import li.strolch.agent.api.ElementMap;
+import li.strolch.agent.api.ParameterIndex;
 import li.strolch.agent.api.StrolchAgent;
 import li.strolch.exception.StrolchElementNotFoundException;
 import li.strolch.exception.StrolchException;
@@ -38,48 +44,180 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * <p>
+ * In-memory {@link ElementMap} which keeps the elements grouped by their type.
+ * </p>
+ *
+ * <p>
+ * By default all access is serialized on the map's monitor, i.e. a reader always sees the result of a complete write
+ * operation. If the map is created in concurrent mode, then the elements are held in {@link ConcurrentHashMap
+ * ConcurrentHashMaps}, reads are lock free and writes only lock the stripe of the element's type, so that transactions
+ * of a realm don't serialize on a single monitor. In this mode a reader might see a partially applied
+ * {@link #addAll(StrolchTransaction, List)} etc. of another transaction, which is of no concern, as the elements being
+ * modified are locked by the modifying transaction.
+ * </p>
+ *
+ * <p>
+ * Any {@link ParameterIndex} added with {@link #addIndex(String, String, String, boolean)}, or any other {@link
+ * ElementIndex} added with {@link #addElementIndex(String, Class, Predicate, Supplier)}, is maintained while the type's
+ * lock is held, so that the index always reflects the elements of the type.
+ * </p>
+ *
  * @author Robert von Burg <eitch@eitchnet.ch>
  */
 public abstract class TransientElementMap<T extends StrolchRootElement> implements ElementMap<T> {
 
 	protected static final Logger logger = LoggerFactory.getLogger(TransientElementMap.class);
 
-	private Map<String, Map<String, T>> elementMap;
+	private static final int NR_OF_LOCK_STRIPES = 32;
+
+	private final boolean concurrent;
+	private final Object[] typeLocks;
+	private final Map<String, Map<String, T>> elementMap;
+	private final Map<String, List<ElementIndex<T>>> indexes;
+	private final Map<String, AtomicLong> modificationCounters;
 
 	public TransientElementMap() {
-		this.elementMap = new HashMap<>();
+		this(false);
+	}
+
+	public TransientElementMap(boolean concurrent) {
+		this.concurrent = concurrent;
+		if (concurrent) {
+			this.elementMap = new ConcurrentHashMap<>();
+			this.typeLocks = new Object[NR_OF_LOCK_STRIPES];
+			for (int i = 0; i < this.typeLocks.length; i++) {
+				this.typeLocks[i] = new Object();
+			}
+		} else {
+			this.elementMap = new HashMap<>();
+			this.typeLocks = null;
+		}
+		this.indexes = new ConcurrentHashMap<>();
+		this.modificationCounters = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns true if this map is in concurrent mode, i.e. reads are not synchronized and writes only lock the stripe
+	 * of the element's type
+	 *
+	 * @return true if this map is in concurrent mode
+	 */
+	public boolean isConcurrent() {
+		return this.concurrent;
+	}
+
+	/**
+	 * Performs the given read action. If not in concurrent mode, then the read is synchronized on this map
+	 *
+	 * @param action
+	 * 		the action to perform
+	 *
+	 * @return the result of the action
+	 */
+	protected <U> U readLocked(Supplier<U> action) {
+		if (this.concurrent)
+			return action.get();
+		synchronized (this) {
+			return action.get();
+		}
+	}
+
+	/**
+	 * Performs the given write action. If not in concurrent mode, then the write is synchronized on this map, otherwise
+	 * the structural changes lock the stripe of the element's type
+	 *
+	 * @param action
+	 * 		the action to perform
+	 */
+	protected void writeLocked(Runnable action) {
+		if (this.concurrent) {
+			action.run();
+			return;
+		}
+		synchronized (this) {
+			action.run();
+		}
+	}
+
+	/**
+	 * Performs the given write action returning a result. See {@link #writeLocked(Runnable)}
+	 *
+	 * @param action
+	 * 		the action to perform
+	 *
+	 * @return the result of the action
+	 */
+	protected <U> U writeLockedAndGet(Supplier<U> action) {
+		if (this.concurrent)
+			return action.get();
+		synchronized (this) {
+			return action.get();
+		}
+	}
+
+	/**
+	 * Returns the lock to use for structural changes of the elements of the given type. If not in concurrent mode, then
+	 * this is the map itself
+	 *
+	 * @param type
+	 * 		the type of element being modified
+	 *
+	 * @return the lock for the given type
+	 */
+	private Object typeLock(String type) {
+		if (!this.concurrent)
+			return this;
+		return this.typeLocks[Math.floorMod(type.hashCode(), NR_OF_LOCK_STRIPES)];
+	}
+
+	private Map<String, T> newTypeMap() {
+		return this.concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
 	}
 
 	@Override
-	public synchronized boolean hasType(StrolchTransaction tx, String type) {
-		return this.elementMap.containsKey(type);
+	public boolean hasType(StrolchTransaction tx, String type) {
+		return readLocked(() -> this.elementMap.containsKey(type));
 	}
 
 	@Override
-	public synchronized boolean hasElement(StrolchTransaction tx, String type, String id) {
-		Map<String, T> byType = this.elementMap.get(type);
-		return byType != null && byType.get(id) != null;
+	public boolean hasElement(StrolchTransaction tx, String type, String id) {
+		return readLocked(() -> {
+			Map<String, T> byType = this.elementMap.get(type);
+			return byType != null && byType.get(id) != null;
+		});
 	}
 
 	@Override
-	public synchronized long querySize(StrolchTransaction tx) {
-		return this.elementMap.entrySet().stream() //
-				.map(e -> e.getValue().entrySet().size()) //
-				.mapToInt(Integer::valueOf) //
-				.sum();
+	public long querySize(StrolchTransaction tx) {
+		return readLocked(() -> this.elementMap.values().stream() //
+				.mapToLong(Map::size) //
+				.sum());
 	}
 
 	@Override
-	public synchronized long querySize(StrolchTransaction tx, String type) {
-		Map<String, T> byType = this.elementMap.get(type);
-		if (byType == null)
-			return 0;
+	public long querySize(StrolchTransaction tx, String type) {
+		return readLocked(() -> {
+			Map<String, T> byType = this.elementMap.get(type);
+			if (byType == null)
+				return 0L;
+
+			return (long) byType.size();
+		});
+	}
+
+	@Override
+	public long getModificationCounter(StrolchTransaction tx, String type) {
+		AtomicLong counter = this.modificationCounters.get(type);
+		return counter == null ? 0L : counter.get();
+	}
 
-		return byType.entrySet().size();
+	private void incrementModificationCounter(String type) {
+		this.modificationCounters.computeIfAbsent(type, t -> new AtomicLong()).incrementAndGet();
 	}
 
 	@Override
-	public synchronized T getTemplate(StrolchTransaction tx, String type) {
+	public T getTemplate(StrolchTransaction tx, String type) {
 		return getTemplate(tx, type, false);
 	}
 
@@ -103,24 +241,41 @@ public abstract class TransientElementMap<T extends StrolchRootElement> implemen
 	}
 
 	@Override
-	public synchronized T getBy(StrolchTransaction tx, String type, String id) {
+	public T getBy(StrolchTransaction tx, String type, String id) {
 		return getBy(tx, type, id, false);
 	}
 
 	@Override
 	public T getBy(StrolchTransaction tx, String type, String id, boolean assertExists) throws StrolchException {
+		T t = getReadOnlyBy(tx, type, id, assertExists);
+		if (t == null)
+			return null;
 
-		T t = null;
-		Map<String, T> byType = this.elementMap.get(type);
-		if (byType != null) {
-			t = byType.get(id);
-		}
+		@SuppressWarnings("unchecked")
+		T clone = (T) t.getClone(true);
+		return clone;
+	}
+
+	@Override
+	public T getReadOnlyBy(StrolchTransaction tx, String type, String id, boolean assertExists)
+			throws StrolchException {
+
+		T t = readLocked(() -> {
+			Map<String, T> byType = this.elementMap.get(type);
+			return byType == null ? null : byType.get(id);
+		});
 
 		if (assertExists && t == null) {
 			String msg = "The element with type \"{0}\" and id \"{1}\" does not exist!"; //$NON-NLS-1$
 			throw new StrolchElementNotFoundException(MessageFormat.format(msg, type, id));
 		}
 
+		return t;
+	}
+
+	@Override
+	public T getBy(StrolchTransaction tx, StringParameter refP, boolean assertExists) throws StrolchException {
+		T t = getReadOnlyBy(tx, refP, assertExists);
 		if (t == null)
 			return null;
 
@@ -130,11 +285,12 @@ public abstract class TransientElementMap<T extends StrolchRootElement> implemen
 	}
 
 	@Override
-	public T getBy(StrolchTransaction tx, StringParameter refP, boolean assertExists) throws StrolchException {
+	public T getReadOnlyBy(StrolchTransaction tx, StringParameter refP, boolean assertExists)
+			throws StrolchException {
 		assertIsRefParam(refP);
 		String type = refP.getUom();
 		String id = refP.getValue();
-		T t = getBy(tx, type, id, false);
+		T t = getReadOnlyBy(tx, type, id, false);
 		if (assertExists && t == null) {
 			String msg = "The element with type \"{0}\" and id \"{1}\" does not exist for param \"{2}\""; //$NON-NLS-1$
 			throw new StrolchElementNotFoundException(MessageFormat.format(msg, type, id, refP.getLocator()));
@@ -164,229 +320,388 @@ public abstract class TransientElementMap<T extends StrolchRootElement> implemen
 	}
 
 	@Override
-	public synchronized List<T> getAllElements(StrolchTransaction tx) {
-		return this.elementMap.values().stream() //
+	public List<T> getAllElements(StrolchTransaction tx) {
+		return readLocked(() -> this.elementMap.values().stream() //
 				.flatMap(e -> e.values().stream()) //
 				.map(t -> {
 					@SuppressWarnings("unchecked")
 					T clone = (T) t.getClone(true);
 					return clone;
 				}) //
-				.collect(Collectors.toList());
+				.collect(Collectors.toList()));
 	}
 
 	@Override
-	public synchronized List<T> getElementsBy(StrolchTransaction tx, String type) {
-
-		Map<String, T> byType = this.elementMap.get(type);
-		if (byType == null)
-			return new ArrayList<>(0);
+	public List<T> getElementsBy(StrolchTransaction tx, String type) {
+		return readLocked(() -> {
+			Map<String, T> byType = this.elementMap.get(type);
+			if (byType == null)
+				return new ArrayList<>(0);
 
-		return byType.values().stream().map(t -> {
-			@SuppressWarnings("unchecked")
-			T clone = (T) t.getClone(true);
-			return clone;
-		}).collect(Collectors.toList());
+			return byType.values().stream().map(t -> {
+				@SuppressWarnings("unchecked")
+				T clone = (T) t.getClone(true);
+				return clone;
+			}).collect(Collectors.toList());
+		});
 	}
 
 	@Override
-	public synchronized Stream<T> stream(StrolchTransaction tx, String... types) {
+	public Stream<T> stream(StrolchTransaction tx, String... types) {
+		return readLocked(() -> {
+
+			if (types.length == 0) {
+				List<T> elements = new ArrayList<>();
+				for (Map<String, T> map : this.elementMap.values()) {
+					elements.addAll(map.values());
+				}
+				return elements.stream();
+			}
+
+			if (types.length == 1) {
+				Map<String, T> byType = this.elementMap.get(types[0]);
+				if (byType == null)
+					return Stream.empty();
+
+				return new ArrayList<>(byType.values()).stream();
+			}
 
-		if (types.length == 0) {
 			List<T> elements = new ArrayList<>();
-			for (Map<String, T> map : this.elementMap.values()) {
-				elements.addAll(map.values());
+			for (String type : types) {
+				Map<String, T> byType = this.elementMap.get(type);
+				if (byType == null)
+					continue;
+
+				elements.addAll(byType.values());
 			}
 			return elements.stream();
-		}
+		});
+	}
 
-		if (types.length == 1) {
-			Map<String, T> byType = this.elementMap.get(types[0]);
+	@Override
+	public Stream<T> streamBy(StrolchTransaction tx, String type, Collection<String> ids) {
+		return readLocked(() -> {
+			Map<String, T> byType = this.elementMap.get(type);
 			if (byType == null)
-				return Stream.empty();
+				return Stream.<T>empty();
 
-			return new ArrayList<>(byType.values()).stream();
-		}
+			List<T> elements = new ArrayList<>(ids.size());
+			for (String id : ids) {
+				T element = byType.get(id);
+				if (element != null)
+					elements.add(element);
+			}
+			return elements.stream();
+		});
+	}
 
-		List<T> elements = new ArrayList<>();
-		for (String type : types) {
-			Map<String, T> byType = this.elementMap.get(type);
-			if (byType == null)
-				continue;
+	@Override
+	public void addIndex(String type, String bagId, String paramId, boolean sorted) {
+		addElementIndex(type, DefaultParameterIndex.class,
+				(DefaultParameterIndex<T> index) -> isIndexOf(index, bagId, paramId),
+				() -> new DefaultParameterIndex<>(type, bagId, paramId, sorted));
+	}
+
+	@Override
+	public ParameterIndex getIndex(StrolchTransaction tx, String type, String bagId, String paramId) {
+		return findElementIndex(type, DefaultParameterIndex.class,
+				(DefaultParameterIndex<T> index) -> isIndexOf(index, bagId, paramId));
+	}
+
+	private static boolean isIndexOf(ParameterIndex index, String bagId, String paramId) {
+		return index.getBagId().equals(bagId) && index.getParamId().equals(paramId);
+	}
 
-			elements.addAll(byType.values());
+	/**
+	 * Adds the {@link ElementIndex} created by the given factory for the elements of the given type, unless a matching
+	 * index already exists. Existing elements are indexed immediately, and the index is then maintained on add, update
+	 * and remove
+	 *
+	 * @param type
+	 * 		the type of the elements to index
+	 * @param indexClass
+	 * 		the class of the index
+	 * @param matcher
+	 * 		the predicate to find an existing index of the given class
+	 * @param factory
+	 * 		the factory to create the index, if none exists
+	 */
+	protected <I extends ElementIndex<T>> void addElementIndex(String type, Class<? super I> indexClass,
+			Predicate<I> matcher, Supplier<I> factory) {
+		writeLocked(() -> {
+			synchronized (typeLock(type)) {
+				if (findElementIndex(type, indexClass, matcher) != null)
+					return;
+
+				I index = factory.get();
+				Map<String, T> byType = this.elementMap.get(type);
+				if (byType != null)
+					byType.values().forEach(index::add);
+
+				this.indexes.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>()).add(index);
+				logger.info("Added index " + index);
+			}
+		});
+	}
+
+	/**
+	 * Returns the {@link ElementIndex} of the given class for the elements of the given type, which matches the given
+	 * predicate
+	 *
+	 * @param type
+	 * 		the type of the indexed elements
+	 * @param indexClass
+	 * 		the class of the index
+	 * @param matcher
+	 * 		the predicate to find the index of the given class
+	 *
+	 * @return the index, or null if no such index exists
+	 */
+	@SuppressWarnings("unchecked")
+	protected <I extends ElementIndex<T>> I findElementIndex(String type, Class<? super I> indexClass,
+			Predicate<I> matcher) {
+		List<ElementIndex<T>> byType = this.indexes.get(type);
+		if (byType == null)
+			return null;
+
+		for (ElementIndex<T> index : byType) {
+			if (indexClass.isInstance(index) && matcher.test((I) index))
+				return (I) index;
 		}
-		return elements.stream();
+
+		return null;
 	}
 
 	@Override
-	public synchronized Set<String> getTypes(StrolchTransaction tx) {
-		return new HashSet<>(this.elementMap.keySet());
+	public Set<String> getTypes(StrolchTransaction tx) {
+		return readLocked(() -> new HashSet<>(this.elementMap.keySet()));
 	}
 
 	@Override
-	public synchronized Set<String> getAllKeys(StrolchTransaction tx) {
-		return this.elementMap.entrySet().stream() //
+	public Set<String> getAllKeys(StrolchTransaction tx) {
+		return readLocked(() -> this.elementMap.entrySet().stream() //
 				.map(e -> e.getValue().entrySet().stream() //
 						.map(Map.Entry::getKey)) //
 				.flatMap(identity()) //
-				.collect(Collectors.toSet());
+				.collect(Collectors.toSet()));
 	}
 
 	@Override
-	public synchronized Set<String> getKeysBy(StrolchTransaction tx, String type) {
-		Map<String, T> byType = this.elementMap.get(type);
-		if (byType == null)
-			return new HashSet<>(0);
+	public Set<String> getKeysBy(StrolchTransaction tx, String type) {
+		return readLocked(() -> {
+			Map<String, T> byType = this.elementMap.get(type);
+			if (byType == null)
+				return new HashSet<>(0);
 
-		return byType.entrySet().stream() //
-				.map(Map.Entry::getKey) //
-				.collect(Collectors.toSet());
+			return new HashSet<>(byType.keySet());
+		});
 	}
 
 	/**
 	 * Special method used when starting the container to cache the values. Not to be used anywhere else but from the
-	 * {@link CachedRealm}
+	 * {@link CachedRealm} and the {@link BulkImportElementListener}
 	 *
 	 * @param element
 	 * 		the element to insert
 	 */
-	synchronized void insert(T element) {
-
-		Map<String, T> byType = this.elementMap.computeIfAbsent(element.getType(), k -> new HashMap<>());
-
-		// assert no object already exists with this id
-		if (byType.containsKey(element.getId())) {
-			String msg = "An element already exists with the id \"{0}\". Elements of the same class must always have a unique id, regardless of their type!"; //$NON-NLS-1$
-			msg = MessageFormat.format(msg, element.getId());
-			throw new StrolchPersistenceException(msg);
-		}
+	void insert(T element) {
+		writeLocked(() -> internalPut(element, false));
+	}
 
-		byType.put(element.getId(), element);
+	/**
+	 * Special method used when loading the cache failed, to discard the elements which were already inserted. Not to be
+	 * used anywhere else but from the {@link CachedRealmLoader}
+	 */
+	void clearCache() {
+		writeLocked(() -> new HashSet<>(this.elementMap.keySet()).forEach(this::internalRemoveAllBy));
+	}
 
-		// now make read only
-		element.setReadOnly();
+	/**
+	 * Special method used to replace all cached elements of the given type with the given elements, i.e. to reload a
+	 * type from the persistence layer. Not to be used anywhere else but from the {@link BulkImportElementListener}
+	 *
+	 * @param type
+	 * 		the type of elements to replace
+	 * @param elements
+	 * 		the new elements of the type
+	 */
+	void replaceAllBy(String type, List<T> elements) {
+		writeLocked(() -> {
+			internalRemoveAllBy(type);
+			for (T element : elements) {
+				internalPut(element, false);
+			}
+		});
 	}
 
 	@Override
-	public synchronized void add(StrolchTransaction tx, T element) {
-		Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
-		internalAdd(tx, element);
+	public void add(StrolchTransaction tx, T element) {
+		writeLocked(() -> {
+			Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
+			internalAdd(tx, element);
+		});
 	}
 
 	protected void internalAdd(StrolchTransaction tx, T element) {
 		if (!element.hasVersion())
 			Version.setInitialVersionFor(element, tx.getCertificate().getUsername());
 
-		Map<String, T> byType = this.elementMap.computeIfAbsent(element.getType(), k -> new HashMap<>());
+		internalPut(element, false);
+	}
 
-		// assert no object already exists with this id
-		if (byType.containsKey(element.getId())) {
-			String msg = "An element already exists with the id \"{0}\". Elements of the same class must always have a unique id, regardless of their type!"; //$NON-NLS-1$
-			msg = MessageFormat.format(msg, element.getId());
-			throw new StrolchPersistenceException(msg);
-		}
+	private void internalPut(T element, boolean update) {
+		synchronized (typeLock(element.getType())) {
 
-		byType.put(element.getId(), element);
+			Map<String, T> byType;
+			if (update) {
+				byType = this.elementMap.get(element.getType());
+				if (byType == null) {
+					String msg = "The element does not yet exist with the type \"{0}\" and id \"{1}\". Use add() for new objects!"; //$NON-NLS-1$
+					msg = MessageFormat.format(msg, element.getType(), element.getId());
+					throw new StrolchPersistenceException(msg);
+				}
 
-		// now make read only
-		element.setReadOnly();
-	}
+				// assert object already exists with this id
+				if (!byType.containsKey(element.getId())) {
+					String msg = "The element does not yet exist with the type \"{0}\" and id \"{1}\". Use add() for new objects!"; //$NON-NLS-1$
+					msg = MessageFormat.format(msg, element.getType(), element.getId());
+					throw new StrolchPersistenceException(msg);
+				}
 
-	@Override
-	public synchronized void addAll(StrolchTransaction tx, List<T> elements) {
-		for (T element : elements) {
-			Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
-			internalAdd(tx, element);
-		}
-	}
+			} else {
+				byType = this.elementMap.computeIfAbsent(element.getType(), k -> newTypeMap());
 
-	@Override
-	public synchronized void update(StrolchTransaction tx, T element) {
-		element.setVersion(getBy(tx, element.getType(), element.getId(), true).getVersion());
-		Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
-		internalUpdate(tx, element);
-	}
+				// assert no object already exists with this id
+				if (byType.containsKey(element.getId())) {
+					String msg = "An element already exists with the id \"{0}\". Elements of the same class must always have a unique id, regardless of their type!"; //$NON-NLS-1$
+					msg = MessageFormat.format(msg, element.getId());
+					throw new StrolchPersistenceException(msg);
+				}
+			}
 
-	protected void internalUpdate(StrolchTransaction tx, T element) {
-		Map<String, T> byType = this.elementMap.get(element.getType());
-		if (byType == null) {
-			String msg = "The element does not yet exist with the type \"{0}\" and id \"{1}\". Use add() for new objects!"; //$NON-NLS-1$
-			msg = MessageFormat.format(msg, element.getType(), element.getId());
-			throw new StrolchPersistenceException(msg);
-		}
+			// make read only before publishing, so that concurrent readers never see a mutable element
+			element.setReadOnly();
 
-		// assert object already exists with this id
-		if (!byType.containsKey(element.getId())) {
-			String msg = "The element does not yet exist with the type \"{0}\" and id \"{1}\". Use add() for new objects!"; //$NON-NLS-1$
-			msg = MessageFormat.format(msg, element.getType(), element.getId());
-			throw new StrolchPersistenceException(msg);
-		}
+			T previous = byType.put(element.getId(), element);
 
-		byType.put(element.getId(), element);
+			List<ElementIndex<T>> typeIndexes = this.indexes.get(element.getType());
+			if (typeIndexes != null) {
+				for (ElementIndex<T> index : typeIndexes) {
+					if (previous == null)
+						index.add(element);
+					else
+						index.update(previous, element);
+				}
+			}
 
-		// now make read only
-		element.setReadOnly();
+			incrementModificationCounter(element.getType());
+		}
 	}
 
 	@Override
-	public synchronized void updateAll(StrolchTransaction tx, List<T> elements) {
-		for (T element : elements) {
+	public void addAll(StrolchTransaction tx, List<T> elements) {
+		writeLocked(() -> {
+			for (T element : elements) {
+				Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
+				internalAdd(tx, element);
+			}
+		});
+	}
+
+	@Override
+	public void update(StrolchTransaction tx, T element) {
+		writeLocked(() -> {
 			element.setVersion(getBy(tx, element.getType(), element.getId(), true).getVersion());
 			Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
 			internalUpdate(tx, element);
-		}
+		});
 	}
 
-	@Override
-	public synchronized void remove(StrolchTransaction tx, T element) {
-		Map<String, T> byType = this.elementMap.get(element.getType());
-		if (byType != null) {
-			byType.remove(element.getId());
+	protected void internalUpdate(StrolchTransaction tx, T element) {
+		internalPut(element, true);
+	}
 
-			if (byType.isEmpty()) {
-				this.elementMap.remove(element.getType());
+	@Override
+	public void updateAll(StrolchTransaction tx, List<T> elements) {
+		writeLocked(() -> {
+			for (T element : elements) {
+				element.setVersion(getBy(tx, element.getType(), element.getId(), true).getVersion());
+				Version.updateVersionFor(element, 0, tx.getCertificate().getUsername(), false);
+				internalUpdate(tx, element);
 			}
-		}
+		});
 	}
 
 	@Override
-	public synchronized void removeAll(StrolchTransaction tx, List<T> elements) {
-		for (T element : elements) {
+	public void remove(StrolchTransaction tx, T element) {
+		writeLocked(() -> internalRemove(element));
+	}
+
+	protected void internalRemove(T element) {
+		synchronized (typeLock(element.getType())) {
 			Map<String, T> byType = this.elementMap.get(element.getType());
 			if (byType != null) {
-				byType.remove(element.getId());
+				T removed = byType.remove(element.getId());
+
+				List<ElementIndex<T>> typeIndexes = this.indexes.get(element.getType());
+				if (removed != null && typeIndexes != null)
+					typeIndexes.forEach(index -> index.remove(removed));
 
 				if (byType.isEmpty()) {
 					this.elementMap.remove(element.getType());
 				}
+
+				if (removed != null)
+					incrementModificationCounter(element.getType());
 			}
 		}
 	}
 
 	@Override
-	public synchronized long removeAll(StrolchTransaction tx) {
-		long removed = 0;
-		Set<String> keySet = new HashSet<>(this.elementMap.keySet());
-		for (String type : keySet) {
-			Map<String, T> byType = this.elementMap.remove(type);
-			removed += byType.size();
-			byType.clear();
-		}
+	public void removeAll(StrolchTransaction tx, List<T> elements) {
+		writeLocked(() -> {
+			for (T element : elements) {
+				internalRemove(element);
+			}
+		});
+	}
+
+	@Override
+	public long removeAll(StrolchTransaction tx) {
+		return writeLockedAndGet(() -> {
+			long removed = 0;
+			Set<String> keySet = new HashSet<>(this.elementMap.keySet());
+			for (String type : keySet) {
+				removed += internalRemoveAllBy(type);
+			}
 
-		return removed;
+			return removed;
+		});
 	}
 
 	@Override
-	public synchronized long removeAllBy(StrolchTransaction tx, String type) {
-		long removed = 0;
-		Map<String, T> byType = this.elementMap.remove(type);
-		if (byType != null) {
-			removed = byType.size();
-			byType.clear();
-		}
+	public long removeAllBy(StrolchTransaction tx, String type) {
+		return writeLockedAndGet(() -> internalRemoveAllBy(type));
+	}
 
-		return removed;
+	private long internalRemoveAllBy(String type) {
+		synchronized (typeLock(type)) {
+			long removed = 0;
+			Map<String, T> byType = this.elementMap.remove(type);
+			if (byType != null) {
+				removed = byType.size();
+				byType.clear();
+			}
+
+			List<ElementIndex<T>> typeIndexes = this.indexes.get(type);
+			if (typeIndexes != null)
+				typeIndexes.forEach(ElementIndex::clear);
+
+			if (removed > 0)
+				incrementModificationCounter(type);
+
+			return removed;
+		}
 	}
 
 	@Override
@@ -15,6 +15,14 @@ import li.strolch.runtime.query.inmemory.InMemoryQuery;
 
 public class TransientOrderMap extends TransientElementMap<Order> implements OrderMap {
 
+	public TransientOrderMap() {
+		super();
+	}
+
+	public TransientOrderMap(boolean concurrent) {
+		super(concurrent);
+	}
+
 	@Override
 	public Order getTemplate(StrolchTransaction tx, String type, boolean assertExists) {
 		Order template = super.getTemplate(tx, type, assertExists);
@@ -96,9 +96,9 @@ public class TransientRealm extends InternalStrolchRealm {
 
 		this.modelFile = configuration.getDataFile(key, null, configuration.getRuntimeConfiguration(), true);
 
-		this.resourceMap = new TransientResourceMap();
-		this.orderMap = new TransientOrderMap();
-		this.activityMap = new TransientActivityMap();
+		this.resourceMap = new TransientResourceMap(isConcurrentElementMaps());
+		this.orderMap = new TransientOrderMap(isConcurrentElementMaps());
+		this.activityMap = new TransientActivityMap(isConcurrentElementMaps());
 
 		if (isAuditTrailEnabled())
 			this.auditTrail = new TransientAuditTrail();
@@ -4,6 +4,7 @@ import static li.strolch.model.StrolchModelConstants.INTERPRETATION_RESOURCE_REF
 
 import java.util.List;
 
+import li.strolch.agent.api.AvailabilityIndex;
 import li.strolch.agent.api.ResourceMap;
 import li.strolch.model.Resource;
 import li.strolch.model.parameter.Parameter;
@@ -14,6 +15,14 @@ import li.strolch.runtime.query.inmemory.InMemoryResourceQueryVisitor;
 
 public class TransientResourceMap extends TransientElementMap<Resource> implements ResourceMap {
 
+	public TransientResourceMap() {
+		super();
+	}
+
+	public TransientResourceMap(boolean concurrent) {
+		super(concurrent);
+	}
+
 	@Override
 	protected void assertIsRefParam(Parameter<?> refP) {
 		ElementMapHelpers.assertIsRefParam(INTERPRETATION_RESOURCE_REF, refP);
@@ -25,4 +34,17 @@ public class TransientResourceMap extends TransientElementMap<Resource> implemen
 		InMemoryQuery<Resource, U> query = visitor.visit(resourceQuery);
 		return query.doQuery(tx, this);
 	}
+
+	@Override
+	public void addAvailabilityIndex(String type, String stateId) {
+		addElementIndex(type, DefaultAvailabilityIndex.class,
+				(DefaultAvailabilityIndex index) -> index.getStateId().equals(stateId),
+				() -> new DefaultAvailabilityIndex(type, stateId));
+	}
+
+	@Override
+	public AvailabilityIndex getAvailabilityIndex(StrolchTransaction tx, String type, String stateId) {
+		return findElementIndex(type, DefaultAvailabilityIndex.class,
+				(DefaultAvailabilityIndex index) -> index.getStateId().equals(stateId));
+	}
 }
@@ -1,18 +1,20 @@
 package li.strolch.handler.operationslog;
 
 import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
 import static li.strolch.model.Tags.AGENT;
 import static li.strolch.runtime.StrolchConstants.SYSTEM_USER_AGENT;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import li.strolch.agent.api.ComponentContainer;
 import li.strolch.agent.api.StrolchAgent;
 import li.strolch.agent.api.StrolchComponent;
 import li.strolch.agent.api.StrolchRealm;
+import li.strolch.handler.operationslog.RealmOperationsLog.PendingChanges;
 import li.strolch.model.Locator;
 import li.strolch.model.log.LogMessage;
 import li.strolch.model.log.LogMessageState;
@@ -21,12 +23,25 @@ import li.strolch.persistence.api.LogMessageDao;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.runtime.configuration.ComponentConfiguration;
 
+/**
+ * <p>Keeps the latest {@link LogMessage LogMessages} of each realm in memory, and persists them for non-transient
+ * realms.</p>
+ *
+ * <p>Each realm has its own {@link RealmOperationsLog}, a bounded ring buffer of at most <code>maxMessages</code>
+ * messages, so that adding, updating and removing messages does not require a global lock. Changes are persisted
+ * asynchronously: they are collected per realm and written in batches, one transaction per batch, by a single
+ * thread.</p>
+ *
+ * <p>Changing the maximum number of messages replaces the realm logs. So that no change is lost while the messages are
+ * copied, changes take the read lock of a {@link ReadWriteLock}, and {@link #setMaxMessages(int)} the write lock. Thus
+ * changes only ever wait for a resize, but never for each other.</p>
+ */
 public class OperationsLog extends StrolchComponent {
 
-	private Map<String, List<LogMessage>> logMessagesByRealmAndId;
-	private Map<String, LinkedHashMap<Locator, LinkedHashSet<LogMessage>>> logMessagesByLocator;
-	private int maxMessages;
+	private Map<String, RealmOperationsLog> realmLogs;
+	private volatile int maxMessages;
 	private ExecutorService executorService;
+	private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
 
 	public OperationsLog(ComponentContainer container, String componentName) {
 		super(container, componentName);
@@ -37,8 +52,7 @@ public class OperationsLog extends StrolchComponent {
 
 		this.maxMessages = configuration.getInt("maxMessages", 10000);
 
-		this.logMessagesByRealmAndId = new HashMap<>();
-		this.logMessagesByLocator = new HashMap<>();
+		this.realmLogs = new ConcurrentHashMap<>();
 
 		this.executorService = getSingleThreadExecutor("OperationsLog");
 
@@ -61,7 +75,12 @@ public class OperationsLog extends StrolchComponent {
 					LogMessageDao logMessageDao = tx.getPersistenceHandler().getLogMessageDao(tx);
 					List<LogMessage> messages = logMessageDao.queryLatest(realmName, this.maxMessages);
 					logger.info("Loaded " + messages.size() + " messages for OperationsLog for realm " + realmName);
-					this.logMessagesByRealmAndId.put(realmName, messages);
+
+					// the latest message is returned first
+					RealmOperationsLog realmLog = getRealmLog(realmName);
+					for (ListIterator<LogMessage> iter = messages.listIterator(messages.size()); iter.hasPrevious(); ) {
+						realmLog.load(iter.previous());
+					}
 				} catch (RuntimeException e) {
 					logger.error("Failed to load operations log for realm " + realmName, e);
 				}
@@ -71,200 +90,192 @@ public class OperationsLog extends StrolchComponent {
 		super.start();
 	}
 
+	/**
+	 * Sets the maximum number of messages kept per realm. Existing messages are kept up to the new maximum, the oldest
+	 * messages being evicted first. Concurrent changes wait until the messages are copied
+	 *
+	 * @param maxMessages
+	 * 		the maximum number of messages per realm
+	 */
 	public void setMaxMessages(int maxMessages) {
-		this.maxMessages = maxMessages;
+		this.resizeLock.writeLock().lock();
+		try {
+			this.maxMessages = maxMessages;
+			if (this.realmLogs != null)
+				this.realmLogs.replaceAll((realmName, realmLog) -> realmLog.resize(maxMessages));
+		} finally {
+			this.resizeLock.writeLock().unlock();
+		}
 	}
 
-	public synchronized void addMessage(LogMessage logMessage) {
-		if (this.logMessagesByRealmAndId == null)
-			return;
-
-		// store in global list
-		String realmName = logMessage.getRealm();
-		List<LogMessage> logMessages = this.logMessagesByRealmAndId.computeIfAbsent(realmName, r -> new ArrayList<>());
-		logMessages.add(logMessage);
-
-		// store under locator
-		LinkedHashMap<Locator, LinkedHashSet<LogMessage>> logMessagesLocator = this.logMessagesByLocator
-				.computeIfAbsent(realmName, this::newBoundedLocatorMap);
-		LinkedHashSet<LogMessage> messages = logMessagesLocator
-				.computeIfAbsent(logMessage.getLocator(), (l) -> new LinkedHashSet<>());
-		messages.add(logMessage);
-
-		// prune if necessary
-		List<LogMessage> messagesToRemove = pruneMessages(logMessages);
-
-		// persist changes for non-transient realms
-		StrolchRealm realm = getContainer().getRealm(realmName);
-		if (!realm.getMode().isTransient())
-			this.executorService.submit(() -> persist(realm, logMessage, messagesToRemove));
+	private RealmOperationsLog getRealmLog(String realmName) {
+		return this.realmLogs.computeIfAbsent(realmName, r -> new RealmOperationsLog(r, this.maxMessages,
+				!getContainer().getRealm(r).getMode().isTransient()));
 	}
 
-	public void removeMessage(LogMessage message) {
-
-		String realmName = message.getRealm();
-		LinkedHashMap<Locator, LinkedHashSet<LogMessage>> byLocator = this.logMessagesByLocator.get(realmName);
-		if (byLocator != null)
-			byLocator.remove(message.getLocator());
-
-		List<LogMessage> messages = this.logMessagesByRealmAndId.get(realmName);
-		if (messages != null) {
-			messages.remove(message);
+	public void addMessage(LogMessage logMessage) {
+		if (this.realmLogs == null)
+			return;
 
-			// persist changes for non-transient realms
-			StrolchRealm realm = getContainer().getRealm(realmName);
-			if (!realm.getMode().isTransient())
-				this.executorService.submit(() -> persist(realm, null, singletonList(message)));
+		List<LogMessage> evicted;
+		RealmOperationsLog realmLog;
+		this.resizeLock.readLock().lock();
+		try {
+			realmLog = getRealmLog(logMessage.getRealm());
+			evicted = realmLog.add(logMessage);
+		} finally {
+			this.resizeLock.readLock().unlock();
 		}
-	}
-
-	public synchronized void removeMessages(Collection<LogMessage> logMessages) {
-
-		Map<String, List<LogMessage>> messagesByRealm = logMessages.stream()
-				.collect(Collectors.groupingBy(LogMessage::getRealm));
-
-		messagesByRealm.forEach((realmName, messages) -> {
 
-			LinkedHashMap<Locator, LinkedHashSet<LogMessage>> byLocator = this.logMessagesByLocator.get(realmName);
-			if (byLocator != null)
-				messages.forEach(logMessage -> byLocator.remove(logMessage.getLocator()));
+		if (!evicted.isEmpty())
+			logger.info("Pruned " + evicted.size() + " messages from OperationsLog for realm " + realmLog.getRealm());
 
-			List<LogMessage> byRealm = this.logMessagesByRealmAndId.get(realmName);
-			if (byRealm != null) {
-				messages.removeIf(logMessage -> !byRealm.remove(logMessage));
+		scheduleFlush(realmLog);
+	}
 
-				// persist changes for non-transient realms
-				StrolchRealm realm = getContainer().getRealm(realmName);
-				if (!realm.getMode().isTransient())
-					this.executorService.submit(() -> persist(realm, null, messages));
-			}
-		});
+	public void removeMessage(LogMessage message) {
+		this.resizeLock.readLock().lock();
+		try {
+			RealmOperationsLog realmLog = this.realmLogs.get(message.getRealm());
+			if (realmLog == null)
+				return;
+
+			realmLog.clearLocator(message.getLocator());
+			if (realmLog.remove(message))
+				scheduleFlush(realmLog);
+		} finally {
+			this.resizeLock.readLock().unlock();
+		}
 	}
 
-	public synchronized void updateState(String realmName, Locator locator, LogMessageState state) {
-		getMessagesFor(realmName, locator).ifPresent(logMessages -> {
-			logMessages.forEach(logMessage -> logMessage.setState(state));
+	public void removeMessages(Collection<LogMessage> logMessages) {
+		Set<RealmOperationsLog> changed = new HashSet<>();
+		this.resizeLock.readLock().lock();
+		try {
+			for (LogMessage logMessage : logMessages) {
+				RealmOperationsLog realmLog = this.realmLogs.get(logMessage.getRealm());
+				if (realmLog == null)
+					continue;
 
-			StrolchRealm realm = getContainer().getRealm(realmName);
-			if (!realm.getMode().isTransient()) {
-				this.executorService.submit(() -> updateStates(realm, logMessages));
+				realmLog.clearLocator(logMessage.getLocator());
+				if (realmLog.remove(logMessage))
+					changed.add(realmLog);
 			}
-		});
-	}
+		} finally {
+			this.resizeLock.readLock().unlock();
+		}
 
-	public synchronized void updateState(String realmName, String id, LogMessageState state) {
-		List<LogMessage> logMessages = this.logMessagesByRealmAndId.get(realmName);
-		for (LogMessage logMessage : logMessages) {
-			if (logMessage.getId().equals(id)) {
-				logMessage.setState(state);
+		changed.forEach(this::scheduleFlush);
+	}
 
-				StrolchRealm realm = getContainer().getRealm(realmName);
-				if (!realm.getMode().isTransient()) {
-					this.executorService.submit(() -> updateStates(realm, singletonList(logMessage)));
+	public void updateState(String realmName, Locator locator, LogMessageState state) {
+		this.resizeLock.readLock().lock();
+		try {
+			RealmOperationsLog realmLog = this.realmLogs.get(realmName);
+			if (realmLog == null)
+				return;
+
+			realmLog.getMessagesFor(locator).ifPresent(logMessages -> {
+				for (LogMessage logMessage : logMessages) {
+					logMessage.setState(state);
+					realmLog.stateChanged(logMessage);
 				}
-			}
+				scheduleFlush(realmLog);
+			});
+		} finally {
+			this.resizeLock.readLock().unlock();
 		}
 	}
 
-	private List<LogMessage> pruneMessages(List<LogMessage> logMessages) {
-		if (logMessages.size() < this.maxMessages)
-			return emptyList();
-
-		List<LogMessage> messagesToRemove = new ArrayList<>();
-
-		int maxDelete = Math.max(1, (int) (this.maxMessages * 0.1));
-		int nrOfExcessMsgs = logMessages.size() - this.maxMessages;
-		if (nrOfExcessMsgs > 0)
-			maxDelete += nrOfExcessMsgs;
-
-		logger.info("Pruning " + maxDelete + " messages from OperationsLog...");
-		Iterator<LogMessage> iterator = logMessages.iterator();
-		while (maxDelete > 0 && iterator.hasNext()) {
-			LogMessage messageToRemove = iterator.next();
-			messagesToRemove.add(messageToRemove);
-			iterator.remove();
-			maxDelete--;
+	public void updateState(String realmName, String id, LogMessageState state) {
+		this.resizeLock.readLock().lock();
+		try {
+			RealmOperationsLog realmLog = this.realmLogs.get(realmName);
+			if (realmLog == null)
+				return;
+
+			LogMessage logMessage = realmLog.getMessage(id);
+			if (logMessage == null)
+				return;
+
+			logMessage.setState(state);
+			realmLog.stateChanged(logMessage);
+			scheduleFlush(realmLog);
+		} finally {
+			this.resizeLock.readLock().unlock();
 		}
+	}
 
-		return messagesToRemove;
+	private void scheduleFlush(RealmOperationsLog realmLog) {
+		if (realmLog.isPersistent() && realmLog.scheduleFlush())
+			this.executorService.submit(() -> flush(realmLog));
 	}
 
-	private void persist(StrolchRealm realm, LogMessage logMessage, List<LogMessage> messagesToRemove) {
+	private void flush(RealmOperationsLog realmLog) {
+		PendingChanges changes = realmLog.drainPendingChanges();
+		if (changes.isEmpty())
+			return;
+
+		StrolchRealm realm = getContainer().getRealm(realmLog.getRealm());
 		try {
 			runAsAgent(ctx -> {
 				try (StrolchTransaction tx = realm.openTx(ctx.getCertificate(), getClass(), false)) {
 					LogMessageDao logMessageDao = tx.getPersistenceHandler().getLogMessageDao(tx);
-					if (messagesToRemove != null && !messagesToRemove.isEmpty())
-						logMessageDao.removeAll(messagesToRemove);
-					if (logMessage != null)
-						logMessageDao.save(logMessage);
+					if (!changes.toRemove.isEmpty())
+						logMessageDao.removeAll(changes.toRemove);
+					if (!changes.toSave.isEmpty())
+						logMessageDao.saveAll(changes.toSave);
+					if (!changes.toUpdate.isEmpty())
+						logMessageDao.updateStates(changes.toUpdate);
 					tx.commitOnClose();
 				}
 			});
 		} catch (Exception e) {
-			logger.error("Failed to persist operations logs!", e);
-			synchronized (this) {
-				this.logMessagesByRealmAndId.computeIfAbsent(realm.getRealm(), r -> new ArrayList<>())
-						.add(new LogMessage(realm.getRealm(), SYSTEM_USER_AGENT,
-								Locator.valueOf(AGENT, "strolch-agent", StrolchAgent.getUniqueId()), LogSeverity.Info,
-								LogMessageState.Information, ResourceBundle.getBundle("strolch-agent"),
-								"operationsLog.persist.failed") //
-								.value("reason", e.getMessage()) //
-								.withException(e));
-			}
+			logger.error("Failed to persist " + changes.size() + " changes of the operations log!", e);
+
+			// keep the changes, so that they are persisted with the next flush
+			realmLog.requeue(changes);
+
+			addTransientMessage(new LogMessage(realm.getRealm(), SYSTEM_USER_AGENT,
+					Locator.valueOf(AGENT, "strolch-agent", StrolchAgent.getUniqueId()), LogSeverity.Info,
+					LogMessageState.Information, ResourceBundle.getBundle("strolch-agent"),
+					"operationsLog.persist.failed") //
+					.value("reason", e.getMessage()) //
+					.withException(e));
 		}
 	}
 
-	private void updateStates(StrolchRealm realm, Collection<LogMessage> logMessages) {
+	private void addTransientMessage(LogMessage logMessage) {
+		this.resizeLock.readLock().lock();
 		try {
-			runAsAgent(ctx -> {
-				try (StrolchTransaction tx = realm.openTx(ctx.getCertificate(), getClass(), false)) {
-					LogMessageDao logMessageDao = tx.getPersistenceHandler().getLogMessageDao(tx);
-					logMessageDao.updateStates(logMessages);
-					tx.commitOnClose();
-				}
-			});
-		} catch (Exception e) {
-			logger.error("Failed to persist operations logs!", e);
-			synchronized (this) {
-				this.logMessagesByRealmAndId.computeIfAbsent(realm.getRealm(), r -> new ArrayList<>())
-						.add(new LogMessage(realm.getRealm(), SYSTEM_USER_AGENT,
-								Locator.valueOf(AGENT, "strolch-agent", StrolchAgent.getUniqueId()), LogSeverity.Info,
-								LogMessageState.Information, ResourceBundle.getBundle("strolch-agent"),
-								"operationsLog.persist.failed") //
-								.value("reason", e.getMessage()) //
-								.withException(e));
-			}
+			getRealmLog(logMessage.getRealm()).addTransient(logMessage);
+		} finally {
+			this.resizeLock.readLock().unlock();
 		}
 	}
 
-	public synchronized void clearMessages(String realm, Locator locator) {
-		LinkedHashMap<Locator, LinkedHashSet<LogMessage>> logMessages = this.logMessagesByLocator.get(realm);
-		if (logMessages != null)
-			logMessages.remove(locator);
+	public void clearMessages(String realm, Locator locator) {
+		this.resizeLock.readLock().lock();
+		try {
+			RealmOperationsLog realmLog = this.realmLogs.get(realm);
+			if (realmLog != null)
+				realmLog.clearLocator(locator);
+		} finally {
+			this.resizeLock.readLock().unlock();
+		}
 	}
 
-	public synchronized Optional<Set<LogMessage>> getMessagesFor(String realm, Locator locator) {
-		LinkedHashMap<Locator, LinkedHashSet<LogMessage>> logMessages = this.logMessagesByLocator.get(realm);
-		if (logMessages == null)
+	public Optional<Set<LogMessage>> getMessagesFor(String realm, Locator locator) {
+		RealmOperationsLog realmLog = this.realmLogs.get(realm);
+		if (realmLog == null)
 			return Optional.empty();
-		return Optional.ofNullable(logMessages.get(locator));
+		return realmLog.getMessagesFor(locator);
 	}
 
-	public synchronized List<LogMessage> getMessages(String realm) {
-		List<LogMessage> logMessages = this.logMessagesByRealmAndId.get(realm);
-		if (logMessages == null)
+	public List<LogMessage> getMessages(String realm) {
+		RealmOperationsLog realmLog = this.realmLogs.get(realm);
+		if (realmLog == null)
 			return emptyList();
-
-		return new ArrayList<>(logMessages);
-	}
-
-	private LinkedHashMap<Locator, LinkedHashSet<LogMessage>> newBoundedLocatorMap(String realm) {
-		return new LinkedHashMap<Locator, LinkedHashSet<LogMessage>>() {
-			@Override
-			protected boolean removeEldestEntry(java.util.Map.Entry<Locator, LinkedHashSet<LogMessage>> eldest) {
-				return size() > maxMessages;
-			}
-		};
+		return realmLog.getMessages();
 	}
 }
@@ -0,0 +1,440 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.handler.operationslog;
+
+import static java.util.Collections.emptyList;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import li.strolch.model.Locator;
+import li.strolch.model.log.LogMessage;
+
+/**
+ * <p>The {@link LogMessage LogMessages} of a single realm of the {@link OperationsLog}. The messages are kept in a
+ * ring buffer of a fixed capacity, and additionally indexed by their ID and {@link Locator}. Adding messages is lock
+ * free: every message is assigned a sequence number, which defines its slot in the ring. When the ring is full, the
+ * oldest 10% of the messages are evicted by the thread which reached the capacity, thus the memory used by a realm is
+ * bounded by the capacity</p>
+ *
+ * <p>For persistent realms, the changes to the messages are collected per message ID, so that a message which is added
+ * and evicted before being persisted, is never written, and multiple state changes lead to a single update. The
+ * collected changes are drained by the {@link OperationsLog} and written in one transaction. Should writing fail, then
+ * the changes are registered again, so that they are written with the next flush</p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+class RealmOperationsLog {
+
+	private final String realm;
+	private final int capacity;
+	private final int pruneSize;
+	private final boolean persistent;
+
+	private final AtomicReferenceArray<Slot> slots;
+	private final AtomicLong head;
+	private final AtomicLong tail;
+	private final Map<String, Slot> byId;
+	private final Map<Locator, Set<Slot>> byLocator;
+
+	private final Map<String, Change> pendingChanges;
+	private final AtomicBoolean flushScheduled;
+
+	RealmOperationsLog(String realm, int capacity, boolean persistent) {
+		this(realm, capacity, persistent, new ConcurrentHashMap<>(), new AtomicBoolean());
+	}
+
+	private RealmOperationsLog(String realm, int capacity, boolean persistent, Map<String, Change> pendingChanges,
+			AtomicBoolean flushScheduled) {
+		this.realm = realm;
+		this.capacity = Math.max(1, capacity);
+		this.pruneSize = Math.max(1, (int) (this.capacity * 0.1));
+		this.persistent = persistent;
+
+		this.slots = new AtomicReferenceArray<>(this.capacity);
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+		this.byId = new ConcurrentHashMap<>();
+		this.byLocator = new ConcurrentHashMap<>();
+
+		this.pendingChanges = pendingChanges;
+		this.flushScheduled = flushScheduled;
+	}
+
+	public String getRealm() {
+		return this.realm;
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public boolean isPersistent() {
+		return this.persistent;
+	}
+
+	/**
+	 * Returns a new log with the given capacity, containing the messages of this log and sharing the pending changes.
+	 * The caller must make sure that this log is not changed concurrently, as such changes would be lost
+	 *
+	 * @param capacity
+	 * 		the new capacity
+	 *
+	 * @return the new log
+	 */
+	public RealmOperationsLog resize(int capacity) {
+		RealmOperationsLog log = new RealmOperationsLog(this.realm, capacity, this.persistent, this.pendingChanges,
+				this.flushScheduled);
+		for (Slot slot : liveSlots()) {
+			log.add(slot.message, slot.persisted, false);
+		}
+		return log;
+	}
+
+	/**
+	 * Adds the given message, which is already persisted, as is the case when the messages are loaded on startup
+	 *
+	 * @param message
+	 * 		the message to add
+	 *
+	 * @return the messages which were evicted to make place for the new message
+	 */
+	public List<LogMessage> load(LogMessage message) {
+		return add(message, this.persistent, false);
+	}
+
+	/**
+	 * Adds the given message and, for persistent realms, registers it to be saved
+	 *
+	 * @param message
+	 * 		the message to add
+	 *
+	 * @return the messages which were evicted to make place for the new message
+	 */
+	public List<LogMessage> add(LogMessage message) {
+		return add(message, this.persistent, true);
+	}
+
+	/**
+	 * Adds the given message, but never persists it, e.g. to note that persisting failed
+	 *
+	 * @param message
+	 * 		the message to add
+	 *
+	 * @return the messages which were evicted to make place for the new message
+	 */
+	public List<LogMessage> addTransient(LogMessage message) {
+		return add(message, false, false);
+	}
+
+	private List<LogMessage> add(LogMessage message, boolean persisted, boolean save) {
+		Slot slot = new Slot(this.head.getAndIncrement(), message, persisted);
+
+		// register and index before storing, so that an eviction of the slot always sees the save and the index
+		if (save)
+			this.pendingChanges.put(message.getId(), new Change(ChangeType.Save, message));
+		index(slot);
+
+		List<LogMessage> evicted = prune(slot.seq);
+
+		int index = index(slot.seq);
+		while (true) {
+			Slot current = this.slots.get(index);
+
+			// a newer message already took this slot, thus this message is already older than the retained messages
+			if (current != null && current.seq > slot.seq)
+				break;
+
+			if (this.slots.compareAndSet(index, current, slot)) {
+				// an older message in this slot has not yet been evicted by the thread pruning it
+				if (current != null && evict(current))
+					evicted = addEvicted(evicted, current.message);
+				break;
+			}
+		}
+
+		// a concurrent prune might have passed this slot before the message was stored
+		if (slot.seq < this.tail.get() && evict(slot))
+			evicted = addEvicted(evicted, message);
+
+		return evicted;
+	}
+
+	private List<LogMessage> prune(long seq) {
+		while (true) {
+			long tail = this.tail.get();
+			long size = seq - tail + 1;
+			if (size < this.capacity)
+				return emptyList();
+
+			long newTail = tail + this.pruneSize + (size - this.capacity);
+			if (this.tail.compareAndSet(tail, newTail)) {
+				List<LogMessage> evicted = new ArrayList<>((int) (newTail - tail));
+				for (long i = tail; i < newTail; i++) {
+					Slot slot = this.slots.get(index(i));
+					if (slot != null && slot.seq == i && evict(slot))
+						evicted.add(slot.message);
+				}
+				return evicted;
+			}
+		}
+	}
+
+	/**
+	 * Removes the given message and, if it was persisted, registers it to be removed
+	 *
+	 * @param message
+	 * 		the message to remove
+	 *
+	 * @return true if the message was removed, false if it was not in this log
+	 */
+	public boolean remove(LogMessage message) {
+		Slot slot = this.byId.get(message.getId());
+		return slot != null && evict(slot);
+	}
+
+	/**
+	 * Removes the index entry for the given {@link Locator}, but keeps the messages
+	 *
+	 * @param locator
+	 * 		the locator to remove
+	 */
+	public void clearLocator(Locator locator) {
+		this.byLocator.remove(locator);
+	}
+
+	/**
+	 * Registers the changed state of the given message to be persisted
+	 *
+	 * @param message
+	 * 		the message of which the state was changed
+	 */
+	public void stateChanged(LogMessage message) {
+		if (!this.persistent)
+			return;
+		this.pendingChanges.compute(message.getId(),
+				(id, change) -> change == null ? new Change(ChangeType.UpdateState, message) : change);
+	}
+
+	public LogMessage getMessage(String id) {
+		Slot slot = this.byId.get(id);
+		return slot == null ? null : slot.message;
+	}
+
+	/**
+	 * Returns a copy of the messages for the given {@link Locator}, the oldest first
+	 *
+	 * @param locator
+	 * 		the locator for which to return the messages
+	 *
+	 * @return a copy of the messages for the given locator, or an empty optional if there are none
+	 */
+	public Optional<Set<LogMessage>> getMessagesFor(Locator locator) {
+		Set<Slot> slots = this.byLocator.get(locator);
+		if (slots == null)
+			return Optional.empty();
+
+		Set<LogMessage> messages = new LinkedHashSet<>();
+		for (Slot slot : slots) {
+			messages.add(slot.message);
+		}
+		return messages.isEmpty() ? Optional.empty() : Optional.of(Collections.unmodifiableSet(messages));
+	}
+
+	/**
+	 * Returns a copy of the messages in this log, the oldest first
+	 *
+	 * @return a copy of the messages in this log
+	 */
+	public List<LogMessage> getMessages() {
+		List<Slot> slots = liveSlots();
+		List<LogMessage> messages = new ArrayList<>(slots.size());
+		for (Slot slot : slots) {
+			messages.add(slot.message);
+		}
+		return messages;
+	}
+
+	private List<Slot> liveSlots() {
+		long tail = this.tail.get();
+		long head = this.head.get();
+		List<Slot> slots = new ArrayList<>((int) Math.min(this.capacity, Math.max(0, head - tail)));
+		for (long i = tail; i < head; i++) {
+			Slot slot = this.slots.get(index(i));
+			if (slot != null && slot.seq == i && !slot.removed.get())
+				slots.add(slot);
+		}
+		return slots;
+	}
+
+	/**
+	 * Marks that a flush of the pending changes is scheduled
+	 *
+	 * @return true if the flush was not yet scheduled, and thus must be scheduled by the caller
+	 */
+	public boolean scheduleFlush() {
+		return !this.pendingChanges.isEmpty() && this.flushScheduled.compareAndSet(false, true);
+	}
+
+	/**
+	 * Removes and returns the pending changes, collapsed so that each message is saved, updated or removed at most
+	 * once. Changes registered concurrently are either returned, or kept for the next call
+	 *
+	 * @return the pending changes
+	 */
+	public PendingChanges drainPendingChanges() {
+		this.flushScheduled.set(false);
+
+		PendingChanges changes = new PendingChanges();
+		for (Map.Entry<String, Change> entry : this.pendingChanges.entrySet()) {
+			Change change = entry.getValue();
+			if (!this.pendingChanges.remove(entry.getKey(), change))
+				continue;
+
+			switch (change.type) {
+			case Save:
+				changes.toSave.add(change.message);
+				break;
+			case UpdateState:
+				changes.toUpdate.add(change.message);
+				break;
+			case Remove:
+				changes.toRemove.add(change.message);
+				break;
+			default:
+				throw new IllegalStateException("Unhandled change type " + change.type);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Registers the given changes again, after they could not be persisted. Changes registered since the changes were
+	 * drained take precedence, except that a message which was never saved is still saved, unless it has been removed
+	 * in the meantime, in which case it is neither saved nor removed
+	 *
+	 * @param changes
+	 * 		the changes which could not be persisted
+	 */
+	public void requeue(PendingChanges changes) {
+		for (LogMessage message : changes.toSave) {
+			this.pendingChanges.compute(message.getId(), (id, change) -> {
+				if (change == null || change.type == ChangeType.UpdateState)
+					return new Change(ChangeType.Save, message);
+				return change.type == ChangeType.Remove ? null : change;
+			});
+		}
+		for (LogMessage message : changes.toUpdate) {
+			this.pendingChanges.putIfAbsent(message.getId(), new Change(ChangeType.UpdateState, message));
+		}
+		for (LogMessage message : changes.toRemove) {
+			this.pendingChanges.putIfAbsent(message.getId(), new Change(ChangeType.Remove, message));
+		}
+	}
+
+	private boolean evict(Slot slot) {
+		if (!slot.removed.compareAndSet(false, true))
+			return false;
+
+		unindex(slot);
+		this.slots.compareAndSet(index(slot.seq), slot, null);
+
+		// a message which was not yet saved, is simply not saved anymore
+		if (slot.persisted) {
+			LogMessage message = slot.message;
+			this.pendingChanges.compute(message.getId(), (id, change) -> change != null && change.type == ChangeType.Save ?
+					null :
+					new Change(ChangeType.Remove, message));
+		}
+
+		return true;
+	}
+
+	private void index(Slot slot) {
+		this.byId.put(slot.message.getId(), slot);
+		this.byLocator.compute(slot.message.getLocator(), (locator, slots) -> {
+			if (slots == null)
+				slots = new ConcurrentSkipListSet<>(Comparator.comparingLong(s -> s.seq));
+			slots.add(slot);
+			return slots;
+		});
+	}
+
+	private void unindex(Slot slot) {
+		this.byId.remove(slot.message.getId(), slot);
+		this.byLocator.computeIfPresent(slot.message.getLocator(), (locator, slots) -> {
+			slots.remove(slot);
+			return slots.isEmpty() ? null : slots;
+		});
+	}
+
+	private int index(long seq) {
+		return (int) (seq % this.capacity);
+	}
+
+	private static List<LogMessage> addEvicted(List<LogMessage> evicted, LogMessage message) {
+		if (evicted.isEmpty())
+			evicted = new ArrayList<>();
+		evicted.add(message);
+		return evicted;
+	}
+
+	private static class Slot {
+		private final long seq;
+		private final LogMessage message;
+		private final boolean persisted;
+		private final AtomicBoolean removed;
+
+		private Slot(long seq, LogMessage message, boolean persisted) {
+			this.seq = seq;
+			this.message = message;
+			this.persisted = persisted;
+			this.removed = new AtomicBoolean();
+		}
+	}
+
+	private enum ChangeType {
+		Save, UpdateState, Remove
+	}
+
+	private static class Change {
+		private final ChangeType type;
+		private final LogMessage message;
+
+		private Change(ChangeType type, LogMessage message) {
+			this.type = type;
+			this.message = message;
+		}
+	}
+
+	static class PendingChanges {
+		final List<LogMessage> toSave = new ArrayList<>();
+		final List<LogMessage> toUpdate = new ArrayList<>();
+		final List<LogMessage> toRemove = new ArrayList<>();
+
+		boolean isEmpty() {
+			return this.toSave.isEmpty() && this.toUpdate.isEmpty() && this.toRemove.isEmpty();
+		}
+
+		int size() {
+			return this.toSave.size() + this.toUpdate.size() + this.toRemove.size();
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. of executed services or written elements
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class Counter {
+
+	private final LongAdder count = new LongAdder();
+
+	public void inc() {
+		this.count.increment();
+	}
+
+	public void add(long value) {
+		this.count.add(value);
+	}
+
+	public long get() {
+		return this.count.sum();
+	}
+}
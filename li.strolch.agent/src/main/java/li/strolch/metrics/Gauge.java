@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A value which can go up and down, e.g. the depth of a queue. The value is either set explicitly, or read from a
+ * {@link LongSupplier} when the metrics are collected
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class Gauge {
+
+	private final AtomicLong value = new AtomicLong();
+	private volatile LongSupplier supplier;
+
+	public void set(long value) {
+		this.value.set(value);
+	}
+
+	public void add(long value) {
+		this.value.addAndGet(value);
+	}
+
+	/**
+	 * Sets the supplier from which the value is read, instead of the value set explicitly
+	 *
+	 * @param supplier
+	 * 		the supplier of the value, or null to use the value set explicitly
+	 */
+	public void setSupplier(LongSupplier supplier) {
+		this.supplier = supplier;
+	}
+
+	public long get() {
+		LongSupplier supplier = this.supplier;
+		return supplier == null ? this.value.get() : supplier.getAsLong();
+	}
+}
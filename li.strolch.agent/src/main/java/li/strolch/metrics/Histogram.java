@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Records the distribution of long values, e.g. durations in nanoseconds, in the manner of an HDR histogram: the
+ * values are counted in buckets, where every power of two is split into {@link #SUB_BUCKETS} linear sub buckets. Thus
+ * the whole range of long values is covered by a fixed number of buckets, with a relative error of at most 1/32 when
+ * the middle of a bucket is reported</p>
+ *
+ * <p>Recording a value does not allocate and does not lock, so that the histogram can be used on hot paths</p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+	static final int NR_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets;
+	private final LongAdder count;
+	private final LongAdder sum;
+	private final LongAccumulator max;
+
+	public Histogram() {
+		this.buckets = new AtomicLongArray(NR_OF_BUCKETS);
+		this.count = new LongAdder();
+		this.sum = new LongAdder();
+		this.max = new LongAccumulator(Math::max, 0L);
+	}
+
+	/**
+	 * Records the given value. Negative values are recorded as 0
+	 *
+	 * @param value
+	 * 		the value to record
+	 */
+	public void record(long value) {
+		if (value < 0L)
+			value = 0L;
+		this.buckets.incrementAndGet(index(value));
+		this.count.increment();
+		this.sum.add(value);
+		this.max.accumulate(value);
+	}
+
+	/**
+	 * Records the nanoseconds passed since the given start, as returned by {@link System#nanoTime()}
+	 *
+	 * @param startNanos
+	 * 		the start in nanoseconds
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public long getSum() {
+		return this.sum.sum();
+	}
+
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Returns the value at the given quantile, i.e. the middle of the bucket in which the value of the given rank lies,
+	 * or the maximum for the highest rank
+	 *
+	 * @param quantile
+	 * 		the quantile, between 0.0 and 1.0
+	 *
+	 * @return the value at the given quantile, or 0 if no value was recorded
+	 */
+	public long getValueAtQuantile(double quantile) {
+		return getValuesAtQuantiles(new double[] { quantile })[0];
+	}
+
+	/**
+	 * Returns the values at the given quantiles, which must be in ascending order, reading the buckets only once
+	 *
+	 * @param quantiles
+	 * 		the quantiles in ascending order, each between 0.0 and 1.0
+	 *
+	 * @return the values at the given quantiles
+	 */
+	public long[] getValuesAtQuantiles(double[] quantiles) {
+		long[] counts = new long[NR_OF_BUCKETS];
+		long total = 0L;
+		for (int i = 0; i < NR_OF_BUCKETS; i++) {
+			counts[i] = this.buckets.get(i);
+			total += counts[i];
+		}
+
+		long[] values = new long[quantiles.length];
+		if (total == 0L)
+			return values;
+
+		long max = this.max.get();
+		int bucket = 0;
+		long seen = counts[0];
+		for (int i = 0; i < quantiles.length; i++) {
+			long rank = Math.max(1L, (long) Math.ceil(quantiles[i] * total));
+			while (seen < rank && bucket < NR_OF_BUCKETS - 1) {
+				bucket++;
+				seen += counts[bucket];
+			}
+
+			// the highest rank is the maximum, which is known exactly
+			values[i] = rank >= total ? max : Math.min(max, middle(bucket));
+		}
+
+		return values;
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+	}
+
+	static long lowerBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int shift = index / SUB_BUCKETS - 1;
+		return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+	}
+
+	static long middle(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int shift = index / SUB_BUCKETS - 1;
+		return lowerBound(index) + ((1L << shift) >>> 1);
+	}
+}
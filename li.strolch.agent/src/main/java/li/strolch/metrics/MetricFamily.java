@@ -0,0 +1,204 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * <p>A named metric with a fixed list of label names, of which a child metric is kept for every combination of label
+ * values, e.g. a {@link Histogram} of the service durations for every service class</p>
+ *
+ * <p>The children are kept in nested maps, one level per label, so that looking up an existing child with up to three
+ * labels does not allocate. Callers on hot paths should nevertheless keep a reference to the child, if the label
+ * values are known beforehand</p>
+ *
+ * @param <T>
+ * 		the type of metric
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class MetricFamily<T> {
+
+	private final String name;
+	private final String help;
+	private final MetricType type;
+	private final String[] labelNames;
+	private final double scale;
+	private final Supplier<T> factory;
+
+	private final Map<String, Object> children;
+	private final Queue<Child<T>> childList;
+
+	MetricFamily(String name, String help, MetricType type, String[] labelNames, double scale, Supplier<T> factory) {
+		this.name = name;
+		this.help = help;
+		this.type = type;
+		this.labelNames = labelNames.clone();
+		this.scale = scale;
+		this.factory = factory;
+		this.children = new ConcurrentHashMap<>();
+		this.childList = new ConcurrentLinkedQueue<>();
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public String getHelp() {
+		return this.help;
+	}
+
+	public MetricType getType() {
+		return this.type;
+	}
+
+	public String[] getLabelNames() {
+		return this.labelNames.clone();
+	}
+
+	/**
+	 * Returns the factor with which recorded values are multiplied when they are exposed, e.g. 1e-9 for durations
+	 * recorded in nanoseconds and exposed in seconds
+	 *
+	 * @return the scale of the exposed values
+	 */
+	public double getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Returns the metric of a family without labels
+	 *
+	 * @return the metric
+	 */
+	public T labels() {
+		assertNrOfLabels(0);
+		@SuppressWarnings("unchecked")
+		T child = (T) this.children.get("");
+		return child == null ? create() : child;
+	}
+
+	public T labels(String value) {
+		assertNrOfLabels(1);
+		@SuppressWarnings("unchecked")
+		T child = (T) this.children.get(nonNull(value));
+		return child == null ? create(value) : child;
+	}
+
+	public T labels(String value1, String value2) {
+		assertNrOfLabels(2);
+		Map<String, Object> level = level(this.children, value1);
+		@SuppressWarnings("unchecked")
+		T child = level == null ? null : (T) level.get(nonNull(value2));
+		return child == null ? create(value1, value2) : child;
+	}
+
+	public T labels(String value1, String value2, String value3) {
+		assertNrOfLabels(3);
+		Map<String, Object> level = level(level(this.children, value1), value2);
+		@SuppressWarnings("unchecked")
+		T child = level == null ? null : (T) level.get(nonNull(value3));
+		return child == null ? create(value1, value2, value3) : child;
+	}
+
+	public T labels(String... values) {
+		assertNrOfLabels(values.length);
+		switch (values.length) {
+		case 0:
+			return labels();
+		case 1:
+			return labels(values[0]);
+		case 2:
+			return labels(values[0], values[1]);
+		case 3:
+			return labels(values[0], values[1], values[2]);
+		default:
+			return create(values);
+		}
+	}
+
+	/**
+	 * Returns the children of this family, sorted by their label values
+	 *
+	 * @return the children of this family
+	 */
+	public List<Child<T>> getChildren() {
+		List<Child<T>> children = new ArrayList<>(this.childList);
+		children.sort(Comparator.comparing(c -> String.join("\u0000", c.labelValues)));
+		return children;
+	}
+
+	private void assertNrOfLabels(int nrOfValues) {
+		if (nrOfValues != this.labelNames.length) {
+			String msg = "Metric {0} has labels {1}, but {2} values were given!";
+			throw new IllegalArgumentException(
+					MessageFormat.format(msg, this.name, Arrays.toString(this.labelNames), nrOfValues));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> level(Map<String, Object> map, String value) {
+		return map == null ? null : (Map<String, Object>) map.get(nonNull(value));
+	}
+
+	@SuppressWarnings("unchecked")
+	private T create(String... values) {
+		if (values.length == 0)
+			return (T) this.children.computeIfAbsent("", k -> newChild(values));
+
+		Map<String, Object> level = this.children;
+		for (int i = 0; i < values.length - 1; i++) {
+			level = (Map<String, Object>) level.computeIfAbsent(nonNull(values[i]), k -> new ConcurrentHashMap<>());
+		}
+		return (T) level.computeIfAbsent(nonNull(values[values.length - 1]), k -> newChild(values));
+	}
+
+	private T newChild(String[] values) {
+		String[] labelValues = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			labelValues[i] = nonNull(values[i]);
+		}
+		T metric = this.factory.get();
+		this.childList.add(new Child<>(labelValues, metric));
+		return metric;
+	}
+
+	private static String nonNull(String value) {
+		return value == null ? "" : value;
+	}
+
+	public static class Child<T> {
+		private final String[] labelValues;
+		private final T metric;
+
+		private Child(String[] labelValues, T metric) {
+			this.labelValues = labelValues;
+			this.metric = metric;
+		}
+
+		public String[] getLabelValues() {
+			return this.labelValues.clone();
+		}
+
+		public T getMetric() {
+			return this.metric;
+		}
+	}
+}
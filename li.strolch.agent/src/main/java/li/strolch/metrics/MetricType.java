@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+/**
+ * The type of a {@link MetricFamily}, named as in the Prometheus text format
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public enum MetricType {
+	COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+
+	private final String type;
+
+	MetricType(String type) {
+		this.type = type;
+	}
+
+	public String getType() {
+		return this.type;
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import li.strolch.utils.dbc.DBC;
+
+/**
+ * <p>The registry of the {@link Counter Counters}, {@link Gauge Gauges} and {@link Histogram Histograms} of an agent.
+ * The metrics are grouped in {@link MetricFamily families}, which are registered by name and are created on first
+ * access, so that all components asking for the same name share the same metric</p>
+ *
+ * <p>The metrics are exposed in the Prometheus text format with {@link #toPrometheusText()}, where histograms are
+ * exposed as summaries with the quantiles {@link #QUANTILES} since the start of the agent</p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class MetricsRegistry {
+
+	public static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private static final double NANOS_TO_SECONDS = 1.0E-9;
+
+	private final Map<String, MetricFamily<?>> families;
+
+	public MetricsRegistry() {
+		this.families = new ConcurrentHashMap<>();
+	}
+
+	public MetricFamily<Counter> counter(String name, String help, String... labelNames) {
+		return family(name, help, MetricType.COUNTER, labelNames, 1.0, Counter::new);
+	}
+
+	public MetricFamily<Gauge> gauge(String name, String help, String... labelNames) {
+		return family(name, help, MetricType.GAUGE, labelNames, 1.0, Gauge::new);
+	}
+
+	public MetricFamily<Histogram> histogram(String name, String help, String... labelNames) {
+		return family(name, help, MetricType.SUMMARY, labelNames, 1.0, Histogram::new);
+	}
+
+	/**
+	 * Returns a family of {@link Histogram Histograms} which record durations in nanoseconds, and are exposed in
+	 * seconds
+	 *
+	 * @param name
+	 * 		the name of the metric, which should end with {@code _seconds}
+	 * @param help
+	 * 		the description of the metric
+	 * @param labelNames
+	 * 		the names of the labels
+	 *
+	 * @return the family of histograms
+	 */
+	public MetricFamily<Histogram> timer(String name, String help, String... labelNames) {
+		return family(name, help, MetricType.SUMMARY, labelNames, NANOS_TO_SECONDS, Histogram::new);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> MetricFamily<T> family(String name, String help, MetricType type, String[] labelNames, double scale,
+			Supplier<T> factory) {
+		DBC.PRE.assertNotEmpty("name must be set", name);
+
+		MetricFamily<?> family = this.families.computeIfAbsent(name,
+				n -> new MetricFamily<>(n, help, type, labelNames, scale, factory));
+
+		if (family.getType() != type || family.getScale() != scale || !Arrays
+				.equals(family.getLabelNames(), labelNames)) {
+			String msg = "Metric {0} is already registered as {1} with labels {2}!";
+			throw new IllegalArgumentException(MessageFormat
+					.format(msg, name, family.getType().getType(), Arrays.toString(family.getLabelNames())));
+		}
+
+		return (MetricFamily<T>) family;
+	}
+
+	public Optional<MetricFamily<?>> getFamily(String name) {
+		return Optional.ofNullable(this.families.get(name));
+	}
+
+	public Set<String> getFamilyNames() {
+		return new TreeSet<>(this.families.keySet());
+	}
+
+	/**
+	 * Renders all metrics in the Prometheus text exposition format, version 0.0.4, sorted by name and label values
+	 *
+	 * @return the metrics in the Prometheus text format
+	 */
+	public String toPrometheusText() {
+		StringBuilder sb = new StringBuilder();
+		for (String name : getFamilyNames()) {
+			MetricFamily<?> family = this.families.get(name);
+			appendFamily(sb, family);
+		}
+		return sb.toString();
+	}
+
+	private void appendFamily(StringBuilder sb, MetricFamily<?> family) {
+		String name = family.getName();
+		String[] labelNames = family.getLabelNames();
+
+		sb.append("# HELP ").append(name).append(' ');
+		appendEscaped(sb, family.getHelp(), false);
+		sb.append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(family.getType().getType()).append('\n');
+
+		for (MetricFamily.Child<?> child : family.getChildren()) {
+			String[] labelValues = child.getLabelValues();
+			Object metric = child.getMetric();
+
+			switch (family.getType()) {
+			case COUNTER:
+				appendSample(sb, name, labelNames, labelValues, null, ((Counter) metric).get());
+				break;
+			case GAUGE:
+				appendSample(sb, name, labelNames, labelValues, null, ((Gauge) metric).get());
+				break;
+			case SUMMARY:
+				appendSummary(sb, name, labelNames, labelValues, family.getScale(), (Histogram) metric);
+				break;
+			default:
+				throw new IllegalStateException("Unhandled metric type " + family.getType());
+			}
+		}
+	}
+
+	private void appendSummary(StringBuilder sb, String name, String[] labelNames, String[] labelValues, double scale,
+			Histogram histogram) {
+
+		// read the count first, so that the quantiles cover at least the counted values
+		long count = histogram.getCount();
+		long sum = histogram.getSum();
+		long[] values = histogram.getValuesAtQuantiles(QUANTILES);
+
+		for (int i = 0; i < QUANTILES.length; i++) {
+			appendSample(sb, name, labelNames, labelValues, Double.toString(QUANTILES[i]), values[i] * scale);
+		}
+		appendSample(sb, name + "_sum", labelNames, labelValues, null, sum * scale);
+		appendSample(sb, name + "_count", labelNames, labelValues, null, count);
+	}
+
+	private void appendSample(StringBuilder sb, String name, String[] labelNames, String[] labelValues,
+			String quantile, double value) {
+		appendName(sb, name, labelNames, labelValues, quantile);
+		sb.append(' ').append(value).append('\n');
+	}
+
+	private void appendSample(StringBuilder sb, String name, String[] labelNames, String[] labelValues,
+			String quantile, long value) {
+		appendName(sb, name, labelNames, labelValues, quantile);
+		sb.append(' ').append(value).append('\n');
+	}
+
+	private void appendName(StringBuilder sb, String name, String[] labelNames, String[] labelValues,
+			String quantile) {
+		sb.append(name);
+		if (labelNames.length == 0 && quantile == null)
+			return;
+
+		sb.append('{');
+		for (int i = 0; i < labelNames.length; i++) {
+			if (i > 0)
+				sb.append(',');
+			sb.append(labelNames[i]).append("=\"");
+			appendEscaped(sb, labelValues[i], true);
+			sb.append('"');
+		}
+		if (quantile != null) {
+			if (labelNames.length > 0)
+				sb.append(',');
+			sb.append("quantile=\"").append(quantile).append('"');
+		}
+		sb.append('}');
+	}
+
+	private static void appendEscaped(StringBuilder sb, String value, boolean escapeQuotes) {
+		if (value == null)
+			return;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\')
+				sb.append("\\\\");
+			else if (c == '\n')
+				sb.append("\\n");
+			else if (c == '"' && escapeQuotes)
+				sb.append("\\\"");
+			else
+				sb.append(c);
+		}
+	}
+}
@@ -88,10 +88,12 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 	private boolean suppressUpdates;
 	private boolean suppressAudits;
 	private boolean suppressAuditsForAudits;
+	private boolean readOnlyElements;
 	private TransactionResult txResult;
 
 	private List<Command> commands;
 	private List<Command> flushedCommands;
+	private List<Runnable> afterCommit;
 	private Set<Locator> lockedElements;
 
 	private AuditingOrderMap orderMap;
@@ -239,6 +241,13 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		return this;
 	}
 
+	@Override
+	public void afterCommit(Runnable runnable) {
+		if (this.afterCommit == null)
+			this.afterCommit = new ArrayList<>();
+		this.afterCommit.add(runnable);
+	}
+
 	@Override
 	public StrolchTransactionException fail(String string) {
 		rollbackOnClose();
@@ -266,6 +275,16 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		return this.suppressUpdates;
 	}
 
+	@Override
+	public void setReadOnlyElements(boolean readOnlyElements) {
+		this.readOnlyElements = readOnlyElements;
+	}
+
+	@Override
+	public boolean isReadOnlyElements() {
+		return this.readOnlyElements;
+	}
+
 	@Override
 	public void setSuppressAudits(boolean suppressAudits) {
 		this.suppressAudits = suppressAudits;
@@ -685,6 +704,43 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		});
 	}
 
+	@Override
+	public Stream<Resource> streamResourceCandidates(String type, Set<String> ids) {
+		return streamCandidates(getResourceMap(), Resource.class, Tags.RESOURCE, type, ids);
+	}
+
+	@Override
+	public Stream<Order> streamOrderCandidates(String type, Set<String> ids) {
+		return streamCandidates(getOrderMap(), Order.class, Tags.ORDER, type, ids);
+	}
+
+	@Override
+	public Stream<Activity> streamActivityCandidates(String type, Set<String> ids) {
+		return streamCandidates(getActivityMap(), Activity.class, Tags.ACTIVITY, type, ids);
+	}
+
+	private <T extends StrolchRootElement> Stream<T> streamCandidates(ElementMap<T> elementMap, Class<T> clazz,
+			String key, String type, Set<String> ids) {
+
+		Stream<T> stream = elementMap.streamBy(this, type, ids).map(e -> {
+			// perhaps the element was changed before, so we check if it is in the filter first
+			T element = getElementFromFilter(key, e.getLocator());
+			return element == null ? e : element;
+		});
+
+		if (this.objectFilter == null)
+			return stream;
+
+		// elements updated in this TX might now match, even though the index doesn't know about them
+		List<T> updated = new ArrayList<>();
+		for (T element : this.objectFilter.getUpdated(clazz, key)) {
+			if (element.getType().equals(type) && !ids.contains(element.getId()))
+				updated.add(element);
+		}
+
+		return updated.isEmpty() ? stream : Stream.concat(stream, updated.stream());
+	}
+
 	@Override
 	public Resource getResourceTemplate(String type) {
 		return getResourceTemplate(type, false);
@@ -750,7 +806,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		if (element != null)
 			return element;
 
-		element = getOrderMap().getBy(this, type, id, assertExists);
+		if (this.readOnlyElements)
+			element = getOrderMap().getReadOnlyBy(this, type, id, assertExists);
+		else
+			element = getOrderMap().getBy(this, type, id, assertExists);
 		if (element != null) {
 			if (this.orderCache == null)
 				this.orderCache = new MapOfMaps<>(1);
@@ -786,7 +845,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		if (element != null)
 			return element;
 
-		element = getOrderMap().getBy(this, refP, assertExists);
+		if (this.readOnlyElements)
+			element = getOrderMap().getReadOnlyBy(this, refP, assertExists);
+		else
+			element = getOrderMap().getBy(this, refP, assertExists);
 		if (element != null) {
 			if (this.orderCache == null)
 				this.orderCache = new MapOfMaps<>(1);
@@ -870,7 +932,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		if (element != null)
 			return element;
 
-		element = getResourceMap().getBy(this, type, id, assertExists);
+		if (this.readOnlyElements)
+			element = getResourceMap().getReadOnlyBy(this, type, id, assertExists);
+		else
+			element = getResourceMap().getBy(this, type, id, assertExists);
 		if (element != null) {
 			if (this.resourceCache == null)
 				this.resourceCache = new MapOfMaps<>(1);
@@ -906,7 +971,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		if (element != null)
 			return element;
 
-		element = getResourceMap().getBy(this, refP, assertExists);
+		if (this.readOnlyElements)
+			element = getResourceMap().getReadOnlyBy(this, refP, assertExists);
+		else
+			element = getResourceMap().getBy(this, refP, assertExists);
 		if (element != null) {
 			if (this.resourceCache == null)
 				this.resourceCache = new MapOfMaps<>(1);
@@ -1006,7 +1074,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		if (element != null)
 			return element;
 
-		element = getActivityMap().getBy(this, type, id, assertExists);
+		if (this.readOnlyElements)
+			element = getActivityMap().getReadOnlyBy(this, type, id, assertExists);
+		else
+			element = getActivityMap().getBy(this, type, id, assertExists);
 		if (element != null) {
 			if (this.activityCache == null)
 				this.activityCache = new MapOfMaps<>(1);
@@ -1042,7 +1113,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		if (element != null)
 			return element;
 
-		element = getActivityMap().getBy(this, refP, assertExists);
+		if (this.readOnlyElements)
+			element = getActivityMap().getReadOnlyBy(this, refP, assertExists);
+		else
+			element = getActivityMap().getBy(this, refP, assertExists);
 		if (element != null) {
 			if (this.activityCache == null)
 				this.activityCache = new MapOfMaps<>(1);
@@ -1119,6 +1193,45 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 			this.objectFilter.removeObjectCache(locator.get(0), locator);
 	}
 
+	@Override
+	public Resource ensureModifiable(Resource resource) {
+		DBC.PRE.assertNotNull("resource must not be null", resource);
+		if (!resource.isReadOnly())
+			return resource;
+
+		Resource clone = resource.getClone(true);
+		if (this.resourceCache == null)
+			this.resourceCache = new MapOfMaps<>(1);
+		this.resourceCache.addElement(clone.getType(), clone.getId(), clone);
+		return clone;
+	}
+
+	@Override
+	public Order ensureModifiable(Order order) {
+		DBC.PRE.assertNotNull("order must not be null", order);
+		if (!order.isReadOnly())
+			return order;
+
+		Order clone = order.getClone(true);
+		if (this.orderCache == null)
+			this.orderCache = new MapOfMaps<>(1);
+		this.orderCache.addElement(clone.getType(), clone.getId(), clone);
+		return clone;
+	}
+
+	@Override
+	public Activity ensureModifiable(Activity activity) {
+		DBC.PRE.assertNotNull("activity must not be null", activity);
+		if (!activity.isReadOnly())
+			return activity;
+
+		Activity clone = activity.getClone(true);
+		if (this.activityCache == null)
+			this.activityCache = new MapOfMaps<>(1);
+		this.activityCache.addElement(clone.getType(), clone.getId(), clone);
+		return clone;
+	}
+
 	@Override
 	public Resource getCachedResource(String type, String id) {
 		if (this.resourceCache == null)
@@ -1523,20 +1636,27 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 				doCommands();
 			}
 
+			long writeChangesStart = System.nanoTime();
+			long commandsDuration = writeChangesStart - start;
 			writeChanges();
+			long writeChangesDuration = System.nanoTime() - writeChangesStart;
 
 			long auditTrailDuration = writeAuditTrail();
 			long updateObserversDuration = updateObservers();
 
 			// commit and close the connection
+			long commitStart = System.nanoTime();
 			commit();
+			long commitDuration = System.nanoTime() - commitStart;
 
-			handleCommit(start, auditTrailDuration, updateObserversDuration);
+			handleCommit(start, commandsDuration, writeChangesDuration, auditTrailDuration, updateObserversDuration,
+					commitDuration);
 
 			this.txResult.setState(TransactionState.COMMITTED);
 
 		} catch (Exception e) {
 			this.txResult.setState(TransactionState.ROLLING_BACK);
+			this.afterCommit = null;
 
 			try {
 				undoCommands();
@@ -1570,6 +1690,9 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 			releaseElementLocks();
 			TransactionThreadLocal.removeTx();
 		}
+
+		// only now, as the actions might open their own TX
+		runAfterCommit();
 	}
 
 	@Override
@@ -1581,6 +1704,7 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 			undoCommands();
 			rollback();
 			handleRollback(start);
+			this.realm.getMetrics().txRolledBack(this.action, this.txResult.getTxDuration());
 			this.txResult.setState(TransactionState.ROLLED_BACK);
 		} catch (Exception e) {
 			handleFailure(true, start, e);
@@ -1635,6 +1759,23 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		}
 	}
 
+	private void runAfterCommit() {
+		if (this.afterCommit == null)
+			return;
+
+		// the changes are committed, thus a failing action may not roll back the transaction
+		List<Runnable> actions = this.afterCommit;
+		this.afterCommit = null;
+		for (Runnable action : actions) {
+			try {
+				action.run();
+			} catch (Exception e) {
+				logger.error("Failed to perform action after commit of TX for realm " + getRealmName() + ": "
+						+ e.getMessage(), e);
+			}
+		}
+	}
+
 	protected abstract void writeChanges() throws Exception;
 
 	protected abstract void rollback() throws Exception;
@@ -1650,6 +1791,8 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		this.txResult.setTxDuration(txDuration);
 		this.txResult.setCloseDuration(closeDuration);
 
+		this.realm.getMetrics().txReadOnly(this.action, txDuration);
+
 		if (this.silentThreshold > 0L && txDuration < this.silentThreshold)
 			return;
 
@@ -1679,7 +1822,8 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		logger.info(sb.toString());
 	}
 
-	private void handleCommit(long start, long auditTrailDuration, long observerUpdateDuration) {
+	private void handleCommit(long start, long commandsDuration, long writeChangesDuration, long auditTrailDuration,
+			long observerUpdateDuration, long commitDuration) {
 
 		long end = System.nanoTime();
 		long txDuration = end - this.txResult.getStartNanos();
@@ -1688,6 +1832,12 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		this.txResult.setTxDuration(txDuration);
 		this.txResult.setCloseDuration(closeDuration);
 
+		long auditTrailPhase = isAuditTrailEnabled() ? auditTrailDuration : -1L;
+		long observersPhase = isObserverUpdatesEnabled() ? observerUpdateDuration : -1L;
+		this.realm.getMetrics()
+				.txCommitted(this.action, txDuration, commandsDuration, writeChangesDuration, auditTrailPhase,
+						observersPhase, commitDuration);
+
 		if (this.silentThreshold > 0L && txDuration < this.silentThreshold)
 			return;
 
@@ -1760,6 +1910,10 @@ public abstract class AbstractTransaction implements StrolchTransaction {
 		this.txResult.setTxDuration(txDuration);
 		this.txResult.setCloseDuration(closeDuration);
 
+		// only the last failure handling of a transaction is counted
+		if (throwEx)
+			this.realm.getMetrics().txFailed(this.action, txDuration);
+
 		StringBuilder sb = new StringBuilder();
 		sb.append("TX FAILED user=");
 		sb.append(this.certificate.getUsername());
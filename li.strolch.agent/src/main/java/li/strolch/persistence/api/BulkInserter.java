@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.persistence.api;
+
+import li.strolch.model.StrolchRootElement;
+
+/**
+ * <p>
+ * Writes new elements in bulk directly to the underlying persistence layer, as opened by {@link
+ * StrolchDao#openBulkInserter()}. The elements must not yet exist and must already have their {@link
+ * li.strolch.model.Version} set.
+ * </p>
+ *
+ * <p>
+ * The elements are only guaranteed to be written once {@link #finish()} was called. Closing a {@link BulkInserter}
+ * which was not finished aborts the insert, so that none of the elements are written
+ * </p>
+ *
+ * @param <T>
+ * 		the type of element being written
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public interface BulkInserter<T extends StrolchRootElement> extends AutoCloseable {
+
+	/**
+	 * Writes the given element
+	 *
+	 * @param element
+	 * 		the element to write
+	 *
+	 * @throws StrolchPersistenceException
+	 * 		if something goes wrong
+	 */
+	void insert(T element) throws StrolchPersistenceException;
+
+	/**
+	 * Completes the insert, writing any elements which are still buffered
+	 *
+	 * @return the number of elements written
+	 *
+	 * @throws StrolchPersistenceException
+	 * 		if something goes wrong
+	 */
+	long finish() throws StrolchPersistenceException;
+
+	/**
+	 * Aborts the insert, if it was not yet finished
+	 */
+	@Override
+	void close();
+}
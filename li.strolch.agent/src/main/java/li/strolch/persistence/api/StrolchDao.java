@@ -17,6 +17,8 @@ package li.strolch.persistence.api;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import li.strolch.model.StrolchRootElement;
 
@@ -128,6 +130,67 @@ public interface StrolchDao<T extends StrolchRootElement> {
 	 */
 	List<T> queryAll(long limit, long offset, String... types) throws StrolchPersistenceException;
 
+	/**
+	 * <p>
+	 * Streams all elements of the given type to the given consumer, without first materializing all elements in a
+	 * list. For each element a {@link Supplier} is passed to the consumer, which returns the parsed element, so that
+	 * the caller can decide to parse the elements on a different thread, while the next elements are read.
+	 * </p>
+	 *
+	 * <p>
+	 * The default implementation delegates to {@link #queryAll(String...)}
+	 * </p>
+	 *
+	 * @param type
+	 * 		the type of elements to stream
+	 * @param fetchSize
+	 * 		a hint as to the number of elements to fetch from the underlying persistence layer at once
+	 * @param consumer
+	 * 		the consumer of the suppliers of the elements
+	 *
+	 * @throws StrolchPersistenceException
+	 * 		if something goes wrong
+	 */
+	default void streamAll(String type, int fetchSize, Consumer<Supplier<T>> consumer)
+			throws StrolchPersistenceException {
+		for (T element : queryAll(type)) {
+			consumer.accept(() -> element);
+		}
+	}
+
+	/**
+	 * Returns true if this {@link StrolchDao} supports inserting new elements in bulk using {@link
+	 * #openBulkInserter()}
+	 *
+	 * @return true if this {@link StrolchDao} supports inserting new elements in bulk
+	 */
+	default boolean supportsBulkInsert() {
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * Opens a {@link BulkInserter} with which new elements are directly written to the underlying persistence layer,
+	 * bypassing the commands of this DAO, which are only performed when the transaction is flushed. The elements are
+	 * written in the same transaction, thus are rolled back with it.
+	 * </p>
+	 *
+	 * <p>
+	 * While a {@link BulkInserter} is open, no other operations may be performed on the underlying persistence layer
+	 * of the transaction, this includes opening a further {@link BulkInserter}
+	 * </p>
+	 *
+	 * @return the {@link BulkInserter}
+	 *
+	 * @throws StrolchPersistenceException
+	 * 		if something goes wrong
+	 * @throws UnsupportedOperationException
+	 * 		if {@link #supportsBulkInsert()} returns false
+	 */
+	default BulkInserter<T> openBulkInserter() throws StrolchPersistenceException {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support bulk inserts!");
+	}
+
 	/**
 	 * Persists the given element. The element must not yet exist
 	 *
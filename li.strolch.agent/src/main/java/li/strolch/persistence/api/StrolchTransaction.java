@@ -18,6 +18,7 @@ package li.strolch.persistence.api;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
@@ -287,6 +288,16 @@ public interface StrolchTransaction extends AutoCloseable {
 	 */
 	StrolchTransactionException fail(String exceptionMessage);
 
+	/**
+	 * Registers an action to perform once this transaction was successfully committed, e.g. to publish changes which
+	 * were made outside of the transaction's object filter. The actions are performed in the order they were
+	 * registered, and are discarded if the transaction is rolled back or closed read-only
+	 *
+	 * @param runnable
+	 * 		the action to perform after the commit
+	 */
+	void afterCommit(Runnable runnable);
+
 	/**
 	 * Clears the transaction element cache
 	 */
@@ -378,6 +389,26 @@ public interface StrolchTransaction extends AutoCloseable {
 	 */
 	boolean isSuppressUpdates();
 
+	/**
+	 * <p>If the given argument is true, then the <code>get*By()</code>-methods don't clone the elements, but return the
+	 * shared, read only instances of the {@link StrolchRealm}. This greatly reduces the allocations on read heavy
+	 * transactions.</p>
+	 *
+	 * <p>To modify such an element, call one of the <code>ensureModifiable()</code>-methods, which clones the element
+	 * only if it is read only, i.e. copy-on-write</p>
+	 *
+	 * @param readOnlyElements
+	 * 		true to return read only elements, false to return clones
+	 */
+	void setReadOnlyElements(boolean readOnlyElements);
+
+	/**
+	 * Returns true if the <code>get*By()</code>-methods return read only elements
+	 *
+	 * @return true if the <code>get*By()</code>-methods return read only elements
+	 */
+	boolean isReadOnlyElements();
+
 	/**
 	 * If the given argument is true, then no {@link Audit Audits} are written
 	 *
@@ -703,6 +734,48 @@ public interface StrolchTransaction extends AutoCloseable {
 	 */
 	Stream<Activity> streamActivities(String... types);
 
+	/**
+	 * Returns a stream of the resources of the given type with the given IDs, as returned by a {@link ParameterIndex},
+	 * including any resources of the given type which were updated in this transaction, as these might now match the
+	 * search for which the candidates were looked up
+	 *
+	 * @param type
+	 * 		the type of resources to return in the stream
+	 * @param ids
+	 * 		the IDs of the candidate resources
+	 *
+	 * @return a stream of resources
+	 */
+	Stream<Resource> streamResourceCandidates(String type, Set<String> ids);
+
+	/**
+	 * Returns a stream of the orders of the given type with the given IDs, as returned by a {@link ParameterIndex},
+	 * including any orders of the given type which were updated in this transaction, as these might now match the
+	 * search for which the candidates were looked up
+	 *
+	 * @param type
+	 * 		the type of orders to return in the stream
+	 * @param ids
+	 * 		the IDs of the candidate orders
+	 *
+	 * @return a stream of orders
+	 */
+	Stream<Order> streamOrderCandidates(String type, Set<String> ids);
+
+	/**
+	 * Returns a stream of the activities of the given type with the given IDs, as returned by a {@link ParameterIndex},
+	 * including any activities of the given type which were updated in this transaction, as these might now match the
+	 * search for which the candidates were looked up
+	 *
+	 * @param type
+	 * 		the type of activities to return in the stream
+	 * @param ids
+	 * 		the IDs of the candidate activities
+	 *
+	 * @return a stream of activities
+	 */
+	Stream<Activity> streamActivityCandidates(String type, Set<String> ids);
+
 	/**
 	 * <p>
 	 * Returns a copy of the {@link Resource} of Type {@link StrolchModelConstants#TEMPLATE} with the given type as id,
@@ -1458,6 +1531,39 @@ public interface StrolchTransaction extends AutoCloseable {
 	 */
 	void removeFromCache(Locator locator);
 
+	/**
+	 * Returns a modifiable instance of the given {@link Resource}: If the element is read only, e.g. because it was
+	 * retrieved with {@link #isReadOnlyElements()} enabled, then it is cloned with its version and the clone replaces
+	 * the element in this transaction's cache, so that further calls to the <code>getResourceBy()</code>-methods return
+	 * the modifiable instance. Otherwise the element is returned as is
+	 *
+	 * @param resource
+	 * 		the resource for which to return a modifiable instance
+	 *
+	 * @return the modifiable resource
+	 */
+	Resource ensureModifiable(Resource resource);
+
+	/**
+	 * Returns a modifiable instance of the given {@link Order}, see {@link #ensureModifiable(Resource)}
+	 *
+	 * @param order
+	 * 		the order for which to return a modifiable instance
+	 *
+	 * @return the modifiable order
+	 */
+	Order ensureModifiable(Order order);
+
+	/**
+	 * Returns a modifiable instance of the given {@link Activity}, see {@link #ensureModifiable(Resource)}
+	 *
+	 * @param activity
+	 * 		the activity for which to return a modifiable instance
+	 *
+	 * @return the modifiable activity
+	 */
+	Activity ensureModifiable(Activity activity);
+
 	/**
 	 * Returns the cached resource with the given type and id, or null if not yet fetched
 	 *
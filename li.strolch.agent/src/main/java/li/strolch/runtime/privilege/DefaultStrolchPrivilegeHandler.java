@@ -70,6 +70,13 @@ public class DefaultStrolchPrivilegeHandler extends StrolchComponent implements
 		this.privilegeHandler = initializeFromXml(configuration, privilegeConfigFile);
 	}
 
+	@Override
+	public void stop() throws Exception {
+		if (this.privilegeHandler instanceof DefaultPrivilegeHandler)
+			((DefaultPrivilegeHandler) this.privilegeHandler).closeSessionJournal();
+		super.stop();
+	}
+
 	@Override
 	public void reloadConfiguration() {
 
@@ -1,6 +1,11 @@
 package li.strolch.search;
 
+import java.util.Set;
+import java.util.stream.Stream;
+
+import li.strolch.agent.api.ElementMap;
 import li.strolch.model.activity.Activity;
+import li.strolch.persistence.api.StrolchTransaction;
 
 /**
  * Performs a search for {@link Activity} elements
@@ -8,15 +13,32 @@ import li.strolch.model.activity.Activity;
 public class ActivitySearch extends StrolchSearch<Activity> {
 
 	private SearchNavigator<Activity> navigator;
+	private String[] types;
 
 	@Override
 	protected SearchNavigator<Activity> getNavigator() {
 		return this.navigator;
 	}
 
+	@Override
+	protected String[] getTypes() {
+		return this.types;
+	}
+
+	@Override
+	protected ElementMap<Activity> getElementMap(StrolchTransaction tx) {
+		return tx.getActivityMap();
+	}
+
+	@Override
+	protected Stream<Activity> streamCandidates(StrolchTransaction tx, String type, Set<String> ids) {
+		return tx.streamActivityCandidates(type, ids);
+	}
+
 	@Override
 	public ActivitySearch types(String... types) {
 		this.navigator = tx -> tx.streamActivities(types);
+		this.types = types;
 		return this;
 	}
 
@@ -0,0 +1,32 @@
+package li.strolch.search;
+
+import li.strolch.model.StrolchRootElement;
+
+/**
+ * A {@link SearchExpression} which ANDs two search expressions, keeping them accessible so that the
+ * {@link StrolchSearch} can find the {@link ParameterSearchExpression ParameterSearchExpressions} for which a
+ * {@link li.strolch.agent.api.ParameterIndex} can be used
+ */
+public class AndSearchExpression<T extends StrolchRootElement> implements SearchExpression<T> {
+
+	private final SearchExpression<T> left;
+	private final SearchExpression<T> right;
+
+	public AndSearchExpression(SearchExpression<T> left, SearchExpression<T> right) {
+		this.left = left;
+		this.right = right;
+	}
+
+	public SearchExpression<T> getLeft() {
+		return this.left;
+	}
+
+	public SearchExpression<T> getRight() {
+		return this.right;
+	}
+
+	@Override
+	public boolean matches(T element) {
+		return this.left.matches(element) && this.right.matches(element);
+	}
+}
@@ -10,6 +10,7 @@ import li.strolch.model.activity.Activity;
 import li.strolch.model.parameter.Parameter;
 import li.strolch.model.parameter.StringParameter;
 import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.utils.collections.DateRange;
 import li.strolch.utils.iso8601.ISO8601FormatFactory;
 
 /**
@@ -96,7 +97,8 @@ public class ExpressionsSupport {
 	public static <T extends StrolchRootElement> SearchExpression<T> param(String bagId, String paramId,
 			SearchPredicate predicate) {
 		ExpressionBuilder eb = param(bagId, paramId);
-		return element -> predicate.coerce(eb.getValueCoercer(element)).matches(eb.extract(element));
+		return new ParameterSearchExpression<>(bagId, paramId, predicate,
+				element -> predicate.coerce(eb.getValueCoercer(element)).matches(eb.extract(element)));
 	}
 
 	public static <T extends StrolchRootElement> ExpressionBuilder param(String paramId) {
@@ -110,6 +112,26 @@ public class ExpressionsSupport {
 	public static <T extends StrolchRootElement> ExpressionBuilder param(String bagId, String paramId) {
 		return new ExpressionBuilder() {
 
+			@Override
+			public <U extends StrolchRootElement> SearchExpression<U> isEqualTo(Object right) {
+				return indexable(PredicatesSupport.isEqualTo(right));
+			}
+
+			@Override
+			public <U extends StrolchRootElement> SearchExpression<U> isIn(Object right) {
+				return indexable(PredicatesSupport.isIn(right));
+			}
+
+			@Override
+			public <U extends StrolchRootElement> SearchExpression<U> inRange(DateRange range) {
+				return indexable(PredicatesSupport.inRange(range));
+			}
+
+			private <U extends StrolchRootElement> SearchExpression<U> indexable(SearchPredicate predicate) {
+				return new ParameterSearchExpression<>(bagId, paramId, predicate,
+						element -> predicate.matches(extract(element)));
+			}
+
 			@Override
 			public ValueCoercer getValueCoercer(StrolchRootElement context) {
 				return e -> {
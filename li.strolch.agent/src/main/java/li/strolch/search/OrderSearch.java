@@ -4,9 +4,13 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import li.strolch.agent.api.ElementMap;
 import li.strolch.model.Order;
 import li.strolch.model.State;
+import li.strolch.persistence.api.StrolchTransaction;
 
 /**
  * Performs a search of {@link Order} elements
@@ -14,15 +18,32 @@ import li.strolch.model.State;
 public class OrderSearch extends StrolchSearch<Order> {
 
 	private SearchNavigator<Order> navigator;
+	private String[] types;
 
 	@Override
 	protected SearchNavigator<Order> getNavigator() {
 		return this.navigator;
 	}
 
+	@Override
+	protected String[] getTypes() {
+		return this.types;
+	}
+
+	@Override
+	protected ElementMap<Order> getElementMap(StrolchTransaction tx) {
+		return tx.getOrderMap();
+	}
+
+	@Override
+	protected Stream<Order> streamCandidates(StrolchTransaction tx, String type, Set<String> ids) {
+		return tx.streamOrderCandidates(type, ids);
+	}
+
 	@Override
 	public OrderSearch types(String... types) {
 		this.navigator = tx -> tx.streamOrders(types);
+		this.types = types;
 		return this;
 	}
 
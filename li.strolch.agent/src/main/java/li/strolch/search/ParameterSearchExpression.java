@@ -0,0 +1,131 @@
+package li.strolch.search;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import li.strolch.agent.api.ParameterIndex;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.search.predicates.InRangePredicate;
+import li.strolch.search.predicates.IsEqualToPredicate;
+import li.strolch.search.predicates.IsInPredicate;
+import li.strolch.utils.collections.DateRange;
+
+/**
+ * A {@link SearchExpression} on the value of a parameter, which can be answered by a {@link ParameterIndex} if one
+ * exists for the parameter
+ */
+public class ParameterSearchExpression<T extends StrolchRootElement> implements SearchExpression<T> {
+
+	private final String bagId;
+	private final String paramId;
+	private final SearchPredicate predicate;
+	private final SearchExpression<T> expression;
+
+	public ParameterSearchExpression(String bagId, String paramId, SearchPredicate predicate,
+			SearchExpression<T> expression) {
+		this.bagId = bagId;
+		this.paramId = paramId;
+		this.predicate = predicate;
+		this.expression = expression;
+	}
+
+	public String getBagId() {
+		return this.bagId;
+	}
+
+	public String getParamId() {
+		return this.paramId;
+	}
+
+	public SearchPredicate getPredicate() {
+		return this.predicate;
+	}
+
+	@Override
+	public boolean matches(T element) {
+		return this.expression.matches(element);
+	}
+
+	/**
+	 * Looks up the IDs of the candidate elements for this expression in the given index. The returned IDs are a
+	 * superset of the matching elements, thus the candidates must still be matched against this expression
+	 *
+	 * @param index
+	 * 		the index on the parameter of this expression
+	 *
+	 * @return the IDs of the candidate elements, or null if the index can not be used for this expression
+	 */
+	public Set<String> lookup(ParameterIndex index) {
+		if (!index.isUsable())
+			return null;
+
+		if (this.predicate instanceof IsEqualToPredicate) {
+			IsEqualToPredicate isEqualTo = (IsEqualToPredicate) this.predicate;
+			if (isEqualTo.isIgnoreCase())
+				return null;
+
+			Object value = toIndexValue(index, isEqualTo.getRight());
+			return value == null ? null : index.getIdsFor(value);
+		}
+
+		if (this.predicate instanceof IsInPredicate) {
+			IsInPredicate isIn = (IsInPredicate) this.predicate;
+			if (isIn.isIgnoreCase())
+				return null;
+
+			Object right = isIn.getRight();
+			Set<String> ids = new HashSet<>();
+			if (right instanceof Collection) {
+				for (Object o : (Collection<?>) right) {
+					// no enum conversion here, as ObjectHelper.isIn() doesn't convert enums in collections
+					if (o != null && o.getClass() == index.getValueClass())
+						ids.addAll(index.getIdsFor(o));
+				}
+				return ids;
+			}
+
+			if (right instanceof Object[]) {
+				for (Object o : (Object[]) right) {
+					Object value = toIndexValue(index, o);
+					if (value != null)
+						ids.addAll(index.getIdsFor(value));
+				}
+				return ids;
+			}
+
+			return null;
+		}
+
+		if (this.predicate instanceof InRangePredicate) {
+			if (!index.isSorted())
+				return null;
+			if (index.getValueClass() == null)
+				return new HashSet<>(0);
+			if (index.getValueClass() != Date.class)
+				return null;
+
+			// bounds are inclusive, as the lookup must return a superset of the matching elements
+			DateRange range = ((InRangePredicate) this.predicate).getRange();
+			return index.getIdsIn(range.isFromBounded() ? range.getFromDate() : null, true,
+					range.isToBounded() ? range.getToDate() : null, true);
+		}
+
+		return null;
+	}
+
+	private Object toIndexValue(ParameterIndex index, Object value) {
+		if (value == null)
+			return null;
+
+		Class<?> valueClass = index.getValueClass();
+		if (valueClass == null || value.getClass() == valueClass)
+			return value;
+
+		if (valueClass == String.class && value.getClass().isEnum())
+			return ((Enum<?>) value).name();
+
+		return null;
+	}
+}
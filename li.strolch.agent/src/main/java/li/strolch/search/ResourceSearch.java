@@ -1,6 +1,11 @@
 package li.strolch.search;
 
+import java.util.Set;
+import java.util.stream.Stream;
+
+import li.strolch.agent.api.ElementMap;
 import li.strolch.model.Resource;
+import li.strolch.persistence.api.StrolchTransaction;
 
 /**
  * Performs a search for {@link Resource} elements
@@ -8,15 +13,32 @@ import li.strolch.model.Resource;
 public class ResourceSearch extends StrolchSearch<Resource> {
 
 	private SearchNavigator<Resource> navigator;
+	private String[] types;
 
 	@Override
 	protected SearchNavigator<Resource> getNavigator() {
 		return this.navigator;
 	}
 
+	@Override
+	protected String[] getTypes() {
+		return this.types;
+	}
+
+	@Override
+	protected ElementMap<Resource> getElementMap(StrolchTransaction tx) {
+		return tx.getResourceMap();
+	}
+
+	@Override
+	protected Stream<Resource> streamCandidates(StrolchTransaction tx, String type, Set<String> ids) {
+		return tx.streamResourceCandidates(type, ids);
+	}
+
 	@Override
 	public ResourceSearch types(String... types) {
 		this.navigator = tx -> tx.streamResources(types);
+		this.types = types;
 		return this;
 	}
 
@@ -41,7 +41,7 @@ public interface SearchExpression<T extends StrolchRootElement> {
 	 */
 	@SuppressWarnings("unchecked")
 	default <U extends StrolchRootElement> SearchExpression<U> and(SearchExpression<T> right) {
-		return element -> this.matches((T) element) && right.matches((T) element);
+		return (SearchExpression<U>) (SearchExpression<?>) new AndSearchExpression<>(this, right);
 	}
 
 	/**
@@ -3,10 +3,11 @@ package li.strolch.search;
 import static li.strolch.model.StrolchModelConstants.INTERNAL;
 import static li.strolch.model.Tags.AGENT;
 
-import java.util.Collection;
-import java.util.ResourceBundle;
+import java.util.*;
 import java.util.stream.Stream;
 
+import li.strolch.agent.api.ElementMap;
+import li.strolch.agent.api.ParameterIndex;
 import li.strolch.exception.StrolchAccessDeniedException;
 import li.strolch.handler.operationslog.OperationsLog;
 import li.strolch.model.Locator;
@@ -40,6 +41,45 @@ public abstract class StrolchSearch<T extends StrolchRootElement>
 
 	protected abstract SearchNavigator<T> getNavigator();
 
+	/**
+	 * Returns the types configured with {@link #types(String...)}, used to look up {@link ParameterIndex
+	 * ParameterIndexes}. The default returns null, disabling the use of indexes
+	 *
+	 * @return the types to search, or null if indexes can not be used
+	 */
+	protected String[] getTypes() {
+		return null;
+	}
+
+	/**
+	 * Returns the {@link ElementMap} of the elements being searched, used to look up {@link ParameterIndex
+	 * ParameterIndexes}. The default returns null, disabling the use of indexes
+	 *
+	 * @param tx
+	 * 		the TX on which the search is performed
+	 *
+	 * @return the element map, or null if indexes can not be used
+	 */
+	protected ElementMap<T> getElementMap(StrolchTransaction tx) {
+		return null;
+	}
+
+	/**
+	 * Streams the candidate elements of the given type with the given IDs as returned by a {@link ParameterIndex}
+	 *
+	 * @param tx
+	 * 		the TX on which the search is performed
+	 * @param type
+	 * 		the type of elements to stream
+	 * @param ids
+	 * 		the IDs of the candidate elements
+	 *
+	 * @return the stream of candidate elements
+	 */
+	protected Stream<T> streamCandidates(StrolchTransaction tx, String type, Set<String> ids) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support indexes!");
+	}
+
 	/**
 	 * Used to configure the navigator, i.e. which <code>type</code> of root elements are to be queried
 	 *
@@ -130,7 +170,9 @@ public abstract class StrolchSearch<T extends StrolchRootElement>
 		// then validate navigator
 		DBC.PRE.assertNotNull("navigation not set! Call types()", getNavigator());
 
-		Stream<T> stream = getNavigator().navigate(tx);
+		Stream<T> stream = this.expression == null ? null : navigateIndexed(tx);
+		if (stream == null)
+			stream = getNavigator().navigate(tx);
 
 		if (this.expression != null)
 			stream = stream.filter(e -> this.expression.matches(e));
@@ -138,6 +180,72 @@ public abstract class StrolchSearch<T extends StrolchRootElement>
 		return new RootElementSearchResult<>(stream);
 	}
 
+	/**
+	 * Uses the {@link ParameterIndex ParameterIndexes} of the ANDed {@link ParameterSearchExpression
+	 * ParameterSearchExpressions} of this search to stream only the candidate elements. The candidates are a superset
+	 * of the result, thus the caller must still filter using the search expression
+	 *
+	 * @param tx
+	 * 		the TX on which the search is performed
+	 *
+	 * @return the stream of candidates, or null if not every type can be searched using an index
+	 */
+	private Stream<T> navigateIndexed(StrolchTransaction tx) {
+		String[] types = getTypes();
+		if (types == null || types.length == 0)
+			return null;
+		ElementMap<T> elementMap = getElementMap(tx);
+		if (elementMap == null)
+			return null;
+
+		List<ParameterSearchExpression<T>> paramExpressions = new ArrayList<>();
+		collectParamExpressions(this.expression, paramExpressions);
+		if (paramExpressions.isEmpty())
+			return null;
+
+		Stream<T> stream = null;
+		for (String type : types) {
+
+			Set<String> ids = null;
+			for (ParameterSearchExpression<T> paramExpression : paramExpressions) {
+				ParameterIndex index = elementMap.getIndex(tx, type, paramExpression.getBagId(),
+						paramExpression.getParamId());
+				if (index == null)
+					continue;
+
+				Set<String> indexIds = paramExpression.lookup(index);
+				if (indexIds == null)
+					continue;
+
+				if (ids == null)
+					ids = indexIds;
+				else
+					ids.retainAll(indexIds);
+			}
+
+			// if a type can not be searched by index, then a full scan is required anyhow
+			if (ids == null)
+				return null;
+
+			Stream<T> candidates = streamCandidates(tx, type, ids);
+			stream = stream == null ? candidates : Stream.concat(stream, candidates);
+		}
+
+		return stream;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void collectParamExpressions(SearchExpression<T> expression,
+			List<ParameterSearchExpression<T>> paramExpressions) {
+		if (expression instanceof ParameterSearchExpression) {
+			paramExpressions.add((ParameterSearchExpression<T>) expression);
+		} else if (expression instanceof AndSearchExpression) {
+			AndSearchExpression<T> and = (AndSearchExpression<T>) expression;
+			collectParamExpressions(and.getLeft(), paramExpressions);
+			collectParamExpressions(and.getRight(), paramExpressions);
+		}
+	}
+
 	/**
 	 * Performs the actual search on the given input list
 	 *
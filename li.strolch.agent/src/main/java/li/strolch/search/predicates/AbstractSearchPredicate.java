@@ -15,6 +15,13 @@ public abstract class AbstractSearchPredicate implements SearchPredicate {
 		this.right = right;
 	}
 
+	/**
+	 * @return the right hand side of the where clause
+	 */
+	public Object getRight() {
+		return this.right;
+	}
+
 	public AbstractSearchPredicate coerce(ValueCoercer coercer) {
 		if (this.coerced)
 			return this;
@@ -19,6 +19,10 @@ public class InRangePredicate implements SearchPredicate {
 		this.range = range;
 	}
 
+	public DateRange getRange() {
+		return this.range;
+	}
+
 	@Override
 	public boolean matches(Object left) {
 		return range.contains((Date) left);
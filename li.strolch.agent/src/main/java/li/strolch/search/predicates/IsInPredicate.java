@@ -13,6 +13,10 @@ public class IsInPredicate extends AbstractSearchPredicate {
 		this.ignoreCase = ignoreCase;
 	}
 
+	public boolean isIgnoreCase() {
+		return this.ignoreCase;
+	}
+
 	@Override
 	public boolean matches(Object left) {
 		return ObjectHelper.isIn(left, this.right, this.ignoreCase);
@@ -28,6 +28,10 @@ import li.strolch.agent.api.StrolchComponent;
 import li.strolch.exception.StrolchAccessDeniedException;
 import li.strolch.exception.StrolchException;
 import li.strolch.handler.operationslog.OperationsLog;
+import li.strolch.metrics.Counter;
+import li.strolch.metrics.Histogram;
+import li.strolch.metrics.MetricFamily;
+import li.strolch.metrics.MetricsRegistry;
 import li.strolch.model.Locator;
 import li.strolch.model.log.LogMessage;
 import li.strolch.model.log.LogMessageState;
@@ -52,6 +56,9 @@ public class DefaultServiceHandler extends StrolchComponent implements ServiceHa
 	private PrivilegeHandler privilegeHandler;
 	private boolean throwOnPrivilegeFail;
 
+	private MetricFamily<Histogram> serviceDurations;
+	private MetricFamily<Counter> serviceResults;
+
 	public DefaultServiceHandler(ComponentContainer container, String componentName) {
 		super(container, componentName);
 	}
@@ -61,6 +68,12 @@ public class DefaultServiceHandler extends StrolchComponent implements ServiceHa
 		this.privilegeHandler = getContainer().getPrivilegeHandler();
 		this.runtimeConfiguration = configuration.getRuntimeConfiguration();
 		this.throwOnPrivilegeFail = configuration.getBoolean(PARAM_THROW_ON_PRIVILEGE_FAIL, Boolean.FALSE);
+
+		MetricsRegistry metrics = getContainer().getAgent().getMetrics();
+		this.serviceDurations = metrics.timer("strolch_service_duration_seconds", "Duration of services by class",
+				"service");
+		this.serviceResults = metrics.counter("strolch_service_results_total", "Performed services by class and result",
+				"service", "state");
 		super.initialize(configuration);
 	}
 
@@ -91,6 +104,7 @@ public class DefaultServiceHandler extends StrolchComponent implements ServiceHa
 			long end = System.nanoTime();
 			String msg = "User {0}: Service {1} failed after {2} due to {3}"; //$NON-NLS-1$
 			String svcName = service.getClass().getName();
+			recordMetrics(svcName, end - start, ServiceResultState.ACCESS_DENIED);
 			msg = MessageFormat.format(msg, username, svcName, formatNanoDuration(end - start), e.getMessage());
 			logger.error(msg);
 
@@ -152,6 +166,7 @@ public class DefaultServiceHandler extends StrolchComponent implements ServiceHa
 
 		} catch (Exception e) {
 			long end = System.nanoTime();
+			recordMetrics(service.getClass().getName(), end - start, ServiceResultState.EXCEPTION);
 			String msg = "User {0}: Service failed {1} after {2} due to {3}"; //$NON-NLS-1$
 			msg = MessageFormat.format(msg, username, service.getClass().getName(), formatNanoDuration(end - start),
 					e.getMessage());
@@ -176,6 +191,13 @@ public class DefaultServiceHandler extends StrolchComponent implements ServiceHa
 		return getContainer().getRealmNames().iterator().next();
 	}
 
+	private void recordMetrics(String svcName, long duration, ServiceResultState state) {
+		if (this.serviceDurations == null)
+			return;
+		this.serviceDurations.labels(svcName).record(duration);
+		this.serviceResults.labels(svcName, state == null ? "null" : state.name()).inc();
+	}
+
 	private void logResult(Service<?, ?> service, ServiceArgument arg, long start, Certificate certificate,
 			ServiceResult serviceResult) {
 
@@ -187,6 +209,8 @@ public class DefaultServiceHandler extends StrolchComponent implements ServiceHa
 
 		String realmName = getRealmName(arg, certificate);
 
+		recordMetrics(svcName, end - start, serviceResult.getState());
+
 		msg = MessageFormat.format(msg, username, svcName, formatNanoDuration(end - start));
 
 		if (serviceResult.getState() == ServiceResultState.SUCCESS) {
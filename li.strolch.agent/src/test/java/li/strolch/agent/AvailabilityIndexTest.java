@@ -0,0 +1,138 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import li.strolch.RuntimeMock;
+import li.strolch.agent.api.AvailabilityIndex;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.Resource;
+import li.strolch.model.timedstate.IntegerTimedState;
+import li.strolch.model.timevalue.impl.IntegerValue;
+import li.strolch.model.timevalue.impl.ValueChange;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class AvailabilityIndexTest {
+
+	private static final String TARGET_PATH = "target/" + AvailabilityIndexTest.class.getSimpleName();
+	private static final String SOURCE_PATH = "src/test/resources/transienttest";
+
+	private static final String TYPE = "Machine";
+	private static final String STATE_ID = "load";
+
+	private static RuntimeMock runtimeMock;
+	private static Certificate cert;
+
+	@BeforeClass
+	public static void beforeClass() {
+		runtimeMock = new RuntimeMock(TARGET_PATH, SOURCE_PATH).mockRuntime();
+		runtimeMock.startContainer();
+		cert = runtimeMock.getPrivilegeHandler().authenticate("test", "test".toCharArray());
+
+		StrolchRealm realm = runtimeMock.getAgent().getContainer().getRealm(cert);
+		try (StrolchTransaction tx = realm.openTx(cert, AvailabilityIndexTest.class, false)) {
+
+			// busy from 10 to 20
+			tx.add(createMachine("m1", 10L, 20L));
+			// busy from 15 to 40
+			tx.add(createMachine("m2", 15L, 40L));
+			// never busy
+			tx.add(createMachine("m3", -1L, -1L));
+
+			// no load state
+			tx.add(new Resource("m4", "m4", TYPE));
+
+			tx.commitOnClose();
+		}
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (cert != null)
+			runtimeMock.getPrivilegeHandler().invalidate(cert);
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	private static Resource createMachine(String id, long from, long to) {
+		Resource machine = new Resource(id, id, TYPE);
+		IntegerTimedState load = new IntegerTimedState(STATE_ID, "Load");
+		load.getTimeEvolution().setValueAt(0L, new IntegerValue(0));
+		if (from >= 0L)
+			occupy(load, from, to);
+		machine.addTimedState(load);
+		return machine;
+	}
+
+	private static void occupy(IntegerTimedState load, long from, long to) {
+		load.applyChanges(Arrays.asList(new ValueChange<>(from, new IntegerValue(1)),
+				new ValueChange<>(to, new IntegerValue(-1))), true);
+	}
+
+	@Test
+	public void shouldMaintainAvailabilityIndex() {
+
+		StrolchRealm realm = runtimeMock.getAgent().getContainer().getRealm(cert);
+		try (StrolchTransaction tx = realm.openTx(cert, AvailabilityIndexTest.class, false)) {
+
+			tx.getResourceMap().addAvailabilityIndex(TYPE, STATE_ID);
+			AvailabilityIndex index = tx.getResourceMap().getAvailabilityIndex(tx, TYPE, STATE_ID);
+			assertNotNull(index);
+			assertSame(index, tx.getResourceMap().getAvailabilityIndex(tx, TYPE, STATE_ID));
+			assertNull(tx.getResourceMap().getAvailabilityIndex(tx, TYPE, "other"));
+			assertEquals(3, index.size());
+			assertNull(index.getAvailability("m4"));
+
+			assertEquals(new HashSet<>(Arrays.asList("m1", "m2", "m3")), index.getAvailableIds(0L, 10L, 0.0));
+			assertEquals(new HashSet<>(Arrays.asList("m2", "m3")), index.getAvailableIds(0L, 11L, 0.0));
+			assertEquals(new HashSet<>(Arrays.asList("m1", "m3")), index.getAvailableIds(20L, 30L, 0.0));
+			assertEquals(new HashSet<>(Arrays.asList("m3")), index.getAvailableIds(15L, 30L, 0.0));
+			assertEquals(new HashSet<>(Arrays.asList("m1", "m2", "m3")), index.getAvailableIds(0L, 50L, 1.0));
+
+			Map<String, Long> slots = index.findFirstSlots(5L, 11L, 0.0);
+			assertEquals(3, slots.size());
+			assertEquals(20L, slots.get("m1").longValue());
+			assertEquals(40L, slots.get("m2").longValue());
+			assertEquals(5L, slots.get("m3").longValue());
+
+			// occupy m3, the index is updated on commit
+			Resource m3 = tx.getResourceBy(TYPE, "m3", true);
+			occupy(m3.getTimedState(STATE_ID), 0L, 100L);
+			tx.update(m3);
+
+			tx.commitOnClose();
+		}
+
+		try (StrolchTransaction tx = realm.openTx(cert, AvailabilityIndexTest.class, true)) {
+			AvailabilityIndex index = tx.getResourceMap().getAvailabilityIndex(tx, TYPE, STATE_ID);
+			assertEquals(3, index.size());
+			assertEquals(new HashSet<>(Arrays.asList("m1", "m2")), index.getAvailableIds(0L, 10L, 0.0));
+			assertEquals(100L, index.findFirstSlots(5L, 10L, 0.0).get("m3").longValue());
+		}
+	}
+}
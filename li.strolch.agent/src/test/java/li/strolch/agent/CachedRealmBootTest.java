@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import li.strolch.RuntimeMock;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.agent.impl.InternalStrolchRealm;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Order;
+import li.strolch.model.Resource;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.impl.InMemoryActivityDao;
+import li.strolch.persistence.impl.InMemoryOrderDao;
+import li.strolch.persistence.impl.InMemoryResourceDao;
+import li.strolch.privilege.model.Certificate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Boots a cached realm with a boot parallelism of 4 and a fetch size of 10 from the {@link InMemoryPersistenceHandler}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class CachedRealmBootTest {
+
+	private static final String TARGET_PATH = "target/" + CachedRealmBootTest.class.getSimpleName();
+	private static final String SOURCE_PATH = "src/test/resources/cachedtest";
+
+	private static final int NR_OF_TYPES = 5;
+	private static final int NR_OF_ELEMENTS = 100;
+
+	@Before
+	public void before() {
+		InMemoryPersistenceHandler.clear();
+
+		List<Resource> resources = new ArrayList<>();
+		List<Order> orders = new ArrayList<>();
+		List<Activity> activities = new ArrayList<>();
+		for (int i = 0; i < NR_OF_TYPES; i++) {
+			for (int j = 0; j < NR_OF_ELEMENTS; j++) {
+				String id = i + "_" + j;
+				resources.add(ModelGenerator.createResource("res_" + id, "Resource " + id, "Type" + i));
+				orders.add(ModelGenerator.createOrder("ord_" + id, "Order " + id, "Type" + i));
+				activities.add(ModelGenerator
+						.createActivity("act_" + id, "Activity " + id, "Type" + i, TimeOrdering.SERIES));
+			}
+		}
+
+		new InMemoryResourceDao().saveAll(resources);
+		new InMemoryOrderDao().saveAll(orders);
+		new InMemoryActivityDao().saveAll(activities);
+	}
+
+	@After
+	public void after() {
+		InMemoryPersistenceHandler.clear();
+	}
+
+	@Test
+	public void shouldBootInParallel() {
+		try (RuntimeMock runtimeMock = new RuntimeMock(TARGET_PATH, SOURCE_PATH).mockRuntime().startContainer()) {
+
+			Certificate cert = runtimeMock.getPrivilegeHandler().authenticate("test", "test".toCharArray());
+			StrolchRealm realm = runtimeMock.getContainer().getRealm(cert);
+			try (StrolchTransaction tx = realm.openTx(cert, CachedRealmBootTest.class, true)) {
+
+				assertEquals(NR_OF_TYPES * NR_OF_ELEMENTS, tx.getResourceMap().querySize(tx));
+				assertEquals(NR_OF_TYPES * NR_OF_ELEMENTS, tx.getOrderMap().querySize(tx));
+				assertEquals(NR_OF_TYPES * NR_OF_ELEMENTS, tx.getActivityMap().querySize(tx));
+
+				for (int i = 0; i < NR_OF_TYPES; i++) {
+					assertEquals(NR_OF_ELEMENTS, tx.getResourceMap().querySize(tx, "Type" + i));
+					assertEquals(NR_OF_ELEMENTS, tx.getOrderMap().querySize(tx, "Type" + i));
+					assertEquals(NR_OF_ELEMENTS, tx.getActivityMap().querySize(tx, "Type" + i));
+				}
+
+				assertNotNull(tx.getResourceBy("Type3", "res_3_42"));
+				assertNotNull(tx.getOrderBy("Type3", "ord_3_42"));
+				assertNotNull(tx.getActivityBy("Type3", "act_3_42"));
+			}
+
+			runtimeMock.getPrivilegeHandler().invalidate(cert);
+		}
+	}
+
+	@Test(timeout = 60000L)
+	public void shouldAbortBootOnParseFailure() {
+		RuntimeException parseFailure = new IllegalStateException("Failed to parse res_2_50");
+		InMemoryPersistenceHandler.failParsingOf("res_2_50", parseFailure);
+
+		RuntimeMock runtimeMock = new RuntimeMock(TARGET_PATH, SOURCE_PATH).mockRuntime();
+		try {
+			runtimeMock.startContainer();
+			fail("Boot should fail due to the parse failure!");
+		} catch (RuntimeException e) {
+			assertTrue("Boot failure is not caused by the parse failure: " + e, isCausedBy(e, parseFailure));
+		}
+
+		// no partially loaded model may remain
+		InternalStrolchRealm realm = (InternalStrolchRealm) InMemoryPersistenceHandler.getLastRealm();
+		assertNotNull(realm);
+		assertEquals(0L, realm.getResourceMap().querySize(null));
+		assertEquals(0L, realm.getOrderMap().querySize(null));
+		assertEquals(0L, realm.getActivityMap().querySize(null));
+	}
+
+	private static boolean isCausedBy(Throwable e, Throwable cause) {
+		while (e != null) {
+			if (e == cause)
+				return true;
+			e = e.getCause();
+		}
+		return false;
+	}
+}
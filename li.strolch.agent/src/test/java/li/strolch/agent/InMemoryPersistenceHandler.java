@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.agent;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import li.strolch.agent.api.ComponentContainer;
+import li.strolch.agent.api.StrolchComponent;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.Resource;
+import li.strolch.persistence.api.*;
+import li.strolch.persistence.impl.InMemoryActivityDao;
+import li.strolch.persistence.impl.InMemoryOrderDao;
+import li.strolch.persistence.impl.InMemoryResourceDao;
+import li.strolch.privilege.model.Certificate;
+
+/**
+ * A {@link PersistenceHandler} which keeps the elements in the shared in-memory DAOs, so that a cached realm can be
+ * booted without a database. Parsing a {@link Resource} can be made to fail using {@link #failParsingOf(String,
+ * RuntimeException)}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class InMemoryPersistenceHandler extends StrolchComponent implements PersistenceHandler {
+
+	private static volatile String failingResourceId;
+	private static volatile RuntimeException parseFailure;
+	private static volatile StrolchRealm lastRealm;
+
+	private final ResourceDao resourceDao;
+	private final OrderDao orderDao;
+	private final ActivityDao activityDao;
+
+	public InMemoryPersistenceHandler(ComponentContainer container, String componentName) {
+		super(container, componentName);
+		this.resourceDao = new InMemoryResourceDao() {
+			@Override
+			public void streamAll(String type, int fetchSize, Consumer<Supplier<Resource>> consumer) {
+				for (Resource resource : queryAll(type)) {
+					consumer.accept(() -> {
+						if (resource.getId().equals(failingResourceId))
+							throw parseFailure;
+						return resource;
+					});
+				}
+			}
+		};
+		this.orderDao = new InMemoryOrderDao();
+		this.activityDao = new InMemoryActivityDao();
+	}
+
+	/**
+	 * Lets parsing the {@link Resource} with the given ID fail with the given exception
+	 *
+	 * @param resourceId
+	 * 		the ID of the {@link Resource} which fails to parse, null for none
+	 * @param failure
+	 * 		the exception to throw
+	 */
+	public static void failParsingOf(String resourceId, RuntimeException failure) {
+		failingResourceId = resourceId;
+		parseFailure = failure;
+	}
+
+	/**
+	 * Returns the realm for which a TX was last opened, so that the realm can be inspected even if the container failed
+	 * to start
+	 *
+	 * @return the realm for which a TX was last opened
+	 */
+	public static StrolchRealm getLastRealm() {
+		return lastRealm;
+	}
+
+	/**
+	 * Removes all elements from the shared in-memory DAOs
+	 */
+	public static void clear() {
+		new InMemoryResourceDao().removeAll();
+		new InMemoryOrderDao().removeAll();
+		new InMemoryActivityDao().removeAll();
+		failParsingOf(null, null);
+		lastRealm = null;
+	}
+
+	@Override
+	public StrolchTransaction openTx(StrolchRealm realm, Certificate certificate, String action, boolean readOnly) {
+		lastRealm = realm;
+		return new InMemoryTransaction(getContainer(), realm, certificate, action, readOnly);
+	}
+
+	@Override
+	public OrderDao getOrderDao(StrolchTransaction tx) {
+		return this.orderDao;
+	}
+
+	@Override
+	public ResourceDao getResourceDao(StrolchTransaction tx) {
+		return this.resourceDao;
+	}
+
+	@Override
+	public ActivityDao getActivityDao(StrolchTransaction tx) {
+		return this.activityDao;
+	}
+
+	@Override
+	public AuditDao getAuditDao(StrolchTransaction tx) {
+		throw new IllegalStateException("Audits are not supported!");
+	}
+
+	@Override
+	public LogMessageDao getLogMessageDao(StrolchTransaction tx) {
+		throw new IllegalStateException("Log messages are not supported!");
+	}
+
+	private class InMemoryTransaction extends AbstractTransaction {
+
+		public InMemoryTransaction(ComponentContainer container, StrolchRealm realm, Certificate certificate,
+				String action, boolean readOnly) {
+			super(container, realm, certificate, action, readOnly);
+		}
+
+		@Override
+		protected void writeChanges() {
+			// elements are written by the DAOs
+		}
+
+		@Override
+		protected void rollback() {
+			getTxResult().setState(TransactionState.ROLLED_BACK);
+		}
+
+		@Override
+		protected void commit() {
+			getTxResult().setState(TransactionState.COMMITTED);
+		}
+
+		@Override
+		public PersistenceHandler getPersistenceHandler() {
+			return InMemoryPersistenceHandler.this;
+		}
+	}
+}
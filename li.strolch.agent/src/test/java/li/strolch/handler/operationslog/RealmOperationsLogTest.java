@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.handler.operationslog;
+
+import static li.strolch.model.Tags.AGENT;
+import static li.strolch.runtime.StrolchConstants.SYSTEM_USER_AGENT;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import li.strolch.handler.operationslog.RealmOperationsLog.PendingChanges;
+import li.strolch.model.Locator;
+import li.strolch.model.log.LogMessage;
+import li.strolch.model.log.LogMessageState;
+import li.strolch.model.log.LogSeverity;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class RealmOperationsLogTest {
+
+	private static final String REALM = "defaultRealm";
+
+	private RealmOperationsLog realmLog;
+
+	@Before
+	public void before() {
+		this.realmLog = new RealmOperationsLog(REALM, 100, true);
+	}
+
+	private static LogMessage newMessage(Locator locator) {
+		return new LogMessage(REALM, SYSTEM_USER_AGENT, locator, LogSeverity.Info, LogMessageState.Active,
+				ResourceBundle.getBundle("strolch-agent"), "operationsLog.persist.failed");
+	}
+
+	@Test
+	public void shouldReturnMessagesForLocatorInOrder() {
+		Locator locator = Locator.valueOf(AGENT, "li.strolch.agent", "ordered");
+		List<LogMessage> added = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			LogMessage message = newMessage(locator);
+			this.realmLog.add(message);
+			added.add(message);
+		}
+
+		this.realmLog.remove(added.get(10));
+		added.remove(10);
+
+		assertEquals(added, new ArrayList<>(this.realmLog.getMessagesFor(locator).orElseThrow()));
+	}
+
+	@Test
+	public void shouldRequeueChangesOfFailedFlush() {
+		LogMessage saved = newMessage(Locator.valueOf(AGENT, "li.strolch.agent", "saved"));
+		LogMessage updated = newMessage(Locator.valueOf(AGENT, "li.strolch.agent", "updated"));
+		LogMessage removed = newMessage(Locator.valueOf(AGENT, "li.strolch.agent", "removed"));
+		this.realmLog.load(updated);
+		this.realmLog.load(removed);
+
+		this.realmLog.add(saved);
+		this.realmLog.stateChanged(updated);
+		this.realmLog.remove(removed);
+
+		PendingChanges changes = this.realmLog.drainPendingChanges();
+		assertEquals(3, changes.size());
+		assertTrue(this.realmLog.drainPendingChanges().isEmpty());
+
+		// persisting failed, so the changes must be written with the next flush
+		this.realmLog.requeue(changes);
+		assertTrue(this.realmLog.scheduleFlush());
+
+		PendingChanges requeued = this.realmLog.drainPendingChanges();
+		assertEquals(changes.toSave, requeued.toSave);
+		assertEquals(changes.toUpdate, requeued.toUpdate);
+		assertEquals(changes.toRemove, requeued.toRemove);
+	}
+
+	@Test
+	public void shouldKeepNewerChangesWhenRequeueing() {
+		LogMessage saved = newMessage(Locator.valueOf(AGENT, "li.strolch.agent", "saved"));
+		LogMessage evicted = newMessage(Locator.valueOf(AGENT, "li.strolch.agent", "evicted"));
+		this.realmLog.add(saved);
+		this.realmLog.add(evicted);
+		PendingChanges changes = this.realmLog.drainPendingChanges();
+		assertEquals(2, changes.toSave.size());
+
+		// while the changes were being persisted, one message changed and the other was removed again
+		this.realmLog.stateChanged(saved);
+		this.realmLog.remove(evicted);
+
+		this.realmLog.requeue(changes);
+
+		// the unsaved message is still saved, but the removed message is neither saved nor removed
+		PendingChanges requeued = this.realmLog.drainPendingChanges();
+		assertEquals(List.of(saved), requeued.toSave);
+		assertTrue(requeued.toUpdate.isEmpty());
+		assertTrue(requeued.toRemove.isEmpty());
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class MetricsRegistryTest {
+
+	@Test
+	public void shouldMapValuesToBuckets() {
+		for (long value = 0L; value < 100000L; value++) {
+			int index = Histogram.index(value);
+			assertTrue("value " + value, Histogram.lowerBound(index) <= value);
+			assertTrue("value " + value, Histogram.lowerBound(index + 1) > value);
+		}
+
+		assertEquals(Histogram.NR_OF_BUCKETS - 1, Histogram.index(Long.MAX_VALUE));
+		assertEquals(15, Histogram.index(15L));
+		assertEquals(16, Histogram.index(16L));
+	}
+
+	@Test
+	public void shouldComputeQuantiles() {
+		Histogram histogram = new Histogram();
+		assertEquals(0L, histogram.getValueAtQuantile(0.99));
+
+		for (long i = 1L; i <= 100000L; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+		}
+
+		assertEquals(100000L, histogram.getCount());
+		assertEquals(TimeUnit.MICROSECONDS.toNanos(100000L), histogram.getMax());
+
+		long[] values = histogram.getValuesAtQuantiles(new double[] { 0.5, 0.99, 1.0 });
+		assertEquals(TimeUnit.MICROSECONDS.toNanos(50000L), values[0], 0.04 * values[0]);
+		assertEquals(TimeUnit.MICROSECONDS.toNanos(99000L), values[1], 0.04 * values[1]);
+		assertEquals(histogram.getMax(), values[2]);
+	}
+
+	@Test
+	public void shouldShareLabelledChildren() {
+		MetricsRegistry registry = new MetricsRegistry();
+		MetricFamily<Counter> family = registry.counter("test_total", "Test", "realm", "type");
+
+		family.labels("defaultRealm", "Resource").inc();
+		family.labels("defaultRealm", "Resource").add(2L);
+		family.labels("defaultRealm", "Order").inc();
+
+		assertSame(family, registry.counter("test_total", "Test", "realm", "type"));
+		assertEquals(3L, family.labels("defaultRealm", "Resource").get());
+		assertEquals(1L, family.labels(new String[] { "defaultRealm", "Order" }).get());
+		assertEquals(2, family.getChildren().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldFailOnWrongNrOfLabels() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.counter("test_total", "Test", "realm").labels("defaultRealm", "Resource");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldFailOnChangedType() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.counter("test_total", "Test", "realm");
+		registry.gauge("test_total", "Test", "realm");
+	}
+
+	@Test
+	public void shouldRenderPrometheusText() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.counter("test_total", "Test counter", "service").labels("a\"b\\c").add(5L);
+		registry.gauge("test_gauge", "Test gauge").labels().setSupplier(() -> 42L);
+		Histogram histogram = registry.timer("test_seconds", "Test timer", "realm").labels("defaultRealm");
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(250L));
+
+		String text = registry.toPrometheusText();
+
+		assertTrue(text, text.contains("# HELP test_total Test counter\n# TYPE test_total counter\n"));
+		assertTrue(text, text.contains("test_total{service=\"a\\\"b\\\\c\"} 5\n"));
+		assertTrue(text, text.contains("# TYPE test_gauge gauge\ntest_gauge 42\n"));
+		assertTrue(text, text.contains("# TYPE test_seconds summary\n"));
+		assertTrue(text, text.contains("test_seconds{realm=\"defaultRealm\",quantile=\"0.99\"} 0.25"));
+		assertTrue(text, text.contains("test_seconds_sum{realm=\"defaultRealm\"} 0.25\n"));
+		assertTrue(text, text.contains("test_seconds_count{realm=\"defaultRealm\"} 1\n"));
+
+		// families are sorted by name
+		assertTrue(text, text.indexOf("test_gauge") < text.indexOf("test_seconds"));
+		assertTrue(text, text.indexOf("test_seconds") < text.indexOf("test_total"));
+	}
+}
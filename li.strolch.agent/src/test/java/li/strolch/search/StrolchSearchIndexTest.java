@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.search;
+
+import static java.util.Arrays.asList;
+import static li.strolch.model.ModelGenerator.*;
+import static li.strolch.search.ExpressionsSupport.param;
+import static li.strolch.search.PredicatesSupport.isEqualTo;
+import static li.strolch.search.PredicatesSupport.isIn;
+import static org.junit.Assert.*;
+
+import li.strolch.RuntimeMock;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.Order;
+import li.strolch.model.parameter.StringParameter;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.utils.collections.DateRange;
+import li.strolch.utils.iso8601.ISO8601FormatFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the {@link StrolchSearch} using a {@link li.strolch.agent.api.ParameterIndex}. As indexes outlive the TX in
+ * which they were added, this test has its own runtime
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class StrolchSearchIndexTest {
+
+	private static final String TARGET_PATH = "target/" + StrolchSearchIndexTest.class.getSimpleName();
+	private static final String SOURCE_PATH = "src/test/resources/transienttest";
+
+	private static RuntimeMock runtimeMock;
+	private static Certificate cert;
+
+	@BeforeClass
+	public static void beforeClass() {
+		runtimeMock = new RuntimeMock(TARGET_PATH, SOURCE_PATH).mockRuntime();
+		runtimeMock.startContainer();
+		cert = runtimeMock.getPrivilegeHandler().authenticate("test", "test".toCharArray());
+
+		StrolchRealm realm = runtimeMock.getAgent().getContainer().getRealm(cert);
+		try (StrolchTransaction tx = realm.openTx(cert, StrolchSearchIndexTest.class, false)) {
+			for (String id : asList("ggg", "ccc", "aaa", "bbb", "ddd")) {
+				tx.add(createOrder(id, id.toUpperCase(), "SortingType"));
+			}
+			tx.commitOnClose();
+		}
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (cert != null)
+			runtimeMock.getPrivilegeHandler().invalidate(cert);
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	@Test
+	public void shouldSearchOrdersWithIndex() {
+		StrolchRealm realm = runtimeMock.getAgent().getContainer().getRealm(cert);
+		try (StrolchTransaction tx = realm.openTx(cert, StrolchSearchIndexTest.class, false)) {
+
+			tx.getOrderMap().addIndex("SortingType", BAG_ID, PARAM_STRING_ID, false);
+			tx.getOrderMap().addIndex("SortingType", BAG_ID, PARAM_DATE_ID, true);
+			assertNotNull(tx.getOrderMap().getIndex(tx, "SortingType", BAG_ID, PARAM_STRING_ID));
+			assertNull(tx.getOrderMap().getIndex(tx, "SortingType", BAG_ID, PARAM_INTEGER_ID));
+
+			assertEquals(5, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID).isEqualTo("Strolch")).search(tx).toList().size());
+			assertEquals(5, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID, isEqualTo("Strolch"))).search(tx).toList().size());
+			assertEquals(0, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID, isEqualTo("dfgdfg"))).search(tx).toList().size());
+			assertEquals(5, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID, isIn(asList("Strolch", "dfgdfg")))).search(tx).toList()
+					.size());
+
+			DateRange dateRange = new DateRange()
+					.from(ISO8601FormatFactory.getInstance().parseDate("2012-01-01T00:00:00.000+01:00"), true)
+					.to(ISO8601FormatFactory.getInstance().parseDate("2013-01-01T00:00:00.000+01:00"), true);
+			assertEquals(5, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID).isEqualTo("Strolch"))
+					.where(param(BAG_ID, PARAM_DATE_ID).inRange(dateRange)).search(tx).toList().size());
+
+			dateRange = new DateRange()
+					.from(ISO8601FormatFactory.getInstance().parseDate("2013-01-01T00:00:00.000+01:00"), true);
+			assertEquals(0, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_DATE_ID).inRange(dateRange)).search(tx).toList().size());
+
+			// elements modified in the TX must be found, even though the index only knows the committed values
+			Order order = tx.getOrderBy("SortingType", "aaa", true);
+			StringParameter stringP = order.getParameter(BAG_ID, PARAM_STRING_ID);
+			stringP.setValue("Changed");
+			tx.update(order);
+
+			assertEquals(4, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID).isEqualTo("Strolch")).search(tx).toList().size());
+			assertEquals(1, new OrderSearch().types("SortingType")
+					.where(param(BAG_ID, PARAM_STRING_ID).isEqualTo("Changed")).search(tx).toList().size());
+
+			// the modification is only for this TX
+			tx.rollbackOnClose();
+		}
+	}
+}
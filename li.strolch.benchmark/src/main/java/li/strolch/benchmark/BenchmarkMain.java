@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks of this module with the given JMH options, and writes the results as JSON to {@link
+ * #RESULT_FILE} unless the result format or file is passed as option, so that the results of different versions can
+ * be compared
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class BenchmarkMain {
+
+	public static final String RESULT_FORMAT = "json";
+	public static final String RESULT_FILE = "jmh-result.json";
+
+	private static final String OPT_RESULT_FORMAT = "-rf";
+	private static final String OPT_RESULT_FILE = "-rff";
+
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<>(Arrays.asList(args));
+
+		if (!options.contains(OPT_RESULT_FORMAT)) {
+			options.add(OPT_RESULT_FORMAT);
+			options.add(RESULT_FORMAT);
+		}
+		if (!options.contains(OPT_RESULT_FILE)) {
+			options.add(OPT_RESULT_FILE);
+			options.add(RESULT_FILE);
+		}
+
+		org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+	}
+}
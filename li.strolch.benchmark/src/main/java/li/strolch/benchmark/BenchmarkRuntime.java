@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.agent.api.StrolchBootstrapper;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.utils.helper.FileHelper;
+
+/**
+ * Starts a {@link StrolchAgent} with a single in-memory realm, so that the agent can be benchmarked without a
+ * database. The configuration is copied from the class path to a temporary root path, which is deleted again when the
+ * runtime is stopped
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class BenchmarkRuntime {
+
+	public static final String ENVIRONMENT = "dev";
+	public static final String USERNAME = "transient";
+
+	private static final String RUNTIME_CONFIG = "/runtime/config/";
+	private static final String[] CONFIG_FILES = { "StrolchConfiguration.xml", "PrivilegeConfig.xml",
+			"PrivilegeRoles.xml", "PrivilegeUsers.xml" };
+
+	private final File rootPath;
+	private final StrolchAgent agent;
+	private final Certificate certificate;
+
+	private BenchmarkRuntime(File rootPath, StrolchAgent agent, Certificate certificate) {
+		this.rootPath = rootPath;
+		this.agent = agent;
+		this.certificate = certificate;
+	}
+
+	public StrolchAgent getAgent() {
+		return this.agent;
+	}
+
+	public Certificate getCertificate() {
+		return this.certificate;
+	}
+
+	public StrolchTransaction openTx(String action, boolean readOnly) {
+		return this.agent.openTx(this.certificate, action, readOnly);
+	}
+
+	public void stop() {
+		try {
+			this.agent.getPrivilegeHandler().invalidate(this.certificate);
+			this.agent.stop();
+			this.agent.destroy();
+		} finally {
+			FileHelper.deleteFile(this.rootPath, false);
+		}
+	}
+
+	public static BenchmarkRuntime start() throws IOException {
+		File rootPath = Files.createTempDirectory("strolch-benchmark").toFile();
+		try {
+			File configPath = new File(rootPath, StrolchBootstrapper.PATH_CONFIG);
+			if (!configPath.mkdir())
+				throw new IllegalStateException("Could not create config path " + configPath.getAbsolutePath());
+
+			for (String configFile : CONFIG_FILES) {
+				try (InputStream in = BenchmarkRuntime.class.getResourceAsStream(RUNTIME_CONFIG + configFile)) {
+					if (in == null)
+						throw new IllegalStateException("Missing resource " + RUNTIME_CONFIG + configFile);
+					Files.copy(in, new File(configPath, configFile).toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+
+			StrolchAgent agent = new StrolchBootstrapper(BenchmarkRuntime.class).setupByRoot(ENVIRONMENT, rootPath);
+			agent.initialize();
+			agent.start();
+
+			Certificate certificate = agent.getPrivilegeHandler().authenticate(USERNAME, USERNAME.toCharArray());
+			return new BenchmarkRuntime(rootPath, agent, certificate);
+
+		} catch (RuntimeException | IOException e) {
+			FileHelper.deleteFile(rootPath, false);
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import static li.strolch.model.ModelGenerator.*;
+
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.model.Order;
+import li.strolch.model.Resource;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures cloning the root elements, as is done for every element which is modified in a transaction
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementCloneBenchmark {
+
+	private Resource resource;
+	private Order order;
+	private Activity activity;
+
+	@Setup
+	public void setup() {
+		this.resource = createResource("@res", "Resource", "MyType");
+		this.order = createOrder("@ord", "Order", "MyType");
+		this.activity = createActivity("@act", "Activity", "MyType", TimeOrdering.SERIES);
+	}
+
+	@Benchmark
+	public Resource cloneResource() {
+		return this.resource.getClone();
+	}
+
+	@Benchmark
+	public Order cloneOrder() {
+		return this.order.getClone();
+	}
+
+	@Benchmark
+	public Activity cloneActivity() {
+		return this.activity.getClone();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import static li.strolch.model.ModelGenerator.*;
+
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.model.Locator;
+import li.strolch.model.Resource;
+import li.strolch.model.Tags;
+import li.strolch.model.parameter.Parameter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures building, parsing and comparing {@link Locator Locators}, which are used as the keys for locking elements
+ * and for referencing elements from the UI
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatorBenchmark {
+
+	private Resource resource;
+	private Parameter<?> parameter;
+	private String locatorPath;
+	private Locator locator;
+	private Locator equalLocator;
+
+	@Setup
+	public void setup() {
+		this.resource = createResource("@res", "Resource", "MyType");
+		this.parameter = this.resource.getParameter(BAG_ID, PARAM_STRING_ID);
+		this.locator = this.parameter.getLocator();
+		this.locatorPath = this.locator.toString();
+		this.equalLocator = Locator.valueOf(this.locatorPath);
+	}
+
+	@Benchmark
+	public Locator resourceLocator() {
+		return this.resource.getLocator();
+	}
+
+	@Benchmark
+	public Locator parameterLocator() {
+		return this.parameter.getLocator();
+	}
+
+	@Benchmark
+	public Locator valueOfPath() {
+		return Locator.valueOf(this.locatorPath);
+	}
+
+	@Benchmark
+	public Locator valueOfElements() {
+		return Locator.valueOf(Tags.RESOURCE, "MyType", "@res", Tags.BAG, BAG_ID, PARAM_STRING_ID);
+	}
+
+	@Benchmark
+	public Locator append() {
+		return this.resource.getLocator().append(Tags.BAG, BAG_ID, PARAM_STRING_ID);
+	}
+
+	@Benchmark
+	public String toPath() {
+		return this.locator.toString();
+	}
+
+	@Benchmark
+	public boolean equalsAndHashCode() {
+		return this.locator.hashCode() == this.equalLocator.hashCode() && this.locator.equals(this.equalLocator);
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import li.strolch.agent.api.LockHandler;
+import li.strolch.agent.impl.DefaultLockHandler;
+import li.strolch.model.Locator;
+import li.strolch.model.Tags;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures locking and releasing elements with the {@link DefaultLockHandler}, once with a locator per thread, i.e.
+ * without contention, and once with a locator shared by all threads
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockHandlerBenchmark {
+
+	private BenchmarkRuntime runtime;
+	private LockHandler lockHandler;
+	private Locator sharedLocator;
+
+	private final AtomicInteger threadIds = new AtomicInteger();
+
+	@State(Scope.Thread)
+	public static class ThreadLocator {
+		private Locator locator;
+
+		@Setup
+		public void setup(LockHandlerBenchmark benchmark) {
+			int threadId = benchmark.threadIds.incrementAndGet();
+			this.locator = Locator.valueOf(Tags.RESOURCE, "LockType", "@thread" + threadId);
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		this.runtime = BenchmarkRuntime.start();
+		this.lockHandler = new DefaultLockHandler(this.runtime.getAgent(), "benchmark", TimeUnit.SECONDS, 10L);
+		this.sharedLocator = Locator.valueOf(Tags.RESOURCE, "LockType", "@shared");
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.runtime.stop();
+	}
+
+	@Benchmark
+	public void lockAndRelease(ThreadLocator threadLocator) {
+		this.lockHandler.lock(threadLocator.locator);
+		this.lockHandler.releaseLock(threadLocator.locator);
+	}
+
+	@Benchmark
+	public void reentrantLockAndRelease(ThreadLocator threadLocator) {
+		this.lockHandler.lock(threadLocator.locator);
+		this.lockHandler.lock(threadLocator.locator);
+		this.lockHandler.releaseLock(threadLocator.locator);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void contendedLockAndRelease() {
+		this.lockHandler.lock(this.sharedLocator);
+		this.lockHandler.releaseLock(this.sharedLocator);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import static li.strolch.model.ModelGenerator.*;
+
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.model.ParameterBag;
+import li.strolch.model.Resource;
+import li.strolch.model.parameter.StringParameter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures reading and writing the parameters of the {@link ParameterBag ParameterBags} of an element, which is the
+ * most frequent operation of business logic
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterBagBenchmark {
+
+	private Resource resource;
+	private double value;
+
+	@Setup
+	public void setup() {
+		this.resource = createResource("@res", "Resource", "MyType");
+	}
+
+	@Benchmark
+	public ParameterBag getParameterBag() {
+		return this.resource.getParameterBag(BAG_ID);
+	}
+
+	@Benchmark
+	public StringParameter getParameter() {
+		return this.resource.getParameter(BAG_ID, PARAM_STRING_ID);
+	}
+
+	@Benchmark
+	public boolean hasParameter() {
+		return this.resource.hasParameter(BAG_ID, PARAM_STRING_ID);
+	}
+
+	@Benchmark
+	public String getString() {
+		return this.resource.getString(BAG_ID, PARAM_STRING_ID);
+	}
+
+	@Benchmark
+	public double getDouble() {
+		return this.resource.getDouble(BAG_ID, PARAM_FLOAT_ID);
+	}
+
+	@Benchmark
+	public double setDouble() {
+		this.value += 1.0D;
+		this.resource.setDouble(BAG_ID, PARAM_FLOAT_ID, this.value);
+		return this.value;
+	}
+}
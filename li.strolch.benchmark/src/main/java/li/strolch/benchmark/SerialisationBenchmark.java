@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import static li.strolch.model.ModelGenerator.createResource;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import li.strolch.model.Resource;
+import li.strolch.model.binary.StrolchElementFromBinaryParser;
+import li.strolch.model.binary.StrolchElementToBinaryVisitor;
+import li.strolch.model.json.ResourceFromJsonVisitor;
+import li.strolch.model.json.StrolchRootElementToJsonVisitor;
+import li.strolch.model.xml.SimpleStrolchElementListener;
+import li.strolch.model.xml.StrolchElementToXmlStringVisitor;
+import li.strolch.model.xml.XmlModelSaxReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures writing and parsing a {@link Resource} with all parameter types and timed states using the JSON, XML and
+ * binary visitors
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialisationBenchmark {
+
+	private Resource resource;
+	private String json;
+	private byte[] xml;
+	private byte[] binary;
+
+	private SAXParser saxParser;
+
+	@Setup
+	public void setup() throws Exception {
+		this.resource = createResource("@res", "Resource", "MyType");
+		this.json = toJson();
+		this.xml = toXml();
+		this.binary = toBinary();
+		this.saxParser = SAXParserFactory.newInstance().newSAXParser();
+	}
+
+	@Benchmark
+	public String toJson() {
+		return this.resource.accept(new StrolchRootElementToJsonVisitor()).toString();
+	}
+
+	@Benchmark
+	public Resource fromJson() {
+		JsonObject jsonObject = JsonParser.parseString(this.json).getAsJsonObject();
+		return new ResourceFromJsonVisitor().visit(jsonObject);
+	}
+
+	@Benchmark
+	public byte[] toXml() {
+		return this.resource.accept(new StrolchElementToXmlStringVisitor().withoutDocument())
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Resource fromXml() throws Exception {
+		SimpleStrolchElementListener listener = new SimpleStrolchElementListener();
+		this.saxParser.parse(new ByteArrayInputStream(this.xml), new XmlModelSaxReader(listener));
+		return listener.getResources().get(0);
+	}
+
+	@Benchmark
+	public byte[] toBinary() {
+		return this.resource.accept(new StrolchElementToBinaryVisitor());
+	}
+
+	@Benchmark
+	public Resource fromBinary() {
+		return new StrolchElementFromBinaryParser().parseResource(this.binary);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import static li.strolch.model.ModelGenerator.*;
+import static li.strolch.search.ExpressionsSupport.param;
+import static li.strolch.search.PredicatesSupport.containsIgnoreCase;
+import static li.strolch.search.PredicatesSupport.isEqualTo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.model.Resource;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.search.ResourceSearch;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures filtering the elements of a populated transient realm using a {@link ResourceSearch}, each search in its
+ * own read only transaction
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StrolchSearchBenchmark {
+
+	private static final String TYPE = "SearchType";
+	private static final String OTHER_TYPE = "OtherType";
+	private static final String NEEDLE = "needle";
+
+	@Param({ "1000", "10000", "100000" })
+	public int nrOfElements;
+
+	private BenchmarkRuntime runtime;
+
+	@Setup
+	public void setup() throws Exception {
+		this.runtime = BenchmarkRuntime.start();
+
+		try (StrolchTransaction tx = this.runtime.openTx("populate", false)) {
+			List<Resource> resources = createResources(0, this.nrOfElements, "search", "Search", TYPE);
+			for (int i = 0; i < resources.size(); i++) {
+				// every hundredth element is a match
+				if (i % 100 == 0)
+					resources.get(i).setString(BAG_ID, PARAM_STRING_ID, NEEDLE);
+				tx.add(resources.get(i));
+			}
+
+			// elements of another type, which are not to be filtered
+			for (Resource resource : createResources(0, this.nrOfElements, "other", "Other", OTHER_TYPE)) {
+				tx.add(resource);
+			}
+
+			tx.commitOnClose();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.runtime.stop();
+	}
+
+	@Benchmark
+	public List<Resource> searchByType() {
+		try (StrolchTransaction tx = this.runtime.openTx("searchByType", true)) {
+			return new ResourceSearch().types(TYPE).search(tx).toList();
+		}
+	}
+
+	@Benchmark
+	public List<Resource> searchByParamEquals() {
+		try (StrolchTransaction tx = this.runtime.openTx("searchByParamEquals", true)) {
+			return new ResourceSearch().types(TYPE).where(param(BAG_ID, PARAM_STRING_ID, isEqualTo(NEEDLE)))
+					.search(tx).toList();
+		}
+	}
+
+	@Benchmark
+	public List<Resource> searchByParamContains() {
+		try (StrolchTransaction tx = this.runtime.openTx("searchByParamContains", true)) {
+			return new ResourceSearch().types(TYPE).where(param(BAG_ID, PARAM_STRING_ID, containsIgnoreCase("EED")))
+					.search(tx).toList();
+		}
+	}
+
+	@Benchmark
+	public List<Resource> searchAllTypesByParam() {
+		try (StrolchTransaction tx = this.runtime.openTx("searchAllTypesByParam", true)) {
+			return new ResourceSearch().types().where(param(BAG_ID, PARAM_STRING_ID, isEqualTo(NEEDLE))).search(tx)
+					.toList();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.model.timevalue.ITimeValue;
+import li.strolch.model.timevalue.ITimeVariable;
+import li.strolch.model.timevalue.impl.FloatArrayTimeVariable;
+import li.strolch.model.timevalue.impl.FloatValue;
+import li.strolch.model.timevalue.impl.TimeVariable;
+import li.strolch.model.timevalue.impl.ValueChange;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures reading and changing the {@link ITimeVariable} implementations with many values, as is the case for the
+ * timed states of planning Resources
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeVariableBenchmark {
+
+	private static final long STEP = 10L;
+
+	@Param({ "TimeVariable", "FloatArrayTimeVariable" })
+	public String implementation;
+
+	@Param({ "100", "10000" })
+	public int nrOfValues;
+
+	private ITimeVariable<FloatValue> timeVariable;
+	private Random random;
+	private long end;
+
+	@Setup
+	public void setup() {
+		if (this.implementation.equals("TimeVariable"))
+			this.timeVariable = new TimeVariable<>();
+		else if (this.implementation.equals("FloatArrayTimeVariable"))
+			this.timeVariable = new FloatArrayTimeVariable();
+		else
+			throw new IllegalArgumentException("Unhandled implementation " + this.implementation);
+
+		this.random = new Random(1L);
+		for (int i = 0; i < this.nrOfValues; i++) {
+			this.timeVariable.setValueAt(i * STEP, new FloatValue((double) this.random.nextInt(100)));
+		}
+		this.end = this.nrOfValues * STEP;
+	}
+
+	private long randomTime() {
+		return (long) (this.random.nextDouble() * this.end);
+	}
+
+	@Benchmark
+	public ITimeValue<FloatValue> getValueAt() {
+		return this.timeVariable.getValueAt(randomTime());
+	}
+
+	@Benchmark
+	public Collection<ITimeValue<FloatValue>> getFutureValues() {
+		return this.timeVariable.getFutureValues(randomTime());
+	}
+
+	/**
+	 * Applies a change and its reverse change at an existing time, without compacting, so that the number of values
+	 * stays the same over all invocations
+	 */
+	@Benchmark
+	public ITimeVariable<FloatValue> applyChange() {
+		long time = this.random.nextInt(this.nrOfValues) * STEP;
+		this.timeVariable.applyChange(new ValueChange<>(time, new FloatValue(1.0D)), false);
+		this.timeVariable.applyChange(new ValueChange<>(time, new FloatValue(-1.0D)), false);
+		return this.timeVariable;
+	}
+}
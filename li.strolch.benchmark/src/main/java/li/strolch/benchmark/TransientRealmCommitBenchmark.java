@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.benchmark;
+
+import static li.strolch.model.ModelGenerator.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.model.Resource;
+import li.strolch.persistence.api.StrolchTransaction;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the throughput of transactions on a transient realm, i.e. the overhead of opening, committing and closing
+ * transactions without the costs of a database
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransientRealmCommitBenchmark {
+
+	private static final String TYPE = "CommitType";
+	private static final String ADDED_TYPE = "AddedType";
+	private static final int NR_OF_ELEMENTS = 1000;
+
+	private BenchmarkRuntime runtime;
+	private String[] ids;
+	private long sequence;
+
+	@Setup
+	public void setup() throws Exception {
+		this.runtime = BenchmarkRuntime.start();
+
+		List<Resource> resources = createResources(0, NR_OF_ELEMENTS, "commit", "Commit", TYPE);
+		this.ids = resources.stream().map(Resource::getId).toArray(String[]::new);
+
+		try (StrolchTransaction tx = this.runtime.openTx("populate", false)) {
+			resources.forEach(tx::add);
+			tx.commitOnClose();
+		}
+	}
+
+	/**
+	 * Removes the elements added in the iteration, so that all iterations start with the same realm size
+	 */
+	@TearDown(Level.Iteration)
+	public void removeAdded() {
+		try (StrolchTransaction tx = this.runtime.openTx("removeAdded", false)) {
+			tx.getResourceMap().removeAllBy(tx, ADDED_TYPE);
+			tx.commitOnClose();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.runtime.stop();
+	}
+
+	@Benchmark
+	public Resource addAndCommit() {
+		String id = "added" + this.sequence++;
+		Resource resource = createResource(id, id, ADDED_TYPE);
+		try (StrolchTransaction tx = this.runtime.openTx("addAndCommit", false)) {
+			tx.add(resource);
+			tx.commitOnClose();
+		}
+		return resource;
+	}
+
+	@Benchmark
+	public Resource updateAndCommit() {
+		String id = this.ids[(int) (this.sequence++ % NR_OF_ELEMENTS)];
+		try (StrolchTransaction tx = this.runtime.openTx("updateAndCommit", false)) {
+			Resource resource = tx.getResourceBy(TYPE, id, true);
+			resource.setString(BAG_ID, PARAM_STRING_ID, "updated" + this.sequence);
+			tx.update(resource);
+			tx.commitOnClose();
+			return resource;
+		}
+	}
+
+	@Benchmark
+	public Resource readOnly() {
+		String id = this.ids[(int) (this.sequence++ % NR_OF_ELEMENTS)];
+		try (StrolchTransaction tx = this.runtime.openTx("readOnly", true)) {
+			return tx.getResourceBy(TYPE, id, true);
+		}
+	}
+}
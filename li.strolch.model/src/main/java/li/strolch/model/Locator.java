@@ -16,6 +16,7 @@
 package li.strolch.model;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import li.strolch.exception.StrolchException;
 import li.strolch.utils.dbc.DBC;
@@ -37,6 +38,11 @@ import li.strolch.utils.helper.StringHelper;
  * A {@link Locator} is always immutable, modifications return a new instance
  * </p>
  *
+ * <p>
+ * As locators are used as keys for locking, in transactions and in the execution, the hash code is computed on
+ * construction, and the path segments are interned up to a maximum number of segments
+ * </p>
+ *
  * @author Robert von Burg <eitch@eitchnet.ch>
  */
 public class Locator {
@@ -46,13 +52,20 @@ public class Locator {
 	 */
 	public static final String PATH_SEPARATOR = "/"; //$NON-NLS-1$
 
+	/**
+	 * The maximum number of path segments which are interned, so that the segments of locators created from different
+	 * sources are the same instances, and thus {@link #equals(Object)} mostly compares references
+	 */
+	private static final int MAX_INTERNED_SEGMENTS = 10000;
+	private static final Map<String, String> internedSegments = new ConcurrentHashMap<>();
+
 	/**
 	 * {@link List} of path elements, with the first being the top level or root element
 	 */
 	private final List<String> pathElements;
 
+	private final int hashcode;
 	private String asString;
-	private Integer hashcode;
 
 	/**
 	 * Constructs a new {@link Locator} with the given list of path elements
@@ -68,7 +81,12 @@ public class Locator {
 			throw new StrolchException(
 					"The path elements may not be null and must contain at least 1 item"); //$NON-NLS-1$
 		}
-		this.pathElements = Collections.unmodifiableList(new ArrayList<>(pathElements));
+		List<String> elements = new ArrayList<>(pathElements.size());
+		for (String element : pathElements) {
+			elements.add(intern(element));
+		}
+		this.pathElements = Collections.unmodifiableList(elements);
+		this.hashcode = 31 + elements.hashCode();
 	}
 
 	/**
@@ -81,7 +99,7 @@ public class Locator {
 	 * 		if the path is invalid, meaning has less than two elements in it
 	 */
 	private Locator(String... path) throws StrolchException {
-		this.pathElements = Collections.unmodifiableList(Arrays.asList(path));
+		this(Arrays.asList(path));
 	}
 
 	/**
@@ -94,37 +112,60 @@ public class Locator {
 	 * 		if the path is invalid, meaning has less than two elements in it
 	 */
 	private Locator(String path) throws StrolchException {
-		this.pathElements = Collections.unmodifiableList(parsePath(path));
+		this(parsePath(path));
 	}
 
 	/**
-	 * Internal constructor to append a sub path to a constructor
+	 * Internal constructor to append a sub path to a locator. The path elements of the given locator are already
+	 * interned and its hash code is computed, so only the sub path must be handled
 	 *
-	 * @param path
-	 * 		the base path of the locator
+	 * @param locator
+	 * 		the base locator
 	 * @param subPath
 	 * 		the additional path
 	 */
-	private Locator(List<String> path, List<String> subPath) {
-		List<String> fullPath = new ArrayList<>();
-		fullPath.addAll(path);
-		fullPath.addAll(subPath);
+	private Locator(Locator locator, List<String> subPath) {
+		List<String> fullPath = new ArrayList<>(locator.pathElements.size() + subPath.size());
+		fullPath.addAll(locator.pathElements);
+		int hashcode = locator.hashcode - 31;
+		for (String element : subPath) {
+			String interned = intern(element);
+			fullPath.add(interned);
+			hashcode = 31 * hashcode + (interned == null ? 0 : interned.hashCode());
+		}
 		this.pathElements = Collections.unmodifiableList(fullPath);
+		this.hashcode = 31 + hashcode;
 	}
 
 	/**
-	 * Internal constructor to append a element to a constructor
+	 * Internal constructor to trim a locator to the given size. The path elements of the given locator are already
+	 * interned
 	 *
-	 * @param path
-	 * 		the base path of the locator
-	 * @param element
-	 * 		the additional element
+	 * @param locator
+	 * 		the locator to trim
+	 * @param size
+	 * 		the number of elements to keep
 	 */
-	private Locator(List<String> path, String element) {
-		List<String> fullPath = new ArrayList<>();
-		fullPath.addAll(path);
-		fullPath.add(element);
-		this.pathElements = Collections.unmodifiableList(fullPath);
+	private Locator(Locator locator, int size) {
+		List<String> path = new ArrayList<>(locator.pathElements.subList(0, size));
+		this.pathElements = Collections.unmodifiableList(path);
+		this.hashcode = 31 + path.hashCode();
+	}
+
+	/**
+	 * Returns the interned instance of the given path segment, as long as not more than {@link
+	 * #MAX_INTERNED_SEGMENTS} are interned, in which case the segment is returned as is
+	 */
+	private static String intern(String segment) {
+		if (segment == null)
+			return null;
+		String interned = internedSegments.get(segment);
+		if (interned != null)
+			return interned;
+		if (internedSegments.size() >= MAX_INTERNED_SEGMENTS)
+			return segment;
+		interned = internedSegments.putIfAbsent(segment, segment);
+		return interned == null ? segment : interned;
 	}
 
 	public String get(int part) {
@@ -159,7 +200,7 @@ public class Locator {
 	 * @return the new locator
 	 */
 	public Locator append(List<String> subPathElements) {
-		return new Locator(this.pathElements, subPathElements);
+		return new Locator(this, subPathElements);
 	}
 
 	/**
@@ -171,7 +212,7 @@ public class Locator {
 	 * @return the new locator
 	 */
 	public Locator append(String... subPathElements) {
-		return new Locator(this.pathElements, Arrays.asList(subPathElements));
+		return new Locator(this, Arrays.asList(subPathElements));
 	}
 
 	/**
@@ -183,13 +224,13 @@ public class Locator {
 	 * @return the new locator
 	 */
 	public Locator append(String element) {
-		return new Locator(this.pathElements, element);
+		return new Locator(this, Collections.singletonList(element));
 	}
 
 	public Locator trim(int size) {
 		if (this.pathElements.size() == size)
 			return this;
-		return new Locator(this.pathElements.subList(0, size));
+		return new Locator(this, size);
 	}
 
 	/**
@@ -215,7 +256,7 @@ public class Locator {
 	 * @throws StrolchException
 	 * 		if the path is empty, or does not contain at least 2 elements separated by {@link #PATH_SEPARATOR}
 	 */
-	private List<String> parsePath(String path) throws StrolchException {
+	private static List<String> parsePath(String path) throws StrolchException {
 		if (StringHelper.isEmpty(path)) {
 			throw new StrolchException("A path may not be empty!"); //$NON-NLS-1$
 		}
@@ -279,11 +320,6 @@ public class Locator {
 
 	@Override
 	public int hashCode() {
-		if (this.hashcode == null) {
-			final int prime = 31;
-			this.hashcode = prime * 1 + ((this.pathElements == null) ? 0 : this.pathElements.hashCode());
-		}
-
 		return this.hashcode;
 	}
 
@@ -299,14 +335,9 @@ public class Locator {
 			return false;
 		}
 		Locator other = (Locator) obj;
-		if (this.pathElements == null) {
-			if (other.pathElements != null) {
-				return false;
-			}
-		} else if (!this.pathElements.equals(other.pathElements)) {
+		if (this.hashcode != other.hashcode)
 			return false;
-		}
-		return true;
+		return this.pathElements.equals(other.pathElements);
 	}
 
 	/**
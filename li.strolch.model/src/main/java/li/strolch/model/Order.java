@@ -96,6 +96,12 @@ public class Order extends AbstractStrolchRootElement implements StrolchRootElem
 		super.setId(id);
 	}
 
+	@Override
+	public void setType(String type) {
+		this.locator = null;
+		super.setType(type);
+	}
+
 	@Override
 	public String getObjectType() {
 		return Tags.ORDER;
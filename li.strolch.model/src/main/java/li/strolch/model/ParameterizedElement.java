@@ -40,6 +40,8 @@ import li.strolch.utils.time.PeriodDuration;
 public abstract class ParameterizedElement extends AbstractStrolchElement {
 
 	protected GroupedParameterizedElement parent;
+	protected Locator locator;
+	protected Locator parentLocator;
 	protected Map<String, Parameter<?>> parameterMap;
 	protected String type;
 
@@ -1003,11 +1005,22 @@ public abstract class ParameterizedElement extends AbstractStrolchElement {
 	@Override
 	public abstract void fillLocator(LocatorBuilder lb);
 
+	@Override
+	public void setId(String id) {
+		this.locator = null;
+		super.setId(id);
+	}
+
 	@Override
 	public Locator getLocator() {
-		LocatorBuilder lb = new LocatorBuilder();
-		fillLocator(lb);
-		return lb.build();
+		Locator parentLocator = this.parent == null ? null : this.parent.getLocator();
+		if (this.locator == null || this.parentLocator != parentLocator) {
+			LocatorBuilder lb = new LocatorBuilder();
+			fillLocator(lb);
+			this.locator = lb.build();
+			this.parentLocator = parentLocator;
+		}
+		return this.locator;
 	}
 
 	@Override
@@ -69,6 +69,12 @@ public class Resource extends AbstractStrolchRootElement implements StrolchRootE
 		super.setId(id);
 	}
 
+	@Override
+	public void setType(String type) {
+		this.locator = null;
+		super.setType(type);
+	}
+
 	@Override
 	public String getObjectType() {
 		return Tags.RESOURCE;
@@ -246,8 +246,19 @@ public enum State {
 	}
 
 	public static State getState(Activity activity) {
-
 		Set<State> states = activity.elementStream().map(e -> e.getValue().getState()).collect(toSet());
+		return getState(states);
+	}
+
+	/**
+	 * Returns the aggregated state of an {@link Activity} for the given states of its elements
+	 *
+	 * @param states
+	 * 		the distinct states of the elements of the {@link Activity}
+	 *
+	 * @return the aggregated state
+	 */
+	public static State getState(Set<State> states) {
 
 		// if only one state
 		if (states.size() == 1)
@@ -44,6 +44,8 @@ import li.strolch.utils.dbc.DBC;
 public class Action extends GroupedParameterizedElement implements IActivityElement, PolicyContainer {
 
 	protected Activity parent;
+	protected Locator locator;
+	protected Locator parentLocator;
 	protected String resourceId;
 	protected String resourceType;
 	protected State state;
@@ -115,7 +117,10 @@ public class Action extends GroupedParameterizedElement implements IActivityElem
 	 */
 	public void setState(State state) {
 		assertNotReadonly();
+		State oldState = this.state;
 		this.state = state;
+		if (this.parent != null && oldState != state)
+			this.parent.updateStateCounts(oldState, state);
 	}
 
 	/**
@@ -174,22 +179,36 @@ public class Action extends GroupedParameterizedElement implements IActivityElem
 	public boolean addChange(IValueChange<? extends IValue<?>> change) {
 		assertNotReadonly();
 		initChanges();
-		return this.changes.add(change);
+		boolean added = this.changes.add(change);
+		changesModified();
+		return added;
 	}
 
 	/**
+	 * Must be called after the time of any of the {@link IValueChange changes} of this {@link Action} was modified, so
+	 * that the start and end of the parent {@link Activity Activities} are recomputed
+	 */
+	public void changesModified() {
+		assertNotReadonly();
+		if (this.parent != null)
+			this.parent.invalidateTimes();
+	}
+
+	/**
+	 * Returns an unmodifiable view of the {@link IValueChange changes} of this {@link Action}. Changes are added using
+	 * {@link #addChange(IValueChange)}, and if the time of a change is modified, then {@link #changesModified()} must
+	 * be called
+	 *
 	 * @return the list of {@code IValueChange} attached to the {@code Action} start
 	 */
 	public List<IValueChange<? extends IValue<?>>> getChanges() {
 		if (this.changes == null)
 			return Collections.emptyList();
-		return this.changes;
+		return Collections.unmodifiableList(this.changes);
 	}
 
 	public Iterator<IValueChange<? extends IValue<?>>> changesIterator() {
-		if (this.changes == null)
-			return Collections.<IValueChange<? extends IValue<?>>>emptyList().iterator();
-		return this.changes.iterator();
+		return getChanges().iterator();
 	}
 
 	@Override
@@ -304,13 +323,24 @@ public class Action extends GroupedParameterizedElement implements IActivityElem
 		this.policyDefs.addOrUpdate(policyDef);
 	}
 
+	@Override
+	public void setId(String id) {
+		this.locator = null;
+		super.setId(id);
+	}
+
 	@Override
 	public Locator getLocator() {
-		LocatorBuilder lb = new LocatorBuilder();
-		if (this.parent != null)
-			this.parent.fillLocator(lb);
-		fillLocator(lb);
-		return lb.build();
+		Locator parentLocator = this.parent == null ? null : this.parent.getLocator();
+		if (this.locator == null || this.parentLocator != parentLocator) {
+			LocatorBuilder lb = new LocatorBuilder();
+			if (this.parent != null)
+				this.parent.fillLocator(lb);
+			fillLocator(lb);
+			this.locator = lb.build();
+			this.parentLocator = parentLocator;
+		}
+		return this.locator;
 	}
 
 	@Override
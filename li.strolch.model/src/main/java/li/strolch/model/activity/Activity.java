@@ -48,6 +48,7 @@ public class Activity extends AbstractStrolchRootElement
 		implements IActivityElement, StrolchRootElement, Comparable<Activity> {
 
 	protected Locator locator;
+	protected Locator parentLocator;
 	protected Version version;
 
 	protected Activity parent;
@@ -55,6 +56,12 @@ public class Activity extends AbstractStrolchRootElement
 	protected Map<String, IActivityElement> elements;
 	protected PolicyDefs policyDefs;
 
+	// the aggregates of the elements are computed lazily, and then maintained on changes to the elements
+	private int[] stateCounts;
+	private State state;
+	private Long start;
+	private Long end;
+
 	/**
 	 * Empty constructor - for marshalling only!
 	 */
@@ -83,6 +90,12 @@ public class Activity extends AbstractStrolchRootElement
 		super.setId(id);
 	}
 
+	@Override
+	public void setType(String type) {
+		this.locator = null;
+		super.setType(type);
+	}
+
 	@Override
 	public String getObjectType() {
 		return Tags.ACTIVITY;
@@ -171,6 +184,7 @@ public class Activity extends AbstractStrolchRootElement
 		assertCanAdd(activityElement);
 		activityElement.setParent(this);
 		this.elements.put(activityElement.getId(), activityElement);
+		elementAdded(activityElement);
 	}
 
 	/**
@@ -203,6 +217,7 @@ public class Activity extends AbstractStrolchRootElement
 
 		elementToAdd.setParent(this);
 		this.elements = elements;
+		elementAdded(elementToAdd);
 	}
 
 	/**
@@ -233,6 +248,7 @@ public class Activity extends AbstractStrolchRootElement
 
 		elementToAdd.setParent(this);
 		this.elements = elements;
+		elementAdded(elementToAdd);
 	}
 
 	private void assertCanAdd(IActivityElement elementToAdd) {
@@ -263,8 +279,11 @@ public class Activity extends AbstractStrolchRootElement
 	public <T extends IActivityElement> T remove(String id) {
 		assertNotReadonly();
 		IActivityElement element = this.elements.remove(id);
-		if (element != null)
+		if (element != null) {
 			element.setParent(null);
+			updateStateCounts(element.getState(), null);
+			invalidateTimes();
+		}
 		return (T) element;
 	}
 
@@ -504,11 +523,11 @@ public class Activity extends AbstractStrolchRootElement
 	}
 
 	public <T extends IActivityElement> T getElementByLocator(Locator locator) {
-		DBC.PRE.assertEquals("Locator is not for this activity!", getLocator(), locator.trim(3));
-		DBC.PRE.assertTrue("Locator must have at least 5 parts", locator.getSize() >= 4);
+		Locator activityLocator = getLocator();
+		DBC.PRE.assertTrue("Locator is not for a child of this activity!", locator.isChildOf(activityLocator));
 
 		IActivityElement element = this;
-		for (int i = 3; i < locator.getSize(); i++) {
+		for (int i = activityLocator.getSize(); i < locator.getSize(); i++) {
 			String next = locator.get(i);
 
 			if (!(element instanceof Activity)) {
@@ -551,35 +570,111 @@ public class Activity extends AbstractStrolchRootElement
 
 	@Override
 	public Long getStart() {
-		long start = Long.MAX_VALUE;
-		if (this.elements == null)
+		Long start = this.start;
+		if (start != null)
 			return start;
+
+		long min = Long.MAX_VALUE;
 		Iterator<Entry<String, IActivityElement>> elementIterator = elementIterator();
 		while (elementIterator.hasNext()) {
 			IActivityElement action = elementIterator.next().getValue();
-			start = Math.min(start, action.getStart());
+			min = Math.min(min, action.getStart());
 		}
+		start = min;
+		this.start = start;
 		return start;
 	}
 
 	@Override
 	public Long getEnd() {
-		long end = 0L;
-		if (this.elements == null)
+		Long end = this.end;
+		if (end != null)
 			return end;
+
+		long max = 0L;
 		Iterator<Entry<String, IActivityElement>> elementIterator = elementIterator();
 		while (elementIterator.hasNext()) {
 			IActivityElement action = elementIterator.next().getValue();
-			end = Math.max(end, action.getEnd());
+			max = Math.max(max, action.getEnd());
 		}
+		end = max;
+		this.end = end;
 		return end;
 	}
 
 	@Override
 	public State getState() {
-		if (this.elements == null || this.elements.isEmpty())
+		State state = this.state;
+		if (state != null)
+			return state;
+
+		int[] stateCounts = new int[State.values().length];
+		Iterator<Entry<String, IActivityElement>> elementIterator = elementIterator();
+		while (elementIterator.hasNext()) {
+			State elementState = elementIterator.next().getValue().getState();
+			if (elementState != null)
+				stateCounts[elementState.ordinal()]++;
+		}
+		state = aggregateState(stateCounts);
+		this.stateCounts = stateCounts;
+		this.state = state;
+		return state;
+	}
+
+	private static State aggregateState(int[] stateCounts) {
+		Set<State> states = EnumSet.noneOf(State.class);
+		State[] values = State.values();
+		for (int i = 0; i < stateCounts.length; i++) {
+			if (stateCounts[i] > 0)
+				states.add(values[i]);
+		}
+		if (states.isEmpty())
 			return State.CREATED;
-		return State.getState(this);
+		return State.getState(states);
+	}
+
+	private void elementAdded(IActivityElement element) {
+		updateStateCounts(null, element.getState());
+		invalidateTimes();
+	}
+
+	/**
+	 * Updates the aggregated state after the state of one of the elements changed from the given old to the given new
+	 * state, and propagates the change to the parent, if the aggregated state changed. Nothing is done if the state was
+	 * not yet computed, as then the state of the parent was not computed either
+	 *
+	 * @param oldState
+	 * 		the previous state of the element, null if the element was added
+	 * @param newState
+	 * 		the new state of the element, null if the element was removed
+	 */
+	void updateStateCounts(State oldState, State newState) {
+		if (this.stateCounts == null)
+			return;
+
+		if (oldState != null)
+			this.stateCounts[oldState.ordinal()]--;
+		if (newState != null)
+			this.stateCounts[newState.ordinal()]++;
+
+		State previous = this.state;
+		this.state = aggregateState(this.stateCounts);
+		if (this.parent != null && previous != this.state)
+			this.parent.updateStateCounts(previous, this.state);
+	}
+
+	/**
+	 * Invalidates the start and end of this {@link Activity} and its parents, so that they are recomputed on the next
+	 * access. The parents are only visited as long as their times are computed, as the times of a parent can't be
+	 * computed without the times of its elements
+	 */
+	void invalidateTimes() {
+		Activity activity = this;
+		while (activity != null && (activity.start != null || activity.end != null)) {
+			activity.start = null;
+			activity.end = null;
+			activity = activity.parent;
+		}
 	}
 
 	@Override
@@ -648,10 +743,12 @@ public class Activity extends AbstractStrolchRootElement
 
 	@Override
 	public Locator getLocator() {
-		if (this.locator == null) {
+		Locator parentLocator = this.parent == null ? null : this.parent.getLocator();
+		if (this.locator == null || this.parentLocator != parentLocator) {
 			LocatorBuilder lb = new LocatorBuilder();
 			fillLocator(lb);
 			this.locator = lb.build();
+			this.parentLocator = parentLocator;
 		}
 		return this.locator;
 	}
@@ -716,6 +813,12 @@ public class Activity extends AbstractStrolchRootElement
 		if (this.policyDefs != null)
 			this.policyDefs.setReadOnly();
 		elementStream().forEach(e -> e.getValue().setReadOnly());
+
+		// compute the aggregates, so that they are not lazily computed when shared between threads
+		getState();
+		getStart();
+		getEnd();
+
 		super.setReadOnly();
 	}
 
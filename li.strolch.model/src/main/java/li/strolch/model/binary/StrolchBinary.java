@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.binary;
+
+/**
+ * <p>
+ * Constants of the compact binary format of {@link li.strolch.model.StrolchRootElement StrolchRootElements}, as
+ * written by {@link StrolchElementToBinaryVisitor} and read by {@link StrolchElementFromBinaryParser}.
+ * </p>
+ *
+ * <p>
+ * Every element starts with the magic bytes <code>SB</code>, the format version and the kind of root element. Numbers
+ * are written as zig-zag encoded variable length integers, floats as 8 byte IEEE 754 values and dates as milliseconds
+ * since the epoch. Strings are interned per element: each string is written once, and then referenced by its index,
+ * thus the repeating types, ids and units of parameters and timed states only take one or two bytes after their first
+ * occurrence.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class StrolchBinary {
+
+	public static final byte MAGIC_0 = 'S';
+	public static final byte MAGIC_1 = 'B';
+
+	/**
+	 * The current version of the format. Must be incremented on any incompatible change, and the parser must then
+	 * still be able to read all previous versions
+	 */
+	public static final byte FORMAT_VERSION = 1;
+
+	public static final byte KIND_RESOURCE = 'R';
+	public static final byte KIND_ORDER = 'O';
+	public static final byte KIND_ACTIVITY = 'A';
+	public static final byte KIND_ACTION = 'a';
+
+	// string references: 0 is null, 1 is a new string, n+2 is a reference to the n-th string
+	static final int STRING_NULL = 0;
+	static final int STRING_NEW = 1;
+	static final int STRING_REF_OFFSET = 2;
+
+	// flags of parameters and timed states
+	static final int FLAG_HIDDEN = 1;
+	static final int FLAG_UOM = 1 << 1;
+	static final int FLAG_INTERPRETATION = 1 << 2;
+	static final int FLAG_INDEX = 1 << 3;
+
+	/**
+	 * Returns true if the given bytes start with the magic bytes of this format
+	 *
+	 * @param bytes
+	 * 		the bytes to check
+	 *
+	 * @return true if the given bytes start with the magic bytes of this format
+	 */
+	public static boolean isStrolchBinary(byte[] bytes) {
+		return bytes != null && bytes.length > 3 && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+	}
+}
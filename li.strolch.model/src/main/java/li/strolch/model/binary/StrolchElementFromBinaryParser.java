@@ -0,0 +1,402 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.binary;
+
+import static li.strolch.model.binary.StrolchBinary.*;
+
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import li.strolch.exception.StrolchException;
+import li.strolch.model.*;
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.model.parameter.*;
+import li.strolch.model.policy.PolicyDef;
+import li.strolch.model.policy.PolicyDefs;
+import li.strolch.model.timedstate.StrolchTimedState;
+import li.strolch.model.timevalue.IValue;
+import li.strolch.model.timevalue.impl.BooleanValue;
+import li.strolch.model.timevalue.impl.FloatValue;
+import li.strolch.model.timevalue.impl.IntegerValue;
+import li.strolch.model.timevalue.impl.LongValue;
+import li.strolch.model.timevalue.impl.ValueChange;
+
+/**
+ * Parses {@link StrolchRootElement StrolchRootElements} which were written in the compact binary format by the {@link
+ * StrolchElementToBinaryVisitor}. The parser is not thread safe, but can be reused for multiple elements
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class StrolchElementFromBinaryParser {
+
+	private final List<String> strings;
+
+	private byte[] bytes;
+	private int pos;
+
+	public StrolchElementFromBinaryParser() {
+		this.strings = new ArrayList<>();
+	}
+
+	public Resource parseResource(byte[] bytes) {
+		return parse(bytes, Resource.class);
+	}
+
+	public Order parseOrder(byte[] bytes) {
+		return parse(bytes, Order.class);
+	}
+
+	public Activity parseActivity(byte[] bytes) {
+		return parse(bytes, Activity.class);
+	}
+
+	private <T extends StrolchRootElement> T parse(byte[] bytes, Class<T> clazz) {
+		StrolchRootElement element = parse(bytes);
+		if (!clazz.isInstance(element)) {
+			String msg = "Expected binary value of a {0}, but parsed {1}"; //$NON-NLS-1$
+			throw new StrolchException(MessageFormat.format(msg, clazz.getSimpleName(), element.getLocator()));
+		}
+		return clazz.cast(element);
+	}
+
+	/**
+	 * Parses the given bytes to a {@link Resource}, {@link Order} or {@link Activity}, depending on the kind of element
+	 * which was written
+	 *
+	 * @param bytes
+	 * 		the bytes to parse
+	 *
+	 * @return the parsed element
+	 *
+	 * @throws StrolchException
+	 * 		if the bytes are not a supported version of the binary format
+	 */
+	public StrolchRootElement parse(byte[] bytes) throws StrolchException {
+		if (!isStrolchBinary(bytes))
+			throw new StrolchException("Bytes are not in the Strolch binary format!");
+
+		this.bytes = bytes;
+		this.pos = 2;
+		this.strings.clear();
+
+		try {
+			byte version = readByte();
+			if (version != FORMAT_VERSION) {
+				String msg = "Unsupported binary format version {0}, expected {1}"; //$NON-NLS-1$
+				throw new StrolchException(MessageFormat.format(msg, version, FORMAT_VERSION));
+			}
+
+			byte kind = readByte();
+			switch (kind) {
+			case KIND_RESOURCE:
+				return readResource();
+			case KIND_ORDER:
+				return readOrder();
+			case KIND_ACTIVITY:
+				return readActivity(true);
+			default:
+				throw new StrolchException("Unhandled element kind " + (char) kind);
+			}
+
+		} catch (IndexOutOfBoundsException e) {
+			throw new StrolchException("Binary value is truncated at position " + this.pos, e);
+		} finally {
+			this.bytes = null;
+		}
+	}
+
+	private Resource readResource() {
+		Resource resource = new Resource(readString(), readString(), readString());
+		readRootElement(resource);
+
+		int nrOfStates = readVarInt();
+		for (int i = 0; i < nrOfStates; i++) {
+			resource.addTimedState(readTimedState());
+		}
+
+		return resource;
+	}
+
+	private Order readOrder() {
+		Order order = new Order(readString(), readString(), readString());
+		readRootElement(order);
+
+		order.setState(State.parse(readString()));
+		if (readBoolean())
+			order.setDate(new Date(readVarLong()));
+
+		return order;
+	}
+
+	private Activity readActivity(boolean root) {
+		String id = readString();
+		String name = readString();
+		String type = readString();
+		Activity activity = new Activity(id, name, type, null);
+		if (root)
+			readRootElement(activity);
+		else
+			readChildElement(activity);
+
+		activity.setTimeOrdering(TimeOrdering.parse(readString()));
+
+		int nrOfElements = readVarInt();
+		for (int i = 0; i < nrOfElements; i++) {
+			byte kind = readByte();
+			if (kind == KIND_ACTIVITY)
+				activity.addElement(readActivity(false));
+			else if (kind == KIND_ACTION)
+				activity.addElement(readAction());
+			else
+				throw new StrolchException("Unhandled activity element kind " + (char) kind);
+		}
+
+		return activity;
+	}
+
+	private Action readAction() {
+		Action action = new Action(readString(), readString(), readString());
+		action.setResourceId(readString());
+		action.setResourceType(readString());
+		action.setState(State.parse(readString()));
+
+		readBags(action);
+		PolicyDefs policyDefs = readPolicies();
+		if (policyDefs != null)
+			action.setPolicyDefs(policyDefs);
+
+		int nrOfChanges = readVarInt();
+		for (int i = 0; i < nrOfChanges; i++) {
+			StrolchValueType valueType = StrolchValueType.parse(readString());
+			String stateId = readString();
+			long time = readVarLong();
+			IValue<?> value = readStateValue(valueType);
+			ValueChange<IValue<?>> valueChange = new ValueChange<>(time, value, stateId);
+			action.addChange(valueChange);
+		}
+
+		return action;
+	}
+
+	private void readRootElement(StrolchRootElement rootElement) {
+		PolicyDefs policyDefs = readPolicies();
+		if (policyDefs != null)
+			rootElement.setPolicyDefs(policyDefs);
+
+		if (readBoolean()) {
+			int v = readVarInt();
+			String createdBy = readString();
+			String updatedBy = readString();
+			Date created = new Date(readVarLong());
+			Date updated = new Date(readVarLong());
+			boolean deleted = readBoolean();
+			rootElement.setVersion(
+					new Version(rootElement.getLocator(), v, createdBy, updatedBy, created, updated, deleted));
+		}
+
+		readBags(rootElement);
+	}
+
+	private void readChildElement(Activity activity) {
+		PolicyDefs policyDefs = readPolicies();
+		if (policyDefs != null)
+			activity.setPolicyDefs(policyDefs);
+
+		// child activities never have a version
+		if (readBoolean())
+			throw new StrolchException("Child activity " + activity.getId() + " can not have a version!");
+
+		readBags(activity);
+	}
+
+	private PolicyDefs readPolicies() {
+		int nrOfPolicies = readVarInt();
+		if (nrOfPolicies == 0)
+			return null;
+
+		PolicyDefs policyDefs = new PolicyDefs();
+		for (int i = 0; i < nrOfPolicies; i++) {
+			policyDefs.addOrUpdate(PolicyDef.valueOf(readString(), readString()));
+		}
+
+		return policyDefs;
+	}
+
+	private void readBags(ParameterBagContainer element) {
+		int nrOfBags = readVarInt();
+		for (int i = 0; i < nrOfBags; i++) {
+			ParameterBag bag = new ParameterBag(readString(), readString(), readString());
+
+			int nrOfParams = readVarInt();
+			for (int j = 0; j < nrOfParams; j++) {
+				bag.addParameter(readParameter());
+			}
+
+			element.addParameterBag(bag);
+		}
+	}
+
+	private Parameter<?> readParameter() {
+		StrolchValueType valueType = StrolchValueType.parse(readString());
+		Parameter<?> parameter = valueType.parameterInstance();
+		parameter.setId(readString());
+		parameter.setName(readString());
+
+		int flags = readByte();
+		parameter.setHidden((flags & FLAG_HIDDEN) != 0);
+		if ((flags & FLAG_UOM) != 0)
+			parameter.setUom(readString());
+		if ((flags & FLAG_INTERPRETATION) != 0)
+			parameter.setInterpretation(readString());
+		if ((flags & FLAG_INDEX) != 0)
+			parameter.setIndex(readVarInt());
+
+		switch (valueType) {
+		case BOOLEAN:
+			((BooleanParameter) parameter).setValue(readBoolean());
+			break;
+		case INTEGER:
+			((IntegerParameter) parameter).setValue(readVarInt());
+			break;
+		case LONG:
+			((LongParameter) parameter).setValue(readVarLong());
+			break;
+		case FLOAT:
+			((FloatParameter) parameter).setValue(readDouble());
+			break;
+		case DATE:
+			((DateParameter) parameter).setValue(new Date(readVarLong()));
+			break;
+		case STRING:
+			((StringParameter) parameter).setValue(readString());
+			break;
+		default:
+			parameter.setValueFromString(readRawString());
+		}
+
+		return parameter;
+	}
+
+	private StrolchTimedState<? extends IValue<?>> readTimedState() {
+		StrolchValueType valueType = StrolchValueType.parse(readString());
+		StrolchTimedState<? extends IValue<?>> state = valueType.timedStateInstance();
+		state.setId(readString());
+		state.setName(readString());
+
+		int flags = readByte();
+		state.setHidden((flags & FLAG_HIDDEN) != 0);
+		if ((flags & FLAG_UOM) != 0)
+			state.setUom(readString());
+		if ((flags & FLAG_INTERPRETATION) != 0)
+			state.setInterpretation(readString());
+		if ((flags & FLAG_INDEX) != 0)
+			state.setIndex(readVarInt());
+
+		int nrOfValues = readVarInt();
+		long time = 0L;
+		for (int i = 0; i < nrOfValues; i++) {
+			time += readVarLong();
+			setValueAt(state, time, readStateValue(valueType));
+		}
+
+		return state;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void setValueAt(StrolchTimedState state, long time, IValue value) {
+		state.getTimeEvolution().setValueAt(time, value);
+	}
+
+	private IValue<?> readStateValue(StrolchValueType valueType) {
+		switch (valueType) {
+		case BOOLEAN:
+			return new BooleanValue(readBoolean());
+		case INTEGER:
+			return new IntegerValue(readVarInt());
+		case LONG:
+			return new LongValue(readVarLong());
+		case FLOAT:
+			return new FloatValue(readDouble());
+		default:
+			return valueType.valueInstance(readString());
+		}
+	}
+
+	private String readString() {
+		int ref = (int) readUnsignedVarLong();
+		if (ref == STRING_NULL)
+			return null;
+
+		if (ref == STRING_NEW) {
+			String value = readRawString();
+			this.strings.add(value);
+			return value;
+		}
+
+		return this.strings.get(ref - STRING_REF_OFFSET);
+	}
+
+	private String readRawString() {
+		int length = (int) readUnsignedVarLong();
+		String value = new String(this.bytes, this.pos, length, StandardCharsets.UTF_8);
+		this.pos += length;
+		return value;
+	}
+
+	private byte readByte() {
+		return this.bytes[this.pos++];
+	}
+
+	private boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	private double readDouble() {
+		long bits = 0L;
+		for (int i = 0; i < 8; i++) {
+			bits = (bits << 8) | (readByte() & 0xFF);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	private int readVarInt() {
+		return (int) readVarLong();
+	}
+
+	private long readVarLong() {
+		long value = readUnsignedVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private long readUnsignedVarLong() {
+		long value = 0L;
+		int shift = 0;
+		byte b;
+		do {
+			if (shift > 63)
+				throw new StrolchException("Malformed variable length number at position " + this.pos);
+			b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+}
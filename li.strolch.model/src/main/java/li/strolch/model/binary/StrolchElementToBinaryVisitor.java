@@ -0,0 +1,350 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.binary;
+
+import static li.strolch.model.StrolchModelConstants.INTERPRETATION_NONE;
+import static li.strolch.model.StrolchModelConstants.UOM_NONE;
+import static li.strolch.model.binary.StrolchBinary.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.Map.Entry;
+
+import li.strolch.model.*;
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.IActivityElement;
+import li.strolch.model.parameter.*;
+import li.strolch.model.policy.PolicyDef;
+import li.strolch.model.policy.PolicyDefs;
+import li.strolch.model.timedstate.StrolchTimedState;
+import li.strolch.model.timevalue.ITimeValue;
+import li.strolch.model.timevalue.IValue;
+import li.strolch.model.timevalue.IValueChange;
+import li.strolch.model.visitor.StrolchRootElementVisitor;
+
+/**
+ * Writes a {@link StrolchRootElement} in the compact binary format as described in {@link StrolchBinary}. The visitor
+ * is not thread safe, but can be reused for multiple elements
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class StrolchElementToBinaryVisitor implements StrolchRootElementVisitor<byte[]> {
+
+	private final ByteArrayOutputStream out;
+	private final Map<String, Integer> strings;
+
+	public StrolchElementToBinaryVisitor() {
+		this.out = new ByteArrayOutputStream(1024);
+		this.strings = new HashMap<>();
+	}
+
+	@Override
+	public byte[] visitResource(Resource resource) {
+		start(KIND_RESOURCE);
+		writeRootElement(resource);
+
+		Set<String> stateKeySet = resource.getTimedStateKeySet();
+		writeVarInt(stateKeySet.size());
+		for (String stateKey : stateKeySet) {
+			StrolchTimedState<IValue<?>> state = resource.getTimedState(stateKey);
+			writeTimedState(state);
+		}
+
+		return this.out.toByteArray();
+	}
+
+	@Override
+	public byte[] visitOrder(Order order) {
+		start(KIND_ORDER);
+		writeRootElement(order);
+
+		writeString(order.getState().getName());
+		if (order.getDate() == null) {
+			writeBoolean(false);
+		} else {
+			writeBoolean(true);
+			writeVarLong(order.getDate().getTime());
+		}
+
+		return this.out.toByteArray();
+	}
+
+	@Override
+	public byte[] visitActivity(Activity activity) {
+		start(KIND_ACTIVITY);
+		writeActivity(activity);
+		return this.out.toByteArray();
+	}
+
+	private void start(byte kind) {
+		this.out.reset();
+		this.strings.clear();
+		this.out.write(MAGIC_0);
+		this.out.write(MAGIC_1);
+		this.out.write(FORMAT_VERSION);
+		this.out.write(kind);
+	}
+
+	private void writeActivity(Activity activity) {
+		writeRootElement(activity);
+		writeString(activity.getTimeOrdering().getName());
+
+		List<IActivityElement> elements = new ArrayList<>();
+		Iterator<Entry<String, IActivityElement>> iter = activity.elementIterator();
+		while (iter.hasNext()) {
+			elements.add(iter.next().getValue());
+		}
+
+		writeVarInt(elements.size());
+		for (IActivityElement element : elements) {
+			if (element instanceof Activity) {
+				this.out.write(KIND_ACTIVITY);
+				writeActivity((Activity) element);
+			} else if (element instanceof Action) {
+				this.out.write(KIND_ACTION);
+				writeAction((Action) element);
+			} else {
+				throw new IllegalArgumentException("Unhandled element " + element.getClass());
+			}
+		}
+	}
+
+	private void writeAction(Action action) {
+		writeElement(action);
+		writeString(action.getResourceId());
+		writeString(action.getResourceType());
+		writeString(action.getState().getName());
+
+		writeBags(action);
+		writePolicies(action.hasPolicyDefs() ? action.getPolicyDefs() : null);
+
+		List<IValueChange<? extends IValue<?>>> changes = new ArrayList<>();
+		action.changesIterator().forEachRemaining(changes::add);
+
+		writeVarInt(changes.size());
+		for (IValueChange<? extends IValue<?>> change : changes) {
+			IValue<?> value = change.getValue();
+			StrolchValueType valueType = StrolchValueType.parse(value.getType());
+			writeString(valueType.getType());
+			writeString(change.getStateId());
+			writeVarLong(change.getTime());
+			writeStateValue(valueType, value);
+		}
+	}
+
+	private void writeRootElement(StrolchRootElement rootElement) {
+		writeElement(rootElement);
+
+		writePolicies(rootElement.hasPolicyDefs() ? rootElement.getPolicyDefs() : null);
+
+		if (rootElement.hasVersion()) {
+			Version version = rootElement.getVersion();
+			writeBoolean(true);
+			writeVarInt(version.getVersion());
+			writeString(version.getCreatedBy());
+			writeString(version.getUpdatedBy());
+			writeVarLong(version.getCreated().getTime());
+			writeVarLong(version.getUpdated().getTime());
+			writeBoolean(version.isDeleted());
+		} else {
+			writeBoolean(false);
+		}
+
+		writeBags(rootElement);
+	}
+
+	private void writeElement(StrolchElement element) {
+		writeString(element.getId());
+		writeString(element.getName());
+		writeString(element.getType());
+	}
+
+	private void writePolicies(PolicyDefs policyDefs) {
+		if (policyDefs == null || !policyDefs.hasPolicyDefs()) {
+			writeVarInt(0);
+			return;
+		}
+
+		Set<String> policyTypes = policyDefs.getPolicyTypes();
+		writeVarInt(policyTypes.size());
+		for (String type : policyTypes) {
+			PolicyDef policyDef = policyDefs.getPolicyDef(type);
+			writeString(policyDef.getType());
+			writeString(policyDef.getValueForXml());
+		}
+	}
+
+	private void writeBags(ParameterBagContainer element) {
+		Set<String> bagKeySet = element.getParameterBagKeySet();
+		writeVarInt(bagKeySet.size());
+		for (String bagKey : bagKeySet) {
+			ParameterBag bag = element.getParameterBag(bagKey);
+			writeElement(bag);
+
+			Set<String> parameterKeySet = bag.getParameterKeySet();
+			writeVarInt(parameterKeySet.size());
+			for (String paramKey : parameterKeySet) {
+				writeParameter(bag.getParameter(paramKey));
+			}
+		}
+	}
+
+	private void writeParameter(Parameter<?> parameter) {
+		StrolchValueType valueType = parameter.getValueType();
+		writeString(valueType.getType());
+		writeString(parameter.getId());
+		writeString(parameter.getName());
+
+		writeFlags(parameter.isHidden(), parameter.getUom(), parameter.getInterpretation(), parameter.getIndex());
+
+		switch (valueType) {
+		case BOOLEAN:
+			writeBoolean(((BooleanParameter) parameter).getValue());
+			break;
+		case INTEGER:
+			writeVarInt(((IntegerParameter) parameter).getValue());
+			break;
+		case LONG:
+			writeVarLong(((LongParameter) parameter).getValue());
+			break;
+		case FLOAT:
+			writeDouble(((FloatParameter) parameter).getValue());
+			break;
+		case DATE:
+			writeVarLong(((DateParameter) parameter).getValue().getTime());
+			break;
+		case STRING:
+			writeString(((StringParameter) parameter).getValue());
+			break;
+		default:
+			// text, durations and lists are written as strings and not interned, as they are rarely repeated
+			writeRawString(parameter.getValueAsString());
+		}
+	}
+
+	private void writeTimedState(StrolchTimedState<IValue<?>> state) {
+		StrolchValueType valueType = StrolchValueType.parse(state.getType());
+		writeString(valueType.getType());
+		writeString(state.getId());
+		writeString(state.getName());
+
+		writeFlags(state.isHidden(), state.getUom(), state.getInterpretation(), state.getIndex());
+
+		SortedSet<ITimeValue<IValue<?>>> values = state.getTimeEvolution().getValues();
+		writeVarInt(values.size());
+
+		// the values are sorted by time, thus only the difference to the previous time is written
+		long previousTime = 0L;
+		for (ITimeValue<IValue<?>> value : values) {
+			long time = value.getTime();
+			writeVarLong(time - previousTime);
+			previousTime = time;
+			writeStateValue(valueType, value.getValue());
+		}
+	}
+
+	private void writeStateValue(StrolchValueType valueType, IValue<?> value) {
+		switch (valueType) {
+		case BOOLEAN:
+			writeBoolean((Boolean) value.getValue());
+			break;
+		case INTEGER:
+			writeVarInt((Integer) value.getValue());
+			break;
+		case LONG:
+			writeVarLong((Long) value.getValue());
+			break;
+		case FLOAT:
+			writeDouble((Double) value.getValue());
+			break;
+		default:
+			writeString(value.getValueAsString());
+		}
+	}
+
+	private void writeFlags(boolean hidden, String uom, String interpretation, int index) {
+		int flags = 0;
+		if (hidden)
+			flags |= FLAG_HIDDEN;
+		if (!UOM_NONE.equals(uom))
+			flags |= FLAG_UOM;
+		if (!INTERPRETATION_NONE.equals(interpretation))
+			flags |= FLAG_INTERPRETATION;
+		if (index != 0)
+			flags |= FLAG_INDEX;
+
+		this.out.write(flags);
+		if ((flags & FLAG_UOM) != 0)
+			writeString(uom);
+		if ((flags & FLAG_INTERPRETATION) != 0)
+			writeString(interpretation);
+		if ((flags & FLAG_INDEX) != 0)
+			writeVarInt(index);
+	}
+
+	private void writeString(String value) {
+		if (value == null) {
+			writeUnsignedVarLong(STRING_NULL);
+			return;
+		}
+
+		Integer index = this.strings.get(value);
+		if (index != null) {
+			writeUnsignedVarLong(index + STRING_REF_OFFSET);
+			return;
+		}
+
+		this.strings.put(value, this.strings.size());
+		writeUnsignedVarLong(STRING_NEW);
+		writeRawString(value);
+	}
+
+	private void writeRawString(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeUnsignedVarLong(bytes.length);
+		this.out.write(bytes, 0, bytes.length);
+	}
+
+	private void writeBoolean(boolean value) {
+		this.out.write(value ? 1 : 0);
+	}
+
+	private void writeDouble(double value) {
+		long bits = Double.doubleToLongBits(value);
+		for (int i = 56; i >= 0; i -= 8) {
+			this.out.write((int) (bits >>> i));
+		}
+	}
+
+	private void writeVarInt(int value) {
+		writeVarLong(value);
+	}
+
+	private void writeVarLong(long value) {
+		// zig-zag encoding, so that small negative values also only use few bytes
+		writeUnsignedVarLong((value << 1) ^ (value >> 63));
+	}
+
+	private void writeUnsignedVarLong(long value) {
+		while ((value & ~0x7FL) != 0L) {
+			this.out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		this.out.write((int) value);
+	}
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.json;
+
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
+import static li.strolch.model.Tags.Json.PARAMETER_BAGS;
+import static li.strolch.utils.helper.StringHelper.isNotEmpty;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.Map.Entry;
+
+import com.google.gson.stream.JsonWriter;
+import li.strolch.exception.StrolchException;
+import li.strolch.exception.StrolchModelException;
+import li.strolch.model.*;
+import li.strolch.model.Tags.Json;
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.IActivityElement;
+import li.strolch.model.parameter.Parameter;
+import li.strolch.model.policy.PolicyDef;
+import li.strolch.model.policy.PolicyDefs;
+import li.strolch.model.timedstate.StrolchTimedState;
+import li.strolch.model.timevalue.ITimeValue;
+import li.strolch.model.timevalue.IValue;
+import li.strolch.model.timevalue.IValueChange;
+import li.strolch.model.visitor.StrolchRootElementVisitor;
+import li.strolch.utils.collections.MapOfSets;
+import li.strolch.utils.iso8601.ISO8601FormatFactory;
+
+/**
+ * <p>
+ * Writes {@link StrolchRootElement StrolchRootElements} directly to a {@link JsonWriter}, producing the same JSON as
+ * the {@link StrolchElementToJsonVisitor} with the same options, but without first building a {@link
+ * com.google.gson.JsonObject} tree in memory. This allows to stream large amounts of elements, e.g. to a REST
+ * response.
+ * </p>
+ *
+ * <p>
+ * <b>Note:</b> As no {@link com.google.gson.JsonObject JsonObjects} are created, the hooks of the {@link
+ * StrolchElementToJsonVisitor} are not supported. Further the caller is responsible for opening and closing any
+ * enclosing JSON array or object, and for flushing the writer.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class StrolchElementToJsonWriterVisitor implements StrolchRootElementVisitor<Void> {
+
+	private final JsonWriter writer;
+
+	private final MapOfSets<String, String> ignoredKeys;
+	private final Set<String> ignoredTimedStates;
+	private final Set<String> ignoredBagTypes;
+
+	private boolean flat;
+	private final Set<String> flatBags;
+	private final Set<String> flatBagsByType;
+	private boolean withoutElementName;
+	private boolean withLocator;
+	private boolean withoutVersion;
+	private boolean withoutPolicies;
+	private boolean withoutStateVariables;
+	private int activityDepth = Integer.MAX_VALUE;
+
+	public StrolchElementToJsonWriterVisitor(JsonWriter writer) {
+		this.writer = writer;
+		this.ignoredKeys = new MapOfSets<>();
+		this.ignoredTimedStates = new HashSet<>();
+		this.ignoredBagTypes = new HashSet<>();
+		this.flatBags = new HashSet<>();
+		this.flatBagsByType = new HashSet<>();
+	}
+
+	public boolean isFlat() {
+		return this.flat;
+	}
+
+	public boolean isBagFlat(ParameterBag bag) {
+		return this.flatBags.contains(bag.getId()) || this.flatBagsByType.contains(bag.getType());
+	}
+
+	public boolean isWithoutElementName() {
+		return this.withoutElementName;
+	}
+
+	public boolean isWithoutVersion() {
+		return this.withoutVersion;
+	}
+
+	public boolean isWithoutPolicies() {
+		return this.withoutPolicies;
+	}
+
+	public boolean isWithoutStateVariables() {
+		return this.withoutStateVariables;
+	}
+
+	public StrolchElementToJsonWriterVisitor withLocator() {
+		this.withLocator = true;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor withoutVersion() {
+		this.withoutVersion = true;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor withoutElementName() {
+		this.withoutElementName = true;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor withoutPolicies() {
+		this.withoutPolicies = true;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor withoutStateVariables() {
+		this.withoutStateVariables = true;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor activityDepth(int depth) {
+		this.activityDepth = depth;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor flat() {
+		this.flat = true;
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor flatBags(String... bagIds) {
+		this.flatBags.addAll(asList(bagIds));
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor flatBagsByType(String... bagTypes) {
+		this.flatBagsByType.addAll(asList(bagTypes));
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor ignoreBag(String bagId) {
+		this.ignoredKeys.addSet(bagId, Collections.emptySet());
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor ignoreBags(String... bagIds) {
+		for (String bagId : bagIds) {
+			this.ignoredKeys.addSet(bagId, Collections.emptySet());
+		}
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor ignoreParameter(String bagId, String paramId) {
+		this.ignoredKeys.addElement(bagId, paramId);
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor ignoreTimeState(String timeStateId) {
+		this.ignoredTimedStates.add(timeStateId);
+		return this;
+	}
+
+	public StrolchElementToJsonWriterVisitor ignoreBagByType(String... types) {
+		this.ignoredBagTypes.addAll(asList(types));
+		return this;
+	}
+
+	@Override
+	public Void visitResource(Resource resource) {
+		try {
+			writeElement(resource);
+		} catch (IOException e) {
+			String msg = "Failed to write Resource {0} due to {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, resource.getLocator(), e.getMessage());
+			throw new StrolchException(msg, e);
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitOrder(Order order) {
+		try {
+			writeElement(order);
+		} catch (IOException e) {
+			String msg = "Failed to write Order {0} due to {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, order.getLocator(), e.getMessage());
+			throw new StrolchException(msg, e);
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitActivity(Activity activity) {
+		try {
+			writeElement(activity, 0);
+		} catch (IOException e) {
+			String msg = "Failed to write Activity {0} due to {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, activity.getLocator(), e.getMessage());
+			throw new StrolchException(msg, e);
+		}
+		return null;
+	}
+
+	protected void writeElement(Resource element) throws IOException {
+		Set<String> members = newMembers();
+		this.writer.beginObject();
+
+		name(members, Json.OBJECT_TYPE).value(Json.RESOURCE);
+		writeAttributes(members, element);
+
+		writeVersion(members, element);
+		writeParameterizedElements(members, element);
+		writeStates(members, element);
+		writePolicies(members, element);
+
+		this.writer.endObject();
+	}
+
+	protected void writeElement(Order element) throws IOException {
+		Set<String> members = newMembers();
+		this.writer.beginObject();
+
+		name(members, Json.OBJECT_TYPE).value(Json.ORDER);
+		writeAttributes(members, element);
+		name(members, Json.DATE).value(formatDate(element.getDate()));
+		name(members, Json.STATE).value(element.getState().getName());
+
+		writeVersion(members, element);
+		writeParameterizedElements(members, element);
+		writePolicies(members, element);
+
+		this.writer.endObject();
+	}
+
+	protected void writeElement(Activity element, int currentDepth) throws IOException {
+		Set<String> members = newMembers();
+		this.writer.beginObject();
+
+		name(members, Json.OBJECT_TYPE).value(Json.ACTIVITY);
+		writeAttributes(members, element);
+		name(members, Json.TIME_ORDERING).value(element.getTimeOrdering().getName());
+		name(members, Json.STATE).value(element.getState().getName());
+		name(members, Json.START).value(formatDate(element.getStart()));
+		name(members, Json.END).value(formatDate(element.getEnd()));
+
+		if (element.isRootElement())
+			writeVersion(members, element);
+		writeParameterizedElements(members, element);
+		writePolicies(members, element);
+
+		if (currentDepth < this.activityDepth) {
+			Iterator<Entry<String, IActivityElement>> iter = element.elementIterator();
+			if (iter.hasNext()) {
+
+				name(members, Json.ELEMENTS).beginArray();
+				while (iter.hasNext()) {
+					IActivityElement activityElement = iter.next().getValue();
+					if (activityElement instanceof Activity) {
+						writeElement((Activity) activityElement, currentDepth + 1);
+					} else if (activityElement instanceof Action) {
+						writeElement((Action) activityElement);
+					} else {
+						throw new IllegalArgumentException("Unhandled element " + activityElement.getClass());
+					}
+				}
+				this.writer.endArray();
+			}
+		}
+
+		this.writer.endObject();
+	}
+
+	protected void writeElement(Action element) throws IOException {
+		Set<String> members = newMembers();
+		this.writer.beginObject();
+
+		name(members, Json.OBJECT_TYPE).value(Json.ACTION);
+		writeAttributes(members, element);
+		name(members, Json.RESOURCE_ID).value(element.getResourceId());
+		name(members, Json.RESOURCE_TYPE).value(element.getResourceType());
+		name(members, Json.STATE).value(element.getState().getName());
+		name(members, Json.START).value(formatDate(element.getStart()));
+		name(members, Json.END).value(formatDate(element.getEnd()));
+
+		writeParameterizedElements(members, element);
+		writePolicies(members, element);
+
+		// value changes
+		Iterator<IValueChange<? extends IValue<?>>> iter = element.getChanges().iterator();
+		if (iter.hasNext()) {
+
+			name(members, Json.VALUE_CHANGES).beginArray();
+			while (iter.hasNext()) {
+				IValueChange<? extends IValue<?>> valueChange = iter.next();
+
+				this.writer.beginObject();
+				if (isNotEmpty(valueChange.getStateId()))
+					this.writer.name(Json.STATE_ID).value(valueChange.getStateId());
+				this.writer.name(Json.TIME).value(formatDate(valueChange.getTime()));
+				this.writer.name(Json.VALUE).value(valueChange.getValue().getValueAsString());
+				this.writer.name(Json.TYPE).value(valueChange.getValue().getType());
+				this.writer.endObject();
+			}
+			this.writer.endArray();
+		}
+
+		this.writer.endObject();
+	}
+
+	protected void writeAttributes(Set<String> members, AbstractStrolchElement element) throws IOException {
+		name(members, Json.ID).value(element.getId());
+		if (this.withLocator)
+			name(members, Json.LOCATOR).value(element.getLocator().toString());
+		if (!isWithoutElementName())
+			name(members, Json.NAME).value(element.getName());
+		name(members, Json.TYPE).value(element.getType());
+	}
+
+	protected void writePolicies(Set<String> members, PolicyContainer policyContainer) throws IOException {
+		if (!policyContainer.hasPolicyDefs() || !policyContainer.getPolicyDefs().hasPolicyDefs())
+			return;
+		if (isWithoutPolicies())
+			return;
+
+		PolicyDefs policyDefs = policyContainer.getPolicyDefs();
+
+		name(members, Json.POLICIES).beginObject();
+		for (String type : policyDefs.getPolicyTypes()) {
+			PolicyDef policyDef = policyDefs.getPolicyDef(type);
+			this.writer.name(policyDef.getType()).value(policyDef.getValueForXml());
+		}
+		this.writer.endObject();
+	}
+
+	protected void writeVersion(Set<String> members, StrolchRootElement element) throws IOException {
+		if (!element.hasVersion())
+			return;
+		if (isWithoutVersion())
+			return;
+
+		Version version = element.getVersion();
+
+		name(members, Json.VERSION).beginObject();
+		this.writer.name(Json.VERSION).value(version.getVersion());
+		this.writer.name(Json.CREATED_BY).value(version.getCreatedBy());
+		this.writer.name(Json.UPDATED_BY).value(version.getUpdatedBy());
+		this.writer.name(Json.CREATED).value(formatDate(version.getCreated()));
+		this.writer.name(Json.UPDATED).value(formatDate(version.getUpdated()));
+		this.writer.name(Json.DELETED).value(version.isDeleted());
+		this.writer.endObject();
+	}
+
+	protected void writeParameterizedElements(Set<String> members, GroupedParameterizedElement element)
+			throws IOException {
+
+		if (!element.hasParameterBags())
+			return;
+
+		// flat bags are written first, as the full bags are all written in a single object
+		boolean hasFullBags = false;
+		for (String bagId : element.getParameterBagKeySet()) {
+			ParameterBag bag = element.getParameterBag(bagId);
+			if (isIgnored(bag))
+				continue;
+
+			Set<String> ignoredParamIds = this.ignoredKeys.getSet(bagId);
+			if (isBagFlat(bag)) {
+				name(members, bagId).beginObject();
+				writeParameterBagFlat(new HashSet<>(), ignoredParamIds, bag);
+				this.writer.endObject();
+			} else if (isFlat()) {
+				writeParameterBagFlat(members, ignoredParamIds, bag);
+			} else {
+				hasFullBags = true;
+			}
+		}
+
+		if (!hasFullBags)
+			return;
+
+		name(members, PARAMETER_BAGS).beginObject();
+		for (String bagId : element.getParameterBagKeySet()) {
+			ParameterBag bag = element.getParameterBag(bagId);
+			if (isIgnored(bag) || isBagFlat(bag))
+				continue;
+
+			this.writer.name(bagId);
+			writeParameterBagFull(bag);
+		}
+		this.writer.endObject();
+	}
+
+	private boolean isIgnored(ParameterBag bag) {
+		if (!bag.hasParameters())
+			return true;
+
+		// see if we have to ignore this bag i.e. empty set existing
+		Set<String> ignoredParamIds = this.ignoredKeys.getSet(bag.getId());
+		if (ignoredParamIds != null && ignoredParamIds.isEmpty())
+			return true;
+
+		return this.ignoredBagTypes.contains(bag.getType());
+	}
+
+	private void writeParameterBagFlat(Set<String> members, Set<String> ignoredParamIds, ParameterBag parameterBag)
+			throws IOException {
+
+		List<Parameter<?>> parameters = new ArrayList<>(parameterBag.getParameters());
+		parameters.sort(comparing(Parameter::getIndex));
+		for (Parameter<?> param : parameters) {
+			String paramId = param.getId();
+
+			// see if this parameter must be ignored
+			if (ignoredParamIds != null && ignoredParamIds.contains(paramId))
+				continue;
+
+			if (!members.add(paramId)) {
+				throw new StrolchModelException(
+						"JsonObject already has a member with ID " + paramId + ": " + parameterBag.getLocator());
+			}
+
+			this.writer.name(paramId);
+			StrolchValueType type = StrolchValueType.parse(param.getType());
+			if (type.isBoolean()) {
+				this.writer.value((Boolean) param.getValue());
+			} else if (type.isNumber()) {
+				this.writer.value((Number) param.getValue());
+			} else {
+				this.writer.value(param.getValueAsString());
+			}
+		}
+	}
+
+	private void writeParameterBagFull(ParameterBag bag) throws IOException {
+		this.writer.beginObject();
+		writeAttributes(null, bag);
+
+		this.writer.name(Json.PARAMETERS).beginObject();
+		List<Parameter<?>> parameters = new ArrayList<>(bag.getParameters());
+		parameters.sort(comparing(Parameter::getIndex));
+		for (Parameter<?> param : parameters) {
+			this.writer.name(param.getId());
+			writeParameterFull(param);
+		}
+		this.writer.endObject();
+
+		this.writer.endObject();
+	}
+
+	private void writeParameterFull(Parameter<?> param) throws IOException {
+		this.writer.beginObject();
+		writeAttributes(null, (AbstractStrolchElement) param);
+
+		if (!StrolchModelConstants.INTERPRETATION_NONE.equals(param.getInterpretation()))
+			this.writer.name(Json.INTERPRETATION).value(param.getInterpretation());
+		if (param.isHidden())
+			this.writer.name(Json.HIDDEN).value(param.isHidden());
+		if (!StrolchModelConstants.UOM_NONE.equals(param.getUom()))
+			this.writer.name(Json.UOM).value(param.getUom());
+		if (param.getIndex() != 0)
+			this.writer.name(Json.INDEX).value(param.getIndex());
+
+		this.writer.name(Json.VALUE).value(param.getValueAsString());
+		this.writer.endObject();
+	}
+
+	protected void writeStates(Set<String> members, Resource resource) throws IOException {
+		if (isWithoutStateVariables())
+			return;
+		if (!resource.hasTimedStates())
+			return;
+
+		if (!isFlat())
+			name(members, Json.TIMED_STATES).beginObject();
+
+		for (String stateKey : resource.getTimedStateKeySet()) {
+
+			// see if we have to ignore this state
+			if (this.ignoredTimedStates.contains(stateKey))
+				continue;
+
+			StrolchTimedState<IValue<?>> state = resource.getTimedState(stateKey);
+			if (isFlat()) {
+				if (!members.add(stateKey)) {
+					throw new StrolchModelException(
+							"JsonObject already has a member with ID " + stateKey + ": " + state.getLocator());
+				}
+				this.writer.name(stateKey);
+				writeStateFlat(state);
+			} else {
+				this.writer.name(stateKey);
+				writeStateFull(state);
+			}
+		}
+
+		if (!isFlat())
+			this.writer.endObject();
+	}
+
+	private void writeStateFull(StrolchTimedState<? extends IValue<?>> state) throws IOException {
+		this.writer.beginObject();
+		writeAttributes(null, (AbstractStrolchElement) state);
+
+		this.writer.name(Json.VALUES).beginArray();
+		for (ITimeValue<? extends IValue<?>> value : state.getTimeEvolution().getValues()) {
+			this.writer.beginObject();
+			this.writer.name(Json.TIME).value(formatDate(value.getTime()));
+			this.writer.name(Json.VALUE).value(value.getValue().getValueAsString());
+			this.writer.endObject();
+		}
+		this.writer.endArray();
+
+		this.writer.endObject();
+	}
+
+	private void writeStateFlat(StrolchTimedState<? extends IValue<?>> state) throws IOException {
+		this.writer.beginArray();
+		for (ITimeValue<? extends IValue<?>> value : state.getTimeEvolution().getValues()) {
+			this.writer.beginObject();
+			this.writer.name(Json.DATE).value(formatDate(value.getTime()));
+			this.writer.name(Json.VALUE).value(value.getValue().getValueAsString());
+			this.writer.endObject();
+		}
+		this.writer.endArray();
+	}
+
+	/**
+	 * In flat mode the members of an object are tracked, so that parameters and states which would overwrite an
+	 * existing member can be detected, as JSON objects are not allowed to have duplicate members
+	 */
+	private Set<String> newMembers() {
+		return isFlat() ? new HashSet<>() : null;
+	}
+
+	private JsonWriter name(Set<String> members, String name) throws IOException {
+		if (members != null)
+			members.add(name);
+		return this.writer.name(name);
+	}
+
+	private static String formatDate(Date date) {
+		return ISO8601FormatFactory.getInstance().formatDate(date);
+	}
+
+	private static String formatDate(Long timestamp) {
+		return ISO8601FormatFactory.getInstance().formatDate(timestamp);
+	}
+}
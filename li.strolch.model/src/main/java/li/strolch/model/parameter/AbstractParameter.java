@@ -42,6 +42,9 @@ public abstract class AbstractParameter<T> extends AbstractStrolchElement implem
 
 	protected ParameterizedElement parent;
 
+	protected Locator locator;
+	protected Locator parentLocator;
+
 	/**
 	 * Empty constructor
 	 */
@@ -149,13 +152,24 @@ public abstract class AbstractParameter<T> extends AbstractStrolchElement implem
 		lb.append(this.id);
 	}
 
+	@Override
+	public void setId(String id) {
+		this.locator = null;
+		super.setId(id);
+	}
+
 	@Override
 	public Locator getLocator() {
-		LocatorBuilder lb = new LocatorBuilder();
-		if (this.parent != null)
-			this.parent.fillLocator(lb);
-		fillLocator(lb);
-		return lb.build();
+		Locator parentLocator = this.parent == null ? null : this.parent.getLocator();
+		if (this.locator == null || this.parentLocator != parentLocator) {
+			LocatorBuilder lb = new LocatorBuilder();
+			if (this.parent != null)
+				this.parent.fillLocator(lb);
+			fillLocator(lb);
+			this.locator = lb.build();
+			this.parentLocator = parentLocator;
+		}
+		return this.locator;
 	}
 
 	/**
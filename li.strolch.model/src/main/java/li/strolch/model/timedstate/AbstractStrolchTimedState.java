@@ -18,6 +18,8 @@ package li.strolch.model.timedstate;
 import static li.strolch.model.StrolchModelConstants.INTERPRETATION_NONE;
 import static li.strolch.model.StrolchModelConstants.UOM_NONE;
 
+import java.util.List;
+
 import li.strolch.model.*;
 import li.strolch.model.Locator.LocatorBuilder;
 import li.strolch.model.timevalue.ITimeValue;
@@ -41,6 +43,8 @@ public abstract class AbstractStrolchTimedState<T extends IValue> extends Abstra
 	protected String uom = UOM_NONE;
 
 	protected Resource parent;
+	protected Locator locator;
+	protected Locator parentLocator;
 	protected ITimedState<T> state;
 
 	public AbstractStrolchTimedState() {
@@ -52,6 +56,11 @@ public abstract class AbstractStrolchTimedState<T extends IValue> extends Abstra
 		this.state = new TimedState<>();
 	}
 
+	protected AbstractStrolchTimedState(String id, String name, ITimeVariable<T> timeVariable) {
+		super(id, name);
+		this.state = new TimedState<>(timeVariable);
+	}
+
 	@Override
 	public boolean isHidden() {
 		return this.hidden;
@@ -119,6 +128,11 @@ public abstract class AbstractStrolchTimedState<T extends IValue> extends Abstra
 		this.state.applyChange(change, compact);
 	}
 
+	@Override
+	public <U extends IValueChange<T>> void applyChanges(List<U> changes, boolean compact) {
+		this.state.applyChanges(changes, compact);
+	}
+
 	@Override
 	public ITimeValue<T> getStateAt(Long time) {
 		return this.state.getStateAt(time);
@@ -156,13 +170,24 @@ public abstract class AbstractStrolchTimedState<T extends IValue> extends Abstra
 		lb.append(this.id);
 	}
 
+	@Override
+	public void setId(String id) {
+		this.locator = null;
+		super.setId(id);
+	}
+
 	@Override
 	public Locator getLocator() {
-		LocatorBuilder lb = new LocatorBuilder();
-		if (this.parent != null)
-			this.parent.fillLocator(lb);
-		fillLocator(lb);
-		return lb.build();
+		Locator parentLocator = this.parent == null ? null : this.parent.getLocator();
+		if (this.locator == null || this.parentLocator != parentLocator) {
+			LocatorBuilder lb = new LocatorBuilder();
+			if (this.parent != null)
+				this.parent.fillLocator(lb);
+			fillLocator(lb);
+			this.locator = lb.build();
+			this.parentLocator = parentLocator;
+		}
+		return this.locator;
 	}
 
 	protected void fillClone(AbstractStrolchTimedState<T> clone) {
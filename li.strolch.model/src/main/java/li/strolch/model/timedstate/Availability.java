@@ -0,0 +1,221 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.timedstate;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+import li.strolch.model.timevalue.ITimeValue;
+import li.strolch.model.timevalue.ITimeVariable;
+import li.strolch.model.timevalue.IValue;
+import li.strolch.utils.dbc.DBC;
+
+/**
+ * <p>
+ * An immutable snapshot of the time evolution of a numeric {@link StrolchTimedState}, i.e. a {@link FloatTimedState},
+ * {@link IntegerTimedState} or {@link LongTimedState}, used to find the time ranges in which the state's value, e.g.
+ * the load of a {@link li.strolch.model.Resource}, is at most a given capacity.
+ * </p>
+ *
+ * <p>
+ * The times and values are kept in primitive arrays, so that lookups are a binary search followed by a scan of the
+ * values in the requested range, without creating any objects. As the snapshot is immutable, it can be queried
+ * concurrently. Before the first value the state is undefined, and thus never available.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class Availability {
+
+	private static final Availability EMPTY = new Availability(new long[0], new double[0], 0);
+
+	private final long[] times;
+	private final double[] values;
+	private final int size;
+
+	private Availability(long[] times, double[] values, int size) {
+		this.times = times;
+		this.values = values;
+		this.size = size;
+	}
+
+	/**
+	 * Creates a snapshot of the current time evolution of the given timed state
+	 *
+	 * @param timedState
+	 * 		the timed state, which must have numeric values
+	 *
+	 * @return the snapshot of the given timed state
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if the given timed state is not numeric
+	 */
+	public static Availability of(StrolchTimedState<? extends IValue<?>> timedState) {
+		DBC.PRE.assertNotNull("timedState must be set!", timedState);
+		if (!isSupported(timedState)) {
+			String msg = "The timed state {0} of type {1} is not numeric!";
+			throw new IllegalArgumentException(MessageFormat.format(msg, timedState.getId(), timedState.getType()));
+		}
+
+		@SuppressWarnings("unchecked")
+		ITimeVariable<IValue<?>> timeEvolution = (ITimeVariable<IValue<?>>) timedState.getTimeEvolution();
+
+		Builder builder = new Builder();
+		timeEvolution.forEachValue(builder::add);
+		return builder.build();
+	}
+
+	/**
+	 * Returns true if a snapshot can be created of the given timed state, i.e. it is numeric
+	 *
+	 * @param timedState
+	 * 		the timed state to check
+	 *
+	 * @return true if the given timed state is numeric
+	 */
+	public static boolean isSupported(StrolchTimedState<? extends IValue<?>> timedState) {
+		return timedState instanceof FloatTimedState || timedState instanceof IntegerTimedState
+				|| timedState instanceof LongTimedState;
+	}
+
+	/**
+	 * @return the number of values in this snapshot
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the value at the given time, i.e. the value of the latest change at or before the given time
+	 *
+	 * @param time
+	 * 		the time for which to return the value
+	 * @param defaultValue
+	 * 		the value to return if there is no value at or before the given time
+	 *
+	 * @return the value at the given time, or the default value
+	 */
+	public double getValueAt(long time, double defaultValue) {
+		int index = floorIndex(time);
+		return index < 0 ? defaultValue : this.values[index];
+	}
+
+	/**
+	 * Returns true if the value is at most the given capacity during the whole time range from (inclusive) to
+	 * (exclusive)
+	 *
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @param capacity
+	 * 		the maximum value allowed in the time range
+	 *
+	 * @return true if the value is at most the given capacity during the whole time range
+	 */
+	public boolean isAvailable(long from, long to, double capacity) {
+		DBC.PRE.assertTrue("from must be before to!", from < to);
+
+		int index = floorIndex(from);
+		if (index < 0)
+			return false;
+
+		do {
+			if (this.values[index] > capacity)
+				return false;
+			index++;
+		} while (index < this.size && this.times[index] < to);
+
+		return true;
+	}
+
+	/**
+	 * Returns the start of the first time range at or after the given time with at least the given duration, during
+	 * which the value is at most the given capacity. The last value is deemed to last forever
+	 *
+	 * @param after
+	 * 		the earliest time at which the time range may start
+	 * @param duration
+	 * 		the minimum duration of the time range
+	 * @param capacity
+	 * 		the maximum value allowed in the time range
+	 *
+	 * @return the start of the first such time range, or an empty {@link OptionalLong} if there is none
+	 */
+	public OptionalLong findFirstSlot(long after, long duration, double capacity) {
+		DBC.PRE.assertTrue("duration must not be negative!", duration >= 0L);
+
+		int index = floorIndex(after);
+		long start = after;
+		if (index < 0) {
+			if (this.size == 0)
+				return OptionalLong.empty();
+			index = 0;
+			start = this.times[0];
+		}
+
+		while (index < this.size) {
+
+			// skip the values exceeding the capacity
+			while (index < this.size && this.values[index] > capacity) {
+				index++;
+			}
+			if (index == this.size)
+				return OptionalLong.empty();
+			start = Math.max(start, this.times[index]);
+
+			// find the end of the values within the capacity
+			int end = index + 1;
+			while (end < this.size && this.values[end] <= capacity) {
+				end++;
+			}
+			if (end == this.size || this.times[end] - start >= duration)
+				return OptionalLong.of(start);
+
+			index = end;
+		}
+
+		return OptionalLong.empty();
+	}
+
+	private int floorIndex(long time) {
+		int pos = Arrays.binarySearch(this.times, 0, this.size, time);
+		return pos >= 0 ? pos : -pos - 2;
+	}
+
+	private static class Builder {
+		private long[] times = new long[16];
+		private double[] values = new double[16];
+		private int size;
+
+		private void add(ITimeValue<IValue<?>> timeValue) {
+			if (this.size == this.times.length) {
+				this.times = Arrays.copyOf(this.times, this.size * 2);
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.times[this.size] = timeValue.getTime();
+			this.values[this.size] = ((Number) timeValue.getValue().getValue()).doubleValue();
+			this.size++;
+		}
+
+		private Availability build() {
+			if (this.size == 0)
+				return EMPTY;
+			return new Availability(this.times, this.values, this.size);
+		}
+	}
+}
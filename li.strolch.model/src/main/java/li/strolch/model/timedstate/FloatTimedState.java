@@ -16,6 +16,7 @@
 package li.strolch.model.timedstate;
 
 import li.strolch.model.StrolchValueType;
+import li.strolch.model.timevalue.impl.FloatArrayTimeVariable;
 import li.strolch.model.timevalue.impl.FloatValue;
 import li.strolch.model.visitor.StrolchElementVisitor;
 
@@ -32,6 +33,20 @@ public class FloatTimedState extends AbstractStrolchTimedState<FloatValue> {
 		super(id, name);
 	}
 
+	/**
+	 * Constructs this timed state with a {@link FloatArrayTimeVariable}, which is faster for large time evolutions
+	 *
+	 * @param id
+	 * 		the id
+	 * @param name
+	 * 		the name
+	 * @param timeVariable
+	 * 		the time variable to use
+	 */
+	public FloatTimedState(String id, String name, FloatArrayTimeVariable timeVariable) {
+		super(id, name, timeVariable);
+	}
+
 	@Override
 	public void setStateFromStringAt(Long time, String value) {
 		assertNotReadonly();
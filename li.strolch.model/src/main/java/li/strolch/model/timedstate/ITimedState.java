@@ -15,6 +15,8 @@
  */
 package li.strolch.model.timedstate;
 
+import java.util.List;
+
 import li.strolch.model.timevalue.ITimeValue;
 import li.strolch.model.timevalue.ITimeVariable;
 import li.strolch.model.timevalue.IValue;
@@ -47,6 +49,14 @@ public interface ITimedState<T extends IValue> {
 	 */
 	<U extends IValueChange<T>> void applyChange(final U change, boolean compact);
 
+	/**
+	 * @param changes
+	 * 		the state changes to be applied in one pass
+	 *
+	 * @see ITimeVariable#applyChanges(List, boolean)
+	 */
+	<U extends IValueChange<T>> void applyChanges(final List<U> changes, boolean compact);
+
 	/**
 	 * @return the state at the given time
 	 */
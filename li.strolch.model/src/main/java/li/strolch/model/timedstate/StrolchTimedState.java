@@ -15,6 +15,8 @@
  */
 package li.strolch.model.timedstate;
 
+import java.util.List;
+
 import li.strolch.model.Resource;
 import li.strolch.model.StrolchElement;
 import li.strolch.model.StrolchModelConstants;
@@ -114,6 +116,13 @@ public interface StrolchTimedState<T extends IValue> extends StrolchElement {
 
 	<U extends IValueChange<T>> void applyChange(U change, boolean compact);
 
+	/**
+	 * Applies all the given changes in one pass, compacting at most once
+	 *
+	 * @see ITimeVariable#applyChanges(List, boolean)
+	 */
+	<U extends IValueChange<T>> void applyChanges(List<U> changes, boolean compact);
+
 	ITimeValue<T> getStateAt(Long time);
 
 	/**
@@ -33,7 +33,22 @@ import li.strolch.model.timevalue.impl.TimeVariable;
 @SuppressWarnings("rawtypes")
 public class TimedState<T extends IValue> implements ITimedState<T>, Serializable {
 
-	private ITimeVariable<T> timeVariable = new TimeVariable<>();
+	private ITimeVariable<T> timeVariable;
+
+	public TimedState() {
+		this.timeVariable = new TimeVariable<>();
+	}
+
+	/**
+	 * Constructs a timed state with the given {@link ITimeVariable}, e.g. an {@link
+	 * li.strolch.model.timevalue.impl.ArrayTimeVariable} for large time evolutions
+	 *
+	 * @param timeVariable
+	 * 		the time variable to use
+	 */
+	public TimedState(ITimeVariable<T> timeVariable) {
+		this.timeVariable = timeVariable;
+	}
 
 	@Override
 	@SuppressWarnings("unchecked")
@@ -66,6 +81,11 @@ public class TimedState<T extends IValue> implements ITimedState<T>, Serializabl
 		this.timeVariable.applyChange(change, compact);
 	}
 
+	@Override
+	public <U extends IValueChange<T>> void applyChanges(List<U> changes, boolean compact) {
+		this.timeVariable.applyChanges(changes, compact);
+	}
+
 	@Override
 	public ITimeValue<T> getStateAt(final Long time) {
 		return this.timeVariable.getValueAt(time);
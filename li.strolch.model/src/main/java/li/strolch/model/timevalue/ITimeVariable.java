@@ -15,8 +15,12 @@
  */
 package li.strolch.model.timevalue;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.SortedSet;
+import java.util.function.Consumer;
 
 /**
  * A timed variable storing a ordered sequence of {@link ITimeValue} objects modeling a time evolution of a quantity.
@@ -54,6 +58,28 @@ public interface ITimeVariable<T extends IValue> {
 	 */
 	void applyChange(final IValueChange<T> change, boolean compact);
 
+	/**
+	 * Applies the given {@link IValueChange IValueChanges} in the order of their time, where changes with the same time
+	 * are applied in the given order. The result is the same as applying each change using {@link
+	 * #applyChange(IValueChange, boolean)} in that order, but the values are compacted at most once, and
+	 * implementations may apply all changes in a single pass over the values
+	 *
+	 * @param changes
+	 * 		the {@link IValueChange IValueChanges} to be applied
+	 * @param compact
+	 * 		if set to true, then the values are compacted after all changes were applied, otherwise not
+	 */
+	default void applyChanges(List<? extends IValueChange<T>> changes, boolean compact) {
+		List<IValueChange<T>> sorted = new ArrayList<>(changes);
+		sorted.sort(Comparator.comparing(IValueChange::getTime));
+		for (IValueChange<T> change : sorted) {
+			applyChange(change, false);
+		}
+
+		if (compact)
+			compact();
+	}
+
 	/**
 	 * Get all {@link ITimeValue} objects whose time field is greater or equal to the given time
 	 *
@@ -101,6 +127,17 @@ public interface ITimeVariable<T extends IValue> {
 	 */
 	SortedSet<ITimeValue<T>> getValues();
 
+	/**
+	 * Performs the given action for each {@link ITimeValue} in time order, without first copying the values as {@link
+	 * #getValues()} does. The given action may not modify this time variable
+	 *
+	 * @param action
+	 * 		the action to perform for each {@link ITimeValue}
+	 */
+	default void forEachValue(Consumer<ITimeValue<T>> action) {
+		getValues().forEach(action);
+	}
+
 	/**
 	 * removes {@link ITimeValue} objects from the sequence, where the successor matches value. I.e considering a pair
 	 * of adjacent {@link ITimeValue} objects in the sequence which have the same {@link IValue}, the later one is
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.timevalue.impl;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Consumer;
+
+import li.strolch.exception.StrolchModelException;
+import li.strolch.model.timevalue.ITimeValue;
+import li.strolch.model.timevalue.ITimeVariable;
+import li.strolch.model.timevalue.IValue;
+import li.strolch.model.timevalue.IValueChange;
+import li.strolch.utils.dbc.DBC;
+
+/**
+ * <p>
+ * An {@link ITimeVariable} which keeps its times in a sorted primitive <code>long[]</code> and its values in a
+ * primitive array of the same order, as defined by the concrete sub class. Compared to the {@link TimeVariable}, no
+ * objects are kept per value, {@link #getValueAt(long)} is a binary search, and {@link #applyChange(IValueChange,
+ * boolean)} updates the range of future values in place.
+ * </p>
+ *
+ * <p>
+ * <b>Note:</b> The {@link ITimeValue ITimeValues} returned by this time variable are created on access and are thus
+ * copies, i.e. modifying them does not modify this time variable. Use {@link #setValueAt(long, IValue)} and {@link
+ * #applyChange(IValueChange, boolean)} instead. Further <code>null</code> values are not supported.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of {@link IValue}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@SuppressWarnings("rawtypes")
+public abstract class ArrayTimeVariable<T extends IValue> implements ITimeVariable<T>, Serializable {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	protected long[] times;
+	protected int size;
+	private boolean readonly;
+
+	public ArrayTimeVariable() {
+		this.times = new long[0];
+	}
+
+	/**
+	 * @return the number of values in this time variable
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the value at the given index, creating a new {@link IValue}
+	 */
+	protected abstract T valueAt(int index);
+
+	/**
+	 * Sets the value at the given index
+	 */
+	protected abstract void setValue(int index, T value);
+
+	/**
+	 * Adds the given change to the values from the given index (inclusive) to the given index (exclusive)
+	 */
+	protected abstract void addValues(int from, int to, T change);
+
+	/**
+	 * Copies the value at the index src to the index dest
+	 */
+	protected abstract void copyValue(int src, int dest);
+
+	/**
+	 * Moves the given number of values from the index src to the index dest, as {@link System#arraycopy(Object, int,
+	 * Object, int, int)} does
+	 */
+	protected abstract void moveValues(int src, int dest, int length);
+
+	/**
+	 * Returns true if the value at index successor matches the value at index predecessor, as defined by {@link
+	 * IValue#matches(IValue)}
+	 */
+	protected abstract boolean matches(int successor, int predecessor);
+
+	/**
+	 * Resizes the value array to the given capacity
+	 */
+	protected abstract void resizeValues(int capacity);
+
+	/**
+	 * Returns the index of the value with exactly the given time, or <code>(-(insertion point) - 1)</code>, as {@link
+	 * Arrays#binarySearch(long[], int, int, long)} does
+	 */
+	protected int indexOf(long time) {
+		return Arrays.binarySearch(this.times, 0, this.size, time);
+	}
+
+	/**
+	 * Returns the index of the latest value at or before the given time, or -1 if there is none
+	 */
+	protected int floorIndex(long time) {
+		int pos = indexOf(time);
+		return pos >= 0 ? pos : -pos - 2;
+	}
+
+	/**
+	 * Returns the index of the first value at or after the given time, which is {@link #size()} if there is none
+	 */
+	protected int ceilingIndex(long time) {
+		int pos = indexOf(time);
+		return pos >= 0 ? pos : -pos - 1;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (this.times.length >= capacity)
+			return;
+
+		int newCapacity = Math.max(capacity, this.times.length == 0 ? DEFAULT_CAPACITY : this.times.length * 2);
+		this.times = Arrays.copyOf(this.times, newCapacity);
+		resizeValues(newCapacity);
+	}
+
+	private void insert(int index, long time) {
+		ensureCapacity(this.size + 1);
+		if (index < this.size) {
+			System.arraycopy(this.times, index, this.times, index + 1, this.size - index);
+			moveValues(index, index + 1, this.size - index);
+		}
+		this.times[index] = time;
+		this.size++;
+	}
+
+	private List<ITimeValue<T>> toList(int from, int to) {
+		List<ITimeValue<T>> result = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			result.add(new TimeValue<>(this.times[i], valueAt(i)));
+		}
+		return result;
+	}
+
+	@Override
+	public ITimeValue<T> getValueAt(long time) {
+		int index = floorIndex(time);
+		if (index < 0)
+			return null;
+		return new TimeValue<>(this.times[index], valueAt(index));
+	}
+
+	@Override
+	public void setValueAt(long time, T value) {
+		assertNotReadonly();
+		DBC.PRE.assertNotNull("value must not be null", value);
+
+		int pos = indexOf(time);
+		if (pos < 0) {
+			pos = -pos - 1;
+			insert(pos, time);
+		}
+		setValue(pos, value);
+	}
+
+	@Override
+	public Collection<ITimeValue<T>> getFutureValues(long time) {
+		return toList(ceilingIndex(time), this.size);
+	}
+
+	@Override
+	public Collection<ITimeValue<T>> removeFutureValues(long time) {
+		assertNotReadonly();
+		int from = ceilingIndex(time);
+		List<ITimeValue<T>> result = toList(from, this.size);
+		this.size = from;
+		return result;
+	}
+
+	@Override
+	public Collection<ITimeValue<T>> getPastValues(long time) {
+		return toList(0, ceilingIndex(time));
+	}
+
+	@Override
+	public Collection<ITimeValue<T>> removePastValues(long time) {
+		assertNotReadonly();
+		int to = ceilingIndex(time);
+		List<ITimeValue<T>> result = toList(0, to);
+		System.arraycopy(this.times, to, this.times, 0, this.size - to);
+		moveValues(to, 0, this.size - to);
+		this.size -= to;
+		return result;
+	}
+
+	@Override
+	public SortedSet<ITimeValue<T>> getValues() {
+		return new TreeSet<>(toList(0, this.size));
+	}
+
+	@Override
+	public void forEachValue(Consumer<ITimeValue<T>> action) {
+		for (int i = 0; i < this.size; i++) {
+			action.accept(new TimeValue<>(this.times[i], valueAt(i)));
+		}
+	}
+
+	@Override
+	public void applyChange(IValueChange<T> change, boolean compact) {
+		assertNotReadonly();
+
+		long time = change.getTime();
+		T value = change.getValue();
+
+		int pos = indexOf(time);
+		if (pos >= 0) {
+			addValues(pos, this.size, value);
+		} else {
+			int index = -pos - 1;
+			addValues(index, this.size, value);
+			insert(index, time);
+			if (index == 0) {
+				setValue(index, value);
+			} else {
+				copyValue(index - 1, index);
+				addValues(index, index + 1, value);
+			}
+		}
+
+		if (compact)
+			compact();
+	}
+
+	/**
+	 * Applies the changes in a single pass over the values: first the times of the changes which are not yet set are
+	 * merged into the times, with the value of their predecessor, then the sum of all changes up to the time of a
+	 * change is added to the range of values up to the next change
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void applyChanges(List<? extends IValueChange<T>> changes, boolean compact) {
+		assertNotReadonly();
+		if (changes.isEmpty()) {
+			if (compact)
+				compact();
+			return;
+		}
+
+		List<IValueChange<T>> sorted = new ArrayList<>(changes);
+		sorted.sort(Comparator.comparing(IValueChange::getTime));
+
+		int leading = mergeTimes(sorted);
+
+		IValue sum = null;
+		int nrOfChanges = sorted.size();
+		int i = 0;
+		while (i < nrOfChanges) {
+			long time = sorted.get(i).getTime();
+			while (i < nrOfChanges && sorted.get(i).getTime() == time) {
+				IValue value = sorted.get(i).getValue();
+				sum = sum == null ? value.getCopy() : sum.add(value.getValue());
+				i++;
+			}
+
+			int from = indexOf(time);
+			int to = i < nrOfChanges ? indexOf(sorted.get(i).getTime()) : this.size;
+
+			// values without a predecessor are set to the sum of the changes
+			if (from < leading) {
+				setValue(from, (T) sum.getCopy());
+				from++;
+			}
+			addValues(from, to, (T) sum);
+		}
+
+		if (compact)
+			compact();
+	}
+
+	/**
+	 * Merges the times of the given changes, sorted by time, which are not yet set into the times, starting from the
+	 * end, so that each value is moved at most once. A new time is given the value of its predecessor
+	 *
+	 * @return the number of new times before the first time, which have no predecessor and thus no value
+	 */
+	private int mergeTimes(List<IValueChange<T>> sorted) {
+		long[] newTimes = new long[sorted.size()];
+		int nrOfNewTimes = 0;
+		for (IValueChange<T> change : sorted) {
+			long time = change.getTime();
+			if ((nrOfNewTimes == 0 || newTimes[nrOfNewTimes - 1] != time) && indexOf(time) < 0)
+				newTimes[nrOfNewTimes++] = time;
+		}
+		if (nrOfNewTimes == 0)
+			return 0;
+
+		ensureCapacity(this.size + nrOfNewTimes);
+
+		int leading = 0;
+		int src = this.size - 1;
+		int dest = this.size + nrOfNewTimes - 1;
+		for (int j = nrOfNewTimes - 1; j >= 0; j--) {
+			while (src >= 0 && this.times[src] > newTimes[j]) {
+				this.times[dest] = this.times[src];
+				copyValue(src, dest);
+				src--;
+				dest--;
+			}
+
+			this.times[dest] = newTimes[j];
+			if (src >= 0)
+				copyValue(src, dest);
+			else
+				leading++;
+			dest--;
+		}
+
+		this.size += nrOfNewTimes;
+		return leading;
+	}
+
+	@Override
+	public void compact() {
+		assertNotReadonly();
+
+		if (this.size < 2)
+			return;
+
+		int predecessor = 0;
+		for (int i = 1; i < this.size; i++) {
+			if (matches(i, predecessor))
+				continue;
+
+			predecessor++;
+			if (predecessor != i) {
+				this.times[predecessor] = this.times[i];
+				copyValue(i, predecessor);
+			}
+		}
+		this.size = predecessor + 1;
+	}
+
+	@Override
+	public void clear() {
+		assertNotReadonly();
+		this.size = 0;
+	}
+
+	/**
+	 * Copies the times of this time variable to the given copy, the sub class copies the values
+	 */
+	protected void fillCopy(ArrayTimeVariable<T> copy) {
+		copy.times = Arrays.copyOf(this.times, this.size);
+		copy.size = this.size;
+	}
+
+	@Override
+	public boolean isReadonly() {
+		return this.readonly;
+	}
+
+	@Override
+	public void setReadonly() {
+		this.readonly = true;
+	}
+
+	protected void assertNotReadonly() {
+		if (this.readonly) {
+			throw new StrolchModelException("The element " + this.getClass().getSimpleName()
+					+ " is currently readOnly, to modify clone first!");
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.timevalue.impl;
+
+import java.util.Arrays;
+
+import li.strolch.model.timevalue.ITimeVariable;
+
+/**
+ * An {@link ArrayTimeVariable} for {@link IntegerValue} which keeps its values in a <code>int[]</code>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class IntegerArrayTimeVariable extends ArrayTimeVariable<IntegerValue> {
+
+	private int[] values;
+
+	public IntegerArrayTimeVariable() {
+		this.values = new int[0];
+	}
+
+	/**
+	 * Returns the value at the given time without creating any objects, i.e. the value of the latest change at or
+	 * before the given time
+	 *
+	 * @param time
+	 * 		the time for which to return the value
+	 * @param defaultValue
+	 * 		the value to return if there is no value at or before the given time
+	 *
+	 * @return the value at the given time, or the default value
+	 */
+	public int getIntAt(long time, int defaultValue) {
+		int index = floorIndex(time);
+		return index < 0 ? defaultValue : this.values[index];
+	}
+
+	@Override
+	protected IntegerValue valueAt(int index) {
+		return new IntegerValue(this.values[index]);
+	}
+
+	@Override
+	protected void setValue(int index, IntegerValue value) {
+		this.values[index] = value.getValue();
+	}
+
+	@Override
+	protected void addValues(int from, int to, IntegerValue change) {
+		int d = change.getValue();
+		int[] values = this.values;
+		for (int i = from; i < to; i++) {
+			values[i] += d;
+		}
+	}
+
+	@Override
+	protected void copyValue(int src, int dest) {
+		this.values[dest] = this.values[src];
+	}
+
+	@Override
+	protected void moveValues(int src, int dest, int length) {
+		System.arraycopy(this.values, src, this.values, dest, length);
+	}
+
+	@Override
+	protected boolean matches(int successor, int predecessor) {
+		return this.values[successor] == this.values[predecessor];
+	}
+
+	@Override
+	protected void resizeValues(int capacity) {
+		this.values = Arrays.copyOf(this.values, capacity);
+	}
+
+	@Override
+	public ITimeVariable<IntegerValue> getCopy() {
+		IntegerArrayTimeVariable clone = new IntegerArrayTimeVariable();
+		fillCopy(clone);
+		clone.values = Arrays.copyOf(this.values, this.size);
+		return clone;
+	}
+}
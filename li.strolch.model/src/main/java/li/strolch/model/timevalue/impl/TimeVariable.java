@@ -16,10 +16,8 @@
 package li.strolch.model.timevalue.impl;
 
 import java.io.Serializable;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.*;
+import java.util.function.Consumer;
 
 import li.strolch.exception.StrolchModelException;
 import li.strolch.model.timevalue.ITimeValue;
@@ -93,6 +91,11 @@ public class TimeVariable<T extends IValue> implements ITimeVariable<T>, Seriali
 		return new TreeSet<>(this.container);
 	}
 
+	@Override
+	public void forEachValue(Consumer<ITimeValue<T>> action) {
+		this.container.forEach(action);
+	}
+
 	@Override
 	public void applyChange(final IValueChange<T> change, boolean compact) {
 		assertNotReadonly();
@@ -116,6 +119,60 @@ public class TimeVariable<T extends IValue> implements ITimeVariable<T>, Seriali
 			compact();
 	}
 
+	/**
+	 * Applies the changes in a single pass over the values: first a value is added for each time of a change where
+	 * there is none yet, with the value of its predecessor, then the sum of all changes up to the time of each value is
+	 * added to the value
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void applyChanges(List<? extends IValueChange<T>> changes, boolean compact) {
+		assertNotReadonly();
+		if (changes.isEmpty()) {
+			if (compact)
+				compact();
+			return;
+		}
+
+		List<IValueChange<T>> sorted = new ArrayList<>(changes);
+		sorted.sort(Comparator.comparing(IValueChange::getTime));
+
+		// values before the first value have no predecessor and are set to the sum of the changes
+		boolean empty = this.container.isEmpty();
+		long firstTime = empty ? 0L : this.container.first().getTime();
+
+		for (IValueChange<T> change : sorted) {
+			TimeValue<T> probe = new TimeValue<>(change.getTime(), null);
+			SortedSet<ITimeValue<T>> tail = this.container.tailSet(probe);
+			if (!tail.isEmpty() && tail.first().getTime().equals(change.getTime()))
+				continue;
+
+			SortedSet<ITimeValue<T>> head = this.container.headSet(probe);
+			this.container.add(new TimeValue<>(change.getTime(), head.isEmpty() ? null : head.last().getValue()));
+		}
+
+		Iterator<IValueChange<T>> changeIter = sorted.iterator();
+		IValueChange<T> next = changeIter.next();
+		IValue sum = null;
+		for (ITimeValue<T> timeValue : this.container) {
+			while (next != null && next.getTime() <= timeValue.getTime()) {
+				sum = sum == null ? next.getValue().getCopy() : sum.add(next.getValue().getValue());
+				next = changeIter.hasNext() ? changeIter.next() : null;
+			}
+
+			if (sum == null)
+				continue;
+
+			if (empty || timeValue.getTime() < firstTime)
+				timeValue.setValue((T) sum.getCopy());
+			else
+				timeValue.add((T) sum);
+		}
+
+		if (compact)
+			compact();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void compact() {
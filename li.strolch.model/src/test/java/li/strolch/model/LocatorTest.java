@@ -20,6 +20,10 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.List;
 
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.model.parameter.StringParameter;
 import org.junit.Test;
 
 /**
@@ -121,4 +125,56 @@ public class LocatorTest {
 		Locator child = Locator.valueOf("Resource/MyType/@myObj1");
 		assertFalse(child.isEqualOrChildOf(parent));
 	}
+
+	@Test
+	public void shouldHaveSameHashCode() {
+		Locator parsed = Locator.valueOf("Resource/MyType/@myObj/Bag/@bag1/@param1");
+		Locator built = Locator.newBuilder("Resource", "MyType", "@myObj").append("Bag").append("@bag1")
+				.append("@param1").build();
+		Locator appended = Locator.valueOf("Resource", "MyType", "@myObj").append("Bag", "@bag1").append("@param1");
+
+		assertEquals(parsed, built);
+		assertEquals(parsed, appended);
+		assertEquals(parsed.hashCode(), built.hashCode());
+		assertEquals(parsed.hashCode(), appended.hashCode());
+		assertEquals(parsed.trim(3), Locator.valueOf("Resource/MyType/@myObj"));
+		assertEquals(parsed.trim(3).hashCode(), Locator.valueOf("Resource/MyType/@myObj").hashCode());
+	}
+
+	@Test
+	public void shouldCacheLocators() {
+		Resource resource = new Resource("@myObj", "My Object", "MyType");
+		ParameterBag bag = new ParameterBag("@bag1", "Bag 1", "Bag");
+		resource.addParameterBag(bag);
+		StringParameter parameter = new StringParameter("@param1", "Param 1", "value");
+		bag.addParameter(parameter);
+
+		Locator locator = parameter.getLocator();
+		assertEquals(Locator.valueOf("Resource/MyType/@myObj/Bag/@bag1/@param1"), locator);
+		assertSame(locator, parameter.getLocator());
+		assertSame(resource.getLocator(), resource.getLocator());
+
+		// changing the parent invalidates the locators of the children
+		resource.setType("OtherType");
+		assertEquals(Locator.valueOf("Resource/OtherType/@myObj"), resource.getLocator());
+		assertEquals(Locator.valueOf("Resource/OtherType/@myObj/Bag/@bag1/@param1"), parameter.getLocator());
+		resource.setId("@otherObj");
+		assertEquals(Locator.valueOf("Resource/OtherType/@otherObj/Bag/@bag1/@param1"), parameter.getLocator());
+		parameter.setId("@param2");
+		assertEquals(Locator.valueOf("Resource/OtherType/@otherObj/Bag/@bag1/@param2"), parameter.getLocator());
+	}
+
+	@Test
+	public void shouldGetElementByLocator() {
+		Activity activity = new Activity("@act", "Activity", "MyType", TimeOrdering.SERIES);
+		Activity subActivity = new Activity("@subAct", "Sub Activity", "MyType", TimeOrdering.SERIES);
+		activity.addElement(subActivity);
+		Action action = new Action("@action", "Action", "Use");
+		subActivity.addElement(action);
+
+		assertEquals(Locator.valueOf("Activity/MyType/@act/@subAct/@action"), action.getLocator());
+		assertSame(action, activity.getElementByLocator(action.getLocator()));
+		assertSame(action, subActivity.getElementByLocator(action.getLocator()));
+		assertSame(subActivity, activity.getElementByLocator(Locator.valueOf("Activity/MyType/@act/@subAct")));
+	}
 }
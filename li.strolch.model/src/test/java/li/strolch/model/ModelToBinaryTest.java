@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import li.strolch.model.activity.Activity;
+import li.strolch.model.binary.StrolchElementFromBinaryParser;
+import li.strolch.model.binary.StrolchElementToBinaryVisitor;
+import li.strolch.model.visitor.StrolchElementDeepEqualsVisitor;
+import li.strolch.model.xml.StrolchElementToXmlStringVisitor;
+import org.junit.Test;
+
+public class ModelToBinaryTest extends ModelMarshallingTest {
+
+	@Override
+	protected Order formatAndParseOrder(Order order) {
+		byte[] bytes = order.accept(new StrolchElementToBinaryVisitor());
+		Order parsedOrder = new StrolchElementFromBinaryParser().parseOrder(bytes);
+
+		StrolchElementDeepEqualsVisitor visitor = new StrolchElementDeepEqualsVisitor(order);
+		List<Locator> mismatches = parsedOrder.accept(visitor);
+		assertTrue("To binary and back should equal same Order:\n" + mismatches, mismatches.isEmpty());
+
+		return parsedOrder;
+	}
+
+	@Override
+	protected Resource formatAndParseResource(Resource resource) {
+		byte[] bytes = resource.accept(new StrolchElementToBinaryVisitor());
+		Resource parsedResource = new StrolchElementFromBinaryParser().parseResource(bytes);
+
+		StrolchElementDeepEqualsVisitor visitor = new StrolchElementDeepEqualsVisitor(resource);
+		List<Locator> mismatches = parsedResource.accept(visitor);
+		assertTrue("To binary and back should equal same Resource:\n" + mismatches, mismatches.isEmpty());
+
+		return parsedResource;
+	}
+
+	@Override
+	protected Activity formatAndParseActivity(Activity activity) {
+		byte[] bytes = activity.accept(new StrolchElementToBinaryVisitor());
+		Activity parsedActivity = new StrolchElementFromBinaryParser().parseActivity(bytes);
+
+		StrolchElementDeepEqualsVisitor visitor = new StrolchElementDeepEqualsVisitor(activity);
+		List<Locator> mismatches = parsedActivity.accept(visitor);
+		assertTrue("To binary and back should equal same Activity:\n" + mismatches, mismatches.isEmpty());
+
+		return parsedActivity;
+	}
+
+	@Test
+	public void shouldBeSmallerThanXml() {
+		Resource resource = ModelGenerator.createResource("@1", "My Resource 1", "MyResource");
+		byte[] bytes = resource.accept(new StrolchElementToBinaryVisitor());
+		String xml = resource.accept(new StrolchElementToXmlStringVisitor().withoutDocument());
+		assertTrue("Binary should be smaller than XML: " + bytes.length + " vs " + xml.length(),
+				bytes.length < xml.length());
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.model.json.*;
+import li.strolch.model.visitor.StrolchElementDeepEqualsVisitor;
+import org.junit.Test;
+
+/**
+ * Asserts that the {@link StrolchElementToJsonWriterVisitor} writes the same JSON as the {@link
+ * StrolchElementToJsonVisitor}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class ModelToJsonWriterTest extends ModelMarshallingTest {
+
+	private static JsonObject write(StrolchRootElement element, StrolchElementToJsonVisitor expectedVisitor,
+			Function<JsonWriter, StrolchElementToJsonWriterVisitor> visitorFactory)
+			throws IOException {
+
+		StringWriter out = new StringWriter();
+		try (JsonWriter writer = new JsonWriter(out)) {
+			element.accept(visitorFactory.apply(writer));
+		}
+
+		JsonElement expected = element.accept(expectedVisitor);
+		JsonObject actual = JsonParser.parseString(out.toString()).getAsJsonObject();
+		assertEquals(expected, actual);
+		return actual;
+	}
+
+	private static JsonObject write(StrolchRootElement element) throws IOException {
+		return write(element, new StrolchElementToJsonVisitor(), StrolchElementToJsonWriterVisitor::new);
+	}
+
+	@Test
+	public void shouldWriteSameFlatJson() throws IOException {
+		Resource resource = ModelGenerator.createResource("@1", "My Resource 1", "MyResource");
+		write(resource, new StrolchElementToJsonVisitor().flat().withLocator(),
+				w -> new StrolchElementToJsonWriterVisitor(w).flat().withLocator());
+
+		Order order = ModelGenerator.createOrder("@1", "My Order 1", "MyOrder");
+		write(order, new StrolchElementToJsonVisitor().flat().withoutVersion(),
+				w -> new StrolchElementToJsonWriterVisitor(w).flat().withoutVersion());
+
+		Activity activity = ModelGenerator.createActivity("@1", "My Activity 1", "Transport", TimeOrdering.SERIES);
+		write(activity, new StrolchElementToJsonVisitor().flat().activityDepth(1),
+				w -> new StrolchElementToJsonWriterVisitor(w).flat().activityDepth(1));
+	}
+
+	@Test
+	public void shouldWriteSameJsonWithOptions() throws IOException {
+		Resource resource = ModelGenerator.createResource("@1", "My Resource 1", "MyResource");
+		write(resource, new StrolchElementToJsonVisitor().flatBags(ModelGenerator.BAG_ID)
+						.ignoreTimeState(ModelGenerator.STATE_BOOLEAN_ID).withoutPolicies(),
+				w -> new StrolchElementToJsonWriterVisitor(w).flatBags(ModelGenerator.BAG_ID)
+						.ignoreTimeState(ModelGenerator.STATE_BOOLEAN_ID).withoutPolicies());
+	}
+
+	@Override
+	protected Order formatAndParseOrder(Order order) throws Exception {
+		JsonObject jsonObject = write(order);
+
+		Order parsedOrder = new OrderFromJsonVisitor().visit(jsonObject);
+
+		StrolchElementDeepEqualsVisitor visitor = new StrolchElementDeepEqualsVisitor(order);
+		List<Locator> mismatches = parsedOrder.accept(visitor);
+		assertTrue("To JSON and back should equal same Order:\n" + mismatches, mismatches.isEmpty());
+
+		return parsedOrder;
+	}
+
+	@Override
+	protected Resource formatAndParseResource(Resource resource) throws Exception {
+		JsonObject jsonObject = write(resource);
+
+		Resource parsedResource = new ResourceFromJsonVisitor().visit(jsonObject);
+
+		StrolchElementDeepEqualsVisitor visitor = new StrolchElementDeepEqualsVisitor(resource);
+		List<Locator> mismatches = parsedResource.accept(visitor);
+		assertTrue("To JSON and back should equal same Resource:\n" + mismatches, mismatches.isEmpty());
+
+		return parsedResource;
+	}
+
+	@Override
+	protected Activity formatAndParseActivity(Activity activity) throws Exception {
+		JsonObject jsonObject = write(activity);
+
+		Activity parsedActivity = new ActivityFromJsonVisitor().visit(jsonObject);
+
+		StrolchElementDeepEqualsVisitor visitor = new StrolchElementDeepEqualsVisitor(activity);
+		List<Locator> mismatches = parsedActivity.accept(visitor);
+		assertTrue("To JSON and back should equal same Activity:\n" + mismatches, mismatches.isEmpty());
+
+		return parsedActivity;
+	}
+}
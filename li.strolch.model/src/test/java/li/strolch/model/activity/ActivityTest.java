@@ -34,6 +34,8 @@ import java.util.Optional;
 import li.strolch.exception.StrolchException;
 import li.strolch.model.ModelGenerator;
 import li.strolch.model.State;
+import li.strolch.model.timevalue.impl.IntegerValue;
+import li.strolch.model.timevalue.impl.ValueChange;
 import li.strolch.model.xml.StrolchElementToDomVisitor;
 import org.junit.Assert;
 import org.junit.Before;
@@ -309,6 +311,64 @@ public class ActivityTest {
 		assertEquals("action_bla", actionsWithState.get(0).getId());
 	}
 
+	@Test
+	public void testStatePropagation() {
+		assertEquals(State.PLANNING, this.activity.getState());
+		assertEquals(State.PLANNING, this.childActivity.getState());
+
+		this.action_3.setState(State.PLANNED);
+		assertEquals(State.PLANNED, this.childActivity.getState());
+		assertEquals(State.PLANNING, this.activity.getState());
+
+		this.action_1.setState(State.PLANNED);
+		assertEquals(State.PLANNED, this.activity.getState());
+
+		this.action_2.setState(State.ERROR);
+		assertEquals(State.ERROR, this.childActivity.getState());
+		assertEquals(State.ERROR, this.activity.getState());
+
+		this.childActivity.remove(this.action_2.getId());
+		assertEquals(State.PLANNED, this.activity.getState());
+
+		Action action = new Action("action_4", "Action 4", "Use");
+		action.setState(State.EXECUTION);
+		this.childActivity.addElementBefore(this.action_3, action);
+		assertEquals(State.EXECUTION, this.activity.getState());
+
+		this.activity.remove(this.childActivity.getId());
+		assertEquals(State.PLANNED, this.activity.getState());
+		assertEquals(State.getState(this.activity), this.activity.getState());
+	}
+
+	@Test
+	public void testTimesPropagation() {
+		assertEquals(Long.MAX_VALUE, this.activity.getStart().longValue());
+		assertEquals(0L, this.activity.getEnd().longValue());
+
+		this.action_2.addChange(new ValueChange<>(100L, new IntegerValue(1)));
+		this.action_3.addChange(new ValueChange<>(200L, new IntegerValue(-1)));
+		assertEquals(100L, this.activity.getStart().longValue());
+		assertEquals(200L, this.activity.getEnd().longValue());
+		assertEquals(100L, this.childActivity.getStart().longValue());
+
+		this.action_2.getChanges().get(0).setTime(150L);
+		this.action_2.changesModified();
+		assertEquals(150L, this.activity.getStart().longValue());
+
+		Action action = new Action("action_4", "Action 4", "Use");
+		action.addChange(new ValueChange<>(300L, new IntegerValue(1)));
+		this.childActivity.addElementAfter(this.action_3, action);
+		assertEquals(300L, this.activity.getEnd().longValue());
+
+		this.childActivity.remove(action.getId());
+		assertEquals(200L, this.activity.getEnd().longValue());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void shouldNotModifyChangesDirectly() {
+		this.action_2.getChanges().add(new ValueChange<>(100L, new IntegerValue(1)));
+	}
+
 	@Test
 	public void getElementTest() {
 		assertEquals(this.action_1, this.activity.getElement(this.action_1.getId()));
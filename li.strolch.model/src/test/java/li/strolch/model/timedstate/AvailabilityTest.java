@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.timedstate;
+
+import static org.junit.Assert.*;
+
+import java.util.OptionalLong;
+
+import li.strolch.model.timevalue.impl.FloatArrayTimeVariable;
+import li.strolch.model.timevalue.impl.FloatValue;
+import li.strolch.model.timevalue.impl.ValueChange;
+import li.strolch.model.timevalue.impl.StringSetValue;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class AvailabilityTest {
+
+	private static IntegerTimedState createIntegerState() {
+		// load of 0 from 10, 2 from 20, 1 from 30 and 0 from 50
+		IntegerTimedState state = new IntegerTimedState("load", "Load");
+		state.setStateFromStringAt(10L, "0");
+		state.setStateFromStringAt(20L, "2");
+		state.setStateFromStringAt(30L, "1");
+		state.setStateFromStringAt(50L, "0");
+		return state;
+	}
+
+	@Test
+	public void shouldReadValues() {
+		Availability availability = Availability.of(createIntegerState());
+		assertEquals(4, availability.size());
+		assertEquals(-1.0, availability.getValueAt(5L, -1.0), 0.0);
+		assertEquals(0.0, availability.getValueAt(10L, -1.0), 0.0);
+		assertEquals(2.0, availability.getValueAt(29L, -1.0), 0.0);
+		assertEquals(0.0, availability.getValueAt(100L, -1.0), 0.0);
+	}
+
+	@Test
+	public void shouldBeAvailable() {
+		Availability availability = Availability.of(createIntegerState());
+
+		assertTrue(availability.isAvailable(10L, 20L, 0.0));
+		assertFalse(availability.isAvailable(10L, 21L, 0.0));
+		assertTrue(availability.isAvailable(10L, 21L, 2.0));
+		assertTrue(availability.isAvailable(30L, 50L, 1.0));
+		assertFalse(availability.isAvailable(29L, 50L, 1.0));
+		assertTrue(availability.isAvailable(50L, Long.MAX_VALUE, 0.0));
+
+		// undefined before the first value
+		assertFalse(availability.isAvailable(5L, 15L, 10.0));
+	}
+
+	@Test
+	public void shouldFindFirstSlot() {
+		Availability availability = Availability.of(createIntegerState());
+
+		assertEquals(OptionalLong.of(10L), availability.findFirstSlot(0L, 10L, 0.0));
+		assertEquals(OptionalLong.of(50L), availability.findFirstSlot(0L, 11L, 0.0));
+		assertEquals(OptionalLong.of(15L), availability.findFirstSlot(15L, 5L, 0.0));
+		assertEquals(OptionalLong.of(50L), availability.findFirstSlot(15L, 6L, 0.0));
+		assertEquals(OptionalLong.of(30L), availability.findFirstSlot(21L, 1000L, 1.0));
+		assertEquals(OptionalLong.of(21L), availability.findFirstSlot(21L, 1000L, 2.0));
+		assertEquals(OptionalLong.empty(), availability.findFirstSlot(0L, 10L, -1.0));
+	}
+
+	@Test
+	public void shouldUseArrayTimeVariable() {
+		FloatTimedState state = new FloatTimedState("load", "Load", new FloatArrayTimeVariable());
+		state.getTimeEvolution().setValueAt(0L, new FloatValue(0.0));
+		state.applyChange(new ValueChange<>(10L, new FloatValue(1.5)), true);
+		state.applyChange(new ValueChange<>(20L, new FloatValue(-1.5)), true);
+
+		Availability availability = Availability.of(state);
+		assertEquals(3, availability.size());
+		assertEquals(1.5, availability.getValueAt(15L, -1.0), 0.0);
+		assertEquals(OptionalLong.of(20L), availability.findFirstSlot(5L, 10L, 1.0));
+		assertEquals(OptionalLong.of(5L), availability.findFirstSlot(5L, 10L, 1.5));
+	}
+
+	@Test
+	public void shouldBeEmpty() {
+		Availability availability = Availability.of(new IntegerTimedState("load", "Load"));
+		assertEquals(0, availability.size());
+		assertFalse(availability.isAvailable(0L, 10L, 1.0));
+		assertEquals(OptionalLong.empty(), availability.findFirstSlot(0L, 10L, 1.0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldFailOnNonNumericState() {
+		StringSetTimedState state = new StringSetTimedState("names", "Names");
+		state.getTimeEvolution().setValueAt(0L, new StringSetValue("a"));
+		Availability.of(state);
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.model.timevalue;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import li.strolch.exception.StrolchModelException;
+import li.strolch.model.timevalue.impl.*;
+import org.junit.Test;
+
+/**
+ * Asserts that the {@link ArrayTimeVariable ArrayTimeVariables} behave the same as the {@link TimeVariable}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class ArrayTimeVariableTest {
+
+	@Test
+	public void shouldGetValueAt() {
+		FloatArrayTimeVariable timeVariable = new FloatArrayTimeVariable();
+		assertNull(timeVariable.getValueAt(10L));
+
+		for (long i = 0; i < 100L; i += 10L) {
+			timeVariable.setValueAt(i, new FloatValue(i));
+		}
+
+		assertNull(timeVariable.getValueAt(-1L));
+		assertEquals(Long.valueOf(50L), timeVariable.getValueAt(50L).getTime());
+		assertEquals(50.0D, timeVariable.getValueAt(50L).getValue().getValue(), 0.0);
+		assertEquals(Long.valueOf(50L), timeVariable.getValueAt(59L).getTime());
+		assertEquals(90.0D, timeVariable.getValueAt(Long.MAX_VALUE).getValue().getValue(), 0.0);
+		assertEquals(50.0D, timeVariable.getDoubleAt(55L, -1.0D), 0.0);
+		assertEquals(-1.0D, timeVariable.getDoubleAt(-1L, -1.0D), 0.0);
+	}
+
+	@Test
+	public void shouldApplyChangeToEmpty() {
+		IntegerArrayTimeVariable timeVariable = new IntegerArrayTimeVariable();
+		timeVariable.applyChange(new ValueChange<>(50L, new IntegerValue(10)), true);
+
+		assertEquals(1, timeVariable.size());
+		assertEquals(Integer.valueOf(10), timeVariable.getValueAt(50L).getValue().getValue());
+		assertEquals(0, timeVariable.getIntAt(49L, 0));
+	}
+
+	@Test
+	public void shouldCompact() {
+		LongArrayTimeVariable timeVariable = new LongArrayTimeVariable();
+		for (long i = 0; i < 100L; i += 10L) {
+			timeVariable.setValueAt(i, new LongValue(i < 50L ? 1L : 2L));
+		}
+
+		timeVariable.compact();
+		assertEquals(2, timeVariable.size());
+		assertEquals(Long.valueOf(50L), timeVariable.getValueAt(99L).getTime());
+	}
+
+	@Test
+	public void shouldNotModifyReadonly() {
+		BooleanArrayTimeVariable timeVariable = new BooleanArrayTimeVariable();
+		timeVariable.setValueAt(0L, new BooleanValue(true));
+		timeVariable.setReadonly();
+		try {
+			timeVariable.setValueAt(10L, new BooleanValue(false));
+			fail("Should not be able to modify readonly time variable");
+		} catch (StrolchModelException e) {
+			// expected
+		}
+
+		ITimeVariable<BooleanValue> copy = timeVariable.getCopy();
+		assertFalse(copy.isReadonly());
+		copy.setValueAt(10L, new BooleanValue(false));
+		assertEquals(1, timeVariable.getValues().size());
+		assertEquals(2, copy.getValues().size());
+	}
+
+	@Test
+	public void shouldBehaveAsTimeVariableForFloat() {
+		Random random = new Random(1L);
+		assertSameBehaviour(random, new TimeVariable<>(), new FloatArrayTimeVariable(),
+				() -> new FloatValue((double) random.nextInt(10)));
+	}
+
+	@Test
+	public void shouldBehaveAsTimeVariableForInteger() {
+		Random random = new Random(2L);
+		assertSameBehaviour(random, new TimeVariable<>(), new IntegerArrayTimeVariable(),
+				() -> new IntegerValue(random.nextInt(10) - 5));
+	}
+
+	@Test
+	public void shouldBehaveAsTimeVariableForLong() {
+		Random random = new Random(3L);
+		assertSameBehaviour(random, new TimeVariable<>(), new LongArrayTimeVariable(),
+				() -> new LongValue((long) random.nextInt(10) - 5));
+	}
+
+	@Test
+	public void shouldBehaveAsTimeVariableForBoolean() {
+		Random random = new Random(4L);
+		assertSameBehaviour(random, new TimeVariable<>(), new BooleanArrayTimeVariable(),
+				() -> new BooleanValue(random.nextBoolean()));
+	}
+
+	@Test
+	public void shouldApplyChangesAsSingleChanges() {
+		Random random = new Random(5L);
+		assertSameChanges(random, TimeVariable::new, TimeVariable::new,
+				() -> new FloatValue((double) random.nextInt(10)));
+		assertSameChanges(random, TimeVariable::new, FloatArrayTimeVariable::new,
+				() -> new FloatValue((double) random.nextInt(10)));
+		assertSameChanges(random, TimeVariable::new, IntegerArrayTimeVariable::new,
+				() -> new IntegerValue(random.nextInt(10) - 5));
+		assertSameChanges(random, TimeVariable::new, LongArrayTimeVariable::new,
+				() -> new LongValue((long) random.nextInt(10) - 5));
+		assertSameChanges(random, TimeVariable::new, BooleanArrayTimeVariable::new,
+				() -> new BooleanValue(random.nextBoolean()));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private <T extends IValue> void assertSameChanges(Random random, Supplier<ITimeVariable<T>> expectedSupplier,
+			Supplier<ITimeVariable<T>> actualSupplier, Supplier<T> values) {
+
+		for (int run = 0; run < 200; run++) {
+			ITimeVariable<T> expected = expectedSupplier.get();
+			ITimeVariable<T> actual = actualSupplier.get();
+
+			// values in the middle, so that changes are also applied before the first value
+			int nrOfValues = random.nextInt(20);
+			for (int i = 0; i < nrOfValues; i++) {
+				long time = 100L + random.nextInt(300);
+				T value = values.get();
+				expected.setValueAt(time, (T) value.getCopy());
+				actual.setValueAt(time, value);
+			}
+
+			List<IValueChange<T>> changes = new ArrayList<>();
+			int nrOfChanges = random.nextInt(50);
+			for (int i = 0; i < nrOfChanges; i++) {
+				changes.add(new ValueChange<>((long) random.nextInt(500), values.get()));
+			}
+
+			// single changes are applied in the order of their time
+			List<IValueChange<T>> sorted = new ArrayList<>(changes);
+			sorted.sort(Comparator.comparing(IValueChange::getTime));
+			boolean compact = random.nextBoolean();
+			for (IValueChange<T> change : sorted) {
+				expected.applyChange(new ValueChange<>(change.getTime(), (T) change.getValue().getCopy()), false);
+			}
+			if (compact)
+				expected.compact();
+
+			actual.applyChanges(changes, compact);
+
+			assertSameValues(expected.getValues(), actual.getValues());
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private <T extends IValue> void assertSameBehaviour(Random random, ITimeVariable<T> expected,
+			ITimeVariable<T> actual, Supplier<T> values) {
+
+		for (int i = 0; i < 2000; i++) {
+			long time = random.nextInt(500);
+			int operation = random.nextInt(10);
+			if (operation < 3) {
+				T value = values.get();
+				expected.setValueAt(time, value);
+				actual.setValueAt(time, value);
+			} else if (operation < 8) {
+				boolean compact = random.nextBoolean();
+				T value = values.get();
+				expected.applyChange(new ValueChange<>(time, value), compact);
+				actual.applyChange(new ValueChange<>(time, value), compact);
+			} else if (operation < 9) {
+				expected.compact();
+				actual.compact();
+			} else if (i % 100 == 0) {
+				assertSameValues(expected.removePastValues(time), actual.removePastValues(time));
+			} else {
+				assertSameValues(expected.getFutureValues(time), actual.getFutureValues(time));
+				assertSameValues(expected.getPastValues(time), actual.getPastValues(time));
+			}
+
+			assertSameValues(expected.getValueAt(time), actual.getValueAt(time));
+		}
+
+		assertSameValues(expected.getValues(), actual.getValues());
+		assertSameValues(expected.getCopy().getValues(), actual.getCopy().getValues());
+		assertSameValues(expected.removeFutureValues(250L), actual.removeFutureValues(250L));
+		assertSameValues(expected.getValues(), actual.getValues());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static <T extends IValue> void assertSameValues(Collection<ITimeValue<T>> expected,
+			Collection<ITimeValue<T>> actual) {
+		List<ITimeValue<T>> expectedList = new ArrayList<>(expected);
+		List<ITimeValue<T>> actualList = new ArrayList<>(actual);
+		assertEquals(expectedList.size(), actualList.size());
+		for (int i = 0; i < expectedList.size(); i++) {
+			assertSameValues(expectedList.get(i), actualList.get(i));
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static <T extends IValue> void assertSameValues(ITimeValue<T> expected, ITimeValue<T> actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertNotNull(actual);
+		assertEquals(expected.getTime(), actual.getTime());
+		assertEquals(expected.getValue().getValue(), actual.getValue().getValue());
+	}
+}
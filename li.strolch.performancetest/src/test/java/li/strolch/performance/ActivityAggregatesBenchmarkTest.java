@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import li.strolch.model.State;
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.model.timevalue.impl.IntegerValue;
+import li.strolch.model.timevalue.impl.ValueChange;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the duration of moving every {@link Action} of deep and wide {@link Activity} trees through the execution
+ * states, reading the state, start and end of the root {@link Activity} after every transition, as the execution
+ * commands do
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class ActivityAggregatesBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ActivityAggregatesBenchmarkTest.class);
+
+	private static final State[] TRANSITIONS = { State.PLANNED, State.EXECUTION, State.EXECUTED, State.CLOSED };
+	private static final int NR_OF_RUNS = 3;
+
+	@Test
+	public void runWideActivity() {
+		run("wide", 1, 10000, false);
+	}
+
+	/**
+	 * a chain of activities, each with one action and the next activity
+	 */
+	@Test
+	public void runDeepActivity() {
+		run("deep", 500, 2, true);
+	}
+
+	@Test
+	public void runBalancedActivity() {
+		run("balanced", 4, 10, false);
+	}
+
+	private void run(String name, int depth, int width, boolean chain) {
+		long fastest = Long.MAX_VALUE;
+		int nrOfActions = 0;
+		for (int run = 0; run < NR_OF_RUNS; run++) {
+			Activity root = new Activity("root", "Root", "Benchmark", TimeOrdering.SERIES);
+			fill(root, depth, width, chain);
+			List<Action> actions = root.getActionsAsFlatList();
+			nrOfActions = actions.size();
+
+			long sum = 0L;
+			long start = System.nanoTime();
+			for (State state : TRANSITIONS) {
+				for (Action action : actions) {
+					action.setState(state);
+					sum += root.getState().ordinal() + root.getStart() + root.getEnd();
+				}
+			}
+			long took = System.nanoTime() - start;
+			fastest = Math.min(fastest, took);
+
+			assertEquals(State.CLOSED, root.getState());
+			assertEquals(State.getState(root), root.getState());
+			assertEquals(0L, root.getStart().longValue());
+			logger.info("Checksum " + sum);
+		}
+
+		int nrOfTransitions = nrOfActions * TRANSITIONS.length;
+		logger.info(name + ": " + nrOfTransitions + " transitions of " + nrOfActions + " actions took " + StringHelper
+				.formatNanoDuration(fastest) + " (" + (long) (nrOfTransitions / (fastest / 1000000000.0D))
+				+ " transitions/s)");
+	}
+
+	private void fill(Activity activity, int depth, int width, boolean chain) {
+		for (int i = 0; i < width; i++) {
+			String id = activity.getId() + "_" + i;
+			if (depth > 1 && (!chain || i == width - 1)) {
+				Activity child = new Activity(id, id, "Benchmark", TimeOrdering.SERIES);
+				activity.addElement(child);
+				fill(child, depth - 1, width, chain);
+			} else {
+				Action action = new Action(id, id, "Use");
+				action.addChange(new ValueChange<>(i * 10L, new IntegerValue(1)));
+				action.addChange(new ValueChange<>(i * 10L + 5L, new IntegerValue(-1)));
+				activity.addElement(action);
+			}
+		}
+	}
+}
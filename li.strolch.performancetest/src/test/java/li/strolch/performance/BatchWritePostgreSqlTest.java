@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Resource;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.persistence.postgresql.PostgresqlDao;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the duration of writing Resources with one TX per element, against writing the same number of Resources
+ * in a single TX, where the {@link PostgresqlDao} writes them using JDBC batches
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class BatchWritePostgreSqlTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_postgresql_batch_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_postgresql"; //$NON-NLS-1$
+
+	public static final String DB_URL = "jdbc:postgresql://localhost/testdb"; //$NON-NLS-1$
+	public static final String DB_USERNAME = "testuser"; //$NON-NLS-1$
+	public static final String DB_PASSWORD = "test"; //$NON-NLS-1$
+
+	private static final String SINGLE_TYPE = "SingleType";
+	private static final String BATCH_TYPE = "BatchType";
+	private static final int NR_OF_ELEMENTS = 5000;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		dropSchema(DB_URL, DB_USERNAME, DB_PASSWORD);
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runBatchWriteTest() {
+		Certificate certificate = runtime().getPrivilegeHandler().authenticate("cached", "cached".toCharArray());
+
+		// one TX per element
+		long start = System.nanoTime();
+		for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+			try (StrolchTransaction tx = openTx(certificate, "single")) {
+				String id = StrolchAgent.getUniqueId();
+				tx.add(ModelGenerator.createResource(id, id, SINGLE_TYPE));
+				tx.commitOnClose();
+			}
+		}
+		long singleInsertNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (Resource resource : getResources(certificate, SINGLE_TYPE)) {
+			try (StrolchTransaction tx = openTx(certificate, "single")) {
+				tx.remove(resource);
+				tx.commitOnClose();
+			}
+		}
+		long singleRemoveNanos = System.nanoTime() - start;
+
+		// all elements in one TX
+		start = System.nanoTime();
+		try (StrolchTransaction tx = openTx(certificate, "batch")) {
+			for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+				String id = StrolchAgent.getUniqueId();
+				tx.add(ModelGenerator.createResource(id, id, BATCH_TYPE));
+			}
+			tx.commitOnClose();
+		}
+		long batchInsertNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		try (StrolchTransaction tx = openTx(certificate, "batch")) {
+			for (Resource resource : tx.getResourceMap().getElementsBy(tx, BATCH_TYPE)) {
+				resource.setName(resource.getName() + " updated");
+				tx.update(resource);
+			}
+			tx.commitOnClose();
+		}
+		long batchUpdateNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		try (StrolchTransaction tx = openTx(certificate, "batch")) {
+			for (Resource resource : tx.getResourceMap().getElementsBy(tx, BATCH_TYPE)) {
+				tx.remove(resource);
+			}
+			tx.commitOnClose();
+		}
+		long batchRemoveNanos = System.nanoTime() - start;
+
+		assertEquals(0, getResources(certificate, BATCH_TYPE).size());
+
+		logger.info("Inserting " + NR_OF_ELEMENTS + " Resources with one TX each took " + StringHelper
+				.formatNanoDuration(singleInsertNanos));
+		logger.info("Removing " + NR_OF_ELEMENTS + " Resources with one TX each took " + StringHelper
+				.formatNanoDuration(singleRemoveNanos));
+		logger.info("Inserting " + NR_OF_ELEMENTS + " Resources in one batch took " + StringHelper
+				.formatNanoDuration(batchInsertNanos));
+		logger.info("Updating " + NR_OF_ELEMENTS + " Resources in one batch took " + StringHelper
+				.formatNanoDuration(batchUpdateNanos));
+		logger.info("Removing " + NR_OF_ELEMENTS + " Resources in one batch took " + StringHelper
+				.formatNanoDuration(batchRemoveNanos));
+
+		runtime().getPrivilegeHandler().invalidate(certificate);
+	}
+
+	private StrolchTransaction openTx(Certificate certificate, String action) {
+		return runtime().getRealm("cached").openTx(certificate, action, false);
+	}
+
+	private List<Resource> getResources(Certificate certificate, String type) {
+		try (StrolchTransaction tx = runtime().getRealm("cached").openTx(certificate, "query", true)) {
+			return new ArrayList<>(tx.getResourceMap().getElementsBy(tx, type));
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import li.strolch.agent.api.ResourceMap;
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.ModelGenerator;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.privilege.model.Certificate;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the read throughput of the {@link ResourceMap} of a realm with the default synchronized element maps,
+ * against a realm with concurrent element maps, with an increasing number of reading threads
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class ElementMapContentionTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_concurrent_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_concurrent"; //$NON-NLS-1$
+
+	private static final String MY_TYPE = "MyType";
+	private static final int NR_OF_RESOURCES = 10000;
+	private static final int NR_OF_READS = 200000;
+
+	private static List<String> resourceIds;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+
+		resourceIds = new ArrayList<>();
+		for (int i = 0; i < NR_OF_RESOURCES; i++) {
+			resourceIds.add(StrolchAgent.getUniqueId());
+		}
+
+		Certificate certificate = runtimeMock.getPrivilegeHandler().authenticate("transient", "transient".toCharArray());
+		for (String realmName : new String[] { "transient", "concurrent" }) {
+			try (StrolchTransaction tx = runtimeMock.getRealm(realmName).openTx(certificate, "prepare", false)) {
+				for (String id : resourceIds) {
+					tx.add(ModelGenerator.createResource(id, id, MY_TYPE));
+				}
+				tx.commitOnClose();
+			}
+		}
+		runtimeMock.getPrivilegeHandler().invalidate(certificate);
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runSynchronizedContentionTest() throws Exception {
+		runContentionTest("transient");
+	}
+
+	@Test
+	public void runConcurrentContentionTest() throws Exception {
+		runContentionTest("concurrent");
+	}
+
+	private void runContentionTest(String realmName) throws Exception {
+		StrolchRealm realm = runtime().getRealm(realmName);
+		Certificate certificate = runtime().getPrivilegeHandler().authenticate("transient", "transient".toCharArray());
+
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		for (int nrOfThreads = 1; nrOfThreads <= maxThreads; nrOfThreads *= 2) {
+
+			ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+			try {
+				List<Future<Long>> futures = new ArrayList<>();
+				long start = System.nanoTime();
+				for (int i = 0; i < nrOfThreads; i++) {
+					futures.add(executor.submit(() -> {
+						try (StrolchTransaction tx = realm.openTx(certificate, "contention", true)) {
+							ResourceMap resourceMap = tx.getResourceMap();
+							ThreadLocalRandom random = ThreadLocalRandom.current();
+							for (int j = 0; j < NR_OF_READS; j++) {
+								String id = resourceIds.get(random.nextInt(NR_OF_RESOURCES));
+								assertNotNull(resourceMap.getBy(tx, MY_TYPE, id));
+							}
+						}
+						return (long) NR_OF_READS;
+					}));
+				}
+
+				long reads = 0L;
+				for (Future<Long> future : futures) {
+					reads += future.get();
+				}
+
+				long tookNanos = System.nanoTime() - start;
+				long readsPerSec = (long) (reads / (tookNanos / 1000000000.0D));
+				logger.info("Realm " + realmName + " with " + nrOfThreads + " threads: " + readsPerSec + " reads/s ("
+						+ (readsPerSec / nrOfThreads) + " reads/s per thread)");
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		runtime().getPrivilegeHandler().invalidate(certificate);
+	}
+}
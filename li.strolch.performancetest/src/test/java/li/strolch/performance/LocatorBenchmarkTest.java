@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import li.strolch.agent.impl.DefaultLockHandler;
+import li.strolch.model.Locator;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Resource;
+import li.strolch.model.StrolchElement;
+import li.strolch.model.Tags;
+import li.strolch.model.parameter.Parameter;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.utils.helper.StringHelper;
+import li.strolch.utils.objectfilter.ObjectFilter;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures locking and unlocking with the {@link DefaultLockHandler}, and lookups in an {@link ObjectFilter}, with the
+ * cached {@link Locator Locators} of the elements, against {@link Locator Locators} which are built on each access
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class LocatorBenchmarkTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_locator_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_transient"; //$NON-NLS-1$
+
+	private static final int NR_OF_RESOURCES = 1000;
+	private static final int NR_OF_RUNS = 20;
+
+	private static List<StrolchElement> elements;
+
+	@BeforeClass
+	public static void beforeClass() {
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+
+		elements = new ArrayList<>();
+		for (int i = 0; i < NR_OF_RESOURCES; i++) {
+			Resource resource = ModelGenerator.createResource("res" + i, "Resource " + i, "MyType");
+			elements.add(resource);
+			for (Parameter<?> parameter : resource.getParameterBag(ModelGenerator.BAG_ID).getParameters()) {
+				elements.add(parameter);
+			}
+		}
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runLockBenchmark() {
+		runLockBenchmark("cached", StrolchElement::getLocator);
+		runLockBenchmark("built", e -> Locator.valueOf(e.getLocator().toString()));
+	}
+
+	@Test
+	public void runObjectFilterBenchmark() {
+		runObjectFilterBenchmark("cached", StrolchElement::getLocator);
+		runObjectFilterBenchmark("built", e -> Locator.valueOf(e.getLocator().toString()));
+	}
+
+	private void runLockBenchmark(String name, Function<StrolchElement, Locator> locatorFunction) {
+		DefaultLockHandler lockHandler = new DefaultLockHandler(runtimeMock.getAgent(), "benchmark",
+				TimeUnit.SECONDS, 10L);
+
+		long start = System.nanoTime();
+		for (int run = 0; run < NR_OF_RUNS; run++) {
+			for (StrolchElement element : elements) {
+				lockHandler.lock(locatorFunction.apply(element));
+			}
+			for (StrolchElement element : elements) {
+				lockHandler.releaseLock(locatorFunction.apply(element));
+			}
+		}
+		long took = System.nanoTime() - start;
+
+		logger.info("Locking and releasing " + elements.size() + " elements " + NR_OF_RUNS + " times with " + name
+				+ " locators took " + StringHelper.formatNanoDuration(took));
+	}
+
+	private void runObjectFilterBenchmark(String name, Function<StrolchElement, Locator> locatorFunction) {
+
+		long start = System.nanoTime();
+		for (int run = 0; run < NR_OF_RUNS; run++) {
+			ObjectFilter objectFilter = new ObjectFilter();
+			for (StrolchElement element : elements) {
+				objectFilter.update(Tags.RESOURCE, locatorFunction.apply(element), element);
+			}
+			for (StrolchElement element : elements) {
+				assertNotNull(objectFilter.getElement(Tags.RESOURCE, locatorFunction.apply(element)));
+			}
+		}
+		long took = System.nanoTime() - start;
+
+		logger.info("Adding and finding " + elements.size() + " elements in an ObjectFilter " + NR_OF_RUNS
+				+ " times with " + name + " locators took " + StringHelper.formatNanoDuration(took));
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static li.strolch.search.ExpressionsSupport.param;
+import static org.junit.Assert.assertEquals;
+
+import li.strolch.agent.api.ParameterIndex;
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Order;
+import li.strolch.model.ParameterBag;
+import li.strolch.model.parameter.StringParameter;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.search.OrderSearch;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the duration of an {@link OrderSearch} on a parameter value with a full scan, against the same search
+ * using a {@link ParameterIndex}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class ParameterIndexSearchTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_index_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_transient"; //$NON-NLS-1$
+
+	private static final String MY_TYPE = "MyType";
+	private static final String BAG_ID = "parameters";
+	private static final String PARAM_CUSTOMER = "customer";
+	private static final int NR_OF_ORDERS = 100000;
+	private static final int NR_OF_CUSTOMERS = 1000;
+	private static final int NR_OF_SEARCHES = 100;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+
+		Certificate certificate = runtimeMock.getPrivilegeHandler().authenticate("transient", "transient".toCharArray());
+		try (StrolchTransaction tx = runtimeMock.getRealm("transient").openTx(certificate, "prepare", false)) {
+			for (int i = 0; i < NR_OF_ORDERS; i++) {
+				String id = StrolchAgent.getUniqueId();
+				Order order = ModelGenerator.createOrder(id, id, MY_TYPE);
+				ParameterBag bag = new ParameterBag(BAG_ID, "Parameters", "Parameters");
+				bag.addParameter(new StringParameter(PARAM_CUSTOMER, "Customer", "c" + (i % NR_OF_CUSTOMERS)));
+				order.addParameterBag(bag);
+				tx.add(order);
+			}
+			tx.commitOnClose();
+		}
+		runtimeMock.getPrivilegeHandler().invalidate(certificate);
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runIndexSearchTest() {
+		Certificate certificate = runtime().getPrivilegeHandler().authenticate("transient", "transient".toCharArray());
+
+		long scanNanos = measure(certificate);
+
+		try (StrolchTransaction tx = runtime().getRealm("transient").openTx(certificate, "index", true)) {
+			tx.getOrderMap().addIndex(MY_TYPE, BAG_ID, PARAM_CUSTOMER, false);
+		}
+
+		long indexNanos = measure(certificate);
+
+		logger.info(NR_OF_SEARCHES + " searches with full scan over " + NR_OF_ORDERS + " Orders took " + StringHelper
+				.formatNanoDuration(scanNanos));
+		logger.info(NR_OF_SEARCHES + " searches with index over " + NR_OF_ORDERS + " Orders took " + StringHelper
+				.formatNanoDuration(indexNanos));
+
+		runtime().getPrivilegeHandler().invalidate(certificate);
+	}
+
+	private long measure(Certificate certificate) {
+		try (StrolchTransaction tx = runtime().getRealm("transient").openTx(certificate, "search", true)) {
+			tx.setReadOnlyElements(true);
+
+			long start = System.nanoTime();
+			for (int i = 0; i < NR_OF_SEARCHES; i++) {
+				int nrOfOrders = new OrderSearch().types(MY_TYPE)
+						.where(param(BAG_ID, PARAM_CUSTOMER).isEqualTo("c" + (i % NR_OF_CUSTOMERS))) //
+						.search(tx).toList().size();
+				assertEquals(NR_OF_ORDERS / NR_OF_CUSTOMERS, nrOfOrders);
+			}
+			return System.nanoTime() - start;
+		}
+	}
+}
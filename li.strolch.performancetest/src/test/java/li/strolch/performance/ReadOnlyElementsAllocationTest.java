@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.model.ModelGenerator;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.utils.helper.FileHelper;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the bytes allocated when reading elements with {@link StrolchTransaction#setReadOnlyElements(boolean)}
+ * disabled, i.e. cloning every element, against reading the shared read only elements
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class ReadOnlyElementsAllocationTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_read_only_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_transient"; //$NON-NLS-1$
+
+	private static final String MY_TYPE = "MyType";
+	private static final int NR_OF_RESOURCES = 10000;
+	private static final int NR_OF_RUNS = 10;
+
+	private static List<String> resourceIds;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+
+		resourceIds = new ArrayList<>();
+		Certificate certificate = runtimeMock.getPrivilegeHandler().authenticate("transient", "transient".toCharArray());
+		try (StrolchTransaction tx = runtimeMock.getRealm("transient").openTx(certificate, "prepare", false)) {
+			for (int i = 0; i < NR_OF_RESOURCES; i++) {
+				String id = StrolchAgent.getUniqueId();
+				tx.add(ModelGenerator.createResource(id, id, MY_TYPE));
+				resourceIds.add(id);
+			}
+			tx.commitOnClose();
+		}
+		runtimeMock.getPrivilegeHandler().invalidate(certificate);
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runAllocationTest() {
+		Certificate certificate = runtime().getPrivilegeHandler().authenticate("transient", "transient".toCharArray());
+
+		// warm up
+		measure(certificate, false);
+		measure(certificate, true);
+
+		long clonedBytes = 0L;
+		long readOnlyBytes = 0L;
+		for (int i = 0; i < NR_OF_RUNS; i++) {
+			clonedBytes += measure(certificate, false);
+			readOnlyBytes += measure(certificate, true);
+		}
+
+		clonedBytes /= NR_OF_RUNS;
+		readOnlyBytes /= NR_OF_RUNS;
+
+		logger.info("Reading " + NR_OF_RESOURCES + " cloned Resources allocated " + FileHelper
+				.humanizeFileSize(clonedBytes) + " (" + (clonedBytes / NR_OF_RESOURCES) + " bytes/read)");
+		logger.info("Reading " + NR_OF_RESOURCES + " read only Resources allocated " + FileHelper
+				.humanizeFileSize(readOnlyBytes) + " (" + (readOnlyBytes / NR_OF_RESOURCES) + " bytes/read)");
+
+		runtime().getPrivilegeHandler().invalidate(certificate);
+	}
+
+	private long measure(Certificate certificate, boolean readOnlyElements) {
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		try (StrolchTransaction tx = runtime().getRealm("transient").openTx(certificate, "allocation", true)) {
+			tx.setReadOnlyElements(readOnlyElements);
+
+			long start = threadMXBean.getThreadAllocatedBytes(threadId);
+			for (String id : resourceIds) {
+				assertNotNull(tx.getResourceBy(MY_TYPE, id));
+			}
+			return threadMXBean.getThreadAllocatedBytes(threadId) - start;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.gson.JsonParser;
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Resource;
+import li.strolch.model.binary.StrolchElementFromBinaryParser;
+import li.strolch.model.binary.StrolchElementToBinaryVisitor;
+import li.strolch.model.json.ResourceFromJsonVisitor;
+import li.strolch.model.json.StrolchRootElementToJsonVisitor;
+import li.strolch.model.xml.SimpleStrolchElementListener;
+import li.strolch.model.xml.StrolchElementToXmlStringVisitor;
+import li.strolch.model.xml.XmlModelSaxReader;
+import li.strolch.utils.helper.FileHelper;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the size, and the duration to write and parse Resources in the XML, JSON and binary formats, which are
+ * the available {@link li.strolch.persistence.postgresql.DataType DataTypes} of the PostgreSQL persistence
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class SerializationFormatTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(SerializationFormatTest.class);
+
+	private static final int NR_OF_ELEMENTS = 10000;
+	private static final int NR_OF_RUNS = 5;
+
+	@Test
+	public void runSerializationFormatTest() throws Exception {
+
+		List<Resource> resources = new ArrayList<>();
+		for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+			String id = StrolchAgent.getUniqueId();
+			resources.add(ModelGenerator.createResource(id, id, "MyType"));
+		}
+
+		SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+		run("xml", resources, r -> r.accept(new StrolchElementToXmlStringVisitor().withoutDocument())
+				.getBytes(StandardCharsets.UTF_8), bytes -> {
+			SimpleStrolchElementListener listener = new SimpleStrolchElementListener();
+			try {
+				saxParser.parse(new ByteArrayInputStream(bytes), new XmlModelSaxReader(listener));
+			} catch (Exception e) {
+				throw new IllegalStateException("Failed to parse XML", e);
+			}
+			return listener.getResources().get(0);
+		});
+
+		run("json", resources,
+				r -> r.accept(new StrolchRootElementToJsonVisitor()).toString().getBytes(StandardCharsets.UTF_8),
+				bytes -> new ResourceFromJsonVisitor()
+						.visit(JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)).getAsJsonObject()));
+
+		StrolchElementToBinaryVisitor binaryVisitor = new StrolchElementToBinaryVisitor();
+		StrolchElementFromBinaryParser binaryParser = new StrolchElementFromBinaryParser();
+		run("binary", resources, r -> r.accept(binaryVisitor), binaryParser::parseResource);
+	}
+
+	private void run(String format, List<Resource> resources, Function<Resource, byte[]> writer,
+			Function<byte[], Resource> parser) {
+
+		List<byte[]> values = new ArrayList<>(resources.size());
+		long writeNanos = 0L;
+		long parseNanos = 0L;
+		long size = 0L;
+
+		for (int run = 0; run < NR_OF_RUNS; run++) {
+			values.clear();
+			size = 0L;
+
+			long start = System.nanoTime();
+			for (Resource resource : resources) {
+				byte[] bytes = writer.apply(resource);
+				size += bytes.length;
+				values.add(bytes);
+			}
+			writeNanos = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (byte[] value : values) {
+				parser.apply(value);
+			}
+			parseNanos = System.nanoTime() - start;
+		}
+
+		assertEquals(resources.get(0).getId(), parser.apply(values.get(0)).getId());
+
+		logger.info(format + ": " + NR_OF_ELEMENTS + " Resources use " + FileHelper.humanizeFileSize(size)
+				+ ", writing took " + StringHelper.formatNanoDuration(writeNanos) + ", parsing took " + StringHelper
+				.formatNanoDuration(parseNanos));
+	}
+}
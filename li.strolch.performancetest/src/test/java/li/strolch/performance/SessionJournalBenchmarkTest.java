@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.privilege.handler.DefaultPrivilegeHandler;
+import li.strolch.privilege.handler.SessionJournal;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.runtime.privilege.PrivilegeHandler;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of concurrent logins and logouts, with the sessions being persisted to the
+ * {@link SessionJournal}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class SessionJournalBenchmarkTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_sessions_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_sessions"; //$NON-NLS-1$
+
+	private static final String USERNAME = "transient";
+	private static final int NR_OF_THREADS = 8;
+	private static final int NR_OF_LOGINS = 50;
+
+	@BeforeClass
+	public static void beforeClass() {
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runLoginThroughputBenchmark() throws Exception {
+		PrivilegeHandler privilegeHandler = runtime().getPrivilegeHandler();
+
+		ExecutorService executor = Executors.newFixedThreadPool(NR_OF_THREADS);
+		List<Future<Integer>> futures = new ArrayList<>();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < NR_OF_THREADS; i++) {
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < NR_OF_LOGINS; j++) {
+					Certificate certificate = privilegeHandler.authenticate(USERNAME, USERNAME.toCharArray());
+					privilegeHandler.invalidate(certificate);
+				}
+				return NR_OF_LOGINS;
+			}));
+		}
+
+		int total = 0;
+		for (Future<Integer> future : futures) {
+			total += future.get();
+		}
+		long took = System.nanoTime() - start;
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(NR_OF_THREADS * NR_OF_LOGINS, total);
+
+		// include writing the remaining records of the journal
+		DefaultPrivilegeHandler defaultPrivilegeHandler = (DefaultPrivilegeHandler) privilegeHandler
+				.getPrivilegeHandler();
+		defaultPrivilegeHandler.flushSessions();
+		long tookWithFlush = System.nanoTime() - start;
+
+		File sessionsFile = new File(runtime().getAgent().getStrolchConfiguration().getRuntimeConfiguration()
+				.getTempPath(), "sessions.dat");
+		assertTrue("Sessions journal does not exist at " + sessionsFile.getAbsolutePath(), sessionsFile.isFile());
+
+		logger.info(total + " logins and logouts on " + NR_OF_THREADS + " threads took " + StringHelper
+				.formatNanoDuration(took) + ", " + (total * 1000L / Math.max(1L,
+				TimeUnit.NANOSECONDS.toMillis(took))) + " logins/s, " + StringHelper.formatNanoDuration(tookWithFlush)
+				+ " including flushing the sessions journal");
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import li.strolch.model.timevalue.ITimeVariable;
+import li.strolch.model.timevalue.impl.FloatArrayTimeVariable;
+import li.strolch.model.timevalue.impl.FloatValue;
+import li.strolch.model.timevalue.impl.TimeVariable;
+import li.strolch.model.timevalue.impl.ValueChange;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the duration of filling, reading and changing a {@link TimeVariable} and a {@link FloatArrayTimeVariable}
+ * with many values, as is the case for the timed states of planning Resources
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class TimeVariableBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(TimeVariableBenchmarkTest.class);
+
+	private static final int NR_OF_VALUES = 10000;
+	private static final int NR_OF_LOOKUPS = 10000;
+	private static final int NR_OF_CHANGES = 1000;
+	private static final int NR_OF_RUNS = 3;
+
+	@Test
+	public void runTimeVariableBenchmark() {
+		double expected = run("TimeVariable", TimeVariable::new);
+		double actual = run("FloatArrayTimeVariable", FloatArrayTimeVariable::new);
+		assertEquals(expected, actual, 0.0001);
+	}
+
+	private double run(String name, Supplier<ITimeVariable<FloatValue>> supplier) {
+
+		long fillNanos = 0L;
+		long lookupNanos = 0L;
+		long changeNanos = 0L;
+		double sum = 0.0D;
+
+		for (int run = 0; run < NR_OF_RUNS; run++) {
+			Random random = new Random(1L);
+			ITimeVariable<FloatValue> timeVariable = supplier.get();
+
+			long start = System.nanoTime();
+			for (int i = 0; i < NR_OF_VALUES; i++) {
+				timeVariable.setValueAt(i * 10L, new FloatValue((double) random.nextInt(100)));
+			}
+			fillNanos = System.nanoTime() - start;
+
+			sum = 0.0D;
+			start = System.nanoTime();
+			for (int i = 0; i < NR_OF_LOOKUPS; i++) {
+				sum += timeVariable.getValueAt(random.nextInt(NR_OF_VALUES * 10)).getValue().getValue();
+			}
+			lookupNanos = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < NR_OF_CHANGES; i++) {
+				long time = random.nextInt(NR_OF_VALUES * 10);
+				timeVariable.applyChange(new ValueChange<>(time, new FloatValue(1.0D)), false);
+				timeVariable.applyChange(new ValueChange<>(time + 5L, new FloatValue(-1.0D)), false);
+			}
+			changeNanos = System.nanoTime() - start;
+
+			sum += timeVariable.getValues().size();
+		}
+
+		logger.info(name + ": Setting " + NR_OF_VALUES + " values took " + StringHelper.formatNanoDuration(fillNanos)
+				+ ", " + NR_OF_LOOKUPS + " lookups took " + StringHelper.formatNanoDuration(lookupNanos) + ", "
+				+ NR_OF_CHANGES + " change pairs took " + StringHelper.formatNanoDuration(changeNanos));
+
+		return sum;
+	}
+}
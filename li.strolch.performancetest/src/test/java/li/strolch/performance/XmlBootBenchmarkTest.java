@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.agent.api.StrolchBootstrapper;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.ModelGenerator;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.testbase.runtime.RuntimeMock;
+import li.strolch.utils.helper.StringHelper;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the time to boot a CACHED realm from an XML store, i.e. to read and parse all files, with the environment
+ * <code>dev</code> loading sequentially, and the environment <code>parallel</code> scanning and parsing the types
+ * concurrently
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class XmlBootBenchmarkTest extends PerformanceTest {
+
+	public static final String RUNTIME_PATH = "target/runtime_xml_boot_test/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/runtime_xml_boot"; //$NON-NLS-1$
+
+	private static final String REALM = "cached";
+	private static final int NR_OF_TYPES = 10;
+	private static final int NR_OF_RESOURCES = 2000;
+	private static final int NR_OF_ORDERS = 1000;
+	private static final int NR_OF_RUNS = 3;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		buildRuntime(CONFIG_SRC, RUNTIME_PATH, DataType.xml);
+
+		Certificate certificate = runtimeMock.getPrivilegeHandler().authenticate(REALM, REALM.toCharArray());
+		for (int i = 0; i < NR_OF_TYPES; i++) {
+			String type = "Type" + i;
+			try (StrolchTransaction tx = runtimeMock.getRealm(REALM).openTx(certificate, "prepare", false)) {
+				for (int j = 0; j < NR_OF_RESOURCES; j++) {
+					String id = StrolchAgent.getUniqueId();
+					tx.add(ModelGenerator.createResource(id, id, type));
+				}
+				for (int j = 0; j < NR_OF_ORDERS; j++) {
+					String id = StrolchAgent.getUniqueId();
+					tx.add(ModelGenerator.createOrder(id, id, type));
+				}
+				tx.commitOnClose();
+			}
+		}
+		runtimeMock.getPrivilegeHandler().invalidate(certificate);
+
+		// the runtime is booted again for every run
+		runtimeMock.destroyRuntime();
+		runtimeMock = null;
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		afterClass(RUNTIME_PATH);
+	}
+
+	@Test
+	public void runSequentialBoot() {
+		runBootBenchmark("dev");
+	}
+
+	@Test
+	public void runParallelBoot() {
+		runBootBenchmark("parallel");
+	}
+
+	private void runBootBenchmark(String environment) {
+		long fastest = Long.MAX_VALUE;
+		for (int i = 0; i < NR_OF_RUNS; i++) {
+			long took = boot(environment);
+			fastest = Math.min(fastest, took);
+			logger.info("Environment " + environment + " run " + i + " booted in " + StringHelper
+					.formatNanoDuration(took));
+		}
+
+		long nrOfElements = (long) NR_OF_TYPES * (NR_OF_RESOURCES + NR_OF_ORDERS);
+		long elementsPerSec = (long) (nrOfElements / (fastest / 1000000000.0D));
+		logger.info("Environment " + environment + " fastest boot of " + nrOfElements + " elements in " + StringHelper
+				.formatNanoDuration(fastest) + " (" + elementsPerSec + " elements/s)");
+	}
+
+	private long boot(String environment) {
+		StrolchAgent agent = new StrolchBootstrapper(RuntimeMock.getAppVersion())
+				.setupByRoot(environment, new File(RUNTIME_PATH));
+
+		long start = System.nanoTime();
+		agent.initialize();
+		agent.start();
+		long took = System.nanoTime() - start;
+
+		try {
+			StrolchRealm realm = agent.getContainer().getRealm(REALM);
+			Certificate certificate = agent.getContainer().getPrivilegeHandler()
+					.authenticate(REALM, REALM.toCharArray());
+			try (StrolchTransaction tx = realm.openTx(certificate, "verify", true)) {
+				assertEquals((long) NR_OF_TYPES * NR_OF_RESOURCES, tx.getResourceMap().querySize(tx));
+				assertEquals((long) NR_OF_TYPES * NR_OF_ORDERS, tx.getOrderMap().querySize(tx));
+			}
+			agent.getContainer().getPrivilegeHandler().invalidate(certificate);
+		} finally {
+			agent.stop();
+			agent.destroy();
+		}
+
+		return took;
+	}
+}
@@ -2,5 +2,6 @@ package li.strolch.persistence.postgresql;
 
 public enum DataType {
 	xml,
-	json
+	json,
+	binary
 }
@@ -28,6 +28,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import li.strolch.model.Tags;
 import li.strolch.model.activity.Activity;
+import li.strolch.model.binary.StrolchElementFromBinaryParser;
 import li.strolch.model.json.ActivityFromJsonVisitor;
 import li.strolch.model.xml.SimpleStrolchElementListener;
 import li.strolch.model.xml.XmlModelSaxReader;
@@ -43,11 +44,16 @@ public class PostgreSqlActivityDao extends PostgresqlDao<Activity> implements Ac
 
 	private static final String insertAsXmlSqlS = "insert into {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, asxml) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::order_state, ?)";
 	private static final String insertAsJsonSqlS = "insert into {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, asjson) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::order_state, ?)";
+	private static final String insertAsBinarySqlS = "insert into {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, asbinary) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::order_state, ?)";
 
 	private static final String updateAsXmlSqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, state = ?::order_state, asxml = ? where id = ? and version = ?";
 	private static final String updateAsJsonSqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, state = ?::order_state, asjson = ? where id = ? and version = ?";
+	private static final String updateAsBinarySqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, state = ?::order_state, asbinary = ? where id = ? and version = ?";
 
-	private static final String updateLatestSqlS = "update {0} SET latest = false WHERE id = ? AND version = ?";
+	private static final String copyAsXmlSqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, asxml) from stdin with (format binary)";
+	private static final String copyAsJsonSqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, asjson) from stdin with (format binary)";
+	private static final String copyAsBinarySqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, asbinary) from stdin with (format binary)";
+	private static final int NR_OF_COPY_FIELDS = 11;
 
 	public PostgreSqlActivityDao(DataType dataType, Connection connection, TransactionResult txResult,
 			boolean versioningEnabled) {
@@ -92,141 +98,96 @@ public class PostgreSqlActivityDao extends PostgresqlDao<Activity> implements Ac
 	}
 
 	@Override
-	protected void internalSave(final Activity activity) {
-
-		String sql = getSql(insertAsXmlSqlS, insertAsJsonSqlS);
-
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// id
-			preparedStatement.setString(1, activity.getId());
-
-			// version
-			preparedStatement.setInt(2, activity.getVersion().getVersion());
-			preparedStatement.setString(3, activity.getVersion().getCreatedBy());
-			preparedStatement.setTimestamp(4, new Timestamp(activity.getVersion().getCreated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setTimestamp(5, new Timestamp(activity.getVersion().getUpdated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setBoolean(6, activity.getVersion().isDeleted());
-
-			preparedStatement.setBoolean(7, !activity.getVersion().isDeleted());
-
-			// attributes
-			preparedStatement.setString(8, activity.getName());
-			preparedStatement.setString(9, activity.getType());
-			preparedStatement.setString(10, activity.getState().name());
-
-			SQLXML sqlxml = writeObject(preparedStatement, activity, 11);
-
-			try {
-				int modCount = preparedStatement.executeUpdate();
-				if (modCount != 1) {
-					String msg = "Expected to save 1 element with id {0} but SQL statement modified {1} elements!";
-					msg = MessageFormat.format(msg, activity.getId(), modCount);
-					throw new StrolchPersistenceException(msg);
-				}
-			} finally {
-				if (sqlxml != null)
-					sqlxml.free();
-			}
-
-		} catch (SQLException | SAXException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to insert Activity {0} due to {1}", activity.getLocator(), e.getLocalizedMessage()),
-					e);
-		}
+	protected Activity parseFromBinary(String id, String type, byte[] bytes) {
+		return new StrolchElementFromBinaryParser().parseActivity(bytes);
+	}
 
-		if (activity.getVersion().isFirstVersion()) {
-			return;
-		}
+	@Override
+	protected String getInsertSql() {
+		return getSql(insertAsXmlSqlS, insertAsJsonSqlS, insertAsBinarySqlS);
+	}
 
-		// and set the previous version to not be latest anymore
-		sql = MessageFormat.format(updateLatestSqlS, getTableName());
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// primary key
-			preparedStatement.setString(1, activity.getId());
-			preparedStatement.setInt(2, activity.getVersion().getPreviousVersion());
-
-			int modCount = preparedStatement.executeUpdate();
-			if (modCount != 1) {
-				String msg = "Expected to update 1 previous element with id {0} and version {1} but SQL statement modified {2} elements!";
-				msg = MessageFormat.format(msg, activity.getId(), activity.getVersion().getPreviousVersion(), modCount);
-				throw new StrolchPersistenceException(msg);
-			}
-
-		} catch (SQLException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to update previous version of Activity {0} due to {1}", activity.getVersion(),
-							e.getLocalizedMessage()), e);
-		}
+	@Override
+	protected SQLXML bindInsert(PreparedStatement preparedStatement, Activity activity) throws SQLException, SAXException {
+		// id
+		preparedStatement.setString(1, activity.getId());
+
+		// version
+		preparedStatement.setInt(2, activity.getVersion().getVersion());
+		preparedStatement.setString(3, activity.getVersion().getCreatedBy());
+		preparedStatement
+				.setTimestamp(4, new Timestamp(activity.getVersion().getCreated().getTime()), Calendar.getInstance());
+		preparedStatement
+				.setTimestamp(5, new Timestamp(activity.getVersion().getUpdated().getTime()), Calendar.getInstance());
+		preparedStatement.setBoolean(6, activity.getVersion().isDeleted());
+
+		preparedStatement.setBoolean(7, !activity.getVersion().isDeleted());
+
+		// attributes
+		preparedStatement.setString(8, activity.getName());
+		preparedStatement.setString(9, activity.getType());
+		preparedStatement.setString(10, activity.getState().name());
+
+		return writeObject(preparedStatement, activity, 11);
 	}
 
 	@Override
-	protected void internalUpdate(final Activity activity) {
+	protected String getCopySql() {
+		return getSql(copyAsXmlSqlS, copyAsJsonSqlS, copyAsBinarySqlS);
+	}
 
-		// with versioning we save a new object
-		if (this.versioningEnabled) {
-			internalSave(activity);
-			return;
-		}
+	@Override
+	protected void writeCopyRow(PostgreSqlBulkInserter<Activity> inserter, Activity activity) throws IOException {
+		inserter.startRow(NR_OF_COPY_FIELDS);
 
-		// make sure is first version when versioning is not enabled
-		if (!activity.getVersion().isFirstVersion()) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Versioning is not enabled, so version must always be 0 to perform an update, but it is {0}",
-							activity.getVersion()));
-		}
+		// id
+		inserter.writeString(activity.getId());
 
-		// and also not marked as deleted!
-		if (activity.getVersion().isDeleted()) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Versioning is not enabled, so version can not be marked as deleted for {0}",
-							activity.getVersion()));
-		}
+		// version
+		inserter.writeInt(activity.getVersion().getVersion());
+		inserter.writeString(activity.getVersion().getCreatedBy());
+		inserter.writeTimestamp(activity.getVersion().getCreated());
+		inserter.writeTimestamp(activity.getVersion().getUpdated());
+		inserter.writeBoolean(activity.getVersion().isDeleted());
 
-		String sql = getSql(updateAsXmlSqlS, updateAsJsonSqlS);
-
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// version
-			preparedStatement.setString(1, activity.getVersion().getCreatedBy());
-			preparedStatement.setTimestamp(2, new Timestamp(activity.getVersion().getCreated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setTimestamp(3, new Timestamp(activity.getVersion().getUpdated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setBoolean(4, activity.getVersion().isDeleted());
-
-			preparedStatement.setBoolean(5, !activity.getVersion().isDeleted());
-
-			// attributes
-			preparedStatement.setString(6, activity.getName());
-			preparedStatement.setString(7, activity.getType());
-			preparedStatement.setString(8, activity.getState().name());
-
-			SQLXML sqlxml = writeObject(preparedStatement, activity, 9);
-
-			// primary key
-			preparedStatement.setString(10, activity.getId());
-			preparedStatement.setInt(11, activity.getVersion().getVersion());
-
-			try {
-				int modCount = preparedStatement.executeUpdate();
-				if (modCount != 1) {
-					String msg = "Expected to update 1 element with id {0} but SQL statement modified {1} elements!";
-					msg = MessageFormat.format(msg, activity.getId(), modCount);
-					throw new StrolchPersistenceException(msg);
-				}
-			} finally {
-				if (sqlxml != null)
-					sqlxml.free();
-			}
-
-		} catch (SQLException | SAXException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to update Activity {0} due to {1}", activity.getLocator(), e.getLocalizedMessage()),
-					e);
-		}
+		inserter.writeBoolean(!activity.getVersion().isDeleted());
+
+		// attributes
+		inserter.writeString(activity.getName());
+		inserter.writeString(activity.getType());
+		inserter.writeString(activity.getState().name());
+
+		writeCopyObject(inserter, activity);
+	}
+
+	@Override
+	protected String getUpdateSql() {
+		return getSql(updateAsXmlSqlS, updateAsJsonSqlS, updateAsBinarySqlS);
+	}
+
+	@Override
+	protected SQLXML bindUpdate(PreparedStatement preparedStatement, Activity activity) throws SQLException, SAXException {
+		// version
+		preparedStatement.setString(1, activity.getVersion().getCreatedBy());
+		preparedStatement
+				.setTimestamp(2, new Timestamp(activity.getVersion().getCreated().getTime()), Calendar.getInstance());
+		preparedStatement
+				.setTimestamp(3, new Timestamp(activity.getVersion().getUpdated().getTime()), Calendar.getInstance());
+		preparedStatement.setBoolean(4, activity.getVersion().isDeleted());
+
+		preparedStatement.setBoolean(5, !activity.getVersion().isDeleted());
+
+		// attributes
+		preparedStatement.setString(6, activity.getName());
+		preparedStatement.setString(7, activity.getType());
+		preparedStatement.setString(8, activity.getState().name());
+
+		SQLXML sqlxml = writeObject(preparedStatement, activity, 9);
+
+		// primary key
+		preparedStatement.setString(10, activity.getId());
+		preparedStatement.setInt(11, activity.getVersion().getVersion());
+
+		return sqlxml;
 	}
 }
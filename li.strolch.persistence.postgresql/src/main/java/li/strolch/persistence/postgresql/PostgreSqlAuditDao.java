@@ -20,6 +20,7 @@ import static li.strolch.utils.helper.StringHelper.commaSeparated;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.text.MessageFormat;
 import java.util.*;
@@ -218,8 +219,33 @@ public class PostgreSqlAuditDao implements AuditDao {
 
 	@Override
 	public void saveAll(List<Audit> audits) {
-		for (Audit audit : audits) {
-			save(audit);
+		if (audits.isEmpty())
+			return;
+		if (audits.size() == 1) {
+			save(audits.get(0));
+			return;
+		}
+
+		try (PreparedStatement preparedStatement = this.tx.getConnection().prepareStatement(insertSql)) {
+
+			for (Audit audit : audits) {
+				setAuditFields(audit, preparedStatement);
+				preparedStatement.addBatch();
+			}
+
+			int[] counts = preparedStatement.executeBatch();
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] != 1 && counts[i] != Statement.SUCCESS_NO_INFO) {
+					throw new StrolchPersistenceException(MessageFormat
+							.format("Expected to insert 1 record, but inserted {0} for audit {1}", counts[i],
+									audits.get(i).getId())); //$NON-NLS-1$
+				}
+			}
+
+		} catch (SQLException e) {
+			throw new StrolchPersistenceException(
+					MessageFormat.format("Failed to insert {0} Audits due to {1}", audits.size(), //$NON-NLS-1$
+							e.getLocalizedMessage()), e);
 		}
 	}
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.persistence.postgresql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.util.Date;
+
+import li.strolch.model.StrolchRootElement;
+import li.strolch.persistence.api.BulkInserter;
+import li.strolch.persistence.api.StrolchPersistenceException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * {@link BulkInserter} for PostgreSQL, which writes the elements using <code>COPY ... FROM STDIN</code> in the binary
+ * format. The rows are buffered and sent to the server in chunks, so that the elements are never all held in memory.
+ * </p>
+ *
+ * <p>
+ * The DAO defines the columns and writes the fields of each row using the write methods of this class, in the order
+ * of the columns as returned by {@link PostgresqlDao#getCopySql()}
+ * </p>
+ *
+ * @param <T>
+ * 		the type of element being written
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class PostgreSqlBulkInserter<T extends StrolchRootElement> implements BulkInserter<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(PostgreSqlBulkInserter.class);
+
+	private static final byte[] HEADER = new byte[] { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0 };
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// the binary format uses microseconds since 2000-01-01 00:00:00 UTC for timestamps
+	private static final long POSTGRES_EPOCH_MILLIS = 946684800000L;
+
+	private final PostgresqlDao<T> dao;
+	private final CopyIn copyIn;
+	private final ByteArrayOutputStream buffer;
+	private final DataOutputStream out;
+
+	private long nrOfElements;
+	private boolean finished;
+
+	PostgreSqlBulkInserter(PostgresqlDao<T> dao, Connection connection) {
+		this.dao = dao;
+		this.buffer = new ByteArrayOutputStream(BUFFER_SIZE + 1024);
+		this.out = new DataOutputStream(this.buffer);
+
+		String sql = dao.getCopySql();
+		try {
+			this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+
+			this.out.write(HEADER);
+			this.out.writeInt(0); // flags
+			this.out.writeInt(0); // header extension length
+
+		} catch (SQLException | IOException e) {
+			throw new StrolchPersistenceException(MessageFormat
+					.format("Failed to start bulk insert of {0} due to {1}", dao.getClassName(),
+							e.getLocalizedMessage()), e);
+		}
+	}
+
+	@Override
+	public void insert(T element) {
+		if (this.finished)
+			throw new IllegalStateException("Bulk insert of " + this.dao.getClassName() + " is already finished!");
+
+		try {
+			this.dao.writeCopyRow(this, element);
+			this.nrOfElements++;
+			if (this.buffer.size() >= BUFFER_SIZE)
+				flushBuffer();
+		} catch (SQLException | IOException e) {
+			throw new StrolchPersistenceException(MessageFormat
+					.format("Failed to bulk insert {0} due to {1}", element.getLocator(), e.getLocalizedMessage()),
+					e);
+		}
+	}
+
+	@Override
+	public long finish() {
+		if (this.finished)
+			return this.nrOfElements;
+
+		try {
+			this.out.writeShort(-1); // trailer
+			flushBuffer();
+			long rows = this.copyIn.endCopy();
+			this.finished = true;
+
+			if (rows != this.nrOfElements) {
+				String msg = "Expected to bulk insert {0} {1} elements, but {2} rows were written!";
+				throw new StrolchPersistenceException(
+						MessageFormat.format(msg, this.nrOfElements, this.dao.getClassName(), rows));
+			}
+
+			return rows;
+
+		} catch (SQLException | IOException e) {
+			throw new StrolchPersistenceException(MessageFormat
+					.format("Failed to finish bulk insert of {0} {1} elements due to {2}", this.nrOfElements,
+							this.dao.getClassName(), e.getLocalizedMessage()), e);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (this.finished || !this.copyIn.isActive())
+			return;
+
+		logger.warn("Aborting unfinished bulk insert of " + this.nrOfElements + " " + this.dao.getClassName()
+				+ " elements");
+		try {
+			this.copyIn.cancelCopy();
+		} catch (SQLException e) {
+			logger.error("Failed to cancel bulk insert due to " + e.getMessage(), e);
+		}
+	}
+
+	private void flushBuffer() throws SQLException {
+		if (this.buffer.size() == 0)
+			return;
+		this.copyIn.writeToCopy(this.buffer.toByteArray(), 0, this.buffer.size());
+		this.buffer.reset();
+	}
+
+	void startRow(int nrOfFields) throws IOException {
+		this.out.writeShort(nrOfFields);
+	}
+
+	void writeNull() throws IOException {
+		this.out.writeInt(-1);
+	}
+
+	void writeString(String value) throws IOException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		this.out.writeInt(bytes.length);
+		this.out.write(bytes);
+	}
+
+	void writeBytes(byte[] value) throws IOException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+
+		this.out.writeInt(value.length);
+		this.out.write(value);
+	}
+
+	void writeInt(int value) throws IOException {
+		this.out.writeInt(4);
+		this.out.writeInt(value);
+	}
+
+	void writeBoolean(boolean value) throws IOException {
+		this.out.writeInt(1);
+		this.out.writeByte(value ? 1 : 0);
+	}
+
+	void writeTimestamp(Date value) throws IOException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+
+		this.out.writeInt(8);
+		this.out.writeLong((value.getTime() - POSTGRES_EPOCH_MILLIS) * 1000L);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.persistence.postgresql;
+
+import java.sql.*;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import li.strolch.model.StrolchRootElement;
+import li.strolch.persistence.api.StrolchPersistenceException;
+import li.strolch.utils.helper.StringHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Converts the elements of a realm from one {@link DataType} to another, e.g. from {@link DataType#xml} to {@link
+ * DataType#binary}. Each row of the resources, orders and activities tables, in which the column of the target data
+ * type is not yet set, is parsed using the source data type, and the target column is written in batches of {@link
+ * PostgresqlDao#BATCH_SIZE}. The column of the source data type is not modified by the migration.
+ * </p>
+ *
+ * <p>
+ * The migration can not be reverted by only changing the configured data type back: After the migration, the DAOs
+ * only write the column of the configured data type, thus the column of the previous data type is missing for new
+ * elements, and is stale for elements which were changed since. Reverting requires a reverse migration, for which the
+ * stale column must first be cleared, e.g. with {@code update resources set asxml = null}, as rows in which the target
+ * column is already set are skipped.
+ * </p>
+ *
+ * <p>
+ * The migration is idempotent, as rows which are already converted are skipped, and is performed in one transaction
+ * per table.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class PostgreSqlDataTypeMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(PostgreSqlDataTypeMigration.class);
+
+	private static final String querySqlS = "select id, version, type, {1} from {0} where {1} is not null and {2} is null";
+	private static final String updateSqlS = "update {0} set {1} = ? where id = ? and version = ?";
+
+	private static final int FETCH_SIZE = 1000;
+
+	private final Connection connection;
+	private final DataType from;
+	private final DataType to;
+
+	public PostgreSqlDataTypeMigration(Connection connection, DataType from, DataType to) {
+		if (from == to)
+			throw new IllegalArgumentException("Can not migrate from and to the same DataType " + from);
+		this.connection = connection;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Converts all resources, orders and activities
+	 *
+	 * @return the number of converted elements
+	 */
+	public long migrate() {
+		long nrOfElements = 0L;
+		nrOfElements += migrate(new PostgreSqlResourceDao(this.from, this.connection, null, false),
+				new PostgreSqlResourceDao(this.to, this.connection, null, false));
+		nrOfElements += migrate(new PostgreSqlOrderDao(this.from, this.connection, null, false),
+				new PostgreSqlOrderDao(this.to, this.connection, null, false));
+		nrOfElements += migrate(new PostgreSqlActivityDao(this.from, this.connection, null, false),
+				new PostgreSqlActivityDao(this.to, this.connection, null, false));
+		return nrOfElements;
+	}
+
+	private <T extends StrolchRootElement> long migrate(PostgresqlDao<T> fromDao, PostgresqlDao<T> toDao) {
+
+		String table = fromDao.getTableName();
+		String querySql = MessageFormat.format(querySqlS, table, column(this.from), column(this.to));
+		String updateSql = MessageFormat.format(updateSqlS, table, column(this.to));
+
+		long start = System.nanoTime();
+		long nrOfElements = 0L;
+
+		try {
+			boolean autoCommit = this.connection.getAutoCommit();
+			this.connection.setAutoCommit(false);
+
+			try (PreparedStatement query = this.connection.prepareStatement(querySql);
+					PreparedStatement update = this.connection.prepareStatement(updateSql)) {
+
+				// with auto commit disabled, the driver uses a cursor and only fetches the given number of rows at once
+				query.setFetchSize(FETCH_SIZE);
+
+				List<SQLXML> sqlXmls = new ArrayList<>();
+				int batchSize = 0;
+				try (ResultSet result = query.executeQuery()) {
+					while (result.next()) {
+						String id = result.getString("id");
+						int version = result.getInt("version");
+						String type = result.getString("type");
+
+						T element = fromDao.parseDbObject(result, id, type);
+
+						SQLXML sqlxml = toDao.writeObject(update, element, 1);
+						if (sqlxml != null)
+							sqlXmls.add(sqlxml);
+						update.setString(2, id);
+						update.setInt(3, version);
+						update.addBatch();
+
+						nrOfElements++;
+						if (++batchSize == PostgresqlDao.BATCH_SIZE) {
+							update.executeBatch();
+							freeSqlXmls(sqlXmls);
+							batchSize = 0;
+						}
+					}
+				}
+
+				if (batchSize > 0) {
+					update.executeBatch();
+					freeSqlXmls(sqlXmls);
+				}
+
+				this.connection.commit();
+
+			} catch (Exception e) {
+				this.connection.rollback();
+				throw e;
+			} finally {
+				this.connection.setAutoCommit(autoCommit);
+			}
+
+		} catch (Exception e) {
+			String msg = "Failed to migrate {0} from {1} to {2} due to: {3}"; //$NON-NLS-1$
+			throw new StrolchPersistenceException(
+					MessageFormat.format(msg, table, this.from, this.to, e.getMessage()), e);
+		}
+
+		logger.info(MessageFormat.format("Migrated {0} {1} from {2} to {3} in {4}", nrOfElements, table, this.from,
+				this.to, StringHelper.formatNanoDuration(System.nanoTime() - start)));
+		return nrOfElements;
+	}
+
+	private void freeSqlXmls(List<SQLXML> sqlXmls) throws SQLException {
+		for (SQLXML sqlXml : sqlXmls) {
+			sqlXml.free();
+		}
+		sqlXmls.clear();
+	}
+
+	private static String column(DataType dataType) {
+		return "as" + dataType.name();
+	}
+}
@@ -145,7 +145,7 @@ public class PostgreSqlLogMessageDao implements LogMessageDao {
 			}
 
 			// we ignore the number of updates, as the message might have been deleted meanwhile
-			ps.executeUpdate();
+			ps.executeBatch();
 
 		} catch (SQLException e) {
 			throw new StrolchPersistenceException(MessageFormat
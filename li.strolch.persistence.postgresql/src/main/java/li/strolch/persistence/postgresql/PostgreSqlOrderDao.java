@@ -30,6 +30,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import li.strolch.model.Order;
 import li.strolch.model.Tags;
+import li.strolch.model.binary.StrolchElementFromBinaryParser;
 import li.strolch.model.json.OrderFromJsonVisitor;
 import li.strolch.model.xml.SimpleStrolchElementListener;
 import li.strolch.model.xml.XmlModelSaxReader;
@@ -52,19 +53,28 @@ public class PostgreSqlOrderDao extends PostgresqlDao<Order> implements OrderDao
 	private static final String queryAllDrAsXmlLimitSqlS = "select id, type, asxml from {0} where latest = true {1} order by date {2} limit {3} offset {4}";
 	private static final String queryAllDrAsJsonSqlS = "select id, type, asjson from {0} where latest = true {1}";
 	private static final String queryAllDrAsJsonLimitSqlS = "select id, type, asjson from {0} where latest = true {1} order by date {2} limit {3} offset {4}";
+	private static final String queryAllDrAsBinarySqlS = "select id, type, asbinary from {0} where latest = true {1}";
+	private static final String queryAllDrAsBinaryLimitSqlS = "select id, type, asbinary from {0} where latest = true {1} order by date {2} limit {3} offset {4}";
 
 	private static final String queryAllByTypeDrAsXmlSqlS = "select id, type, asxml from {0} where type = ANY(?) and latest = true {1}";
 	private static final String queryAllByTypeDrAsXmlLimitSqlS = "select id, type, asxml from {0} where type = ANY(?) and latest = true {1} order by date {2} limit {3,number,#} offset {4,number,#}";
 	private static final String queryAllByTypeDrAsJsonSqlS = "select id, type, asjson from {0} where type = ANY(?) and latest = true {1}";
 	private static final String queryAllByTypeDrAsJsonLimitSqlS = "select id, type, asjson from {0} where type = ANY(?) and latest = true {1} order by date {2} limit {3,number,#} offset {4,number,#}";
+	private static final String queryAllByTypeDrAsBinarySqlS = "select id, type, asbinary from {0} where type = ANY(?) and latest = true {1}";
+	private static final String queryAllByTypeDrAsBinaryLimitSqlS = "select id, type, asbinary from {0} where type = ANY(?) and latest = true {1} order by date {2} limit {3,number,#} offset {4,number,#}";
 
 	private static final String insertAsXmlSqlS = "insert into {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, date, asxml) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::order_state, ?, ?)";
 	private static final String insertAsJsonSqlS = "insert into {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, date, asjson) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::order_state, ?, ?)";
+	private static final String insertAsBinarySqlS = "insert into {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, date, asbinary) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::order_state, ?, ?)";
 
 	private static final String updateAsXmlSqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, state = ?::order_state, date = ?, asxml = ? where id = ? and version = ?";
 	private static final String updateAsJsonSqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, state = ?::order_state, date = ?, asjson = ? where id = ? and version = ?";
+	private static final String updateAsBinarySqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, state = ?::order_state, date = ?, asbinary = ? where id = ? and version = ?";
 
-	private static final String updateLatestSqlS = "update {0} SET latest = false WHERE id = ? AND version = ?";
+	private static final String copyAsXmlSqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, date, asxml) from stdin with (format binary)";
+	private static final String copyAsJsonSqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, date, asjson) from stdin with (format binary)";
+	private static final String copyAsBinarySqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, state, date, asbinary) from stdin with (format binary)";
+	private static final int NR_OF_COPY_FIELDS = 12;
 
 	public PostgreSqlOrderDao(DataType dataType, Connection connection, TransactionResult txResult,
 			boolean versioningEnabled) {
@@ -109,143 +119,100 @@ public class PostgreSqlOrderDao extends PostgresqlDao<Order> implements OrderDao
 	}
 
 	@Override
-	protected void internalSave(final Order order) {
-
-		String sql = getSql(insertAsXmlSqlS, insertAsJsonSqlS);
-
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// id
-			preparedStatement.setString(1, order.getId());
-
-			// version
-			preparedStatement.setInt(2, order.getVersion().getVersion());
-			preparedStatement.setString(3, order.getVersion().getCreatedBy());
-			preparedStatement
-					.setTimestamp(4, new Timestamp(order.getVersion().getCreated().getTime()), Calendar.getInstance());
-			preparedStatement
-					.setTimestamp(5, new Timestamp(order.getVersion().getUpdated().getTime()), Calendar.getInstance());
-			preparedStatement.setBoolean(6, order.getVersion().isDeleted());
-
-			preparedStatement.setBoolean(7, !order.getVersion().isDeleted());
-
-			// attributes
-			preparedStatement.setString(8, order.getName());
-			preparedStatement.setString(9, order.getType());
-			preparedStatement.setString(10, order.getState().name());
-			preparedStatement.setTimestamp(11, new Timestamp(order.getDate().getTime()), Calendar.getInstance());
-
-			SQLXML sqlxml = writeObject(preparedStatement, order, 12);
-
-			try {
-				int modCount = preparedStatement.executeUpdate();
-				if (modCount != 1) {
-					String msg = "Expected to save 1 element with id {0} but SQL statement modified {1} elements!";
-					msg = MessageFormat.format(msg, order.getId(), modCount);
-					throw new StrolchPersistenceException(msg);
-				}
-			} finally {
-				if (sqlxml != null)
-					sqlxml.free();
-			}
-
-		} catch (SQLException | SAXException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to insert Order {0} due to {1}", order.getVersion(), e.getLocalizedMessage()), e);
-		}
-
-		if (order.getVersion().isFirstVersion()) {
-			return;
-		}
-
-		// and set the previous version to not be latest anymore
-		sql = MessageFormat.format(updateLatestSqlS, getTableName());
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// primary key
-			preparedStatement.setString(1, order.getId());
-			preparedStatement.setInt(2, order.getVersion().getPreviousVersion());
-
-			int modCount = preparedStatement.executeUpdate();
-			if (modCount != 1) {
-				String msg = "Expected to update 1 previous element with id {0} and version {1} but SQL statement modified {2} elements!";
-				msg = MessageFormat.format(msg, order.getId(), order.getVersion().getPreviousVersion(), modCount);
-				throw new StrolchPersistenceException(msg);
-			}
-
-		} catch (SQLException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to update previous version of Order {0} due to {1}", order.getVersion(),
-							e.getLocalizedMessage()), e);
-		}
+	protected Order parseFromBinary(String id, String type, byte[] bytes) {
+		return new StrolchElementFromBinaryParser().parseOrder(bytes);
 	}
 
 	@Override
-	protected void internalUpdate(final Order order) {
-
-		// with versioning we save a new object
-		if (this.versioningEnabled) {
-			internalSave(order);
-			return;
-		}
-
-		// make sure is first version when versioning is not enabled
-		if (!order.getVersion().isFirstVersion()) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Versioning is not enabled, so version must always be 0 to perform an update, but it is {0}",
-							order.getVersion()));
-		}
+	protected String getInsertSql() {
+		return getSql(insertAsXmlSqlS, insertAsJsonSqlS, insertAsBinarySqlS);
+	}
 
-		// and also not marked as deleted!
-		if (order.getVersion().isDeleted()) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Versioning is not enabled, so version can not be marked as deleted for {0}",
-							order.getVersion()));
-		}
+	@Override
+	protected SQLXML bindInsert(PreparedStatement preparedStatement, Order order) throws SQLException, SAXException {
+		// id
+		preparedStatement.setString(1, order.getId());
+
+		// version
+		preparedStatement.setInt(2, order.getVersion().getVersion());
+		preparedStatement.setString(3, order.getVersion().getCreatedBy());
+		preparedStatement
+				.setTimestamp(4, new Timestamp(order.getVersion().getCreated().getTime()), Calendar.getInstance());
+		preparedStatement
+				.setTimestamp(5, new Timestamp(order.getVersion().getUpdated().getTime()), Calendar.getInstance());
+		preparedStatement.setBoolean(6, order.getVersion().isDeleted());
+
+		preparedStatement.setBoolean(7, !order.getVersion().isDeleted());
+
+		// attributes
+		preparedStatement.setString(8, order.getName());
+		preparedStatement.setString(9, order.getType());
+		preparedStatement.setString(10, order.getState().name());
+		preparedStatement.setTimestamp(11, new Timestamp(order.getDate().getTime()), Calendar.getInstance());
+
+		return writeObject(preparedStatement, order, 12);
+	}
 
-		String sql = getSql(updateAsXmlSqlS, updateAsJsonSqlS);
+	@Override
+	protected String getCopySql() {
+		return getSql(copyAsXmlSqlS, copyAsJsonSqlS, copyAsBinarySqlS);
+	}
 
-		// now we update the existing object
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
+	@Override
+	protected void writeCopyRow(PostgreSqlBulkInserter<Order> inserter, Order order) throws IOException {
+		inserter.startRow(NR_OF_COPY_FIELDS);
 
-			// version
-			preparedStatement.setString(1, order.getVersion().getCreatedBy());
-			preparedStatement
-					.setTimestamp(2, new Timestamp(order.getVersion().getCreated().getTime()), Calendar.getInstance());
-			preparedStatement
-					.setTimestamp(3, new Timestamp(order.getVersion().getUpdated().getTime()), Calendar.getInstance());
-			preparedStatement.setBoolean(4, order.getVersion().isDeleted());
+		// id
+		inserter.writeString(order.getId());
 
-			preparedStatement.setBoolean(5, !order.getVersion().isDeleted());
+		// version
+		inserter.writeInt(order.getVersion().getVersion());
+		inserter.writeString(order.getVersion().getCreatedBy());
+		inserter.writeTimestamp(order.getVersion().getCreated());
+		inserter.writeTimestamp(order.getVersion().getUpdated());
+		inserter.writeBoolean(order.getVersion().isDeleted());
 
-			// attributes
-			preparedStatement.setString(6, order.getName());
-			preparedStatement.setString(7, order.getType());
-			preparedStatement.setString(8, order.getState().name());
-			preparedStatement.setTimestamp(9, new Timestamp(order.getDate().getTime()), Calendar.getInstance());
+		inserter.writeBoolean(!order.getVersion().isDeleted());
 
-			SQLXML sqlxml = writeObject(preparedStatement, order, 10);
+		// attributes
+		inserter.writeString(order.getName());
+		inserter.writeString(order.getType());
+		inserter.writeString(order.getState().name());
+		inserter.writeTimestamp(order.getDate());
 
-			// primary key
-			preparedStatement.setString(11, order.getId());
-			preparedStatement.setInt(12, order.getVersion().getVersion());
+		writeCopyObject(inserter, order);
+	}
 
-			try {
-				int modCount = preparedStatement.executeUpdate();
-				if (modCount != 1) {
-					String msg = "Expected to update 1 element with id {0} and version {1} but SQL statement modified {2} elements!";
-					msg = MessageFormat.format(msg, order.getId(), order.getVersion().getVersion(), modCount);
-					throw new StrolchPersistenceException(msg);
-				}
-			} finally {
-				if (sqlxml != null)
-					sqlxml.free();
-			}
+	@Override
+	protected String getUpdateSql() {
+		return getSql(updateAsXmlSqlS, updateAsJsonSqlS, updateAsBinarySqlS);
+	}
 
-		} catch (SQLException | SAXException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to update Order {0} due to {1}", order.getLocator(), e.getLocalizedMessage()), e);
-		}
+	@Override
+	protected SQLXML bindUpdate(PreparedStatement preparedStatement, Order order) throws SQLException, SAXException {
+		// version
+		preparedStatement.setString(1, order.getVersion().getCreatedBy());
+		preparedStatement
+				.setTimestamp(2, new Timestamp(order.getVersion().getCreated().getTime()), Calendar.getInstance());
+		preparedStatement
+				.setTimestamp(3, new Timestamp(order.getVersion().getUpdated().getTime()), Calendar.getInstance());
+		preparedStatement.setBoolean(4, order.getVersion().isDeleted());
+
+		preparedStatement.setBoolean(5, !order.getVersion().isDeleted());
+
+		// attributes
+		preparedStatement.setString(6, order.getName());
+		preparedStatement.setString(7, order.getType());
+		preparedStatement.setString(8, order.getState().name());
+		preparedStatement.setTimestamp(9, new Timestamp(order.getDate().getTime()), Calendar.getInstance());
+
+		SQLXML sqlxml = writeObject(preparedStatement, order, 10);
+
+		// primary key
+		preparedStatement.setString(11, order.getId());
+		preparedStatement.setInt(12, order.getVersion().getVersion());
+
+		return sqlxml;
 	}
 
 	@Override
@@ -297,7 +264,8 @@ public class PostgreSqlOrderDao extends PostgresqlDao<Order> implements OrderDao
 		List<Order> list = new ArrayList<>();
 
 		String sql = getLimitSql(dateRange, limit, offset, asc, queryAllDrAsXmlSqlS, queryAllDrAsJsonSqlS,
-				queryAllDrAsXmlLimitSqlS, queryAllDrAsJsonLimitSqlS);
+				queryAllDrAsBinarySqlS, queryAllDrAsXmlLimitSqlS, queryAllDrAsJsonLimitSqlS,
+				queryAllDrAsBinaryLimitSqlS);
 
 		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
 
@@ -330,7 +298,8 @@ public class PostgreSqlOrderDao extends PostgresqlDao<Order> implements OrderDao
 		List<Order> list = new ArrayList<>();
 
 		String sql = getLimitSql(dateRange, limit, offset, asc, queryAllByTypeDrAsXmlSqlS, queryAllByTypeDrAsJsonSqlS,
-				queryAllByTypeDrAsXmlLimitSqlS, queryAllByTypeDrAsJsonLimitSqlS);
+				queryAllByTypeDrAsBinarySqlS, queryAllByTypeDrAsXmlLimitSqlS, queryAllByTypeDrAsJsonLimitSqlS,
+				queryAllByTypeDrAsBinaryLimitSqlS);
 
 		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
 
@@ -353,16 +322,18 @@ public class PostgreSqlOrderDao extends PostgresqlDao<Order> implements OrderDao
 	}
 
 	protected String getLimitSql(DateRange dateRange, long limit, long offset, boolean asc, String xmlSql,
-			String jsonSql, String xmlLimitSql, String jsonLimitSql) {
+			String jsonSql, String binarySql, String xmlLimitSql, String jsonLimitSql, String binaryLimitSql) {
 
 		String sql;
 		if (limit == Integer.MAX_VALUE)
-			return getSql(dateRange, xmlSql, jsonSql);
+			return getSql(dateRange, xmlSql, jsonSql, binarySql);
 
 		if (this.dataType == DataType.xml)
 			sql = xmlLimitSql;
 		else if (this.dataType == DataType.json)
 			sql = jsonLimitSql;
+		else if (this.dataType == DataType.binary)
+			sql = binaryLimitSql;
 		else
 			throw new IllegalStateException("Unhandled DataType " + this.dataType);
 
@@ -370,13 +341,15 @@ public class PostgreSqlOrderDao extends PostgresqlDao<Order> implements OrderDao
 		return MessageFormat.format(sql, getTableName(), dateRangeClause, asc ? "ASC" : "DESC", limit, offset);
 	}
 
-	protected String getSql(DateRange dateRange, String xmlSql, String jsonSql) {
+	protected String getSql(DateRange dateRange, String xmlSql, String jsonSql, String binarySql) {
 
 		String sql;
 		if (this.dataType == DataType.xml)
 			sql = xmlSql;
 		else if (this.dataType == DataType.json)
 			sql = jsonSql;
+		else if (this.dataType == DataType.binary)
+			sql = binarySql;
 		else
 			throw new IllegalStateException("Unhandled DataType " + this.dataType);
 
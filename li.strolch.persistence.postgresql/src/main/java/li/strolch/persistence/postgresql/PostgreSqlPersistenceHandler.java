@@ -19,6 +19,7 @@ import static li.strolch.db.DbConstants.*;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.text.MessageFormat;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -47,6 +48,8 @@ public class PostgreSqlPersistenceHandler extends StrolchComponent implements Pe
 	public static final String PROP_DATA_TYPE = "dataType"; //$NON-NLS-1$
 	public static final String DATA_TYPE_XML = "xml"; //$NON-NLS-1$
 	public static final String DATA_TYPE_JSON = "json"; //$NON-NLS-1$
+	public static final String DATA_TYPE_BINARY = "binary"; //$NON-NLS-1$
+	public static final String PROP_MIGRATE_DATA_TYPE_FROM = "migrateDataTypeFrom"; //$NON-NLS-1$
 
 	private Map<String, DataSource> dsMap;
 	private DataType dataType;
@@ -100,6 +103,14 @@ public class PostgreSqlPersistenceHandler extends StrolchComponent implements Pe
 				allowSchemaCreation, allowSchemaMigration, allowSchemaDrop);
 		schemaVersionCheck.checkSchemaVersion(this.dsMap);
 
+		// if configured, convert the elements from the previous data type
+		if (configuration.hasProperty(PROP_MIGRATE_DATA_TYPE_FROM)) {
+			String migrateFrom = configuration.getString(PROP_MIGRATE_DATA_TYPE_FROM, null);
+			DataType from = DataType.valueOf(migrateFrom.toLowerCase());
+			if (from != this.dataType)
+				migrateDataType(from);
+		}
+
 		// if allowed, perform DB initialization
 		if (!allowDataInitOnSchemaCreate) {
 			logger.info("Data Initialization not enabled as 'allowDataInitOnSchemaCreate' is false!"); //$NON-NLS-1$
@@ -117,6 +128,18 @@ public class PostgreSqlPersistenceHandler extends StrolchComponent implements Pe
 		super.start();
 	}
 
+	private void migrateDataType(DataType from) throws SQLException {
+		for (String realm : this.dsMap.keySet()) {
+			logger.info(MessageFormat.format("[{0}] Migrating elements from DataType {1} to {2}...", realm, from,
+					this.dataType));
+			try (Connection connection = getConnection(realm)) {
+				long nrOfElements = new PostgreSqlDataTypeMigration(connection, from, this.dataType).migrate();
+				logger.info(MessageFormat.format("[{0}] Migrated {1} elements from DataType {2} to {3}", realm,
+						nrOfElements, from, this.dataType));
+			}
+		}
+	}
+
 	@Override
 	public void destroy() throws Exception {
 		if (this.dsMap != null) {
@@ -28,6 +28,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import li.strolch.model.Resource;
 import li.strolch.model.Tags;
+import li.strolch.model.binary.StrolchElementFromBinaryParser;
 import li.strolch.model.json.ResourceFromJsonVisitor;
 import li.strolch.model.xml.SimpleStrolchElementListener;
 import li.strolch.model.xml.XmlModelSaxReader;
@@ -43,11 +44,16 @@ public class PostgreSqlResourceDao extends PostgresqlDao<Resource> implements Re
 
 	private static final String insertAsXmlSqlS = "insert into {0} (id, version, created_by, updated_at, created_at, deleted, latest, name, type, asxml) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 	private static final String insertAsJsonSqlS = "insert into {0} (id, version, created_by, updated_at, created_at, deleted, latest, name, type, asjson) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String insertAsBinarySqlS = "insert into {0} (id, version, created_by, updated_at, created_at, deleted, latest, name, type, asbinary) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
 	private static final String updateAsXmlSqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, asxml = ? where id = ? and version = ?";
 	private static final String updateAsJsonSqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, asjson = ? where id = ? and version = ?";
+	private static final String updateAsBinarySqlS = "update {0} set created_by = ?, created_at = ?, updated_at = ?, deleted = ?, latest = ?, name = ?, type = ?, asbinary = ? where id = ? and version = ?";
 
-	private static final String updateLatestSqlS = "update {0} SET latest = false WHERE id = ? AND version = ?";
+	private static final String copyAsXmlSqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, asxml) from stdin with (format binary)";
+	private static final String copyAsJsonSqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, asjson) from stdin with (format binary)";
+	private static final String copyAsBinarySqlS = "copy {0} (id, version, created_by, created_at, updated_at, deleted, latest, name, type, asbinary) from stdin with (format binary)";
+	private static final int NR_OF_COPY_FIELDS = 10;
 
 	protected PostgreSqlResourceDao(DataType dataType, Connection connection, TransactionResult txResult,
 			boolean versioningEnabled) {
@@ -92,140 +98,93 @@ public class PostgreSqlResourceDao extends PostgresqlDao<Resource> implements Re
 	}
 
 	@Override
-	protected void internalSave(final Resource resource) {
-
-		String sql = getSql(insertAsXmlSqlS, insertAsJsonSqlS);
-
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// id
-			preparedStatement.setString(1, resource.getId());
-
-			// version
-			preparedStatement.setInt(2, resource.getVersion().getVersion());
-			preparedStatement.setString(3, resource.getVersion().getCreatedBy());
-			preparedStatement.setTimestamp(4, new Timestamp(resource.getVersion().getCreated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setTimestamp(5, new Timestamp(resource.getVersion().getUpdated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setBoolean(6, resource.getVersion().isDeleted());
-
-			preparedStatement.setBoolean(7, !resource.getVersion().isDeleted());
-
-			// attributes
-			preparedStatement.setString(8, resource.getName());
-			preparedStatement.setString(9, resource.getType());
-
-			SQLXML sqlxml = writeObject(preparedStatement, resource, 10);
-
-			try {
-				int modCount = preparedStatement.executeUpdate();
-				if (modCount != 1) {
-					String msg = "Expected to save 1 element with id {0} but SQL statement modified {1} elements!";
-					msg = MessageFormat.format(msg, resource.getId(), modCount);
-					throw new StrolchPersistenceException(msg);
-				}
-			} finally {
-				if (sqlxml != null)
-					sqlxml.free();
-			}
-
-		} catch (SQLException | SAXException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to insert Resource {0} due to {1}", resource.getLocator(), e.getLocalizedMessage()),
-					e);
-		}
+	protected Resource parseFromBinary(String id, String type, byte[] bytes) {
+		return new StrolchElementFromBinaryParser().parseResource(bytes);
+	}
 
-		if (resource.getVersion().isFirstVersion()) {
-			return;
-		}
+	@Override
+	protected String getInsertSql() {
+		return getSql(insertAsXmlSqlS, insertAsJsonSqlS, insertAsBinarySqlS);
+	}
 
-		// and set the previous version to not be latest anymore
-		sql = MessageFormat.format(updateLatestSqlS, getTableName());
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// primary key
-			preparedStatement.setString(1, resource.getId());
-			preparedStatement.setInt(2, resource.getVersion().getPreviousVersion());
-
-			int modCount = preparedStatement.executeUpdate();
-			if (modCount != 1) {
-				String msg = "Expected to update 1 previous element with id {0} and version {1} but SQL statement modified {2} elements!";
-				msg = MessageFormat.format(msg, resource.getId(), resource.getVersion().getPreviousVersion(), modCount);
-				throw new StrolchPersistenceException(msg);
-			}
-
-		} catch (SQLException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to insert Resource {0} due to {1}", resource.getLocator(), e.getLocalizedMessage()),
-					e);
-		}
+	@Override
+	protected SQLXML bindInsert(PreparedStatement preparedStatement, Resource resource) throws SQLException, SAXException {
+		// id
+		preparedStatement.setString(1, resource.getId());
+
+		// version
+		preparedStatement.setInt(2, resource.getVersion().getVersion());
+		preparedStatement.setString(3, resource.getVersion().getCreatedBy());
+		preparedStatement
+				.setTimestamp(4, new Timestamp(resource.getVersion().getCreated().getTime()), Calendar.getInstance());
+		preparedStatement
+				.setTimestamp(5, new Timestamp(resource.getVersion().getUpdated().getTime()), Calendar.getInstance());
+		preparedStatement.setBoolean(6, resource.getVersion().isDeleted());
+
+		preparedStatement.setBoolean(7, !resource.getVersion().isDeleted());
+
+		// attributes
+		preparedStatement.setString(8, resource.getName());
+		preparedStatement.setString(9, resource.getType());
+
+		return writeObject(preparedStatement, resource, 10);
 	}
 
 	@Override
-	protected void internalUpdate(final Resource resource) {
+	protected String getCopySql() {
+		return getSql(copyAsXmlSqlS, copyAsJsonSqlS, copyAsBinarySqlS);
+	}
 
-		// with versioning we save a new object
-		if (this.versioningEnabled) {
-			internalSave(resource);
-			return;
-		}
+	@Override
+	protected void writeCopyRow(PostgreSqlBulkInserter<Resource> inserter, Resource resource) throws IOException {
+		inserter.startRow(NR_OF_COPY_FIELDS);
 
-		// make sure is first version when versioning is not enabled
-		if (!resource.getVersion().isFirstVersion()) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Versioning is not enabled, so version must always be 0 to perform an update, but it is {0}",
-							resource.getVersion()));
-		}
+		// id
+		inserter.writeString(resource.getId());
 
-		// and also not marked as deleted!
-		if (resource.getVersion().isDeleted()) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Versioning is not enabled, so version can not be marked as deleted for {0}",
-							resource.getVersion()));
-		}
+		// version
+		inserter.writeInt(resource.getVersion().getVersion());
+		inserter.writeString(resource.getVersion().getCreatedBy());
+		inserter.writeTimestamp(resource.getVersion().getCreated());
+		inserter.writeTimestamp(resource.getVersion().getUpdated());
+		inserter.writeBoolean(resource.getVersion().isDeleted());
 
-		// now we update the existing object
-		String sql = getSql(updateAsXmlSqlS, updateAsJsonSqlS);
-
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
-
-			// version
-			preparedStatement.setString(1, resource.getVersion().getCreatedBy());
-			preparedStatement.setTimestamp(2, new Timestamp(resource.getVersion().getCreated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setTimestamp(3, new Timestamp(resource.getVersion().getUpdated().getTime()),
-					Calendar.getInstance());
-			preparedStatement.setBoolean(4, resource.getVersion().isDeleted());
-
-			preparedStatement.setBoolean(5, !resource.getVersion().isDeleted());
-
-			// attributes
-			preparedStatement.setString(6, resource.getName());
-			preparedStatement.setString(7, resource.getType());
-
-			SQLXML sqlxml = writeObject(preparedStatement, resource, 8);
-
-			// primary key
-			preparedStatement.setString(9, resource.getId());
-			preparedStatement.setInt(10, resource.getVersion().getVersion());
-
-			try {
-				int modCount = preparedStatement.executeUpdate();
-				if (modCount != 1) {
-					String msg = "Expected to update 1 element with id {0} and version {1} but SQL statement modified {2} elements!";
-					msg = MessageFormat.format(msg, resource.getId(), resource.getVersion().getVersion(), modCount);
-					throw new StrolchPersistenceException(msg);
-				}
-			} finally {
-				if (sqlxml != null)
-					sqlxml.free();
-			}
-
-		} catch (SQLException | SAXException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to update Resource {0} due to {1}", resource.getLocator(), e.getLocalizedMessage()),
-					e);
-		}
+		inserter.writeBoolean(!resource.getVersion().isDeleted());
+
+		// attributes
+		inserter.writeString(resource.getName());
+		inserter.writeString(resource.getType());
+
+		writeCopyObject(inserter, resource);
+	}
+
+	@Override
+	protected String getUpdateSql() {
+		return getSql(updateAsXmlSqlS, updateAsJsonSqlS, updateAsBinarySqlS);
+	}
+
+	@Override
+	protected SQLXML bindUpdate(PreparedStatement preparedStatement, Resource resource) throws SQLException, SAXException {
+		// version
+		preparedStatement.setString(1, resource.getVersion().getCreatedBy());
+		preparedStatement
+				.setTimestamp(2, new Timestamp(resource.getVersion().getCreated().getTime()), Calendar.getInstance());
+		preparedStatement
+				.setTimestamp(3, new Timestamp(resource.getVersion().getUpdated().getTime()), Calendar.getInstance());
+		preparedStatement.setBoolean(4, resource.getVersion().isDeleted());
+
+		preparedStatement.setBoolean(5, !resource.getVersion().isDeleted());
+
+		// attributes
+		preparedStatement.setString(6, resource.getName());
+		preparedStatement.setString(7, resource.getType());
+
+		SQLXML sqlxml = writeObject(preparedStatement, resource, 8);
+
+		// primary key
+		preparedStatement.setString(9, resource.getId());
+		preparedStatement.setInt(10, resource.getVersion().getVersion());
+
+		return sqlxml;
 	}
 }
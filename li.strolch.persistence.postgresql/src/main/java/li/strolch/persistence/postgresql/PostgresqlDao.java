@@ -16,33 +16,50 @@
 package li.strolch.persistence.postgresql;
 
 import javax.xml.transform.sax.SAXResult;
+import java.io.IOException;
 import java.sql.*;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import li.strolch.model.StrolchRootElement;
+import li.strolch.model.binary.StrolchElementToBinaryVisitor;
 import li.strolch.model.json.StrolchRootElementToJsonVisitor;
 import li.strolch.model.xml.StrolchElementToSaxVisitor;
+import li.strolch.model.xml.StrolchElementToXmlStringVisitor;
+import li.strolch.persistence.api.BulkInserter;
 import li.strolch.persistence.api.StrolchDao;
 import li.strolch.persistence.api.StrolchPersistenceException;
 import li.strolch.persistence.api.TransactionResult;
 import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
 public abstract class PostgresqlDao<T extends StrolchRootElement> implements StrolchDao<T> {
 
+	private static final Logger logger = LoggerFactory.getLogger(PostgresqlDao.class);
+
+	/**
+	 * The maximum number of statements sent to the database in one JDBC batch
+	 */
+	public static final int BATCH_SIZE = 500;
+
 	private static final String querySizeSqlS = "select count(*) from {0} where latest = true";
 	private static final String querySizeOfTypeSqlS = "select count(*) from {0} where type = ANY(?) and latest = true";
-	private static final String querySizeOfElementSqlS = "select count(*) from {0} where type = ? and id = ?";
 	private static final String queryTypesSqlS = "select distinct type from {0} where latest = true";
 	private static final String queryLatestVersionNumberForSqlS = "select count(*), max(version) from {0} where type = ? and id = ?";
 	private static final String queryVersionsSizeForSqlS = "select count(*) from {0} where type = ? and id = ?";
 
 	private static final String updateLatestSqlS = "update {0} set latest = true where type = ? and id = ? and version = ?";
+	private static final String updateNotLatestSqlS = "update {0} set latest = false where id = ? and version = ?";
 
 	private static final String deleteElementSqlS = "delete from {0} where id = ?";
 	private static final String deleteVersionSqlS = "delete from {0} where type = ? and id = ? and version = ? and latest = true";
@@ -51,25 +68,32 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 
 	private static final String queryByVersionAsXmlSqlS = "select version, asxml from {0} where type = ? and id = ? and version = ?";
 	private static final String queryByVersionAsJsonSqlS = "select version, asjson from {0} where type = ? and id = ? and version = ?";
+	private static final String queryByVersionAsBinarySqlS = "select version, asbinary from {0} where type = ? and id = ? and version = ?";
 
 	private static final String queryVersionsAsXmlForSqlS = "select asxml from {0} where type = ? and id = ? order by version";
 	private static final String queryVersionsAsJsonForSqlS = "select asjson from {0} where type = ? and id = ? order by version";
+	private static final String queryVersionsAsBinaryForSqlS = "select asbinary from {0} where type = ? and id = ? order by version";
 
 	private static final String queryAllAsXmlSqlS = "select id, type, asxml from {0} where latest = true";
 	private static final String queryAllAsXmlLimitSqlS = "select id, type, asxml from {0} where latest = true order by id limit {1} offset {2}";
 	private static final String queryAllAsJsonSqlS = "select id, type, asjson from {0} where latest = true";
 	private static final String queryAllAsJsonLimitSqlS = "select id, type, asjson from {0} where latest = true order by id limit {1} offset {2}";
+	private static final String queryAllAsBinarySqlS = "select id, type, asbinary from {0} where latest = true";
+	private static final String queryAllAsBinaryLimitSqlS = "select id, type, asbinary from {0} where latest = true order by id limit {1} offset {2}";
 
 	private static final String queryAllByTypeAsXmlSqlS = "select id, type, asxml from {0} where type = ANY(?) and latest = true";
 	private static final String queryAllByTypeAsXmlLimitSqlS = "select id, type, asxml from {0} where type = ANY(?) and latest = true order by id limit {1,number,#} offset {2,number,#}";
 	private static final String queryAllByTypeAsJsonSqlS = "select id, type, asjson from {0} where type = ANY(?) and latest = true";
 	private static final String queryAllByTypeAsJsonLimitSqlS = "select id, type, asjson from {0} where type = ANY(?) and latest = true order by id limit {1,number,#} offset {2,number,#}";
+	private static final String queryAllByTypeAsBinarySqlS = "select id, type, asbinary from {0} where type = ANY(?) and latest = true";
+	private static final String queryAllByTypeAsBinaryLimitSqlS = "select id, type, asbinary from {0} where type = ANY(?) and latest = true order by id limit {1,number,#} offset {2,number,#}";
 
 	protected final DataType dataType;
 	protected Connection connection;
 	protected final TransactionResult txResult;
 	protected final boolean versioningEnabled;
 	protected List<DaoCommand> commands;
+	private BatchCommand lastBatch;
 
 	public PostgresqlDao(DataType dataType, Connection connection, TransactionResult txResult,
 			boolean versioningEnabled) {
@@ -97,6 +121,8 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 
 	protected abstract T parseFromJson(String id, String type, String json);
 
+	protected abstract T parseFromBinary(String id, String type, byte[] bytes);
+
 	protected SQLXML createSqlXml(T t) throws SQLException, SAXException {
 		SQLXML sqlxml = this.connection.createSQLXML();
 		SAXResult saxResult = sqlxml.setResult(SAXResult.class);
@@ -114,11 +140,15 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 		if (this.dataType == DataType.xml) {
 			sqlxml = createSqlXml(t);
 			preparedStatement.setSQLXML(index, sqlxml);
-		} else {
+		} else if (this.dataType == DataType.json) {
 			PGobject jsonObj = new PGobject();
 			jsonObj.setType("json");
 			jsonObj.setValue(t.accept(new StrolchRootElementToJsonVisitor()).toString());
 			preparedStatement.setObject(index, jsonObj);
+		} else if (this.dataType == DataType.binary) {
+			preparedStatement.setBytes(index, t.accept(new StrolchElementToBinaryVisitor()));
+		} else {
+			throw new IllegalStateException("Unhandled DataType " + this.dataType);
 		}
 
 		return sqlxml;
@@ -136,6 +166,11 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 			String json = pGobject.getValue();
 			return parseFromJson(id, type, json);
 
+		} else if (this.dataType == DataType.binary) {
+
+			byte[] bytes = result.getBytes("asbinary");
+			return parseFromBinary(id, type, bytes);
+
 		} else {
 			throw new IllegalStateException("Unhandled DataType " + this.dataType);
 		}
@@ -202,7 +237,7 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 	@Override
 	public T queryBy(String type, String id, int versionNr) {
 
-		String sql = getSql(queryByVersionAsXmlSqlS, queryByVersionAsJsonSqlS);
+		String sql = getSql(queryByVersionAsXmlSqlS, queryByVersionAsJsonSqlS, queryByVersionAsBinarySqlS);
 
 		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
 			statement.setString(1, type);
@@ -233,7 +268,7 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 	@Override
 	public List<T> queryVersionsFor(String type, String id) {
 
-		String sql = getSql(queryVersionsAsXmlForSqlS, queryVersionsAsJsonForSqlS);
+		String sql = getSql(queryVersionsAsXmlForSqlS, queryVersionsAsJsonForSqlS, queryVersionsAsBinaryForSqlS);
 
 		List<T> list = new ArrayList<>(1);
 		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
@@ -309,8 +344,8 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 
 		List<T> list = new ArrayList<>();
 
-		String sql = getLimitSql(limit, offset, queryAllAsXmlSqlS, queryAllAsJsonSqlS, queryAllAsXmlLimitSqlS,
-				queryAllAsJsonLimitSqlS);
+		String sql = getLimitSql(limit, offset, queryAllAsXmlSqlS, queryAllAsJsonSqlS, queryAllAsBinarySqlS,
+				queryAllAsXmlLimitSqlS, queryAllAsJsonLimitSqlS, queryAllAsBinaryLimitSqlS);
 
 		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
 
@@ -342,7 +377,8 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 		List<T> list = new ArrayList<>();
 
 		String sql = getLimitSql(limit, offset, queryAllByTypeAsXmlSqlS, queryAllByTypeAsJsonSqlS,
-				queryAllByTypeAsXmlLimitSqlS, queryAllByTypeAsJsonLimitSqlS);
+				queryAllByTypeAsBinarySqlS, queryAllByTypeAsXmlLimitSqlS, queryAllByTypeAsJsonLimitSqlS,
+				queryAllByTypeAsBinaryLimitSqlS);
 
 		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
 
@@ -364,31 +400,75 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 		}
 	}
 
-	protected String getLimitSql(long limit, long offset, String xmlSql, String jsonSql, String xmlLimitSql,
-			String jsonLimitSql) {
+	@Override
+	public void streamAll(String type, int fetchSize, Consumer<Supplier<T>> consumer) {
+
+		String sql = getSql(queryAllByTypeAsXmlSqlS, queryAllByTypeAsJsonSqlS, queryAllByTypeAsBinarySqlS);
+
+		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
+
+			// with auto commit disabled, the driver uses a cursor and only fetches the given number of rows at once
+			statement.setFetchSize(fetchSize);
+
+			Array typesArray = statement.getConnection().createArrayOf("varchar", new String[] { type });
+			statement.setArray(1, typesArray);
+
+			try (ResultSet result = statement.executeQuery()) {
+				while (result.next()) {
+					String id = result.getString("id");
+					String elementType = result.getString("type");
+
+					// only read the raw value here, parsing is done by the supplier
+					if (this.dataType == DataType.xml) {
+						SQLXML sqlxml = result.getSQLXML("asxml");
+						consumer.accept(() -> parseFromXml(id, elementType, sqlxml));
+					} else if (this.dataType == DataType.json) {
+						PGobject pGobject = (PGobject) result.getObject("asjson");
+						String json = pGobject.getValue();
+						consumer.accept(() -> parseFromJson(id, elementType, json));
+					} else if (this.dataType == DataType.binary) {
+						byte[] bytes = result.getBytes("asbinary");
+						consumer.accept(() -> parseFromBinary(id, elementType, bytes));
+					} else {
+						throw new IllegalStateException("Unhandled DataType " + this.dataType);
+					}
+				}
+			}
+
+		} catch (SQLException e) {
+			throw new StrolchPersistenceException("Failed to stream type " + type + " due to: " + e.getMessage(), e);
+		}
+	}
+
+	protected String getLimitSql(long limit, long offset, String xmlSql, String jsonSql, String binarySql,
+			String xmlLimitSql, String jsonLimitSql, String binaryLimitSql) {
 
 		String sql;
 		if (limit == Integer.MAX_VALUE) {
-			return getSql(xmlSql, jsonSql);
+			return getSql(xmlSql, jsonSql, binarySql);
 		}
 
 		if (this.dataType == DataType.xml)
 			sql = xmlLimitSql;
 		else if (this.dataType == DataType.json)
 			sql = jsonLimitSql;
+		else if (this.dataType == DataType.binary)
+			sql = binaryLimitSql;
 		else
 			throw new IllegalStateException("Unhandled DataType " + this.dataType);
 
 		return MessageFormat.format(sql, getTableName(), limit, offset);
 	}
 
-	protected String getSql(String xmlSql, String jsonSql) {
+	protected String getSql(String xmlSql, String jsonSql, String binarySql) {
 
 		String sql;
 		if (this.dataType == DataType.xml)
 			sql = xmlSql;
 		else if (this.dataType == DataType.json)
 			sql = jsonSql;
+		else if (this.dataType == DataType.binary)
+			sql = binarySql;
 		else
 			throw new IllegalStateException("Unhandled DataType " + this.dataType);
 
@@ -397,56 +477,47 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 
 	@Override
 	public void save(T res) {
-		this.commands.add(txResult -> {
-			internalSave(res);
-			txResult.incCreated(1);
-		});
+		addBatchCommand(BatchOp.save, Collections.singletonList(res));
 	}
 
 	@Override
 	public void saveAll(List<T> elements) {
-		this.commands.add(txResult -> {
-			for (T element : elements) {
-				internalSave(element);
-			}
-			txResult.incCreated(elements.size());
-		});
+		addBatchCommand(BatchOp.save, elements);
 	}
 
 	@Override
 	public void update(T element) {
-		this.commands.add(txResult -> {
-			internalUpdate(element);
-			txResult.incUpdated(1);
-		});
+		addBatchCommand(BatchOp.update, Collections.singletonList(element));
 	}
 
 	@Override
 	public void updateAll(List<T> elements) {
-		this.commands.add(txResult -> {
-			for (T element : elements) {
-				internalUpdate(element);
-			}
-			txResult.incUpdated(elements.size());
-		});
+		addBatchCommand(BatchOp.update, elements);
 	}
 
 	@Override
 	public void remove(T element) {
-		this.commands.add(txResult -> {
-			internalRemove(element);
-			txResult.incDeleted(1);
-		});
+		addBatchCommand(BatchOp.remove, Collections.singletonList(element));
 	}
 
 	@Override
 	public void removeAll(List<T> elements) {
-		this.commands.add(txResult -> {
-			for (T element : elements) {
-				internalRemove(element);
-			}
-			txResult.incDeleted(elements.size());
-		});
+		addBatchCommand(BatchOp.remove, elements);
+	}
+
+	/**
+	 * Consecutive saves, updates or removes are coalesced into a single {@link BatchCommand}, so that they are
+	 * performed using one {@link PreparedStatement} and JDBC batches, instead of one statement per element
+	 */
+	private void addBatchCommand(BatchOp op, List<T> elements) {
+		if (this.lastBatch != null && this.lastBatch.op == op && !this.commands.isEmpty()
+				&& this.commands.get(this.commands.size() - 1) == this.lastBatch) {
+			this.lastBatch.elements.addAll(elements);
+			return;
+		}
+
+		this.lastBatch = new BatchCommand(op, elements);
+		this.commands.add(this.lastBatch);
 	}
 
 	@Override
@@ -483,49 +554,207 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 		});
 	}
 
-	protected abstract void internalSave(T element);
+	@Override
+	public boolean supportsBulkInsert() {
+		return true;
+	}
 
-	protected abstract void internalUpdate(T element);
+	@Override
+	public BulkInserter<T> openBulkInserter() {
+		return new PostgreSqlBulkInserter<>(this, this.connection);
+	}
 
-	protected void internalRemove(T element) {
+	/**
+	 * Returns the <code>COPY ... FROM STDIN WITH (FORMAT binary)</code> SQL used by the {@link PostgreSqlBulkInserter}
+	 *
+	 * @return the SQL to bulk insert elements
+	 */
+	protected abstract String getCopySql();
 
-		// first find out how many there are
-		long count = 0;
-		String sql = MessageFormat.format(querySizeOfElementSqlS, getTableName());
-		try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
-			statement.setString(1, element.getType());
-			statement.setString(2, element.getId());
+	/**
+	 * Writes the given element as a row to the given {@link PostgreSqlBulkInserter}, in the order of the columns of
+	 * {@link #getCopySql()}
+	 */
+	protected abstract void writeCopyRow(PostgreSqlBulkInserter<T> inserter, T element)
+			throws SQLException, IOException;
 
-			try (ResultSet result = statement.executeQuery()) {
-				result.next();
-				count = result.getLong(1);
+	protected void writeCopyObject(PostgreSqlBulkInserter<T> inserter, T element) throws IOException {
+		if (this.dataType == DataType.xml)
+			inserter.writeString(element.accept(new StrolchElementToXmlStringVisitor().withoutDocument()));
+		else if (this.dataType == DataType.json)
+			inserter.writeString(element.accept(new StrolchRootElementToJsonVisitor()).toString());
+		else if (this.dataType == DataType.binary)
+			inserter.writeBytes(element.accept(new StrolchElementToBinaryVisitor()));
+		else
+			throw new IllegalStateException("Unhandled DataType " + this.dataType);
+	}
+
+	protected abstract String getInsertSql();
+
+	protected abstract String getUpdateSql();
+
+	/**
+	 * Binds the given element to the given insert statement, as returned by {@link #getInsertSql()}
+	 *
+	 * @return the {@link SQLXML} which must be freed after the statement was executed, or null if not using XML
+	 */
+	protected abstract SQLXML bindInsert(PreparedStatement preparedStatement, T element)
+			throws SQLException, SAXException;
+
+	/**
+	 * Binds the given element to the given update statement, as returned by {@link #getUpdateSql()}
+	 *
+	 * @return the {@link SQLXML} which must be freed after the statement was executed, or null if not using XML
+	 */
+	protected abstract SQLXML bindUpdate(PreparedStatement preparedStatement, T element)
+			throws SQLException, SAXException;
+
+	protected void internalSaveAll(List<T> elements) {
+		executeBatch(getInsertSql(), elements, this::bindInsert, "insert", (element, modCount) -> {
+			if (modCount != 1) {
+				String msg = "Expected to save 1 element with id {0} but SQL statement modified {1} elements!";
+				throw new StrolchPersistenceException(MessageFormat.format(msg, element.getId(), modCount));
 			}
+		});
 
-		} catch (SQLException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to remove {0} due to {1}", element.getLocator(), e.getLocalizedMessage()), e);
+		// and set the previous versions to not be latest anymore
+		List<T> newVersions = new ArrayList<>();
+		for (T element : elements) {
+			if (!element.getVersion().isFirstVersion())
+				newVersions.add(element);
 		}
+		if (newVersions.isEmpty())
+			return;
 
-		if (count == 0) {
-			throw new StrolchPersistenceException(
-					MessageFormat.format("Failed to remove {0} as it does not exist!", element.getLocator()));
+		String sql = MessageFormat.format(updateNotLatestSqlS, getTableName());
+		executeBatch(sql, newVersions, (preparedStatement, element) -> {
+			preparedStatement.setString(1, element.getId());
+			preparedStatement.setInt(2, element.getVersion().getPreviousVersion());
+			return null;
+		}, "insert", (element, modCount) -> {
+			if (modCount != 1) {
+				String msg = "Expected to update 1 previous element with id {0} and version {1} but SQL statement modified {2} elements!";
+				throw new StrolchPersistenceException(MessageFormat
+						.format(msg, element.getId(), element.getVersion().getPreviousVersion(), modCount));
+			}
+		});
+	}
+
+	protected void internalUpdateAll(List<T> elements) {
+
+		// with versioning we save new objects
+		if (this.versioningEnabled) {
+			internalSaveAll(elements);
+			return;
 		}
 
-		sql = MessageFormat.format(deleteElementSqlS, getTableName());
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
+		for (T element : elements) {
+
+			// make sure is first version when versioning is not enabled
+			if (!element.getVersion().isFirstVersion()) {
+				throw new StrolchPersistenceException(MessageFormat
+						.format("Versioning is not enabled, so version must always be 0 to perform an update, but it is {0}",
+								element.getVersion()));
+			}
+
+			// and also not marked as deleted!
+			if (element.getVersion().isDeleted()) {
+				throw new StrolchPersistenceException(MessageFormat
+						.format("Versioning is not enabled, so version can not be marked as deleted for {0}",
+								element.getVersion()));
+			}
+		}
+
+		// now we update the existing objects
+		executeBatch(getUpdateSql(), elements, this::bindUpdate, "update", (element, modCount) -> {
+			if (modCount != 1) {
+				String msg = "Expected to update 1 element with id {0} and version {1} but SQL statement modified {2} elements!";
+				throw new StrolchPersistenceException(
+						MessageFormat.format(msg, element.getId(), element.getVersion().getVersion(), modCount));
+			}
+		});
+	}
+
+	protected void internalRemoveAll(List<T> elements) {
+		String sql = MessageFormat.format(deleteElementSqlS, getTableName());
+		executeBatch(sql, elements, (preparedStatement, element) -> {
 			preparedStatement.setString(1, element.getId());
+			return null;
+		}, "remove", (element, modCount) -> {
+			// all versions are deleted, so we only need to know that at least one existed
+			if (modCount == 0) {
+				throw new StrolchPersistenceException(
+						MessageFormat.format("Failed to remove {0} as it does not exist!", element.getLocator()));
+			}
+		});
+	}
 
-			int modCount = preparedStatement.executeUpdate();
-			if (modCount != count) {
-				String msg = "Expected to delete {0} element with id {1} but SQL statement deleted {2} elements!";
-				msg = MessageFormat.format(msg, count, element.getId(), modCount);
-				throw new StrolchPersistenceException(msg);
+	/**
+	 * Executes the given SQL for all the given elements using JDBC batches of at most {@link #BATCH_SIZE} elements,
+	 * validating the modification count of each element with the given validator. Drivers may not report the
+	 * modification count, i.e. when batched inserts are rewritten, in which case the validation is skipped
+	 */
+	private void executeBatch(String sql, List<T> elements, StatementBinder<T> binder, String action,
+			BiConsumer<T, Integer> validator) {
+
+		List<SQLXML> sqlxmls = new ArrayList<>();
+		T current = null;
+		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
+
+			int batchStart = 0;
+			for (int i = 0; i < elements.size(); i++) {
+				current = elements.get(i);
+
+				SQLXML sqlxml = binder.bind(preparedStatement, current);
+				if (sqlxml != null)
+					sqlxmls.add(sqlxml);
+				preparedStatement.addBatch();
+
+				if (i - batchStart + 1 < BATCH_SIZE && i < elements.size() - 1)
+					continue;
+
+				current = null;
+				int[] modCounts = preparedStatement.executeBatch();
+				for (int j = 0; j < modCounts.length; j++) {
+					if (modCounts[j] != Statement.SUCCESS_NO_INFO)
+						validator.accept(elements.get(batchStart + j), modCounts[j]);
+				}
+
+				freeSqlXmls(sqlxmls);
+				batchStart = i + 1;
 			}
 
-		} catch (SQLException e) {
-			throw new StrolchPersistenceException(MessageFormat
-					.format("Failed to remove {0} due to {1}", element.getLocator(), e.getLocalizedMessage()), e);
+		} catch (SQLException | SAXException e) {
+			String msg;
+			if (current != null) {
+				msg = MessageFormat.format("Failed to {0} {1} due to {2}", action, current.getLocator(),
+						getExceptionMessage(e));
+			} else {
+				msg = MessageFormat.format("Failed to {0} batch of {1} {2} elements due to {3}", action,
+						elements.size(), getClassName(), getExceptionMessage(e));
+			}
+			throw new StrolchPersistenceException(msg, e);
+		} finally {
+			freeSqlXmls(sqlxmls);
+		}
+	}
+
+	private static void freeSqlXmls(List<SQLXML> sqlxmls) {
+		for (SQLXML sqlxml : sqlxmls) {
+			try {
+				sqlxml.free();
+			} catch (SQLException e) {
+				logger.error("Failed to free SQLXML: " + e.getMessage(), e);
+			}
 		}
+		sqlxmls.clear();
+	}
+
+	private static String getExceptionMessage(Exception e) {
+		// the cause of a failed batch is only available as the next exception
+		if (e instanceof BatchUpdateException && ((BatchUpdateException) e).getNextException() != null)
+			return ((BatchUpdateException) e).getNextException().getLocalizedMessage();
+		return e.getLocalizedMessage();
 	}
 
 	private void internalRemoveVersion(T element) {
@@ -600,5 +829,46 @@ public abstract class PostgresqlDao<T extends StrolchRootElement> implements Str
 			command.doComand(this.txResult);
 		}
 		this.commands.clear();
+		this.lastBatch = null;
+	}
+
+	private enum BatchOp {
+		save, update, remove
+	}
+
+	@FunctionalInterface
+	private interface StatementBinder<T> {
+		SQLXML bind(PreparedStatement preparedStatement, T element) throws SQLException, SAXException;
+	}
+
+	private class BatchCommand implements DaoCommand {
+
+		private final BatchOp op;
+		private final List<T> elements;
+
+		private BatchCommand(BatchOp op, List<T> elements) {
+			this.op = op;
+			this.elements = new ArrayList<>(elements);
+		}
+
+		@Override
+		public void doComand(TransactionResult txResult) {
+			switch (this.op) {
+			case save:
+				internalSaveAll(this.elements);
+				txResult.incCreated(this.elements.size());
+				break;
+			case update:
+				internalUpdateAll(this.elements);
+				txResult.incUpdated(this.elements.size());
+				break;
+			case remove:
+				internalRemoveAll(this.elements);
+				txResult.incDeleted(this.elements.size());
+				break;
+			default:
+				throw new IllegalStateException("Unhandled batch operation " + this.op);
+			}
+		}
 	}
 }
@@ -0,0 +1,14 @@
+
+-- add binary column
+ALTER TABLE resources ADD COLUMN asbinary bytea;
+ALTER TABLE orders ADD COLUMN asbinary bytea;
+ALTER TABLE activities ADD COLUMN asbinary bytea;
+
+INSERT INTO db_version
+  (version, app, description, created)
+values(
+  '0.10.0',
+  'strolch',
+  'Added binary column to all tables',
+  CURRENT_TIMESTAMP
+);
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.persistence.postgresql.dao.test;
+
+import static li.strolch.persistence.postgresql.PostgreSqlPersistenceHandler.SCRIPT_PREFIX_ARCHIVE;
+import static li.strolch.persistence.postgresql.PostgreSqlPersistenceHandler.SCRIPT_PREFIX_STROLCH;
+import static li.strolch.persistence.postgresql.dao.test.CachedDaoTest.dropSchema;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.agent.impl.BulkImportElementListener;
+import li.strolch.exception.StrolchException;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Resource;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.model.Tags;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.model.xml.StrolchXmlHelper;
+import li.strolch.model.xml.XmlModelSaxFileReader;
+import li.strolch.persistence.api.PersistenceHandler;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.persistence.postgresql.DataType;
+import li.strolch.persistence.postgresql.PostgreSqlPersistenceHandler;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.runtime.StrolchConstants;
+import li.strolch.testbase.runtime.RuntimeMock;
+import li.strolch.utils.collections.DateRange;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BulkImportTest {
+
+	public static final String RUNTIME_PATH = "target/bulkImportRuntime/"; //$NON-NLS-1$
+	public static final String DB_STORE_PATH_DIR = "dbStore"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/test/resources/cachedBinaryRuntime"; //$NON-NLS-1$
+
+	public static final String DB_URL = "jdbc:postgresql://localhost/testdb"; //$NON-NLS-1$
+	public static final String DB_USERNAME = "testuser"; //$NON-NLS-1$
+	public static final String DB_PASSWORD = "test"; //$NON-NLS-1$
+
+	private static final String TYPE = "BulkType";
+	private static final int NR_OF_ELEMENTS = 100;
+
+	private static RuntimeMock runtimeMock;
+	private static PersistenceHandler persistenceHandler;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+
+		dropSchema(SCRIPT_PREFIX_ARCHIVE, DB_URL, DB_USERNAME, DB_PASSWORD);
+		dropSchema(SCRIPT_PREFIX_STROLCH, DB_URL, DB_USERNAME, DB_PASSWORD);
+
+		File rootPath = new File(RUNTIME_PATH);
+		File configSrc = new File(CONFIG_SRC);
+		runtimeMock = new RuntimeMock();
+		runtimeMock.mockRuntime(rootPath, configSrc);
+		new File(rootPath, DB_STORE_PATH_DIR).mkdir();
+		runtimeMock.startContainer();
+
+		persistenceHandler = runtimeMock.getContainer().getComponent(PersistenceHandler.class);
+		assertEquals(DataType.binary, ((PostgreSqlPersistenceHandler) persistenceHandler).getDataType());
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	private static File writeModel(String name, List<StrolchRootElement> elements) {
+		File modelFile = new File(RUNTIME_PATH, name);
+		StrolchXmlHelper.writeToFile(modelFile, elements);
+		return modelFile;
+	}
+
+	private static BulkImportElementListener bulkImport(StrolchTransaction tx, StrolchRealm realm, File modelFile) {
+		assertTrue(BulkImportElementListener.isSupported(realm, tx));
+		try (BulkImportElementListener listener = new BulkImportElementListener(tx, realm)) {
+			new XmlModelSaxFileReader(listener, modelFile, false).parseFile();
+			listener.finish();
+			listener.audit(modelFile.getName());
+			return listener;
+		}
+	}
+
+	@Test
+	public void shouldBulkImportModel() {
+
+		List<StrolchRootElement> elements = new ArrayList<>();
+		for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+			elements.add(ModelGenerator.createResource("bulkRes" + i, "Bulk Resource " + i, TYPE));
+			elements.add(ModelGenerator.createOrder("bulkOrder" + i, "Bulk Order " + i, TYPE));
+			elements.add(ModelGenerator
+					.createActivity("bulkActivity" + i, "Bulk Activity " + i, TYPE, TimeOrdering.SERIES));
+		}
+		File modelFile = writeModel("BulkImportModel.xml", elements);
+
+		Certificate certificate = runtimeMock.loginAdmin();
+		StrolchRealm realm = runtimeMock.getRealm(StrolchConstants.DEFAULT_REALM);
+		Date start = new Date();
+
+		try (StrolchTransaction tx = realm.openTx(certificate, BulkImportTest.class, false)) {
+			BulkImportElementListener listener = bulkImport(tx, realm, modelFile);
+			assertEquals(NR_OF_ELEMENTS, listener.getNrOfResources());
+			assertEquals(NR_OF_ELEMENTS, listener.getNrOfOrders());
+			assertEquals(NR_OF_ELEMENTS, listener.getNrOfActivities());
+
+			// the elements are only published to the cache after the commit
+			assertFalse(tx.hasResource(TYPE, "bulkRes0"));
+
+			tx.commitOnClose();
+		}
+
+		try (StrolchTransaction tx = realm.openTx(certificate, BulkImportTest.class, true)) {
+
+			// a single audit for the whole import
+			DateRange dateRange = new DateRange().from(start, true).to(new Date(), true);
+			assertEquals(1, tx.getAuditTrail().querySize(tx, dateRange));
+			assertEquals(1, tx.getAuditTrail().querySize(tx, Tags.STROLCH_MODEL, dateRange));
+
+			// rows in the database
+			assertEquals(NR_OF_ELEMENTS, persistenceHandler.getResourceDao(tx).querySize(TYPE));
+			assertEquals(NR_OF_ELEMENTS, persistenceHandler.getOrderDao(tx).querySize(TYPE));
+			assertEquals(NR_OF_ELEMENTS, persistenceHandler.getActivityDao(tx).querySize(TYPE));
+
+			// elements in the cache
+			assertEquals(NR_OF_ELEMENTS, tx.getResourceMap().querySize(tx, TYPE));
+			assertEquals(NR_OF_ELEMENTS, tx.getOrderMap().querySize(tx, TYPE));
+			assertEquals(NR_OF_ELEMENTS, tx.getActivityMap().querySize(tx, TYPE));
+
+			Resource expected = ModelGenerator.createResource("bulkRes1", "Bulk Resource 1", TYPE);
+			Resource resource = tx.getResourceBy(TYPE, "bulkRes1", true);
+			assertEquals(expected.getName(), resource.getName());
+			assertEquals(expected.getParameterBag(ModelGenerator.BAG_ID).getParameterKeySet(),
+					resource.getParameterBag(ModelGenerator.BAG_ID).getParameterKeySet());
+			assertTrue(resource.hasVersion());
+			assertEquals(0, resource.getVersion().getVersion());
+		}
+	}
+
+	@Test
+	public void shouldFailOnDuplicateIds() {
+
+		List<StrolchRootElement> elements = new ArrayList<>();
+		elements.add(ModelGenerator.createResource("dupRes", "Duplicate Resource", "DupType"));
+		elements.add(ModelGenerator.createResource("otherRes", "Other Resource", "DupType"));
+		elements.add(ModelGenerator.createResource("dupRes", "Duplicate Resource", "OtherDupType"));
+		File modelFile = writeModel("DuplicateModel.xml", elements);
+
+		Certificate certificate = runtimeMock.loginAdmin();
+		StrolchRealm realm = runtimeMock.getRealm(StrolchConstants.DEFAULT_REALM);
+
+		try (StrolchTransaction tx = realm.openTx(certificate, BulkImportTest.class, false)) {
+			bulkImport(tx, realm, modelFile);
+			fail("Duplicate ids should fail the bulk import!");
+		} catch (StrolchException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("dupRes"));
+		}
+
+		try (StrolchTransaction tx = realm.openTx(certificate, BulkImportTest.class, true)) {
+			assertEquals(0, persistenceHandler.getResourceDao(tx).querySize("DupType", "OtherDupType"));
+			assertEquals(0, tx.getResourceMap().querySize(tx, "DupType"));
+			assertEquals(0, tx.getResourceMap().querySize(tx, "OtherDupType"));
+		}
+	}
+}
@@ -18,6 +18,8 @@ package li.strolch.persistence.xml;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import li.strolch.model.StrolchRootElement;
 import li.strolch.persistence.api.StrolchDao;
@@ -118,6 +120,12 @@ public abstract class AbstractDao<T extends StrolchRootElement> implements Strol
 		return objects;
 	}
 
+	@Override
+	public void streamAll(String type, int fetchSize, Consumer<Supplier<T>> consumer)
+			throws StrolchPersistenceException {
+		this.tx.getObjectDao().streamAll(getTypeRef(type), file -> true, consumer);
+	}
+
 	@Override
 	public void save(T object) {
 		this.tx.getObjectDao().add(object);
@@ -15,52 +15,39 @@
  */
 package li.strolch.persistence.xml;
 
-import java.io.File;
-import java.util.Date;
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 
-import li.strolch.model.Tags;
 import li.strolch.model.audit.Audit;
 import li.strolch.model.query.AuditQuery;
 import li.strolch.persistence.api.AuditDao;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.utils.collections.DateRange;
-import li.strolch.xmlpers.api.PersistenceContext;
-import li.strolch.xmlpers.api.PersistenceTransaction;
-import li.strolch.xmlpers.objref.IdOfSubTypeRef;
-import li.strolch.xmlpers.objref.SubTypeRef;
-import li.strolch.xmlpers.objref.TypeRef;
+import li.strolch.xmlpers.api.DateSegmentStore;
 
 /**
+ * {@link AuditDao} storing the audits in the {@link DateSegmentStore} of the realm, partitioned by element type and by
+ * day. As before, the audits are written immediately, and not when the transaction is committed
+ *
  * @author Robert von Burg <eitch@eitchnet.ch>
  */
 public class XmlAuditDao implements AuditDao {
 
-	private PersistenceTransaction tx;
+	private final DateSegmentStore<Audit> store;
 
 	public XmlAuditDao(StrolchTransaction tx) {
 		XmlStrolchTransaction strolchTx = (XmlStrolchTransaction) tx;
-		this.tx = strolchTx.getTx();
-	}
-
-	protected String getClassType() {
-		return Tags.AUDIT;
-	}
-
-	protected IdOfSubTypeRef getIdRef(String type, Long id) {
-		return this.tx.getManager().getObjectRefCache().getIdOfSubTypeRef(getClassType(), type, id.toString());
-	}
-
-	protected SubTypeRef getTypeRef(String type) {
-		return this.tx.getManager().getObjectRefCache().getSubTypeRef(getClassType(), type);
+		this.store = strolchTx.getAuditStore();
 	}
 
 	@Override
 	public boolean hasElement(String type, Long id) {
-		IdOfSubTypeRef ref = getIdRef(type, id);
-		return this.tx.getObjectDao().hasElement(ref);
+		return this.store.hasElement(type, id.toString());
 	}
 
 	@Override
@@ -68,9 +55,6 @@ public class XmlAuditDao implements AuditDao {
 		long size = 0;
 		Set<String> types = queryTypes();
 		for (String type : types) {
-			// SubTypeRef subTypeRef = getTypeRef(type);
-			// size += this.tx.getMetadataDao().querySize(subTypeRef);
-
 			size += querySize(type, dateRange);
 		}
 		return size;
@@ -78,77 +62,69 @@ public class XmlAuditDao implements AuditDao {
 
 	@Override
 	public long querySize(String type, DateRange dateRange) {
-		Predicate<File> predicate = file -> dateRange.contains(new Date(file.lastModified()));
-		return this.tx.getMetadataDao().querySize(getTypeRef(type), predicate);
+		return this.store.querySize(type, dateRange);
 	}
 
 	@Override
 	public Set<String> queryTypes() {
-		TypeRef typeRef = this.tx.getManager().getObjectRefCache().getTypeRef(getClassType());
-		return this.tx.getMetadataDao().queryTypeSet(typeRef);
+		return this.store.queryTypes();
 	}
 
 	@Override
 	public Audit queryBy(String type, Long id) {
-		return this.tx.getObjectDao().queryById(getIdRef(type, id));
+		return this.store.queryById(type, id.toString());
 	}
 
 	@Override
 	public List<Audit> queryAll(String type, DateRange dateRange) {
-		Predicate<File> predicate = file -> dateRange.contains(new Date(file.lastModified()));
-		return this.tx.getObjectDao().queryAll(getTypeRef(type), predicate);
+		return this.store.queryAll(type, dateRange);
 	}
 
 	@Override
 	public void save(Audit audit) {
-		PersistenceContext<Audit> ctx = this.tx.getObjectDao().createCtx(audit, -1L);
-		this.tx.getFileDao().performCreate(ctx);
+		this.store.add(audit.getElementType(), singletonList(audit));
 	}
 
 	@Override
 	public void saveAll(List<Audit> audits) {
-		for (Audit audit : audits) {
-			PersistenceContext<Audit> ctx = this.tx.getObjectDao().createCtx(audit, -1L);
-			this.tx.getFileDao().performCreate(ctx);
-		}
+		byType(audits).forEach(this.store::add);
 	}
 
 	@Override
 	public void update(Audit audit) {
-		PersistenceContext<Audit> ctx = this.tx.getObjectDao().createCtx(audit, -1L);
-		this.tx.getFileDao().performUpdate(ctx);
+		this.store.update(audit.getElementType(), singletonList(audit));
 	}
 
 	@Override
 	public void updateAll(List<Audit> audits) {
-		for (Audit audit : audits) {
-			PersistenceContext<Audit> ctx = this.tx.getObjectDao().createCtx(audit, -1L);
-			this.tx.getFileDao().performUpdate(ctx);
-		}
+		byType(audits).forEach(this.store::update);
 	}
 
 	@Override
 	public void remove(Audit audit) {
-		PersistenceContext<Audit> ctx = this.tx.getObjectDao().createCtx(audit, -1L);
-		this.tx.getFileDao().performDelete(ctx);
+		this.store.remove(audit.getElementType(), singletonList(audit));
 	}
 
 	@Override
 	public void removeAll(List<Audit> audits) {
-		for (Audit audit : audits) {
-			PersistenceContext<Audit> ctx = this.tx.getObjectDao().createCtx(audit, -1L);
-			this.tx.getFileDao().performDelete(ctx);
-		}
+		byType(audits).forEach(this.store::remove);
 	}
 
 	@Override
 	public long removeAll(String type, DateRange dateRange) {
-		Predicate<File> predicate = file -> dateRange.contains(new Date(file.lastModified()));
-		return this.tx.getObjectDao().removeAllBy(getTypeRef(type), predicate);
+		return this.store.removeAll(type, dateRange);
 	}
 
 	@Override
 	public <U> List<U> doQuery(AuditQuery<U> query) {
 		throw new UnsupportedOperationException("not yet supported!");
 	}
+
+	private static Map<String, List<Audit>> byType(List<Audit> audits) {
+		Map<String, List<Audit>> byType = new LinkedHashMap<>();
+		for (Audit audit : audits) {
+			byType.computeIfAbsent(audit.getElementType(), t -> new ArrayList<>()).add(audit);
+		}
+		return byType;
+	}
 }
@@ -1,61 +1,75 @@
 package li.strolch.persistence.xml;
 
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import li.strolch.model.log.LogMessage;
-import li.strolch.model.Tags;
 import li.strolch.persistence.api.LogMessageDao;
 import li.strolch.persistence.api.StrolchTransaction;
-import li.strolch.xmlpers.api.PersistenceTransaction;
-import li.strolch.xmlpers.objref.SubTypeRef;
+import li.strolch.xmlpers.api.DateSegmentStore;
 
+/**
+ * {@link LogMessageDao} storing the messages in the {@link DateSegmentStore} of the realm, partitioned by the realm
+ * of the message and by day. Changes are written when the transaction is committed
+ */
 public class XmlLogMessageDao implements LogMessageDao {
 
-	private PersistenceTransaction tx;
+	private final XmlStrolchTransaction tx;
+	private final DateSegmentStore<LogMessage> store;
 
 	public XmlLogMessageDao(StrolchTransaction tx) {
-		XmlStrolchTransaction strolchTx = (XmlStrolchTransaction) tx;
-		this.tx = strolchTx.getTx();
-	}
-
-	protected String getClassType() {
-		return Tags.LOG_MESSAGE;
+		this.tx = (XmlStrolchTransaction) tx;
+		this.store = this.tx.getLogMessageStore();
 	}
 
 	@Override
 	public List<LogMessage> queryLatest(String realm, int maxNr) {
-		SubTypeRef subTypeRef = this.tx.getManager().getObjectRefCache().getSubTypeRef(getClassType(), realm);
-		return this.tx.getObjectDao().queryAll(subTypeRef, true, file -> true, maxNr);
+		return this.store.queryLatest(realm, maxNr);
 	}
 
 	@Override
 	public void save(LogMessage logMessage) {
-		this.tx.getObjectDao().add(logMessage);
+		saveAll(singletonList(logMessage));
 	}
 
 	@Override
 	public void saveAll(List<LogMessage> logMessages) {
-		this.tx.getObjectDao().addAll(logMessages);
+		Map<String, List<LogMessage>> byRealm = byRealm(logMessages);
+		this.tx.afterCommit(() -> byRealm.forEach(this.store::add));
 	}
 
 	@Override
 	public void updateState(LogMessage logMessage) {
-		this.tx.getObjectDao().update(logMessage);
+		updateStates(singletonList(logMessage));
 	}
 
 	@Override
 	public void updateStates(Collection<LogMessage> logMessages) {
-		logMessages.forEach(logMessage -> this.tx.getObjectDao().update(logMessage));
+		Map<String, List<LogMessage>> byRealm = byRealm(logMessages);
+		this.tx.afterCommit(() -> byRealm.forEach(this.store::update));
 	}
 
 	@Override
 	public void remove(LogMessage logMessage) {
-		this.tx.getObjectDao().remove(logMessage);
+		removeAll(singletonList(logMessage));
 	}
 
 	@Override
 	public void removeAll(List<LogMessage> logMessages) {
-		this.tx.getObjectDao().removeAll(logMessages);
+		Map<String, List<LogMessage>> byRealm = byRealm(logMessages);
+		this.tx.afterCommit(() -> byRealm.forEach(this.store::remove));
+	}
+
+	private static Map<String, List<LogMessage>> byRealm(Collection<LogMessage> logMessages) {
+		Map<String, List<LogMessage>> byRealm = new LinkedHashMap<>();
+		for (LogMessage logMessage : logMessages) {
+			byRealm.computeIfAbsent(logMessage.getRealm(), r -> new ArrayList<>()).add(logMessage);
+		}
+		return byRealm;
 	}
 }
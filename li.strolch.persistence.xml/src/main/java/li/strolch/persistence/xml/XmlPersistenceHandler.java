@@ -43,6 +43,8 @@ import li.strolch.runtime.configuration.RuntimeConfiguration;
 import li.strolch.runtime.configuration.StrolchConfiguration;
 import li.strolch.runtime.configuration.StrolchConfigurationException;
 import li.strolch.xmlpers.api.*;
+import li.strolch.xmlpers.objref.SubTypeRef;
+import li.strolch.xmlpers.objref.TypeRef;
 
 /**
  * @author Robert von Burg <eitch@eitchnet.ch>
@@ -53,6 +55,12 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 	public static final String PROP_DB_IGNORE_REALM = "ignoreRealm"; //$NON-NLS-1$
 	public static final String PROP_ALLOW_DATA_INIT_ON_EMPTY_DB = "allowDataInitOnEmptyDb";
 	public static final String PROP_VERBOSE = "verbose"; //$NON-NLS-1$
+	public static final String PROP_STORAGE_MODE = "storageMode"; //$NON-NLS-1$
+	public static final String PROP_PARSE_PARALLELISM = "parseParallelism"; //$NON-NLS-1$
+	public static final String PROP_GROUP_COMMIT = "groupCommit"; //$NON-NLS-1$
+	public static final String PROP_GROUP_COMMIT_MAX_LATENCY = "groupCommitMaxLatency"; //$NON-NLS-1$
+
+	public static final String SEGMENTS_DIR = "segments"; //$NON-NLS-1$
 
 	private Map<String, PersistenceStore> persistenceStoreMap;
 
@@ -77,6 +85,10 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 			String dbIgnoreRealmKey = makeRealmKey(realmName, PROP_DB_IGNORE_REALM);
 			String dbStorePathKey = makeRealmKey(realmName, PROP_DB_STORE_PATH);
 			String dbVerboseKey = makeRealmKey(realmName, PROP_VERBOSE);
+			String storageModeKey = makeRealmKey(realmName, PROP_STORAGE_MODE);
+			String parseParallelismKey = makeRealmKey(realmName, PROP_PARSE_PARALLELISM);
+			String groupCommitKey = makeRealmKey(realmName, PROP_GROUP_COMMIT);
+			String groupCommitMaxLatencyKey = makeRealmKey(realmName, PROP_GROUP_COMMIT_MAX_LATENCY);
 
 			boolean dbIgnoreRealm = configuration.getBoolean(dbIgnoreRealmKey, Boolean.FALSE);
 			if (dbIgnoreRealm) {
@@ -86,6 +98,12 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 
 			String dbStorePath = configuration.getString(dbStorePathKey, null);
 			boolean verbose = configuration.getBoolean(dbVerboseKey, Boolean.FALSE);
+			StorageMode storageMode = StorageMode
+					.valueOf(configuration.getString(storageModeKey, StorageMode.FILES.name()));
+			int parseParallelism = configuration.getInt(parseParallelismKey, 1);
+			boolean groupCommit = configuration.getBoolean(groupCommitKey, Boolean.FALSE);
+			long groupCommitMaxLatency = configuration
+					.getLong(groupCommitMaxLatencyKey, FileGroupCommitter.DEFAULT_MAX_LATENCY_MILLIS);
 
 			// validate URL
 			if (dbStorePaths.contains(dbStorePath))
@@ -105,6 +123,11 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 			properties.setProperty(PersistenceConstants.PROP_VERBOSE, Boolean.toString(verbose));
 			properties.setProperty(PersistenceConstants.PROP_XML_IO_MOD, IoMode.SAX.name());
 			properties.setProperty(PersistenceConstants.PROP_BASEPATH, dbStorePathF.getAbsolutePath());
+			properties.setProperty(PersistenceConstants.PROP_STORAGE_MODE, storageMode.name());
+			properties.setProperty(PersistenceConstants.PROP_PARSE_PARALLELISM, Integer.toString(parseParallelism));
+			properties.setProperty(PersistenceConstants.PROP_GROUP_COMMIT, Boolean.toString(groupCommit));
+			properties.setProperty(PersistenceConstants.PROP_GROUP_COMMIT_MAX_LATENCY,
+					Long.toString(groupCommitMaxLatency));
 			PersistenceManager persistenceManager = PersistenceManagerLoader.load(properties);
 			PersistenceContextFactoryDelegator ctxFactory = persistenceManager.getCtxFactory();
 			ctxFactory.registerPersistenceContextFactory(Resource.class, Tags.RESOURCE, new ResourceContextFactory());
@@ -117,6 +140,12 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 			PersistenceStore persistenceStore = new PersistenceStore();
 			persistenceStore.dbStorePathF = dbStorePathF;
 			persistenceStore.persistenceManager = persistenceManager;
+			File segmentsPathF = new File(dbStorePathF, SEGMENTS_DIR);
+			persistenceStore.auditStore = new DateSegmentStore<>(new File(segmentsPathF, Tags.AUDIT),
+					AuditSaxParser::new, audit -> audit.getId().toString(), audit -> audit.getDate().getTime());
+			persistenceStore.logMessageStore = new DateSegmentStore<>(new File(segmentsPathF, Tags.LOG_MESSAGE),
+					LogMessageSaxParser::new, LogMessage::getId,
+					logMessage -> logMessage.getZonedDateTime().toInstant().toEpochMilli());
 			this.persistenceStoreMap.put(realmName, persistenceStore);
 		}
 
@@ -132,6 +161,8 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 			boolean allowDataInitOnEmptyDb = getConfiguration().getBoolean(allowDataInitOnEmptyDbKey, Boolean.FALSE);
 
 			PersistenceStore persistenceStore = this.persistenceStoreMap.get(realmName);
+			migrateToSegments(realmName, persistenceStore, Tags.AUDIT, persistenceStore.auditStore);
+			migrateToSegments(realmName, persistenceStore, Tags.LOG_MESSAGE, persistenceStore.logMessageStore);
 
 			File[] files = persistenceStore.dbStorePathF.listFiles();
 			if (files == null)
@@ -167,17 +198,65 @@ public class XmlPersistenceHandler extends StrolchComponent implements Persisten
 		super.start();
 	}
 
+	@Override
+	public void destroy() throws Exception {
+		if (this.persistenceStoreMap != null) {
+			for (PersistenceStore persistenceStore : this.persistenceStoreMap.values()) {
+				persistenceStore.persistenceManager.close();
+			}
+		}
+
+		super.destroy();
+	}
+
+	/**
+	 * Moves the objects of the given class type, which were stored in a file per object by previous versions, to the
+	 * given {@link DateSegmentStore}
+	 */
+	private <T> void migrateToSegments(String realmName, PersistenceStore persistenceStore, String classType,
+			DateSegmentStore<T> segmentStore) {
+		if (!new File(persistenceStore.dbStorePathF, classType).isDirectory())
+			return;
+
+		try (PersistenceTransaction tx = persistenceStore.persistenceManager.openTx()) {
+			TypeRef typeRef = tx.getManager().getObjectRefCache().getTypeRef(classType);
+			for (String type : tx.getMetadataDao().queryTypeSet(typeRef)) {
+				SubTypeRef subTypeRef = tx.getManager().getObjectRefCache().getSubTypeRef(classType, type);
+				List<T> objects = tx.getObjectDao().queryAll(subTypeRef, file -> true);
+				segmentStore.add(type, objects);
+				tx.getObjectDao().removeAllBy(subTypeRef, file -> true);
+				logger.info(MessageFormat
+						.format("Moved {0} {1} of type {2} of realm {3} to segments", objects.size(), classType,
+								type, realmName));
+			}
+		}
+	}
+
+	DateSegmentStore<Audit> getAuditStore(String realm) {
+		return getPersistenceStore(realm).auditStore;
+	}
+
+	DateSegmentStore<LogMessage> getLogMessageStore(String realm) {
+		return getPersistenceStore(realm).logMessageStore;
+	}
+
+	private PersistenceStore getPersistenceStore(String realm) {
+		PersistenceStore persistenceStore = this.persistenceStoreMap.get(realm);
+		if (persistenceStore == null)
+			throw new IllegalStateException("No XML persistence enabled for realm " + realm);
+		return persistenceStore;
+	}
+
 	class PersistenceStore {
 		PersistenceManager persistenceManager;
 		File dbStorePathF;
+		DateSegmentStore<Audit> auditStore;
+		DateSegmentStore<LogMessage> logMessageStore;
 	}
 
 	@Override
 	public StrolchTransaction openTx(StrolchRealm realm, Certificate certificate, String action, boolean readOnly) {
-		PersistenceStore persistenceStore = this.persistenceStoreMap.get(realm.getRealm());
-		if (persistenceStore == null)
-			throw new IllegalStateException("No XML persistence enabled for realm " + realm.getRealm());
-
+		PersistenceStore persistenceStore = getPersistenceStore(realm.getRealm());
 		PersistenceTransaction tx = persistenceStore.persistenceManager.openTx();
 		return new XmlStrolchTransaction(getContainer(), realm, certificate, action, readOnly, tx, this);
 	}
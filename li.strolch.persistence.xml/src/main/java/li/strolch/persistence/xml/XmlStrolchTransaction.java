@@ -19,9 +19,12 @@ import java.util.Set;
 
 import li.strolch.agent.api.ComponentContainer;
 import li.strolch.agent.api.StrolchRealm;
+import li.strolch.model.audit.Audit;
+import li.strolch.model.log.LogMessage;
 import li.strolch.persistence.api.AbstractTransaction;
 import li.strolch.persistence.api.PersistenceHandler;
 import li.strolch.privilege.model.Certificate;
+import li.strolch.xmlpers.api.DateSegmentStore;
 import li.strolch.xmlpers.api.ModificationResult;
 import li.strolch.xmlpers.api.PersistenceTransaction;
 import li.strolch.xmlpers.api.TransactionResult;
@@ -42,6 +45,14 @@ public class XmlStrolchTransaction extends AbstractTransaction {
 		return this.tx;
 	}
 
+	DateSegmentStore<Audit> getAuditStore() {
+		return this.persistenceHandler.getAuditStore(getRealmName());
+	}
+
+	DateSegmentStore<LogMessage> getLogMessageStore() {
+		return this.persistenceHandler.getLogMessageStore(getRealmName());
+	}
+
 	@Override
 	protected void writeChanges() throws Exception {
 		// do nothing
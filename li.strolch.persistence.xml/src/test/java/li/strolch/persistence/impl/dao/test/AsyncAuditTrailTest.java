@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.persistence.impl.dao.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Date;
+
+import li.strolch.agent.impl.AsyncAuditTrailWriter;
+import li.strolch.agent.impl.AuditTrailWriteMode;
+import li.strolch.agent.impl.CachedAuditTrail;
+import li.strolch.agent.impl.CachedRealm;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.Tags;
+import li.strolch.model.audit.AccessType;
+import li.strolch.model.audit.Audit;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.runtime.StrolchConstants;
+import li.strolch.testbase.runtime.RuntimeMock;
+import li.strolch.utils.collections.DateRange;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncAuditTrailTest {
+
+	public static final String RUNTIME_PATH = "target/asyncAuditStrolchRuntime/"; //$NON-NLS-1$
+	public static final String CONFIG_SRC = "src/test/resources/asyncAuditRuntime"; //$NON-NLS-1$
+
+	private static final int NR_OF_TXS = 20;
+
+	protected static RuntimeMock runtimeMock;
+
+	@BeforeClass
+	public static void beforeClass() {
+		File rootPath = new File(RUNTIME_PATH);
+		File configSrc = new File(CONFIG_SRC);
+		runtimeMock = new RuntimeMock();
+		runtimeMock.mockRuntime(rootPath, configSrc);
+		runtimeMock.startContainer();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		runtimeMock.destroyRuntime();
+	}
+
+	@Test
+	public void shouldWriteAuditsAsynchronously() throws InterruptedException {
+		CachedRealm realm = (CachedRealm) runtimeMock.getRealm(StrolchConstants.DEFAULT_REALM);
+		AsyncAuditTrailWriter writer = ((CachedAuditTrail) realm.getAuditTrail()).getWriter();
+		assertEquals(AuditTrailWriteMode.ASYNC_JOURNALED, writer.getMode());
+
+		Certificate certificate = runtimeMock.getPrivilegeHandler().authenticate("test", "test".toCharArray());
+		DateRange dateRange = new DateRange().from(new Date(0L), true).to(new Date(Long.MAX_VALUE), true);
+
+		long writtenBefore = writer.getNrOfWrittenAudits();
+		long sizeBefore;
+		try (StrolchTransaction tx = realm.openTx(certificate, "test", true)) {
+			sizeBefore = tx.getPersistenceHandler().getAuditDao(tx).querySize(Tags.RESOURCE, dateRange);
+		}
+
+		for (int i = 0; i < NR_OF_TXS; i++) {
+			try (StrolchTransaction tx = realm.openTx(certificate, "test", false)) {
+				tx.add(ModelGenerator.createResource("async" + i, "Async " + i, "AsyncAudit"));
+				tx.commitOnClose();
+			}
+		}
+
+		// audits are counted as written once their transaction is committed
+		long start = System.currentTimeMillis();
+		while (writer.getNrOfWrittenAudits() < writtenBefore + NR_OF_TXS
+				&& System.currentTimeMillis() - start < 10000L) {
+			Thread.sleep(50L);
+		}
+		assertTrue(writer.getNrOfWrittenAudits() >= writtenBefore + NR_OF_TXS);
+		assertEquals(0L, writer.getNrOfFailures());
+
+		try (StrolchTransaction tx = realm.openTx(certificate, "test", true)) {
+			long size = tx.getPersistenceHandler().getAuditDao(tx).querySize(Tags.RESOURCE, dateRange);
+			assertEquals(sizeBefore + NR_OF_TXS, size);
+		}
+	}
+
+	@Test
+	public void shouldNotWriteAuditsOfRolledBackTx() throws InterruptedException {
+		CachedRealm realm = (CachedRealm) runtimeMock.getRealm(StrolchConstants.DEFAULT_REALM);
+		AsyncAuditTrailWriter writer = ((CachedAuditTrail) realm.getAuditTrail()).getWriter();
+
+		Certificate certificate = runtimeMock.getPrivilegeHandler().authenticate("test", "test".toCharArray());
+
+		Audit audit;
+		try (StrolchTransaction tx = realm.openTx(certificate, "test", false)) {
+			audit = tx.auditFrom(AccessType.CREATE, Tags.RESOURCE, "AsyncAudit", "rolledBack");
+			tx.getAuditTrail().add(tx, audit);
+			tx.rollbackOnClose();
+		}
+
+		// the audits of the next TX are queued after those of the rolled back TX would have been
+		long writtenBefore = writer.getNrOfWrittenAudits();
+		try (StrolchTransaction tx = realm.openTx(certificate, "test", false)) {
+			tx.add(ModelGenerator.createResource("afterRollback", "After Rollback", "AsyncAudit"));
+			tx.commitOnClose();
+		}
+
+		long start = System.currentTimeMillis();
+		while (writer.getNrOfWrittenAudits() <= writtenBefore && System.currentTimeMillis() - start < 10000L) {
+			Thread.sleep(50L);
+		}
+		assertTrue(writer.getNrOfWrittenAudits() > writtenBefore);
+
+		try (StrolchTransaction tx = realm.openTx(certificate, "test", true)) {
+			assertFalse(tx.getAuditTrail().hasAudit(tx, Tags.RESOURCE, audit.getId()));
+			assertFalse(tx.getPersistenceHandler().getAuditDao(tx).hasElement(Tags.RESOURCE, audit.getId()));
+		}
+	}
+}
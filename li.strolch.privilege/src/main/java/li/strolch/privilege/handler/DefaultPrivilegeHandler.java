@@ -19,9 +19,6 @@ import static li.strolch.utils.helper.StringHelper.*;
 
 import javax.crypto.SecretKey;
 import java.io.File;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.time.ZonedDateTime;
 import java.util.*;
@@ -33,8 +30,6 @@ import li.strolch.privilege.base.*;
 import li.strolch.privilege.model.*;
 import li.strolch.privilege.model.internal.*;
 import li.strolch.privilege.policy.PrivilegePolicy;
-import li.strolch.privilege.xml.CertificateStubsDomWriter;
-import li.strolch.privilege.xml.CertificateStubsSaxReader;
 import li.strolch.privilege.xml.CertificateStubsSaxReader.CertificateStub;
 import li.strolch.utils.collections.Tuple;
 import li.strolch.utils.dbc.DBC;
@@ -121,6 +116,16 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 	 */
 	protected File persistSessionsPath;
 
+	/**
+	 * The number of records after which the sessions journal is compacted
+	 */
+	protected int persistSessionsCompactionThreshold;
+
+	/**
+	 * The journal to which sessions are persisted incrementally
+	 */
+	protected SessionJournal sessionJournal;
+
 	/**
 	 * Secret key
 	 */
@@ -1294,7 +1299,7 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 					+ " to " + source);
 		}
 
-		persistSessions();
+		persistSession(certificate);
 
 		logger.info(MessageFormat.format("Challenge validated for user {0} with usage {1}", username, usage));
 		return certificate;
@@ -1345,7 +1350,7 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 			PrivilegeContext privilegeContext = buildPrivilegeContext(certificate, user);
 			this.privilegeContextMap.put(sessionId, privilegeContext);
 
-			persistSessions();
+			persistSession(certificate);
 
 			// save last login
 			if (user.getHistory().isFirstLoginEmpty())
@@ -1415,7 +1420,7 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 		PrivilegeContext privilegeContext = buildPrivilegeContext(certificate, user);
 		this.privilegeContextMap.put(sessionId, privilegeContext);
 
-		persistSessions();
+		persistSession(certificate);
 
 		// log
 		logger.info(MessageFormat.format("User {0} authenticated: {1}", user.getUsername(), certificate)); //$NON-NLS-1$
@@ -1461,7 +1466,7 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 			// invalidate the previous session
 			invalidate(certificate);
 
-			persistSessions();
+			persistSession(refreshedCert);
 
 			// log
 			logger.info(MessageFormat
@@ -1489,39 +1494,53 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 				user.getLocale(), userRoles, new HashMap<>(user.getProperties()));
 	}
 
-	private synchronized boolean persistSessions() {
-		if (!this.persistSessions)
-			return false;
+	private void persistSession(Certificate certificate) {
+		if (this.persistSessions && !certificate.getUserState().isSystem())
+			this.sessionJournal.add(certificate);
+	}
 
-		List<Certificate> sessions = new ArrayList<>(this.privilegeContextMap.values()).stream()
-				.map(PrivilegeContext::getCertificate).filter(c -> !c.getUserState().isSystem())
-				.collect(Collectors.toList());
+	private List<Certificate> getPersistableSessions() {
+		return new ArrayList<>(this.privilegeContextMap.values()).stream().map(PrivilegeContext::getCertificate)
+				.filter(c -> !c.getUserState().isSystem()).collect(Collectors.toList());
+	}
 
-		try (OutputStream fout = Files.newOutputStream(this.persistSessionsPath.toPath());
-				OutputStream outputStream = AesCryptoHelper.wrapEncrypt(this.secretKey, fout)) {
+	private boolean persistSessions() {
+		if (!this.persistSessions)
+			return false;
 
-			CertificateStubsDomWriter writer = new CertificateStubsDomWriter(sessions, outputStream);
-			writer.write();
-			outputStream.flush();
+		return this.sessionJournal.compact();
+	}
 
-		} catch (Exception e) {
-			logger.error("Failed to persist sessions!", e);
-			if (this.persistSessionsPath.exists() && !this.persistSessionsPath.delete()) {
-				logger.error(
-						"Failed to delete sessions file after failing to write to it, at " + this.persistSessionsPath
-								.getAbsolutePath());
-			}
-		}
+	/**
+	 * Waits until all changes to the sessions are written to the sessions journal, as sessions are persisted
+	 * asynchronously
+	 */
+	public void flushSessions() {
+		if (this.persistSessions)
+			this.sessionJournal.flush();
+	}
 
-		return true;
+	/**
+	 * Writes all changes to the sessions to the sessions journal and stops its writer thread. Changes to the sessions
+	 * after closing are written synchronously
+	 */
+	public void closeSessionJournal() {
+		if (this.sessionJournal != null)
+			this.sessionJournal.close();
 	}
 
 	private void loadSessions() {
+		// a previous journal is replaced, e.g. when re-initializing
+		closeSessionJournal();
+
 		if (!this.persistSessions) {
 			logger.info("Persisting of sessions not enabled, so not loading!.");
 			return;
 		}
 
+		this.sessionJournal = new SessionJournal(this.persistSessionsPath, this.secretKey,
+				this::getPersistableSessions, this.persistSessionsCompactionThreshold);
+
 		if (!this.persistSessionsPath.exists()) {
 			logger.info("Sessions file does not exist");
 			return;
@@ -1532,12 +1551,8 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 					"Sessions data file is not a file but exists at " + this.persistSessionsPath.getAbsolutePath());
 
 		List<CertificateStub> certificateStubs;
-		try (InputStream fin = Files.newInputStream(this.persistSessionsPath.toPath());
-				InputStream inputStream = AesCryptoHelper.wrapDecrypt(this.secretKey, fin)) {
-
-			CertificateStubsSaxReader reader = new CertificateStubsSaxReader(inputStream);
-			certificateStubs = reader.read();
-
+		try {
+			certificateStubs = this.sessionJournal.load();
 		} catch (Exception e) {
 			logger.error("Failed to load sessions!", e);
 			if (!this.persistSessionsPath.delete())
@@ -1584,6 +1599,11 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 		}
 
 		logger.info("Loaded " + this.privilegeContextMap.size() + " sessions.");
+
+		// remove the sessions which were ignored, and convert a sessions file of a previous version
+		if (this.sessionJournal.isCompactionRequired()
+				|| this.privilegeContextMap.size() != certificateStubs.size())
+			this.sessionJournal.compact();
 	}
 
 	/**
@@ -1774,8 +1794,8 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 		PrivilegeContext privilegeContext = this.privilegeContextMap.remove(certificate.getSessionId());
 
 		// persist sessions
-		if (privilegeContext != null)
-			persistSessions();
+		if (privilegeContext != null && this.persistSessions)
+			this.sessionJournal.remove(certificate.getSessionId());
 
 		// return true if object was really removed
 		boolean loggedOut = privilegeContext != null;
@@ -2020,6 +2040,19 @@ public class DefaultPrivilegeHandler implements PrivilegeHandler {
 			this.persistSessionsPath = persistSessionsPath;
 			logger.info(MessageFormat.format("Enabling persistence of sessions to {0}", //$NON-NLS-1$
 					this.persistSessionsPath.getAbsolutePath()));
+
+			String thresholdS = parameterMap.get(PARAM_PERSIST_SESSIONS_COMPACTION_THRESHOLD);
+			if (isEmpty(thresholdS)) {
+				this.persistSessionsCompactionThreshold = SessionJournal.DEFAULT_COMPACTION_THRESHOLD;
+			} else {
+				try {
+					this.persistSessionsCompactionThreshold = Integer.parseInt(thresholdS);
+				} catch (NumberFormatException e) {
+					String msg = "Parameter {0} has illegal value {1}."; //$NON-NLS-1$
+					msg = MessageFormat.format(msg, PARAM_PERSIST_SESSIONS_COMPACTION_THRESHOLD, thresholdS);
+					throw new PrivilegeModelException(msg);
+				}
+			}
 		} else {
 			String msg = "Parameter {0} has illegal value {1}. Overriding with {2}"; //$NON-NLS-1$
 			msg = MessageFormat.format(msg, PARAM_PERSIST_SESSIONS, persistSessionsS, Boolean.FALSE);
@@ -202,6 +202,11 @@ public interface PrivilegeHandler {
 	 */
 	String PARAM_PERSIST_SESSIONS_PATH = "persistSessionsPath"; //$NON-NLS-1$
 
+	/**
+	 * configuration parameter to define after how many records the sessions journal is compacted
+	 */
+	String PARAM_PERSIST_SESSIONS_COMPACTION_THRESHOLD = "persistSessionsCompactionThreshold"; //$NON-NLS-1$
+
 	/**
 	 * configuration parameter to define {@link PrivilegeConflictResolution}
 	 */
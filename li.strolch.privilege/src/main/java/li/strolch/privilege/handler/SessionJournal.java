@@ -0,0 +1,382 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.privilege.handler;
+
+import javax.crypto.SecretKey;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import li.strolch.privilege.base.PrivilegeException;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.privilege.xml.CertificateStubsDomWriter;
+import li.strolch.privilege.xml.CertificateStubsSaxReader;
+import li.strolch.privilege.xml.CertificateStubsSaxReader.CertificateStub;
+import li.strolch.utils.helper.AesCryptoHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Persists the sessions of the {@link DefaultPrivilegeHandler} incrementally to an append-only journal, instead of
+ * rewriting the complete sessions file on every login and logout.
+ * </p>
+ *
+ * <p>
+ * The journal starts with a magic header, followed by records, each of which is prefixed by its length and is
+ * encrypted on its own using the {@link SecretKey} of the privilege handler. A record either adds sessions, in the
+ * format of the {@link CertificateStubsDomWriter}, or removes a session by its session ID. Records are written
+ * asynchronously on a single thread, so that authentication does not wait for the I/O, and all records queued while a
+ * write is in progress are written together.
+ * </p>
+ *
+ * <p>
+ * When the number of records exceeds the compaction threshold, and is more than twice the number of current sessions,
+ * then the journal is compacted, i.e. rewritten with a single record containing all current sessions.
+ * </p>
+ *
+ * <p>
+ * Sessions files written by previous versions, which are the encrypted XML of all sessions, are still read, and are
+ * converted when the journal is first compacted.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class SessionJournal {
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionJournal.class);
+
+	private static final byte[] MAGIC = { 'P', 'S', 'J', '1' };
+	private static final byte RECORD_ADD = 'A';
+	private static final byte RECORD_REMOVE = 'R';
+
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+	private final File file;
+	private final SecretKey secretKey;
+	private final Supplier<List<Certificate>> sessionsSupplier;
+	private final int compactionThreshold;
+
+	private final ExecutorService executor;
+	private final List<Record> pending;
+	private boolean writeScheduled;
+	private int nrOfRecords;
+	private boolean compactionRequired;
+
+	/**
+	 * @param file
+	 * 		the journal file
+	 * @param secretKey
+	 * 		the key with which to encrypt the records
+	 * @param sessionsSupplier
+	 * 		supplies the current sessions when compacting
+	 * @param compactionThreshold
+	 * 		the number of records after which the journal is compacted
+	 */
+	public SessionJournal(File file, SecretKey secretKey, Supplier<List<Certificate>> sessionsSupplier,
+			int compactionThreshold) {
+		this.file = file;
+		this.secretKey = secretKey;
+		this.sessionsSupplier = sessionsSupplier;
+		this.compactionThreshold = compactionThreshold;
+		this.pending = new ArrayList<>();
+		this.executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "PrivilegeSessionJournal");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Reads the sessions from the journal, applying all records in order
+	 *
+	 * @return the persisted sessions
+	 *
+	 * @throws PrivilegeException
+	 * 		if the journal can not be read
+	 */
+	public synchronized List<CertificateStub> load() throws PrivilegeException {
+		if (!this.file.exists())
+			return Collections.emptyList();
+
+		try {
+			byte[] bytes = Files.readAllBytes(this.file.toPath());
+			if (!isJournal(bytes)) {
+				logger.info("Reading sessions file " + this.file.getAbsolutePath() + " of a previous version");
+				try (InputStream inputStream = AesCryptoHelper
+						.wrapDecrypt(this.secretKey, new ByteArrayInputStream(bytes))) {
+					List<CertificateStub> stubs = new CertificateStubsSaxReader(inputStream).read();
+					this.compactionRequired = true;
+					return stubs;
+				}
+			}
+
+			Map<String, CertificateStub> stubs = new LinkedHashMap<>();
+			int nrOfRecords = 0;
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length, bytes.length - MAGIC.length);
+			while (buffer.hasRemaining()) {
+				if (buffer.remaining() < Integer.BYTES) {
+					logger.warn("Ignoring truncated record at end of sessions journal " + this.file.getAbsolutePath());
+					break;
+				}
+
+				int length = buffer.getInt();
+				if (length <= 0 || length > buffer.remaining()) {
+					logger.warn("Ignoring truncated record at end of sessions journal " + this.file.getAbsolutePath());
+					break;
+				}
+
+				byte[] encrypted = new byte[length];
+				buffer.get(encrypted);
+				byte[] record = AesCryptoHelper.decrypt(this.secretKey, encrypted);
+				nrOfRecords++;
+
+				if (record[0] == RECORD_ADD) {
+					List<CertificateStub> added = new CertificateStubsSaxReader(
+							new ByteArrayInputStream(record, 1, record.length - 1)).read();
+					added.forEach(stub -> stubs.put(stub.getSessionId(), stub));
+				} else if (record[0] == RECORD_REMOVE) {
+					stubs.remove(new String(record, 1, record.length - 1, StandardCharsets.UTF_8));
+				} else {
+					throw new PrivilegeException("Unhandled record type " + (char) record[0]);
+				}
+			}
+
+			this.nrOfRecords = nrOfRecords;
+			return new ArrayList<>(stubs.values());
+
+		} catch (IOException e) {
+			throw new PrivilegeException("Failed to read sessions journal " + this.file.getAbsolutePath(), e);
+		}
+	}
+
+	private static boolean isJournal(byte[] bytes) {
+		if (bytes.length < MAGIC.length)
+			return false;
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (bytes[i] != MAGIC[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Asynchronously appends a record for the new session of the given {@link Certificate}
+	 *
+	 * @param certificate
+	 * 		the certificate of the new session
+	 */
+	public void add(Certificate certificate) {
+		append(new Record(RECORD_ADD, certificate, null));
+	}
+
+	/**
+	 * Asynchronously appends a record for the removal of the session with the given ID
+	 *
+	 * @param sessionId
+	 * 		the ID of the removed session
+	 */
+	public void remove(String sessionId) {
+		append(new Record(RECORD_REMOVE, null, sessionId));
+	}
+
+	private void append(Record record) {
+		synchronized (this.pending) {
+			this.pending.add(record);
+			if (this.writeScheduled)
+				return;
+			this.writeScheduled = true;
+		}
+
+		// after closing, the records are written synchronously. The executor might be shut down concurrently, thus
+		// the rejection is handled instead of checking beforehand
+		try {
+			this.executor.execute(this::write);
+		} catch (RejectedExecutionException e) {
+			write();
+		}
+	}
+
+	private void write() {
+		List<Record> records;
+		synchronized (this.pending) {
+			records = new ArrayList<>(this.pending);
+			this.pending.clear();
+			this.writeScheduled = false;
+		}
+
+		if (records.isEmpty())
+			return;
+
+		synchronized (this) {
+			try {
+				boolean newFile = !this.file.exists() || this.file.length() == 0L;
+				try (OutputStream out = new BufferedOutputStream(new FileOutputStream(this.file, true))) {
+					if (newFile)
+						out.write(MAGIC);
+					for (Record record : records) {
+						writeRecord(out, record.toBytes());
+					}
+				}
+				this.nrOfRecords += records.size();
+
+			} catch (Exception e) {
+				logger.error("Failed to append " + records.size() + " records to sessions journal " + this.file
+						.getAbsolutePath(), e);
+				this.compactionRequired = true;
+			}
+
+			if (this.compactionRequired) {
+				compact(this.sessionsSupplier.get());
+			} else if (this.nrOfRecords > this.compactionThreshold) {
+				List<Certificate> sessions = this.sessionsSupplier.get();
+				if (this.nrOfRecords > 2 * sessions.size())
+					compact(sessions);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the journal must be compacted, i.e. it was written by a previous version, or a write failed
+	 *
+	 * @return true if the journal must be compacted
+	 */
+	public synchronized boolean isCompactionRequired() {
+		return this.compactionRequired;
+	}
+
+	/**
+	 * Synchronously rewrites the journal with a single record containing all current sessions. Any records not yet
+	 * written are discarded, as they are contained in the current sessions
+	 *
+	 * @return true if the journal was compacted, false if the compaction failed
+	 */
+	public synchronized boolean compact() {
+		synchronized (this.pending) {
+			this.pending.clear();
+		}
+
+		return compact(this.sessionsSupplier.get());
+	}
+
+	private boolean compact(List<Certificate> sessions) {
+		long start = System.nanoTime();
+		File tmpFile = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+				out.write(MAGIC);
+				if (!sessions.isEmpty())
+					writeRecord(out, Record.toAddBytes(sessions));
+			}
+
+			Files.move(tmpFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+
+			this.nrOfRecords = sessions.isEmpty() ? 0 : 1;
+			this.compactionRequired = false;
+			logger.info(MessageFormat.format("Compacted sessions journal with {0} sessions in {1}ms", sessions.size(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+			return true;
+
+		} catch (Exception e) {
+			logger.error("Failed to compact sessions journal " + this.file.getAbsolutePath(), e);
+			this.compactionRequired = true;
+			if (tmpFile.exists() && !tmpFile.delete())
+				logger.error("Failed to delete temporary sessions journal " + tmpFile.getAbsolutePath());
+			return false;
+		}
+	}
+
+	private void writeRecord(OutputStream out, byte[] record) throws IOException {
+		byte[] encrypted = AesCryptoHelper.encrypt(this.secretKey, record);
+		out.write(ByteBuffer.allocate(Integer.BYTES).putInt(encrypted.length).array());
+		out.write(encrypted);
+	}
+
+	/**
+	 * Waits until all records which are queued are written
+	 */
+	public void flush() {
+		Future<?> future;
+		try {
+			future = this.executor.submit(this::write);
+		} catch (RejectedExecutionException e) {
+			// closed concurrently, so write any remaining records synchronously
+			write();
+			return;
+		}
+
+		try {
+			future.get();
+		} catch (Exception e) {
+			throw new PrivilegeException("Failed to flush sessions journal", e);
+		}
+	}
+
+	/**
+	 * Writes all queued records and stops the writer thread. Records appended afterwards are written synchronously
+	 */
+	public void close() {
+		if (this.executor.isShutdown())
+			return;
+		flush();
+		this.executor.shutdown();
+	}
+
+	private static class Record {
+		private final byte type;
+		private final Certificate certificate;
+		private final String sessionId;
+
+		private Record(byte type, Certificate certificate, String sessionId) {
+			this.type = type;
+			this.certificate = certificate;
+			this.sessionId = sessionId;
+		}
+
+		private byte[] toBytes() {
+			if (this.type == RECORD_ADD)
+				return toAddBytes(Collections.singletonList(this.certificate));
+
+			byte[] sessionId = this.sessionId.getBytes(StandardCharsets.UTF_8);
+			byte[] bytes = new byte[sessionId.length + 1];
+			bytes[0] = RECORD_REMOVE;
+			System.arraycopy(sessionId, 0, bytes, 1, sessionId.length);
+			return bytes;
+		}
+
+		private static byte[] toAddBytes(List<Certificate> certificates) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			out.write(RECORD_ADD);
+			new CertificateStubsDomWriter(certificates, out).write();
+			return out.toByteArray();
+		}
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 
+import li.strolch.privilege.handler.DefaultPrivilegeHandler;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -39,6 +40,7 @@ public class PersistSessionsTest extends AbstractPrivilegeTest {
 		// login and assert sessions file was written
 		login("admin", "admin".toCharArray());
 		this.privilegeHandler.validate(ctx.getCertificate());
+		((DefaultPrivilegeHandler) this.privilegeHandler).flushSessions();
 		assertTrue("Sessions File should have been created!", sessionsFile.isFile());
 
 		// re-initialize and assert still logged in
@@ -0,0 +1,180 @@
+package li.strolch.privilege.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.privilege.base.PrivilegeException;
+import li.strolch.privilege.handler.DefaultPrivilegeHandler;
+import li.strolch.privilege.model.Certificate;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SessionJournalTest extends AbstractPrivilegeTest {
+
+	private static final String TARGET = SessionJournalTest.class.getSimpleName();
+
+	@BeforeClass
+	public static void init() throws Exception {
+		removeConfigs(TARGET);
+		prepareConfigs(TARGET, "PrivilegeConfig.xml", "PrivilegeUsers.xml", "PrivilegeRoles.xml");
+	}
+
+	@AfterClass
+	public static void destroy() throws Exception {
+		removeConfigs(TARGET);
+	}
+
+	@Before
+	public void setup() throws Exception {
+		initialize(TARGET, "PrivilegeConfig.xml");
+	}
+
+	@After
+	public void closeSessionJournal() {
+		((DefaultPrivilegeHandler) this.privilegeHandler).closeSessionJournal();
+	}
+
+	private void flushSessions() {
+		((DefaultPrivilegeHandler) this.privilegeHandler).flushSessions();
+	}
+
+	@Test
+	public void shouldPersistLogout() {
+
+		login("admin", "admin".toCharArray());
+		Certificate loggedOut = this.ctx.getCertificate();
+		logout();
+
+		login("admin", "admin".toCharArray());
+		Certificate loggedIn = this.ctx.getCertificate();
+		flushSessions();
+
+		// re-initialize and assert only the second session still exists
+		initialize(TARGET, "PrivilegeConfig.xml");
+		this.privilegeHandler.validate(loggedIn);
+		try {
+			this.privilegeHandler.validate(loggedOut);
+			fail("Logged out session should not have been reloaded!");
+		} catch (PrivilegeException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void shouldCompactSessions() {
+
+		File sessionsFile = new File("target/" + TARGET + "/sessions.dat");
+
+		for (int i = 0; i < 10; i++) {
+			login("admin", "admin".toCharArray());
+			logout();
+		}
+		login("admin", "admin".toCharArray());
+		Certificate loggedIn = this.ctx.getCertificate();
+		flushSessions();
+		long journalLength = sessionsFile.length();
+
+		// persisting the sessions explicitly compacts the journal
+		assertTrue(this.privilegeHandler.persistSessions(loggedIn, "test"));
+		assertTrue("Compacted journal should be smaller", sessionsFile.length() < journalLength);
+
+		initialize(TARGET, "PrivilegeConfig.xml");
+		this.privilegeHandler.validate(loggedIn);
+	}
+
+	@Test
+	public void shouldPersistConcurrentLogins() throws Exception {
+
+		int nrOfThreads = 8;
+		int nrOfLogins = 50;
+
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+		List<Future<List<Certificate>>> futures = new ArrayList<>();
+		for (int i = 0; i < nrOfThreads; i++) {
+			futures.add(executor.submit(() -> {
+				List<Certificate> certificates = new ArrayList<>();
+				for (int j = 0; j < nrOfLogins; j++) {
+					certificates.add(this.privilegeHandler.authenticate("admin", "admin".toCharArray(), false));
+				}
+				return certificates;
+			}));
+		}
+
+		List<Certificate> certificates = new ArrayList<>();
+		for (Future<List<Certificate>> future : futures) {
+			certificates.addAll(future.get());
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(nrOfThreads * nrOfLogins, certificates.size());
+
+		// invalidate half, and assert the remaining sessions are reloaded
+		for (int i = 0; i < certificates.size(); i += 2) {
+			this.privilegeHandler.invalidate(certificates.get(i));
+		}
+		flushSessions();
+
+		initialize(TARGET, "PrivilegeConfig.xml");
+		for (int i = 1; i < certificates.size(); i += 2) {
+			this.privilegeHandler.validate(certificates.get(i));
+		}
+	}
+
+	@Test
+	public void shouldPersistSessionsAfterClosingJournal() {
+
+		closeSessionJournal();
+
+		// the journal's writer thread is stopped, so the session is written synchronously
+		login("admin", "admin".toCharArray());
+		Certificate loggedIn = this.ctx.getCertificate();
+
+		initialize(TARGET, "PrivilegeConfig.xml");
+		this.privilegeHandler.validate(loggedIn);
+	}
+
+	@Test
+	public void shouldPersistConcurrentLoginsWhileClosingJournal() throws Exception {
+
+		int nrOfThreads = 4;
+		int nrOfLogins = 25;
+
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+		List<Future<List<Certificate>>> futures = new ArrayList<>();
+		for (int i = 0; i < nrOfThreads; i++) {
+			futures.add(executor.submit(() -> {
+				List<Certificate> certificates = new ArrayList<>();
+				for (int j = 0; j < nrOfLogins; j++) {
+					certificates.add(this.privilegeHandler.authenticate("admin", "admin".toCharArray(), false));
+				}
+				return certificates;
+			}));
+		}
+
+		// logins racing with the closing must neither fail, nor be lost
+		closeSessionJournal();
+
+		List<Certificate> certificates = new ArrayList<>();
+		for (Future<List<Certificate>> future : futures) {
+			certificates.addAll(future.get());
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(nrOfThreads * nrOfLogins, certificates.size());
+
+		initialize(TARGET, "PrivilegeConfig.xml");
+		for (Certificate certificate : certificates) {
+			this.privilegeHandler.validate(certificate);
+		}
+	}
+}
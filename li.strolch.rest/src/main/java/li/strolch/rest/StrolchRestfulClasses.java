@@ -44,6 +44,7 @@ public class StrolchRestfulClasses {
 		restfulClasses.add(ModelQuery.class);
 		restfulClasses.add(EnumQuery.class);
 		restfulClasses.add(OperationsLogResource.class);
+		restfulClasses.add(MetricsResource.class);
 
 		// privilege
 		restfulClasses.add(PrivilegeUsersService.class);
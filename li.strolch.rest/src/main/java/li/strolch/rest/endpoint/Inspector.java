@@ -16,7 +16,8 @@
 package li.strolch.rest.endpoint;
 
 import static li.strolch.rest.StrolchRestfulConstants.MSG;
-import static li.strolch.rest.helper.RestfulHelper.toJson;
+import static li.strolch.rest.helper.EntityTagHelper.*;
+import static li.strolch.rest.helper.RestfulHelper.toJsonStream;
 import static li.strolch.search.SearchBuilder.orderBy;
 
 import javax.servlet.http.HttpServletRequest;
@@ -51,9 +52,6 @@ import li.strolch.model.Tags;
 import li.strolch.model.Tags.Json;
 import li.strolch.model.activity.Activity;
 import li.strolch.model.json.*;
-import li.strolch.model.visitor.ActivityVisitor;
-import li.strolch.model.visitor.OrderVisitor;
-import li.strolch.model.visitor.ResourceVisitor;
 import li.strolch.model.xml.*;
 import li.strolch.persistence.api.StrolchPersistenceException;
 import li.strolch.persistence.api.StrolchTransaction;
@@ -405,7 +403,14 @@ public class Inspector {
 		// query the data
 		RootElementSearchResult<Resource> result;
 		long dataSetSize;
+		String entityTag;
 		try (StrolchTransaction tx = openTx(cert, realm)) {
+
+			// the counter is read before searching, so that the result is never older than the entity tag
+			entityTag = entityTagFor(cert, "json", tx.getResourceMap().getModificationCounter(tx, type));
+			if (isNotModified(request, entityTag))
+				return notModified(entityTag);
+
 			dataSetSize = tx.getResourceMap().querySize(tx, type);
 			result = search.search(tx);
 		}
@@ -413,25 +418,24 @@ public class Inspector {
 		// do ordering
 		result = orderBy(result, queryData.getOrderBy(), queryData.isDescending());
 
-		// build JSON response
-		ResourceVisitor<JsonObject> visitor;
+		// stream JSON response
+		StreamingOutput streamingOutput;
 		if (overview == null || !overview) {
-			visitor = new StrolchRootElementToJsonVisitor().withLocator().asResourceVisitor();
+			streamingOutput = toJsonStream(queryData, dataSetSize, result,
+					writer -> new StrolchElementToJsonWriterVisitor(writer).withLocator());
 		} else {
-			visitor = e -> {
-				JsonObject jsonObject = new JsonObject();
-				jsonObject.addProperty(Json.OBJECT_TYPE, e.getObjectType());
-				jsonObject.addProperty(Json.ID, e.getId());
-				jsonObject.addProperty(Json.NAME, e.getName());
-				jsonObject.addProperty(Json.TYPE, e.getType());
-				jsonObject.addProperty(Json.LOCATOR, e.getLocator().toString());
-				return jsonObject;
-			};
+			streamingOutput = toJsonStream(queryData, dataSetSize, result, (writer, e) -> {
+				writer.beginObject();
+				writer.name(Json.OBJECT_TYPE).value(e.getObjectType());
+				writer.name(Json.ID).value(e.getId());
+				writer.name(Json.NAME).value(e.getName());
+				writer.name(Json.TYPE).value(e.getType());
+				writer.name(Json.LOCATOR).value(e.getLocator().toString());
+				writer.endObject();
+			});
 		}
-		JsonObject root = toJson(queryData, dataSetSize, result, visitor);
 
-		// marshall result
-		return Response.ok(toString(root)).build();
+		return withEntityTag(Response.ok(streamingOutput, MediaType.APPLICATION_JSON), entityTag);
 	}
 
 	@GET
@@ -450,7 +454,14 @@ public class Inspector {
 		// query the data
 		RootElementSearchResult<Order> result;
 		long dataSetSize;
+		String entityTag;
 		try (StrolchTransaction tx = openTx(cert, realm)) {
+
+			// the counter is read before searching, so that the result is never older than the entity tag
+			entityTag = entityTagFor(cert, "json", tx.getOrderMap().getModificationCounter(tx, type));
+			if (isNotModified(request, entityTag))
+				return notModified(entityTag);
+
 			dataSetSize = tx.getOrderMap().querySize(tx, type);
 			result = search.search(tx);
 		}
@@ -458,27 +469,26 @@ public class Inspector {
 		// do ordering
 		result = orderBy(result, queryData.getOrderBy(), queryData.isDescending());
 
-		// build JSON response
-		OrderVisitor<JsonObject> visitor;
+		// stream JSON response
+		StreamingOutput streamingOutput;
 		if (overview == null || !overview) {
-			visitor = new StrolchRootElementToJsonVisitor().withLocator().asOrderVisitor();
+			streamingOutput = toJsonStream(queryData, dataSetSize, result,
+					writer -> new StrolchElementToJsonWriterVisitor(writer).withLocator());
 		} else {
-			visitor = e -> {
-				JsonObject jsonObject = new JsonObject();
-				jsonObject.addProperty(Json.OBJECT_TYPE, e.getObjectType());
-				jsonObject.addProperty(Json.ID, e.getId());
-				jsonObject.addProperty(Json.NAME, e.getName());
-				jsonObject.addProperty(Json.TYPE, e.getType());
-				jsonObject.addProperty(Json.LOCATOR, e.getLocator().toString());
-				jsonObject.addProperty(Json.STATE, e.getState().name());
-				jsonObject.addProperty(Json.DATE, ISO8601FormatFactory.getInstance().formatDate(e.getDate()));
-				return jsonObject;
-			};
+			streamingOutput = toJsonStream(queryData, dataSetSize, result, (writer, e) -> {
+				writer.beginObject();
+				writer.name(Json.OBJECT_TYPE).value(e.getObjectType());
+				writer.name(Json.ID).value(e.getId());
+				writer.name(Json.NAME).value(e.getName());
+				writer.name(Json.TYPE).value(e.getType());
+				writer.name(Json.LOCATOR).value(e.getLocator().toString());
+				writer.name(Json.STATE).value(e.getState().name());
+				writer.name(Json.DATE).value(ISO8601FormatFactory.getInstance().formatDate(e.getDate()));
+				writer.endObject();
+			});
 		}
-		JsonObject root = toJson(queryData, dataSetSize, result, visitor);
 
-		// marshall result
-		return Response.ok(toString(root)).build();
+		return withEntityTag(Response.ok(streamingOutput, MediaType.APPLICATION_JSON), entityTag);
 	}
 
 	@GET
@@ -497,7 +507,14 @@ public class Inspector {
 		// query the data
 		RootElementSearchResult<Activity> result;
 		long dataSetSize;
+		String entityTag;
 		try (StrolchTransaction tx = openTx(cert, realm)) {
+
+			// the counter is read before searching, so that the result is never older than the entity tag
+			entityTag = entityTagFor(cert, "json", tx.getActivityMap().getModificationCounter(tx, type));
+			if (isNotModified(request, entityTag))
+				return notModified(entityTag);
+
 			dataSetSize = tx.getActivityMap().querySize(tx, type);
 			result = search.search(tx);
 		}
@@ -505,27 +522,26 @@ public class Inspector {
 		// do ordering
 		result = orderBy(result, queryData.getOrderBy(), queryData.isDescending());
 
-		// build JSON response
-		ActivityVisitor<JsonObject> visitor;
+		// stream JSON response
+		StreamingOutput streamingOutput;
 		if (overview == null || !overview) {
-			visitor = new StrolchRootElementToJsonVisitor().withLocator().asActivityVisitor();
+			streamingOutput = toJsonStream(queryData, dataSetSize, result,
+					writer -> new StrolchElementToJsonWriterVisitor(writer).withLocator());
 		} else {
-			visitor = e -> {
-				JsonObject jsonObject = new JsonObject();
-				jsonObject.addProperty(Json.OBJECT_TYPE, e.getObjectType());
-				jsonObject.addProperty(Json.ID, e.getId());
-				jsonObject.addProperty(Json.NAME, e.getName());
-				jsonObject.addProperty(Json.TYPE, e.getType());
-				jsonObject.addProperty(Json.LOCATOR, e.getLocator().toString());
-				jsonObject.addProperty(Json.STATE, e.getState().name());
-				jsonObject.addProperty(Json.TIME_ORDERING, e.getTimeOrdering().name());
-				return jsonObject;
-			};
+			streamingOutput = toJsonStream(queryData, dataSetSize, result, (writer, e) -> {
+				writer.beginObject();
+				writer.name(Json.OBJECT_TYPE).value(e.getObjectType());
+				writer.name(Json.ID).value(e.getId());
+				writer.name(Json.NAME).value(e.getName());
+				writer.name(Json.TYPE).value(e.getType());
+				writer.name(Json.LOCATOR).value(e.getLocator().toString());
+				writer.name(Json.STATE).value(e.getState().name());
+				writer.name(Json.TIME_ORDERING).value(e.getTimeOrdering().name());
+				writer.endObject();
+			});
 		}
-		JsonObject root = toJson(queryData, dataSetSize, result, visitor);
 
-		// marshall result
-		return Response.ok(toString(root)).build();
+		return withEntityTag(Response.ok(streamingOutput, MediaType.APPLICATION_JSON), entityTag);
 	}
 
 	@GET
@@ -643,11 +659,15 @@ public class Inspector {
 			throw new StrolchException(MessageFormat.format("No Resource exists for {0}/{1}", type, id)); //$NON-NLS-1$
 		}
 
+		String entityTag = entityTagFor(resource, Boolean.parseBoolean(flat) ? "flat" : "json");
+		if (isNotModified(request, entityTag))
+			return notModified(entityTag);
+
 		StrolchElementToJsonVisitor visitor = new StrolchElementToJsonVisitor().withLocator().withVersion();
 		if (Boolean.parseBoolean(flat))
 			visitor.flat();
 
-		return Response.ok().entity(toString(resource.accept(visitor))).build();
+		return withEntityTag(Response.ok().entity(toString(resource.accept(visitor))), entityTag);
 	}
 
 	@GET
@@ -666,8 +686,12 @@ public class Inspector {
 			throw new StrolchException(MessageFormat.format("No Resource exists for {0}/{1}", type, id)); //$NON-NLS-1$
 		}
 
+		String entityTag = entityTagFor(resource, "xml");
+		if (isNotModified(request, entityTag))
+			return notModified(entityTag);
+
 		String asXml = resource.accept(new StrolchElementToXmlStringVisitor());
-		return Response.ok().type(MediaType.APPLICATION_XML).entity(asXml).build();
+		return withEntityTag(Response.ok().type(MediaType.APPLICATION_XML).entity(asXml), entityTag);
 	}
 
 	@GET
@@ -686,10 +710,14 @@ public class Inspector {
 			throw new StrolchException(MessageFormat.format("No Order exists for {0}/{1}", type, id)); //$NON-NLS-1$
 		}
 
+		String entityTag = entityTagFor(order, Boolean.parseBoolean(flat) ? "flat" : "json");
+		if (isNotModified(request, entityTag))
+			return notModified(entityTag);
+
 		StrolchElementToJsonVisitor visitor = new StrolchElementToJsonVisitor().withLocator().withVersion();
 		if (Boolean.parseBoolean(flat))
 			visitor.flat();
-		return Response.ok().entity(toString(order.accept(visitor))).build();
+		return withEntityTag(Response.ok().entity(toString(order.accept(visitor))), entityTag);
 	}
 
 	@GET
@@ -708,8 +736,12 @@ public class Inspector {
 			throw new StrolchException(MessageFormat.format("No Order exists for {0}/{1}", type, id)); //$NON-NLS-1$
 		}
 
+		String entityTag = entityTagFor(order, "xml");
+		if (isNotModified(request, entityTag))
+			return notModified(entityTag);
+
 		String asXml = order.accept(new StrolchElementToXmlStringVisitor());
-		return Response.ok().type(MediaType.APPLICATION_XML).entity(asXml).build();
+		return withEntityTag(Response.ok().type(MediaType.APPLICATION_XML).entity(asXml), entityTag);
 	}
 
 	@GET
@@ -728,10 +760,14 @@ public class Inspector {
 			throw new StrolchException(MessageFormat.format("No Activity exists for {0}/{1}", type, id)); //$NON-NLS-1$
 		}
 
+		String entityTag = entityTagFor(activity, Boolean.parseBoolean(flat) ? "flat" : "json");
+		if (isNotModified(request, entityTag))
+			return notModified(entityTag);
+
 		StrolchElementToJsonVisitor visitor = new StrolchElementToJsonVisitor().withLocator().withVersion();
 		if (Boolean.parseBoolean(flat))
 			visitor.flat();
-		return Response.ok().entity(toString(activity.accept(visitor))).build();
+		return withEntityTag(Response.ok().entity(toString(activity.accept(visitor))), entityTag);
 	}
 
 	@GET
@@ -750,8 +786,12 @@ public class Inspector {
 			throw new StrolchException(MessageFormat.format("No Activity exists for {0}/{1}", type, id)); //$NON-NLS-1$
 		}
 
+		String entityTag = entityTagFor(activity, "xml");
+		if (isNotModified(request, entityTag))
+			return notModified(entityTag);
+
 		String asXml = activity.accept(new StrolchElementToXmlStringVisitor());
-		return Response.ok().type(MediaType.APPLICATION_XML).entity(asXml).build();
+		return withEntityTag(Response.ok().type(MediaType.APPLICATION_XML).entity(asXml), entityTag);
 	}
 
 	@PUT
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.rest.endpoint;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+
+import li.strolch.agent.api.ComponentContainer;
+import li.strolch.metrics.MetricsRegistry;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.privilege.model.PrivilegeContext;
+import li.strolch.rest.RestfulStrolchComponent;
+import li.strolch.rest.StrolchRestfulConstants;
+
+/**
+ * Exposes the {@link MetricsRegistry} of the agent in the Prometheus text format, so that it can be scraped using a
+ * user with the privilege {@link MetricsRegistry}
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@Path("strolch/metrics")
+public class MetricsResource {
+
+	public static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4";
+
+	@GET
+	@Produces(PROMETHEUS_TEXT)
+	public Response getMetrics(@Context HttpServletRequest request) {
+
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		ComponentContainer container = RestfulStrolchComponent.getInstance().getContainer();
+		PrivilegeContext ctx = container.getPrivilegeHandler().getPrivilegeHandler().validate(cert);
+		ctx.assertHasPrivilege(MetricsRegistry.class.getName());
+
+		MetricsRegistry metrics = container.getAgent().getMetrics();
+		return Response.ok(metrics.toPrometheusText(), PROMETHEUS_TEXT).build();
+	}
+}
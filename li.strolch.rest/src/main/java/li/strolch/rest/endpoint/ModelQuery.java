@@ -8,9 +8,13 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.privilege.model.Certificate;
 import li.strolch.rest.RestfulStrolchComponent;
@@ -47,7 +51,13 @@ public class ModelQuery {
 			queryResponse = queryProcessor.process(queryRequest, tx);
 		}
 
-		return Response.ok(queryResponse.asJson(Boolean.parseBoolean(flat)).toString(), MediaType.APPLICATION_JSON)
-				.build();
+		boolean flatJson = Boolean.parseBoolean(flat);
+		StreamingOutput streamingOutput = stream -> {
+			JsonWriter writer = new JsonWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+			queryResponse.writeJson(writer, flatJson);
+			writer.flush();
+		};
+
+		return Response.ok(streamingOutput, MediaType.APPLICATION_JSON).build();
 	}
 }
@@ -38,8 +38,11 @@ public class HttpCacheResponseFilter implements ContainerResponseFilter {
 	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
 			throws IOException {
 
+		// no-cache still allows the client to cache, but it must revalidate, e.g. using an ETag, thus only set the
+		// cache mode if the endpoint didn't define its own
 		MultivaluedMap<String, Object> headers = responseContext.getHeaders();
-		headers.add(HttpHeaders.CACHE_CONTROL, cacheMode);
+		if (!headers.containsKey(HttpHeaders.CACHE_CONTROL))
+			headers.add(HttpHeaders.CACHE_CONTROL, cacheMode);
 	}
 
 	/**
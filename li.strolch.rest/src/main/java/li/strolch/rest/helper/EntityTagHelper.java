@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.rest.helper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import li.strolch.agent.api.ElementMap;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.model.Version;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+
+/**
+ * <p>
+ * Helper to create entity tags (<code>ETag</code> headers) for Strolch elements and lists of elements, and to evaluate
+ * the <code>If-None-Match</code> header of a request, so that a <code>304 Not Modified</code> can be returned before
+ * any elements are serialized.
+ * </p>
+ *
+ * <p>
+ * The entity tag of a single element is built from its {@link Version}, which is persisted and thus valid across
+ * restarts. The entity tag of a list of elements is built from the modification counter of the element's type, see
+ * {@link ElementMap#getModificationCounter(StrolchTransaction, String)}, which is only kept in memory and is thus
+ * prefixed with the start time of this agent.
+ * </p>
+ *
+ * <p>
+ * As the elements a user may see depend on the user's privileges, the entity tag of a list also contains the user and
+ * the user's roles, so that a change of the user's roles leads to a new entity tag. Changes to the privileges of a
+ * role are not part of the entity tag: A user whose privilege was revoked might thus still receive a <code>304 Not
+ * Modified</code> for a list, which only confirms the representation the user already has, without revealing any new
+ * elements. Any changed list is only returned after the privileges were validated again.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class EntityTagHelper {
+
+	private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+	/**
+	 * Returns the entity tag for the given element, or null if the element has no {@link Version}
+	 *
+	 * @param element
+	 * 		the element for which to return the entity tag
+	 * @param variant
+	 * 		the variant of the representation, e.g. <code>json</code> or <code>xml</code>
+	 *
+	 * @return the quoted entity tag, or null if the element has no version
+	 */
+	public static String entityTagFor(StrolchRootElement element, String variant) {
+		if (!element.hasVersion())
+			return null;
+
+		Version version = element.getVersion();
+		return "\"" + variant + "-" + version.getVersion() + "-" + Long.toString(version.getUpdated().getTime(), 36)
+				+ "\"";
+	}
+
+	/**
+	 * Returns the entity tag for a list of elements of a given type, from the modification counter of the type. As the
+	 * list may depend on the privileges of the user, the user and the user's roles are part of the entity tag
+	 *
+	 * @param certificate
+	 * 		the certificate of the user requesting the list
+	 * @param variant
+	 * 		the variant of the representation, e.g. <code>json</code>
+	 * @param modificationCounter
+	 * 		the modification counter of the element's type
+	 *
+	 * @return the quoted entity tag
+	 */
+	public static String entityTagFor(Certificate certificate, String variant, long modificationCounter) {
+		return "\"" + variant + "-" + EPOCH + "-" + Integer.toHexString(userHash(certificate)) + "-"
+				+ modificationCounter + "\"";
+	}
+
+	private static int userHash(Certificate certificate) {
+		// the hash of a set is the sum of its elements' hashes, thus independent of the order of the roles
+		return 31 * certificate.getUsername().hashCode() + certificate.getUserRoles().hashCode();
+	}
+
+	/**
+	 * Returns true if the <code>If-None-Match</code> header of the given request matches the given entity tag, using
+	 * the weak comparison as defined for <code>GET</code> requests in RFC 7232
+	 *
+	 * @param request
+	 * 		the request
+	 * @param entityTag
+	 * 		the quoted entity tag, may be null
+	 *
+	 * @return true if the client's representation is current, and thus a <code>304 Not Modified</code> can be returned
+	 */
+	public static boolean isNotModified(HttpServletRequest request, String entityTag) {
+		if (entityTag == null)
+			return false;
+
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch == null || ifNoneMatch.isEmpty())
+			return false;
+
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.equals("*"))
+				return true;
+			if (tag.startsWith("W/"))
+				tag = tag.substring(2);
+			if (tag.equals(entityTag))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns a <code>304 Not Modified</code> response with the given entity tag
+	 *
+	 * @param entityTag
+	 * 		the quoted entity tag
+	 *
+	 * @return the response
+	 */
+	public static Response notModified(String entityTag) {
+		return Response.notModified().header(HttpHeaders.ETAG, entityTag).build();
+	}
+
+	/**
+	 * Adds the given entity tag to the given response builder, if it is not null
+	 *
+	 * @param builder
+	 * 		the response builder
+	 * @param entityTag
+	 * 		the quoted entity tag, may be null
+	 *
+	 * @return the response
+	 */
+	public static Response withEntityTag(Response.ResponseBuilder builder, String entityTag) {
+		if (entityTag != null)
+			builder.header(HttpHeaders.ETAG, entityTag);
+		return builder.build();
+	}
+}
@@ -19,6 +19,10 @@ import static java.util.stream.Collectors.toList;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
 import java.util.function.Function;
@@ -26,6 +30,7 @@ import java.util.stream.Stream;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import li.strolch.model.StrolchRootElement;
 import li.strolch.model.visitor.StrolchRootElementVisitor;
 import li.strolch.privilege.model.Certificate;
@@ -105,4 +110,103 @@ public class RestfulHelper {
 		root.add("data", data);
 		return root;
 	}
+
+	/**
+	 * Writes a single element to a {@link JsonWriter}
+	 *
+	 * @param <T>
+	 * 		the type of element
+	 */
+	@FunctionalInterface
+	public interface JsonElementWriter<T> {
+		void write(JsonWriter writer, T element) throws IOException;
+	}
+
+	/**
+	 * Returns a {@link StreamingOutput} which writes the same JSON as {@link #toJson(QueryData, long,
+	 * RootElementSearchResult, StrolchRootElementVisitor)}, but writes the elements of the page directly to the
+	 * response, so that no {@link JsonObject} tree of the entire page needs to be kept in memory
+	 *
+	 * @param queryData
+	 * 		the query data defining the page
+	 * @param dataSetSize
+	 * 		the size of the complete data set
+	 * @param result
+	 * 		the search result
+	 * @param visitorFactory
+	 * 		creates the visitor which writes the elements to the given {@link JsonWriter}, e.g. a {@link
+	 * 		li.strolch.model.json.StrolchElementToJsonWriterVisitor}
+	 *
+	 * @return the {@link StreamingOutput}
+	 */
+	public static <T extends StrolchRootElement> StreamingOutput toJsonStream(QueryData queryData, long dataSetSize,
+			RootElementSearchResult<T> result, Function<JsonWriter, StrolchRootElementVisitor<?>> visitorFactory) {
+
+		Paging<T> paging = result.toPaging(queryData.getOffset(), queryData.getLimit());
+		return stream -> {
+			JsonWriter writer = new JsonWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+			StrolchRootElementVisitor<?> visitor = visitorFactory.apply(writer);
+			writeJson(writer, queryData, dataSetSize, paging, (w, t) -> t.accept(visitor));
+		};
+	}
+
+	/**
+	 * Returns a {@link StreamingOutput} which writes the same JSON as {@link #toJson(QueryData, long, SearchResult,
+	 * Function)}, but writes the elements of the page directly to the response, so that no {@link JsonObject} tree of
+	 * the entire page needs to be kept in memory
+	 *
+	 * @param queryData
+	 * 		the query data defining the page
+	 * @param dataSetSize
+	 * 		the size of the complete data set
+	 * @param result
+	 * 		the search result
+	 * @param elementWriter
+	 * 		writes a single element to the {@link JsonWriter}
+	 *
+	 * @return the {@link StreamingOutput}
+	 */
+	public static <T> StreamingOutput toJsonStream(QueryData queryData, long dataSetSize, SearchResult<T> result,
+			JsonElementWriter<T> elementWriter) {
+
+		Paging<T> paging = result.toPaging(queryData.getOffset(), queryData.getLimit());
+		return stream -> {
+			JsonWriter writer = new JsonWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+			writeJson(writer, queryData, dataSetSize, paging, elementWriter);
+		};
+	}
+
+	private static <T> void writeJson(JsonWriter writer, QueryData queryData, long dataSetSize, Paging<T> paging,
+			JsonElementWriter<T> elementWriter) throws IOException {
+
+		// get page
+		List<T> page = paging.getPage();
+
+		writer.beginObject();
+		writer.name("msg").value("-");
+		writer.name("limit").value(paging.getLimit());
+		writer.name("offset").value(paging.getOffset());
+		writer.name("size").value(paging.getSize());
+		writer.name("previousOffset").value(paging.getPreviousOffset());
+		writer.name("nextOffset").value(paging.getNextOffset());
+		writer.name("lastOffset").value(paging.getLastOffset());
+
+		writer.name("dataSetSize").value(dataSetSize);
+
+		if (StringHelper.isNotEmpty(queryData.getOrderBy()))
+			writer.name("sortBy").value(queryData.getOrderBy());
+		writer.name("descending").value(queryData.isDescending());
+
+		// write items
+		writer.name("data").beginArray();
+		for (T t : page) {
+			elementWriter.write(writer, t);
+		}
+		writer.endArray();
+
+		writer.endObject();
+
+		// the container closes the stream
+		writer.flush();
+	}
 }
@@ -113,7 +113,7 @@ public abstract class AbstractRestfulTest extends JerseyTest {
 		assertEquals(Response.Status.OK.getStatusCode(), result.getStatus());
 
 		JsonObject loginResult = JsonParser.parseString(result.readEntity(String.class)).getAsJsonObject();
-		assertEquals("jill", loginResult.get("username").getAsString());
+		assertEquals(username, loginResult.get("username").getAsString());
 		assertEquals(64, loginResult.get("authToken").getAsString().length());
 		assertNull(loginResult.get("msg"));
 
@@ -129,7 +129,7 @@ public abstract class AbstractRestfulTest extends JerseyTest {
 		assertEquals(Response.Status.OK.getStatusCode(), result.getStatus());
 
 		JsonObject logoutResult = JsonParser.parseString(result.readEntity(String.class)).getAsJsonObject();
-		assertEquals("jill has been logged out.", logoutResult.get("msg").getAsString());
+		assertEquals(username + " has been logged out.", logoutResult.get("msg").getAsString());
 	}
 
 	public static ResourceConfig createApp() {
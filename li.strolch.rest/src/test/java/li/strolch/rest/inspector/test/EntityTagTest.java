@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.rest.inspector.test;
+
+import static li.strolch.runtime.StrolchConstants.DEFAULT_REALM;
+import static org.junit.Assert.*;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+@SuppressWarnings("nls")
+public class EntityTagTest extends AbstractRestfulTest {
+
+	private static final String ROOT_PATH = "strolch/inspector/" + DEFAULT_REALM;
+	private static final String RESOURCES_PATH = ROOT_PATH + "/resources/TestType";
+	private static final String RESOURCE_PATH = RESOURCES_PATH + "/MyTestResource";
+
+	private String authToken;
+
+	@Before
+	public void before() {
+		this.authToken = authenticate("admin", "admin");
+	}
+
+	@After
+	public void after() {
+		if (this.authToken != null)
+			logout("admin", this.authToken);
+	}
+
+	@Test
+	public void shouldReturnNotModifiedForUnchangedResource() {
+
+		// first request returns the resource with its entity tag
+		Response result = get(RESOURCE_PATH, null);
+		assertEquals(Status.OK.getStatusCode(), result.getStatus());
+		String entityTag = result.getHeaderString(HttpHeaders.ETAG);
+		assertNotNull(entityTag);
+		assertTrue(result.readEntity(String.class).contains("MyTestResource"));
+
+		// same request with the entity tag is not modified
+		result = get(RESOURCE_PATH, entityTag);
+		assertEquals(Status.NOT_MODIFIED.getStatusCode(), result.getStatus());
+		assertEquals(entityTag, result.getHeaderString(HttpHeaders.ETAG));
+
+		// after changing the resource, it is returned again
+		updateResourceName("Test Name " + System.nanoTime());
+		result = get(RESOURCE_PATH, entityTag);
+		assertEquals(Status.OK.getStatusCode(), result.getStatus());
+		String newEntityTag = result.getHeaderString(HttpHeaders.ETAG);
+		assertNotNull(newEntityTag);
+		assertNotEquals(entityTag, newEntityTag);
+	}
+
+	@Test
+	public void shouldReturnNotModifiedForUnchangedList() {
+
+		// first request returns the list with its entity tag
+		Response result = get(RESOURCES_PATH, null);
+		assertEquals(Status.OK.getStatusCode(), result.getStatus());
+		String entityTag = result.getHeaderString(HttpHeaders.ETAG);
+		assertNotNull(entityTag);
+		assertTrue(result.readEntity(String.class).contains("MyTestResource"));
+
+		// same request with the entity tag is not modified
+		result = get(RESOURCES_PATH, entityTag);
+		assertEquals(Status.NOT_MODIFIED.getStatusCode(), result.getStatus());
+		assertEquals(entityTag, result.getHeaderString(HttpHeaders.ETAG));
+
+		// after changing a resource of the type, the list is returned again
+		String name = "Test Name " + System.nanoTime();
+		updateResourceName(name);
+		result = get(RESOURCES_PATH, entityTag);
+		assertEquals(Status.OK.getStatusCode(), result.getStatus());
+		String newEntityTag = result.getHeaderString(HttpHeaders.ETAG);
+		assertNotNull(newEntityTag);
+		assertNotEquals(entityTag, newEntityTag);
+		assertTrue(result.readEntity(String.class).contains(name));
+	}
+
+	private Response get(String path, String entityTag) {
+		return target() //
+				.path(path) //
+				.request(MediaType.APPLICATION_JSON) //
+				.header(HttpHeaders.AUTHORIZATION, this.authToken) //
+				.header(HttpHeaders.IF_NONE_MATCH, entityTag) //
+				.get();
+	}
+
+	private void updateResourceName(String name) {
+
+		Response result = target() //
+				.path(RESOURCE_PATH) //
+				.request(MediaType.APPLICATION_XML) //
+				.header(HttpHeaders.AUTHORIZATION, this.authToken) //
+				.get();
+		assertEquals(Status.OK.getStatusCode(), result.getStatus());
+		String resourceXml = result.readEntity(String.class);
+
+		String updatedXml = resourceXml.replaceFirst("Name=\"[^\"]*\"", "Name=\"" + name + "\"");
+		assertNotEquals(resourceXml, updatedXml);
+
+		result = target() //
+				.path(RESOURCE_PATH) //
+				.request(MediaType.APPLICATION_XML) //
+				.header(HttpHeaders.AUTHORIZATION, this.authToken) //
+				.put(Entity.entity(updatedXml, MediaType.APPLICATION_XML));
+		assertEquals(Status.OK.getStatusCode(), result.getStatus());
+	}
+}
@@ -18,6 +18,8 @@ package li.strolch.command;
 import java.io.File;
 import java.util.Set;
 
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.agent.impl.BulkImportElementListener;
 import li.strolch.agent.impl.InMemoryElementListener;
 import li.strolch.model.ModelStatistics;
 import li.strolch.model.xml.XmlModelSaxFileReader;
@@ -41,11 +43,14 @@ public class XmlImportModelCommand extends Command {
 	private Set<String> orderTypes;
 	private Set<String> resourceTypes;
 	private Set<String> activityTypes;
+	private boolean bulkImport;
 
 	// output
 	private ModelStatistics statistics;
 	private boolean allowInclude;
 
+	private BulkImportElementListener bulkListener;
+
 	/**
 	 * @param container
 	 * @param tx
@@ -62,7 +67,20 @@ public class XmlImportModelCommand extends Command {
 	@Override
 	public void doCommand() {
 
-		InMemoryElementListener elementListener = new InMemoryElementListener(tx());
+		InMemoryElementListener elementListener;
+		if (this.bulkImport) {
+			StrolchRealm realm = getContainer().getRealm(tx().getRealmName());
+			if (BulkImportElementListener.isSupported(realm, tx())) {
+				this.bulkListener = new BulkImportElementListener(tx(), realm);
+				elementListener = this.bulkListener;
+			} else {
+				logger.warn("Realm " + realm.getRealm()
+						+ " does not support bulk imports, importing elements through the transaction.");
+				elementListener = new InMemoryElementListener(tx());
+			}
+		} else {
+			elementListener = new InMemoryElementListener(tx());
+		}
 
 		elementListener.setAddOrders(this.addOrders);
 		elementListener.setAddResources(this.addResources);
@@ -75,14 +93,27 @@ public class XmlImportModelCommand extends Command {
 		elementListener.setActivityTypes(this.activityTypes);
 
 		XmlModelSaxFileReader handler = new XmlModelSaxFileReader(elementListener, this.modelFile, this.allowInclude);
-		handler.parseFile();
+		if (this.bulkListener == null) {
+			handler.parseFile();
+		} else {
+			try (BulkImportElementListener bulkListener = this.bulkListener) {
+				handler.parseFile();
+				bulkListener.finish();
+			}
+			this.bulkListener.audit(this.modelFile.getName());
+		}
 
 		this.statistics = handler.getStatistics();
 	}
 
 	@Override
 	public void undo() {
-		logger.warn("Not undoing import of file " + this.modelFile);
+		if (this.bulkListener != null) {
+			logger.warn("Discarding bulk imported elements of file " + this.modelFile);
+			this.bulkListener.undo();
+		} else {
+			logger.warn("Not undoing import of file " + this.modelFile);
+		}
 	}
 
 	/**
@@ -147,6 +178,18 @@ public class XmlImportModelCommand extends Command {
 		this.updateActivities = updateActivities;
 	}
 
+	/**
+	 * Enables bulk importing, where new elements are directly written to the persistence layer, and added to the
+	 * cache of the realm after the commit, see {@link BulkImportElementListener}. If the realm does not support bulk imports, then the elements are
+	 * imported through the transaction as usual
+	 *
+	 * @param bulkImport
+	 * 		true to enable bulk importing
+	 */
+	public void setBulkImport(boolean bulkImport) {
+		this.bulkImport = bulkImport;
+	}
+
 	/**
 	 * @param orderTypes
 	 * 		the orderTypes to set
@@ -1,11 +1,14 @@
 package li.strolch.execution;
 
+import static java.util.Collections.emptySet;
 import static java.util.Collections.synchronizedMap;
 import static li.strolch.runtime.StrolchConstants.SYSTEM_USER_AGENT;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import li.strolch.agent.api.ComponentContainer;
 import li.strolch.agent.api.ObserverEvent;
@@ -44,6 +47,9 @@ public class Controller {
 
 	private final Map<Locator, ExecutionPolicy> inExecution;
 
+	private volatile Set<Locator> blockedOn;
+	private volatile boolean blockedOnUnknown;
+
 	public Controller(String realm, ExecutionHandler executionHandler, Activity activity) {
 		this.realm = realm;
 		this.container = executionHandler.getContainer();
@@ -53,6 +59,7 @@ public class Controller {
 		this.activityId = activity.getId();
 		this.activity = activity;
 		this.inExecution = synchronizedMap(new HashMap<>());
+		this.blockedOn = emptySet();
 	}
 
 	public String getRealm() {
@@ -72,6 +79,36 @@ public class Controller {
 		return this.activity;
 	}
 
+	/**
+	 * Returns the {@link Locator Locators} of the {@link Resource Resources} on which this controller's activity was
+	 * blocked at its last execution
+	 *
+	 * @return the {@link Locator Locators} of the {@link Resource Resources} on which this activity is blocked
+	 */
+	public Set<Locator> getBlockedOn() {
+		return this.blockedOn;
+	}
+
+	/**
+	 * Returns true if this controller needs to be executed when any of the given {@link Locator Locators} changed, i.e.
+	 * the locators contain the locator of this controller's activity, or of a resource on which it is blocked. A
+	 * controller which is blocked for a reason not related to a resource is always affected
+	 *
+	 * @param locators
+	 * 		the {@link Locator Locators} of the changed activities and resources
+	 *
+	 * @return true if this controller needs to be executed
+	 */
+	public boolean isAffectedBy(Set<Locator> locators) {
+		if (this.blockedOnUnknown || locators.contains(this.locator))
+			return true;
+		for (Locator resourceLoc : this.blockedOn) {
+			if (locators.contains(resourceLoc))
+				return true;
+		}
+		return false;
+	}
+
 	public ExecutionPolicy refreshExecutionPolicy(StrolchTransaction tx, Action action) {
 		ExecutionPolicy executionPolicy = this.inExecution.computeIfAbsent(action.getLocator(), e -> {
 			Resource resource = tx.getResourceFor(action, true);
@@ -112,19 +149,19 @@ public class Controller {
 	 * Starts the execution of this {@link Activity}
 	 */
 	public void execute() throws Exception {
-		boolean[] trigger = new boolean[1];
+		Set<Locator> trigger = new HashSet<>();
 		this.executionHandler.runAsAgent(ctx -> {
 			try (StrolchTransaction tx = openTx(ctx.getCertificate())) {
 				tx.lock(this.locator);
-				trigger[0] = execute(tx);
+				trigger.addAll(execute(tx));
 				if (tx.needsCommit()) {
 					tx.commitOnClose();
 				}
 			}
 		});
 
-		if (trigger[0])
-			this.executionHandler.triggerExecution(this.realm);
+		if (!trigger.isEmpty())
+			this.executionHandler.triggerExecution(this.realm, trigger);
 	}
 
 	/**
@@ -136,22 +173,26 @@ public class Controller {
 		}
 	}
 
-	private boolean execute(StrolchTransaction tx) {
+	/**
+	 * Executes the activity in the given TX, and returns the {@link Locator Locators} for which the execution needs to
+	 * be triggered, i.e. this activity and the resources of the executed actions, if an action was executed
+	 */
+	private Set<Locator> execute(StrolchTransaction tx) {
 		if (!refreshActivity(tx))
-			return false;
+			return emptySet();
 
 		if (this.activity.getState().isExecuted()) {
 			this.executionHandler.removeFromExecution(this);
 			logger.info("Archiving executed activity " + this.locator + " with state " + this.activity.getState());
 			this.executionHandler.archiveActivity(this.realm, this.activity);
 
-			return false;
+			return emptySet();
 		}
 
 		ExecutionHandlerState state = this.executionHandler.getState(this.realm);
 		if (state == ExecutionHandlerState.Paused) {
 			logger.warn("Ignoring trigger for paused realm " + this.realm);
-			return false;
+			return emptySet();
 		}
 
 		ExecuteActivityCommand command = new ExecuteActivityCommand(tx);
@@ -159,9 +200,17 @@ public class Controller {
 		command.validate();
 		command.doCommand();
 
+		this.blockedOn = new HashSet<>(command.getBlockedOn());
+		this.blockedOnUnknown = command.isBlockedOnUnknown();
+
 		updateObservers();
 
-		return command.needsRetriggerOfExecution();
+		if (!command.needsRetriggerOfExecution())
+			return emptySet();
+
+		Set<Locator> trigger = new HashSet<>(command.getChangedResources());
+		trigger.add(this.locator);
+		return trigger;
 	}
 
 	/**
@@ -171,6 +220,7 @@ public class Controller {
 	 * 		the {@link Locator} of the {@link Action}
 	 */
 	public void toExecuted(Locator actionLoc) throws Exception {
+		Set<Locator> trigger = new HashSet<>();
 		this.executionHandler.runAsAgent(ctx -> {
 			try (StrolchTransaction tx = openTx(ctx.getCertificate())) {
 				tx.lock(this.locator);
@@ -192,15 +242,19 @@ public class Controller {
 				// flush so we can see the changes performed
 				tx.flush();
 
+				// activities blocked on the action's resource might now be executable
+				trigger.add(action.getResourceLocator());
+
 				// now try and execute the next action(s)
-				execute(tx);
+				trigger.addAll(execute(tx));
 
 				if (tx.needsCommit())
 					tx.commitOnClose();
 			}
 		});
 
-		this.executionHandler.triggerExecution(this.realm);
+		if (!trigger.isEmpty())
+			this.executionHandler.triggerExecution(this.realm, trigger);
 	}
 
 	/**
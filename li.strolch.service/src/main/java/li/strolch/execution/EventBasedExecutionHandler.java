@@ -6,6 +6,7 @@ import static li.strolch.runtime.StrolchConstants.SYSTEM_USER_AGENT;
 import static li.strolch.utils.collections.SynchronizedCollections.synchronizedMapOfMaps;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import li.strolch.agent.api.ComponentContainer;
 import li.strolch.agent.api.ObserverEvent;
@@ -35,10 +36,14 @@ import li.strolch.utils.collections.MapOfMaps;
 public class EventBasedExecutionHandler extends ExecutionHandler {
 
 	private static final String PROP_RESTART_EXECUTION = "restartExecution";
+	private static final String PROP_TRIGGER_BATCH_WINDOW = "triggerBatchWindow";
 
 	private Map<String, ExecutionHandlerState> statesByRealm;
 	private MapOfMaps<String, Locator, Controller> controllers;
 
+	private long triggerBatchWindow;
+	private Map<String, TriggerBatch> pendingTriggers;
+
 	private DelayedExecutionTimer delayedExecutionTimer;
 
 	public EventBasedExecutionHandler(ComponentContainer container, String componentName) {
@@ -76,6 +81,8 @@ public class EventBasedExecutionHandler extends ExecutionHandler {
 	@Override
 	public void initialize(ComponentConfiguration configuration) throws Exception {
 		this.controllers = synchronizedMapOfMaps(new MapOfMaps<>(true));
+		this.triggerBatchWindow = configuration.getLong(PROP_TRIGGER_BATCH_WINDOW, 10L);
+		this.pendingTriggers = new HashMap<>();
 		super.initialize(configuration);
 	}
 
@@ -199,6 +206,61 @@ public class EventBasedExecutionHandler extends ExecutionHandler {
 
 	@Override
 	public void triggerExecution(String realm) {
+		trigger(realm, null);
+	}
+
+	@Override
+	public void triggerExecution(String realm, Set<Locator> locators) {
+		trigger(realm, locators);
+	}
+
+	/**
+	 * Triggers are batched, so that all triggers arriving within the {@link #PROP_TRIGGER_BATCH_WINDOW} are handled in
+	 * one pass, in which each affected controller is executed once
+	 */
+	private void trigger(String realm, Set<Locator> locators) {
+
+		ExecutionHandlerState state = this.statesByRealm.getOrDefault(realm, ExecutionHandlerState.Running);
+		if (state == ExecutionHandlerState.Paused) {
+			logger.warn("Ignoring trigger for paused realm " + realm);
+			return;
+		}
+
+		if (this.triggerBatchWindow <= 0L) {
+			TriggerBatch batch = new TriggerBatch();
+			batch.add(locators);
+			triggerExecution(realm, batch);
+			return;
+		}
+
+		synchronized (this.pendingTriggers) {
+			TriggerBatch batch = this.pendingTriggers.get(realm);
+			if (batch == null) {
+				batch = new TriggerBatch();
+				this.pendingTriggers.put(realm, batch);
+				getScheduledExecutor("ExecutionHandler")
+						.schedule(() -> triggerPending(realm), this.triggerBatchWindow, TimeUnit.MILLISECONDS);
+			}
+			batch.add(locators);
+		}
+	}
+
+	private void triggerPending(String realm) {
+		TriggerBatch batch;
+		synchronized (this.pendingTriggers) {
+			batch = this.pendingTriggers.remove(realm);
+		}
+
+		if (batch != null) {
+			try {
+				triggerExecution(realm, batch);
+			} catch (Exception e) {
+				logger.error("Failed to trigger execution for realm " + realm, e);
+			}
+		}
+	}
+
+	private void triggerExecution(String realm, TriggerBatch batch) {
 
 		ExecutionHandlerState state = this.statesByRealm.getOrDefault(realm, ExecutionHandlerState.Running);
 		if (state == ExecutionHandlerState.Paused) {
@@ -206,11 +268,28 @@ public class EventBasedExecutionHandler extends ExecutionHandler {
 			return;
 		}
 
+		List<Controller> affected = new ArrayList<>();
+		int nrOfControllers;
 		synchronized (this.controllers) {
 			Map<Locator, Controller> controllers = this.controllers.getMap(realm);
-			if (controllers != null)
-				controllers.values().forEach(this::toExecution);
+			if (controllers == null)
+				return;
+
+			nrOfControllers = controllers.size();
+			if (batch.all) {
+				affected.addAll(controllers.values());
+			} else {
+				for (Controller controller : controllers.values()) {
+					if (controller.isAffectedBy(batch.locators))
+						affected.add(controller);
+				}
+			}
 		}
+
+		if (logger.isDebugEnabled())
+			logger.debug("Triggering execution of " + affected.size() + " of " + nrOfControllers + " controllers in realm "
+					+ realm);
+		affected.forEach(this::toExecution);
 	}
 
 	@Override
@@ -459,4 +538,19 @@ public class EventBasedExecutionHandler extends ExecutionHandler {
 	public DelayedExecutionTimer getDelayedExecutionTimer() {
 		return this.delayedExecutionTimer;
 	}
+
+	/**
+	 * The triggers for a realm which are collected during the batch window
+	 */
+	private static class TriggerBatch {
+		private boolean all;
+		private final Set<Locator> locators = new HashSet<>();
+
+		private void add(Set<Locator> locators) {
+			if (locators == null)
+				this.all = true;
+			else if (!this.all)
+				this.locators.addAll(locators);
+		}
+	}
 }
@@ -147,6 +147,28 @@ public abstract class ExecutionHandler extends StrolchComponent {
 	 */
 	public abstract void triggerExecution(String realm);
 
+	/**
+	 * <p>
+	 * Triggers execution of the registered activities in the given realm which are affected by the given {@link
+	 * Locator Locators}, i.e. the activities with the given locators, and the activities which are blocked on the
+	 * {@link li.strolch.model.Resource Resources} with the given locators
+	 * </p>
+	 *
+	 * <p>
+	 * <b>Note:</b> This relies on the contract that whether an {@link li.strolch.model.activity.Action Action} is
+	 * executable, see {@link li.strolch.execution.policy.ExecutionPolicy#isExecutable(li.strolch.model.activity.Action)},
+	 * depends only on the state of the action's own resource. An activity blocked on a resource is thus not executed
+	 * when other resources change. If an {@link li.strolch.execution.policy.ExecutionPolicy} depends on any other
+	 * state, then whoever changes that state must call {@link #triggerExecution(String)}
+	 * </p>
+	 *
+	 * @param realm
+	 * 		the realm to trigger execution for
+	 * @param locators
+	 * 		the {@link Locator Locators} of the changed activities and resources
+	 */
+	public abstract void triggerExecution(String realm, Set<Locator> locators);
+
 	/**
 	 * Get the sate of the execution handler
 	 *
@@ -1,11 +1,14 @@
 package li.strolch.execution.command;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import li.strolch.execution.Controller;
 import li.strolch.execution.policy.ConfirmationPolicy;
 import li.strolch.execution.policy.ExecutionPolicy;
+import li.strolch.model.Locator;
 import li.strolch.model.State;
 import li.strolch.model.activity.Action;
 import li.strolch.model.activity.Activity;
@@ -20,9 +23,14 @@ public class ExecuteActivityCommand extends BasePlanningAndExecutionCommand
 
 	private Controller controller;
 	private boolean needsRetriggerOfExecution;
+	private boolean blockedOnUnknown;
+	private final Set<Locator> blockedOn;
+	private final Set<Locator> changedResources;
 
 	public ExecuteActivityCommand(StrolchTransaction tx) {
 		super(tx);
+		this.blockedOn = new HashSet<>();
+		this.changedResources = new HashSet<>();
 	}
 
 	public void setController(Controller controller) {
@@ -37,6 +45,36 @@ public class ExecuteActivityCommand extends BasePlanningAndExecutionCommand
 		return this.needsRetriggerOfExecution;
 	}
 
+	/**
+	 * Returns the {@link Locator Locators} of the {@link li.strolch.model.Resource Resources} on which actions of the
+	 * activity are blocked, i.e. where the {@link ExecutionPolicy#isExecutable(Action)} returned false
+	 *
+	 * @return the locators of the resources on which the activity is blocked
+	 */
+	public Set<Locator> getBlockedOn() {
+		return this.blockedOn;
+	}
+
+	/**
+	 * Returns true if an action could not be executed for a reason which is not related to its resource, i.e. it could
+	 * not be planned
+	 *
+	 * @return true if an action could not be executed for a reason which is not related to its resource
+	 */
+	public boolean isBlockedOnUnknown() {
+		return this.blockedOnUnknown;
+	}
+
+	/**
+	 * Returns the {@link Locator Locators} of the {@link li.strolch.model.Resource Resources} of the actions which were
+	 * set to execution, and thus might now allow other activities to be executed
+	 *
+	 * @return the locators of the resources of the actions which were set to execution
+	 */
+	public Set<Locator> getChangedResources() {
+		return this.changedResources;
+	}
+
 	@Override
 	public void validate() {
 		DBC.PRE.assertNotNull("controller can not be null!", this.controller);
@@ -63,6 +101,7 @@ public class ExecuteActivityCommand extends BasePlanningAndExecutionCommand
 			getPlanningPolicy(action).plan(action);
 			if (action.getState() != State.PLANNED) {
 				logger.info("Action " + action.getLocator() + " was not planned, can thus not executed.");
+				this.blockedOnUnknown = true;
 				return;
 			}
 		}
@@ -85,6 +124,7 @@ public class ExecuteActivityCommand extends BasePlanningAndExecutionCommand
 			executionPolicy.initialize(action);
 			if (!executionPolicy.isExecutable(action)) {
 				logger.info("Action " + action.getLocator() + " is not yet executable.");
+				this.blockedOn.add(action.getResourceLocator());
 				return;
 			}
 
@@ -92,6 +132,7 @@ public class ExecuteActivityCommand extends BasePlanningAndExecutionCommand
 
 			executionPolicy.toExecution(action);
 			confirmationPolicy.doConfirmation(action);
+			this.changedResources.add(action.getResourceLocator());
 
 			if (action.getState() == State.EXECUTED)
 				this.needsRetriggerOfExecution = true;
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.execution.command;
+
+import static li.strolch.execution.policy.ConfirmationPolicy.DEFAULT_CONFIRMATION;
+import static li.strolch.execution.policy.NoPlanning.DEFAULT_PLANNING;
+
+import java.util.*;
+
+import li.strolch.execution.policy.ConfirmationPolicy;
+import li.strolch.execution.policy.PlanningPolicy;
+import li.strolch.execution.policy.SimplePlanning;
+import li.strolch.model.Locator;
+import li.strolch.model.Order;
+import li.strolch.model.Resource;
+import li.strolch.model.State;
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.policy.PolicyDef;
+import li.strolch.model.timevalue.IValueChange;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.service.api.Command;
+import li.strolch.utils.dbc.DBC;
+
+/**
+ * <p>Command to plan many {@link Action Actions} at once, e.g. all actions of a shift. This {@link Command} assumes,
+ * as the {@link PlanActionCommand} does, that the {@link IValueChange} objects of the actions are already constructed
+ * and the resource of each action is set. Actions which are already planned are ignored</p>
+ *
+ * <p>In contrast to planning each action with a {@link PlanActionCommand}, the actions are grouped by their {@link
+ * PlanningPolicy}, which is instantiated once, and then planned at once using {@link PlanningPolicy#plan(List)}, so
+ * that e.g. the {@link SimplePlanning} applies all changes of a {@link Resource} in one pass. The {@link
+ * ConfirmationPolicy} is also instantiated once for each {@link PolicyDef}, and the state of the {@link Order} of each
+ * {@link Activity} is updated once</p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class PlanActionsCommand extends BasePlanningAndExecutionCommand {
+
+	private List<Action> actions;
+
+	public PlanActionsCommand(StrolchTransaction tx) {
+		super(tx);
+	}
+
+	public void setActions(List<Action> actions) {
+		this.actions = actions;
+	}
+
+	@Override
+	public void validate() {
+		DBC.PRE.assertNotNull("Actions may not be null!", this.actions);
+	}
+
+	@Override
+	public void doCommand() {
+
+		// remember the state of each activity, so that the state of its order can be updated after planning
+		Map<Activity, State> rootStates = new IdentityHashMap<>();
+		Map<String, PolicyDef> planningPolicyDefs = new HashMap<>();
+		Map<String, List<Action>> actionsByPolicy = new LinkedHashMap<>();
+		for (Action action : this.actions) {
+			if (action.getState().compareTo(State.PLANNED) >= 0)
+				continue;
+
+			Activity rootElement = action.getRootElement();
+			rootStates.putIfAbsent(rootElement, rootElement.getState());
+
+			PolicyDef policyDef = action.findPolicy(PlanningPolicy.class, DEFAULT_PLANNING);
+			String key = policyDef.getValueForXml();
+			planningPolicyDefs.putIfAbsent(key, policyDef);
+			actionsByPolicy.computeIfAbsent(key, k -> new ArrayList<>()).add(action);
+		}
+
+		for (Map.Entry<String, List<Action>> entry : actionsByPolicy.entrySet()) {
+			PlanningPolicy planningPolicy = tx().getPolicy(planningPolicyDefs.get(entry.getKey()));
+			planningPolicy.plan(entry.getValue());
+		}
+
+		Map<String, ConfirmationPolicy> confirmationPolicies = new HashMap<>();
+		Map<Locator, ConfirmationPolicy> confirmationPolicyByResource = new HashMap<>();
+		for (List<Action> policyActions : actionsByPolicy.values()) {
+			for (Action action : policyActions) {
+				if (action.getState() != State.PLANNED)
+					continue;
+
+				ConfirmationPolicy confirmationPolicy = confirmationPolicyByResource
+						.computeIfAbsent(action.getResourceLocator(), l -> {
+							PolicyDef policyDef = getResource(action).getPolicyDefs()
+									.getPolicyDef(ConfirmationPolicy.class.getSimpleName(), DEFAULT_CONFIRMATION);
+							return confirmationPolicies
+									.computeIfAbsent(policyDef.getValueForXml(), k -> tx().getPolicy(policyDef));
+						});
+				confirmationPolicy.toPlanned(action);
+			}
+		}
+
+		for (Map.Entry<Activity, State> entry : rootStates.entrySet()) {
+			Activity rootElement = entry.getKey();
+			updateOrderState(tx(), rootElement, entry.getValue(), rootElement.getState());
+		}
+	}
+}
@@ -80,6 +80,7 @@ public class ShiftActionCommand extends PlanningCommand {
 		for (final IValueChange<?> change : changes) {
 			change.setTime(change.getTime() + shift);
 		}
+		action.changesModified();
 
 		// finally plan the action
 		PlanningPolicy planningPolicy = tx().getPolicy(action.findPolicy(PlanningPolicy.class, DEFAULT_PLANNING));
@@ -100,6 +100,12 @@ public abstract class ExecutionPolicy extends StrolchPolicy {
 	 * define a required state which is to be met for execution of the given {@link Action}.
 	 * </p>
 	 *
+	 * <p>
+	 * <b>Note:</b> The result must only depend on the state of the {@link Action Action's} own {@link
+	 * li.strolch.model.Resource Resource}, as a blocked {@link Action} is only executed again when its resource
+	 * changes, see {@link ExecutionHandler#triggerExecution(String, java.util.Set)}
+	 * </p>
+	 *
 	 * @param action
 	 * 		the {@link Action} to check if it can be executed
 	 *
@@ -1,5 +1,7 @@
 package li.strolch.execution.policy;
 
+import java.util.List;
+
 import li.strolch.model.Resource;
 import li.strolch.model.activity.Action;
 import li.strolch.model.policy.PolicyDef;
@@ -19,6 +21,19 @@ public abstract class PlanningPolicy extends StrolchPolicy {
 
 	public abstract void plan(Action action);
 
+	/**
+	 * Plans the given {@link Action Actions}, which all have this planning policy. This implementation plans each
+	 * action using {@link #plan(Action)}, sub classes can override this method to plan all actions in one pass
+	 *
+	 * @param actions
+	 * 		the actions to plan
+	 */
+	public void plan(List<Action> actions) {
+		for (Action action : actions) {
+			plan(action);
+		}
+	}
+
 	public abstract void unplan(Action action);
 
 	@Override
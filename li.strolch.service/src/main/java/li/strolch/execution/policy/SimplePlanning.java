@@ -1,7 +1,15 @@
 package li.strolch.execution.policy;
 
-import java.util.List;
+import static li.strolch.utils.helper.StringHelper.formatNanoDuration;
 
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import li.strolch.exception.StrolchException;
+import li.strolch.model.Locator;
 import li.strolch.model.Resource;
 import li.strolch.model.State;
 import li.strolch.model.activity.Action;
@@ -13,6 +21,13 @@ import li.strolch.utils.dbc.DBC;
 
 public class SimplePlanning extends PlanningPolicy {
 
+	/**
+	 * The number of changes from which the changes of the {@link Resource Resources} are applied in parallel
+	 */
+	public static final int PARALLEL_THRESHOLD = 1000;
+
+	private static final String EXECUTOR_NAME = "Planning";
+
 	public SimplePlanning(StrolchTransaction tx) {
 		super(tx);
 	}
@@ -61,6 +76,119 @@ public class SimplePlanning extends PlanningPolicy {
 		action.setState(State.PLANNED);
 	}
 
+	/**
+	 * <p>Plans the given {@link Action Actions} in one pass: The actions are grouped by their {@link Resource}, so that
+	 * each resource is evaluated once using {@link #evaluateAndSetResource(Action)}, and the {@link IValueChange
+	 * IValueChanges} of all the actions of a resource are applied to each {@link StrolchTimedState} at once, compacting
+	 * it only once</p>
+	 *
+	 * <p>As the changes of a resource are independent of other resources, the changes are applied in parallel, if
+	 * there are more than {@link #PARALLEL_THRESHOLD} changes on more than one resource</p>
+	 *
+	 * @param actions
+	 * 		the actions to plan
+	 */
+	@Override
+	public void plan(List<Action> actions) {
+		long start = System.nanoTime();
+
+		Map<Locator, List<Action>> actionsByResource = new LinkedHashMap<>();
+		for (Action action : actions) {
+			DBC.PRE.assertEquals("Can not plan illegal state", State.CREATED, action.getState());
+			if (!action.hasResourceDefined()) {
+				logger.error("No resource evaluated, so can not plan " + action.getLocator());
+				continue;
+			}
+			actionsByResource.computeIfAbsent(action.getResourceLocator(), l -> new ArrayList<>()).add(action);
+		}
+
+		// evaluating locks the resources, thus must be done by the thread of the TX
+		List<ResourcePlan> plans = new ArrayList<>(actionsByResource.size());
+		int nrOfChanges = 0;
+		for (List<Action> resourceActions : actionsByResource.values()) {
+			Resource resource = evaluateAndSetResource(resourceActions.get(0));
+			if (resource == null) {
+				logger.error("No resource evaluated, so can not plan " + resourceActions.size() + " actions for "
+						+ resourceActions.get(0).getResourceLocator());
+				continue;
+			}
+
+			ResourcePlan plan = new ResourcePlan(resource, resourceActions);
+			nrOfChanges += plan.getNrOfChanges();
+			plans.add(plan);
+		}
+
+		if (plans.size() > 1 && nrOfChanges >= PARALLEL_THRESHOLD)
+			applyInParallel(plans);
+		else
+			plans.forEach(ResourcePlan::apply);
+
+		int nrOfActions = 0;
+		for (ResourcePlan plan : plans) {
+			for (Action action : plan.actions) {
+				action.setState(State.PLANNED);
+				nrOfActions++;
+			}
+		}
+
+		logger.info(MessageFormat.format("Planned {0} actions with {1} changes on {2} resources in {3}", nrOfActions,
+				nrOfChanges, plans.size(), formatNanoDuration(System.nanoTime() - start)));
+	}
+
+	private void applyInParallel(List<ResourcePlan> plans) {
+		ExecutorService executor = getContainer().getAgent().getExecutor(EXECUTOR_NAME);
+
+		List<Future<?>> futures = new ArrayList<>(plans.size());
+		for (ResourcePlan plan : plans) {
+			futures.add(executor.submit(plan::apply));
+		}
+
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new StrolchException("Interrupted while planning actions", e);
+			} catch (ExecutionException e) {
+				throw new StrolchException("Failed to plan actions due to " + e.getCause().getMessage(), e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * The changes of all actions to be planned on a single {@link Resource}, grouped by {@link StrolchTimedState}
+	 */
+	private static class ResourcePlan {
+		private final Resource resource;
+		private final List<Action> actions;
+		private final Map<String, List<IValueChange<?>>> changesByState;
+		private int nrOfChanges;
+
+		private ResourcePlan(Resource resource, List<Action> actions) {
+			this.resource = resource;
+			this.actions = actions;
+			this.changesByState = new HashMap<>();
+			for (Action action : actions) {
+				for (IValueChange<?> change : action.getChanges()) {
+					this.changesByState.computeIfAbsent(change.getStateId(), s -> new ArrayList<>()).add(change);
+					this.nrOfChanges++;
+				}
+			}
+		}
+
+		private int getNrOfChanges() {
+			return this.nrOfChanges;
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private void apply() {
+			for (Map.Entry<String, List<IValueChange<?>>> entry : this.changesByState.entrySet()) {
+				StrolchTimedState timedState = this.resource.getTimedState(entry.getKey());
+				timedState.applyChanges(entry.getValue(), true);
+			}
+		}
+	}
+
 	/**
 	 * Command to unplan an {@link Action} from a {@link Resource}. It is assumes that the {@link Action} is already in
 	 * {@link State#PLANNED} and that the {@link IValueChange} objects of the action are stored on the action.
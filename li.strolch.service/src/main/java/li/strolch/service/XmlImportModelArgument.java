@@ -33,6 +33,7 @@ public class XmlImportModelArgument extends ServiceArgument {
 	public Set<String> orderTypes = new HashSet<>();
 	public Set<String> resourceTypes = new HashSet<>();
 	public Set<String> activityTypes = new HashSet<>();
+	public boolean bulkImport = false;
 
 	@Override
 	public String toString() {
@@ -55,6 +56,9 @@ public class XmlImportModelArgument extends ServiceArgument {
 		if (this.addActivities)
 			builder.append(", addActivities");
 
+		if (this.bulkImport)
+			builder.append(", bulkImport");
+
 		if (this.updateOrders)
 			builder.append(", updateOrders");
 		if (this.updateResources)
@@ -86,6 +86,7 @@ public class XmlImportModelService extends AbstractService<XmlImportModelArgumen
 			command.setOrderTypes(arg.orderTypes);
 			command.setResourceTypes(arg.resourceTypes);
 			command.setActivityTypes(arg.activityTypes);
+			command.setBulkImport(arg.bulkImport);
 
 			tx.addCommand(command);
 			tx.commitOnClose();
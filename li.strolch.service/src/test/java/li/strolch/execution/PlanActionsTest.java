@@ -0,0 +1,138 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.execution;
+
+import static li.strolch.model.ModelGenerator.*;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import li.strolch.execution.command.PlanActionsCommand;
+import li.strolch.model.ModelGenerator;
+import li.strolch.model.ParameterBag;
+import li.strolch.model.Resource;
+import li.strolch.model.State;
+import li.strolch.model.activity.Action;
+import li.strolch.model.activity.Activity;
+import li.strolch.model.activity.TimeOrdering;
+import li.strolch.model.parameter.IntegerParameter;
+import li.strolch.model.timedstate.IntegerTimedState;
+import li.strolch.model.timevalue.ITimeVariable;
+import li.strolch.model.timevalue.impl.IntegerValue;
+import li.strolch.model.timevalue.impl.ValueChange;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.testbase.runtime.RuntimeMock;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class PlanActionsTest {
+
+	private static final String RUNTIME_PATH = "target/" + PlanActionsTest.class.getSimpleName();
+	private static final String CONFIG_SRC = "src/test/resources/executiontest"; //$NON-NLS-1$
+	private static RuntimeMock runtimeMock;
+	private static StrolchTransaction tx;
+
+	@BeforeClass
+	public static void beforeClass() {
+		runtimeMock = new RuntimeMock();
+		runtimeMock.mockRuntime(RUNTIME_PATH, CONFIG_SRC);
+		runtimeMock.startContainer();
+
+		tx = runtimeMock.openUserTx(runtimeMock.loginTest(), false);
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	private Resource resource1;
+	private Resource resource2;
+	private Activity activity;
+	private List<Action> actions;
+
+	@Before
+	public void init() {
+
+		this.resource1 = createStatedResource("@1");
+		this.resource2 = createStatedResource("@2");
+
+		this.activity = new Activity("activity", "Test", "Test", TimeOrdering.SERIES);
+		this.actions = new ArrayList<>();
+		this.actions.add(createAction("action1", this.resource1, 1));
+		this.actions.add(createAction("action2", this.resource1, 2));
+		this.actions.add(createAction("action3", this.resource2, 3));
+
+		tx.add(this.resource1);
+		tx.add(this.resource2);
+		tx.add(this.activity);
+	}
+
+	private Resource createStatedResource(String id) {
+		Resource resource = ModelGenerator.createResource(id, "Test With States", "Stated");
+		IntegerTimedState timedState = resource.getTimedState(STATE_INTEGER_ID);
+		timedState.getTimeEvolution().clear();
+		timedState.applyChange(new ValueChange<>(STATE_TIME_0, new IntegerValue(STATE_INTEGER_TIME_0)), true);
+		return resource;
+	}
+
+	private Action createAction(String id, Resource resource, int quantity) {
+		Action action = new Action(id, "Action", "Use");
+		this.activity.addElement(action);
+
+		action.addParameterBag(new ParameterBag("objectives", "Objectives", "Objectives"));
+		action.addParameter("objectives", new IntegerParameter("quantity", "Occupation", quantity));
+		PlanActionTest.createChanges(action);
+
+		action.setResourceId(resource.getId());
+		action.setResourceType(resource.getType());
+		return action;
+	}
+
+	@Test
+	public void shouldPlanActions() {
+
+		PlanActionsCommand cmd = new PlanActionsCommand(tx);
+		cmd.setActions(this.actions);
+		cmd.validate();
+		cmd.doCommand();
+
+		for (Action action : this.actions) {
+			assertEquals(State.PLANNED, action.getState());
+		}
+		assertEquals(State.PLANNED, this.activity.getState());
+
+		// both actions on the first resource are summed up
+		ITimeVariable<IntegerValue> timeEvolution = this.resource1.<IntegerTimedState>getTimedState(
+				STATE_INTEGER_ID).getTimeEvolution();
+		assertEquals(3, timeEvolution.getValues().size());
+		assertEquals(new IntegerValue(0), timeEvolution.getValueAt(STATE_TIME_0).getValue());
+		assertEquals(new IntegerValue(3), timeEvolution.getValueAt(STATE_TIME_10).getValue());
+		assertEquals(new IntegerValue(0), timeEvolution.getValueAt(STATE_TIME_20).getValue());
+
+		timeEvolution = this.resource2.<IntegerTimedState>getTimedState(STATE_INTEGER_ID).getTimeEvolution();
+		assertEquals(3, timeEvolution.getValues().size());
+		assertEquals(new IntegerValue(3), timeEvolution.getValueAt(STATE_TIME_10).getValue());
+		assertEquals(new IntegerValue(0), timeEvolution.getValueAt(STATE_TIME_20).getValue());
+	}
+}
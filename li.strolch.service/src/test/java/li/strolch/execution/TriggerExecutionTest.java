@@ -0,0 +1,98 @@
+package li.strolch.execution;
+
+import static java.util.Collections.singleton;
+import static li.strolch.model.StrolchModelConstants.BAG_PARAMETERS;
+import static li.strolch.model.StrolchModelConstants.PolicyConstants.PARAM_RESERVED;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import li.strolch.execution.service.StartActivityExecutionService;
+import li.strolch.model.Locator;
+import li.strolch.model.Resource;
+import li.strolch.model.State;
+import li.strolch.model.Tags;
+import li.strolch.model.activity.Action;
+import li.strolch.model.parameter.BooleanParameter;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.service.LocatorArgument;
+import li.strolch.testbase.runtime.RuntimeMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TriggerExecutionTest extends RuntimeMock {
+
+	private static final String REALM = "execution";
+
+	@Before
+	public void before() {
+		mockRuntime(new File("target/" + TriggerExecutionTest.class.getName()),
+				new File("src/test/resources/executiontest"));
+		startContainer();
+	}
+
+	@After
+	public void after() {
+		destroyRuntime();
+	}
+
+	@Test
+	public void shouldOnlyTriggerActivitiesBlockedOnChangedResource() throws InterruptedException {
+
+		Locator activityLoc = Locator.valueOf(Tags.ACTIVITY, "ToStock", "produceMachine1");
+		Locator machineLoc = Locator.valueOf(Tags.RESOURCE, "Machine", "machine1");
+		Locator unrelatedLoc = Locator.valueOf(Tags.RESOURCE, "Conveyor", "conveyor1");
+
+		Certificate cert = loginTest();
+
+		// reserve the machine, so that the activity is blocked on it
+		setReserved(cert, true);
+
+		StartActivityExecutionService svc = new StartActivityExecutionService();
+		LocatorArgument arg = new LocatorArgument();
+		arg.realm = REALM;
+		arg.locator = activityLoc;
+		doServiceAssertResult(cert, svc, arg);
+
+		Thread.sleep(100L);
+		assertReserveActionState(cert, activityLoc, State.CREATED);
+
+		ExecutionHandler executionHandler = getContainer().getComponent(ExecutionHandler.class);
+		Controller controller = executionHandler.getController(REALM, activityLoc);
+		assertEquals(singleton(machineLoc), controller.getBlockedOn());
+		assertFalse(controller.isAffectedBy(singleton(unrelatedLoc)));
+		assertTrue(controller.isAffectedBy(singleton(machineLoc)));
+
+		// release the machine without triggering execution
+		setReserved(cert, false);
+
+		// a trigger for an unrelated resource does not execute the blocked activity
+		executionHandler.triggerExecution(REALM, singleton(unrelatedLoc));
+		Thread.sleep(100L);
+		assertReserveActionState(cert, activityLoc, State.CREATED);
+
+		// a trigger for the machine executes the blocked activity
+		executionHandler.triggerExecution(REALM, singleton(machineLoc));
+		Thread.sleep(100L);
+		assertReserveActionState(cert, activityLoc, State.EXECUTED);
+	}
+
+	private void setReserved(Certificate cert, boolean reserved) {
+		try (StrolchTransaction tx = getRealm(REALM).openTx(cert, TriggerExecutionTest.class, false)) {
+			Resource machine = tx.getResourceBy("Machine", "machine1", true);
+			BooleanParameter reservedP = machine.getParameter(BAG_PARAMETERS, PARAM_RESERVED, true);
+			reservedP.setValue(reserved);
+			tx.update(machine);
+			tx.commitOnClose();
+		}
+	}
+
+	private void assertReserveActionState(Certificate cert, Locator activityLoc, State state) {
+		try (StrolchTransaction tx = getRealm(REALM).openTx(cert, TriggerExecutionTest.class, true)) {
+			Action action = tx.findElement(activityLoc.append("reserve"));
+			assertEquals(state, action.getState());
+		}
+	}
+}
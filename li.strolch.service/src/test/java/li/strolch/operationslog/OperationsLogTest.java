@@ -15,6 +15,30 @@
  */
 package li.strolch.operationslog;
 
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static li.strolch.model.Tags.AGENT;
+import static li.strolch.runtime.StrolchConstants.SYSTEM_USER_AGENT;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import li.strolch.agent.api.StrolchAgent;
+import li.strolch.agent.api.StrolchRealm;
+import li.strolch.handler.operationslog.OperationsLog;
+import li.strolch.model.Locator;
+import li.strolch.model.log.LogMessage;
+import li.strolch.model.log.LogMessageState;
+import li.strolch.model.log.LogSeverity;
+import li.strolch.persistence.api.LogMessageDao;
+import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.service.api.AbstractService;
 import li.strolch.service.api.Service;
 import li.strolch.service.api.ServiceArgument;
@@ -33,6 +57,30 @@ public class OperationsLogTest extends AbstractRealmServiceTest<ServiceArgument,
 		runServiceInAllRealmTypes();
 	}
 
+	@Test
+	public void shouldEvictAtMaxMessages() {
+		this.svcClass = EvictionService.class;
+		runServiceInAllRealmTypes();
+	}
+
+	@Test
+	public void shouldCollapseRepeatedUpdates() {
+		this.svcClass = CollapseService.class;
+		runServiceInAllRealmTypes();
+	}
+
+	@Test
+	public void shouldResizeWithSetMaxMessages() {
+		this.svcClass = ResizeService.class;
+		runServiceInAllRealmTypes();
+	}
+
+	@Test
+	public void shouldKeepMessagesAddedConcurrentlyToFlush() {
+		this.svcClass = ConcurrentAddService.class;
+		runServiceInAllRealmTypes();
+	}
+
 	@Override
 	protected Class<? extends Service<ServiceArgument, ServiceResult>> getSvcClass() {
 		return this.svcClass;
@@ -62,4 +110,217 @@ public class OperationsLogTest extends AbstractRealmServiceTest<ServiceArgument,
 			return ServiceResult.success();
 		}
 	}
+
+	public abstract static class AbstractOperationsLogService extends AbstractService<ServiceArgument, ServiceResult> {
+
+		private static final long PERSIST_TIMEOUT_MS = 10000L;
+
+		@Override
+		protected ServiceResult getResultInstance() {
+			return new ServiceResult();
+		}
+
+		@Override
+		public ServiceArgument getArgumentInstance() {
+			return new ServiceArgument();
+		}
+
+		protected OperationsLog getOperationsLog() {
+			return getComponent(OperationsLog.class);
+		}
+
+		protected LogMessage newMessage(String realm) {
+			return new LogMessage(realm, SYSTEM_USER_AGENT,
+					Locator.valueOf(AGENT, "li.strolch.testbase", StrolchAgent.getUniqueId()), LogSeverity.Info,
+					LogMessageState.Active, ResourceBundle.getBundle("li-strolch-testbase"), "test-message");
+		}
+
+		protected List<LogMessage> addMessages(String realm, int nrOfMessages) {
+			OperationsLog operationsLog = getOperationsLog();
+			List<LogMessage> messages = new ArrayList<>(nrOfMessages);
+			for (int i = 0; i < nrOfMessages; i++) {
+				LogMessage message = newMessage(realm);
+				operationsLog.addMessage(message);
+				messages.add(message);
+			}
+			return messages;
+		}
+
+		protected Set<String> getIds(List<LogMessage> messages) {
+			return messages.stream().map(LogMessage::getId).collect(toSet());
+		}
+
+		protected List<LogMessage> queryPersisted(String realmName) {
+			StrolchRealm realm = getContainer().getRealm(realmName);
+			try (StrolchTransaction tx = realm.openTx(getCertificate(), "test", true)) {
+				LogMessageDao logMessageDao = tx.getPersistenceHandler().getLogMessageDao(tx);
+				return logMessageDao.queryLatest(realmName, Integer.MAX_VALUE);
+			}
+		}
+
+		/**
+		 * Waits until the persisted messages are the same as those in memory, as the messages are persisted
+		 * asynchronously
+		 */
+		protected List<LogMessage> awaitPersisted(String realmName) throws InterruptedException {
+			if (getContainer().getRealm(realmName).getMode().isTransient())
+				return getOperationsLog().getMessages(realmName);
+
+			Set<String> expected = getIds(getOperationsLog().getMessages(realmName));
+			long start = System.currentTimeMillis();
+			List<LogMessage> persisted = queryPersisted(realmName);
+			while (!getIds(persisted).equals(expected) && System.currentTimeMillis() - start < PERSIST_TIMEOUT_MS) {
+				Thread.sleep(50L);
+				persisted = queryPersisted(realmName);
+			}
+
+			assertEquals(expected, getIds(persisted));
+			return persisted;
+		}
+	}
+
+	public static class EvictionService extends AbstractOperationsLogService {
+
+		@Override
+		protected ServiceResult internalDoService(ServiceArgument arg) throws Exception {
+			OperationsLog operationsLog = getOperationsLog();
+			operationsLog.setMaxMessages(20);
+
+			List<LogMessage> added = addMessages(arg.realm, 50);
+			List<LogMessage> messages = operationsLog.getMessages(arg.realm);
+
+			// when reaching the maximum, the oldest 10% are evicted
+			assertTrue("Too many messages: " + messages.size(), messages.size() < 20);
+			assertTrue("Too few messages: " + messages.size(), messages.size() >= 18);
+			assertEquals(added.subList(added.size() - messages.size(), added.size()), messages);
+
+			// evicted messages are also removed from the index
+			LogMessage evicted = added.get(0);
+			assertNull(operationsLog.getMessagesFor(arg.realm, evicted.getLocator()).orElse(null));
+
+			List<LogMessage> persisted = awaitPersisted(arg.realm);
+			assertFalse(getIds(persisted).contains(evicted.getId()));
+
+			return ServiceResult.success();
+		}
+	}
+
+	public static class CollapseService extends AbstractOperationsLogService {
+
+		@Override
+		protected ServiceResult internalDoService(ServiceArgument arg) throws Exception {
+			OperationsLog operationsLog = getOperationsLog();
+			operationsLog.setMaxMessages(100);
+
+			// repeated state changes only lead to the latest state being persisted
+			LogMessage updated = newMessage(arg.realm);
+			operationsLog.addMessage(updated);
+			operationsLog.updateState(arg.realm, updated.getId(), LogMessageState.Inactive);
+			operationsLog.updateState(arg.realm, updated.getLocator(), LogMessageState.Active);
+			operationsLog.updateState(arg.realm, updated.getId(), LogMessageState.Inactive);
+
+			// a message which is added and removed again is never persisted
+			LogMessage removed = newMessage(arg.realm);
+			operationsLog.addMessage(removed);
+			operationsLog.removeMessage(removed);
+
+			List<LogMessage> persisted = awaitPersisted(arg.realm);
+			List<LogMessage> updatedMessages = persisted.stream().filter(m -> m.getId().equals(updated.getId()))
+					.collect(toList());
+			assertEquals(1, updatedMessages.size());
+			assertEquals(LogMessageState.Inactive, updatedMessages.get(0).getState());
+			assertFalse(getIds(persisted).contains(removed.getId()));
+
+			return ServiceResult.success();
+		}
+	}
+
+	public static class ResizeService extends AbstractOperationsLogService {
+
+		@Override
+		protected ServiceResult internalDoService(ServiceArgument arg) throws Exception {
+			OperationsLog operationsLog = getOperationsLog();
+			operationsLog.setMaxMessages(100);
+			List<LogMessage> added = addMessages(arg.realm, 50);
+
+			// shrinking keeps the latest messages
+			operationsLog.setMaxMessages(20);
+			List<LogMessage> messages = operationsLog.getMessages(arg.realm);
+			assertTrue("Too many messages: " + messages.size(), messages.size() < 20);
+			assertEquals(added.subList(added.size() - messages.size(), added.size()), messages);
+			awaitPersisted(arg.realm);
+
+			// growing keeps all messages, and allows for more
+			operationsLog.setMaxMessages(100);
+			List<LogMessage> more = addMessages(arg.realm, 50);
+			List<LogMessage> expected = new ArrayList<>(messages);
+			expected.addAll(more);
+			assertEquals(expected, operationsLog.getMessages(arg.realm));
+
+			// messages added concurrently to resizing are not lost
+			operationsLog.setMaxMessages(10000);
+			int nrOfThreads = 4;
+			int nrOfMessages = 200;
+			ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+			List<Future<List<LogMessage>>> futures = new ArrayList<>();
+			for (int i = 0; i < nrOfThreads; i++) {
+				futures.add(executor.submit(() -> addMessages(arg.realm, nrOfMessages)));
+			}
+			for (int i = 1; i <= 10; i++) {
+				operationsLog.setMaxMessages(10000 + i);
+			}
+
+			List<LogMessage> concurrentlyAdded = new ArrayList<>();
+			for (Future<List<LogMessage>> future : futures) {
+				concurrentlyAdded.addAll(future.get());
+			}
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+			Set<String> ids = getIds(operationsLog.getMessages(arg.realm));
+			assertTrue(ids.containsAll(getIds(concurrentlyAdded)));
+			assertTrue(getIds(awaitPersisted(arg.realm)).containsAll(getIds(concurrentlyAdded)));
+
+			return ServiceResult.success();
+		}
+	}
+
+	public static class ConcurrentAddService extends AbstractOperationsLogService {
+
+		@Override
+		protected ServiceResult internalDoService(ServiceArgument arg) throws Exception {
+			OperationsLog operationsLog = getOperationsLog();
+			operationsLog.setMaxMessages(10000);
+
+			// every add schedules a flush, so the threads keep adding while the previous changes are written
+			int nrOfThreads = 4;
+			int nrOfMessages = 250;
+			ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+			List<Future<List<LogMessage>>> futures = new ArrayList<>();
+			for (int i = 0; i < nrOfThreads; i++) {
+				futures.add(executor.submit(() -> {
+					List<LogMessage> added = new ArrayList<>();
+					for (int j = 0; j < nrOfMessages; j++) {
+						added.addAll(addMessages(arg.realm, 1));
+						if (j % 50 == 0)
+							Thread.sleep(10L);
+					}
+					return added;
+				}));
+			}
+
+			List<LogMessage> added = new ArrayList<>();
+			for (Future<List<LogMessage>> future : futures) {
+				added.addAll(future.get());
+			}
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+			assertEquals(nrOfThreads * nrOfMessages, added.size());
+
+			assertTrue(getIds(operationsLog.getMessages(arg.realm)).containsAll(getIds(added)));
+			assertTrue(getIds(awaitPersisted(arg.realm)).containsAll(getIds(added)));
+
+			return ServiceResult.success();
+		}
+	}
 }
@@ -24,12 +24,21 @@ import org.junit.Test;
  */
 public class XmlImportModelServiceTest extends AbstractRealmServiceTest<XmlImportModelArgument, XmlImportModelResult> {
 
+	private boolean bulkImport;
+
 	@Test
 	public void runTest() {
 
 		runServiceInAllRealmTypes(XmlImportModelResult.class);
 	}
 
+	@Test
+	public void runBulkImportTest() {
+
+		this.bulkImport = true;
+		runServiceInAllRealmTypes(XmlImportModelResult.class);
+	}
+
 	@Override
 	protected Class<? extends Service<XmlImportModelArgument, XmlImportModelResult>> getSvcClass() {
 		return XmlImportModelService.class;
@@ -40,6 +49,7 @@ public class XmlImportModelServiceTest extends AbstractRealmServiceTest<XmlImpor
 
 		XmlImportModelArgument arg = new XmlImportModelArgument();
 		arg.modelFileName = "Enums.xml";
+		arg.bulkImport = this.bulkImport;
 
 		return arg;
 	}
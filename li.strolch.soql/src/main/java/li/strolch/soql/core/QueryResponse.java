@@ -2,7 +2,11 @@ package li.strolch.soql.core;
 
 import static li.strolch.utils.helper.StringHelper.isNotEmpty;
 
+import java.io.IOException;
+import java.util.Map;
+
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import li.strolch.model.Tags;
 
 /**
@@ -48,4 +52,41 @@ public class QueryResponse extends QueryRequest {
 		rootJ.add(RESULT_SET, this.resultSet.asJson(flat));
 		return rootJ;
 	}
+
+	/**
+	 * Writes the same JSON as {@link #asJson(boolean)} directly to the given {@link JsonWriter}, without first building
+	 * the {@link JsonObject} of the complete result set in memory
+	 *
+	 * @param writer
+	 * 		the writer to write to
+	 * @param flat
+	 * 		if JSON should be flat or not
+	 *
+	 * @throws IOException
+	 * 		if the JSON can not be written
+	 */
+	public void writeJson(JsonWriter writer, boolean flat) throws IOException {
+
+		writer.beginObject();
+		writer.name(Tags.Json.OBJECT_TYPE).value("QueryResponse");
+		writer.name(STATEMENT).value(getStatement());
+
+		writer.name(PARAMETER).beginObject();
+		Map<String, Object> parameterMap = getParameterMap();
+		if (parameterMap != null) {
+			for (Map.Entry<String, Object> entry : parameterMap.entrySet()) {
+				writer.name(entry.getKey()).value(entry.getValue().toString());
+			}
+		}
+		writer.endObject();
+
+		if (isNotEmpty(this.message)) {
+			writer.name("Message").value(this.message);
+		}
+
+		writer.name(RESULT_SET);
+		this.resultSet.writeJson(writer, flat);
+
+		writer.endObject();
+	}
 }
@@ -1,12 +1,15 @@
 package li.strolch.soql.core;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 import com.google.gson.JsonArray;
+import com.google.gson.stream.JsonWriter;
 import li.strolch.model.StrolchRootElement;
 import li.strolch.model.json.StrolchElementToJsonVisitor;
+import li.strolch.model.json.StrolchElementToJsonWriterVisitor;
 
 /**
  * The query result set as List of Lists
@@ -59,6 +62,34 @@ public class ResultSet {
 		return rowsAsJson;
 	}
 
+	/**
+	 * Writes all rows as a JSON Array directly to the given {@link JsonWriter}
+	 *
+	 * @param writer
+	 * 		the writer to write to
+	 * @param flat
+	 * 		if JSON should be flat or not
+	 *
+	 * @throws IOException
+	 * 		if the JSON can not be written
+	 */
+	public void writeJson(JsonWriter writer, boolean flat) throws IOException {
+
+		StrolchElementToJsonWriterVisitor visitor = new StrolchElementToJsonWriterVisitor(writer);
+		if (flat)
+			visitor.flat();
+
+		writer.beginArray();
+		for (List<StrolchRootElement> row : this.rows) {
+			writer.beginArray();
+			for (StrolchRootElement element : row) {
+				element.accept(visitor);
+			}
+			writer.endArray();
+		}
+		writer.endArray();
+	}
+
 	/**
 	 * @return a single row as JSON Array
 	 */
@@ -2,9 +2,11 @@ package li.strolch.soql.core;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.StringWriter;
 import java.util.List;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.junit.Test;
 
 /**
@@ -69,4 +71,18 @@ public class SerialisationTest extends BaseTest {
 		System.out.println(jsonObject.toString());
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testResponse2JSONStream() throws Exception {
+		final QueryResponse response = buildTestResponse();
+		final List evalResult = getTestRessources(2);
+		response.getResultSet().add(evalResult);
+
+		StringWriter out = new StringWriter();
+		try (JsonWriter writer = new JsonWriter(out)) {
+			response.writeJson(writer, false);
+		}
+
+		assertEquals(response.asJson().toString(), out.toString());
+	}
 }
@@ -103,8 +103,16 @@ public class ResourceModelTestRunner {
 		}
 	}
 
+	private long getModificationCounter() {
+		try (StrolchTransaction tx = this.runtimeMock.getRealm(this.realmName).openTx(this.certificate, "test", true)) {
+			return tx.getResourceMap().getModificationCounter(tx, TYPE);
+		}
+	}
+
 	public void runCrudTests() {
 
+		long modificationCounter = getModificationCounter();
+
 		// create
 		Resource newResource = createResource(ID, NAME, TYPE);
 		try (StrolchTransaction tx = this.runtimeMock.getRealm(this.realmName)
@@ -119,6 +127,8 @@ public class ResourceModelTestRunner {
 			readResource = tx.getResourceBy(TYPE, ID);
 		}
 		assertNotNull("Should read Resource with id " + ID, readResource); //$NON-NLS-1$
+		assertTrue("Modification counter should increase on add", getModificationCounter() > modificationCounter);
+		modificationCounter = getModificationCounter();
 
 		// update
 		StringParameter sParam = readResource.getParameter(BAG_ID, PARAM_STRING_ID);
@@ -141,6 +151,8 @@ public class ResourceModelTestRunner {
 					updatedResource); //$NON-NLS-1$
 		StringParameter updatedParam = readResource.getParameter(BAG_ID, PARAM_STRING_ID);
 		assertEquals(newStringValue, updatedParam.getValue());
+		assertTrue("Modification counter should increase on update", getModificationCounter() > modificationCounter);
+		modificationCounter = getModificationCounter();
 
 		// delete
 		try (StrolchTransaction tx = this.runtimeMock.getRealm(this.realmName)
@@ -154,6 +166,7 @@ public class ResourceModelTestRunner {
 			Resource resource = tx.getResourceBy(TYPE, ID);
 			assertNull("Should no read Resource with id " + ID, resource); //$NON-NLS-1$
 		}
+		assertTrue("Modification counter should increase on remove", getModificationCounter() > modificationCounter);
 	}
 
 	public void runBulkOperationTests() {
@@ -10,6 +10,7 @@ import static li.strolch.utils.helper.StringHelper.*;
 import javax.websocket.CloseReason;
 import javax.websocket.EndpointConfig;
 import javax.websocket.MessageHandler;
+import javax.websocket.SendHandler;
 import javax.websocket.Session;
 import java.io.IOException;
 import java.util.HashMap;
@@ -27,7 +28,7 @@ import li.strolch.utils.helper.ExceptionHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class WebSocketClient implements MessageHandler.Whole<String> {
+public class WebSocketClient implements MessageHandler.Whole<String>, WebSocketObserverQueue.Client {
 
 	public static final Logger logger = LoggerFactory.getLogger(WebSocketClient.class);
 
@@ -37,6 +38,7 @@ public class WebSocketClient implements MessageHandler.Whole<String> {
 	private final EndpointConfig config;
 	private final String remoteIp;
 	private final Map<String, WebSocketObserverHandler> observerHandlersByRealm;
+	private final WebSocketObserverQueue observerQueue;
 
 	private Certificate certificate;
 
@@ -47,6 +49,25 @@ public class WebSocketClient implements MessageHandler.Whole<String> {
 		this.config = config;
 		this.remoteIp = WebSocketRemoteIp.get();
 		this.observerHandlersByRealm = new HashMap<>(1);
+		this.observerQueue = new WebSocketObserverQueue(this, container.getAgent().getScheduledExecutor("WebSocket"));
+	}
+
+	public WebSocketObserverQueue getObserverQueue() {
+		return this.observerQueue;
+	}
+
+	/**
+	 * Returns the {@link WebSocketObserverFanOuts} with which the {@link WebSocketObserverHandler
+	 * WebSocketObserverHandlers} of this client register, so that the elements are serialized once for all clients.
+	 * These are owned by the {@link WebSocketObserverComponent} if it is configured, otherwise the shared default is
+	 * used
+	 *
+	 * @return the fan-outs
+	 */
+	public WebSocketObserverFanOuts getObserverFanOuts() {
+		if (!this.container.hasComponent(WebSocketObserverComponent.class))
+			return WebSocketObserverFanOuts.DEFAULT;
+		return this.container.getComponent(WebSocketObserverComponent.class).getFanOuts();
 	}
 
 	@Override
@@ -81,6 +102,7 @@ public class WebSocketClient implements MessageHandler.Whole<String> {
 		}
 	}
 
+	@Override
 	public void assertAuthenticated(String type) {
 
 		if (this.certificate == null) {
@@ -196,7 +218,9 @@ public class WebSocketClient implements MessageHandler.Whole<String> {
 		close(new CloseReason(code, reason));
 	}
 
+	@Override
 	public void close(CloseReason closeReason) {
+		this.observerQueue.close();
 		if (this.observerHandlersByRealm == null || this.observerHandlersByRealm.isEmpty())
 			return;
 		try {
@@ -213,8 +237,32 @@ public class WebSocketClient implements MessageHandler.Whole<String> {
 		logger.error("Socket error: " + t.getMessage(), t);
 	}
 
-	public synchronized void sendMessage(String data) throws Exception {
+	/**
+	 * Adds the given data to this client's {@link WebSocketObserverQueue}, which sends it after any messages which were
+	 * added before. All messages are sent by the queue, so that only one message is ever in flight on the session
+	 *
+	 * @param data
+	 * 		the data to send
+	 */
+	public void sendMessage(String data) throws Exception {
 		assertAuthenticated("sendMessage");
-		this.session.getBasicRemote().sendText(data);
+		this.observerQueue.addMessage(data);
+	}
+
+	/**
+	 * Sends the given data asynchronously, notifying the given handler when the data was sent. Only one asynchronous
+	 * message may be in flight at any time, thus this method may only be called by the {@link WebSocketObserverQueue}.
+	 * Use {@link #sendMessage(String)} to send data to this client
+	 *
+	 * @param data
+	 * 		the data to send
+	 * @param handler
+	 * 		the handler to notify with the result
+	 */
+	@Override
+	public void sendMessageAsync(String data, SendHandler handler) {
+		if (!this.session.isOpen())
+			throw new IllegalStateException("Session " + this.session.getId() + " is closed!");
+		this.session.getAsyncRemote().sendText(data, handler);
 	}
 }
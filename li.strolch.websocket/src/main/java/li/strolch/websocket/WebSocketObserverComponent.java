@@ -0,0 +1,50 @@
+package li.strolch.websocket;
+
+import li.strolch.agent.api.ComponentContainer;
+import li.strolch.agent.api.ObserverHandler;
+import li.strolch.agent.api.StrolchComponent;
+import li.strolch.runtime.configuration.ComponentConfiguration;
+
+/**
+ * <p>
+ * Owns the {@link WebSocketObserverFanOuts}, so that the {@link WebSocketObserverFanOut WebSocketObserverFanOuts} are
+ * unregistered from their {@link ObserverHandler} and released when the agent is stopped.
+ * </p>
+ *
+ * <p>
+ * This component is optional: If it is not configured, then the {@link WebSocketObserverFanOuts#DEFAULT} fan-outs are
+ * used, which are released when the last client unregisters.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class WebSocketObserverComponent extends StrolchComponent {
+
+	private WebSocketObserverFanOuts fanOuts;
+
+	public WebSocketObserverComponent(ComponentContainer container, String componentName) {
+		super(container, componentName);
+	}
+
+	@Override
+	public void initialize(ComponentConfiguration configuration) throws Exception {
+		this.fanOuts = new WebSocketObserverFanOuts();
+		super.initialize(configuration);
+	}
+
+	/**
+	 * Returns the fan-outs owned by this component
+	 *
+	 * @return the fan-outs owned by this component
+	 */
+	public WebSocketObserverFanOuts getFanOuts() {
+		assertStarted();
+		return this.fanOuts;
+	}
+
+	@Override
+	public void stop() throws Exception {
+		this.fanOuts.unregisterAll();
+		super.stop();
+	}
+}
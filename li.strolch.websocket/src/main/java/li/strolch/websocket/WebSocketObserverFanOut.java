@@ -0,0 +1,188 @@
+package li.strolch.websocket;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import li.strolch.agent.api.Observer;
+import li.strolch.agent.api.ObserverHandler;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.utils.collections.MapOfLists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The single {@link Observer} registered on a realm's {@link ObserverHandler} for all connected {@link
+ * WebSocketClient WebSocketClients}. Instead of each client's {@link WebSocketObserverHandler} being notified and
+ * serializing every changed element itself, this fan-out is notified once and passes a {@link PayloadCache} to all
+ * {@link WebSocketObserverHandler WebSocketObserverHandlers}, so that each element is serialized to JSON only once per
+ * distinct visitor configuration.
+ * </p>
+ *
+ * <p>
+ * The payload cache only lives for the duration of one notification, i.e. one commit, so that stale JSON is never
+ * sent.
+ * </p>
+ *
+ * <p>
+ * The handlers are notified through their {@link Observer} methods, so that any overridden method is called, and
+ * obtain the cache of the current notification with {@link #getPayloadCache()}.
+ * </p>
+ *
+ * <p>
+ * The fan-outs are kept by the {@link WebSocketObserverFanOuts}, which create one per {@link ObserverHandler}.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class WebSocketObserverFanOut implements Observer {
+
+	private static final Logger logger = LoggerFactory.getLogger(WebSocketObserverFanOut.class);
+
+	private static final ThreadLocal<PayloadCache> payloadCache = new ThreadLocal<>();
+
+	private final ObserverHandler observerHandler;
+	private final MapOfLists<String, WebSocketObserverHandler> handlers;
+
+	public WebSocketObserverFanOut(ObserverHandler observerHandler) {
+		this.observerHandler = observerHandler;
+		this.handlers = new MapOfLists<>();
+	}
+
+	public synchronized void register(String key, WebSocketObserverHandler handler) {
+		if (!this.handlers.containsList(key)) {
+			this.observerHandler.registerObserver(key, this);
+			logger.info("Registered WebSocket fan-out for " + key);
+		}
+
+		if (!this.handlers.containsElement(key, handler))
+			this.handlers.addElement(key, handler);
+	}
+
+	public synchronized void unregister(String key, WebSocketObserverHandler handler) {
+		if (!this.handlers.removeElement(key, handler))
+			return;
+
+		if (!this.handlers.containsList(key)) {
+			this.observerHandler.unregisterObserver(key, this);
+			logger.info("Unregistered WebSocket fan-out for " + key);
+		}
+	}
+
+	/**
+	 * Unregisters this fan-out from the {@link ObserverHandler} and forgets all registered {@link
+	 * WebSocketObserverHandler WebSocketObserverHandlers}
+	 */
+	public synchronized void unregisterAll() {
+		this.handlers.keySet().forEach(key -> this.observerHandler.unregisterObserver(key, this));
+		this.handlers.clear();
+	}
+
+	/**
+	 * Returns true if no {@link WebSocketObserverHandler WebSocketObserverHandlers} are registered anymore
+	 *
+	 * @return true if no {@link WebSocketObserverHandler WebSocketObserverHandlers} are registered anymore
+	 */
+	public synchronized boolean isEmpty() {
+		return this.handlers.isEmpty();
+	}
+
+	/**
+	 * Returns the {@link PayloadCache} of the notification which is currently being fanned out on this thread, or a
+	 * new cache, if the caller was not notified by a fan-out
+	 *
+	 * @return the cache of the current notification
+	 */
+	public static PayloadCache getPayloadCache() {
+		PayloadCache cache = payloadCache.get();
+		return cache == null ? new PayloadCache() : cache;
+	}
+
+	private synchronized List<WebSocketObserverHandler> getHandlers(String key) {
+		List<WebSocketObserverHandler> list = this.handlers.getList(key);
+		return list == null ? Collections.emptyList() : new ArrayList<>(list);
+	}
+
+	@Override
+	public void add(String key, List<StrolchRootElement> elements) {
+		fanOut(key, elements, Observer::add);
+	}
+
+	@Override
+	public void update(String key, List<StrolchRootElement> elements) {
+		fanOut(key, elements, Observer::update);
+	}
+
+	@Override
+	public void remove(String key, List<StrolchRootElement> elements) {
+		fanOut(key, elements, Observer::remove);
+	}
+
+	private void fanOut(String key, List<StrolchRootElement> elements, Notification notification) {
+		List<WebSocketObserverHandler> handlers = getHandlers(key);
+		if (handlers.isEmpty())
+			return;
+
+		PayloadCache cache = new PayloadCache();
+		payloadCache.set(cache);
+		try {
+			for (WebSocketObserverHandler handler : handlers) {
+				try {
+					notification.notify(handler, key, elements);
+				} catch (Exception e) {
+					logger.error("Failed to notify WebSocket observer " + handler, e);
+				}
+			}
+		} finally {
+			payloadCache.remove();
+		}
+
+		if (logger.isDebugEnabled())
+			logger.debug("Fanned out " + elements.size() + " " + key + " to " + handlers.size() + " clients with "
+					+ cache.size() + " serializations");
+	}
+
+	@FunctionalInterface
+	private interface Notification {
+		void notify(Observer observer, String key, List<StrolchRootElement> elements) throws Exception;
+	}
+
+	/**
+	 * Caches the serialized JSON of the elements of one notification, by element instance and serializer, i.e. the
+	 * class of the {@link WebSocketObserverHandler} and its visitor configuration
+	 */
+	public static class PayloadCache {
+
+		private final Map<List<Object>, Map<StrolchRootElement, String>> payloads;
+
+		public PayloadCache() {
+			this.payloads = new HashMap<>(4);
+		}
+
+		/**
+		 * Returns the cached payload for the given element, handler class and visitor configuration, serializing it with
+		 * the given supplier if not yet cached
+		 *
+		 * @param handlerClass
+		 * 		the class of the {@link WebSocketObserverHandler} serializing the element
+		 * @param visitorConfig
+		 * 		the visitor configuration, see {@link WebSocketObserverHandler#getVisitorConfig(StrolchRootElement)}
+		 * @param element
+		 * 		the element
+		 * @param serializer
+		 * 		serializes the element, if not yet cached
+		 *
+		 * @return the JSON string of the element
+		 */
+		public synchronized String get(Class<?> handlerClass, int visitorConfig, StrolchRootElement element,
+				Supplier<String> serializer) {
+			return this.payloads
+					.computeIfAbsent(Arrays.asList(handlerClass, visitorConfig), c -> new IdentityHashMap<>()) //
+					.computeIfAbsent(element, e -> serializer.get());
+		}
+
+		public synchronized int size() {
+			return this.payloads.values().stream().mapToInt(Map::size).sum();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package li.strolch.websocket;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import li.strolch.agent.api.ObserverHandler;
+
+/**
+ * <p>
+ * Keeps the {@link WebSocketObserverFanOut WebSocketObserverFanOuts}, one per {@link ObserverHandler}, i.e. per realm,
+ * so that all connected {@link WebSocketClient WebSocketClients} share the serialization of the changed elements. A
+ * fan-out is created when the first {@link WebSocketObserverHandler} registers for its {@link ObserverHandler}, and is
+ * released when the last one unregisters, so that no fan-out outlives its clients.
+ * </p>
+ *
+ * <p>
+ * The {@link WebSocketObserverComponent} owns its own instance, and releases all fan-outs when it is stopped. If the
+ * component is not configured, then the {@link #DEFAULT} instance is used.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class WebSocketObserverFanOuts {
+
+	/**
+	 * The fan-outs used if no {@link WebSocketObserverComponent} is configured
+	 */
+	public static final WebSocketObserverFanOuts DEFAULT = new WebSocketObserverFanOuts();
+
+	private final Map<ObserverHandler, WebSocketObserverFanOut> fanOuts;
+
+	public WebSocketObserverFanOuts() {
+		this.fanOuts = new HashMap<>();
+	}
+
+	/**
+	 * Registers the given handler for the given key on the fan-out of the given {@link ObserverHandler}, creating the
+	 * fan-out if needed
+	 *
+	 * @param observerHandler
+	 * 		the {@link ObserverHandler} of the realm
+	 * @param key
+	 * 		the object type to observe
+	 * @param handler
+	 * 		the handler to register
+	 */
+	public synchronized void register(ObserverHandler observerHandler, String key, WebSocketObserverHandler handler) {
+		this.fanOuts.computeIfAbsent(observerHandler, WebSocketObserverFanOut::new).register(key, handler);
+	}
+
+	/**
+	 * Unregisters the given handler for the given key from the fan-out of the given {@link ObserverHandler}, releasing
+	 * the fan-out if no handlers remain
+	 *
+	 * @param observerHandler
+	 * 		the {@link ObserverHandler} of the realm
+	 * @param key
+	 * 		the object type which was observed
+	 * @param handler
+	 * 		the handler to unregister
+	 */
+	public synchronized void unregister(ObserverHandler observerHandler, String key, WebSocketObserverHandler handler) {
+		WebSocketObserverFanOut fanOut = this.fanOuts.get(observerHandler);
+		if (fanOut == null)
+			return;
+
+		fanOut.unregister(key, handler);
+		if (fanOut.isEmpty())
+			this.fanOuts.remove(observerHandler);
+	}
+
+	/**
+	 * Unregisters all fan-outs from their {@link ObserverHandler} and releases them
+	 */
+	public synchronized void unregisterAll() {
+		this.fanOuts.values().forEach(WebSocketObserverFanOut::unregisterAll);
+		this.fanOuts.clear();
+	}
+
+	synchronized int size() {
+		return this.fanOuts.size();
+	}
+}
@@ -1,25 +1,17 @@
 package li.strolch.websocket;
 
 import static li.strolch.model.Tags.Json.*;
-import static li.strolch.rest.StrolchRestfulConstants.DATA;
-import static li.strolch.rest.StrolchRestfulConstants.MSG;
-import static li.strolch.utils.helper.ExceptionHelper.getExceptionMessage;
-import static li.strolch.utils.helper.StringHelper.DASH;
 
-import javax.websocket.CloseReason;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import li.strolch.agent.api.Observer;
 import li.strolch.agent.api.ObserverHandler;
 import li.strolch.model.StrolchRootElement;
-import li.strolch.model.Tags;
 import li.strolch.model.json.StrolchElementToJsonVisitor;
-import li.strolch.utils.collections.MapOfLists;
 import li.strolch.utils.collections.MapOfSets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,22 +20,50 @@ public class WebSocketObserverHandler implements Observer {
 
 	protected static final Logger logger = LoggerFactory.getLogger(WebSocketObserverHandler.class);
 
+	public static final String OBSERVER_ADD = "ObserverAdd";
+	public static final String OBSERVER_UPDATE = "ObserverUpdate";
+	public static final String OBSERVER_REMOVE = "ObserverRemove";
+
+	protected static final int CONFIG_FLAT = 1;
+	protected static final int CONFIG_WITH_LOCATOR = 1 << 1;
+	protected static final int CONFIG_WITH_VERSION = 1 << 2;
+
 	protected ObserverHandler observerHandler;
 	protected WebSocketClient client;
 
 	protected MapOfSets<String, String> observedTypes;
 	protected Map<String, JsonObject> params;
 
+	private final WebSocketObserverFanOuts fanOuts;
+
 	public WebSocketObserverHandler(ObserverHandler observerHandler, WebSocketClient client) {
 		this.observerHandler = observerHandler;
 		this.client = client;
 		this.observedTypes = new MapOfSets<>();
 		this.params = new HashMap<>(1);
+		this.fanOuts = client.getObserverFanOuts();
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the JSON of the elements serialized by this handler may be shared with other handlers of the same
+	 * class and with the same visitor configuration, see {@link #getVisitorConfig(StrolchRootElement)}.
+	 * </p>
+	 *
+	 * <p>
+	 * Subclasses whose {@link #toJson(StrolchRootElement)} depends on the client, e.g. on the user's privileges, must
+	 * override this method and return false.
+	 * </p>
+	 *
+	 * @return true if the serialized elements may be shared with other handlers
+	 */
+	protected boolean isSharedSerialisationSupported() {
+		return true;
 	}
 
 	public void register(String objectType, String type, JsonObject params) {
 		if (!this.observedTypes.containsSet(objectType))
-			this.observerHandler.registerObserver(objectType, this);
+			this.fanOuts.register(this.observerHandler, objectType, this);
 		this.observedTypes.addElement(objectType, type);
 		this.params.put(type, params);
 	}
@@ -51,82 +71,121 @@ public class WebSocketObserverHandler implements Observer {
 	public void unregister(String objectType, String type) {
 		this.observedTypes.removeElement(objectType, type);
 		if (!this.observedTypes.containsSet(objectType))
-			this.observerHandler.unregisterObserver(objectType, this);
+			this.fanOuts.unregister(this.observerHandler, objectType, this);
 	}
 
 	public void unregisterAll() {
-		this.observedTypes.keySet().forEach(key -> this.observerHandler.unregisterObserver(key, this));
+		this.observedTypes.keySet().forEach(key -> this.fanOuts.unregister(this.observerHandler, key, this));
 	}
 
 	@Override
 	public void add(String key, List<StrolchRootElement> elements) {
-		handleUpdate("ObserverAdd", key, elements);
+		handleUpdate(OBSERVER_ADD, key, elements);
 	}
 
 	@Override
 	public void update(String key, List<StrolchRootElement> elements) {
-		handleUpdate("ObserverUpdate", key, elements);
+		handleUpdate(OBSERVER_UPDATE, key, elements);
 	}
 
 	@Override
 	public void remove(String key, List<StrolchRootElement> elements) {
-		handleUpdate("ObserverRemove", key, elements);
+		handleUpdate(OBSERVER_REMOVE, key, elements);
 	}
 
+	/**
+	 * Handles the update of the given elements, using the {@link WebSocketObserverFanOut.PayloadCache} of the current
+	 * notification, see {@link WebSocketObserverFanOut#getPayloadCache()}
+	 */
 	protected void handleUpdate(String updateType, String key, List<StrolchRootElement> elements) {
+		handleUpdate(updateType, key, elements, WebSocketObserverFanOut.getPayloadCache());
+	}
+
+	/**
+	 * Handles the update of the given elements. The elements are serialized to JSON using the given cache, so that
+	 * clients with the same visitor configuration share the serialization, and are then added to the client's {@link
+	 * WebSocketObserverQueue}, which coalesces and sends the updates asynchronously. The cache is not used if {@link
+	 * #isSharedSerialisationSupported()} returns false
+	 *
+	 * @param updateType
+	 * 		the update type
+	 * @param key
+	 * 		the object type of the elements
+	 * @param elements
+	 * 		the changed elements
+	 * @param cache
+	 * 		the cache of the serialized elements for the current notification
+	 */
+	protected void handleUpdate(String updateType, String key, List<StrolchRootElement> elements,
+			WebSocketObserverFanOut.PayloadCache cache) {
 		Set<String> observedTypesSet = this.observedTypes.getSet(key);
 		if (observedTypesSet == null)
 			return;
 
-		MapOfLists<String, JsonObject> data = elements //
-				.stream() //
-				.filter(e -> filter(observedTypesSet, e)) //
-				.map(this::toJson) //
-				.collect(MapOfLists::new, //
-						(mol, e) -> mol.addElement(e.get(Tags.Json.TYPE).getAsString(), e), //
-						MapOfLists::addAll);
-		if (data.isEmpty())
-			return;
-
-		data.keySet().forEach(type -> {
-			JsonObject jsonObject = new JsonObject();
-			jsonObject.addProperty(MSG, DASH);
-			jsonObject.addProperty(Tags.Json.MSG_TYPE, updateType);
-			jsonObject.addProperty(Tags.Json.OBJECT_TYPE, key);
-			jsonObject.addProperty(Tags.Json.TYPE, type);
-			JsonArray elementsJ = new JsonArray();
-			data.getList(type).forEach(elementsJ::add);
-			jsonObject.add(DATA, elementsJ);
-
-			try {
-				this.client.sendMessage(jsonObject.toString());
-			} catch (Exception e) {
-				logger.error("Failed to send data to client " + this.client);
-				this.client.close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, getExceptionMessage(e)));
-			}
-		});
+		WebSocketObserverQueue queue = this.client.getObserverQueue();
+		for (StrolchRootElement element : elements) {
+			if (!filter(observedTypesSet, element))
+				continue;
+
+			String payload;
+			if (isSharedSerialisationSupported())
+				payload = cache.get(getClass(), getVisitorConfig(element), element, () -> toJson(element).toString());
+			else
+				payload = toJson(element).toString();
+			queue.add(this, updateType, key, element, payload);
+		}
 	}
 
 	protected boolean filter(Set<String> observedTypesSet, StrolchRootElement e) {
 		return observedTypesSet.contains("*") || observedTypesSet.contains(e.getType());
 	}
 
+	protected JsonObject getParams(StrolchRootElement e) {
+		JsonObject params = this.params.get(e.getType());
+		if (params == null)
+			params = this.params.get("*");
+		return params;
+	}
+
+	/**
+	 * Returns the configuration of the {@link StrolchElementToJsonVisitor} for the given element as a bit mask, so that
+	 * clients with the same configuration can share the serialized JSON
+	 *
+	 * @param e
+	 * 		the element for which to return the configuration
+	 *
+	 * @return the configuration of the visitor
+	 */
+	protected int getVisitorConfig(StrolchRootElement e) {
+		JsonObject params = getParams(e);
+		if (params == null)
+			return 0;
+
+		int config = 0;
+		if (isEnabled(params, FLAT))
+			config |= CONFIG_FLAT;
+		if (isEnabled(params, WITH_LOCATOR))
+			config |= CONFIG_WITH_LOCATOR;
+		if (isEnabled(params, WITH_VERSION))
+			config |= CONFIG_WITH_VERSION;
+		return config;
+	}
+
+	private static boolean isEnabled(JsonObject params, String option) {
+		return params.has(option) && params.get(option).getAsBoolean();
+	}
+
 	protected JsonObject toJson(StrolchRootElement e) {
 
 		StrolchElementToJsonVisitor visitor = new StrolchElementToJsonVisitor();
 
-		JsonObject params = this.params.get(e.getType());
-		if (params == null)
-			params = this.params.get("*");
-		if (params != null) {
-
-			if (params.has(FLAT) && params.get(FLAT).getAsBoolean())
-				visitor.flat();
-			if (params.has(WITH_LOCATOR) && params.get(WITH_LOCATOR).getAsBoolean())
-				visitor.withLocator();
-			if (params.has(WITH_VERSION) && params.get(WITH_VERSION).getAsBoolean())
-				visitor.withVersion();
-		}
+		int config = getVisitorConfig(e);
+		if ((config & CONFIG_FLAT) != 0)
+			visitor.flat();
+		if ((config & CONFIG_WITH_LOCATOR) != 0)
+			visitor.withLocator();
+		if ((config & CONFIG_WITH_VERSION) != 0)
+			visitor.withVersion();
 
 		return e.accept(visitor).getAsJsonObject();
 	}
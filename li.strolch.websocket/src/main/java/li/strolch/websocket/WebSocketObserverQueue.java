@@ -0,0 +1,349 @@
+package li.strolch.websocket;
+
+import static li.strolch.rest.StrolchRestfulConstants.DATA;
+import static li.strolch.rest.StrolchRestfulConstants.MSG;
+import static li.strolch.utils.helper.ExceptionHelper.getExceptionMessage;
+import static li.strolch.utils.helper.StringHelper.DASH;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import li.strolch.model.Locator;
+import li.strolch.model.StrolchRootElement;
+import li.strolch.model.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Queues all messages of a single {@link WebSocketClient} and sends them asynchronously, so that a slow client never
+ * blocks the notification of the other clients. All messages to a client are sent by this queue, so that only one
+ * message is ever in flight on the client's session.
+ * </p>
+ *
+ * <p>
+ * Messages added with {@link #addMessage(String)} are sent as soon as possible, in the order they were added.
+ * Observer updates are coalesced: Updates are only sent after a window of {@link #COALESCE_WINDOW_MS}, and if an
+ * element is changed multiple times in this window, or while a previous send is still in progress, then only its
+ * latest state is sent, i.e. the pending update is replaced instead of queued. Thus a client which is not able to
+ * keep up only receives the latest state of the elements.
+ * </p>
+ *
+ * <p>
+ * The number of pending elements is bounded by {@link #MAX_PENDING}. When more elements are pending, then the pending
+ * updates are discarded and an {@link #OBSERVER_RESYNC} message is sent instead, containing the object types of the
+ * discarded updates, so that the client reloads the elements of these object types.
+ * </p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class WebSocketObserverQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(WebSocketObserverQueue.class);
+
+	public static final String OBSERVER_RESYNC = "ObserverResync";
+	public static final String OBJECT_TYPES = "objectTypes";
+
+	public static final long COALESCE_WINDOW_MS = 50L;
+	public static final int MAX_PENDING = 10000;
+
+	private final Client client;
+	private final ScheduledExecutorService executor;
+	private final Deque<String> messages;
+	private final LinkedHashMap<PendingKey, PendingUpdate> pending;
+	private final Set<String> resyncObjectTypes;
+
+	private boolean flushScheduled;
+	private boolean sending;
+	private boolean closed;
+
+	public WebSocketObserverQueue(Client client, ScheduledExecutorService executor) {
+		this.client = client;
+		this.executor = executor;
+		this.messages = new ArrayDeque<>();
+		this.pending = new LinkedHashMap<>();
+		this.resyncObjectTypes = new TreeSet<>();
+	}
+
+	/**
+	 * Adds a message which is sent as soon as the messages before it were sent
+	 *
+	 * @param message
+	 * 		the message to send
+	 */
+	public synchronized void addMessage(String message) {
+		if (this.closed)
+			throw new IllegalStateException("Queue of client " + this.client + " is closed!");
+		this.messages.add(message);
+		scheduleFlush(0L);
+	}
+
+	/**
+	 * Adds an update for the given element, replacing any pending update of the same element
+	 *
+	 * @param source
+	 * 		the {@link WebSocketObserverHandler} for which the update is, as elements of different realms may have the same
+	 * 		{@link Locator}
+	 * @param updateType
+	 * 		the update type, one of {@link WebSocketObserverHandler#OBSERVER_ADD}, {@link
+	 * 		WebSocketObserverHandler#OBSERVER_UPDATE} or {@link WebSocketObserverHandler#OBSERVER_REMOVE}
+	 * @param objectType
+	 * 		the object type of the element, i.e. the key of the observer
+	 * @param element
+	 * 		the changed element
+	 * @param payload
+	 * 		the element serialized as JSON
+	 */
+	public synchronized void add(WebSocketObserverHandler source, String updateType, String objectType,
+			StrolchRootElement element, String payload) {
+		if (this.closed)
+			return;
+
+		// remove and put again, so that the order is that of the latest change
+		PendingKey key = new PendingKey(source, element.getLocator());
+		PendingUpdate previous = this.pending.remove(key);
+		String mergedUpdateType = merge(previous == null ? null : previous.updateType, updateType);
+		if (mergedUpdateType != null)
+			this.pending.put(key, new PendingUpdate(mergedUpdateType, objectType, element.getType(), payload));
+
+		if (this.pending.size() > MAX_PENDING) {
+			logger.warn("Client " + this.client + " has more than " + MAX_PENDING
+					+ " pending updates, discarding them and requesting a resync");
+			this.pending.values().forEach(update -> this.resyncObjectTypes.add(update.objectType));
+			this.pending.clear();
+		}
+
+		scheduleFlush(COALESCE_WINDOW_MS);
+	}
+
+	/**
+	 * Merges the update type of a pending update with the type of a new update of the same element:
+	 * <ul>
+	 * <li>added, then removed: nothing is sent, as the client never saw the element</li>
+	 * <li>added, then updated: the element is sent as added</li>
+	 * <li>updated or removed, then added: the element is sent as updated, as the client still knows the element</li>
+	 * <li>otherwise the new update type</li>
+	 * </ul>
+	 */
+	private static String merge(String previous, String next) {
+		if (previous == null)
+			return next;
+
+		if (previous.equals(WebSocketObserverHandler.OBSERVER_ADD))
+			return next.equals(WebSocketObserverHandler.OBSERVER_REMOVE) ? null : WebSocketObserverHandler.OBSERVER_ADD;
+
+		if (next.equals(WebSocketObserverHandler.OBSERVER_ADD))
+			return WebSocketObserverHandler.OBSERVER_UPDATE;
+
+		return next;
+	}
+
+	private boolean isEmpty() {
+		return this.messages.isEmpty() && this.pending.isEmpty() && this.resyncObjectTypes.isEmpty();
+	}
+
+	private void scheduleFlush(long delay) {
+		if (this.flushScheduled || this.sending || isEmpty())
+			return;
+		this.flushScheduled = true;
+		this.executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void flush() {
+		synchronized (this) {
+			this.flushScheduled = false;
+			if (this.closed || isEmpty())
+				return;
+		}
+
+		// an invalid session closes the client and thus this queue, so validate before draining
+		try {
+			this.client.assertAuthenticated("sendMessage");
+		} catch (Exception e) {
+			failed(e);
+			return;
+		}
+
+		Deque<String> messages;
+		synchronized (this) {
+			// another flush might have been scheduled in the meantime
+			if (this.closed || this.sending || isEmpty())
+				return;
+
+			messages = new ArrayDeque<>(this.messages);
+			this.messages.clear();
+			if (!this.resyncObjectTypes.isEmpty()) {
+				messages.add(toResyncMessage());
+				this.resyncObjectTypes.clear();
+			}
+			messages.addAll(toMessages());
+			this.pending.clear();
+			this.sending = true;
+		}
+
+		send(messages);
+	}
+
+	private String toResyncMessage() {
+		JsonArray objectTypesJ = new JsonArray();
+		this.resyncObjectTypes.forEach(objectTypesJ::add);
+
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(MSG, DASH);
+		jsonObject.addProperty(Tags.Json.MSG_TYPE, OBSERVER_RESYNC);
+		jsonObject.add(OBJECT_TYPES, objectTypesJ);
+		return jsonObject.toString();
+	}
+
+	private Deque<String> toMessages() {
+
+		// group the elements by update type, object type and type, keeping the order of the changes
+		Map<List<String>, List<String>> data = new LinkedHashMap<>();
+		this.pending.values().forEach(update -> data.computeIfAbsent(
+				Arrays.asList(update.updateType, update.objectType, update.type), k -> new ArrayList<>())
+				.add(update.payload));
+
+		Deque<String> messages = new ArrayDeque<>(data.size());
+		data.forEach((key, payloads) -> {
+			JsonObject jsonObject = new JsonObject();
+			jsonObject.addProperty(MSG, DASH);
+			jsonObject.addProperty(Tags.Json.MSG_TYPE, key.get(0));
+			jsonObject.addProperty(Tags.Json.OBJECT_TYPE, key.get(1));
+			jsonObject.addProperty(Tags.Json.TYPE, key.get(2));
+
+			// the payloads are already serialized, so append them to the header, without parsing them again
+			String header = jsonObject.toString();
+			StringBuilder sb = new StringBuilder(header.length() + payloads.size() * 256);
+			sb.append(header, 0, header.length() - 1);
+			sb.append(",\"").append(DATA).append("\":[");
+			sb.append(String.join(",", payloads));
+			sb.append("]}");
+			messages.add(sb.toString());
+		});
+
+		return messages;
+	}
+
+	private void send(Deque<String> messages) {
+		String message = messages.poll();
+		if (message == null) {
+			synchronized (this) {
+				this.sending = false;
+				scheduleFlush(this.messages.isEmpty() ? COALESCE_WINDOW_MS : 0L);
+			}
+			return;
+		}
+
+		try {
+			this.client.sendMessageAsync(message, result -> handleResult(result, messages));
+		} catch (Exception e) {
+			failed(e);
+		}
+	}
+
+	private void handleResult(SendResult result, Deque<String> messages) {
+		if (result.isOK())
+			send(messages);
+		else
+			failed(result.getException());
+	}
+
+	private void failed(Throwable e) {
+		synchronized (this) {
+			this.sending = false;
+			this.messages.clear();
+			this.pending.clear();
+			this.resyncObjectTypes.clear();
+		}
+
+		logger.error("Failed to send data to client " + this.client, e);
+		this.client.close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, getExceptionMessage(e)));
+	}
+
+	/**
+	 * Discards all pending messages and updates, and ignores any further updates
+	 */
+	public synchronized void close() {
+		this.closed = true;
+		this.messages.clear();
+		this.pending.clear();
+		this.resyncObjectTypes.clear();
+	}
+
+	/**
+	 * The client to which a {@link WebSocketObserverQueue} sends its messages
+	 */
+	public interface Client {
+
+		/**
+		 * Validates that the client is still authenticated, closing the client if not
+		 *
+		 * @param type
+		 * 		the type of action for which the authentication is validated
+		 */
+		void assertAuthenticated(String type);
+
+		/**
+		 * Sends the given data asynchronously, notifying the given handler when the data was sent
+		 *
+		 * @param data
+		 * 		the data to send
+		 * @param handler
+		 * 		the handler to notify with the result
+		 */
+		void sendMessageAsync(String data, SendHandler handler);
+
+		/**
+		 * Closes the client with the given reason
+		 *
+		 * @param closeReason
+		 * 		the reason for closing
+		 */
+		void close(CloseReason closeReason);
+	}
+
+	private static class PendingKey {
+		private final WebSocketObserverHandler source;
+		private final Locator locator;
+
+		private PendingKey(WebSocketObserverHandler source, Locator locator) {
+			this.source = source;
+			this.locator = locator;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			PendingKey that = (PendingKey) o;
+			return this.source == that.source && this.locator.equals(that.locator);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(this.source) + this.locator.hashCode();
+		}
+	}
+
+	private static class PendingUpdate {
+		private final String updateType;
+		private final String objectType;
+		private final String type;
+		private final String payload;
+
+		private PendingUpdate(String updateType, String objectType, String type, String payload) {
+			this.updateType = updateType;
+			this.objectType = objectType;
+			this.type = type;
+			this.payload = payload;
+		}
+	}
+}
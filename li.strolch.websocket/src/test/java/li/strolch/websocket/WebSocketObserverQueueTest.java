@@ -0,0 +1,290 @@
+package li.strolch.websocket;
+
+import static li.strolch.websocket.WebSocketObserverHandler.*;
+import static org.junit.Assert.*;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import li.strolch.model.Resource;
+import li.strolch.model.Tags;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WebSocketObserverQueueTest {
+
+	private static final String OBJECT_TYPE = Tags.RESOURCE;
+	private static final long TIMEOUT_MS = 5000L;
+
+	private ScheduledExecutorService executor;
+	private TestClient client;
+	private WebSocketObserverQueue queue;
+
+	@Before
+	public void before() {
+		this.executor = Executors.newSingleThreadScheduledExecutor();
+		this.client = new TestClient();
+		this.queue = new WebSocketObserverQueue(this.client, this.executor);
+	}
+
+	@After
+	public void after() {
+		this.queue.close();
+		this.executor.shutdownNow();
+	}
+
+	private static Resource resource(String id) {
+		return new Resource(id, id, "MyType");
+	}
+
+	private static String payload(String id, int version) {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(Tags.Json.ID, id);
+		jsonObject.addProperty("version", version);
+		return jsonObject.toString();
+	}
+
+	private void add(String updateType, String id, int version) {
+		this.queue.add(null, updateType, OBJECT_TYPE, resource(id), payload(id, version));
+	}
+
+	@Test
+	public void shouldSendAddedThenUpdatedAsAdded() throws Exception {
+		add(OBSERVER_ADD, "res1", 1);
+		add(OBSERVER_UPDATE, "res1", 2);
+
+		JsonObject message = this.client.nextMessage();
+		assertEquals(OBSERVER_ADD, message.get(Tags.Json.MSG_TYPE).getAsString());
+		JsonArray data = message.get("data").getAsJsonArray();
+		assertEquals(1, data.size());
+		assertEquals(2, data.get(0).getAsJsonObject().get("version").getAsInt());
+		this.client.assertNoMoreMessages();
+	}
+
+	@Test
+	public void shouldNotSendAddedThenRemoved() throws Exception {
+		add(OBSERVER_ADD, "res1", 1);
+		add(OBSERVER_REMOVE, "res1", 2);
+		add(OBSERVER_ADD, "res2", 1);
+
+		JsonObject message = this.client.nextMessage();
+		assertEquals(OBSERVER_ADD, message.get(Tags.Json.MSG_TYPE).getAsString());
+		JsonArray data = message.get("data").getAsJsonArray();
+		assertEquals(1, data.size());
+		assertEquals("res2", data.get(0).getAsJsonObject().get(Tags.Json.ID).getAsString());
+		this.client.assertNoMoreMessages();
+	}
+
+	@Test
+	public void shouldSendRemovedThenAddedAsUpdated() throws Exception {
+		add(OBSERVER_REMOVE, "res1", 1);
+		add(OBSERVER_ADD, "res1", 2);
+
+		JsonObject message = this.client.nextMessage();
+		assertEquals(OBSERVER_UPDATE, message.get(Tags.Json.MSG_TYPE).getAsString());
+		assertEquals(2,
+				message.get("data").getAsJsonArray().get(0).getAsJsonObject().get("version").getAsInt());
+		this.client.assertNoMoreMessages();
+	}
+
+	@Test
+	public void shouldCoalesceUpdatesToLatestState() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			add(OBSERVER_UPDATE, "res1", i);
+			add(OBSERVER_UPDATE, "res2", i);
+		}
+
+		JsonObject message = this.client.nextMessage();
+		assertEquals(OBSERVER_UPDATE, message.get(Tags.Json.MSG_TYPE).getAsString());
+		JsonArray data = message.get("data").getAsJsonArray();
+		assertEquals(2, data.size());
+		assertEquals(99, data.get(0).getAsJsonObject().get("version").getAsInt());
+		assertEquals(99, data.get(1).getAsJsonObject().get("version").getAsInt());
+		this.client.assertNoMoreMessages();
+	}
+
+	@Test
+	public void shouldCoalesceUpdatesWhileSending() throws Exception {
+		this.client.holdSends();
+		add(OBSERVER_UPDATE, "res1", 1);
+		this.client.awaitInFlight();
+
+		// while the first update is in flight, the element is updated multiple times
+		for (int i = 2; i <= 10; i++) {
+			add(OBSERVER_UPDATE, "res1", i);
+		}
+		this.client.releaseSends();
+
+		assertEquals(1, this.client.nextMessage().get("data").getAsJsonArray().get(0).getAsJsonObject().get("version")
+				.getAsInt());
+		JsonArray data = this.client.nextMessage().get("data").getAsJsonArray();
+		assertEquals(1, data.size());
+		assertEquals(10, data.get(0).getAsJsonObject().get("version").getAsInt());
+		this.client.assertNoMoreMessages();
+	}
+
+	@Test
+	public void shouldResyncOnOverflow() throws Exception {
+		this.client.holdSends();
+		this.queue.addMessage("{\"msg\":\"first\"}");
+		this.client.awaitInFlight();
+
+		// more elements than can be pending are changed while the client is blocked
+		for (int i = 0; i <= WebSocketObserverQueue.MAX_PENDING; i++) {
+			add(OBSERVER_UPDATE, "res" + i, 1);
+		}
+		add(OBSERVER_UPDATE, "latest", 1);
+		this.client.releaseSends();
+
+		assertEquals("first", this.client.nextMessage().get("msg").getAsString());
+
+		JsonObject resync = this.client.nextMessage();
+		assertEquals(WebSocketObserverQueue.OBSERVER_RESYNC, resync.get(Tags.Json.MSG_TYPE).getAsString());
+		JsonArray objectTypes = resync.get(WebSocketObserverQueue.OBJECT_TYPES).getAsJsonArray();
+		assertEquals(1, objectTypes.size());
+		assertEquals(OBJECT_TYPE, objectTypes.get(0).getAsString());
+
+		// changes after the overflow are still sent
+		JsonArray data = this.client.nextMessage().get("data").getAsJsonArray();
+		assertEquals(1, data.size());
+		assertEquals("latest", data.get(0).getAsJsonObject().get(Tags.Json.ID).getAsString());
+		this.client.assertNoMoreMessages();
+	}
+
+	@Test
+	public void shouldSendMessagesInOrderOneAtATime() throws Exception {
+		this.client.completeAsynchronously();
+
+		for (int i = 0; i < 20; i++) {
+			this.queue.addMessage("{\"msg\":\"" + i + "\"}");
+			add(OBSERVER_UPDATE, "res1", i);
+		}
+
+		List<String> messages = new ArrayList<>();
+		JsonObject message;
+		int version = -1;
+		while ((message = this.client.pollMessage(500L)) != null) {
+			if (message.has(Tags.Json.MSG_TYPE))
+				version = message.get("data").getAsJsonArray().get(0).getAsJsonObject().get("version").getAsInt();
+			else
+				messages.add(message.get("msg").getAsString());
+		}
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			expected.add(String.valueOf(i));
+		}
+		assertEquals(expected, messages);
+		assertEquals(19, version);
+		assertFalse("Messages were sent concurrently", this.client.concurrentSend.get());
+	}
+
+	@Test
+	public void shouldCloseClientOnFailedSend() throws Exception {
+		this.client.failSends();
+		add(OBSERVER_UPDATE, "res1", 1);
+		assertTrue(this.client.closed.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+	}
+
+	private static class TestClient implements WebSocketObserverQueue.Client {
+
+		private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+		private final AtomicBoolean inFlight = new AtomicBoolean();
+		private final AtomicBoolean concurrentSend = new AtomicBoolean();
+		private final CountDownLatch closed = new CountDownLatch(1);
+		private final ExecutorService completer = Executors.newSingleThreadExecutor();
+
+		private volatile CountDownLatch release;
+		private volatile CountDownLatch sending = new CountDownLatch(1);
+		private volatile boolean async;
+		private volatile boolean fail;
+
+		void holdSends() {
+			this.release = new CountDownLatch(1);
+			this.async = true;
+		}
+
+		void releaseSends() {
+			this.release.countDown();
+		}
+
+		void completeAsynchronously() {
+			this.async = true;
+		}
+
+		void failSends() {
+			this.fail = true;
+		}
+
+		void awaitInFlight() throws InterruptedException {
+			assertTrue(this.sending.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+		}
+
+		JsonObject nextMessage() throws InterruptedException {
+			JsonObject message = pollMessage(TIMEOUT_MS);
+			assertNotNull("No message received", message);
+			return message;
+		}
+
+		JsonObject pollMessage(long timeoutMs) throws InterruptedException {
+			String message = this.sent.poll(timeoutMs, TimeUnit.MILLISECONDS);
+			return message == null ? null : JsonParser.parseString(message).getAsJsonObject();
+		}
+
+		void assertNoMoreMessages() throws InterruptedException {
+			assertNull(pollMessage(3 * WebSocketObserverQueue.COALESCE_WINDOW_MS));
+			this.completer.shutdownNow();
+		}
+
+		@Override
+		public void assertAuthenticated(String type) {
+			// always authenticated
+		}
+
+		@Override
+		public void sendMessageAsync(String data, SendHandler handler) {
+			if (!this.inFlight.compareAndSet(false, true))
+				this.concurrentSend.set(true);
+			this.sending.countDown();
+
+			if (this.fail) {
+				this.inFlight.set(false);
+				handler.onResult(new SendResult(new IllegalStateException("Failed")));
+				return;
+			}
+
+			Runnable complete = () -> {
+				try {
+					CountDownLatch release = this.release;
+					if (release != null)
+						release.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+					Thread.sleep(1L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				this.sent.add(data);
+				this.inFlight.set(false);
+				handler.onResult(new SendResult());
+			};
+
+			if (this.async)
+				this.completer.execute(complete);
+			else
+				complete.run();
+		}
+
+		@Override
+		public void close(CloseReason closeReason) {
+			this.closed.countDown();
+		}
+	}
+}
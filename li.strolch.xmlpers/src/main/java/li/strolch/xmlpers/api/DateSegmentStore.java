@@ -0,0 +1,638 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.api;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import li.strolch.utils.collections.DateRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * <p>
+ * Stores objects which are identified by an ID and a date, e.g. audits or log messages, in append-only segment files,
+ * partitioned by type and by day, instead of storing each object in its own file.
+ * </p>
+ *
+ * <p>
+ * Each segment file <code>&lt;type&gt;/&lt;yyyy-MM-dd&gt;.seg</code> contains the XML of the objects, as written by
+ * the {@link SaxParser} of the object, one after the other. Next to it, the index file <code>.idx</code> contains a
+ * record for each added, updated or removed object, with the object's ID, time, and the position of its XML in the
+ * segment file. Updating an object appends a new version and removing an object appends a tombstone to the index, thus
+ * no existing data is modified. When more than half of the records of a segment are obsolete, the segment is
+ * compacted.
+ * </p>
+ *
+ * <p>
+ * Queries by date range only read the indexes of the segments overlapping the date range, and sizes are computed from
+ * the indexes alone. Removing by date range deletes the segments lying completely in the date range.
+ * </p>
+ *
+ * <p>
+ * The indexes are read on first access and then kept in memory. All methods are synchronized.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of object being stored
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class DateSegmentStore<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(DateSegmentStore.class);
+
+	public static final String SEGMENT_SUFFIX = ".seg"; //$NON-NLS-1$
+	public static final String INDEX_SUFFIX = ".idx"; //$NON-NLS-1$
+	private static final String TMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	private static final byte OP_ADD = 'A';
+	private static final byte OP_REMOVE = 'R';
+	private static final int COMPACTION_MIN_OBSOLETE = 100;
+
+	private final File basePath;
+	private final Supplier<SaxParser<T>> parserSupplier;
+	private final Function<T, String> idFunction;
+	private final Function<T, Long> timeFunction;
+	private final ZoneId zoneId;
+
+	private final XMLOutputFactory outputFactory;
+	private final SAXParserFactory parserFactory;
+	private final Map<String, TreeMap<LocalDate, Segment>> segmentsByType;
+
+	/**
+	 * @param basePath
+	 * 		the path in which to create a directory for each type, created when the first object is added
+	 * @param parserSupplier
+	 * 		supplies the {@link SaxParser} with which to write and read the objects
+	 * @param idFunction
+	 * 		returns the ID of an object
+	 * @param timeFunction
+	 * 		returns the time of an object in milliseconds since the epoch, by which the objects are partitioned
+	 */
+	public DateSegmentStore(File basePath, Supplier<SaxParser<T>> parserSupplier, Function<T, String> idFunction,
+			Function<T, Long> timeFunction) {
+		this.basePath = basePath;
+		this.parserSupplier = parserSupplier;
+		this.idFunction = idFunction;
+		this.timeFunction = timeFunction;
+		this.zoneId = ZoneId.systemDefault();
+
+		this.outputFactory = XMLOutputFactory.newInstance();
+		this.parserFactory = SAXParserFactory.newInstance();
+		this.segmentsByType = new HashMap<>();
+	}
+
+	public File getBasePath() {
+		return this.basePath;
+	}
+
+	public synchronized Set<String> queryTypes() {
+		Set<String> types = new HashSet<>();
+		File[] typeDirs = this.basePath.listFiles(File::isDirectory);
+		if (typeDirs == null)
+			return types;
+
+		for (File typeDir : typeDirs) {
+			if (!getSegments(typeDir.getName()).isEmpty())
+				types.add(typeDir.getName());
+		}
+
+		return types;
+	}
+
+	public synchronized boolean hasElement(String type, String id) {
+		return findSegment(type, id, null) != null;
+	}
+
+	public synchronized T queryById(String type, String id) {
+		Segment segment = findSegment(type, id, null);
+		if (segment == null)
+			return null;
+		return read(segment, Collections.singletonList(segment.entries().get(id))).get(0);
+	}
+
+	public synchronized long querySize(String type, DateRange dateRange) {
+		long size = 0L;
+		for (Segment segment : getSegments(type, dateRange)) {
+			if (segment.isIn(dateRange))
+				size += segment.entries().size();
+			else
+				size += segment.entries().values().stream().filter(e -> e.isIn(dateRange)).count();
+		}
+		return size;
+	}
+
+	public synchronized List<T> queryAll(String type, DateRange dateRange) {
+		List<T> result = new ArrayList<>();
+		for (Segment segment : getSegments(type, dateRange)) {
+			List<Entry> entries = new ArrayList<>(segment.entries().values());
+			if (!segment.isIn(dateRange))
+				entries.removeIf(e -> !e.isIn(dateRange));
+			result.addAll(read(segment, entries));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the latest objects of the given type, ordered by their time, the latest first
+	 *
+	 * @param type
+	 * 		the type of objects to return
+	 * @param maxNr
+	 * 		the maximum number of objects to return
+	 *
+	 * @return the latest objects
+	 */
+	public synchronized List<T> queryLatest(String type, int maxNr) {
+		List<T> result = new ArrayList<>();
+		for (Segment segment : getSegments(type).descendingMap().values()) {
+			if (result.size() >= maxNr)
+				break;
+
+			// the last added first, if the time is equal
+			List<Entry> entries = new ArrayList<>(segment.entries().values());
+			Collections.reverse(entries);
+			entries.sort(Comparator.comparingLong((Entry e) -> e.time).reversed());
+			if (entries.size() > maxNr - result.size())
+				entries = entries.subList(0, maxNr - result.size());
+			result.addAll(read(segment, entries));
+		}
+		return result;
+	}
+
+	public synchronized void add(String type, List<T> objects) {
+		for (Map.Entry<Segment, List<T>> entry : bySegment(type, objects).entrySet()) {
+			append(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public synchronized void update(String type, List<T> objects) {
+		Map<Segment, List<T>> bySegment = bySegment(type, objects);
+
+		// if the time of an object was changed, then it is removed from its previous segment
+		for (Map.Entry<Segment, List<T>> entry : bySegment.entrySet()) {
+			for (T object : entry.getValue()) {
+				String id = this.idFunction.apply(object);
+				Segment previous = findSegment(type, id, entry.getKey());
+				if (previous != null && previous != entry.getKey())
+					removeFrom(previous, Collections.singletonList(id));
+			}
+		}
+
+		for (Map.Entry<Segment, List<T>> entry : bySegment.entrySet()) {
+			append(entry.getKey(), entry.getValue());
+			compactIfRequired(entry.getKey());
+		}
+	}
+
+	public synchronized long remove(String type, List<T> objects) {
+		long removed = 0L;
+		Map<Segment, List<String>> idsBySegment = new LinkedHashMap<>();
+		for (T object : objects) {
+			String id = this.idFunction.apply(object);
+			Segment segment = findSegment(type, id, getSegment(type, dayOf(object), false));
+			if (segment != null)
+				idsBySegment.computeIfAbsent(segment, s -> new ArrayList<>()).add(id);
+		}
+
+		for (Map.Entry<Segment, List<String>> entry : idsBySegment.entrySet()) {
+			removed += removeFrom(entry.getKey(), entry.getValue());
+			compactIfRequired(entry.getKey());
+		}
+
+		return removed;
+	}
+
+	public synchronized long removeAll(String type, DateRange dateRange) {
+		long removed = 0L;
+		for (Segment segment : getSegments(type, dateRange)) {
+			if (segment.isIn(dateRange)) {
+				removed += segment.entries().size();
+				delete(segment);
+			} else {
+				List<String> ids = new ArrayList<>();
+				segment.entries().forEach((id, e) -> {
+					if (e.isIn(dateRange))
+						ids.add(id);
+				});
+				removed += removeFrom(segment, ids);
+				compactIfRequired(segment);
+			}
+		}
+		return removed;
+	}
+
+	private LocalDate dayOf(T object) {
+		return Instant.ofEpochMilli(this.timeFunction.apply(object)).atZone(this.zoneId).toLocalDate();
+	}
+
+	private Map<Segment, List<T>> bySegment(String type, List<T> objects) {
+		Map<Segment, List<T>> bySegment = new LinkedHashMap<>();
+		for (T object : objects) {
+			Segment segment = getSegment(type, dayOf(object), true);
+			bySegment.computeIfAbsent(segment, s -> new ArrayList<>()).add(object);
+		}
+		return bySegment;
+	}
+
+	private Segment findSegment(String type, String id, Segment first) {
+		if (first != null && first.entries().containsKey(id))
+			return first;
+
+		for (Segment segment : getSegments(type).descendingMap().values()) {
+			if (segment != first && segment.entries().containsKey(id))
+				return segment;
+		}
+
+		return null;
+	}
+
+	private TreeMap<LocalDate, Segment> getSegments(String type) {
+		return this.segmentsByType.computeIfAbsent(type, this::scanSegments);
+	}
+
+	private Collection<Segment> getSegments(String type, DateRange dateRange) {
+		TreeMap<LocalDate, Segment> segments = getSegments(type);
+		if (segments.isEmpty())
+			return Collections.emptyList();
+
+		LocalDate from = dateRange.isFromBounded() ? dateRange.getFromDateZdt().withZoneSameInstant(this.zoneId)
+				.toLocalDate() : segments.firstKey();
+		LocalDate to = dateRange.isToBounded() ? dateRange.getToDateZdt().withZoneSameInstant(this.zoneId)
+				.toLocalDate() : segments.lastKey();
+		if (from.isAfter(to))
+			return Collections.emptyList();
+
+		// copy, as segments might be deleted while iterating
+		return new ArrayList<>(segments.subMap(from, true, to, true).values());
+	}
+
+	private Segment getSegment(String type, LocalDate day, boolean create) {
+		TreeMap<LocalDate, Segment> segments = getSegments(type);
+		Segment segment = segments.get(day);
+		if (segment == null && create) {
+			File typeDir = new File(this.basePath, type);
+			if (!typeDir.exists() && !typeDir.mkdirs())
+				throw new XmlPersistenceException("Failed to create path " + typeDir.getAbsolutePath());
+			segment = new Segment(type, day, typeDir);
+			segments.put(day, segment);
+		}
+		return segment;
+	}
+
+	private TreeMap<LocalDate, Segment> scanSegments(String type) {
+		TreeMap<LocalDate, Segment> segments = new TreeMap<>();
+
+		File typeDir = new File(this.basePath, type);
+		File[] files = typeDir.listFiles();
+		if (files == null)
+			return segments;
+
+		for (File file : files) {
+			String name = file.getName();
+			if (name.endsWith(INDEX_SUFFIX + TMP_SUFFIX))
+				recoverCompaction(typeDir, name.substring(0, name.length() - (INDEX_SUFFIX + TMP_SUFFIX).length()));
+		}
+
+		files = typeDir.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+		if (files == null)
+			return segments;
+
+		for (File file : files) {
+			String name = file.getName();
+			LocalDate day = LocalDate.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+			segments.put(day, new Segment(type, day, typeDir));
+		}
+
+		return segments;
+	}
+
+	private void recoverCompaction(File typeDir, String dayS) {
+		File tmpSegFile = new File(typeDir, dayS + SEGMENT_SUFFIX + TMP_SUFFIX);
+		File tmpIdxFile = new File(typeDir, dayS + INDEX_SUFFIX + TMP_SUFFIX);
+		try {
+			if (tmpSegFile.exists()) {
+				// compaction did not complete, so the previous files are still valid
+				Files.delete(tmpSegFile.toPath());
+				Files.delete(tmpIdxFile.toPath());
+			} else {
+				// segment file was already replaced, so complete by replacing the index
+				Files.move(tmpIdxFile.toPath(), new File(typeDir, dayS + INDEX_SUFFIX).toPath(), REPLACE_EXISTING,
+						ATOMIC_MOVE);
+			}
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to recover compaction of segment " + dayS + " in " + typeDir,
+					e);
+		}
+	}
+
+	private void append(Segment segment, List<T> objects) {
+		Map<String, Entry> entries = segment.entries();
+		try (FileOutputStream segOut = new FileOutputStream(segment.segFile, true);
+				DataOutputStream idxOut = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(segment.idxFile, true)))) {
+
+			long offset = segOut.getChannel().position();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(objects.size() * 512);
+			List<Entry> newEntries = new ArrayList<>(objects.size());
+			for (T object : objects) {
+				int start = bytes.size();
+				writeXml(object, bytes);
+				Entry entry = new Entry(this.idFunction.apply(object), this.timeFunction.apply(object),
+						offset + start, bytes.size() - start);
+				newEntries.add(entry);
+				bytes.write('\n');
+			}
+
+			// first the data, then the index referencing the data
+			bytes.writeTo(segOut);
+			segOut.flush();
+
+			for (Entry entry : newEntries) {
+				writeIndexRecord(idxOut, OP_ADD, entry);
+				if (entries.put(entry.id, entry) != null)
+					segment.nrOfObsolete++;
+			}
+
+		} catch (IOException | XMLStreamException e) {
+			throw new XmlPersistenceException(
+					MessageFormat.format("Failed to append to segment {0}", segment.segFile.getAbsolutePath()), e);
+		}
+	}
+
+	private long removeFrom(Segment segment, List<String> ids) {
+		Map<String, Entry> entries = segment.entries();
+		long removed = 0L;
+		try (DataOutputStream idxOut = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(segment.idxFile, true)))) {
+			for (String id : ids) {
+				Entry entry = entries.remove(id);
+				if (entry == null)
+					continue;
+				writeIndexRecord(idxOut, OP_REMOVE, entry);
+				segment.nrOfObsolete += 2;
+				removed++;
+			}
+		} catch (IOException e) {
+			throw new XmlPersistenceException(
+					MessageFormat.format("Failed to write index {0}", segment.idxFile.getAbsolutePath()), e);
+		}
+		return removed;
+	}
+
+	private void compactIfRequired(Segment segment) {
+		if (segment.entries == null)
+			return;
+
+		if (segment.entries.isEmpty()) {
+			delete(segment);
+			return;
+		}
+
+		if (segment.nrOfObsolete < COMPACTION_MIN_OBSOLETE || segment.nrOfObsolete <= segment.entries.size())
+			return;
+
+		File tmpSegFile = new File(segment.segFile.getParentFile(), segment.segFile.getName() + TMP_SUFFIX);
+		File tmpIdxFile = new File(segment.idxFile.getParentFile(), segment.idxFile.getName() + TMP_SUFFIX);
+
+		List<Entry> entries = new ArrayList<>(segment.entries.values());
+		entries.sort(Comparator.comparingLong(e -> e.offset));
+		Map<String, Entry> compacted = new LinkedHashMap<>();
+
+		try (RandomAccessFile in = new RandomAccessFile(segment.segFile, "r");
+				OutputStream segOut = new BufferedOutputStream(new FileOutputStream(tmpSegFile));
+				DataOutputStream idxOut = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(tmpIdxFile)))) {
+
+			long offset = 0L;
+			for (Entry entry : entries) {
+				byte[] bytes = readBytes(in, entry);
+				segOut.write(bytes);
+				segOut.write('\n');
+
+				Entry newEntry = new Entry(entry.id, entry.time, offset, entry.length);
+				writeIndexRecord(idxOut, OP_ADD, newEntry);
+				compacted.put(newEntry.id, newEntry);
+				offset += entry.length + 1;
+			}
+
+		} catch (IOException e) {
+			logger.error("Failed to compact segment " + segment.segFile.getAbsolutePath(), e);
+			if (tmpSegFile.exists() && !tmpSegFile.delete())
+				logger.error("Failed to delete " + tmpSegFile.getAbsolutePath());
+			if (tmpIdxFile.exists() && !tmpIdxFile.delete())
+				logger.error("Failed to delete " + tmpIdxFile.getAbsolutePath());
+			return;
+		}
+
+		try {
+			Files.move(tmpSegFile.toPath(), segment.segFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+			Files.move(tmpIdxFile.toPath(), segment.idxFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to compact segment " + segment.segFile.getAbsolutePath(), e);
+		}
+
+		if (logger.isDebugEnabled())
+			logger.debug(MessageFormat.format("Compacted segment {0} from {1} to {2} records",
+					segment.segFile.getAbsolutePath(), segment.nrOfObsolete + compacted.size(), compacted.size()));
+
+		segment.entries = compacted;
+		segment.nrOfObsolete = 0;
+	}
+
+	private void delete(Segment segment) {
+		if ((segment.segFile.exists() && !segment.segFile.delete()) || (segment.idxFile.exists() && !segment.idxFile
+				.delete())) {
+			throw new XmlPersistenceException("Failed to delete segment " + segment.segFile.getAbsolutePath());
+		}
+
+		TreeMap<LocalDate, Segment> segments = getSegments(segment.type);
+		segments.remove(segment.day);
+		if (segments.isEmpty()) {
+			File typeDir = segment.segFile.getParentFile();
+			String[] remaining = typeDir.list();
+			if (remaining != null && remaining.length == 0 && !typeDir.delete())
+				logger.error("Failed to delete empty directory " + typeDir.getAbsolutePath());
+		}
+	}
+
+	private List<T> read(Segment segment, List<Entry> entries) {
+		List<T> result = new ArrayList<>(entries.size());
+		if (entries.isEmpty())
+			return result;
+
+		try (RandomAccessFile in = new RandomAccessFile(segment.segFile, "r")) {
+			for (Entry entry : entries) {
+				result.add(parseXml(readBytes(in, entry)));
+			}
+		} catch (IOException | ParserConfigurationException | SAXException e) {
+			throw new XmlPersistenceException(
+					MessageFormat.format("Failed to read segment {0}", segment.segFile.getAbsolutePath()), e);
+		}
+
+		return result;
+	}
+
+	private static byte[] readBytes(RandomAccessFile in, Entry entry) throws IOException {
+		byte[] bytes = new byte[entry.length];
+		in.seek(entry.offset);
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	private void writeXml(T object, OutputStream out) throws XMLStreamException {
+		XMLStreamWriter xmlWriter = this.outputFactory.createXMLStreamWriter(out, FileIo.DEFAULT_ENCODING);
+		SaxParser<T> saxParser = this.parserSupplier.get();
+		saxParser.setObject(object);
+		saxParser.write(xmlWriter);
+		// closes any element left open, without writing a declaration, as none was started
+		xmlWriter.writeEndDocument();
+		xmlWriter.flush();
+		xmlWriter.close();
+	}
+
+	private T parseXml(byte[] bytes) throws ParserConfigurationException, SAXException, IOException {
+		SaxParser<T> saxParser = this.parserSupplier.get();
+		this.parserFactory.newSAXParser().parse(new ByteArrayInputStream(bytes), saxParser.getDefaultHandler());
+		return saxParser.getObject();
+	}
+
+	private static void writeIndexRecord(DataOutputStream out, byte op, Entry entry) throws IOException {
+		out.writeByte(op);
+		out.writeUTF(entry.id);
+		out.writeLong(entry.time);
+		out.writeLong(entry.offset);
+		out.writeInt(entry.length);
+	}
+
+	private class Segment {
+		private final String type;
+		private final LocalDate day;
+		private final File segFile;
+		private final File idxFile;
+		private final long startTime;
+		private final long endTime;
+
+		private Map<String, Entry> entries;
+		private int nrOfObsolete;
+
+		private Segment(String type, LocalDate day, File typeDir) {
+			this.type = type;
+			this.day = day;
+			this.segFile = new File(typeDir, day + SEGMENT_SUFFIX);
+			this.idxFile = new File(typeDir, day + INDEX_SUFFIX);
+			this.startTime = day.atStartOfDay(zoneId).toInstant().toEpochMilli();
+			this.endTime = day.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli() - 1L;
+		}
+
+		private boolean isIn(DateRange dateRange) {
+			return dateRange.contains(new Date(this.startTime)) && dateRange.contains(new Date(this.endTime));
+		}
+
+		private Map<String, Entry> entries() {
+			if (this.entries == null)
+				load();
+			return this.entries;
+		}
+
+		private void load() {
+			this.entries = new LinkedHashMap<>();
+			this.nrOfObsolete = 0;
+			if (!this.idxFile.exists())
+				return;
+
+			byte[] bytes;
+			try {
+				bytes = Files.readAllBytes(this.idxFile.toPath());
+			} catch (IOException e) {
+				throw new XmlPersistenceException("Failed to read index " + this.idxFile.getAbsolutePath(), e);
+			}
+
+			long segLength = this.segFile.length();
+			int position = 0;
+			try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+				while (in.available() > 0) {
+					byte op = in.readByte();
+					Entry entry = new Entry(in.readUTF(), in.readLong(), in.readLong(), in.readInt());
+					if (op == OP_ADD) {
+						if (entry.offset + entry.length > segLength)
+							break;
+						if (this.entries.put(entry.id, entry) != null)
+							this.nrOfObsolete++;
+					} else if (op == OP_REMOVE) {
+						if (this.entries.remove(entry.id) != null)
+							this.nrOfObsolete += 2;
+					} else {
+						break;
+					}
+
+					position = bytes.length - in.available();
+				}
+			} catch (EOFException e) {
+				// truncated record, handled below
+			} catch (IOException e) {
+				throw new XmlPersistenceException("Failed to read index " + this.idxFile.getAbsolutePath(), e);
+			}
+
+			// a write was interrupted, so remove the incomplete record, before appending new records
+			if (position < bytes.length) {
+				logger.warn(MessageFormat.format("Removing {0} bytes of incomplete records at end of index {1}",
+						bytes.length - position, this.idxFile.getAbsolutePath()));
+				try (RandomAccessFile file = new RandomAccessFile(this.idxFile, "rw")) {
+					file.setLength(position);
+				} catch (IOException e) {
+					throw new XmlPersistenceException("Failed to truncate index " + this.idxFile.getAbsolutePath(),
+							e);
+				}
+			}
+		}
+	}
+
+	private static class Entry {
+		private final String id;
+		private final long time;
+		private final long offset;
+		private final int length;
+
+		private Entry(String id, long time, long offset, int length) {
+			this.id = id;
+			this.time = time;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		private boolean isIn(DateRange dateRange) {
+			return dateRange.contains(new Date(this.time));
+		}
+	}
+}
@@ -17,6 +17,8 @@ package li.strolch.xmlpers.api;
 
 import java.io.File;
 import java.text.MessageFormat;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import li.strolch.utils.dbc.DBC;
 import li.strolch.xmlpers.impl.PathBuilder;
@@ -31,6 +33,11 @@ public class FileDao {
 	private final PersistenceTransaction tx;
 	private final boolean verbose;
 	private final PathBuilder pathBuilder;
+	private final LogStructuredStore logStore;
+	private LogStructuredStore.Batch batch;
+	private final FileGroupCommitter groupCommitter;
+	private FileGroupCommitter.Batch fileBatch;
+	private Set<ObjectRef> deletedParents;
 
 	public FileDao(PersistenceTransaction tx, PathBuilder pathBuilder, boolean verbose) {
 		DBC.PRE.assertNotNull("TX must not be null!", tx);
@@ -38,6 +45,8 @@ public class FileDao {
 		this.tx = tx;
 		this.pathBuilder = pathBuilder;
 		this.verbose = verbose;
+		this.logStore = tx.getManager().getLogStore();
+		this.groupCommitter = tx.getManager().getGroupCommitter();
 	}
 
 	private void assertIsIdRef(IoOperation ioOperation, ObjectRef objectRef) {
@@ -51,6 +60,8 @@ public class FileDao {
 	public <T> boolean exists(PersistenceContext<T> ctx) {
 		ObjectRef objectRef = ctx.getObjectRef();
 		assertIsIdRef(IoOperation.READ, objectRef);
+		if (this.logStore != null)
+			return this.logStore.exists(objectRef.getName());
 		File path = objectRef.getPath(this.pathBuilder);
 		return path.exists();
 	}
@@ -58,17 +69,31 @@ public class FileDao {
 	public <T> void performCreate(PersistenceContext<T> ctx) {
 		ObjectRef objectRef = ctx.getObjectRef();
 		assertIsIdRef(IoOperation.CREATE, objectRef);
+		if (this.logStore != null) {
+			assertKeyExists(IoOperation.CREATE, objectRef, false);
+			getBatch().put(objectRef.getName(), this.tx.getManager().getIoMode().toBytes(ctx), lastModified(ctx));
+			return;
+		}
+
 		File path = objectRef.getPath(this.pathBuilder);
 		logPath(IoOperation.CREATE, path, objectRef);
 		assertPathNotExists(path, objectRef);
 		createMissingParents(path, objectRef);
-		FileIo fileIo = new FileIo(path);
-		this.tx.getManager().getIoMode().write(ctx, fileIo);
+		write(ctx, path);
 	}
 
 	public <T> void performRead(PersistenceContext<T> ctx) {
 		ObjectRef objectRef = ctx.getObjectRef();
 		assertIsIdRef(IoOperation.READ, objectRef);
+		if (this.logStore != null) {
+			byte[] bytes = this.logStore.read(objectRef.getName());
+			if (bytes == null)
+				ctx.setObject(null);
+			else
+				this.tx.getManager().getIoMode().fromBytes(ctx, bytes);
+			return;
+		}
+
 		File path = objectRef.getPath(this.pathBuilder);
 		if (!path.exists()) {
 			ctx.setObject(null);
@@ -83,19 +108,36 @@ public class FileDao {
 	public <T> void performUpdate(PersistenceContext<T> ctx) {
 		ObjectRef objectRef = ctx.getObjectRef();
 		assertIsIdRef(IoOperation.UPDATE, objectRef);
+		if (this.logStore != null) {
+			assertKeyExists(IoOperation.UPDATE, objectRef, true);
+			getBatch().put(objectRef.getName(), this.tx.getManager().getIoMode().toBytes(ctx), lastModified(ctx));
+			return;
+		}
+
 		File path = objectRef.getPath(this.pathBuilder);
 		logPath(IoOperation.UPDATE, path, objectRef);
 		assertPathIsFileAndWritable(path, objectRef);
-		FileIo fileIo = new FileIo(path);
-		this.tx.getManager().getIoMode().write(ctx, fileIo);
+		write(ctx, path);
 	}
 
 	public <T> void performDelete(PersistenceContext<T> ctx) {
 		ObjectRef objectRef = ctx.getObjectRef();
 		assertIsIdRef(IoOperation.DELETE, objectRef);
+		if (this.logStore != null) {
+			assertKeyExists(IoOperation.DELETE, objectRef, true);
+			getBatch().delete(objectRef.getName());
+			return;
+		}
+
 		File path = objectRef.getPath(this.pathBuilder);
 		logPath(IoOperation.DELETE, path, objectRef);
 		assertPathIsFileAndWritable(path, objectRef);
+		if (this.groupCommitter != null) {
+			getFileBatch().delete(path);
+			this.deletedParents.add(objectRef.getParent(this.tx));
+			return;
+		}
+
 		if (!path.delete()) {
 			String msg = "Failed to delete file {0}"; //$NON-NLS-1$
 			throw new RuntimeException(MessageFormat.format(msg, path.getAbsolutePath()));
@@ -105,6 +147,81 @@ public class FileDao {
 		deleteEmptyDirectories(parentRef);
 	}
 
+	private <T> void write(PersistenceContext<T> ctx, File path) {
+		if (this.groupCommitter == null) {
+			this.tx.getManager().getIoMode().write(ctx, new FileIo(path));
+			return;
+		}
+
+		FileIo fileIo = new FileIo(path, true);
+		this.tx.getManager().getIoMode().write(ctx, fileIo);
+		getFileBatch().write(fileIo.getTmpPath(), path, ctx.getLastModified());
+	}
+
+	/**
+	 * Writes the changes performed since the last flush to the {@link LogStructuredStore}, if this DAO is used with
+	 * the {@link StorageMode#LOG}. With the {@link StorageMode#FILES} the changes are written as they are performed,
+	 * but when using a {@link FileGroupCommitter}, they are only made durable and visible with this flush
+	 */
+	public void flush() {
+		if (this.fileBatch != null) {
+			FileGroupCommitter.Batch fileBatch = this.fileBatch;
+			this.fileBatch = null;
+			this.groupCommitter.commit(fileBatch);
+
+			for (ObjectRef parentRef : this.deletedParents) {
+				if (parentRef.getPath(this.pathBuilder).isDirectory())
+					deleteEmptyDirectories(parentRef);
+			}
+			this.deletedParents = null;
+		}
+
+		if (this.batch == null)
+			return;
+		LogStructuredStore.Batch batch = this.batch;
+		this.batch = null;
+		this.logStore.commit(batch);
+	}
+
+	/**
+	 * Discards the changes performed since the last flush, deleting any temporary files
+	 */
+	public void discard() {
+		if (this.fileBatch != null) {
+			this.fileBatch.discard();
+			this.fileBatch = null;
+			this.deletedParents = null;
+		}
+		this.batch = null;
+	}
+
+	private FileGroupCommitter.Batch getFileBatch() {
+		if (this.fileBatch == null) {
+			this.fileBatch = this.groupCommitter.newBatch();
+			this.deletedParents = new LinkedHashSet<>();
+		}
+		return this.fileBatch;
+	}
+
+	private LogStructuredStore.Batch getBatch() {
+		if (this.batch == null)
+			this.batch = this.logStore.newBatch();
+		return this.batch;
+	}
+
+	private static <T> long lastModified(PersistenceContext<T> ctx) {
+		return ctx.getLastModified() == -1L ? System.currentTimeMillis() : ctx.getLastModified();
+	}
+
+	private void assertKeyExists(IoOperation operation, ObjectRef objectRef, boolean exists) {
+		if (this.logStore.exists(objectRef.getName()) != exists) {
+			String msg = exists ?
+					"Persistence unit does not exist for {0} in log for operation {1}" : //$NON-NLS-1$
+					"Persistence unit already exists for {0} in log for operation {1}"; //$NON-NLS-1$
+			throw new XmlPersistenceException(MessageFormat.format(msg, objectRef.getName(), operation));
+		}
+	}
+
 	private void deleteEmptyDirectories(ObjectRef objectRef) {
 
 		// root can't be deleted
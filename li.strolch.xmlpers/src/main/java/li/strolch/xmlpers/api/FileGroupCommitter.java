@@ -0,0 +1,451 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.api;
+
+import static li.strolch.utils.helper.StringHelper.formatNanoDuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Makes the file writes of the transactions of a {@link PersistenceManager} with the {@link StorageMode#FILES}
+ * durable, without forcing every file and directory of every transaction to disk on its own.</p>
+ *
+ * <p>A transaction writes its objects to temporary files as before, and then passes the temporary files and the
+ * files to delete as a {@link Batch} to {@link #commit(Batch)}, which blocks until the batch is durable. A single
+ * thread takes all waiting batches as a group, forces all their temporary files, moves them to their final path,
+ * deletes the deleted files, and then forces every modified directory once for the whole group, thus concurrently
+ * committing transactions share the directory syncs. To increase the size of the groups, the thread waits up to the
+ * configured maximum latency after the first batch of a group for further batches.</p>
+ *
+ * <p>Should a batch fail, then only its transaction fails, and its temporary files are deleted. Note that, as
+ * before, the files of a batch are not moved atomically as a whole. Should forcing a directory fail, then the files of the batches have
+ * already been moved, thus the batches do not fail, as their transactions would otherwise report a failure for
+ * changes which are visible on disk. Instead the failure is logged and counted in {@link
+ * #getNrOfDirectorySyncFailures()}, as the directory entries might not survive a crash.</p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class FileGroupCommitter {
+
+	private static final Logger logger = LoggerFactory.getLogger(FileGroupCommitter.class);
+
+	public static final long DEFAULT_MAX_LATENCY_MILLIS = 1L;
+
+	private static final long STOP_TIMEOUT_MS = 30000L;
+
+	private final File basePath;
+	private final long maxLatencyNanos;
+	private final boolean verbose;
+	private final BlockingQueue<Batch> queue;
+
+	private final AtomicLong nrOfCommits;
+	private final AtomicLong nrOfGroups;
+	private final AtomicLong nrOfFiles;
+	private final AtomicLong nrOfSyncs;
+	private final AtomicLong nrOfFailures;
+	private final AtomicLong nrOfDirectorySyncFailures;
+	private volatile long lastGroupSize;
+	private volatile long lastGroupLatencyNanos;
+
+	private boolean syncDirectories;
+	private volatile boolean running;
+	private Thread thread;
+
+	/**
+	 * @param basePath
+	 * 		the base path of the {@link PersistenceManager}
+	 * @param maxLatencyMillis
+	 * 		the maximum time to wait after the first batch of a group for further batches, or 0 to only group the batches
+	 * 		which are already waiting
+	 * @param verbose
+	 * 		true to log every group
+	 */
+	public FileGroupCommitter(File basePath, long maxLatencyMillis, boolean verbose) {
+		this.basePath = basePath;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+		this.verbose = verbose;
+		this.queue = new LinkedBlockingQueue<>();
+
+		this.nrOfCommits = new AtomicLong();
+		this.nrOfGroups = new AtomicLong();
+		this.nrOfFiles = new AtomicLong();
+		this.nrOfSyncs = new AtomicLong();
+		this.nrOfFailures = new AtomicLong();
+		this.nrOfDirectorySyncFailures = new AtomicLong();
+	}
+
+	/**
+	 * @return the number of committed batches, i.e. transactions
+	 */
+	public long getNrOfCommits() {
+		return this.nrOfCommits.get();
+	}
+
+	/**
+	 * @return the number of groups in which the batches were committed
+	 */
+	public long getNrOfGroups() {
+		return this.nrOfGroups.get();
+	}
+
+	/**
+	 * @return the number of files written or deleted
+	 */
+	public long getNrOfFiles() {
+		return this.nrOfFiles.get();
+	}
+
+	/**
+	 * @return the number of files and directories forced to disk
+	 */
+	public long getNrOfSyncs() {
+		return this.nrOfSyncs.get();
+	}
+
+	/**
+	 * @return the number of batches which failed
+	 */
+	public long getNrOfFailures() {
+		return this.nrOfFailures.get();
+	}
+
+	/**
+	 * @return the number of directories which could not be forced to disk after the files of their batches were moved
+	 */
+	public long getNrOfDirectorySyncFailures() {
+		return this.nrOfDirectorySyncFailures.get();
+	}
+
+	/**
+	 * @return the number of batches in the last group
+	 */
+	public long getLastGroupSize() {
+		return this.lastGroupSize;
+	}
+
+	/**
+	 * @return the time in milliseconds from when the first batch of the last group was committed, until the group was
+	 * durable
+	 */
+	public long getLastGroupLatencyMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.lastGroupLatencyNanos);
+	}
+
+	/**
+	 * Starts the thread committing the batches
+	 */
+	public synchronized void start() {
+		this.syncDirectories = canSyncDirectory(this.basePath);
+		if (!this.syncDirectories)
+			logger.warn("Directories can not be forced to disk on this platform, only files are forced for " //$NON-NLS-1$
+					+ this.basePath.getAbsolutePath());
+
+		this.running = true;
+		this.thread = new Thread(this::run, "FileGroupCommitter-" + this.basePath.getName());
+		this.thread.setDaemon(true);
+		this.thread.start();
+
+		logger.info(MessageFormat.format("Group committing files at {0} with a maximum latency of {1}", //$NON-NLS-1$
+				this.basePath.getAbsolutePath(), formatNanoDuration(this.maxLatencyNanos)));
+	}
+
+	/**
+	 * Stops accepting batches, and waits for the waiting batches to be committed. Batches committed after stopping are
+	 * committed on the calling thread
+	 */
+	public void stop() {
+		Thread thread;
+		synchronized (this) {
+			if (!this.running)
+				return;
+			this.running = false;
+			thread = this.thread;
+		}
+
+		try {
+			thread.join(STOP_TIMEOUT_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		logger.info(MessageFormat.format("Committed {0} transactions with {1} files in {2} groups with {3} syncs", //$NON-NLS-1$
+				this.nrOfCommits.get(), this.nrOfFiles.get(), this.nrOfGroups.get(), this.nrOfSyncs.get()));
+	}
+
+	public Batch newBatch() {
+		return new Batch();
+	}
+
+	/**
+	 * Commits the given batch and blocks until its files are durable
+	 *
+	 * @param batch
+	 * 		the batch to commit
+	 *
+	 * @throws XmlPersistenceException
+	 * 		if the batch could not be committed, in which case its temporary files have been deleted
+	 */
+	public void commit(Batch batch) throws XmlPersistenceException {
+		if (batch.isEmpty())
+			return;
+
+		batch.enqueued = System.nanoTime();
+		boolean queued;
+		synchronized (this) {
+			queued = this.running;
+			if (queued)
+				this.queue.add(batch);
+		}
+
+		if (queued)
+			batch.await();
+		else
+			commitGroup(Collections.singletonList(batch));
+
+		if (batch.failure != null) {
+			batch.discard();
+			String msg = "Failed to commit {0} files due to {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, batch.size(), batch.failure.getMessage());
+			throw new XmlPersistenceException(msg, batch.failure);
+		}
+	}
+
+	private void run() {
+		List<Batch> group = new ArrayList<>();
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				Batch first = this.queue.poll(100L, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+
+				group.add(first);
+				long deadline = first.enqueued + this.maxLatencyNanos;
+				while (true) {
+					this.queue.drainTo(group);
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0L)
+						break;
+					Batch next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null)
+						break;
+					group.add(next);
+				}
+
+				commitGroup(group);
+				group.clear();
+
+			} catch (InterruptedException e) {
+				logger.warn("Interrupted while committing files at " + this.basePath.getAbsolutePath());
+				break;
+			}
+		}
+	}
+
+	private void commitGroup(List<Batch> group) {
+		long start = System.nanoTime();
+		long nrOfFiles = 0L;
+		long nrOfSyncs = 0L;
+
+		// first force the content of all new files to disk
+		for (Batch batch : group) {
+			try {
+				for (Write write : batch.writes) {
+					force(write.tmpPath, false);
+					nrOfSyncs++;
+				}
+			} catch (Exception e) {
+				batch.failure = e;
+			}
+		}
+
+		// then move and delete the files, remembering the modified directories
+		Set<File> directories = new HashSet<>();
+		for (Batch batch : group) {
+			if (batch.failure != null)
+				continue;
+
+			try {
+				for (Write write : batch.writes) {
+					Files.move(write.tmpPath.toPath(), write.path.toPath(), StandardCopyOption.ATOMIC_MOVE,
+							StandardCopyOption.REPLACE_EXISTING);
+					write.moved = true;
+					if (write.lastModified != -1L)
+						write.path.setLastModified(write.lastModified);
+					directories.add(write.path.getParentFile());
+				}
+				for (File delete : batch.deletes) {
+					Files.delete(delete.toPath());
+					directories.add(delete.getParentFile());
+				}
+				nrOfFiles += batch.size();
+			} catch (Exception e) {
+				batch.failure = e;
+			}
+		}
+
+		// and finally force the directory entries once for all batches. The files have already been moved, thus a
+		// failure here can not fail the batches anymore
+		if (this.syncDirectories) {
+			for (File directory : directories) {
+				try {
+					force(directory, true);
+					nrOfSyncs++;
+				} catch (Exception e) {
+					this.nrOfDirectorySyncFailures.incrementAndGet();
+					logger.error("Failed to force directory " + directory.getAbsolutePath()
+							+ " to disk, the moved files might not survive a crash!", e);
+				}
+			}
+		}
+
+		long end = System.nanoTime();
+		for (Batch batch : group) {
+			if (batch.failure == null)
+				this.nrOfCommits.incrementAndGet();
+			else
+				this.nrOfFailures.incrementAndGet();
+			batch.done.countDown();
+		}
+
+		this.nrOfGroups.incrementAndGet();
+		this.nrOfFiles.addAndGet(nrOfFiles);
+		this.nrOfSyncs.addAndGet(nrOfSyncs);
+		this.lastGroupSize = group.size();
+		this.lastGroupLatencyNanos = end - group.get(0).enqueued;
+
+		if (this.verbose)
+			logger.info(MessageFormat.format("Committed {0} transactions with {1} files and {2} syncs in {3}", //$NON-NLS-1$
+					group.size(), nrOfFiles, nrOfSyncs, formatNanoDuration(end - start)));
+	}
+
+	private static void force(File file, boolean directory) throws IOException {
+		try (FileChannel channel = FileChannel
+				.open(file.toPath(), directory ? StandardOpenOption.READ : StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+	}
+
+	private static boolean canSyncDirectory(File directory) {
+		try {
+			force(directory, true);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The files written and deleted by a transaction, which are committed together
+	 */
+	public static class Batch {
+		private final List<Write> writes;
+		private final List<File> deletes;
+		private final CountDownLatch done;
+		private long enqueued;
+		private volatile Exception failure;
+
+		private Batch() {
+			this.writes = new ArrayList<>();
+			this.deletes = new ArrayList<>();
+			this.done = new CountDownLatch(1);
+		}
+
+		/**
+		 * Adds a written temporary file, which is to be moved to the given path
+		 *
+		 * @param tmpPath
+		 * 		the temporary file
+		 * @param path
+		 * 		the final path of the file
+		 * @param lastModified
+		 * 		the last modified time to set on the file, or -1 to keep the time it was written
+		 */
+		public void write(File tmpPath, File path, long lastModified) {
+			this.writes.add(new Write(tmpPath, path, lastModified));
+		}
+
+		/**
+		 * Adds a file which is to be deleted
+		 *
+		 * @param path
+		 * 		the file to delete
+		 */
+		public void delete(File path) {
+			this.deletes.add(path);
+		}
+
+		public boolean isEmpty() {
+			return this.writes.isEmpty() && this.deletes.isEmpty();
+		}
+
+		public int size() {
+			return this.writes.size() + this.deletes.size();
+		}
+
+		/**
+		 * Deletes the temporary files of this batch which have not been moved
+		 */
+		public void discard() {
+			for (Write write : this.writes) {
+				if (!write.moved && write.tmpPath.exists() && !write.tmpPath.delete())
+					logger.error("Failed to delete temp file " + write.tmpPath.getAbsolutePath()); //$NON-NLS-1$
+			}
+		}
+
+		private void await() {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					this.done.await();
+					break;
+				} catch (InterruptedException e) {
+					// the files are locked until the batch is committed, thus we must wait
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class Write {
+		private final File tmpPath;
+		private final File path;
+		private final long lastModified;
+		private boolean moved;
+
+		private Write(File tmpPath, File path, long lastModified) {
+			this.tmpPath = tmpPath;
+			this.path = path;
+			this.lastModified = lastModified;
+		}
+	}
+}
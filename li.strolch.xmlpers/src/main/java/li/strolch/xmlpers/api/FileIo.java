@@ -48,12 +48,36 @@ public class FileIo {
 	private static final Logger logger = LoggerFactory.getLogger(FileIo.class);
 	public static final String TMP_PREFIX = ".tmp_";
 
+	private static final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+	private static final ThreadLocal<SAXParser> saxParsers = new ThreadLocal<>();
+
 	private final File path;
 	private final File tmpPath;
+	private final boolean deferMove;
 
 	public FileIo(File path) {
+		this(path, false);
+	}
+
+	/**
+	 * @param path
+	 * 		the path of the file
+	 * @param deferMove
+	 * 		if true, then writing only writes the temporary file, which the caller must move to the path, e.g. using the
+	 *        {@link FileGroupCommitter}
+	 */
+	public FileIo(File path, boolean deferMove) {
 		this.path = path;
 		this.tmpPath = new File(this.path.getParentFile(), TMP_PREFIX + this.path.getName());
+		this.deferMove = deferMove;
+	}
+
+	public File getPath() {
+		return this.path;
+	}
+
+	public File getTmpPath() {
+		return this.tmpPath;
 	}
 
 	public <T> void writeSax(PersistenceContext<T> ctx) {
@@ -79,15 +103,7 @@ public class FileIo {
 				xmlWriter.flush();
 			}
 
-			if (this.path.exists() && !this.path.delete())
-				throw new IllegalStateException("Failed to delete existing file " + this.path.getAbsolutePath());
-			if (!this.tmpPath.renameTo(this.path)) {
-				throw new IllegalStateException(
-						"Failed to rename temp file " + this.tmpPath.getName() + " to " + this.path.getAbsolutePath());
-			}
-
-			if (ctx.getLastModified() != -1L)
-				this.path.setLastModified(ctx.getLastModified());
+			moveTmpToPath(ctx);
 
 		} catch (FactoryConfigurationError | XMLStreamException | IOException e) {
 			if (this.tmpPath.exists()) {
@@ -105,12 +121,27 @@ public class FileIo {
 		}
 	}
 
+	private <T> void moveTmpToPath(PersistenceContext<T> ctx) {
+		if (this.deferMove)
+			return;
+
+		if (this.path.exists() && !this.path.delete())
+			throw new IllegalStateException("Failed to delete existing file " + this.path.getAbsolutePath());
+		if (!this.tmpPath.renameTo(this.path)) {
+			throw new IllegalStateException(
+					"Failed to rename temp file " + this.tmpPath.getName() + " to " + this.path.getAbsolutePath());
+		}
+
+		if (ctx.getLastModified() != -1L)
+			this.path.setLastModified(ctx.getLastModified());
+	}
+
 	public <T> void readSax(PersistenceContext<T> ctx) {
 
+		SAXParser sp = null;
 		try {
 
-			SAXParserFactory spf = SAXParserFactory.newInstance();
-			SAXParser sp = spf.newSAXParser();
+			sp = borrowSaxParser();
 
 			SaxParser<T> saxParser = ctx.getParserFactor().getSaxParser();
 			DefaultHandler defaultHandler = saxParser.getDefaultHandler();
@@ -128,6 +159,38 @@ public class FileIo {
 			String msg = "Parsing of file {0} failed due to internal error: {1}"; //$NON-NLS-1$
 			throw new XmlPersistenceException(MessageFormat.format(msg, this.path.getAbsolutePath(), e.getMessage()),
 					e);
+		} finally {
+			returnSaxParser(sp);
+		}
+	}
+
+	/**
+	 * Returns the {@link SAXParser} of the current thread, or creates a new one. Creating a parser for every file is
+	 * expensive when loading many objects, thus parsers are kept per thread and must be returned using {@link
+	 * #returnSaxParser(SAXParser)} after use. A parser is removed while borrowed, so that nested parsing on the same
+	 * thread gets its own parser
+	 */
+	private static SAXParser borrowSaxParser() throws ParserConfigurationException, SAXException {
+		SAXParser sp = saxParsers.get();
+		if (sp != null) {
+			saxParsers.remove();
+			return sp;
+		}
+
+		synchronized (saxParserFactory) {
+			return saxParserFactory.newSAXParser();
+		}
+	}
+
+	private static void returnSaxParser(SAXParser sp) {
+		if (sp == null)
+			return;
+
+		try {
+			sp.reset();
+			saxParsers.set(sp);
+		} catch (UnsupportedOperationException e) {
+			// parser can not be reused, so the next read will create a new one
 		}
 	}
 
@@ -174,15 +237,7 @@ public class FileIo {
 				logger.info(msg);
 			}
 
-			if (this.path.exists() && !this.path.delete())
-				throw new IllegalStateException("Failed to delete existing file " + this.path.getAbsolutePath());
-			if (!this.tmpPath.renameTo(this.path)) {
-				throw new IllegalStateException(
-						"Failed to rename temp file " + this.tmpPath.getName() + " to " + this.path.getAbsolutePath());
-			}
-
-			if (ctx.getLastModified() != -1L)
-				this.path.setLastModified(ctx.getLastModified());
+			moveTmpToPath(ctx);
 
 		} catch (IOException | TransformerFactoryConfigurationError | TransformerException e) {
 			if (this.tmpPath.exists()) {
@@ -221,4 +276,93 @@ public class FileIo {
 			throw new XmlPersistenceException(msg, e);
 		}
 	}
+
+	/**
+	 * Writes the object of the given {@link PersistenceContext} using SAX and returns the XML as bytes, for objects
+	 * which are not stored in a file of their own
+	 */
+	public static <T> byte[] writeSaxBytes(PersistenceContext<T> ctx) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+			XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance()
+					.createXMLStreamWriter(new OutputStreamWriter(out, DEFAULT_ENCODING));
+			xmlWriter.writeStartDocument(DEFAULT_ENCODING, DEFAULT_XML_VERSION);
+
+			SaxParser<T> saxParser = ctx.getParserFactor().getSaxParser();
+			saxParser.setObject(ctx.getObject());
+			saxParser.write(xmlWriter);
+
+			xmlWriter.writeEndDocument();
+			xmlWriter.flush();
+			return out.toByteArray();
+
+		} catch (FactoryConfigurationError | XMLStreamException | IOException e) {
+			String msg = "Writing {0} failed due to internal error: {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, ctx.getObjectRef().getName(), e.getMessage());
+			throw new XmlException(msg, e);
+		}
+	}
+
+	/**
+	 * Parses the given XML bytes using SAX and sets the object on the given {@link PersistenceContext}
+	 */
+	public static <T> void readSaxBytes(PersistenceContext<T> ctx, byte[] bytes) {
+		SAXParser sp = null;
+		try {
+			sp = borrowSaxParser();
+			SaxParser<T> saxParser = ctx.getParserFactor().getSaxParser();
+			sp.parse(new ByteArrayInputStream(bytes), saxParser.getDefaultHandler());
+			ctx.setObject(saxParser.getObject());
+
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			String msg = "Parsing of {0} failed due to internal error: {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, ctx.getObjectRef().getName(), e.getMessage());
+			throw new XmlPersistenceException(msg, e);
+		} finally {
+			returnSaxParser(sp);
+		}
+	}
+
+	/**
+	 * Writes the object of the given {@link PersistenceContext} using DOM and returns the XML as bytes, for objects
+	 * which are not stored in a file of their own
+	 */
+	public static <T> byte[] writeDomBytes(PersistenceContext<T> ctx) {
+		try {
+			DomParser<T> domParser = ctx.getParserFactor().getDomParser();
+			domParser.setObject(ctx.getObject());
+			Document document = domParser.toDom();
+
+			Transformer transformer = TransformerFactory.newInstance().newTransformer();
+			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no"); //$NON-NLS-1$
+			transformer.setOutputProperty(OutputKeys.METHOD, "xml"); //$NON-NLS-1$
+			transformer.setOutputProperty(OutputKeys.ENCODING, XmlHelper.DEFAULT_ENCODING);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+			transformer.transform(new DOMSource(document), new StreamResult(out));
+			return out.toByteArray();
+
+		} catch (TransformerFactoryConfigurationError | TransformerException e) {
+			String msg = "Writing {0} failed due to internal error: {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, ctx.getObjectRef().getName(), e.getMessage());
+			throw new XmlException(msg, e);
+		}
+	}
+
+	/**
+	 * Parses the given XML bytes using DOM and sets the object on the given {@link PersistenceContext}
+	 */
+	public static <T> void readDomBytes(PersistenceContext<T> ctx, byte[] bytes) {
+		try {
+			Document document = DomUtil.createDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+			DomParser<T> domParser = ctx.getParserFactor().getDomParser();
+			domParser.fromDom(document);
+			ctx.setObject(domParser.getObject());
+
+		} catch (SAXException | IOException e) {
+			String msg = "Parsing {0} failed due to internal error: {1}"; //$NON-NLS-1$
+			msg = MessageFormat.format(msg, ctx.getObjectRef().getName(), e.getMessage());
+			throw new XmlPersistenceException(msg, e);
+		}
+	}
 }
\ No newline at end of file
@@ -30,6 +30,16 @@ public enum IoMode {
 		public <T> void read(PersistenceContext<T> ctx, FileIo fileIo) {
 			fileIo.readDom(ctx);
 		}
+
+		@Override
+		public <T> byte[] toBytes(PersistenceContext<T> ctx) {
+			return FileIo.writeDomBytes(ctx);
+		}
+
+		@Override
+		public <T> void fromBytes(PersistenceContext<T> ctx, byte[] bytes) {
+			FileIo.readDomBytes(ctx, bytes);
+		}
 	},
 	SAX {
 		@Override
@@ -41,6 +51,16 @@ public enum IoMode {
 		public <T> void read(PersistenceContext<T> ctx, FileIo fileIo) {
 			fileIo.readSax(ctx);
 		}
+
+		@Override
+		public <T> byte[] toBytes(PersistenceContext<T> ctx) {
+			return FileIo.writeSaxBytes(ctx);
+		}
+
+		@Override
+		public <T> void fromBytes(PersistenceContext<T> ctx, byte[] bytes) {
+			FileIo.readSaxBytes(ctx, bytes);
+		}
 	};
 
 	/**
@@ -58,4 +78,19 @@ public enum IoMode {
 	public <T> void read(PersistenceContext<T> ctx, FileIo fileIo) {
 		throw new UnsupportedOperationException("Override me!"); //$NON-NLS-1$
 	}
+
+	/**
+	 * @param ctx
+	 */
+	public <T> byte[] toBytes(PersistenceContext<T> ctx) {
+		throw new UnsupportedOperationException("Override me!"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param ctx
+	 * @param bytes
+	 */
+	public <T> void fromBytes(PersistenceContext<T> ctx, byte[] bytes) {
+		throw new UnsupportedOperationException("Override me!"); //$NON-NLS-1$
+	}
 }
@@ -0,0 +1,867 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.api;
+
+import static li.strolch.utils.helper.StringHelper.formatNanoDuration;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A log structured store for the objects of a {@link PersistenceManager} with the {@link StorageMode#LOG}. Instead
+ * of writing a file per object, all changes of a commit are appended as one frame to the active segment file, which
+ * is forced to disk before the commit returns. Commits which append while another commit is forcing the segment,
+ * share the next force, i.e. the segment is forced once per group of concurrent commits.</p>
+ *
+ * <p>The key of an object is the name of its {@link li.strolch.xmlpers.objref.ObjectRef}. The location of the latest
+ * XML of every key is kept in an index in memory, which is rebuilt by reading the segments when the store is opened.
+ * An incomplete frame, or a frame with an invalid checksum at the end of the last segment is the result of a crash
+ * during a commit and is truncated.</p>
+ *
+ * <p>A segment is sealed once it exceeds the maximum segment size. Sealed segments of which less than half is still
+ * live, are compacted in the background by copying their live records to the active segment and then deleting them.
+ * Every record has a sequence number, so that copied records never override newer changes when the segments are read
+ * again.</p>
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class LogStructuredStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(LogStructuredStore.class);
+
+	public static final String LOG_DIR = "log"; //$NON-NLS-1$
+	public static final String SEGMENT_SUFFIX = ".log"; //$NON-NLS-1$
+
+	public static final long DEFAULT_MAX_SEGMENT_SIZE = 64L * 1024L * 1024L;
+	public static final long DEFAULT_COMPACTION_INTERVAL_SECONDS = 60L;
+
+	private static final int MAGIC = 0x53584c31; // SXL1
+	private static final int SEGMENT_HEADER_SIZE = 4;
+	private static final int FRAME_HEADER_SIZE = 8;
+	private static final int RECORD_OVERHEAD = 23;
+	private static final byte OP_PUT = 'P';
+	private static final byte OP_DELETE = 'D';
+	private static final double COMPACTION_THRESHOLD = 0.5D;
+	private static final int COMPACTION_BATCH_SIZE = 4 * 1024 * 1024;
+
+	private final File logPath;
+	private final long maxSegmentSize;
+	private final boolean verbose;
+
+	private final ReentrantReadWriteLock indexLock;
+	private final TreeMap<String, Location> index;
+	private final ConcurrentSkipListMap<Integer, Segment> segments;
+	private final Set<String> inFlight;
+
+	private final Object appendLock;
+	private final Object syncLock;
+	private final Object compactionLock;
+
+	private Segment activeSegment;
+	private long sequence;
+	private long appendedLsn;
+	private volatile long syncedLsn;
+
+	private ScheduledExecutorService compactionExecutor;
+
+	public LogStructuredStore(File logPath, long maxSegmentSize, boolean verbose) {
+		this.logPath = logPath;
+		this.maxSegmentSize = maxSegmentSize;
+		this.verbose = verbose;
+
+		this.indexLock = new ReentrantReadWriteLock();
+		this.index = new TreeMap<>();
+		this.segments = new ConcurrentSkipListMap<>();
+		this.inFlight = Collections.synchronizedSet(new HashSet<>());
+
+		this.appendLock = new Object();
+		this.syncLock = new Object();
+		this.compactionLock = new Object();
+	}
+
+	/**
+	 * Opens this store by reading all existing segments to build the index, and starts the background compaction
+	 *
+	 * @param compactionIntervalSeconds
+	 * 		the delay between the checks for segments to compact, or 0 to disable background compaction
+	 */
+	public void open(long compactionIntervalSeconds) {
+		long start = System.nanoTime();
+
+		File[] files = this.logPath.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+		if (files != null && files.length > 0) {
+			Arrays.sort(files, Comparator.comparing(File::getName));
+
+			Map<String, Long> deleted = new HashMap<>();
+			for (int i = 0; i < files.length; i++) {
+				Segment segment = openSegment(files[i]);
+				this.segments.put(segment.id, segment);
+				replay(segment, i == files.length - 1, deleted);
+			}
+
+			Segment last = this.segments.lastEntry().getValue();
+			for (Segment segment : this.segments.values()) {
+				segment.sealed = segment != last || last.size >= this.maxSegmentSize;
+			}
+			if (!last.sealed)
+				this.activeSegment = last;
+		}
+
+		logger.info(MessageFormat
+				.format("Opened log with {0} objects in {1} segments at {2} in {3}", this.index.size(), //$NON-NLS-1$
+						this.segments.size(), this.logPath.getAbsolutePath(),
+						formatNanoDuration(System.nanoTime() - start)));
+
+		if (compactionIntervalSeconds > 0) {
+			this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "LogCompaction-" + this.logPath.getParentFile().getName());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.compactionExecutor
+					.scheduleWithFixedDelay(this::compactSafe, compactionIntervalSeconds, compactionIntervalSeconds,
+							TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Stops the background compaction and closes all segments
+	 */
+	public void close() {
+		if (this.compactionExecutor != null) {
+			this.compactionExecutor.shutdown();
+			try {
+				if (!this.compactionExecutor.awaitTermination(10, TimeUnit.SECONDS))
+					logger.warn("Compaction did not stop in time for log at " + this.logPath.getAbsolutePath());
+			} catch (InterruptedException e) {
+				logger.warn("Interrupted while waiting for compaction to stop!");
+			}
+		}
+
+		synchronized (this.appendLock) {
+			for (Segment segment : this.segments.values()) {
+				try {
+					segment.channel.close();
+				} catch (IOException e) {
+					logger.error("Failed to close segment " + segment.file.getAbsolutePath(), e);
+				}
+			}
+			this.activeSegment = null;
+		}
+	}
+
+	public Batch newBatch() {
+		return new Batch();
+	}
+
+	/**
+	 * Appends the changes of the given {@link Batch} as one frame to the active segment, and returns after the segment
+	 * was forced to disk and the index was updated
+	 *
+	 * @param batch
+	 * 		the changes to commit
+	 */
+	public void commit(Batch batch) {
+		if (batch.records.isEmpty())
+			return;
+
+		Segment segment;
+		long frameOffset;
+		long lsn;
+		synchronized (this.appendLock) {
+			for (Record record : batch.records) {
+				record.seq = ++this.sequence;
+			}
+			byte[] frame = encodeFrame(batch.records);
+			segment = prepareSegment(frame.length);
+			frameOffset = append(segment, frame);
+			lsn = this.appendedLsn;
+			segment.pending.incrementAndGet();
+			for (Record record : batch.records) {
+				this.inFlight.add(record.key);
+			}
+		}
+
+		try {
+			sync(lsn);
+
+			this.indexLock.writeLock().lock();
+			try {
+				for (Record record : batch.records) {
+					if (record.op == OP_PUT)
+						putLocation(record.key, new Location(segment, frameOffset + record.frameOffset,
+								record.data.length, record.lastModified, record.seq));
+					else
+						removeLocation(record.key);
+				}
+			} finally {
+				this.indexLock.writeLock().unlock();
+			}
+
+		} finally {
+			for (Record record : batch.records) {
+				this.inFlight.remove(record.key);
+			}
+			segment.pending.decrementAndGet();
+		}
+	}
+
+	public boolean exists(String key) {
+		this.indexLock.readLock().lock();
+		try {
+			return this.index.containsKey(key);
+		} finally {
+			this.indexLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the XML of the object with the given key, or null if the object does not exist
+	 *
+	 * @param key
+	 * 		the key of the object to read
+	 *
+	 * @return the XML of the object, or null
+	 */
+	public byte[] read(String key) {
+		this.indexLock.readLock().lock();
+		try {
+			Location location = this.index.get(key);
+			if (location == null)
+				return null;
+			return readFully(location.segment, location.offset, location.length);
+		} finally {
+			this.indexLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the names of the types directly below the given parent key, i.e. the next path element of all keys which
+	 * are not direct children of the parent key
+	 *
+	 * @param parentKey
+	 * 		the key of the parent, ending with a slash
+	 *
+	 * @return the types below the given parent key
+	 */
+	public Set<String> queryTypeSet(String parentKey) {
+		Set<String> types = new TreeSet<>();
+
+		this.indexLock.readLock().lock();
+		try {
+			String from = parentKey;
+			while (true) {
+				String key = this.index.ceilingKey(from);
+				if (key == null || !key.startsWith(parentKey))
+					break;
+
+				String remainder = key.substring(parentKey.length());
+				int pos = remainder.indexOf('/');
+				if (pos == -1) {
+					from = key + '\0';
+				} else {
+					String type = remainder.substring(0, pos);
+					types.add(type);
+					from = parentKey + type + '/' + Character.MAX_VALUE;
+				}
+			}
+		} finally {
+			this.indexLock.readLock().unlock();
+		}
+
+		return types;
+	}
+
+	/**
+	 * Returns the entries of all the objects which are direct children of the given parent key
+	 *
+	 * @param parentKey
+	 * 		the key of the parent, ending with a slash
+	 * @param reverse
+	 * 		true to return the entries in reversed order of their IDs
+	 *
+	 * @return the entries of the objects
+	 */
+	public List<LogEntry> queryEntries(String parentKey, boolean reverse) {
+		List<LogEntry> entries = new ArrayList<>();
+
+		this.indexLock.readLock().lock();
+		try {
+			NavigableMap<String, Location> children = this.index
+					.subMap(parentKey, true, parentKey + Character.MAX_VALUE, false);
+			if (reverse)
+				children = children.descendingMap();
+
+			for (Map.Entry<String, Location> entry : children.entrySet()) {
+				String id = entry.getKey().substring(parentKey.length());
+				if (id.indexOf('/') != -1)
+					continue;
+				Location location = entry.getValue();
+				entries.add(new LogEntry(id, location.lastModified, location.length));
+			}
+		} finally {
+			this.indexLock.readLock().unlock();
+		}
+
+		return entries;
+	}
+
+	public int getNrOfSegments() {
+		return this.segments.size();
+	}
+
+	public int size() {
+		this.indexLock.readLock().lock();
+		try {
+			return this.index.size();
+		} finally {
+			this.indexLock.readLock().unlock();
+		}
+	}
+
+	private void compactSafe() {
+		try {
+			compact();
+		} catch (Exception e) {
+			logger.error("Failed to compact log at " + this.logPath.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * Compacts all sealed segments of which less than half is still live
+	 */
+	public void compact() {
+		synchronized (this.compactionLock) {
+			for (Segment segment : new ArrayList<>(this.segments.values())) {
+				if (!segment.sealed || segment.pending.get() > 0)
+					continue;
+
+				long liveBytes;
+				this.indexLock.readLock().lock();
+				try {
+					liveBytes = segment.liveBytes;
+				} finally {
+					this.indexLock.readLock().unlock();
+				}
+
+				if (liveBytes > (segment.size - SEGMENT_HEADER_SIZE) * COMPACTION_THRESHOLD)
+					continue;
+
+				compactSegment(segment);
+			}
+		}
+	}
+
+	private void compactSegment(Segment segment) {
+		long start = System.nanoTime();
+		boolean oldest = this.segments.firstKey() == segment.id;
+
+		int copied = 0;
+		List<Record> candidates = new ArrayList<>();
+		long candidatesSize = 0L;
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(segment.file), 64 * 1024))) {
+			in.skipBytes(SEGMENT_HEADER_SIZE);
+
+			long position = SEGMENT_HEADER_SIZE;
+			while (position < segment.size) {
+				int length = in.readInt();
+				in.readInt();
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+
+				for (Record record : decodeFrame(payload)) {
+					record.sourceOffset = position + record.frameOffset;
+					candidates.add(record);
+					candidatesSize += record.data.length + RECORD_OVERHEAD;
+				}
+
+				position += FRAME_HEADER_SIZE + length;
+
+				if (candidatesSize >= COMPACTION_BATCH_SIZE || position >= segment.size) {
+					int nrCopied = copyLive(segment, oldest, candidates);
+					if (nrCopied == -1) {
+						logger.info("Delaying compaction of segment " + segment.file.getName()
+								+ " as some of its objects are currently being committed.");
+						return;
+					}
+					copied += nrCopied;
+					candidates.clear();
+					candidatesSize = 0L;
+				}
+			}
+
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to read segment " + segment.file.getAbsolutePath(), e);
+		}
+
+		this.indexLock.writeLock().lock();
+		try {
+			if (segment.liveBytes != 0L) {
+				logger.warn("Segment " + segment.file.getName() + " still has live objects after compaction!");
+				return;
+			}
+
+			this.segments.remove(segment.id);
+			segment.channel.close();
+			if (!segment.file.delete())
+				logger.error("Failed to delete compacted segment " + segment.file.getAbsolutePath());
+
+		} catch (IOException e) {
+			logger.error("Failed to close compacted segment " + segment.file.getAbsolutePath(), e);
+		} finally {
+			this.indexLock.writeLock().unlock();
+		}
+
+		if (this.verbose || copied > 0)
+			logger.info(MessageFormat.format("Compacted segment {0} by copying {1} records in {2}",
+					segment.file.getName(), copied, formatNanoDuration(System.nanoTime() - start)));
+	}
+
+	/**
+	 * Appends the still live records of the given candidates to the active segment, while holding the append lock, so
+	 * that no commit can change these objects in between. Deletions are copied as well, unless they are in the oldest
+	 * segment, thus no older records can exist, or a newer record exists for the object
+	 *
+	 * @return the number of copied records, or -1 if a candidate is currently being committed
+	 */
+	private int copyLive(Segment segment, boolean oldest, List<Record> candidates) {
+		long lsn;
+		List<Record> copies = new ArrayList<>();
+		synchronized (this.appendLock) {
+
+			this.indexLock.readLock().lock();
+			try {
+				for (Record record : candidates) {
+					if (this.inFlight.contains(record.key))
+						return -1;
+
+					Location location = this.index.get(record.key);
+					if (record.op == OP_PUT) {
+						if (location != null && location.segment == segment && location.offset == record.sourceOffset)
+							copies.add(record);
+					} else if (!oldest && (location == null || location.seq < record.seq)) {
+						copies.add(record);
+					}
+				}
+			} finally {
+				this.indexLock.readLock().unlock();
+			}
+
+			if (copies.isEmpty())
+				return 0;
+
+			byte[] frame = encodeFrame(copies);
+			Segment target = prepareSegment(frame.length);
+			long frameOffset = append(target, frame);
+			lsn = this.appendedLsn;
+
+			this.indexLock.writeLock().lock();
+			try {
+				for (Record record : copies) {
+					if (record.op == OP_PUT)
+						putLocation(record.key, new Location(target, frameOffset + record.frameOffset,
+								record.data.length, record.lastModified, record.seq));
+				}
+			} finally {
+				this.indexLock.writeLock().unlock();
+			}
+		}
+
+		sync(lsn);
+		return copies.size();
+	}
+
+	private void replay(Segment segment, boolean last, Map<String, Long> deleted) {
+		long fileSize = segment.file.length();
+		long position = SEGMENT_HEADER_SIZE;
+		boolean valid = true;
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(segment.file), 64 * 1024))) {
+
+			if (fileSize < SEGMENT_HEADER_SIZE || in.readInt() != MAGIC) {
+				if (!last || fileSize >= SEGMENT_HEADER_SIZE)
+					throw new XmlPersistenceException(
+							"The file " + segment.file.getAbsolutePath() + " is not a segment of a log!");
+				segment.channel.truncate(0L);
+				segment.channel.write(ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(0, MAGIC), 0L);
+				segment.size = SEGMENT_HEADER_SIZE;
+				return;
+			}
+
+			CRC32 crc = new CRC32();
+			while (position < fileSize) {
+				if (fileSize - position < FRAME_HEADER_SIZE) {
+					valid = false;
+					break;
+				}
+
+				int length = in.readInt();
+				int checksum = in.readInt();
+				if (length < 4 || length > fileSize - position - FRAME_HEADER_SIZE) {
+					valid = false;
+					break;
+				}
+
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				crc.reset();
+				crc.update(payload, 0, length);
+				if ((int) crc.getValue() != checksum) {
+					valid = false;
+					break;
+				}
+
+				for (Record record : decodeFrame(payload)) {
+					this.sequence = Math.max(this.sequence, record.seq);
+					Location current = this.index.get(record.key);
+					if (record.op == OP_PUT) {
+						long deletedSeq = deleted.getOrDefault(record.key, -1L);
+						if ((current == null || current.seq < record.seq) && deletedSeq < record.seq)
+							putLocation(record.key,
+									new Location(segment, position + record.frameOffset, record.data.length,
+											record.lastModified, record.seq));
+					} else {
+						if (current != null && current.seq < record.seq)
+							removeLocation(record.key);
+						deleted.merge(record.key, record.seq, Math::max);
+					}
+				}
+
+				position += FRAME_HEADER_SIZE + length;
+			}
+
+			if (!valid) {
+				if (!last)
+					throw new XmlPersistenceException(MessageFormat
+							.format("The segment {0} is corrupt at position {1}!", segment.file.getAbsolutePath(),
+									position));
+
+				logger.warn(MessageFormat
+						.format("Truncating incomplete commit at position {0} of segment {1}", position, //$NON-NLS-1$
+								segment.file.getAbsolutePath()));
+				segment.channel.truncate(position);
+				segment.channel.force(true);
+			}
+
+			segment.size = position;
+
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to read segment " + segment.file.getAbsolutePath(), e);
+		}
+	}
+
+	private Segment prepareSegment(int frameLength) {
+		try {
+			if (this.activeSegment == null) {
+				if (!this.logPath.exists() && !this.logPath.mkdirs())
+					throw new XmlPersistenceException(
+							"Failed to create log path at " + this.logPath.getAbsolutePath());
+				this.activeSegment = createSegment();
+
+			} else if (this.activeSegment.size > SEGMENT_HEADER_SIZE
+					&& this.activeSegment.size + frameLength > this.maxSegmentSize) {
+
+				this.activeSegment.channel.force(false);
+				this.activeSegment.sealed = true;
+				this.activeSegment = createSegment();
+				if (this.compactionExecutor != null && !this.compactionExecutor.isShutdown())
+					this.compactionExecutor.execute(this::compactSafe);
+			}
+
+			return this.activeSegment;
+
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to prepare segment in log " + this.logPath.getAbsolutePath(),
+					e);
+		}
+	}
+
+	private Segment createSegment() throws IOException {
+		int id = this.segments.isEmpty() ? 1 : this.segments.lastKey() + 1;
+		File file = new File(this.logPath, String.format("%010d", id) + SEGMENT_SUFFIX);
+		Segment segment = openSegment(file);
+		segment.channel.write(ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(0, MAGIC), 0L);
+		segment.size = SEGMENT_HEADER_SIZE;
+		this.segments.put(id, segment);
+
+		if (this.verbose)
+			logger.info("Created segment " + file.getAbsolutePath());
+		return segment;
+	}
+
+	private Segment openSegment(File file) {
+		String name = file.getName();
+		int id;
+		try {
+			id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			throw new XmlPersistenceException("The file " + file.getAbsolutePath() + " is not a segment of a log!");
+		}
+
+		try {
+			FileChannel channel = FileChannel
+					.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			return new Segment(id, file, channel);
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to open segment " + file.getAbsolutePath(), e);
+		}
+	}
+
+	private long append(Segment segment, byte[] frame) {
+		long offset = segment.size;
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(frame);
+			long position = offset;
+			while (buffer.hasRemaining()) {
+				position += segment.channel.write(buffer, position);
+			}
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to append to segment " + segment.file.getAbsolutePath(), e);
+		}
+
+		segment.size = offset + frame.length;
+		this.appendedLsn += frame.length;
+		return offset;
+	}
+
+	/**
+	 * Forces the active segment to disk, unless another thread has already done so after the frame with the given log
+	 * sequence number was appended
+	 */
+	private void sync(long lsn) {
+		if (this.syncedLsn >= lsn)
+			return;
+
+		synchronized (this.syncLock) {
+			if (this.syncedLsn >= lsn)
+				return;
+
+			long target;
+			FileChannel channel;
+			synchronized (this.appendLock) {
+				target = this.appendedLsn;
+				channel = this.activeSegment.channel;
+			}
+
+			try {
+				channel.force(false);
+			} catch (ClosedChannelException e) {
+				// a sealed segment was forced before it was sealed
+			} catch (IOException e) {
+				throw new XmlPersistenceException("Failed to force log " + this.logPath.getAbsolutePath(), e);
+			}
+
+			this.syncedLsn = target;
+		}
+	}
+
+	private byte[] readFully(Segment segment, long offset, int length) {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		long position = offset;
+		try {
+			while (buffer.hasRemaining()) {
+				int read = segment.channel.read(buffer, position);
+				if (read == -1)
+					throw new EOFException("Unexpected end of segment at " + position);
+				position += read;
+			}
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to read from segment " + segment.file.getAbsolutePath(), e);
+		}
+		return buffer.array();
+	}
+
+	private void putLocation(String key, Location location) {
+		Location previous = this.index.put(key, location);
+		location.segment.liveBytes += location.length + RECORD_OVERHEAD;
+		if (previous != null)
+			previous.segment.liveBytes -= previous.length + RECORD_OVERHEAD;
+	}
+
+	private void removeLocation(String key) {
+		Location previous = this.index.remove(key);
+		if (previous != null)
+			previous.segment.liveBytes -= previous.length + RECORD_OVERHEAD;
+	}
+
+	private static byte[] encodeFrame(List<Record> records) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+			DataOutputStream out = new DataOutputStream(bytes);
+
+			// header is filled in below
+			out.writeInt(0);
+			out.writeInt(0);
+
+			out.writeInt(records.size());
+			for (Record record : records) {
+				out.writeByte(record.op);
+				out.writeUTF(record.key);
+				out.writeLong(record.seq);
+				out.writeLong(record.lastModified);
+				out.writeInt(record.data.length);
+				record.frameOffset = out.size();
+				out.write(record.data);
+			}
+			out.flush();
+
+			byte[] frame = bytes.toByteArray();
+			CRC32 crc = new CRC32();
+			crc.update(frame, FRAME_HEADER_SIZE, frame.length - FRAME_HEADER_SIZE);
+			ByteBuffer.wrap(frame).putInt(frame.length - FRAME_HEADER_SIZE).putInt((int) crc.getValue());
+			return frame;
+
+		} catch (IOException e) {
+			throw new XmlPersistenceException("Failed to encode frame", e);
+		}
+	}
+
+	private static List<Record> decodeFrame(byte[] payload) throws IOException {
+		ByteArrayInputStream bytes = new ByteArrayInputStream(payload);
+		DataInputStream in = new DataInputStream(bytes);
+
+		int nrOfRecords = in.readInt();
+		List<Record> records = new ArrayList<>(nrOfRecords);
+		for (int i = 0; i < nrOfRecords; i++) {
+			Record record = new Record(in.readByte(), in.readUTF());
+			record.seq = in.readLong();
+			record.lastModified = in.readLong();
+			record.data = new byte[in.readInt()];
+			record.frameOffset = FRAME_HEADER_SIZE + payload.length - bytes.available();
+			in.readFully(record.data);
+			records.add(record);
+		}
+
+		return records;
+	}
+
+	/**
+	 * The changes of a single commit, which are appended as one frame by {@link #commit(Batch)}
+	 */
+	public static class Batch {
+		private final List<Record> records = new ArrayList<>();
+
+		public void put(String key, byte[] data, long lastModified) {
+			Record record = new Record(OP_PUT, key);
+			record.data = data;
+			record.lastModified = lastModified;
+			this.records.add(record);
+		}
+
+		public void delete(String key) {
+			Record record = new Record(OP_DELETE, key);
+			record.data = new byte[0];
+			this.records.add(record);
+		}
+
+		public boolean isEmpty() {
+			return this.records.isEmpty();
+		}
+	}
+
+	/**
+	 * The meta data of an object in the log, as returned by {@link #queryEntries(String, boolean)}
+	 */
+	public static class LogEntry {
+		private final String id;
+		private final long lastModified;
+		private final int length;
+
+		private LogEntry(String id, long lastModified, int length) {
+			this.id = id;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public long getLastModified() {
+			return this.lastModified;
+		}
+
+		public int getLength() {
+			return this.length;
+		}
+	}
+
+	private static class Record {
+		private final byte op;
+		private final String key;
+		private byte[] data;
+		private long lastModified;
+		private long seq;
+		private int frameOffset;
+		private long sourceOffset;
+
+		private Record(byte op, String key) {
+			this.op = op;
+			this.key = key;
+		}
+	}
+
+	private static class Location {
+		private final Segment segment;
+		private final long offset;
+		private final int length;
+		private final long lastModified;
+		private final long seq;
+
+		private Location(Segment segment, long offset, int length, long lastModified, long seq) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+			this.lastModified = lastModified;
+			this.seq = seq;
+		}
+	}
+
+	private static class Segment {
+		private final int id;
+		private final File file;
+		private final FileChannel channel;
+		private final AtomicInteger pending;
+		private volatile long size;
+		private volatile boolean sealed;
+		private long liveBytes;
+
+		private Segment(int id, File file, FileChannel channel) {
+			this.id = id;
+			this.file = file;
+			this.channel = channel;
+			this.pending = new AtomicInteger();
+		}
+	}
+}
@@ -18,6 +18,10 @@ package li.strolch.xmlpers.api;
 import static li.strolch.xmlpers.api.FileIo.TMP_PREFIX;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.Comparator;
@@ -41,11 +45,13 @@ public class MetadataDao {
 	private final PersistenceTransaction tx;
 	private final PathBuilder pathBuilder;
 	private final boolean verbose;
+	private final LogStructuredStore logStore;
 
 	public MetadataDao(PathBuilder pathBuilder, PersistenceTransaction tx, boolean verbose) {
 		this.tx = tx;
 		this.pathBuilder = pathBuilder;
 		this.verbose = verbose;
+		this.logStore = tx.getManager().getLogStore();
 	}
 
 	public Set<String> queryTypeSet(ObjectRef parentRef) {
@@ -53,8 +59,11 @@ public class MetadataDao {
 		assertNotIdRef(parentRef);
 
 		this.tx.lock(parentRef);
-		File queryPath = parentRef.getPath(this.pathBuilder);
-		Set<String> keySet = queryTypeSet(queryPath);
+		Set<String> keySet;
+		if (this.logStore != null)
+			keySet = this.logStore.queryTypeSet(parentRef.getName());
+		else
+			keySet = queryTypeSet(parentRef.getPath(this.pathBuilder));
 
 		if (this.verbose) {
 			String msg = "Found {0} types for {1}"; //$NON-NLS-1$
@@ -76,7 +85,11 @@ public class MetadataDao {
 
 		this.tx.lock(parentRef);
 		File queryPath = parentRef.getPath(this.pathBuilder);
-		Set<String> keySet = queryKeySet(queryPath, reverse, predicate);
+		Set<String> keySet;
+		if (this.logStore != null)
+			keySet = queryLogKeySet(parentRef, queryPath, reverse, predicate);
+		else
+			keySet = queryKeySet(queryPath, reverse, predicate);
 
 		if (this.verbose) {
 			String msg = "Found {0} objects for {1}"; //$NON-NLS-1$
@@ -93,8 +106,11 @@ public class MetadataDao {
 		assertNotIdRef(parentRef);
 
 		this.tx.lock(parentRef);
-		File queryPath = parentRef.getPath(this.pathBuilder);
-		long numberOfFiles = queryTypeSize(queryPath);
+		long numberOfFiles;
+		if (this.logStore != null)
+			numberOfFiles = this.logStore.queryTypeSet(parentRef.getName()).size();
+		else
+			numberOfFiles = queryTypeSize(parentRef.getPath(this.pathBuilder));
 
 		if (this.verbose) {
 			String msg = "Found {0} types for {1}"; //$NON-NLS-1$
@@ -110,7 +126,11 @@ public class MetadataDao {
 
 		this.tx.lock(parentRef);
 		File queryPath = parentRef.getPath(this.pathBuilder);
-		long numberOfFiles = querySize(queryPath, predicate);
+		long numberOfFiles;
+		if (this.logStore != null)
+			numberOfFiles = queryLogKeySet(parentRef, queryPath, false, predicate).size();
+		else
+			numberOfFiles = querySize(queryPath, predicate);
 
 		if (this.verbose) {
 			String msg = "Found {0} objects for {1}"; //$NON-NLS-1$
@@ -140,14 +160,12 @@ public class MetadataDao {
 		}
 
 		Set<String> keySet = new TreeSet<>();
-		File[] subTypeFiles = queryPath.listFiles();
-		if (subTypeFiles != null) {
-			for (File subTypeFile : subTypeFiles) {
-				if (subTypeFile.isDirectory()) {
-					String type = subTypeFile.getName();
-					keySet.add(type);
-				}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(queryPath.toPath(), Files::isDirectory)) {
+			for (Path subTypePath : stream) {
+				keySet.add(subTypePath.getFileName().toString());
 			}
+		} catch (IOException e) {
+			throw newQueryException(queryPath, e);
 		}
 
 		return keySet;
@@ -175,23 +193,19 @@ public class MetadataDao {
 		Comparator<String> comparator = reverse ? Comparator.reverseOrder() : Comparator.naturalOrder();
 		Set<String> keySet = new TreeSet<>(comparator);
 
-		File[] subTypeFiles = queryPath.listFiles();
-		if (subTypeFiles == null) {
-			String msg = "The path does not exist, thus can not query key set for it: {0}"; //$NON-NLS-1$
-			msg = MessageFormat.format(msg, queryPath.getAbsolutePath());
-			throw new IllegalArgumentException(msg);
-		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(queryPath.toPath())) {
+			for (Path subTypePath : stream) {
+				String filename = subTypePath.getFileName().toString();
+				if (!filename.startsWith(TMP_PREFIX) //
+						&& Files.isRegularFile(subTypePath) //
+						&& predicate.test(subTypePath.toFile())) {
 
-		for (File subTypeFile : subTypeFiles) {
-
-			if (subTypeFile.isFile() //
-					&& !subTypeFile.getName().startsWith(TMP_PREFIX) //
-					&& predicate.test(subTypeFile)) {
-
-				String filename = subTypeFile.getName();
-				String id = FilenameUtility.getId(filename);
-				keySet.add(id);
+					String id = FilenameUtility.getId(filename);
+					keySet.add(id);
+				}
 			}
+		} catch (IOException e) {
+			throw newQueryException(queryPath, e);
 		}
 
 		return keySet;
@@ -216,15 +230,14 @@ public class MetadataDao {
 		}
 
 		long numberOfFiles = 0L;
-
-		File[] subTypeFiles = queryPath.listFiles();
-		if (subTypeFiles != null) {
-			for (File subTypeFile : subTypeFiles) {
-
-				if (subTypeFile.isDirectory())
-					numberOfFiles++;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(queryPath.toPath(), Files::isDirectory)) {
+			for (Path ignored : stream) {
+				numberOfFiles++;
 			}
+		} catch (IOException e) {
+			throw newQueryException(queryPath, e);
 		}
+
 		return numberOfFiles;
 	}
 
@@ -247,21 +260,51 @@ public class MetadataDao {
 		}
 
 		long numberOfFiles = 0L;
-
-		File[] subTypeFiles = queryPath.listFiles();
-		if (subTypeFiles != null) {
-			for (File subTypeFile : subTypeFiles) {
-
-				if (subTypeFile.isFile() //
-						&& !subTypeFile.getName().startsWith(TMP_PREFIX) //
-						&& predicate.test(subTypeFile)) {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(queryPath.toPath())) {
+			for (Path subTypePath : stream) {
+				if (!subTypePath.getFileName().toString().startsWith(TMP_PREFIX) //
+						&& Files.isRegularFile(subTypePath) //
+						&& predicate.test(subTypePath.toFile())) {
 					numberOfFiles++;
 				}
 			}
+		} catch (IOException e) {
+			throw newQueryException(queryPath, e);
 		}
+
 		return numberOfFiles;
 	}
 
+	/**
+	 * Returns the ids of all objects in the {@link LogStructuredStore} which are children of the given parent ref. The
+	 * predicate is passed a {@link File} which returns the meta data of the object as stored in the log
+	 *
+	 * @param parentRef
+	 * 		the parent for which the ids should be gathered
+	 * @param queryPath
+	 * 		the path of the parent, were the objects stored in files
+	 *
+	 * @return a set of ids for the objects of the given parent
+	 */
+	private Set<String> queryLogKeySet(ObjectRef parentRef, File queryPath, boolean reverse,
+			Predicate<File> predicate) {
+		Comparator<String> comparator = reverse ? Comparator.reverseOrder() : Comparator.naturalOrder();
+		Set<String> keySet = new TreeSet<>(comparator);
+
+		for (LogStructuredStore.LogEntry entry : this.logStore.queryEntries(parentRef.getName(), reverse)) {
+			if (predicate.test(new LogEntryFile(queryPath, entry)))
+				keySet.add(entry.getId());
+		}
+
+		return keySet;
+	}
+
+	private XmlPersistenceException newQueryException(File queryPath, IOException e) {
+		String msg = "Failed to read directory {0} due to {1}"; //$NON-NLS-1$
+		msg = MessageFormat.format(msg, queryPath.getAbsolutePath(), e.getMessage());
+		return new XmlPersistenceException(msg, e);
+	}
+
 	private void assertNotClosed(PersistenceTransaction tx) {
 		if (!tx.isOpen()) {
 			String msg = "Transaction has been closed and thus no operation can be performed!"; //$NON-NLS-1$
@@ -284,4 +327,38 @@ public class MetadataDao {
 			throw new IllegalArgumentException(msg);
 		}
 	}
+
+	/**
+	 * A {@link File} for predicates which returns the meta data of an object in a {@link LogStructuredStore}
+	 */
+	private static class LogEntryFile extends File {
+		private final long lastModified;
+		private final long length;
+
+		private LogEntryFile(File parent, LogStructuredStore.LogEntry entry) {
+			super(parent, entry.getId() + PathBuilder.FILE_EXT);
+			this.lastModified = entry.getLastModified();
+			this.length = entry.getLength();
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public boolean isFile() {
+			return true;
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public long length() {
+			return this.length;
+		}
+	}
 }
@@ -21,7 +21,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import li.strolch.utils.objectfilter.ObjectFilter;
 import li.strolch.xmlpers.objref.ObjectRef;
@@ -33,6 +37,8 @@ import li.strolch.xmlpers.objref.TypeRef;
  */
 public class ObjectDao {
 
+	private static final int PARALLEL_READ_THRESHOLD = 64;
+
 	private final ObjectFilter objectFilter;
 	private final FileDao fileDao;
 	private final PersistenceTransaction tx;
@@ -237,23 +243,110 @@ public class ObjectDao {
 		Set<String> keySet = metadataDao.queryKeySet(parentRef, reverse, predicate);
 
 		int i = 0;
-		List<T> result = new ArrayList<>();
+		List<PersistenceContext<T>> contexts = new ArrayList<>(keySet.size());
 		for (String id : keySet) {
 
 			ObjectRef childRef = parentRef.getChildIdRef(this.tx, id);
 			PersistenceContext<T> childCtx = childRef.createPersistenceContext(this.tx);
 			this.tx.lock(childCtx.getObjectRef());
-			this.fileDao.performRead(childCtx);
-			assertObjectRead(childCtx);
-			result.add(childCtx.getObject());
+			contexts.add(childCtx);
 
 			if (maxSize != Integer.MAX_VALUE && i >= maxSize)
 				break;
 		}
 
+		ForkJoinPool parsePool = this.tx.getManager().getParsePool();
+		if (parsePool == null || contexts.size() < PARALLEL_READ_THRESHOLD) {
+			for (PersistenceContext<T> childCtx : contexts) {
+				read(childCtx);
+			}
+		} else {
+			parsePool.invoke(new ReadTask<>(contexts, 0, contexts.size()));
+		}
+
+		List<T> result = new ArrayList<>(contexts.size());
+		for (PersistenceContext<T> childCtx : contexts) {
+			result.add(childCtx.getObject());
+		}
+
 		return result;
 	}
 
+	/**
+	 * <p>
+	 * Streams all objects of the given parent by passing a {@link Supplier} for each object to the given consumer.
+	 * The objects are locked on the calling thread, but only read and parsed when the supplier is called, thus the
+	 * caller may parse the objects concurrently by calling the suppliers on other threads.
+	 * </p>
+	 *
+	 * <p>
+	 * <b>Note:</b> The suppliers do not require this transaction to still be open, but once it is closed, the objects
+	 * are not locked anymore
+	 * </p>
+	 *
+	 * @param parentRef
+	 * 		the parent of the objects to stream
+	 * @param predicate
+	 * 		the predicate to filter the objects' files
+	 * @param consumer
+	 * 		the consumer of the suppliers of the objects
+	 * @param <T>
+	 * 		the type of object
+	 */
+	public <T> void streamAll(ObjectRef parentRef, Predicate<File> predicate, Consumer<Supplier<T>> consumer) {
+		assertNotClosed();
+		assertIsNotIdRef(parentRef);
+
+		this.tx.lock(parentRef);
+
+		MetadataDao metadataDao = this.tx.getMetadataDao();
+		Set<String> keySet = metadataDao.queryKeySet(parentRef, false, predicate);
+		for (String id : keySet) {
+
+			ObjectRef childRef = parentRef.getChildIdRef(this.tx, id);
+			PersistenceContext<T> childCtx = childRef.createPersistenceContext(this.tx);
+			this.tx.lock(childCtx.getObjectRef());
+			consumer.accept(() -> {
+				read(childCtx);
+				return childCtx.getObject();
+			});
+		}
+	}
+
+	private <T> void read(PersistenceContext<T> ctx) {
+		this.fileDao.performRead(ctx);
+		assertObjectRead(ctx);
+	}
+
+	/**
+	 * Reads the objects of the given contexts by recursively splitting the contexts until at most {@link
+	 * #PARALLEL_READ_THRESHOLD} remain for a task
+	 */
+	private class ReadTask<T> extends RecursiveAction {
+		private final List<PersistenceContext<T>> contexts;
+		private final int from;
+		private final int to;
+
+		private ReadTask(List<PersistenceContext<T>> contexts, int from, int to) {
+			this.contexts = contexts;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= PARALLEL_READ_THRESHOLD) {
+				for (int i = this.from; i < this.to; i++) {
+					read(this.contexts.get(i));
+				}
+			} else {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new ReadTask<>(this.contexts, this.from, middle),
+						new ReadTask<>(this.contexts, middle, this.to));
+			}
+		}
+	}
+
 	private Set<String> queryKeySet(ObjectRef parentRef, boolean reverse, Predicate<File> predicate) {
 		assertNotClosed();
 		assertIsNotIdRef(parentRef);
@@ -27,4 +27,10 @@ public class PersistenceConstants {
 	public static final String PROP_DAO_FACTORY_CLASS = PROP_PREFIX + "daoFactoryClass";
 	public static final String PROP_XML_IO_MOD = PROP_PREFIX + "ioMode";
 	public static final String PROP_LOCK_TIME_MILLIS = PROP_PREFIX + "lockTimeSeconds";
+	public static final String PROP_STORAGE_MODE = PROP_PREFIX + "storageMode";
+	public static final String PROP_LOG_SEGMENT_SIZE = PROP_PREFIX + "logSegmentSize";
+	public static final String PROP_LOG_COMPACTION_INTERVAL = PROP_PREFIX + "logCompactionIntervalSeconds";
+	public static final String PROP_PARSE_PARALLELISM = PROP_PREFIX + "parseParallelism";
+	public static final String PROP_GROUP_COMMIT = PROP_PREFIX + "groupCommit";
+	public static final String PROP_GROUP_COMMIT_MAX_LATENCY = PROP_PREFIX + "groupCommitMaxLatencyMillis";
 }
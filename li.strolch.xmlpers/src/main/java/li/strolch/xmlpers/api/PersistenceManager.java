@@ -15,6 +15,8 @@
  */
 package li.strolch.xmlpers.api;
 
+import java.util.concurrent.ForkJoinPool;
+
 import li.strolch.xmlpers.impl.PathBuilder;
 import li.strolch.xmlpers.objref.ObjectReferenceCache;
 
@@ -31,5 +33,35 @@ public interface PersistenceManager {
 
 	IoMode getIoMode();
 
+	StorageMode getStorageMode();
+
+	/**
+	 * Returns the {@link LogStructuredStore} if the {@link StorageMode#LOG} is used, otherwise null
+	 *
+	 * @return the {@link LogStructuredStore}, or null
+	 */
+	LogStructuredStore getLogStore();
+
+	/**
+	 * Returns the {@link ForkJoinPool} on which objects are parsed when querying all objects of a type, or null if
+	 * objects are parsed sequentially on the calling thread
+	 *
+	 * @return the {@link ForkJoinPool}, or null
+	 */
+	ForkJoinPool getParsePool();
+
+	/**
+	 * Returns the {@link FileGroupCommitter} if group commit is enabled with the {@link StorageMode#FILES}, otherwise
+	 * null
+	 *
+	 * @return the {@link FileGroupCommitter}, or null
+	 */
+	FileGroupCommitter getGroupCommitter();
+
 	PersistenceTransaction openTx();
+
+	/**
+	 * Releases any resources held by this manager, after which no transactions may be opened anymore
+	 */
+	void close();
 }
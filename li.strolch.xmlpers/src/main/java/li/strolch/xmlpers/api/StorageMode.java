@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.api;
+
+/**
+ * Defines how the objects of a {@link PersistenceManager} are stored on disk
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public enum StorageMode {
+
+	/**
+	 * Every object is written to its own XML file, in a directory per type and sub type
+	 */
+	FILES,
+
+	/**
+	 * Every commit is appended to the segment files of a {@link LogStructuredStore}, whose index is kept in memory
+	 */
+	LOG
+}
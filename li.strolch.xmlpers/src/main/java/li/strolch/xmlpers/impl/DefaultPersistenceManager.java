@@ -22,6 +22,7 @@ import java.io.File;
 import java.lang.reflect.Field;
 import java.text.MessageFormat;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 
 import li.strolch.utils.helper.PropertiesHelper;
 import li.strolch.utils.helper.StringHelper;
@@ -41,6 +42,10 @@ public class DefaultPersistenceManager implements PersistenceManager {
 	protected boolean initialized;
 	protected boolean verbose;
 	protected IoMode ioMode;
+	protected StorageMode storageMode;
+	private LogStructuredStore logStore;
+	private ForkJoinPool parsePool;
+	private FileGroupCommitter groupCommitter;
 	private PersistenceContextFactoryDelegator ctxFactory;
 	private ObjectReferenceCache objectRefCache;
 	private PathBuilder pathBuilder;
@@ -56,6 +61,10 @@ public class DefaultPersistenceManager implements PersistenceManager {
 		IoMode ioMode = IoMode.valueOf(getProperty(properties, context, PROP_XML_IO_MOD, IoMode.DOM.name()));
 		long lockTime = getPropertyLong(properties, context, PROP_LOCK_TIME_MILLIS, LockableObject.getLockTime());
 		String basePath = getProperty(properties, context, PROP_BASEPATH, null);
+		StorageMode storageMode = StorageMode
+				.valueOf(getProperty(properties, context, PROP_STORAGE_MODE, StorageMode.FILES.name()));
+		int parseParallelism = getPropertyInt(properties, context, PROP_PARSE_PARALLELISM, 1);
+		boolean groupCommit = getPropertyBool(properties, context, PROP_GROUP_COMMIT, Boolean.FALSE);
 
 		// set lock time on LockableObject
 		if (lockTime != LockableObject.getLockTime())
@@ -75,10 +84,31 @@ public class DefaultPersistenceManager implements PersistenceManager {
 
 		this.verbose = verbose;
 		this.ioMode = ioMode;
+		this.storageMode = storageMode;
 		this.ctxFactory = new PersistenceContextFactoryDelegator();
 
 		this.pathBuilder = new PathBuilder(basePathF);
 		this.objectRefCache = new ObjectReferenceCache();
+
+		if (storageMode == StorageMode.LOG) {
+			long segmentSize = getPropertyLong(properties, context, PROP_LOG_SEGMENT_SIZE,
+					LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+			long compactionInterval = getPropertyLong(properties, context, PROP_LOG_COMPACTION_INTERVAL,
+					LogStructuredStore.DEFAULT_COMPACTION_INTERVAL_SECONDS);
+			this.logStore = new LogStructuredStore(new File(basePathF, LogStructuredStore.LOG_DIR), segmentSize,
+					verbose);
+			this.logStore.open(compactionInterval);
+		} else if (groupCommit) {
+			long maxLatency = getPropertyLong(properties, context, PROP_GROUP_COMMIT_MAX_LATENCY,
+					FileGroupCommitter.DEFAULT_MAX_LATENCY_MILLIS);
+			this.groupCommitter = new FileGroupCommitter(basePathF, maxLatency, verbose);
+			this.groupCommitter.start();
+		}
+
+		if (parseParallelism > 1) {
+			logger.info(MessageFormat.format("Parsing objects with a parallelism of {0}", parseParallelism)); //$NON-NLS-1$
+			this.parsePool = new ForkJoinPool(parseParallelism);
+		}
 	}
 
 	@Override
@@ -101,8 +131,38 @@ public class DefaultPersistenceManager implements PersistenceManager {
 		return this.ioMode;
 	}
 
+	@Override
+	public StorageMode getStorageMode() {
+		return this.storageMode;
+	}
+
+	@Override
+	public LogStructuredStore getLogStore() {
+		return this.logStore;
+	}
+
+	@Override
+	public ForkJoinPool getParsePool() {
+		return this.parsePool;
+	}
+
+	@Override
+	public FileGroupCommitter getGroupCommitter() {
+		return this.groupCommitter;
+	}
+
 	@Override
 	public synchronized PersistenceTransaction openTx() {
 		return new DefaultPersistenceTransaction(this, this.ioMode, this.verbose);
 	}
-}
+
+	@Override
+	public void close() {
+		if (this.parsePool != null)
+			this.parsePool.shutdown();
+		if (this.groupCommitter != null)
+			this.groupCommitter.stop();
+		if (this.logStore != null)
+			this.logStore.close();
+	}
+}
\ No newline at end of file
@@ -207,6 +207,9 @@ public class DefaultPersistenceTransaction implements PersistenceTransaction {
 			}
 		}
 
+		// with the log storage mode, all changes are appended at once, and with group commit all files are made durable
+		this.fileDao.flush();
+
 		if (this.txResult != null) {
 			this.txResult.clear();
 			this.txResult.setState(TransactionState.COMMITTED);
@@ -230,6 +233,7 @@ public class DefaultPersistenceTransaction implements PersistenceTransaction {
 
 		} catch (Exception e) {
 			logger.error("Failed to commit!", e);
+			this.fileDao.discard();
 
 			if (this.txResult == null) {
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.test;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import li.strolch.utils.collections.DateRange;
+import li.strolch.xmlpers.api.DateSegmentStore;
+import li.strolch.xmlpers.test.impl.BookSaxParser;
+import li.strolch.xmlpers.test.model.Book;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DateSegmentStore}, using the ID of a {@link Book} as its time
+ *
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class DateSegmentStoreTest extends AbstractPersistenceTest {
+
+	private static final String BASEPATH = "target/db/DateSegmentStoreTest/"; //$NON-NLS-1$
+	private static final String TYPE = "Books"; //$NON-NLS-1$
+
+	private static final long DAY = 24L * 60L * 60L * 1000L;
+	private static final long T0 = 1600000000000L;
+	private static final int NR_OF_BOOKS = 1000;
+	private static final int NR_OF_DAYS = 10;
+
+	private static final DateRange ALL = new DateRange().from(new Date(0L), true)
+			.to(new Date((long) Math.pow(2, 50)), true);
+
+	private File basePath;
+
+	@Before
+	public void before() {
+		cleanPath(BASEPATH);
+		this.basePath = new File(BASEPATH, "segments");
+	}
+
+	private DateSegmentStore<Book> openStore() {
+		return new DateSegmentStore<>(this.basePath, BookSaxParser::new, b -> b.getId().toString(), Book::getId);
+	}
+
+	private static Book book(long time, String title) {
+		return new Book(time, title, "Author", "Press", 1.0D);
+	}
+
+	private static List<Book> createBooks() {
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < NR_OF_BOOKS; i++) {
+			books.add(book(T0 + (i % NR_OF_DAYS) * DAY + i, "Book " + i));
+		}
+		return books;
+	}
+
+	private static DateRange dayRange(int day) {
+		return new DateRange().from(new Date(T0 + day * DAY), true).to(new Date(T0 + (day + 1) * DAY), false);
+	}
+
+	@Test
+	public void shouldQueryByDateRange() {
+		DateSegmentStore<Book> store = openStore();
+		store.add(TYPE, createBooks());
+
+		assertEquals(Collections.singleton(TYPE), store.queryTypes());
+		assertEquals(NR_OF_BOOKS, store.querySize(TYPE, ALL));
+		assertEquals(NR_OF_BOOKS / NR_OF_DAYS, store.querySize(TYPE, dayRange(3)));
+		assertEquals(NR_OF_BOOKS / NR_OF_DAYS, store.queryAll(TYPE, dayRange(3)).size());
+		assertEquals(0, store.querySize("Other", ALL));
+
+		Book book = store.queryById(TYPE, Long.toString(T0 + 5 * DAY + 5));
+		assertNotNull(book);
+		assertEquals("Book 5", book.getTitle());
+
+		List<Book> latest = store.queryLatest(TYPE, 5);
+		assertEquals(5, latest.size());
+		assertEquals("Book 999", latest.get(0).getTitle());
+		assertEquals("Book 989", latest.get(1).getTitle());
+	}
+
+	@Test
+	public void shouldUpdateAndRemove() {
+		DateSegmentStore<Book> store = openStore();
+		store.add(TYPE, createBooks());
+
+		long id = T0 + 5 * DAY + 5;
+		store.update(TYPE, singletonList(book(id, "Changed")));
+		assertEquals("Changed", store.queryById(TYPE, Long.toString(id)).getTitle());
+		assertEquals(NR_OF_BOOKS, store.querySize(TYPE, ALL));
+
+		assertEquals(1, store.remove(TYPE, singletonList(book(id, "Changed"))));
+		assertFalse(store.hasElement(TYPE, Long.toString(id)));
+		assertEquals(0, store.remove(TYPE, singletonList(book(id, "Changed"))));
+
+		assertEquals(NR_OF_BOOKS / NR_OF_DAYS, store.removeAll(TYPE, dayRange(3)));
+		assertEquals(0, store.querySize(TYPE, dayRange(3)));
+		assertEquals(NR_OF_BOOKS - 1 - NR_OF_BOOKS / NR_OF_DAYS, store.querySize(TYPE, ALL));
+
+		// changes must be persisted
+		DateSegmentStore<Book> reopened = openStore();
+		assertEquals(NR_OF_BOOKS - 1 - NR_OF_BOOKS / NR_OF_DAYS, reopened.querySize(TYPE, ALL));
+		assertFalse(reopened.hasElement(TYPE, Long.toString(id)));
+
+		assertEquals(NR_OF_BOOKS - 1 - NR_OF_BOOKS / NR_OF_DAYS, reopened.removeAll(TYPE, ALL));
+		assertTrue(reopened.queryTypes().isEmpty());
+		assertFalse(new File(this.basePath, TYPE).exists());
+	}
+
+	@Test
+	public void shouldCompactSegment() {
+		DateSegmentStore<Book> store = openStore();
+		store.add(TYPE, singletonList(book(T0, "First")));
+		store.add(TYPE, singletonList(book(T0 + 1, "Second")));
+		for (int i = 0; i < 300; i++) {
+			store.update(TYPE, singletonList(book(T0, "First " + i)));
+		}
+
+		String day = Instant.ofEpochMilli(T0).atZone(ZoneId.systemDefault()).toLocalDate().toString();
+		File segFile = new File(new File(this.basePath, TYPE), day + DateSegmentStore.SEGMENT_SUFFIX);
+		assertTrue("Segment should have been compacted", segFile.length() < 100 * 200);
+
+		DateSegmentStore<Book> reopened = openStore();
+		assertEquals(2, reopened.querySize(TYPE, ALL));
+		assertEquals("First 299", reopened.queryById(TYPE, Long.toString(T0)).getTitle());
+		assertEquals("Second", reopened.queryById(TYPE, Long.toString(T0 + 1)).getTitle());
+	}
+
+	@Test
+	public void shouldIgnoreIncompleteIndexRecord() throws IOException {
+		DateSegmentStore<Book> store = openStore();
+		store.add(TYPE, singletonList(book(T0, "First")));
+
+		String day = Instant.ofEpochMilli(T0).atZone(ZoneId.systemDefault()).toLocalDate().toString();
+		File idxFile = new File(new File(this.basePath, TYPE), day + DateSegmentStore.INDEX_SUFFIX);
+		try (FileOutputStream out = new FileOutputStream(idxFile, true)) {
+			out.write(new byte[] { 'A', 0, 5 });
+		}
+
+		store = openStore();
+		assertEquals(1, store.querySize(TYPE, ALL));
+		store.add(TYPE, singletonList(book(T0 + 1, "Second")));
+
+		store = openStore();
+		assertEquals(2, store.querySize(TYPE, ALL));
+		assertEquals("Second", store.queryById(TYPE, Long.toString(T0 + 1)).getTitle());
+	}
+}
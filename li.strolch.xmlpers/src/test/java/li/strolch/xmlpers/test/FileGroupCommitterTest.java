@@ -0,0 +1,177 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.test;
+
+import static li.strolch.xmlpers.test.impl.TestConstants.TYPE_RES;
+import static li.strolch.xmlpers.test.model.ModelBuilder.createResource;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import li.strolch.xmlpers.api.*;
+import li.strolch.xmlpers.objref.IdOfSubTypeRef;
+import li.strolch.xmlpers.objref.SubTypeRef;
+import li.strolch.xmlpers.test.model.MyModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class FileGroupCommitterTest extends AbstractPersistenceTest {
+
+	private static final String BASEPATH = "target/db/FileGroupCommitterTest/"; //$NON-NLS-1$
+	private static final String TYPE = "GroupCommit"; //$NON-NLS-1$
+
+	private static final int NR_OF_THREADS = 8;
+	private static final int NR_OF_TXS = 10;
+	private static final int NR_OF_RESOURCES = 5;
+
+	@Before
+	public void before() {
+		cleanPath(BASEPATH);
+
+		Properties properties = new Properties();
+		properties.setProperty(PersistenceConstants.PROP_XML_IO_MOD, IoMode.SAX.name());
+		properties.setProperty(PersistenceConstants.PROP_BASEPATH, BASEPATH + IoMode.SAX.name());
+		properties.setProperty(PersistenceConstants.PROP_GROUP_COMMIT, "true");
+		properties.setProperty(PersistenceConstants.PROP_GROUP_COMMIT_MAX_LATENCY, "5");
+		setup(properties);
+	}
+
+	@After
+	public void after() {
+		if (this.persistenceManager != null)
+			this.persistenceManager.close();
+	}
+
+	private File getTypePath() {
+		return new File(BASEPATH + IoMode.SAX.name() + "/" + TYPE_RES + "/" + TYPE);
+	}
+
+	private void assertNoTmpFiles() {
+		String[] tmpFiles = getTypePath().list((dir, name) -> name.startsWith(FileIo.TMP_PREFIX));
+		if (tmpFiles != null)
+			assertEquals("Temp files must be moved or deleted", 0, tmpFiles.length);
+	}
+
+	private long querySize() {
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			SubTypeRef subTypeRef = tx.getManager().getObjectRefCache().getSubTypeRef(TYPE_RES, TYPE);
+			return tx.getObjectDao().querySize(subTypeRef, file -> true);
+		}
+	}
+
+	private MyModel queryById(String id) {
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			IdOfSubTypeRef ref = tx.getManager().getObjectRefCache().getIdOfSubTypeRef(TYPE_RES, TYPE, id);
+			return tx.getObjectDao().queryById(ref);
+		}
+	}
+
+	@Test
+	public void shouldCommitConcurrentTransactions() throws Exception {
+		FileGroupCommitter groupCommitter = this.persistenceManager.getGroupCommitter();
+		assertNotNull(groupCommitter);
+
+		ExecutorService executor = Executors.newFixedThreadPool(NR_OF_THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < NR_OF_THREADS; i++) {
+				int thread = i;
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < NR_OF_TXS; j++) {
+						List<MyModel> resources = new ArrayList<>();
+						for (int k = 0; k < NR_OF_RESOURCES; k++) {
+							String id = "res_" + thread + "_" + j + "_" + k;
+							resources.add(createResource(id, "Resource " + id, TYPE));
+						}
+						try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+							tx.getObjectDao().addAll(resources);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		int nrOfTxs = NR_OF_THREADS * NR_OF_TXS;
+		assertEquals(nrOfTxs * NR_OF_RESOURCES, querySize());
+		assertEquals(nrOfTxs, groupCommitter.getNrOfCommits());
+		assertEquals(nrOfTxs * NR_OF_RESOURCES, groupCommitter.getNrOfFiles());
+		assertTrue(groupCommitter.getNrOfGroups() <= nrOfTxs);
+		assertEquals(0L, groupCommitter.getNrOfFailures());
+		assertEquals(0L, groupCommitter.getNrOfDirectorySyncFailures());
+		assertNoTmpFiles();
+
+		assertEquals("Resource res_3_4_2", queryById("res_3_4_2").getName());
+	}
+
+	@Test
+	public void shouldUpdateAndDelete() {
+		MyModel resource = createResource("res", "Resource", TYPE);
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().add(resource);
+		}
+
+		resource.setName("Changed");
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().update(resource);
+		}
+		assertEquals("Changed", queryById("res").getName());
+
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().remove(resource);
+		}
+		assertNull(queryById("res"));
+		assertFalse("Empty directory must be deleted", getTypePath().exists());
+		assertEquals(3L, this.persistenceManager.getGroupCommitter().getNrOfCommits());
+	}
+
+	@Test
+	public void shouldDiscardFailedTransaction() {
+		MyModel first = createResource("first", "First", TYPE);
+		MyModel second = createResource("second", "Second", TYPE);
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().add(first);
+			tx.getObjectDao().add(second);
+		}
+
+		// the update is written before the add fails, as the second resource already exists
+		first.setName("Changed");
+		assertThrows(XmlPersistenceException.class, () -> {
+			try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+				tx.getObjectDao().update(first);
+				tx.getObjectDao().add(second);
+			}
+		});
+
+		assertEquals("First", queryById("first").getName());
+		assertEquals(2L, querySize());
+		assertNoTmpFiles();
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2021 Robert von Burg <eitch@eitchnet.ch>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package li.strolch.xmlpers.test;
+
+import static li.strolch.xmlpers.test.impl.TestConstants.TYPE_RES;
+import static li.strolch.xmlpers.test.model.ModelBuilder.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import li.strolch.xmlpers.api.*;
+import li.strolch.xmlpers.objref.IdOfSubTypeRef;
+import li.strolch.xmlpers.objref.SubTypeRef;
+import li.strolch.xmlpers.objref.TypeRef;
+import li.strolch.xmlpers.test.model.MyModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Robert von Burg <eitch@eitchnet.ch>
+ */
+public class LogStructuredStoreTest extends AbstractPersistenceTest {
+
+	private static final String BASEPATH = "target/db/LogStructuredStoreTest/"; //$NON-NLS-1$
+
+	private IoMode ioMode;
+
+	@Before
+	public void before() {
+		cleanPath(BASEPATH);
+	}
+
+	@After
+	public void after() {
+		if (this.persistenceManager != null)
+			this.persistenceManager.close();
+	}
+
+	private void setup(IoMode ioMode, long segmentSize) {
+		this.ioMode = ioMode;
+		Properties properties = new Properties();
+		properties.setProperty(PersistenceConstants.PROP_XML_IO_MOD, ioMode.name());
+		properties.setProperty(PersistenceConstants.PROP_BASEPATH, BASEPATH + ioMode.name());
+		properties.setProperty(PersistenceConstants.PROP_STORAGE_MODE, StorageMode.LOG.name());
+		properties.setProperty(PersistenceConstants.PROP_LOG_SEGMENT_SIZE, Long.toString(segmentSize));
+		properties.setProperty(PersistenceConstants.PROP_LOG_COMPACTION_INTERVAL, "0");
+		setup(properties);
+	}
+
+	private void reopen(long segmentSize) {
+		this.persistenceManager.close();
+		setup(this.ioMode, segmentSize);
+	}
+
+	private static List<MyModel> createResources(String type, int nrOfResources) {
+		List<MyModel> resources = new ArrayList<>();
+		for (int i = 0; i < nrOfResources; i++) {
+			resources.add(createResource(type + "_" + i, "Resource " + i, type));
+		}
+		return resources;
+	}
+
+	private long querySize(String type) {
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			SubTypeRef subTypeRef = tx.getManager().getObjectRefCache().getSubTypeRef(TYPE_RES, type);
+			return tx.getObjectDao().querySize(subTypeRef, file -> true);
+		}
+	}
+
+	private MyModel queryById(String type, String id) {
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			IdOfSubTypeRef ref = tx.getManager().getObjectRefCache().getIdOfSubTypeRef(TYPE_RES, type, id);
+			return tx.getObjectDao().queryById(ref);
+		}
+	}
+
+	@Test
+	public void testCrudSax() {
+		setup(IoMode.SAX, LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+		testCrud();
+	}
+
+	@Test
+	public void testCrudDom() {
+		setup(IoMode.DOM, LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+		testCrud();
+	}
+
+	private void testCrud() {
+
+		// create new resource
+		MyModel resource = createResource();
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().add(resource);
+		}
+
+		// read and modify resource
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			IdOfSubTypeRef resRef = tx.getManager().getObjectRefCache().getIdOfSubTypeRef(TYPE_RES, RES_TYPE, RES_ID);
+			assertTrue(tx.getObjectDao().hasElement(resRef));
+			resource = tx.getObjectDao().queryById(resRef);
+			assertResource(resource);
+			updateResource(resource);
+			tx.getObjectDao().update(resource);
+		}
+
+		// read modified resource
+		resource = queryById(RES_TYPE, RES_ID);
+		assertResourceUpdated(resource);
+
+		// delete resource
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().remove(resource);
+		}
+		assertNull(queryById(RES_TYPE, RES_ID));
+
+		// nothing written as files
+		File[] files = new File(BASEPATH + this.ioMode.name()).listFiles();
+		assertNotNull(files);
+		assertEquals(Arrays.toString(files), 1, files.length);
+		assertEquals(LogStructuredStore.LOG_DIR, files[0].getName());
+	}
+
+	@Test
+	public void shouldQueryAfterReopen() {
+		setup(IoMode.SAX, LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().addAll(createResources("TypeA", 20));
+			tx.getObjectDao().addAll(createResources("TypeB", 10));
+		}
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			IdOfSubTypeRef ref = tx.getManager().getObjectRefCache().getIdOfSubTypeRef(TYPE_RES, "TypeB", "TypeB_3");
+			tx.getObjectDao().removeById(ref);
+		}
+
+		reopen(LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			TypeRef typeRef = tx.getManager().getObjectRefCache().getTypeRef(TYPE_RES);
+			assertEquals(Arrays.asList("TypeA", "TypeB"), new ArrayList<>(tx.getMetadataDao().queryTypeSet(typeRef)));
+			assertEquals(2L, tx.getMetadataDao().queryTypeSize(typeRef));
+
+			SubTypeRef subTypeRef = tx.getManager().getObjectRefCache().getSubTypeRef(TYPE_RES, "TypeA");
+			List<MyModel> resources = tx.getObjectDao().queryAll(subTypeRef, file -> true);
+			assertEquals(20, resources.size());
+		}
+
+		assertEquals(9L, querySize("TypeB"));
+		assertNull(queryById("TypeB", "TypeB_3"));
+		assertEquals("Resource 4", queryById("TypeB", "TypeB_4").getName());
+	}
+
+	@Test
+	public void shouldCompactSegments() {
+		setup(IoMode.SAX, 4096L);
+
+		List<MyModel> resources = createResources("TypeA", 10);
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().addAll(resources);
+		}
+		for (int i = 0; i < 20; i++) {
+			for (MyModel resource : resources) {
+				resource.setName("Name " + i);
+			}
+			try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+				tx.getObjectDao().updateAll(resources);
+			}
+		}
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().remove(resources.get(0));
+		}
+
+		LogStructuredStore logStore = this.persistenceManager.getLogStore();
+		int nrOfSegments = logStore.getNrOfSegments();
+		assertTrue("Expected multiple segments, but have " + nrOfSegments, nrOfSegments > 5);
+		logStore.compact();
+		assertTrue(logStore.getNrOfSegments() < nrOfSegments);
+		assertEquals(9, logStore.size());
+
+		reopen(4096L);
+
+		assertEquals(9L, querySize("TypeA"));
+		assertNull(queryById("TypeA", "TypeA_0"));
+		for (int i = 1; i < 10; i++) {
+			assertEquals("Name 19", queryById("TypeA", "TypeA_" + i).getName());
+		}
+	}
+
+	@Test
+	public void shouldTruncateIncompleteCommit() throws IOException {
+		setup(IoMode.SAX, LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().addAll(createResources("TypeA", 5));
+		}
+		this.persistenceManager.close();
+
+		// simulate a crash while appending a commit
+		File segment = new File(new File(BASEPATH + this.ioMode.name(), LogStructuredStore.LOG_DIR),
+				String.format("%010d", 1) + LogStructuredStore.SEGMENT_SUFFIX);
+		assertTrue(segment.isFile());
+		long length = segment.length();
+		try (FileOutputStream out = new FileOutputStream(segment, true)) {
+			out.write(new byte[] { 0, 0, 1, 0, 7, 7, 7, 7, 'P', 0 });
+		}
+
+		setup(this.ioMode, LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+		assertEquals(length, segment.length());
+		assertEquals(5L, querySize("TypeA"));
+
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().addAll(createResources("TypeB", 5));
+		}
+
+		reopen(LogStructuredStore.DEFAULT_MAX_SEGMENT_SIZE);
+		assertEquals(5L, querySize("TypeA"));
+		assertEquals(5L, querySize("TypeB"));
+	}
+}
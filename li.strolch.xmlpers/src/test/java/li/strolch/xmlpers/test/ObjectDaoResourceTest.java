@@ -174,6 +174,51 @@ public class ObjectDaoResourceTest extends AbstractPersistenceTest {
 		}
 	}
 
+	@Test
+	public void shouldQueryAllInParallel() {
+		Properties properties = new Properties();
+		properties.setProperty(PersistenceConstants.PROP_XML_IO_MOD, IoMode.SAX.name());
+		properties.setProperty(PersistenceConstants.PROP_BASEPATH, BASEPATH + IoMode.SAX.name());
+		properties.setProperty(PersistenceConstants.PROP_PARSE_PARALLELISM, "4");
+		setup(properties);
+		assertNotNull(this.persistenceManager.getParsePool());
+
+		String type = "testParallel"; //$NON-NLS-1$
+		int nrOfResources = 500;
+
+		// create a list of resources
+		List<MyModel> resources = new ArrayList<>(nrOfResources);
+		for (int i = 0; i < nrOfResources; i++) {
+			String id = String.format("%s_%03d", RES_ID, i); //$NON-NLS-1$
+			resources.add(createResource(id, "Parallel Test Object. " + i, type)); //$NON-NLS-1$
+		}
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			tx.getObjectDao().addAll(resources);
+		}
+
+		// query all, which must keep the order of the IDs
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			SubTypeRef subTypeRef = tx.getManager().getObjectRefCache().getSubTypeRef(TestConstants.TYPE_RES, type);
+			List<MyModel> result = tx.getObjectDao().queryAll(subTypeRef, file -> true);
+			assertEquals(nrOfResources, result.size());
+			for (int i = 0; i < nrOfResources; i++) {
+				assertEquals(resources.get(i).getId(), result.get(i).getId());
+				assertEquals(resources.get(i).getName(), result.get(i).getName());
+			}
+		}
+
+		// stream all
+		try (PersistenceTransaction tx = this.persistenceManager.openTx()) {
+			SubTypeRef subTypeRef = tx.getManager().getObjectRefCache().getSubTypeRef(TestConstants.TYPE_RES, type);
+			List<MyModel> result = new ArrayList<>();
+			tx.getObjectDao().<MyModel>streamAll(subTypeRef, file -> true, supplier -> result.add(supplier.get()));
+			assertEquals(nrOfResources, result.size());
+			assertEquals(resources.get(0).getId(), result.get(0).getId());
+		}
+
+		this.persistenceManager.close();
+	}
+
 	@Test
 	public void shouldPersistById() {
 		setup(IoMode.SAX);